@@ -0,0 +1,575 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.arrow;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.Map;
+
+import com.d3x.morpheus.array.Array;
+import com.d3x.morpheus.array.ArrayType;
+import com.d3x.morpheus.frame.DataFrame;
+import com.d3x.morpheus.frame.DataFrameCursor;
+import com.d3x.morpheus.util.text.Formats;
+import com.d3x.morpheus.util.text.parser.Parser;
+import org.apache.arrow.vector.BaseIntVector;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.DateMilliVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.FloatingPointVector;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.LargeVarCharVector;
+import org.apache.arrow.vector.TimeMicroVector;
+import org.apache.arrow.vector.TimeMilliVector;
+import org.apache.arrow.vector.TimeNanoVector;
+import org.apache.arrow.vector.TimeSecVector;
+import org.apache.arrow.vector.TimeStampMilliTZVector;
+import org.apache.arrow.vector.TimeStampMilliVector;
+import org.apache.arrow.vector.TimeStampVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.types.DateUnit;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+
+/**
+ * A class that maps the values of a Morpheus column to and from an Arrow vector.
+ *
+ * <p>Primitive columns map onto the equivalent Arrow types, and temporal columns are written using the same long codes
+ * that Morpheus arrays store them with, namely epoch milliseconds for timestamps and nanos of day for times, so
+ * that no conversion is required in either direction. This also means that a column of such values in an Arrow file
+ * can be memory mapped directly as a Morpheus array. The Java type of a column is recorded as field metadata to
+ * restore types that share an Arrow representation, and values of other types are written as formatted strings.</p>
+ *
+ * @author Xavier Witdouck
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ */
+class ArrowColumn {
+
+    /** The field metadata key that records the Java type of the column */
+    static final String TYPE_KEY = "morpheus.type";
+
+    private static final Formats formats = new Formats();
+    private static final long MILLIS_PER_DAY = 86400000L;
+
+    private Field field;
+    private Class<?> type;
+    private ArrayType dataType;
+
+
+    /**
+     * Constructor
+     * @param field     the Arrow field definition
+     * @param type      the Java type for column
+     */
+    private ArrowColumn(Field field, Class<?> type) {
+        this.field = field;
+        this.type = type;
+        this.dataType = ArrayType.of(type);
+    }
+
+
+    /**
+     * Returns a column mapping to write values of the type specified
+     * @param name      the field name
+     * @param type      the Java type of the column
+     * @param values    the column values, used to resolve the zone of ZonedDateTime columns
+     * @return          the column mapping
+     */
+    static ArrowColumn forType(String name, Class<?> type, Values values) {
+        final Map<String,String> metadata = Map.of(TYPE_KEY, type.getName());
+        switch (ArrayType.of(type)) {
+            case BOOLEAN:           return create(name, type, new ArrowType.Bool(), metadata);
+            case INTEGER:           return create(name, type, new ArrowType.Int(32, true), metadata);
+            case LONG:              return create(name, type, new ArrowType.Int(64, true), metadata);
+            case DOUBLE:            return create(name, type, new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE), metadata);
+            case LOCAL_DATE:        return create(name, type, new ArrowType.Date(DateUnit.DAY), metadata);
+            case LOCAL_TIME:        return create(name, type, new ArrowType.Time(TimeUnit.NANOSECOND, 64), metadata);
+            case LOCAL_DATETIME:    return create(name, type, new ArrowType.Timestamp(TimeUnit.MILLISECOND, null), metadata);
+            case INSTANT:           return create(name, type, new ArrowType.Timestamp(TimeUnit.MILLISECOND, "UTC"), metadata);
+            case DATE:              return create(name, type, new ArrowType.Timestamp(TimeUnit.MILLISECOND, "UTC"), metadata);
+            case ZONED_DATETIME:
+                final ZonedDateTime first = findFirst(values);
+                final String zoneId = first != null ? first.getZone().getId() : "UTC";
+                return create(name, type, new ArrowType.Timestamp(TimeUnit.MILLISECOND, zoneId), metadata);
+            default:
+                if (type == Float.class) {
+                    return create(name, type, new ArrowType.FloatingPoint(FloatingPointPrecision.SINGLE), metadata);
+                } else {
+                    final Class<?> resultType = type.isEnum() || formats.getParser(type) != null ? type : String.class;
+                    return create(name, resultType, new ArrowType.Utf8(), Map.of(TYPE_KEY, resultType.getName()));
+                }
+        }
+    }
+
+
+    /**
+     * Returns a column mapping to read values from the Arrow field specified
+     * @param field     the Arrow field definition
+     * @return          the column mapping
+     */
+    static ArrowColumn forField(Field field) {
+        final ArrowType arrowType = field.getType();
+        final Class<?> recorded = resolveType(field);
+        switch (arrowType.getTypeID()) {
+            case Bool:          return new ArrowColumn(field, Boolean.class);
+            case FloatingPoint: return new ArrowColumn(field, Double.class);
+            case Date:          return new ArrowColumn(field, LocalDate.class);
+            case Time:          return new ArrowColumn(field, LocalTime.class);
+            case Int:
+                final ArrowType.Int intType = (ArrowType.Int)arrowType;
+                final boolean isInt = intType.getBitWidth() < 32 || (intType.getBitWidth() == 32 && intType.getIsSigned());
+                return new ArrowColumn(field, isInt ? Integer.class : Long.class);
+            case Timestamp:
+                final ArrowType.Timestamp timestamp = (ArrowType.Timestamp)arrowType;
+                if (timestamp.getTimezone() == null) {
+                    return new ArrowColumn(field, LocalDateTime.class);
+                } else if (recorded == Instant.class || recorded == Date.class) {
+                    return new ArrowColumn(field, recorded);
+                } else {
+                    return new ArrowColumn(field, ZonedDateTime.class);
+                }
+            case Utf8:
+            case LargeUtf8:
+                final boolean parsed = recorded != null && (recorded.isEnum() || formats.getParser(recorded) != null);
+                return new ArrowColumn(field, parsed ? recorded : String.class);
+            default:
+                return new ArrowColumn(field, Object.class);
+        }
+    }
+
+
+    /**
+     * Returns the Arrow field for this column
+     * @return  the Arrow field
+     */
+    Field field() {
+        return field;
+    }
+
+
+    /**
+     * Returns the Java type for this column
+     * @return  the Java type
+     */
+    Class<?> type() {
+        return type;
+    }
+
+
+    /**
+     * Returns true if the Arrow data buffer for this column has the same layout as a Morpheus mapped array
+     * @return  true if the data buffer of this column can be memory mapped as a Morpheus array
+     */
+    boolean isMappable() {
+        final ArrowType arrowType = field.getType();
+        switch (dataType) {
+            case INTEGER:           return arrowType.equals(new ArrowType.Int(32, true));
+            case LONG:              return arrowType.equals(new ArrowType.Int(64, true));
+            case DOUBLE:            return arrowType.equals(new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE));
+            case LOCAL_TIME:        return arrowType.equals(new ArrowType.Time(TimeUnit.NANOSECOND, 64));
+            case LOCAL_DATETIME:
+            case INSTANT:
+            case DATE:              return ((ArrowType.Timestamp)arrowType).getUnit() == TimeUnit.MILLISECOND;
+            default:                return false;
+        }
+    }
+
+
+    /**
+     * Writes a range of values from the source to the vector specified, starting at vector index zero
+     * @param vector    the vector to write to, which must be created from the field of this column
+     * @param values    the source values
+     * @param start     the index of the first source value
+     * @param count     the number of values to write
+     */
+    void write(FieldVector vector, Values values, int start, int count) {
+        switch (dataType) {
+            case BOOLEAN:
+                final BitVector bits = (BitVector)vector;
+                for (int i=0; i<count; ++i) bits.setSafe(i, values.getBoolean(start + i) ? 1 : 0);
+                break;
+            case INTEGER:
+                final IntVector ints = (IntVector)vector;
+                for (int i=0; i<count; ++i) {
+                    if (values.isNull(start + i)) ints.setNull(i); else ints.setSafe(i, values.getInt(start + i));
+                }
+                break;
+            case LONG:
+                final BigIntVector longs = (BigIntVector)vector;
+                for (int i=0; i<count; ++i) {
+                    if (values.isNull(start + i)) longs.setNull(i); else longs.setSafe(i, values.getLong(start + i));
+                }
+                break;
+            case DOUBLE:
+                final Float8Vector doubles = (Float8Vector)vector;
+                for (int i=0; i<count; ++i) doubles.setSafe(i, values.getDouble(start + i));
+                break;
+            case LOCAL_DATE:
+                final DateDayVector days = (DateDayVector)vector;
+                for (int i=0; i<count; ++i) {
+                    final long code = values.getLong(start + i);
+                    if (code == Long.MIN_VALUE) days.setNull(i); else days.setSafe(i, (int)code);
+                }
+                break;
+            case LOCAL_TIME:
+                final TimeNanoVector times = (TimeNanoVector)vector;
+                for (int i=0; i<count; ++i) {
+                    final long code = values.getLong(start + i);
+                    if (code == Long.MIN_VALUE) times.setNull(i); else times.setSafe(i, code);
+                }
+                break;
+            case LOCAL_DATETIME:
+                final TimeStampMilliVector stamps = (TimeStampMilliVector)vector;
+                for (int i=0; i<count; ++i) {
+                    final long code = values.getLong(start + i);
+                    if (code == Long.MIN_VALUE) stamps.setNull(i); else stamps.setSafe(i, code);
+                }
+                break;
+            case INSTANT:
+            case DATE:
+            case ZONED_DATETIME:
+                final TimeStampMilliTZVector zoned = (TimeStampMilliTZVector)vector;
+                for (int i=0; i<count; ++i) {
+                    final long code = values.getLong(start + i);
+                    if (code == Long.MIN_VALUE) zoned.setNull(i); else zoned.setSafe(i, code);
+                }
+                break;
+            default:
+                if (vector instanceof Float4Vector) {
+                    final Float4Vector floats = (Float4Vector)vector;
+                    for (int i=0; i<count; ++i) {
+                        final Object value = values.getValue(start + i);
+                        if (value == null) floats.setNull(i); else floats.setSafe(i, ((Number)value).floatValue());
+                    }
+                } else {
+                    final VarCharVector strings = (VarCharVector)vector;
+                    for (int i=0; i<count; ++i) {
+                        final Object value = values.getValue(start + i);
+                        if (value == null) {
+                            strings.setNull(i);
+                        } else {
+                            final String text = value instanceof Enum ? ((Enum<?>)value).name() : formats.format(value);
+                            strings.setSafe(i, text.getBytes(StandardCharsets.UTF_8));
+                        }
+                    }
+                }
+                break;
+        }
+        vector.setValueCount(count);
+    }
+
+
+    /**
+     * Returns a newly created Morpheus array with a copy of the values in the vector
+     * @param vector    the vector loaded with a record batch
+     * @return          the Morpheus array of values
+     */
+    @SuppressWarnings("unchecked")
+    Array<Object> read(FieldVector vector) {
+        final int count = vector.getValueCount();
+        final Array<Object> array = Array.of((Class<Object>)type, count);
+        switch (dataType) {
+            case BOOLEAN:
+                final BitVector bits = (BitVector)vector;
+                for (int i=0; i<count; ++i) if (!bits.isNull(i)) array.setBoolean(i, bits.get(i) != 0);
+                break;
+            case INTEGER:
+                final BaseIntVector ints = (BaseIntVector)vector;
+                for (int i=0; i<count; ++i) {
+                    if (vector.isNull(i)) array.setValue(i, null); else array.setInt(i, (int)ints.getValueAsLong(i));
+                }
+                break;
+            case LONG:
+                final BaseIntVector longs = (BaseIntVector)vector;
+                for (int i=0; i<count; ++i) {
+                    if (vector.isNull(i)) array.setValue(i, null); else array.setLong(i, longs.getValueAsLong(i));
+                }
+                break;
+            case DOUBLE:
+                final FloatingPointVector doubles = (FloatingPointVector)vector;
+                for (int i=0; i<count; ++i) if (!vector.isNull(i)) array.setDouble(i, doubles.getValueAsDouble(i));
+                break;
+            case LOCAL_DATE:
+                for (int i=0; i<count; ++i) if (!vector.isNull(i)) array.setLong(i, toEpochDay(vector, i));
+                break;
+            case LOCAL_TIME:
+                for (int i=0; i<count; ++i) if (!vector.isNull(i)) array.setLong(i, toNanoOfDay(vector, i));
+                break;
+            case LOCAL_DATETIME:
+            case INSTANT:
+            case DATE:
+                final TimeStampVector stamps = (TimeStampVector)vector;
+                final TimeUnit unit = ((ArrowType.Timestamp)field.getType()).getUnit();
+                for (int i=0; i<count; ++i) if (!vector.isNull(i)) array.setLong(i, toEpochMillis(stamps.get(i), unit));
+                break;
+            case ZONED_DATETIME:
+                final TimeStampVector zoned = (TimeStampVector)vector;
+                final ArrowType.Timestamp timestamp = (ArrowType.Timestamp)field.getType();
+                final ZoneId zoneId = toZoneId(timestamp.getTimezone());
+                for (int i=0; i<count; ++i) {
+                    if (!vector.isNull(i)) {
+                        final long millis = toEpochMillis(zoned.get(i), timestamp.getUnit());
+                        array.setValue(i, ZonedDateTime.ofInstant(Instant.ofEpochMilli(millis), zoneId));
+                    }
+                }
+                break;
+            default:
+                final Parser<?> parser = type == String.class || type == Object.class ? null : formats.getParser(type);
+                for (int i=0; i<count; ++i) {
+                    if (!vector.isNull(i)) {
+                        if (vector instanceof VarCharVector) {
+                            array.setValue(i, toValue(new String(((VarCharVector)vector).get(i), StandardCharsets.UTF_8), parser));
+                        } else if (vector instanceof LargeVarCharVector) {
+                            array.setValue(i, toValue(new String(((LargeVarCharVector)vector).get(i), StandardCharsets.UTF_8), parser));
+                        } else {
+                            array.setValue(i, vector.getObject(i));
+                        }
+                    }
+                }
+                break;
+        }
+        return array;
+    }
+
+
+    /**
+     * Returns a value of the column type from the string specified
+     * @param text      the string value
+     * @param parser    the parser for the column type, null to retain the string
+     * @return          the column value
+     */
+    @SuppressWarnings("unchecked")
+    private Object toValue(String text, Parser<?> parser) {
+        if (type.isEnum()) {
+            return Enum.valueOf((Class<Enum>)type, text);
+        } else {
+            return parser != null ? parser.apply(text) : text;
+        }
+    }
+
+
+    /**
+     * Returns a newly created column with an Arrow field of the type specified
+     * @param name          the field name
+     * @param type          the Java type
+     * @param arrowType     the Arrow type
+     * @param metadata      the field metadata
+     * @return              the column mapping
+     */
+    private static ArrowColumn create(String name, Class<?> type, ArrowType arrowType, Map<String,String> metadata) {
+        final FieldType fieldType = new FieldType(true, arrowType, null, metadata);
+        return new ArrowColumn(new Field(name, fieldType, null), type);
+    }
+
+
+    /**
+     * Returns the Java type recorded in the field metadata, if any
+     * @param field     the Arrow field
+     * @return          the recorded type, null if not recorded or not resolved
+     */
+    private static Class<?> resolveType(Field field) {
+        final Map<String,String> metadata = field.getMetadata();
+        final String typeName = metadata != null ? metadata.get(TYPE_KEY) : null;
+        try {
+            return typeName != null ? Class.forName(typeName) : null;
+        } catch (ClassNotFoundException ex) {
+            return null;
+        }
+    }
+
+
+    /**
+     * Returns the first non-null value of a ZonedDateTime column
+     * @param values    the column values
+     * @return          the first non-null value, null if none
+     */
+    private static ZonedDateTime findFirst(Values values) {
+        for (int i=0; i<values.length(); ++i) {
+            final Object value = values.getValue(i);
+            if (value != null) {
+                return (ZonedDateTime)value;
+            }
+        }
+        return null;
+    }
+
+
+    /**
+     * Returns the zone for an Arrow timezone string, which may be a region or an offset
+     * @param timezone  the Arrow timezone
+     * @return          the zone id
+     */
+    private static ZoneId toZoneId(String timezone) {
+        return timezone.equals("UTC") ? ZoneOffset.UTC : ZoneId.of(timezone);
+    }
+
+
+    /**
+     * Returns the epoch milliseconds for a timestamp in the unit specified
+     * @param value     the timestamp value
+     * @param unit      the timestamp unit
+     * @return          the epoch milliseconds
+     */
+    private static long toEpochMillis(long value, TimeUnit unit) {
+        switch (unit) {
+            case SECOND:        return value * 1000L;
+            case MILLISECOND:   return value;
+            case MICROSECOND:   return Math.floorDiv(value, 1000L);
+            case NANOSECOND:    return Math.floorDiv(value, 1000000L);
+            default:            throw new IllegalArgumentException("Unsupported time unit: " + unit);
+        }
+    }
+
+
+    /**
+     * Returns the epoch day for the value at the index of a date vector
+     * @param vector    the date vector
+     * @param index     the value index
+     * @return          the epoch day
+     */
+    private static long toEpochDay(FieldVector vector, int index) {
+        if (vector instanceof DateDayVector) {
+            return ((DateDayVector)vector).get(index);
+        } else {
+            return Math.floorDiv(((DateMilliVector)vector).get(index), MILLIS_PER_DAY);
+        }
+    }
+
+
+    /**
+     * Returns the nano of day for the value at the index of a time vector
+     * @param vector    the time vector
+     * @param index     the value index
+     * @return          the nano of day
+     */
+    private static long toNanoOfDay(FieldVector vector, int index) {
+        if (vector instanceof TimeNanoVector) {
+            return ((TimeNanoVector)vector).get(index);
+        } else if (vector instanceof TimeMicroVector) {
+            return ((TimeMicroVector)vector).get(index) * 1000L;
+        } else if (vector instanceof TimeMilliVector) {
+            return ((TimeMilliVector)vector).get(index) * 1000000L;
+        } else {
+            return ((TimeSecVector)vector).get(index) * 1000000000L;
+        }
+    }
+
+
+    /**
+     * An interface to values of a column that are written to Arrow, which avoids boxing primitives and temporal codes
+     */
+    interface Values {
+
+        /**
+         * Returns the number of values
+         * @return  the value count
+         */
+        int length();
+
+        /**
+         * Returns true if the value at the index is null
+         * @param index     the value index
+         * @return          true if the value is null
+         */
+        boolean isNull(int index);
+
+        /**
+         * Returns the boolean value at the index
+         * @param index     the value index
+         * @return          the value
+         */
+        boolean getBoolean(int index);
+
+        /**
+         * Returns the int value at the index
+         * @param index     the value index
+         * @return          the value
+         */
+        int getInt(int index);
+
+        /**
+         * Returns the long value at the index, which is the long code for temporal values
+         * @param index     the value index
+         * @return          the value
+         */
+        long getLong(int index);
+
+        /**
+         * Returns the double value at the index
+         * @param index     the value index
+         * @return          the value
+         */
+        double getDouble(int index);
+
+        /**
+         * Returns the value at the index
+         * @param index     the value index
+         * @return          the value
+         */
+        Object getValue(int index);
+
+        /**
+         * Returns values that read from the array specified
+         * @param array     the array of values
+         * @return          the values
+         */
+        static Values of(Array<?> array) {
+            return new Values() {
+                public int length() { return array.length(); }
+                public boolean isNull(int index) { return array.isNull(index); }
+                public boolean getBoolean(int index) { return array.getBoolean(index); }
+                public int getInt(int index) { return array.getInt(index); }
+                public long getLong(int index) { return array.getLong(index); }
+                public double getDouble(int index) { return array.getDouble(index); }
+                public Object getValue(int index) { return array.getValue(index); }
+            };
+        }
+
+        /**
+         * Returns values that read from a column of the frame specified
+         * @param frame         the frame to read from
+         * @param colOrdinal    the column ordinal
+         * @return              the values
+         */
+        static Values of(DataFrame<?,?> frame, int colOrdinal) {
+            final DataFrameCursor<?,?> cursor = frame.cursor();
+            return new Values() {
+                public int length() { return frame.rowCount(); }
+                public boolean isNull(int index) { return cursor.atOrdinals(index, colOrdinal).isNull(); }
+                public boolean getBoolean(int index) { return frame.getBooleanAt(index, colOrdinal); }
+                public int getInt(int index) { return frame.getIntAt(index, colOrdinal); }
+                public long getLong(int index) { return frame.getLongAt(index, colOrdinal); }
+                public double getDouble(int index) { return frame.getDoubleAt(index, colOrdinal); }
+                public Object getValue(int index) { return frame.getValueAt(index, colOrdinal); }
+            };
+        }
+    }
+}
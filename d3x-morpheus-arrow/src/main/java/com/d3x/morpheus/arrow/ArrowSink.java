@@ -0,0 +1,229 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.arrow;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import com.d3x.morpheus.array.Array;
+import com.d3x.morpheus.frame.DataFrame;
+import com.d3x.morpheus.frame.DataFrameException;
+import com.d3x.morpheus.frame.DataFrameSink;
+import com.d3x.morpheus.util.IO;
+import com.d3x.morpheus.util.Resource;
+import com.d3x.morpheus.util.text.Formats;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowFileWriter;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.ipc.ArrowWriter;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+/**
+ * A DataFrameSink that writes a DataFrame in the Arrow IPC file or stream format, with one Arrow field per column.
+ *
+ * <p>Rows are written in record batches of a configurable size, and each column is copied into its Arrow vector
+ * through the primitive accessors of the frame, so temporal columns are written from their long codes without
+ * creating intermediate objects. The row keys are written to an additional field, and the types of the row and column
+ * keys are recorded as schema metadata so that {@link ArrowSource} can restore the frame exactly.</p>
+ *
+ * @param <R>   the row key type
+ * @param <C>   the column key type
+ *
+ * @author Xavier Witdouck
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ */
+public class ArrowSink<R,C> implements DataFrameSink<R,C,ArrowSink.Options<R,C>> {
+
+    /** The schema metadata key that names the field holding row keys */
+    static final String ROW_KEY_METADATA = "morpheus.rowKey";
+    /** The schema metadata key that records the column key type */
+    static final String COL_TYPE_METADATA = "morpheus.colType";
+
+    private static final Formats formats = new Formats();
+
+
+    /**
+     * Writes a DataFrame to an Arrow resource according to configured options
+     * @param configurator  the consumer to configure options
+     * @param <R>           the row key type
+     * @param <C>           the column key type
+     */
+    public static <R,C> void save(Consumer<Options<R,C>> configurator) {
+        new ArrowSink<R,C>().write(configurator);
+    }
+
+
+    @Override
+    public void write(Consumer<Options<R,C>> configurator) {
+        OutputStream os = null;
+        ArrowWriter writer = null;
+        VectorSchemaRoot root = null;
+        BufferAllocator allocator = null;
+        try {
+            final Options<R,C> options = new Options<>();
+            configurator.accept(options);
+            options.validate();
+            final DataFrame<R,C> frame = options.frame;
+            final int rowCount = frame.rowCount();
+            final int colCount = frame.colCount();
+            final Array<R> rowKeys = frame.rows().keyArray();
+            final ArrowColumn.Values rowValues = ArrowColumn.Values.of(rowKeys);
+            final ArrowColumn rowColumn = options.includeRowKeys ? ArrowColumn.forType(options.rowKeyField, rowKeys.type(), rowValues) : null;
+            final ArrowColumn[] columns = new ArrowColumn[colCount];
+            final ArrowColumn.Values[] values = new ArrowColumn.Values[colCount];
+            for (int j=0; j<colCount; ++j) {
+                final C key = frame.cols().key(j);
+                values[j] = ArrowColumn.Values.of(frame, j);
+                columns[j] = ArrowColumn.forType(formats.format(key), frame.cols().type(key), values[j]);
+            }
+            final Schema schema = createSchema(frame, rowColumn, columns, options);
+            final int offset = rowColumn != null ? 1 : 0;
+            final int batchSize = options.batchSize > 0 ? options.batchSize : Math.max(1, rowCount);
+            allocator = new RootAllocator();
+            root = VectorSchemaRoot.create(schema, allocator);
+            os = options.resource.toOutputStream();
+            switch (options.format) {
+                case FILE:      writer = new ArrowFileWriter(root, null, Channels.newChannel(os));  break;
+                case STREAM:    writer = new ArrowStreamWriter(root, null, os);                     break;
+                default:        throw new IllegalArgumentException("Unsupported Arrow format: " + options.format);
+            }
+            writer.start();
+            for (int start=0; start<rowCount; start+=batchSize) {
+                final int count = Math.min(batchSize, rowCount - start);
+                root.allocateNew();
+                if (rowColumn != null) {
+                    rowColumn.write(root.getVector(0), rowValues, start, count);
+                }
+                for (int j=0; j<colCount; ++j) {
+                    columns[j].write(root.getVector(j + offset), values[j], start, count);
+                }
+                root.setRowCount(count);
+                writer.writeBatch();
+            }
+            writer.end();
+            os.flush();
+        } catch (DataFrameException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new DataFrameException("Failed to write DataFrame to Arrow resource", ex);
+        } finally {
+            IO.close(writer);
+            IO.close(root);
+            IO.close(allocator);
+            IO.close(os);
+        }
+    }
+
+
+    /**
+     * Returns the Arrow schema for the frame, recording key types as schema metadata
+     * @param frame     the frame to write
+     * @param rowColumn the mapping for row keys, null if row keys are excluded
+     * @param columns   the mappings for each column
+     * @param options   the sink options
+     * @return          the Arrow schema
+     */
+    private Schema createSchema(DataFrame<R,C> frame, ArrowColumn rowColumn, ArrowColumn[] columns, Options<R,C> options) {
+        final List<Field> fields = new ArrayList<>(columns.length + 1);
+        final Map<String,String> metadata = new HashMap<>();
+        metadata.put(COL_TYPE_METADATA, frame.cols().keyArray().type().getName());
+        if (rowColumn != null) {
+            fields.add(rowColumn.field());
+            metadata.put(ROW_KEY_METADATA, options.rowKeyField);
+        }
+        for (ArrowColumn column : columns) {
+            fields.add(column.field());
+        }
+        return new Schema(fields, metadata);
+    }
+
+
+    /**
+     * The options for this sink
+     * @param <R>   the row key type
+     * @param <C>   the column key type
+     */
+    public static class Options<R,C> {
+
+        /** The resource to write to */
+        @lombok.Getter
+        private Resource resource;
+        /** The frame to write */
+        @lombok.Getter @lombok.Setter
+        private DataFrame<R,C> frame;
+        /** The Arrow IPC format to write */
+        @lombok.Getter @lombok.Setter
+        private ArrowFormat format = ArrowFormat.FILE;
+        /** The name of the field that holds row keys */
+        @lombok.Getter @lombok.Setter
+        private String rowKeyField = "__index_level_0__";
+        /** True to include a field with row keys */
+        @lombok.Getter @lombok.Setter
+        private boolean includeRowKeys = true;
+        /** The max number of rows per record batch, zero to write all rows in a single batch */
+        @lombok.Getter @lombok.Setter
+        private int batchSize;
+
+        /**
+         * Validates that these options are complete
+         */
+        public void validate() {
+            Objects.requireNonNull(resource, "The resource cannot be null");
+            Objects.requireNonNull(frame, "The frame cannot be null");
+            Objects.requireNonNull(format, "The format cannot be null");
+            if (includeRowKeys && rowKeyField == null) {
+                throw new IllegalStateException("The row key field name cannot be null");
+            } else if (batchSize < 0) {
+                throw new IllegalStateException("The batch size must be >= 0: " + batchSize);
+            }
+        }
+
+        /**
+         * Sets the file to write to
+         * @param file  the file reference
+         */
+        public void setFile(File file) {
+            this.resource = Resource.of(file);
+        }
+
+        /**
+         * Sets the output stream to write to
+         * @param os    the output stream
+         */
+        public void setOutputStream(OutputStream os) {
+            this.resource = Resource.of(os);
+        }
+
+        /**
+         * Sets the resource string to write to
+         * @param resource  the resource string
+         */
+        public void setResource(String resource) {
+            this.resource = Resource.of(resource);
+        }
+    }
+}
@@ -0,0 +1,595 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.arrow;
+
+import java.io.File;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SeekableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import com.d3x.morpheus.array.Array;
+import com.d3x.morpheus.frame.DataFrame;
+import com.d3x.morpheus.frame.DataFrameException;
+import com.d3x.morpheus.frame.DataFrameSource;
+import com.d3x.morpheus.range.Range;
+import com.d3x.morpheus.util.IO;
+import com.d3x.morpheus.util.Resource;
+import com.d3x.morpheus.util.text.Formats;
+import org.apache.arrow.flatbuf.Buffer;
+import org.apache.arrow.flatbuf.FieldNode;
+import org.apache.arrow.flatbuf.RecordBatch;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.TypeLayout;
+import org.apache.arrow.vector.VectorLoader;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowFileReader;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.apache.arrow.vector.ipc.ReadChannel;
+import org.apache.arrow.vector.ipc.message.ArrowBlock;
+import org.apache.arrow.vector.ipc.message.ArrowFieldNode;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
+import org.apache.arrow.vector.ipc.message.MessageMetadataResult;
+import org.apache.arrow.vector.ipc.message.MessageSerializer;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.arrow.vector.util.ByteArrayReadableSeekableByteChannel;
+
+/**
+ * A DataFrameSource that reads a DataFrame from a resource in the Arrow IPC file or stream format.
+ *
+ * <p>Each record batch is copied column by column from its Arrow vectors into Morpheus arrays, which are concatenated
+ * in order once all batches have been read. Files written by {@link ArrowSink} restore their row keys, column keys and
+ * column types, while other files produce a frame with Integer row keys and String column keys named after the fields.</p>
+ *
+ * <p>When the memory mapped option is enabled and a file holds a single record batch, fixed width columns whose data
+ * buffer has the same layout as a Morpheus array, namely 32 and 64 bit integers, doubles, millisecond timestamps and
+ * nanosecond times without nulls or compression, are not copied at all. Instead, the region of the file holding the
+ * data buffer is mapped directly as a {@link com.d3x.morpheus.array.ArrayStyle#MAPPED} array, so the values are paged in
+ * on demand. The region is mapped read-only, and a mapped array copies its values to a temporary file of its own on the
+ * first update, so updates to the frame are never written back to the file. If the frame has a row key field, only
+ * the buffers of that field are read from the file, so that the mapped columns are never loaded.</p>
+ *
+ * @param <R>   the row key type
+ * @param <C>   the column key type
+ *
+ * @author Xavier Witdouck
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ */
+public class ArrowSource<R,C> implements DataFrameSource<R,C,ArrowSource.Options<R,C>> {
+
+    private static final Formats formats = new Formats();
+
+
+    /**
+     * Returns a DataFrame loaded from an Arrow resource according to configured options
+     * @param configurator  the consumer to configure options
+     * @param <R>           the row key type
+     * @param <C>           the column key type
+     * @return              the resulting DataFrame
+     */
+    public static <R,C> DataFrame<R,C> load(Consumer<Options<R,C>> configurator) {
+        return new ArrowSource<R,C>().read(configurator);
+    }
+
+
+    @Override
+    public DataFrame<R,C> read(Consumer<Options<R,C>> configurator) throws DataFrameException {
+        final Options<R,C> options = initOptions(new Options<>(), configurator);
+        options.validate();
+        BufferAllocator allocator = null;
+        try {
+            allocator = new RootAllocator();
+            final Resource resource = options.resource;
+            if (options.format == ArrowFormat.STREAM) {
+                return readStream(resource.toInputStream(), allocator, options);
+            } else if (resource.isFile()) {
+                return readFile(resource.asFile(), allocator, options);
+            } else {
+                final byte[] bytes = readBytes(resource.toInputStream());
+                return readFile(new ByteArrayReadableSeekableByteChannel(bytes), null, allocator, options);
+            }
+        } catch (DataFrameException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new DataFrameException("Failed to read DataFrame from Arrow resource: " + options.resource, ex);
+        } finally {
+            IO.close(allocator);
+        }
+    }
+
+
+    /**
+     * Returns the full content of an input stream, which is required for random access to a non-file resource
+     * @param is    the input stream to read from
+     * @return      the bytes read
+     * @throws IOException  if there is an I/O error
+     */
+    private byte[] readBytes(InputStream is) throws IOException {
+        try {
+            return is.readAllBytes();
+        } finally {
+            IO.close(is);
+        }
+    }
+
+
+    /**
+     * Returns a DataFrame read from all record batches of an Arrow stream
+     * @param is        the input stream to read from
+     * @param allocator the allocator for Arrow buffers
+     * @param options   the source options
+     * @return          the resulting DataFrame
+     * @throws IOException  if there is an I/O error
+     */
+    private DataFrame<R,C> readStream(InputStream is, BufferAllocator allocator, Options<R,C> options) throws IOException {
+        ArrowStreamReader reader = null;
+        try {
+            reader = new ArrowStreamReader(is, allocator);
+            final VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            final Layout layout = new Layout(root.getSchema(), options);
+            while (reader.loadNextBatch()) {
+                layout.add(root);
+            }
+            return layout.toFrame();
+        } finally {
+            IO.close(reader);
+            IO.close(is);
+        }
+    }
+
+
+    /**
+     * Returns a DataFrame read from an Arrow file, memory mapping columns if enabled
+     * @param file      the Arrow file to read from
+     * @param allocator the allocator for Arrow buffers
+     * @param options   the source options
+     * @return          the resulting DataFrame
+     * @throws IOException  if there is an I/O error
+     */
+    private DataFrame<R,C> readFile(File file, BufferAllocator allocator, Options<R,C> options) throws IOException {
+        RandomAccessFile raf = null;
+        try {
+            raf = new RandomAccessFile(file, "r");
+            return readFile(raf.getChannel(), file, allocator, options);
+        } finally {
+            IO.close(raf);
+        }
+    }
+
+
+    /**
+     * Returns a DataFrame read from all record batches of an Arrow file
+     * @param channel   the channel to read from
+     * @param file      the file for the channel, null if the content is not backed by a file
+     * @param allocator the allocator for Arrow buffers
+     * @param options   the source options
+     * @return          the resulting DataFrame
+     * @throws IOException  if there is an I/O error
+     */
+    private DataFrame<R,C> readFile(SeekableByteChannel channel, File file, BufferAllocator allocator, Options<R,C> options) throws IOException {
+        ArrowFileReader reader = null;
+        try {
+            reader = new ArrowFileReader(channel, allocator);
+            final VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            final Layout layout = new Layout(root.getSchema(), options);
+            final List<ArrowBlock> blocks = reader.getRecordBlocks();
+            if (options.memoryMapped && file != null && blocks.size() == 1) {
+                final ArrowBlock block = blocks.get(0);
+                channel.position(block.getOffset());
+                final MessageMetadataResult message = MessageSerializer.readMessage(new ReadChannel(channel));
+                final RecordBatch batch = (RecordBatch)message.getMessage().header(new RecordBatch());
+                final boolean loaded = layout.requiresVectors(root, batch);
+                if (loaded) {
+                    reader.loadRecordBatch(block);
+                }
+                layout.add(root, loaded, channel, allocator, file, block, batch);
+            } else {
+                for (ArrowBlock block : blocks) {
+                    reader.loadRecordBatch(block);
+                    layout.add(root);
+                }
+            }
+            return layout.toFrame();
+        } finally {
+            IO.close(reader);
+        }
+    }
+
+
+    /**
+     * The mapping of an Arrow schema to the row keys, column keys and columns of the resulting frame
+     */
+    private class Layout {
+
+        private int rowCount;
+        private Class<C> colType;
+        private ArrowColumn rowColumn;
+        private int rowFieldIndex = -1;
+        private List<C> colKeys = new ArrayList<>();
+        private List<Integer> fieldIndexes = new ArrayList<>();
+        private List<ArrowColumn> columns = new ArrayList<>();
+        private List<Array<Object>> rowKeys = new ArrayList<>();
+        private List<List<Array<Object>>> arrays = new ArrayList<>();
+
+        /**
+         * Constructor
+         * @param schema    the Arrow schema
+         * @param options   the source options
+         */
+        @SuppressWarnings("unchecked")
+        Layout(Schema schema, Options<R,C> options) {
+            final Map<String,String> metadata = schema.getCustomMetadata();
+            this.colType = (Class<C>)resolveClass(metadata != null ? metadata.get(ArrowSink.COL_TYPE_METADATA) : null);
+            final String rowKeyField = options.rowKeyField != null ? options.rowKeyField : metadata != null ? metadata.get(ArrowSink.ROW_KEY_METADATA) : null;
+            final List<Field> fields = schema.getFields();
+            for (int i=0; i<fields.size(); ++i) {
+                final Field field = fields.get(i);
+                if (field.getName().equals(rowKeyField)) {
+                    this.rowFieldIndex = i;
+                    this.rowColumn = ArrowColumn.forField(field);
+                } else {
+                    final C colKey = parseKey(colType, field.getName());
+                    if (options.colPredicate == null || options.colPredicate.test(colKey)) {
+                        this.colKeys.add(colKey);
+                        this.fieldIndexes.add(i);
+                        this.columns.add(ArrowColumn.forField(field));
+                        this.arrays.add(new ArrayList<>());
+                    }
+                }
+            }
+            if (rowKeyField != null && rowColumn == null) {
+                throw new DataFrameException("No field named " + rowKeyField + " in Arrow schema: " + schema);
+            }
+        }
+
+        /**
+         * Adds a copy of the values of the record batch loaded in the root specified
+         * @param root  the root loaded with a record batch
+         */
+        void add(VectorSchemaRoot root) {
+            this.rowCount += root.getRowCount();
+            if (rowColumn != null) {
+                this.rowKeys.add(rowColumn.read(root.getVector(rowFieldIndex)));
+            }
+            for (int j=0; j<columns.size(); ++j) {
+                final int fieldIndex = fieldIndexes.get(j);
+                this.arrays.get(j).add(columns.get(j).read(root.getVector(fieldIndex)));
+            }
+        }
+
+        /**
+         * Returns true if a record batch must be loaded into the root, because some column cannot be mapped
+         * The row keys do not require the batch to be loaded, as the buffers of the row key field can be read on their own
+         * @param root      the root for the record batch
+         * @param batch     the record batch message header
+         * @return          true if the vectors of the record batch must be loaded
+         */
+        boolean requiresVectors(VectorSchemaRoot root, RecordBatch batch) {
+            if (rowColumn != null && batch.compression() != null) {
+                return true;
+            } else {
+                final int[] nodeIndexes = nodeIndexes(root.getSchema().getFields());
+                for (int j=0; j<columns.size(); ++j) {
+                    if (!isMappable(batch, columns.get(j), nodeIndexes[fieldIndexes.get(j)])) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+        }
+
+        /**
+         * Returns true if the data buffer of a column can be mapped from the file, based on the record batch header alone
+         * @param batch     the record batch message header
+         * @param column    the column mapping
+         * @param nodeIndex the index of the field node for the column
+         * @return          true if the column can be memory mapped
+         */
+        private boolean isMappable(RecordBatch batch, ArrowColumn column, int nodeIndex) {
+            return batch.compression() == null && column.isMappable() && batch.nodes(nodeIndex).nullCount() == 0;
+        }
+
+        /**
+         * Adds the values of a record batch, mapping the data buffers of eligible columns from the file
+         * @param root      the root for the record batch, which is loaded only if some column cannot be mapped
+         * @param loaded    true if the record batch has been loaded into the root
+         * @param channel   the channel to read the row key buffers from if the batch has not been loaded
+         * @param allocator the allocator for Arrow buffers
+         * @param file      the Arrow file
+         * @param block     the block of the record batch in the file
+         * @param batch     the record batch message header
+         * @throws IOException  if there is an I/O error
+         */
+        @SuppressWarnings("unchecked")
+        void add(VectorSchemaRoot root, boolean loaded, SeekableByteChannel channel, BufferAllocator allocator, File file, ArrowBlock block, RecordBatch batch) throws IOException {
+            final int count = (int)batch.length();
+            final long bodyOffset = block.getOffset() + block.getMetadataLength();
+            final int[] bufferIndexes = bufferIndexes(root.getSchema().getFields());
+            final int[] nodeIndexes = nodeIndexes(root.getSchema().getFields());
+            this.rowCount += count;
+            if (rowColumn != null && loaded) {
+                this.rowKeys.add(rowColumn.read(root.getVector(rowFieldIndex)));
+            } else if (rowColumn != null) {
+                final Field field = root.getSchema().getFields().get(rowFieldIndex);
+                final int nodeIndex = nodeIndexes[rowFieldIndex];
+                final int bufferIndex = bufferIndexes[rowFieldIndex];
+                this.rowKeys.add(readRowKeys(channel, allocator, field, bodyOffset, batch, nodeIndex, bufferIndex));
+            }
+            for (int j=0; j<columns.size(); ++j) {
+                final int fieldIndex = fieldIndexes.get(j);
+                final ArrowColumn column = columns.get(j);
+                if (isMappable(batch, column, nodeIndexes[fieldIndex])) {
+                    final long offset = bodyOffset + batch.buffers(bufferIndexes[fieldIndex] + 1).offset();
+                    final Class<Object> type = (Class<Object>)column.type();
+                    this.arrays.get(j).add(Array.map(type, file, offset, count, ByteOrder.LITTLE_ENDIAN));
+                } else {
+                    this.arrays.get(j).add(column.read(root.getVector(fieldIndex)));
+                }
+            }
+        }
+
+        /**
+         * Returns the row keys of a record batch read from the buffers of the row key field alone
+         * @param channel       the channel to read from
+         * @param allocator     the allocator for Arrow buffers
+         * @param field         the row key field
+         * @param bodyOffset    the offset of the record batch body in the file
+         * @param batch         the record batch message header
+         * @param nodeIndex     the index of the field node for the row key field
+         * @param bufferIndex   the index of the first buffer for the row key field
+         * @return              the row keys for the batch
+         * @throws IOException  if there is an I/O error
+         */
+        private Array<Object> readRowKeys(SeekableByteChannel channel, BufferAllocator allocator, Field field, long bodyOffset, RecordBatch batch, int nodeIndex, int bufferIndex) throws IOException {
+            final List<ArrowFieldNode> nodes = new ArrayList<>();
+            final List<ArrowBuf> buffers = new ArrayList<>();
+            VectorSchemaRoot keyRoot = null;
+            ArrowRecordBatch keyBatch = null;
+            try {
+                for (int i=0; i<nodeCount(field); ++i) {
+                    final FieldNode node = batch.nodes(nodeIndex + i);
+                    nodes.add(new ArrowFieldNode(node.length(), node.nullCount()));
+                }
+                for (int i=0; i<bufferCount(field); ++i) {
+                    final Buffer buffer = batch.buffers(bufferIndex + i);
+                    final ArrowBuf target = allocator.buffer(buffer.length());
+                    buffers.add(target);
+                    final ByteBuffer bytes = target.nioBuffer(0, (int)buffer.length());
+                    channel.position(bodyOffset + buffer.offset());
+                    while (bytes.hasRemaining()) {
+                        if (channel.read(bytes) < 0) {
+                            throw new EOFException("Unexpected end of Arrow file reading row keys");
+                        }
+                    }
+                    target.writerIndex(buffer.length());
+                }
+                keyBatch = new ArrowRecordBatch((int)batch.length(), nodes, buffers);
+                keyRoot = VectorSchemaRoot.create(new Schema(List.of(field)), allocator);
+                new VectorLoader(keyRoot).load(keyBatch);
+                return rowColumn.read(keyRoot.getVector(0));
+            } finally {
+                buffers.forEach(IO::close);
+                IO.close(keyBatch);
+                IO.close(keyRoot);
+            }
+        }
+
+        /**
+         * Returns the frame assembled from the batches read so far
+         * @return  the resulting frame
+         */
+        @SuppressWarnings("unchecked")
+        DataFrame<R,C> toFrame() {
+            final Iterable<R> keys = rowColumn == null ? (Iterable<R>)(Iterable<?>)Range.of(0, rowCount) : (Iterable<R>)concat(rowColumn, rowKeys);
+            return DataFrame.of(keys, colType, frame -> {
+                for (int j=0; j<colKeys.size(); ++j) {
+                    frame.add(colKeys.get(j), concat(columns.get(j), arrays.get(j)));
+                }
+            });
+        }
+
+        /**
+         * Returns the concatenation of the arrays of a column across batches
+         * @param column    the column mapping
+         * @param batches   the arrays for each batch
+         * @return          the concatenated array
+         */
+        @SuppressWarnings("unchecked")
+        private Array<Object> concat(ArrowColumn column, List<Array<Object>> batches) {
+            if (batches.size() == 1) {
+                return batches.get(0);
+            } else if (batches.isEmpty()) {
+                return Array.of((Class<Object>)column.type(), 0);
+            } else {
+                return Array.concat((Class<Object>)column.type(), batches);
+            }
+        }
+    }
+
+
+    /**
+     * Returns the index of the first buffer of each top level field in a record batch, in field order
+     * @param fields    the top level fields
+     * @return          the index of the first buffer for each field
+     */
+    private static int[] bufferIndexes(List<Field> fields) {
+        int index = 0;
+        final int[] result = new int[fields.size()];
+        for (int i=0; i<fields.size(); ++i) {
+            result[i] = index;
+            index += bufferCount(fields.get(i));
+        }
+        return result;
+    }
+
+
+    /**
+     * Returns the index of the field node of each top level field in a record batch, in field order
+     * @param fields    the top level fields
+     * @return          the index of the field node for each field
+     */
+    private static int[] nodeIndexes(List<Field> fields) {
+        int index = 0;
+        final int[] result = new int[fields.size()];
+        for (int i=0; i<fields.size(); ++i) {
+            result[i] = index;
+            index += nodeCount(fields.get(i));
+        }
+        return result;
+    }
+
+
+    /**
+     * Returns the number of field nodes of a field in a record batch, including those of its children
+     * @param field the field
+     * @return      the field node count
+     */
+    private static int nodeCount(Field field) {
+        int count = 1;
+        for (Field child : field.getChildren()) {
+            count += nodeCount(child);
+        }
+        return count;
+    }
+
+
+    /**
+     * Returns the number of buffers of a field in a record batch, including those of its children
+     * @param field the field
+     * @return      the buffer count
+     */
+    private static int bufferCount(Field field) {
+        int count = TypeLayout.getTypeBufferCount(field.getType());
+        for (Field child : field.getChildren()) {
+            count += bufferCount(child);
+        }
+        return count;
+    }
+
+
+    /**
+     * Returns the class for the name specified, defaulting to String for unknown types
+     * @param className     the fully qualified class name, may be null
+     * @return              the class, String if not resolved
+     */
+    private static Class<?> resolveClass(String className) {
+        try {
+            return className != null ? Class.forName(className) : String.class;
+        } catch (ClassNotFoundException ex) {
+            return String.class;
+        }
+    }
+
+
+    /**
+     * Returns a key of the type specified parsed from an Arrow field name
+     * @param type  the key type
+     * @param text  the key text
+     * @param <K>   the key type
+     * @return      the parsed key
+     */
+    @SuppressWarnings("unchecked")
+    private static <K> K parseKey(Class<K> type, String text) {
+        if (type == String.class) {
+            return (K)text;
+        } else if (type.isEnum()) {
+            return (K)Enum.valueOf((Class<Enum>)type, text);
+        } else if (formats.getParser(type) != null) {
+            return formats.parse(type, text);
+        } else {
+            throw new DataFrameException("Unable to parse column key of type " + type.getName() + ": " + text);
+        }
+    }
+
+
+    /**
+     * The options for this source
+     * @param <R>   the row key type
+     * @param <C>   the column key type
+     */
+    public static class Options<R,C> {
+
+        /** The resource to load from */
+        @lombok.Getter
+        private Resource resource;
+        /** The Arrow IPC format to read */
+        @lombok.Getter @lombok.Setter
+        private ArrowFormat format = ArrowFormat.FILE;
+        /** The name of the field with row keys, which defaults to the field recorded by ArrowSink */
+        @lombok.Getter @lombok.Setter
+        private String rowKeyField;
+        /** The optional predicate to select columns */
+        @lombok.Getter @lombok.Setter
+        private Predicate<C> colPredicate;
+        /** True to memory map eligible columns of a single batch file rather than copying them */
+        @lombok.Getter @lombok.Setter
+        private boolean memoryMapped;
+
+        /**
+         * Validates that these options are complete
+         */
+        public void validate() {
+            Objects.requireNonNull(resource, "The resource cannot be null");
+            Objects.requireNonNull(format, "The format cannot be null");
+        }
+
+        /**
+         * Sets the file to load from
+         * @param file  the file reference
+         */
+        public void setFile(File file) {
+            this.resource = Resource.of(file);
+        }
+
+        /**
+         * Sets the URL to load from
+         * @param url   the url reference
+         */
+        public void setURL(URL url) {
+            this.resource = Resource.of(url);
+        }
+
+        /**
+         * Sets the input stream to load from
+         * @param stream    the input stream
+         */
+        public void setInputStream(InputStream stream) {
+            this.resource = Resource.of(stream);
+        }
+
+        /**
+         * Sets the resource string to load from
+         * @param resource  the resource string
+         */
+        public void setResource(String resource) {
+            this.resource = Resource.of(resource);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.arrow;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Month;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Set;
+
+import com.d3x.morpheus.frame.DataFrame;
+import com.d3x.morpheus.range.Range;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Unit tests for the Arrow DataFrame source and sink
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+public class ArrowTests {
+
+
+    @DataProvider(name="formats")
+    public Object[][] formats() {
+        return new Object[][] {
+            { ArrowFormat.FILE, 0 },
+            { ArrowFormat.FILE, 128 },
+            { ArrowFormat.STREAM, 0 },
+            { ArrowFormat.STREAM, 128 },
+        };
+    }
+
+
+    private static DataFrame<LocalDate,Integer> createFrame(int rowCount) {
+        final LocalDate start = LocalDate.of(2000, 1, 1);
+        final ZonedDateTime zoned = ZonedDateTime.of(2010, 6, 1, 9, 30, 0, 0, ZoneId.of("Europe/London"));
+        final Iterable<LocalDate> rowKeys = Range.of(start, start.plusDays(rowCount));
+        return DataFrame.of(rowKeys, Integer.class, columns -> {
+            columns.add(1, Double.class, v -> v.rowOrdinal() % 10 == 0 ? Double.NaN : v.rowOrdinal() * 1.5d);
+            columns.add(2, Integer.class, v -> v.rowOrdinal());
+            columns.add(3, Long.class, v -> 10000000000L + v.rowOrdinal());
+            columns.add(4, Boolean.class, v -> v.rowOrdinal() % 2 == 0);
+            columns.add(5, String.class, v -> v.rowOrdinal() % 7 == 0 ? null : "Row-" + v.rowOrdinal());
+            columns.add(6, LocalDateTime.class, v -> start.atStartOfDay().plusMinutes(v.rowOrdinal()));
+            columns.add(7, ZonedDateTime.class, v -> zoned.plusSeconds(v.rowOrdinal()));
+            columns.add(8, Instant.class, v -> Instant.ofEpochMilli(1000000000000L + v.rowOrdinal()));
+            columns.add(9, LocalTime.class, v -> LocalTime.ofNanoOfDay(v.rowOrdinal() * 1000000000L));
+            columns.add(10, Month.class, v -> Month.of(1 + v.rowOrdinal() % 12));
+        });
+    }
+
+
+    private static File write(DataFrame<LocalDate,Integer> frame, ArrowFormat format, int batchSize) throws Exception {
+        final File file = File.createTempFile("morpheus-arrow", ".arrow");
+        file.deleteOnExit();
+        ArrowSink.<LocalDate,Integer>save(options -> {
+            options.setFile(file);
+            options.setFrame(frame);
+            options.setFormat(format);
+            options.setBatchSize(batchSize);
+        });
+        return file;
+    }
+
+
+    private static void assertFrameEquals(DataFrame<LocalDate,Integer> actual, DataFrame<LocalDate,Integer> expected) {
+        assertEquals(actual.rowCount(), expected.rowCount());
+        assertEquals(actual.colCount(), expected.colCount());
+        assertEquals(actual.rows().keyArray(), expected.rows().keyArray());
+        assertEquals(actual.cols().keyArray(), expected.cols().keyArray());
+        expected.cols().keys().forEach(key -> {
+            assertEquals(actual.cols().type(key), expected.cols().type(key), "Type of column " + key);
+        });
+        for (int i=0; i<expected.rowCount(); ++i) {
+            for (int j=0; j<expected.colCount(); ++j) {
+                final Object expectedValue = expected.getValueAt(i, j);
+                final Object actualValue = actual.getValueAt(i, j);
+                assertEquals(actualValue, expectedValue, "Value at (" + i + "," + j + ")");
+            }
+        }
+    }
+
+
+    @Test(dataProvider="formats")
+    public void testRoundTrip(ArrowFormat format, int batchSize) throws Exception {
+        final DataFrame<LocalDate,Integer> expected = createFrame(1000);
+        final File file = write(expected, format, batchSize);
+        final DataFrame<LocalDate,Integer> actual = ArrowSource.load(options -> {
+            options.setFile(file);
+            options.setFormat(format);
+        });
+        assertFrameEquals(actual, expected);
+    }
+
+
+    @Test()
+    public void testRoundTripWithStreams() throws Exception {
+        final DataFrame<LocalDate,Integer> expected = createFrame(200);
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ArrowSink.<LocalDate,Integer>save(options -> {
+            options.setOutputStream(bytes);
+            options.setFrame(expected);
+        });
+        final DataFrame<LocalDate,Integer> actual = ArrowSource.load(options -> {
+            options.setInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        });
+        assertFrameEquals(actual, expected);
+    }
+
+
+    @Test()
+    public void testMemoryMapped() throws Exception {
+        final DataFrame<LocalDate,Integer> expected = createFrame(1000);
+        final File file = write(expected, ArrowFormat.FILE, 0);
+        final DataFrame<LocalDate,Integer> actual = ArrowSource.load(options -> {
+            options.setFile(file);
+            options.setMemoryMapped(true);
+        });
+        assertFrameEquals(actual, expected);
+        final long length = file.length();
+        actual.setDoubleAt(5, 0, 123d);
+        assertEquals(actual.getDoubleAt(5, 0), 123d);
+        assertEquals(file.length(), length);
+        final DataFrame<LocalDate,Integer> reloaded = ArrowSource.load(options -> options.setFile(file));
+        assertEquals(reloaded.getDoubleAt(5, 0), 7.5d);
+    }
+
+
+    @Test()
+    public void testMemoryMappedWithRowKeys() throws Exception {
+        final LocalDate start = LocalDate.of(2000, 1, 1);
+        final DataFrame<LocalDate,Integer> expected = DataFrame.of(Range.of(start, start.plusDays(500)), Integer.class, columns -> {
+            columns.add(1, Double.class, v -> v.rowOrdinal() * 0.5d);
+            columns.add(2, Integer.class, v -> v.rowOrdinal() * 3);
+            columns.add(3, Long.class, v -> 10000000000L + v.rowOrdinal());
+        });
+        final File file = write(expected, ArrowFormat.FILE, 0);
+        final DataFrame<LocalDate,Integer> actual = ArrowSource.load(options -> {
+            options.setFile(file);
+            options.setMemoryMapped(true);
+        });
+        assertFrameEquals(actual, expected);
+        assertEquals(actual.getDouble(start.plusDays(100), 1), 50d);
+        actual.setIntAt(10, 1, -1);
+        assertEquals(actual.getIntAt(10, 1), -1);
+        final DataFrame<LocalDate,Integer> reloaded = ArrowSource.load(options -> options.setFile(file));
+        assertEquals(reloaded.getIntAt(10, 1), 30);
+    }
+
+
+    @Test(dataProvider="formats")
+    public void testIntAndLongNulls(ArrowFormat format, int batchSize) throws Exception {
+        final LocalDate start = LocalDate.of(2000, 1, 1);
+        final DataFrame<LocalDate,Integer> expected = DataFrame.of(Range.of(start, start.plusDays(300)), Integer.class, columns -> {
+            columns.add(1, Integer.class, v -> v.rowOrdinal() % 3 == 0 ? null : v.rowOrdinal());
+            columns.add(2, Long.class, v -> v.rowOrdinal() % 5 == 0 ? null : 10000000000L + v.rowOrdinal());
+        });
+        assertTrue(expected.col(1).isNullAt(0));
+        assertTrue(expected.col(2).isNullAt(0));
+        final File file = write(expected, format, batchSize);
+        final DataFrame<LocalDate,Integer> actual = ArrowSource.load(options -> {
+            options.setFile(file);
+            options.setFormat(format);
+            options.setMemoryMapped(format == ArrowFormat.FILE);
+        });
+        assertFrameEquals(actual, expected);
+        assertTrue(actual.col(1).isNullAt(3));
+        assertFalse(actual.col(1).isNullAt(4));
+        assertTrue(actual.col(2).isNullAt(5));
+        assertEquals(actual.getLongAt(6, 1), 10000000006L);
+    }
+
+
+    @Test()
+    public void testSelectedColumns() throws Exception {
+        final DataFrame<LocalDate,Integer> expected = createFrame(100);
+        final File file = write(expected, ArrowFormat.FILE, 30);
+        final DataFrame<LocalDate,Integer> actual = ArrowSource.load(options -> {
+            options.setFile(file);
+            options.setColPredicate(Set.of(2, 7)::contains);
+        });
+        assertEquals(actual.rowCount(), 100);
+        assertEquals(actual.cols().keyArray().toList(), List.of(2, 7));
+        assertEquals(actual.cols().type(7), ZonedDateTime.class);
+        final LocalDate key = LocalDate.of(2000, 1, 21);
+        assertEquals(actual.getInt(key, 2), 20);
+        assertEquals(actual.<ZonedDateTime>getValue(key, 7), expected.<ZonedDateTime>getValue(key, 7));
+    }
+}
@@ -0,0 +1,436 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.avro;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.d3x.morpheus.array.Array;
+import com.d3x.morpheus.array.ArrayBuilder;
+import com.d3x.morpheus.array.ArrayType;
+import com.d3x.morpheus.util.text.Formats;
+import com.d3x.morpheus.util.text.parser.Parser;
+import org.apache.avro.Conversions;
+import org.apache.avro.LogicalType;
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericFixed;
+
+/**
+ * A class that maps the values of a DataFrame column to and from the generic representation of an Avro field.
+ *
+ * <p>Primitive columns map onto the equivalent Avro primitive, where int, long and double fields are a union with
+ * null so that null values survive a round trip, and temporal and decimal columns map onto the Avro logical types, so that files written by this library are readable by other Avro tools. The Java type of a column
+ * is recorded as a field property, which allows types that share an Avro representation, such as Instant and
+ * ZonedDateTime, to be restored on read. Fields from foreign files without this property are mapped to the most
+ * natural Java type for their schema.</p>
+ *
+ * @author Xavier Witdouck
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ */
+class AvroColumn {
+
+    /** The field property that records the Java type of the column */
+    static final String TYPE_PROPERTY = "morpheus.type";
+    /** The field property that records the zone for ZonedDateTime columns */
+    static final String ZONE_PROPERTY = "morpheus.zone";
+
+    private static final Formats formats = new Formats();
+    private static final Conversions.DecimalConversion decimals = new Conversions.DecimalConversion();
+
+    private Class<?> type;
+    private Schema schema;
+    private ArrayType dataType;
+    private Function<Object,Object> encoder;
+    private Function<Object,Object> decoder;
+
+
+    /**
+     * Constructor
+     * @param type      the Java type for column
+     * @param schema    the Avro schema for the field, which may be a nullable union
+     * @param encoder   the function to convert Java values to their Avro representation
+     * @param decoder   the function to convert Avro values to their Java representation
+     */
+    private AvroColumn(Class<?> type, Schema schema, Function<Object,Object> encoder, Function<Object,Object> decoder) {
+        this.type = type;
+        this.schema = schema;
+        this.encoder = encoder;
+        this.decoder = decoder;
+        this.dataType = ArrayType.of(type);
+    }
+
+
+    /**
+     * Returns a column mapping to write values of the type specified
+     * @param type      the Java type of the column
+     * @param values    the supplier of column values, used to resolve the zone and decimal precision where required
+     * @return          the column mapping
+     */
+    static AvroColumn forType(Class<?> type, Supplier<Array<?>> values) {
+        if (type == Boolean.class) {
+            return new AvroColumn(type, Schema.create(Schema.Type.BOOLEAN), v -> v, v -> v);
+        } else if (type == Integer.class) {
+            return new AvroColumn(type, nullable(Schema.create(Schema.Type.INT)), v -> v, v -> v);
+        } else if (type == Long.class) {
+            return new AvroColumn(type, nullable(Schema.create(Schema.Type.LONG)), v -> v, v -> v);
+        } else if (type == Double.class) {
+            return new AvroColumn(type, nullable(Schema.create(Schema.Type.DOUBLE)), v -> v, v -> v);
+        } else if (type == Float.class) {
+            return new AvroColumn(type, nullable(Schema.create(Schema.Type.FLOAT)), v -> v, v -> v);
+        } else if (type == String.class) {
+            return new AvroColumn(type, nullable(Schema.create(Schema.Type.STRING)), v -> v, Object::toString);
+        } else if (type == LocalDate.class) {
+            final Schema schema = LogicalTypes.date().addToSchema(Schema.create(Schema.Type.INT));
+            return forLogicalType(type, nullable(schema));
+        } else if (type == LocalTime.class) {
+            final Schema schema = LogicalTypes.timeMicros().addToSchema(Schema.create(Schema.Type.LONG));
+            return forLogicalType(type, nullable(schema));
+        } else if (type == LocalDateTime.class) {
+            final Schema schema = LogicalTypes.localTimestampMicros().addToSchema(Schema.create(Schema.Type.LONG));
+            return forLogicalType(type, nullable(schema));
+        } else if (type == Instant.class || type == ZonedDateTime.class) {
+            final Schema schema = LogicalTypes.timestampMicros().addToSchema(Schema.create(Schema.Type.LONG));
+            if (type == ZonedDateTime.class) {
+                final Object first = values.get().first(v -> !v.isNull()).map(v -> (Object)v.getValue()).orElse(null);
+                final ZoneId zoneId = first != null ? ((ZonedDateTime)first).getZone() : ZoneOffset.UTC;
+                schema.addProp(ZONE_PROPERTY, zoneId.getId());
+            }
+            return forLogicalType(type, nullable(schema));
+        } else if (type == Date.class) {
+            final Schema schema = LogicalTypes.timestampMillis().addToSchema(Schema.create(Schema.Type.LONG));
+            return forLogicalType(type, nullable(schema));
+        } else if (type == BigDecimal.class) {
+            int scale = 0, integerDigits = 1;
+            final Array<?> array = values.get();
+            for (int i=0; i<array.length(); ++i) {
+                final BigDecimal value = (BigDecimal)array.getValue(i);
+                if (value != null) {
+                    scale = Math.max(scale, value.scale());
+                    integerDigits = Math.max(integerDigits, value.precision() - value.scale());
+                }
+            }
+            final Schema schema = LogicalTypes.decimal(integerDigits + scale, scale).addToSchema(Schema.create(Schema.Type.BYTES));
+            return forLogicalType(type, nullable(schema));
+        } else if (type == byte[].class) {
+            final Schema schema = nullable(Schema.create(Schema.Type.BYTES));
+            return new AvroColumn(type, schema, v -> ByteBuffer.wrap((byte[])v), AvroColumn::toBytes);
+        } else if (type.isEnum()) {
+            final Schema schema = nullable(Schema.create(Schema.Type.STRING));
+            return new AvroColumn(type, schema, v -> ((Enum<?>)v).name(), enumDecoder(type));
+        } else {
+            final Schema schema = nullable(Schema.create(Schema.Type.STRING));
+            final Parser<?> parser = formats.getParser(type);
+            final Class<?> resultType = parser != null ? type : String.class;
+            final Function<Object,Object> decoder = parser != null ? v -> parser.apply(v.toString()) : Object::toString;
+            return new AvroColumn(resultType, schema, formats::format, decoder);
+        }
+    }
+
+
+    /**
+     * Returns a column mapping to read values of the Avro field specified
+     * @param field     the Avro field definition
+     * @return          the column mapping
+     */
+    static AvroColumn forField(Schema.Field field) {
+        final Schema schema = field.schema();
+        final Schema valueSchema = nonNull(schema);
+        final Class<?> type = resolveType(field, valueSchema);
+        if (isSupported(valueSchema.getLogicalType())) {
+            return forLogicalType(type, schema);
+        } else {
+            switch (valueSchema.getType()) {
+                case BOOLEAN:   return new AvroColumn(Boolean.class, schema, v -> v, v -> v);
+                case INT:       return new AvroColumn(Integer.class, schema, v -> v, v -> v);
+                case LONG:      return new AvroColumn(Long.class, schema, v -> v, v -> v);
+                case FLOAT:     return new AvroColumn(Float.class, schema, v -> v, v -> v);
+                case DOUBLE:    return new AvroColumn(Double.class, schema, v -> v, v -> v);
+                case BYTES:     return new AvroColumn(byte[].class, schema, v -> ByteBuffer.wrap((byte[])v), AvroColumn::toBytes);
+                case FIXED:     return new AvroColumn(byte[].class, schema, v -> v, v -> ((GenericFixed)v).bytes().clone());
+                case STRING:
+                case ENUM:
+                    if (type.isEnum()) {
+                        return new AvroColumn(type, schema, v -> ((Enum<?>)v).name(), enumDecoder(type));
+                    } else if (type != String.class && formats.getParser(type) != null) {
+                        final Parser<?> parser = formats.getParser(type);
+                        return new AvroColumn(type, schema, formats::format, v -> parser.apply(v.toString()));
+                    } else {
+                        return new AvroColumn(String.class, schema, v -> v, Object::toString);
+                    }
+                default:
+                    final GenericData data = GenericData.get();
+                    return new AvroColumn(Object.class, schema, v -> v, v -> data.deepCopy(schema, v));
+            }
+        }
+    }
+
+
+    /**
+     * Returns a column mapping for a schema with a logical type
+     * @param type      the Java type for column
+     * @param schema    the field schema, which may be a nullable union
+     * @return          the column mapping
+     */
+    private static AvroColumn forLogicalType(Class<?> type, Schema schema) {
+        final Schema valueSchema = nonNull(schema);
+        final LogicalType logicalType = valueSchema.getLogicalType();
+        final String zone = valueSchema.getProp(ZONE_PROPERTY);
+        final ZoneId zoneId = zone != null ? ZoneId.of(zone) : ZoneOffset.UTC;
+        switch (logicalType.getName()) {
+            case "date":
+                return new AvroColumn(LocalDate.class, schema,
+                    v -> (int)((LocalDate)v).toEpochDay(),
+                    v -> LocalDate.ofEpochDay(((Number)v).longValue())
+                );
+            case "time-millis":
+                return new AvroColumn(LocalTime.class, schema,
+                    v -> (int)(((LocalTime)v).toNanoOfDay() / 1000000L),
+                    v -> LocalTime.ofNanoOfDay(((Number)v).longValue() * 1000000L)
+                );
+            case "time-micros":
+                return new AvroColumn(LocalTime.class, schema,
+                    v -> ((LocalTime)v).toNanoOfDay() / 1000L,
+                    v -> LocalTime.ofNanoOfDay(((Number)v).longValue() * 1000L)
+                );
+            case "local-timestamp-millis":
+            case "local-timestamp-micros":
+                final ChronoUnit localUnit = logicalType.getName().endsWith("millis") ? ChronoUnit.MILLIS : ChronoUnit.MICROS;
+                return new AvroColumn(LocalDateTime.class, schema,
+                    v -> localUnit.between(Instant.EPOCH, ((LocalDateTime)v).toInstant(ZoneOffset.UTC)),
+                    v -> LocalDateTime.ofInstant(Instant.EPOCH.plus(((Number)v).longValue(), localUnit), ZoneOffset.UTC)
+                );
+            case "timestamp-millis":
+            case "timestamp-micros":
+                final ChronoUnit unit = logicalType.getName().endsWith("millis") ? ChronoUnit.MILLIS : ChronoUnit.MICROS;
+                if (type == ZonedDateTime.class) {
+                    return new AvroColumn(type, schema,
+                        v -> unit.between(Instant.EPOCH, ((ZonedDateTime)v).toInstant()),
+                        v -> ZonedDateTime.ofInstant(Instant.EPOCH.plus(((Number)v).longValue(), unit), zoneId)
+                    );
+                } else if (type == Date.class) {
+                    return new AvroColumn(type, schema,
+                        v -> unit.between(Instant.EPOCH, ((Date)v).toInstant()),
+                        v -> Date.from(Instant.EPOCH.plus(((Number)v).longValue(), unit))
+                    );
+                } else {
+                    return new AvroColumn(Instant.class, schema,
+                        v -> unit.between(Instant.EPOCH, (Instant)v),
+                        v -> Instant.EPOCH.plus(((Number)v).longValue(), unit)
+                    );
+                }
+            case "decimal":
+                final int scale = ((LogicalTypes.Decimal)logicalType).getScale();
+                if (valueSchema.getType() == Schema.Type.FIXED) {
+                    return new AvroColumn(BigDecimal.class, schema,
+                        v -> decimals.toFixed(((BigDecimal)v).setScale(scale, RoundingMode.HALF_UP), valueSchema, logicalType),
+                        v -> decimals.fromFixed((GenericFixed)v, valueSchema, logicalType)
+                    );
+                } else {
+                    return new AvroColumn(BigDecimal.class, schema,
+                        v -> decimals.toBytes(((BigDecimal)v).setScale(scale, RoundingMode.HALF_UP), valueSchema, logicalType),
+                        v -> decimals.fromBytes((ByteBuffer)v, valueSchema, logicalType)
+                    );
+                }
+            default:
+                throw new IllegalArgumentException("Unsupported Avro logical type: " + logicalType.getName());
+        }
+    }
+
+
+    /**
+     * Returns true if the logical type is one that maps onto a Java type, others are read as their underlying type
+     * @param logicalType   the logical type, which may be null
+     * @return              true if supported
+     */
+    private static boolean isSupported(LogicalType logicalType) {
+        if (logicalType == null) {
+            return false;
+        } else {
+            switch (logicalType.getName()) {
+                case "date":
+                case "time-millis":
+                case "time-micros":
+                case "local-timestamp-millis":
+                case "local-timestamp-micros":
+                case "timestamp-millis":
+                case "timestamp-micros":
+                case "decimal":
+                    return true;
+                default:
+                    return false;
+            }
+        }
+    }
+
+
+    /**
+     * Returns the Java type for this column
+     * @return  the Java type
+     */
+    Class<?> type() {
+        return type;
+    }
+
+
+    /**
+     * Returns the Avro schema for this column
+     * @return  the Avro schema
+     */
+    Schema schema() {
+        return schema;
+    }
+
+
+    /**
+     * Returns a newly created builder to collect the values of this column
+     * @param capacity  the initial capacity
+     * @return          the array builder
+     */
+    @SuppressWarnings("unchecked")
+    ArrayBuilder<Object> builder(int capacity) {
+        return ArrayBuilder.of(capacity, (Class<Object>)type);
+    }
+
+
+    /**
+     * Returns the Avro representation of a value in this column
+     * @param value     the Java value, which may be null
+     * @return          the Avro value, null if value is null
+     */
+    Object encode(Object value) {
+        return value == null ? null : encoder.apply(value);
+    }
+
+
+    /**
+     * Decodes an Avro value and appends it to the builder, avoiding boxing of primitives where possible
+     * @param builder   the builder for this column
+     * @param value     the Avro value, which may be a reused instance
+     */
+    void decode(ArrayBuilder<Object> builder, Object value) {
+        if (value == null) {
+            builder.append(null);
+        } else {
+            switch (dataType) {
+                case BOOLEAN:   builder.appendBoolean((Boolean)value);              break;
+                case INTEGER:   builder.appendInt(((Number)value).intValue());      break;
+                case LONG:      builder.appendLong(((Number)value).longValue());    break;
+                case DOUBLE:    builder.appendDouble(((Number)value).doubleValue()); break;
+                default:        builder.append(decoder.apply(value));               break;
+            }
+        }
+    }
+
+
+    /**
+     * Returns the array of values collected by a builder of this column, padded to the length specified
+     * @param builder   the builder for this column
+     * @param length    the required array length
+     * @return          the column array
+     */
+    @SuppressWarnings("unchecked")
+    Array<Object> toArray(ArrayBuilder<Object> builder, int length) {
+        final Array<Object> array = builder.toArray();
+        if (array.length() == length) {
+            return array;
+        } else if (array.length() == 0) {
+            return Array.of((Class<Object>)type, length);
+        } else {
+            return array.expand(length);
+        }
+    }
+
+
+    /**
+     * Returns the Java type of a field, using the type property if the class is available
+     * @param field         the Avro field
+     * @param valueSchema   the non null schema for the field
+     * @return              the Java type, Object if not recorded
+     */
+    private static Class<?> resolveType(Schema.Field field, Schema valueSchema) {
+        final String typeName = field.getProp(TYPE_PROPERTY) != null ? field.getProp(TYPE_PROPERTY) : valueSchema.getProp(TYPE_PROPERTY);
+        try {
+            return typeName != null ? Class.forName(typeName) : Object.class;
+        } catch (ClassNotFoundException ex) {
+            return Object.class;
+        }
+    }
+
+
+    /**
+     * Returns a decoder that maps Avro strings and enum symbols to the constants of an enum type
+     * @param type  the enum type
+     * @return      the decoder function
+     */
+    @SuppressWarnings("unchecked")
+    private static Function<Object,Object> enumDecoder(Class<?> type) {
+        final Class<Enum> enumType = (Class<Enum>)type;
+        return v -> Enum.valueOf(enumType, v.toString());
+    }
+
+
+    /**
+     * Returns a copy of the bytes in the buffer, which may be reused by the Avro reader
+     * @param value     the Avro byte buffer
+     * @return          the copy of remaining bytes
+     */
+    private static Object toBytes(Object value) {
+        final ByteBuffer buffer = ((ByteBuffer)value).duplicate();
+        final byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+
+    /**
+     * Returns a union of null and the schema specified
+     * @param schema    the value schema
+     * @return          the nullable schema
+     */
+    private static Schema nullable(Schema schema) {
+        return Schema.createUnion(Schema.create(Schema.Type.NULL), schema);
+    }
+
+
+    /**
+     * Returns the non null branch of a nullable union, or the schema itself if not a union
+     * @param schema    the schema to resolve
+     * @return          the value schema
+     */
+    static Schema nonNull(Schema schema) {
+        if (schema.getType() != Schema.Type.UNION) {
+            return schema;
+        } else {
+            final Schema[] branches = schema.getTypes().stream().filter(s -> s.getType() != Schema.Type.NULL).toArray(Schema[]::new);
+            return branches.length == 1 ? branches[0] : schema;
+        }
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.avro;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import com.d3x.morpheus.array.Array;
+import com.d3x.morpheus.array.ArrayType;
+import com.d3x.morpheus.frame.DataFrame;
+import com.d3x.morpheus.frame.DataFrameCursor;
+import com.d3x.morpheus.frame.DataFrameException;
+import com.d3x.morpheus.frame.DataFrameSink;
+import com.d3x.morpheus.util.IO;
+import com.d3x.morpheus.util.Resource;
+import com.d3x.morpheus.util.text.Formats;
+import org.apache.avro.Schema;
+import org.apache.avro.file.CodecFactory;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+
+/**
+ * A DataFrameSink that writes a DataFrame to an Avro object container file, with one record per row.
+ *
+ * <p>Each column maps to a field of the record schema, with temporal and decimal columns expressed as Avro logical
+ * types. The row keys are written to an additional field, and the types of the row and column keys, along with the
+ * original column keys, are recorded as schema properties so that {@link AvroSource} can restore the frame exactly.
+ * A single record instance is reused for all rows, and primitive columns are read from the frame without going
+ * through the generic value accessors.</p>
+ *
+ * @param <R>   the row key type
+ * @param <C>   the column key type
+ *
+ * @author Xavier Witdouck
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ */
+public class AvroSink<R,C> implements DataFrameSink<R,C,AvroSink.Options<R,C>> {
+
+    /** The schema property that names the field holding row keys */
+    static final String ROW_KEY_PROPERTY = "morpheus.rowKey";
+    /** The schema property that records the column key type */
+    static final String COL_TYPE_PROPERTY = "morpheus.colType";
+    /** The field property that records the column key of a field */
+    static final String COL_KEY_PROPERTY = "morpheus.key";
+
+    private static final Formats formats = new Formats();
+
+
+    /**
+     * Writes a DataFrame to an Avro container according to configured options
+     * @param configurator  the consumer to configure options
+     * @param <R>           the row key type
+     * @param <C>           the column key type
+     */
+    public static <R,C> void save(Consumer<Options<R,C>> configurator) {
+        new AvroSink<R,C>().write(configurator);
+    }
+
+
+    @Override
+    public void write(Consumer<Options<R,C>> configurator) {
+        DataFileWriter<GenericRecord> writer = null;
+        OutputStream os = null;
+        try {
+            final Options<R,C> options = new Options<>();
+            configurator.accept(options);
+            options.validate();
+            final DataFrame<R,C> frame = options.frame;
+            final int rowCount = frame.rowCount();
+            final int colCount = frame.colCount();
+            final Array<R> rowKeys = frame.rows().keyArray();
+            final AvroColumn rowColumn = options.includeRowKeys ? AvroColumn.forType(rowKeys.type(), () -> rowKeys) : null;
+            final AvroColumn[] columns = new AvroColumn[colCount];
+            final ArrayType[] types = new ArrayType[colCount];
+            final boolean[] nullable = new boolean[colCount];
+            final DataFrameCursor<R,C> cursor = frame.cursor();
+            for (int j=0; j<colCount; ++j) {
+                final C key = frame.cols().key(j);
+                final Class<?> type = frame.cols().type(key);
+                columns[j] = AvroColumn.forType(type, () -> frame.col(key).toArray());
+                types[j] = ArrayType.of(type);
+                nullable[j] = types[j] == ArrayType.INTEGER || types[j] == ArrayType.LONG || types[j] == ArrayType.DOUBLE;
+            }
+            final Schema schema = createSchema(frame, rowColumn, columns, options);
+            final int offset = rowColumn != null ? 1 : 0;
+            final GenericData.Record record = new GenericData.Record(schema);
+            os = options.resource.toOutputStream();
+            writer = new DataFileWriter<>(new GenericDatumWriter<GenericRecord>(schema));
+            writer.setCodec(options.codec);
+            writer.setSyncInterval(options.syncInterval);
+            writer.create(schema, os);
+            for (int i=0; i<rowCount; ++i) {
+                if (rowColumn != null) {
+                    record.put(0, rowColumn.encode(rowKeys.getValue(i)));
+                }
+                for (int j=0; j<colCount; ++j) {
+                    if (nullable[j] && cursor.atOrdinals(i, j).isNull()) {
+                        record.put(j + offset, null);
+                    } else {
+                        switch (types[j]) {
+                            case BOOLEAN:   record.put(j + offset, frame.getBooleanAt(i, j));                       break;
+                            case INTEGER:   record.put(j + offset, frame.getIntAt(i, j));                           break;
+                            case LONG:      record.put(j + offset, frame.getLongAt(i, j));                          break;
+                            case DOUBLE:    record.put(j + offset, frame.getDoubleAt(i, j));                        break;
+                            default:        record.put(j + offset, columns[j].encode(frame.getValueAt(i, j)));      break;
+                        }
+                    }
+                }
+                writer.append(record);
+            }
+            writer.flush();
+        } catch (DataFrameException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new DataFrameException("Failed to write DataFrame to Avro resource", ex);
+        } finally {
+            IO.close(writer);
+            IO.close(os);
+        }
+    }
+
+
+    /**
+     * Returns the Avro record schema for the frame, recording key types and column keys as properties
+     * @param frame     the frame to write
+     * @param rowColumn the mapping for row keys, null if row keys are excluded
+     * @param columns   the mappings for each column
+     * @param options   the sink options
+     * @return          the record schema
+     */
+    private Schema createSchema(DataFrame<R,C> frame, AvroColumn rowColumn, AvroColumn[] columns, Options<R,C> options) {
+        final Set<String> names = new HashSet<>();
+        final List<Schema.Field> fields = new ArrayList<>(columns.length + 1);
+        if (rowColumn != null) {
+            final Schema.Field field = new Schema.Field(options.rowKeyField, rowColumn.schema(), null, (Object)null);
+            field.addProp(AvroColumn.TYPE_PROPERTY, rowColumn.type().getName());
+            names.add(options.rowKeyField);
+            fields.add(field);
+        }
+        for (int j=0; j<columns.length; ++j) {
+            final String key = formats.format(frame.cols().key(j));
+            final String name = toFieldName(key, j, names);
+            final Schema.Field field = new Schema.Field(name, columns[j].schema(), null, (Object)null);
+            field.addProp(AvroColumn.TYPE_PROPERTY, columns[j].type().getName());
+            field.addProp(COL_KEY_PROPERTY, key);
+            fields.add(field);
+        }
+        final Schema schema = Schema.createRecord(options.recordName, null, options.namespace, false, fields);
+        schema.addProp(COL_TYPE_PROPERTY, frame.cols().keyArray().type().getName());
+        if (rowColumn != null) {
+            schema.addProp(ROW_KEY_PROPERTY, options.rowKeyField);
+        }
+        return schema;
+    }
+
+
+    /**
+     * Returns a unique Avro field name for a column key, replacing characters that are not legal in Avro names
+     * @param key       the formatted column key
+     * @param ordinal   the column ordinal
+     * @param names     the field names already assigned
+     * @return          the unique field name
+     */
+    private static String toFieldName(String key, int ordinal, Set<String> names) {
+        final StringBuilder name = new StringBuilder(key.length() + 1);
+        for (int i=0; i<key.length(); ++i) {
+            final char c = key.charAt(i);
+            final boolean valid = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+            name.append(valid ? c : '_');
+        }
+        if (name.length() == 0 || Character.isDigit(name.charAt(0))) {
+            name.insert(0, '_');
+        }
+        String result = name.toString();
+        while (names.contains(result)) {
+            result = result + "_" + ordinal;
+        }
+        names.add(result);
+        return result;
+    }
+
+
+    /**
+     * The options for this sink
+     * @param <R>   the row key type
+     * @param <C>   the column key type
+     */
+    public static class Options<R,C> {
+
+        /** The resource to write to */
+        @lombok.Getter
+        private Resource resource;
+        /** The frame to write */
+        @lombok.Getter @lombok.Setter
+        private DataFrame<R,C> frame;
+        /** The name of the Avro record schema */
+        @lombok.Getter @lombok.Setter
+        private String recordName = "DataFrame";
+        /** The namespace of the Avro record schema */
+        @lombok.Getter @lombok.Setter
+        private String namespace = "com.d3x.morpheus.avro";
+        /** The name of the field that holds row keys */
+        @lombok.Getter @lombok.Setter
+        private String rowKeyField = "__rowKey__";
+        /** True to include a field with row keys */
+        @lombok.Getter @lombok.Setter
+        private boolean includeRowKeys = true;
+        /** The codec to compress data blocks */
+        @lombok.Getter @lombok.Setter
+        private CodecFactory codec = CodecFactory.deflateCodec(CodecFactory.DEFAULT_DEFLATE_LEVEL);
+        /** The approximate size in bytes of data blocks, which is also the unit of parallel decoding */
+        @lombok.Getter @lombok.Setter
+        private int syncInterval = 64 * 1024;
+
+        /**
+         * Validates that these options are complete
+         */
+        public void validate() {
+            Objects.requireNonNull(resource, "The resource cannot be null");
+            Objects.requireNonNull(frame, "The frame cannot be null");
+            Objects.requireNonNull(codec, "The codec cannot be null");
+            if (includeRowKeys && rowKeyField == null) {
+                throw new IllegalStateException("The row key field name cannot be null");
+            }
+        }
+
+        /**
+         * Sets the file to write to
+         * @param file  the file reference
+         */
+        public void setFile(File file) {
+            this.resource = Resource.of(file);
+        }
+
+        /**
+         * Sets the output stream to write to
+         * @param os    the output stream
+         */
+        public void setOutputStream(OutputStream os) {
+            this.resource = Resource.of(os);
+        }
+
+        /**
+         * Sets the resource string to write to
+         * @param resource  the resource string
+         */
+        public void setResource(String resource) {
+            this.resource = Resource.of(resource);
+        }
+    }
+}
@@ -0,0 +1,423 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.avro;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.d3x.morpheus.array.Array;
+import com.d3x.morpheus.array.ArrayBuilder;
+import com.d3x.morpheus.frame.DataFrame;
+import com.d3x.morpheus.frame.DataFrameException;
+import com.d3x.morpheus.frame.DataFrameSource;
+import com.d3x.morpheus.range.Range;
+import com.d3x.morpheus.util.IO;
+import com.d3x.morpheus.util.Resource;
+import com.d3x.morpheus.util.text.Formats;
+import org.apache.avro.Schema;
+import org.apache.avro.file.DataFileReader;
+import org.apache.avro.file.DataFileStream;
+import org.apache.avro.file.SeekableFileInput;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+
+/**
+ * A DataFrameSource that reads a DataFrame from an Avro object container file, with one row per record.
+ *
+ * <p>Records are decoded with a GenericDatumReader into a single reused record instance, and field values are
+ * appended directly to typed column builders. Columns excluded by the column predicate are dropped from the reader
+ * schema, so that Avro skips over them rather than decoding them. Files written by {@link AvroSink} restore their
+ * row keys, column keys and column types, while other files produce a frame with Integer row keys and String column
+ * keys named after the record fields.</p>
+ *
+ * <p>When reading from a file with the parallel option enabled, the file is divided into byte ranges which are
+ * decoded concurrently. Each range starts at the first block sync marker after its start offset and ends with the
+ * block spanning its end offset, so every block is decoded exactly once, and the ranges are concatenated in order.</p>
+ *
+ * @param <R>   the row key type
+ * @param <C>   the column key type
+ *
+ * @author Xavier Witdouck
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ */
+public class AvroSource<R,C> implements DataFrameSource<R,C,AvroSource.Options<R,C>> {
+
+    private static final Formats formats = new Formats();
+
+
+    /**
+     * Returns a DataFrame loaded from an Avro container according to configured options
+     * @param configurator  the consumer to configure options
+     * @param <R>           the row key type
+     * @param <C>           the column key type
+     * @return              the resulting DataFrame
+     */
+    public static <R,C> DataFrame<R,C> load(Consumer<Options<R,C>> configurator) {
+        return new AvroSource<R,C>().read(configurator);
+    }
+
+
+    @Override
+    public DataFrame<R,C> read(Consumer<Options<R,C>> configurator) throws DataFrameException {
+        final Options<R,C> options = initOptions(new Options<>(), configurator);
+        options.validate();
+        try {
+            final Resource resource = options.resource;
+            if (options.parallel && resource.isFile()) {
+                return readParallel(resource.asFile(), options);
+            } else {
+                return readSequential(resource.toInputStream(), options);
+            }
+        } catch (DataFrameException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new DataFrameException("Failed to read DataFrame from Avro resource: " + options.resource, ex);
+        }
+    }
+
+
+    /**
+     * Returns a DataFrame decoded from all records of an Avro stream on the calling thread
+     * @param is        the input stream to read from
+     * @param options   the source options
+     * @return          the resulting DataFrame
+     * @throws IOException  if there is an I/O error
+     */
+    private DataFrame<R,C> readSequential(InputStream is, Options<R,C> options) throws IOException {
+        DataFileStream<GenericRecord> stream = null;
+        try {
+            final GenericDatumReader<GenericRecord> datumReader = new GenericDatumReader<>();
+            stream = new DataFileStream<>(is, datumReader);
+            final Layout layout = new Layout(stream.getSchema(), options);
+            final Chunk chunk = new Chunk(layout, options.capacity);
+            datumReader.setExpected(layout.readerSchema);
+            GenericRecord record = null;
+            while (stream.hasNext()) {
+                record = stream.next(record);
+                chunk.add(record);
+            }
+            return layout.toFrame(List.of(chunk));
+        } finally {
+            IO.close(stream);
+            IO.close(is);
+        }
+    }
+
+
+    /**
+     * Returns a DataFrame decoded from byte ranges of an Avro file in parallel
+     * @param file      the Avro file to read from
+     * @param options   the source options
+     * @return          the resulting DataFrame
+     * @throws IOException  if there is an I/O error
+     */
+    private DataFrame<R,C> readParallel(File file, Options<R,C> options) throws IOException {
+        final Layout layout;
+        DataFileReader<GenericRecord> header = null;
+        try {
+            header = new DataFileReader<>(file, new GenericDatumReader<>());
+            layout = new Layout(header.getSchema(), options);
+        } finally {
+            IO.close(header);
+        }
+        final long length = file.length();
+        final long splitCount = Math.max(1L, (length + options.splitSize - 1) / options.splitSize);
+        final int splits = (int)Math.min(splitCount, Runtime.getRuntime().availableProcessors() * 4L);
+        final List<Chunk> chunks = IntStream.range(0, splits).parallel().mapToObj(i -> {
+            final long start = length * i / splits;
+            final long end = length * (i + 1) / splits;
+            return readSplit(file, layout, start, end);
+        }).collect(Collectors.toList());
+        return layout.toFrame(chunks);
+    }
+
+
+    /**
+     * Returns a chunk with the records of all blocks that start within the byte range specified
+     * @param file      the Avro file to read from
+     * @param layout    the layout of the frame
+     * @param start     the start offset of range, inclusive
+     * @param end       the end offset of range, exclusive
+     * @return          the chunk of decoded records
+     */
+    private Chunk readSplit(File file, Layout layout, long start, long end) {
+        DataFileReader<GenericRecord> reader = null;
+        try {
+            final GenericDatumReader<GenericRecord> datumReader = new GenericDatumReader<>();
+            reader = new DataFileReader<>(new SeekableFileInput(file), datumReader);
+            datumReader.setExpected(layout.readerSchema);
+            final Chunk chunk = new Chunk(layout, layout.options.capacity);
+            reader.sync(start);
+            GenericRecord record = null;
+            while (reader.hasNext() && !reader.pastSync(end)) {
+                record = reader.next(record);
+                chunk.add(record);
+            }
+            return chunk;
+        } catch (IOException ex) {
+            throw new DataFrameException("Failed to read Avro file range " + start + " to " + end + " of " + file, ex);
+        } finally {
+            IO.close(reader);
+        }
+    }
+
+
+    /**
+     * The mapping of a writer schema to the row keys, column keys and columns of the resulting frame
+     */
+    private class Layout {
+
+        private Options<R,C> options;
+        private Schema readerSchema;
+        private Class<C> colType;
+        private AvroColumn rowColumn;
+        private List<C> colKeys = new ArrayList<>();
+        private List<AvroColumn> columns = new ArrayList<>();
+
+        /**
+         * Constructor
+         * @param schema    the writer schema
+         * @param options   the source options
+         */
+        @SuppressWarnings("unchecked")
+        Layout(Schema schema, Options<R,C> options) {
+            this.options = options;
+            this.colType = (Class<C>)resolveClass(schema.getProp(AvroSink.COL_TYPE_PROPERTY));
+            final String rowKeyField = options.rowKeyField != null ? options.rowKeyField : schema.getProp(AvroSink.ROW_KEY_PROPERTY);
+            final List<Schema.Field> fields = new ArrayList<>();
+            for (Schema.Field field : schema.getFields()) {
+                if (field.name().equals(rowKeyField)) {
+                    this.rowColumn = AvroColumn.forField(field);
+                    fields.add(0, new Schema.Field(field, field.schema()));
+                } else {
+                    final String text = field.getProp(AvroSink.COL_KEY_PROPERTY);
+                    final C colKey = parseKey(colType, text != null ? text : field.name());
+                    if (options.colPredicate == null || options.colPredicate.test(colKey)) {
+                        this.colKeys.add(colKey);
+                        this.columns.add(AvroColumn.forField(field));
+                        fields.add(new Schema.Field(field, field.schema()));
+                    }
+                }
+            }
+            if (rowKeyField != null && rowColumn == null) {
+                throw new DataFrameException("No field named " + rowKeyField + " in Avro schema " + schema.getFullName());
+            } else if (fields.size() == schema.getFields().size() && (rowColumn == null || schema.getFields().get(0).name().equals(rowKeyField))) {
+                this.readerSchema = schema;
+            } else {
+                this.readerSchema = Schema.createRecord(schema.getName(), schema.getDoc(), schema.getNamespace(), false, fields);
+            }
+        }
+
+        /**
+         * Returns the frame assembled from the chunks specified, which are concatenated in order
+         * @param chunks    the chunks of decoded records
+         * @return          the resulting frame
+         */
+        @SuppressWarnings("unchecked")
+        DataFrame<R,C> toFrame(List<Chunk> chunks) {
+            final int rowCount = chunks.stream().mapToInt(c -> c.count).sum();
+            final Iterable<R> rowKeys = rowColumn == null ? (Iterable<R>)(Iterable<?>)Range.of(0, rowCount) : concat(rowColumn, chunks, c -> c.rowKeys);
+            final List<Array<Object>> arrays = new ArrayList<>(columns.size());
+            for (int j=0; j<columns.size(); ++j) {
+                final int colIndex = j;
+                arrays.add(concat(columns.get(j), chunks, c -> c.builders.get(colIndex)));
+            }
+            return DataFrame.of(rowKeys, colType, frame -> {
+                for (int j=0; j<colKeys.size(); ++j) {
+                    frame.add(colKeys.get(j), arrays.get(j));
+                }
+            });
+        }
+
+        /**
+         * Returns the concatenation of the values of a column across chunks
+         * @param column    the column mapping
+         * @param chunks    the chunks of decoded records
+         * @param builder   the function to select the builder for the column from a chunk
+         * @param <T>       the array type
+         * @return          the concatenated array
+         */
+        @SuppressWarnings("unchecked")
+        private <T> Array<T> concat(AvroColumn column, List<Chunk> chunks, Function<Chunk,ArrayBuilder<Object>> builder) {
+            if (chunks.size() == 1) {
+                final Chunk chunk = chunks.get(0);
+                return (Array<T>)column.toArray(builder.apply(chunk), chunk.count);
+            } else {
+                final List<Array<Object>> arrays = new ArrayList<>(chunks.size());
+                for (Chunk chunk : chunks) {
+                    arrays.add(column.toArray(builder.apply(chunk), chunk.count));
+                }
+                return (Array<T>)Array.concat((Class<Object>)column.type(), arrays);
+            }
+        }
+    }
+
+
+    /**
+     * A contiguous run of decoded records, collected into column builders
+     */
+    private class Chunk {
+
+        private int count;
+        private Layout layout;
+        private ArrayBuilder<Object> rowKeys;
+        private List<ArrayBuilder<Object>> builders;
+
+        /**
+         * Constructor
+         * @param layout    the layout of the frame
+         * @param capacity  the initial capacity of builders
+         */
+        Chunk(Layout layout, int capacity) {
+            this.layout = layout;
+            this.rowKeys = layout.rowColumn != null ? layout.rowColumn.builder(capacity) : null;
+            this.builders = layout.columns.stream().map(c -> c.builder(capacity)).collect(Collectors.toList());
+        }
+
+        /**
+         * Appends the values of the record to the builders of this chunk
+         * @param record    the record, which is reused by the reader so values must be copied or decoded
+         */
+        void add(GenericRecord record) {
+            final int offset = rowKeys != null ? 1 : 0;
+            if (rowKeys != null) {
+                this.layout.rowColumn.decode(rowKeys, record.get(0));
+            }
+            for (int j=0; j<builders.size(); ++j) {
+                this.layout.columns.get(j).decode(builders.get(j), record.get(j + offset));
+            }
+            this.count++;
+        }
+    }
+
+
+    /**
+     * Returns the class for the name specified, defaulting to String for unknown types
+     * @param className     the fully qualified class name, may be null
+     * @return              the class, String if not resolved
+     */
+    private static Class<?> resolveClass(String className) {
+        try {
+            return className != null ? Class.forName(className) : String.class;
+        } catch (ClassNotFoundException ex) {
+            return String.class;
+        }
+    }
+
+
+    /**
+     * Returns a key of the type specified parsed from the text recorded in an Avro schema
+     * @param type  the key type
+     * @param text  the key text
+     * @param <K>   the key type
+     * @return      the parsed key
+     */
+    @SuppressWarnings("unchecked")
+    private static <K> K parseKey(Class<K> type, String text) {
+        if (type == String.class) {
+            return (K)text;
+        } else if (type.isEnum()) {
+            return (K)Enum.valueOf((Class<Enum>)type, text);
+        } else if (formats.getParser(type) != null) {
+            return formats.parse(type, text);
+        } else {
+            throw new DataFrameException("Unable to parse column key of type " + type.getName() + ": " + text);
+        }
+    }
+
+
+    /**
+     * The options for this source
+     * @param <R>   the row key type
+     * @param <C>   the column key type
+     */
+    public static class Options<R,C> {
+
+        /** The resource to load from */
+        @lombok.Getter
+        private Resource resource;
+        /** The name of the field with row keys, which defaults to the field recorded by AvroSink */
+        @lombok.Getter @lombok.Setter
+        private String rowKeyField;
+        /** The optional predicate to select columns, excluded columns are skipped rather than decoded */
+        @lombok.Getter @lombok.Setter
+        private Predicate<C> colPredicate;
+        /** True to decode blocks of a file in parallel */
+        @lombok.Getter @lombok.Setter
+        private boolean parallel;
+        /** The approximate number of bytes of a file to decode per parallel task */
+        @lombok.Getter @lombok.Setter
+        private long splitSize = 16L * 1024L * 1024L;
+        /** The initial capacity for column builders */
+        @lombok.Getter @lombok.Setter
+        private int capacity = 1000;
+
+        /**
+         * Validates that these options are complete
+         */
+        public void validate() {
+            Objects.requireNonNull(resource, "The resource cannot be null");
+            if (splitSize < 1) {
+                throw new IllegalStateException("The split size must be > 0: " + splitSize);
+            } else if (capacity < 1) {
+                throw new IllegalStateException("The capacity must be > 0: " + capacity);
+            }
+        }
+
+        /**
+         * Sets the file to load from
+         * @param file  the file reference
+         */
+        public void setFile(File file) {
+            this.resource = Resource.of(file);
+        }
+
+        /**
+         * Sets the URL to load from
+         * @param url   the url reference
+         */
+        public void setURL(URL url) {
+            this.resource = Resource.of(url);
+        }
+
+        /**
+         * Sets the input stream to load from
+         * @param stream    the input stream
+         */
+        public void setInputStream(InputStream stream) {
+            this.resource = Resource.of(stream);
+        }
+
+        /**
+         * Sets the resource string to load from
+         * @param resource  the resource string
+         */
+        public void setResource(String resource) {
+            this.resource = Resource.of(resource);
+        }
+    }
+}
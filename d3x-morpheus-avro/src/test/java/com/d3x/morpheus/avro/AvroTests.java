@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.avro;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Set;
+
+import com.d3x.morpheus.frame.DataFrame;
+import com.d3x.morpheus.range.Range;
+import org.apache.avro.file.CodecFactory;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Unit tests for the Avro DataFrame source and sink
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+public class AvroTests {
+
+
+    @DataProvider(name="parallel")
+    public Object[][] parallel() {
+        return new Object[][] { {false}, {true} };
+    }
+
+
+    private static DataFrame<LocalDate,Integer> createFrame(int rowCount) {
+        final LocalDate start = LocalDate.of(2000, 1, 1);
+        final ZonedDateTime zoned = ZonedDateTime.of(2010, 6, 1, 9, 30, 0, 0, ZoneId.of("Europe/London"));
+        final Iterable<LocalDate> rowKeys = Range.of(start, start.plusDays(rowCount));
+        return DataFrame.of(rowKeys, Integer.class, columns -> {
+            columns.add(1, Double.class, v -> v.rowOrdinal() % 10 == 0 ? Double.NaN : v.rowOrdinal() * 1.5d);
+            columns.add(2, Integer.class, v -> v.rowOrdinal());
+            columns.add(3, Long.class, v -> 10000000000L + v.rowOrdinal());
+            columns.add(4, Boolean.class, v -> v.rowOrdinal() % 2 == 0);
+            columns.add(5, String.class, v -> v.rowOrdinal() % 7 == 0 ? null : "Row-" + v.rowOrdinal());
+            columns.add(6, LocalDateTime.class, v -> start.atStartOfDay().plusMinutes(v.rowOrdinal()));
+            columns.add(7, ZonedDateTime.class, v -> zoned.plusSeconds(v.rowOrdinal()));
+            columns.add(8, Instant.class, v -> Instant.ofEpochMilli(1000000000000L + v.rowOrdinal()));
+            columns.add(9, BigDecimal.class, v -> new BigDecimal(v.rowOrdinal()).movePointLeft(2));
+            columns.add(10, Month.class, v -> Month.of(1 + v.rowOrdinal() % 12));
+        });
+    }
+
+
+    private static File write(DataFrame<LocalDate,Integer> frame) throws Exception {
+        final File file = File.createTempFile("morpheus-avro", ".avro");
+        file.deleteOnExit();
+        AvroSink.<LocalDate,Integer>save(options -> {
+            options.setFile(file);
+            options.setFrame(frame);
+            options.setCodec(CodecFactory.nullCodec());
+            options.setSyncInterval(1024);
+        });
+        return file;
+    }
+
+
+    @Test(dataProvider="parallel")
+    public void testRoundTrip(boolean parallel) throws Exception {
+        final DataFrame<LocalDate,Integer> expected = createFrame(5000);
+        final File file = write(expected);
+        final DataFrame<LocalDate,Integer> actual = AvroSource.load(options -> {
+            options.setFile(file);
+            options.setParallel(parallel);
+            options.setSplitSize(4096);
+        });
+        assertEquals(actual.rowCount(), expected.rowCount());
+        assertEquals(actual.colCount(), expected.colCount());
+        assertEquals(actual.rows().keyArray(), expected.rows().keyArray());
+        assertEquals(actual.cols().keyArray(), expected.cols().keyArray());
+        expected.cols().keys().forEach(key -> {
+            assertEquals(actual.cols().type(key), expected.cols().type(key), "Type of column " + key);
+        });
+        for (int i=0; i<expected.rowCount(); ++i) {
+            for (int j=0; j<expected.colCount(); ++j) {
+                final Object expectedValue = expected.getValueAt(i, j);
+                final Object actualValue = actual.getValueAt(i, j);
+                assertEquals(actualValue, expectedValue, "Value at (" + i + "," + j + ")");
+            }
+        }
+    }
+
+
+    @Test(dataProvider="parallel")
+    public void testIntAndLongNulls(boolean parallel) throws Exception {
+        final LocalDate start = LocalDate.of(2000, 1, 1);
+        final DataFrame<LocalDate,Integer> expected = DataFrame.of(Range.of(start, start.plusDays(2000)), Integer.class, columns -> {
+            columns.add(1, Integer.class, v -> v.rowOrdinal() % 3 == 0 ? null : v.rowOrdinal());
+            columns.add(2, Long.class, v -> v.rowOrdinal() % 5 == 0 ? null : 10000000000L + v.rowOrdinal());
+        });
+        final File file = write(expected);
+        final DataFrame<LocalDate,Integer> actual = AvroSource.load(options -> {
+            options.setFile(file);
+            options.setParallel(parallel);
+            options.setSplitSize(4096);
+        });
+        assertEquals(actual.rowCount(), expected.rowCount());
+        for (int i=0; i<expected.rowCount(); ++i) {
+            assertEquals(actual.col(1).isNullAt(i), i % 3 == 0, "Int null at " + i);
+            assertEquals(actual.col(2).isNullAt(i), i % 5 == 0, "Long null at " + i);
+            assertEquals(actual.<Integer>getValueAt(i, 0), expected.<Integer>getValueAt(i, 0), "Int at " + i);
+            assertEquals(actual.<Long>getValueAt(i, 1), expected.<Long>getValueAt(i, 1), "Long at " + i);
+        }
+    }
+
+
+    @Test()
+    public void testSelectedColumns() throws Exception {
+        final DataFrame<LocalDate,Integer> expected = createFrame(100);
+        final File file = write(expected);
+        final DataFrame<LocalDate,Integer> actual = AvroSource.load(options -> {
+            options.setFile(file);
+            options.setColPredicate(Set.of(2, 9)::contains);
+        });
+        assertEquals(actual.rowCount(), 100);
+        assertEquals(actual.cols().keyArray().toList(), List.of(2, 9));
+        assertEquals(actual.cols().type(9), BigDecimal.class);
+        final LocalDate key = LocalDate.of(2000, 1, 21);
+        assertEquals(actual.getInt(key, 2), 20);
+        assertEquals(actual.<BigDecimal>getValue(key, 9), new BigDecimal("0.20"));
+    }
+
+
+    @Test()
+    public void testWithoutRowKeys() throws Exception {
+        final DataFrame<LocalDate,Integer> expected = createFrame(50);
+        final File file = File.createTempFile("morpheus-avro", ".avro");
+        file.deleteOnExit();
+        AvroSink.<LocalDate,Integer>save(options -> {
+            options.setFile(file);
+            options.setFrame(expected);
+            options.setIncludeRowKeys(false);
+        });
+        final DataFrame<Integer,Integer> actual = AvroSource.load(options -> options.setFile(file));
+        assertEquals(actual.rowCount(), 50);
+        assertEquals(actual.rows().keyArray().getValue(49), Integer.valueOf(49));
+        assertTrue(actual.cols().contains(5));
+        assertEquals(actual.<String>getValue(3, 5), "Row-3");
+    }
+}
@@ -15,10 +15,12 @@
  */
 package com.d3x.morpheus.array;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.nio.ByteOrder;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
@@ -33,6 +35,7 @@ import java.util.function.ToIntFunction;
 import java.util.function.ToLongFunction;
 import java.util.stream.Stream;
 
+import com.d3x.morpheus.array.mapped.MappedArrayConstructor;
 import com.d3x.morpheus.util.IntComparator;
 import org.apache.commons.math3.distribution.NormalDistribution;
 import org.apache.commons.math3.distribution.RealDistribution;
@@ -117,6 +120,29 @@ public interface Array<T> extends Iterable<T>, Serializable, Cloneable {
      */
     Array<T> readOnly();
 
+    /**
+     * Returns a compressed read-only version of this array if its values suit one of the supported encodings
+     * <p>Int, long and date-time arrays whose values are sorted or evenly spaced are delta encoded in bit packed
+     * blocks, and arrays with long runs of repeated values are run length encoded. If neither encoding at least
+     * halves the size of the array, a read-only view of this array is returned instead. Arrays in which most entries
+     * hold the default value store only the indexes of the other entries in ascending order, along with their values.
+     * The smallest of the candidate encodings is returned.</p>
+     * @return  a compressed read-only version of this array, or a read-only view
+     */
+    Array<T> encode();
+
+    /**
+     * Returns this array converted between dense and sparse storage based on the proportion of non-default values
+     * <p>A dense array in which the proportion of non-default values is below the sparse threshold is copied into a
+     * sparse array, and a sparse array whose load factor is above the dense threshold is copied into a dense array.
+     * In all other cases, including mapped and read-only arrays, this array is returned unchanged. Dense int and long
+     * arrays that contain nulls also remain dense, since sparse arrays of these types cannot represent nulls.</p>
+     * @param sparseThreshold   the load factor below which a dense array is converted to sparse
+     * @param denseThreshold    the load factor above which a sparse array is converted to dense
+     * @return                  the converted array, or this array if no conversion applies
+     */
+    Array<T> compact(float sparseThreshold, float denseThreshold);
+
     /**
      * Returns a deep copy of this array
      * @return  a deep copy of this array
@@ -173,11 +199,43 @@ public interface Array<T> extends Iterable<T>, Serializable, Cloneable {
 
     /**
      * Returns the cumulative sum of this Array
+     * For short and byte arrays, the result has the same type, so a running total must stay within the range of
+     * that type; widen the values first, for example with mapToInts(), to sum beyond it
      * @return  the cumulative sum
-     * @throws ArrayException   if the array is non numeric
+     * @throws ArrayException   if the array is non numeric, or a running total is out of range for a short or byte array
      */
     Array<T> cumSum();
 
+    /**
+     * Returns a newly created boolean array with the logical AND of this and the other array
+     * @param other     the other boolean array, which must have the same length as this array
+     * @return          the newly created array of this AND other
+     * @throws ArrayException   if this is not a boolean array, or the lengths do not match
+     */
+    Array<Boolean> and(Array<Boolean> other);
+
+    /**
+     * Returns a newly created boolean array with the logical OR of this and the other array
+     * @param other     the other boolean array, which must have the same length as this array
+     * @return          the newly created array of this OR other
+     * @throws ArrayException   if this is not a boolean array, or the lengths do not match
+     */
+    Array<Boolean> or(Array<Boolean> other);
+
+    /**
+     * Returns a newly created boolean array with the logical NOT of this array
+     * @return          the newly created array of NOT this
+     * @throws ArrayException   if this is not a boolean array
+     */
+    Array<Boolean> not();
+
+    /**
+     * Returns the number of true values in this boolean array
+     * @return          the count of true values
+     * @throws ArrayException   if this is not a boolean array
+     */
+    int countTrue();
+
     /**
      * Returns an light-weight unmodifiable List view over this array
      * @return  a light-weight unmodifiable List view on this array
@@ -499,6 +557,14 @@ public interface Array<T> extends Iterable<T>, Serializable, Cloneable {
      */
     Array<T> forEachValue(Consumer<ArrayValue<T>> consumer);
 
+    /**
+     * Iterates over the indexes of entries that do not hold the default value, in ascending order
+     * <p>Dense arrays check every entry, while sparse arrays only visit the entries they store.</p>
+     * @param consumer  the consumer to receive the index of each non-default entry
+     * @return          this array reference
+     */
+    Array<T> forEachNonDefault(IntConsumer consumer);
+
     /**
      * Returns true if the value at the specified index is null
      * @param index the index in this array
@@ -662,6 +728,21 @@ public interface Array<T> extends Iterable<T>, Serializable, Cloneable {
         return ArrayFactory.mapped().apply(type, length, defaultValue, path);
     }
 
+    /**
+     * Returns a memory mapped array over a region of an existing file, without copying the values it contains
+     * Updates to the array are not written to the file, and only fixed width types are supported
+     * @param type          the element type for array
+     * @param file          the file that contains the values
+     * @param offset        the byte offset of the first value in the file
+     * @param length        the number of values in the region
+     * @param order         the byte order of values in the file
+     * @param <V>           the type for array
+     * @return              the memory mapped array
+     */
+    static <V> Array<V> map(Class<V> type, File file, long offset, int length, ByteOrder order) {
+        return MappedArrayConstructor.map(type, file, offset, length, order);
+    }
+
 
     /**
      * Returns a newly created dense Array that wraps the boolean array specified
@@ -57,6 +57,8 @@ import com.d3x.morpheus.util.IntComparator;
 import com.d3x.morpheus.util.SortAlgorithm;
 import com.d3x.morpheus.util.functions.ToBooleanFunction;
 
+import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
+
 /**
  * A convenience base class used to build Morpheus Array implementations
  *
@@ -125,6 +127,61 @@ public abstract class ArrayBase<T> implements Array<T> {
         return isReadOnly() ? this : new ArrayReadOnly<>(this);
     }
 
+    @Override
+    public Array<T> encode() {
+        final ArrayOfDeltas<T> deltas = ArrayOfDeltas.of(this);
+        final ArrayOfRuns<T> runs = ArrayOfRuns.of(this);
+        final ArrayOfCoordinates<T> coordinates = ArrayOfCoordinates.of(this);
+        Array<T> result = readOnly();
+        long sizeInBits = Long.MAX_VALUE;
+        if (deltas != null) {
+            result = deltas;
+            sizeInBits = deltas.sizeInBits();
+        }
+        if (runs != null && runs.sizeInBits() < sizeInBits) {
+            result = runs;
+            sizeInBits = runs.sizeInBits();
+        }
+        if (coordinates != null && coordinates.sizeInBits() < sizeInBits) {
+            result = coordinates;
+        }
+        return result;
+    }
+
+    @Override
+    public Array<T> compact(float sparseThreshold, float denseThreshold) {
+        final int length = length();
+        if (isReadOnly() || length == 0) {
+            return this;
+        } else if (style() == ArrayStyle.SPARSE && loadFactor() > denseThreshold) {
+            final Array<T> result = Array.of(type(), length, defaultValue(), ArrayStyle.DENSE);
+            result.update(0, this, 0, length);
+            return isParallel() ? result.parallel() : result;
+        } else if (style() == ArrayStyle.DENSE && typeCode() != ArrayType.BOOLEAN && sparseThreshold > 0f) {
+            final T defaultValue = defaultValue();
+            final float limit = sparseThreshold * length;
+            final boolean nullable = typeCode() == ArrayType.INTEGER || typeCode() == ArrayType.LONG;
+            final IntArrayList indexes = new IntArrayList();
+            for (int i=0; i<length; ++i) {
+                if (nullable && isNull(i)) {
+                    return this;
+                } else if (!isEqualTo(i, defaultValue)) {
+                    indexes.add(i);
+                    if (indexes.size() >= limit) {
+                        return this;
+                    }
+                }
+            }
+            final int[] coordinates = indexes.toArray();
+            final float loadFactor = Math.min(0.99f, Math.max(0.01f, (float)coordinates.length / length));
+            final Array<T> result = Array.of(type(), length, defaultValue, loadFactor);
+            result.update(this, coordinates, coordinates);
+            return isParallel() ? result.parallel() : result;
+        } else {
+            return this;
+        }
+    }
+
     @Override
     public final ArrayCursor<T> cursor() {
         return new ArrayValueCursor();
@@ -219,6 +276,89 @@ public abstract class ArrayBase<T> implements Array<T> {
     }
 
 
+    /**
+     * Returns the cumulative sum of a compact integral array, where the running total is accumulated as an int
+     * Since the result has the same type as this array, a total outside its range cannot be represented, and the
+     * values should first be widened, for example with mapToInts(), to compute such a cumulative sum.
+     * @param min   the min value of the array type
+     * @param max   the max value of the array type
+     * @return      the cumulative sum
+     * @throws ArrayException   if a running total is outside the range of the array type
+     */
+    protected final Array<T> cumSum(int min, int max) {
+        final int length = length();
+        final Array<T> result = Array.of(type(), length);
+        int total = 0;
+        for (int i=0; i<length; ++i) {
+            total += getInt(i);
+            if (total < min || total > max) {
+                throw new ArrayException("Cumulative sum at index " + i + " is out of range for " + type().getSimpleName() + " array: " + total);
+            }
+            result.setInt(i, total);
+        }
+        return result;
+    }
+
+
+    @Override()
+    public Array<Boolean> and(Array<Boolean> other) {
+        this.checkLogical(other);
+        final Array<Boolean> result = Array.of(Boolean.class, length());
+        for (int i=0; i<length(); ++i) {
+            result.setBoolean(i, getBoolean(i) && other.getBoolean(i));
+        }
+        return result;
+    }
+
+
+    @Override()
+    public Array<Boolean> or(Array<Boolean> other) {
+        this.checkLogical(other);
+        final Array<Boolean> result = Array.of(Boolean.class, length());
+        for (int i=0; i<length(); ++i) {
+            result.setBoolean(i, getBoolean(i) || other.getBoolean(i));
+        }
+        return result;
+    }
+
+
+    @Override()
+    public Array<Boolean> not() {
+        this.checkLogical(this);
+        final Array<Boolean> result = Array.of(Boolean.class, length());
+        for (int i=0; i<length(); ++i) {
+            result.setBoolean(i, !getBoolean(i));
+        }
+        return result;
+    }
+
+
+    @Override()
+    public int countTrue() {
+        this.checkLogical(this);
+        int count = 0;
+        for (int i=0; i<length(); ++i) {
+            if (getBoolean(i)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+
+    /**
+     * Checks that this and the other array are boolean arrays of the same length
+     * @param other the other operand of a logical operation
+     */
+    protected void checkLogical(Array<?> other) {
+        if (typeCode() != ArrayType.BOOLEAN || other.typeCode() != ArrayType.BOOLEAN) {
+            throw new ArrayException("Logical operations are only supported by boolean Array types, not " + type());
+        } else if (other.length() != length()) {
+            throw new ArrayException("Array length mismatch for logical operation: " + length() + " != " + other.length());
+        }
+    }
+
+
 
     @Override
     public final Array<Boolean> mapToBooleans(ToBooleanFunction<ArrayValue<T>> mapper) {
@@ -459,6 +599,18 @@ public abstract class ArrayBase<T> implements Array<T> {
     }
 
 
+    @Override
+    public Array<T> forEachNonDefault(IntConsumer consumer) {
+        final T defaultValue = defaultValue();
+        for (int i=0; i<length(); ++i) {
+            if (!isEqualTo(i, defaultValue)) {
+                consumer.accept(i);
+            }
+        }
+        return this;
+    }
+
+
     @Override
     public final Optional<ArrayValue<T>> previous(T value) {
         var length = length();
@@ -610,6 +762,9 @@ public abstract class ArrayBase<T> implements Array<T> {
             case INTEGER:       return new ArrayStats<>((Array<Number>)this, 0, length());
             case LONG:          return new ArrayStats<>((Array<Number>)this, 0, length());
             case DOUBLE:        return new ArrayStats<>((Array<Number>)this, 0, length());
+            case FLOAT:         return new ArrayStats<>((Array<Number>)this, 0, length());
+            case SHORT:         return new ArrayStats<>((Array<Number>)this, 0, length());
+            case BYTE:          return new ArrayStats<>((Array<Number>)this, 0, length());
             default:    throw new IllegalStateException("The array is non-numeric: " + typeCode());
         }
     }
@@ -622,6 +777,9 @@ public abstract class ArrayBase<T> implements Array<T> {
             case INTEGER:       return new ArrayStats<>((Array<Number>)this, offset, length);
             case LONG:          return new ArrayStats<>((Array<Number>)this, offset, length);
             case DOUBLE:        return new ArrayStats<>((Array<Number>)this, offset, length);
+            case FLOAT:         return new ArrayStats<>((Array<Number>)this, offset, length);
+            case SHORT:         return new ArrayStats<>((Array<Number>)this, offset, length);
+            case BYTE:          return new ArrayStats<>((Array<Number>)this, offset, length);
             default:    throw new IllegalStateException("The array is non-numeric: " + typeCode());
         }
     }
@@ -788,6 +946,9 @@ public abstract class ArrayBase<T> implements Array<T> {
                     case INTEGER:           return intEquals(array);
                     case LONG:              return longEquals(array);
                     case DOUBLE:            return doubleEquals(array);
+                    case FLOAT:             return doubleEquals(array);
+                    case SHORT:             return intEquals(array);
+                    case BYTE:              return intEquals(array);
                     case DATE:              return longEquals(array);
                     case ENUM:              return intEquals(array);
                     case ZONE_ID:           return intEquals(array);
@@ -831,7 +992,7 @@ public abstract class ArrayBase<T> implements Array<T> {
         for (int i=0; i<length; ++i) {
             final int v1 = array.getInt(i);
             final int v2 = this.getInt(i);
-            if (v1 != v2) {
+            if (v1 != v2 || array.isNull(i) != this.isNull(i)) {
                 return false;
             }
         }
@@ -849,7 +1010,7 @@ public abstract class ArrayBase<T> implements Array<T> {
         for (int i=0; i<length; ++i) {
             final long v1 = array.getLong(i);
             final long v2 = this.getLong(i);
-            if (v1 != v2) {
+            if (v1 != v2 || array.isNull(i) != this.isNull(i)) {
                 return false;
             }
         }
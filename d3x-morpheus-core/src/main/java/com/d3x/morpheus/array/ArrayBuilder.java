@@ -152,7 +152,10 @@ public class ArrayBuilder<T> {
         if (value != null) {
             this.checkType((Class<T>)value.getClass());
             this.checkLength(index);
-            this.array.setValue(index, value);
+            this.apply(index, value);
+        } else if (array != null) {
+            this.checkLength(index);
+            this.array.setValue(index, null);
         }
         this.index++;
         return index-1;
@@ -220,7 +223,7 @@ public class ArrayBuilder<T> {
         if (value != null) {
             this.checkType((Class<T>)value.getClass());
             this.checkLength(index);
-            this.array.setValue(index, value);
+            this.apply(index, value);
         }
         this.index = Math.max(this.index, index+1);
     }
@@ -345,6 +348,9 @@ public class ArrayBuilder<T> {
                 case INTEGER:           newArray.forEachInt(this::appendInt);          break;
                 case LONG:              newArray.forEachLong(this::appendLong);        break;
                 case DOUBLE:            newArray.forEachDouble(this::appendDouble);    break;
+                case FLOAT:             newArray.forEachDouble(this::appendDouble);    break;
+                case SHORT:             newArray.forEachInt(this::appendInt);          break;
+                case BYTE:              newArray.forEachInt(this::appendInt);          break;
                 case DATE:              newArray.forEachLong(this::appendLong);        break;
                 case INSTANT:           newArray.forEachLong(this::appendLong);        break;
                 case LOCAL_DATE:        newArray.forEachLong(this::appendLong);        break;
@@ -367,9 +373,12 @@ public class ArrayBuilder<T> {
         if (array == null) {
             this.type = type;
             this.dataType = ArrayType.of(type);
-            this.array = Array.of(type, capacity, fillPct);
+            this.array = Array.of(type, Math.max(capacity, index), fillPct);
             this.checkType = this.type != Object.class;
             this.capacity = array.length();
+            for (int i=0; i<index; ++i) {
+                this.array.setValue(i, null);
+            }
         } else if (checkType && !isMatch(type)) {
             var newArray = Array.<T>ofObjects(array.length(), fillPct);
             for (int i=0; i<array.length(); ++i) newArray.setValue(i, array.getValue(i));
@@ -380,6 +389,21 @@ public class ArrayBuilder<T> {
         }
     }
 
+    /**
+     * Applies a non-null value to the array, narrowing wider numeric values if the array holds a compact numeric type
+     * @param index the array index location
+     * @param value the value to apply
+     */
+    private void apply(int index, T value) {
+        if (value.getClass() == type || !dataType.isCompact() || !(value instanceof Number)) {
+            this.array.setValue(index, value);
+        } else if (dataType.isFloat()) {
+            this.array.setDouble(index, ((Number)value).doubleValue());
+        } else {
+            this.array.setInt(index, ((Number)value).intValue());
+        }
+    }
+
     /**
      * Returns the current length for this builder
      * @return      the current length for builder
@@ -0,0 +1,384 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.array;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+
+import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
+
+/**
+ * A read-only sparse Array implementation that stores the indexes of non-default entries in ascending order, along
+ * with their values in a parallel array.
+ *
+ * <p>This encoding suits arrays in which most entries hold the default value, such as rows or columns of a holdings
+ * matrix. Unlike the hash based sparse arrays, the stored entries are laid out contiguously in index order, so
+ * iterating over them with {@link #forEachNonDefault(IntConsumer)} visits indexes in ascending order with good
+ * locality. Random access finds an entry by binary search over the stored indexes, while sequential access first
+ * checks the position resolved by the previous call, so iterating over every index in order is constant time per
+ * element. The values are held in an array of the same type as the source, which preserves its nulls, codings and
+ * primitive accessors, and whose first slot holds the default value returned for every index not stored.</p>
+ *
+ * @param <T>   the array element type
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+class ArrayOfCoordinates<T> extends ArrayBase<T> {
+
+    private static final long serialVersionUID = 1L;
+
+    private int length;
+    private int[] indexes;
+    private Array<T> values;
+    private T defaultValue;
+    private transient int position;
+
+    /**
+     * Constructor
+     * @param source    the source array to encode
+     * @param indexes   the indexes of non-default entries in the source, in ascending order
+     */
+    private ArrayOfCoordinates(Array<T> source, int[] indexes) {
+        super(source.type(), ArrayStyle.SPARSE, false);
+        this.length = source.length();
+        this.indexes = indexes;
+        this.defaultValue = source.defaultValue();
+        this.values = Array.of(source.type(), indexes.length + 1, defaultValue, ArrayStyle.DENSE);
+        final int[] slots = new int[indexes.length];
+        for (int i=0; i<slots.length; ++i) {
+            slots[i] = i + 1;
+        }
+        this.values.update(source, indexes, slots);
+    }
+
+    /**
+     * Constructor
+     * @param source    the source array to shallow copy
+     * @param parallel  true for the parallel version
+     */
+    private ArrayOfCoordinates(ArrayOfCoordinates<T> source, boolean parallel) {
+        super(source.type(), ArrayStyle.SPARSE, parallel);
+        this.length = source.length;
+        this.indexes = source.indexes;
+        this.values = source.values;
+        this.defaultValue = source.defaultValue;
+    }
+
+    /**
+     * Returns a sorted coordinate encoding of the source array, or null if it would not at least halve the size of the array
+     * @param source    the source array to encode
+     * @param <T>       the array element type
+     * @return          the sorted coordinate array, or null if the source does not have enough default values
+     */
+    static <T> ArrayOfCoordinates<T> of(Array<T> source) {
+        var length = source.length();
+        var bits = ArrayOfRuns.bitCount(source);
+        var maxCount = (int)Math.min(Integer.MAX_VALUE, (long)length * bits / (2L * (32 + bits)));
+        if (length == 0 || maxCount == 0) {
+            return null;
+        } else {
+            final T defaultValue = source.defaultValue();
+            final IntArrayList indexes = new IntArrayList();
+            for (int i=0; i<length; ++i) {
+                if (!source.isEqualTo(i, defaultValue)) {
+                    if (indexes.size() == maxCount) {
+                        return null;
+                    } else {
+                        indexes.add(i);
+                    }
+                }
+            }
+            return new ArrayOfCoordinates<>(source, indexes.toArray());
+        }
+    }
+
+    /**
+     * Returns the number of non-default entries stored in this array
+     * @return  the number of stored entries
+     */
+    int count() {
+        return indexes.length;
+    }
+
+    /**
+     * Returns the approximate size of this encoding in bits, including the stored indexes
+     * @return  the size of this encoding in bits
+     */
+    long sizeInBits() {
+        return (long)indexes.length * (32 + ArrayOfRuns.bitCount(values));
+    }
+
+    /**
+     * Returns the slot in the values array for the array index specified, which is zero for entries not stored
+     * @param index the array index
+     * @return      the slot in the values array
+     */
+    private int slot(int index) {
+        if (index < 0 || index >= length) {
+            throw new ArrayIndexOutOfBoundsException("Array index out of bounds: " + index + ", length " + length);
+        } else {
+            var count = indexes.length;
+            var next = position;
+            if (next < count && indexes[next] < index) {
+                next++;
+            }
+            if ((next > 0 && indexes[next-1] >= index) || (next < count && indexes[next] < index)) {
+                var match = Arrays.binarySearch(indexes, index);
+                next = match >= 0 ? match : -(match + 1);
+            }
+            this.position = next;
+            return next < count && indexes[next] == index ? next + 1 : 0;
+        }
+    }
+
+    /**
+     * Returns the slots in the values array for the array indexes specified
+     * @param indexes   the array indexes
+     * @return          the corresponding slots
+     */
+    private int[] slots(int[] indexes) {
+        var slots = new int[indexes.length];
+        for (int i=0; i<indexes.length; ++i) {
+            slots[i] = slot(indexes[i]);
+        }
+        return slots;
+    }
+
+    @Override
+    public final int length() {
+        return length;
+    }
+
+    @Override
+    public float loadFactor() {
+        return length > 0 ? (float)indexes.length / length : 0F;
+    }
+
+    @Override
+    public final T defaultValue() {
+        return defaultValue;
+    }
+
+    @Override
+    public final boolean isReadOnly() {
+        return true;
+    }
+
+    @Override
+    public final Array<T> readOnly() {
+        return this;
+    }
+
+    @Override
+    public final Array<T> encode() {
+        return this;
+    }
+
+    @Override
+    public final Array<T> parallel() {
+        return isParallel() ? this : new ArrayOfCoordinates<>(this, true);
+    }
+
+    @Override
+    public final Array<T> sequential() {
+        return isParallel() ? new ArrayOfCoordinates<>(this, false) : this;
+    }
+
+    @Override
+    public final Array<T> forEachNonDefault(IntConsumer consumer) {
+        for (int index : indexes) {
+            consumer.accept(index);
+        }
+        return this;
+    }
+
+    @Override
+    public final Array<T> copy() {
+        var indexes = new int[length];
+        for (int i=0; i<length; ++i) {
+            indexes[i] = i;
+        }
+        return values.copy(slots(indexes)).readOnly();
+    }
+
+    @Override
+    public final Array<T> copy(int[] indexes) {
+        return values.copy(slots(indexes)).readOnly();
+    }
+
+    @Override
+    public Array<T> copy(Array<Integer> indexes) {
+        var slots = new int[indexes.length()];
+        for (int i=0; i<slots.length; ++i) {
+            slots[i] = slot(indexes.getInt(i));
+        }
+        return values.copy(slots).readOnly();
+    }
+
+    @Override
+    public final Array<T> copy(int start, int end) {
+        var indexes = new int[end - start];
+        for (int i=0; i<indexes.length; ++i) {
+            indexes[i] = start + i;
+        }
+        return values.copy(slots(indexes)).readOnly();
+    }
+
+    @Override
+    public final Array<T> fill(T value) {
+        throw new ArrayException("This is a read only encoded Morpheus Array");
+    }
+
+    @Override
+    public final Array<T> fill(T value, int start, int end) {
+        throw new ArrayException("This is a read only encoded Morpheus Array");
+    }
+
+    @Override
+    public final Array<T> shuffle(int count) {
+        throw new ArrayException("This is a read only encoded Morpheus Array");
+    }
+
+    @Override
+    public final int compare(int i, int j) {
+        return values.compare(slot(i), slot(j));
+    }
+
+    @Override
+    public final Array<T> swap(int i, int j) {
+        throw new ArrayException("This is a read only encoded Morpheus Array");
+    }
+
+    @Override
+    public final Array<T> sort(boolean ascending) {
+        throw new ArrayException("This is a read only encoded Morpheus Array");
+    }
+
+    @Override
+    public final Array<T> sort(int start, int end, boolean ascending) {
+        throw new ArrayException("This is a read only encoded Morpheus Array");
+    }
+
+    @Override
+    public final Array<T> sort(int start, int end, Comparator<ArrayValue<T>> comparator) {
+        throw new ArrayException("This is a read only encoded Morpheus Array");
+    }
+
+    @Override
+    public final Array<T> filter(Predicate<ArrayValue<T>> predicate) {
+        var cursor = cursor();
+        var builder = ArrayBuilder.of(length, type());
+        for (int i=0; i<length; ++i) {
+            cursor.moveTo(i);
+            if (predicate.test(cursor)) {
+                builder.append(cursor.getValue());
+            }
+        }
+        return builder.toArray();
+    }
+
+    @Override
+    public final Array<T> expand(int newLength) {
+        throw new ArrayException("This is a read only encoded Morpheus Array");
+    }
+
+    @Override
+    public final Array<T> update(Array<T> from, int[] fromIndexes, int[] toIndexes) {
+        throw new ArrayException("This is a read only encoded Morpheus Array");
+    }
+
+    @Override
+    public final Array<T> update(int toIndex, Array<T> from, int fromIndex, int length) {
+        throw new ArrayException("This is a read only encoded Morpheus Array");
+    }
+
+    @Override
+    public final boolean isNull(int index) {
+        return values.isNull(slot(index));
+    }
+
+    @Override
+    public final boolean isEqualTo(int index, T value) {
+        return values.isEqualTo(slot(index), value);
+    }
+
+    @Override
+    public final boolean getBoolean(int index) {
+        return values.getBoolean(slot(index));
+    }
+
+    @Override
+    public final int getInt(int index) {
+        return values.getInt(slot(index));
+    }
+
+    @Override
+    public final long getLong(int index) {
+        return values.getLong(slot(index));
+    }
+
+    @Override
+    public final double getDouble(int index) {
+        return values.getDouble(slot(index));
+    }
+
+    @Override
+    public final T getValue(int index) {
+        return values.getValue(slot(index));
+    }
+
+    @Override
+    public final boolean setBoolean(int index, boolean value) {
+        throw new ArrayException("This is a read only encoded Morpheus Array");
+    }
+
+    @Override
+    public final int setInt(int index, int value) {
+        throw new ArrayException("This is a read only encoded Morpheus Array");
+    }
+
+    @Override
+    public final long setLong(int index, long value) {
+        throw new ArrayException("This is a read only encoded Morpheus Array");
+    }
+
+    @Override
+    public final double setDouble(int index, double value) {
+        throw new ArrayException("This is a read only encoded Morpheus Array");
+    }
+
+    @Override
+    public final T setValue(int index, T value) {
+        throw new ArrayException("This is a read only encoded Morpheus Array");
+    }
+
+    @Override
+    public final void read(ObjectInputStream is, int count) throws IOException {
+        throw new ArrayException("This is a read only encoded Morpheus Array");
+    }
+
+    @Override
+    public final void write(ObjectOutputStream os, int[] indexes) throws IOException {
+        this.values.write(os, slots(indexes));
+    }
+}
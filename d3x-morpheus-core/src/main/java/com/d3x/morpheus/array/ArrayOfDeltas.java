@@ -0,0 +1,519 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.array;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Comparator;
+import java.util.function.Predicate;
+
+import com.d3x.morpheus.array.coding.LongCoding;
+import com.d3x.morpheus.array.coding.WithLongCoding;
+
+/**
+ * A read-only Array implementation that stores int, long or long coded values as bit packed residuals from a linear trend.
+ *
+ * <p>The values are split into blocks of 128, and each block records a base value and a step that connect its first
+ * and last values, along with the residual of every value from that line packed into the minimum number of bits.
+ * Sorted or regularly spaced columns, such as timestamps or dates, typically need only a few bits per value, and
+ * evenly spaced values need none at all. Any value can be decoded in constant time from its block, so both random
+ * and sequential access remain cheap. Nulls are tracked in a separate bitmap that is only allocated if required.</p>
+ *
+ * @param <T>   the array element type
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+class ArrayOfDeltas<T> extends ArrayBase<T> {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int BLOCK_SHIFT = 7;
+    private static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+    private static final int BLOCK_BITS = 3 * 64 + 8;
+
+    private int length;
+    private T defaultValue;
+    private LongCoding<T> coding;
+    private long nullCode;
+    private long[] nulls;
+    private long[] bases;
+    private long[] steps;
+    private long[] offsets;
+    private byte[] widths;
+    private long[] words;
+
+    /**
+     * Constructor
+     * @param source    the source array to shallow copy
+     * @param parallel  true for the parallel version
+     */
+    private ArrayOfDeltas(ArrayOfDeltas<T> source, boolean parallel) {
+        super(source.type(), ArrayStyle.DENSE, parallel);
+        this.length = source.length;
+        this.defaultValue = source.defaultValue;
+        this.coding = source.coding;
+        this.nullCode = source.nullCode;
+        this.nulls = source.nulls;
+        this.bases = source.bases;
+        this.steps = source.steps;
+        this.offsets = source.offsets;
+        this.widths = source.widths;
+        this.words = source.words;
+    }
+
+    /**
+     * Constructor
+     * @param source    the source array to encode
+     * @param coding    the long coding of the source, null for int or long arrays
+     * @param values    the primitive values of the source, with nulls replaced by the prior value
+     * @param nulls     the null bitmap, null if the source contains no nulls
+     * @param nullCode  the primitive value the source reports for nulls
+     */
+    private ArrayOfDeltas(Array<T> source, LongCoding<T> coding, long[] values, long[] nulls, long nullCode) {
+        super(source.type(), ArrayStyle.DENSE, false);
+        final int blockCount = (values.length + BLOCK_SIZE - 1) >> BLOCK_SHIFT;
+        this.length = values.length;
+        this.defaultValue = source.defaultValue();
+        this.coding = coding;
+        this.nulls = nulls;
+        this.nullCode = nullCode;
+        this.bases = new long[blockCount];
+        this.steps = new long[blockCount];
+        this.offsets = new long[blockCount];
+        this.widths = new byte[blockCount];
+        long position = 0L;
+        for (int block=0; block<blockCount; ++block) {
+            this.initBlock(values, block);
+            this.offsets[block] = position;
+            position += (long)widths[block] * blockLength(block);
+        }
+        this.words = new long[(int)((position + 63) >>> 6)];
+        for (int block=0; block<blockCount; ++block) {
+            final int start = block << BLOCK_SHIFT;
+            final int count = blockLength(block);
+            final int width = widths[block];
+            if (width > 0) {
+                for (int k=0; k<count; ++k) {
+                    final long residual = values[start + k] - bases[block] - k * steps[block];
+                    this.pack(offsets[block] + (long)k * width, width, residual);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a delta encoding of the source array, or null if the source is not supported or would not at least halve in size
+     * @param source    the source array to encode
+     * @param <T>       the array element type
+     * @return          the delta encoded array, or null if the encoding is not supported or worthwhile
+     */
+    @SuppressWarnings("unchecked")
+    static <T> ArrayOfDeltas<T> of(Array<T> source) {
+        final int length = source.length();
+        final ArrayType type = source.typeCode();
+        final LongCoding<T> coding = source instanceof WithLongCoding ? ((WithLongCoding<T>)source).getCoding() : null;
+        if (length == 0) {
+            return null;
+        } else if (type != ArrayType.INTEGER && type != ArrayType.LONG && (coding == null || type == ArrayType.ZONED_DATETIME)) {
+            return null;
+        } else {
+            long[] nulls = null;
+            long nullCode = 0L;
+            long prior = 0L;
+            final boolean ints = type == ArrayType.INTEGER;
+            final long[] values = new long[length];
+            for (int i=0; i<length; ++i) {
+                if (!source.isNull(i)) {
+                    prior = ints ? source.getInt(i) : source.getLong(i);
+                    break;
+                }
+            }
+            for (int i=0; i<length; ++i) {
+                if (source.isNull(i)) {
+                    if (nulls == null) {
+                        nulls = new long[(length + 63) >>> 6];
+                        nullCode = ints ? source.getInt(i) : source.getLong(i);
+                    }
+                    nulls[i >>> 6] |= 1L << i;
+                    values[i] = prior;
+                } else {
+                    prior = ints ? source.getInt(i) : source.getLong(i);
+                    values[i] = prior;
+                }
+            }
+            final ArrayOfDeltas<T> result = new ArrayOfDeltas<>(source, coding, values, nulls, nullCode);
+            final long naturalBits = (long)length * (ints ? 32 : 64);
+            return result.sizeInBits() * 2L <= naturalBits ? result : null;
+        }
+    }
+
+    /**
+     * Initializes the base, step and bit width of the block from the values
+     * @param values    the values to encode
+     * @param block     the block index
+     */
+    private void initBlock(long[] values, int block) {
+        final int start = block << BLOCK_SHIFT;
+        final int count = blockLength(block);
+        final long first = values[start];
+        final long step = count > 1 ? (values[start + count - 1] - first) / (count - 1) : 0L;
+        long min = Long.MAX_VALUE;
+        for (int k=0; k<count; ++k) {
+            final long residual = values[start + k] - first - k * step;
+            min = Math.min(min, residual);
+        }
+        long bits = 0L;
+        for (int k=0; k<count; ++k) {
+            final long residual = values[start + k] - first - k * step;
+            bits |= residual - min;
+        }
+        this.bases[block] = first + min;
+        this.steps[block] = step;
+        this.widths[block] = (byte)(64 - Long.numberOfLeadingZeros(bits));
+    }
+
+    /**
+     * Returns the number of values in the block specified
+     * @param block the block index
+     * @return      the number of values in block
+     */
+    private int blockLength(int block) {
+        return Math.min(BLOCK_SIZE, length - (block << BLOCK_SHIFT));
+    }
+
+    /**
+     * Returns the approximate size of this encoding in bits, including the block headers and null bitmap
+     * @return  the size of this encoding in bits
+     */
+    long sizeInBits() {
+        final long nullBits = nulls != null ? nulls.length * 64L : 0L;
+        return words.length * 64L + bases.length * (long)BLOCK_BITS + nullBits;
+    }
+
+    /**
+     * Writes the low order bits of a value into the packed words at the bit position specified
+     * @param position  the bit position
+     * @param width     the number of bits to write
+     * @param value     the value to write
+     */
+    private void pack(long position, int width, long value) {
+        final int word = (int)(position >>> 6);
+        final int shift = (int)(position & 63);
+        this.words[word] |= value << shift;
+        if (shift + width > 64) {
+            this.words[word + 1] |= value >>> (64 - shift);
+        }
+    }
+
+    /**
+     * Reads a value of the width specified from the packed words at the bit position specified
+     * @param position  the bit position
+     * @param width     the number of bits to read
+     * @return          the value read
+     */
+    private long unpack(long position, int width) {
+        if (width == 0) {
+            return 0L;
+        } else {
+            final int word = (int)(position >>> 6);
+            final int shift = (int)(position & 63);
+            long value = words[word] >>> shift;
+            if (shift + width > 64) {
+                value |= words[word + 1] << (64 - shift);
+            }
+            return width == 64 ? value : value & ((1L << width) - 1L);
+        }
+    }
+
+    /**
+     * Returns the primitive value at the index specified, which is the null code for null entries
+     * @param index the array index
+     * @return      the primitive value at index
+     */
+    private long decode(int index) {
+        if (index < 0 || index >= length) {
+            throw new ArrayIndexOutOfBoundsException("Array index out of bounds: " + index + ", length " + length);
+        } else if (nulls != null && (nulls[index >>> 6] & (1L << index)) != 0L) {
+            return nullCode;
+        } else {
+            final int block = index >>> BLOCK_SHIFT;
+            final int k = index & (BLOCK_SIZE - 1);
+            final int width = widths[block];
+            return bases[block] + k * steps[block] + unpack(offsets[block] + (long)k * width, width);
+        }
+    }
+
+    /**
+     * Returns a mutable array decoded from this array for the indexes specified
+     * @param indexes   the indexes to decode
+     * @return          the decoded array
+     */
+    private Array<T> decode(int[] indexes) {
+        final Array<T> result = Array.of(type(), indexes.length, defaultValue);
+        for (int i=0; i<indexes.length; ++i) {
+            final int index = indexes[i];
+            if (isNull(index)) {
+                result.setValue(i, null);
+            } else if (typeCode() == ArrayType.INTEGER) {
+                result.setInt(i, (int)decode(index));
+            } else {
+                result.setLong(i, decode(index));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public final int length() {
+        return length;
+    }
+
+    @Override
+    public float loadFactor() {
+        return 1F;
+    }
+
+    @Override
+    public final T defaultValue() {
+        return defaultValue;
+    }
+
+    @Override
+    public final boolean isReadOnly() {
+        return true;
+    }
+
+    @Override
+    public final Array<T> readOnly() {
+        return this;
+    }
+
+    @Override
+    public final Array<T> encode() {
+        return this;
+    }
+
+    @Override
+    public final Array<T> parallel() {
+        return isParallel() ? this : new ArrayOfDeltas<>(this, true);
+    }
+
+    @Override
+    public final Array<T> sequential() {
+        return isParallel() ? new ArrayOfDeltas<>(this, false) : this;
+    }
+
+    @Override
+    public final Array<T> copy() {
+        return copy(0, length);
+    }
+
+    @Override
+    public final Array<T> copy(int[] indexes) {
+        return decode(indexes).readOnly();
+    }
+
+    @Override
+    public Array<T> copy(Array<Integer> indexes) {
+        final int[] values = new int[indexes.length()];
+        for (int i=0; i<values.length; ++i) {
+            values[i] = indexes.getInt(i);
+        }
+        return decode(values).readOnly();
+    }
+
+    @Override
+    public final Array<T> copy(int start, int end) {
+        final int[] indexes = new int[end - start];
+        for (int i=0; i<indexes.length; ++i) {
+            indexes[i] = start + i;
+        }
+        return decode(indexes).readOnly();
+    }
+
+    @Override
+    public final Array<T> fill(T value) {
+        throw new ArrayException("This is a read only encoded Morpheus Array");
+    }
+
+    @Override
+    public final Array<T> fill(T value, int start, int end) {
+        throw new ArrayException("This is a read only encoded Morpheus Array");
+    }
+
+    @Override
+    public final Array<T> shuffle(int count) {
+        throw new ArrayException("This is a read only encoded Morpheus Array");
+    }
+
+    @Override
+    public final int compare(int i, int j) {
+        return Long.compare(decode(i), decode(j));
+    }
+
+    @Override
+    public final Array<T> swap(int i, int j) {
+        throw new ArrayException("This is a read only encoded Morpheus Array");
+    }
+
+    @Override
+    public final Array<T> sort(boolean ascending) {
+        throw new ArrayException("This is a read only encoded Morpheus Array");
+    }
+
+    @Override
+    public final Array<T> sort(int start, int end, boolean ascending) {
+        throw new ArrayException("This is a read only encoded Morpheus Array");
+    }
+
+    @Override
+    public final Array<T> sort(int start, int end, Comparator<ArrayValue<T>> comparator) {
+        throw new ArrayException("This is a read only encoded Morpheus Array");
+    }
+
+    @Override
+    public final Array<T> filter(Predicate<ArrayValue<T>> predicate) {
+        final ArrayCursor<T> cursor = cursor();
+        final ArrayBuilder<T> builder = ArrayBuilder.of(length, type());
+        for (int i=0; i<length; ++i) {
+            cursor.moveTo(i);
+            if (predicate.test(cursor)) {
+                builder.append(cursor.getValue());
+            }
+        }
+        return builder.toArray();
+    }
+
+    @Override
+    public final Array<T> expand(int newLength) {
+        throw new ArrayException("This is a read only encoded Morpheus Array");
+    }
+
+    @Override
+    public final Array<T> update(Array<T> from, int[] fromIndexes, int[] toIndexes) {
+        throw new ArrayException("This is a read only encoded Morpheus Array");
+    }
+
+    @Override
+    public final Array<T> update(int toIndex, Array<T> from, int fromIndex, int length) {
+        throw new ArrayException("This is a read only encoded Morpheus Array");
+    }
+
+    @Override
+    public final boolean isNull(int index) {
+        if (index < 0 || index >= length) {
+            throw new ArrayIndexOutOfBoundsException("Array index out of bounds: " + index + ", length " + length);
+        } else {
+            return nulls != null && (nulls[index >>> 6] & (1L << index)) != 0L;
+        }
+    }
+
+    @Override
+    public final boolean isEqualTo(int index, T value) {
+        if (value == null) {
+            return isNull(index);
+        } else if (coding != null) {
+            return coding.getCode(value) == decode(index);
+        } else {
+            return !isNull(index) && ((Number)value).longValue() == decode(index);
+        }
+    }
+
+    @Override
+    public final int getInt(int index) {
+        if (typeCode() == ArrayType.INTEGER) {
+            return (int)decode(index);
+        } else {
+            return super.getInt(index);
+        }
+    }
+
+    @Override
+    public final long getLong(int index) {
+        if (typeCode() == ArrayType.INTEGER) {
+            return super.getLong(index);
+        } else {
+            return decode(index);
+        }
+    }
+
+    @Override
+    public final double getDouble(int index) {
+        if (coding != null) {
+            return super.getDouble(index);
+        } else {
+            return decode(index);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public final T getValue(int index) {
+        if (isNull(index)) {
+            return null;
+        } else if (coding != null) {
+            return coding.getValue(decode(index));
+        } else if (typeCode() == ArrayType.INTEGER) {
+            return (T)Integer.valueOf((int)decode(index));
+        } else {
+            return (T)Long.valueOf(decode(index));
+        }
+    }
+
+    @Override
+    public final boolean setBoolean(int index, boolean value) {
+        throw new ArrayException("This is a read only encoded Morpheus Array");
+    }
+
+    @Override
+    public final int setInt(int index, int value) {
+        throw new ArrayException("This is a read only encoded Morpheus Array");
+    }
+
+    @Override
+    public final long setLong(int index, long value) {
+        throw new ArrayException("This is a read only encoded Morpheus Array");
+    }
+
+    @Override
+    public final double setDouble(int index, double value) {
+        throw new ArrayException("This is a read only encoded Morpheus Array");
+    }
+
+    @Override
+    public final T setValue(int index, T value) {
+        throw new ArrayException("This is a read only encoded Morpheus Array");
+    }
+
+    @Override
+    public final void read(ObjectInputStream is, int count) throws IOException {
+        throw new ArrayException("This is a read only encoded Morpheus Array");
+    }
+
+    @Override
+    public final void write(ObjectOutputStream os, int[] indexes) throws IOException {
+        for (int index : indexes) {
+            if (typeCode() == ArrayType.INTEGER) {
+                os.writeInt((int)decode(index));
+            } else {
+                os.writeLong(decode(index));
+            }
+        }
+    }
+}
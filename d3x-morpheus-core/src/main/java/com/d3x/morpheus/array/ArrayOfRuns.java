@@ -0,0 +1,417 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.array;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+import com.d3x.morpheus.array.coding.WithIntCoding;
+import com.d3x.morpheus.array.coding.WithLongCoding;
+
+/**
+ * A read-only Array implementation that stores each run of identical values once, along with the index where the run ends.
+ *
+ * <p>This encoding suits columns with long runs of repeated values, such as status codes, currencies or constant
+ * parameters. Random access finds the run containing an index by binary search over the run end indexes, while
+ * sequential access first checks the run resolved by the previous call, so iterating in order is constant time
+ * per element. The run values are held in an array of the same type as the source, which preserves its nulls,
+ * codings and primitive accessors.</p>
+ *
+ * @param <T>   the array element type
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+class ArrayOfRuns<T> extends ArrayBase<T> {
+
+    private static final long serialVersionUID = 1L;
+
+    private int length;
+    private int[] ends;
+    private Array<T> values;
+    private T defaultValue;
+    private transient int run;
+
+    /**
+     * Constructor
+     * @param source    the source array to encode
+     * @param starts    the start index of each run in the source
+     */
+    private ArrayOfRuns(Array<T> source, int[] starts) {
+        super(source.type(), ArrayStyle.DENSE, false);
+        this.length = source.length();
+        this.defaultValue = source.defaultValue();
+        this.values = source.copy(starts);
+        this.ends = new int[starts.length];
+        for (int i=0; i<starts.length; ++i) {
+            this.ends[i] = i + 1 < starts.length ? starts[i+1] : length;
+        }
+    }
+
+    /**
+     * Constructor
+     * @param source    the source array to shallow copy
+     * @param parallel  true for the parallel version
+     */
+    private ArrayOfRuns(ArrayOfRuns<T> source, boolean parallel) {
+        super(source.type(), ArrayStyle.DENSE, parallel);
+        this.length = source.length;
+        this.ends = source.ends;
+        this.values = source.values;
+        this.defaultValue = source.defaultValue;
+    }
+
+    /**
+     * Returns a run length encoding of the source array, or null if it would not at least halve the size of the array
+     * @param source    the source array to encode
+     * @param <T>       the array element type
+     * @return          the run length encoded array, or null if the source does not have enough repeated values
+     */
+    static <T> ArrayOfRuns<T> of(Array<T> source) {
+        var length = source.length();
+        var bits = bitCount(source);
+        var maxRuns = (int)Math.min(Integer.MAX_VALUE, (long)length * bits / (2L * (32 + bits)));
+        if (length == 0 || maxRuns == 0) {
+            return null;
+        } else {
+            var count = 1;
+            var starts = new int[Math.min(maxRuns, 1024)];
+            for (int i=1; i<length; ++i) {
+                if (!isSame(source, i - 1, i)) {
+                    if (count == maxRuns) {
+                        return null;
+                    } else if (count == starts.length) {
+                        starts = Arrays.copyOf(starts, Math.min(maxRuns, count * 2));
+                    }
+                    starts[count++] = i;
+                }
+            }
+            return new ArrayOfRuns<>(source, Arrays.copyOf(starts, count));
+        }
+    }
+
+    /**
+     * Returns the number of bits used to store each value of the array in its natural representation
+     * @param array the array reference
+     * @return      the number of bits per value
+     */
+    static int bitCount(Array<?> array) {
+        switch (array.typeCode()) {
+            case BOOLEAN:   return 1;
+            case BYTE:      return 8;
+            case SHORT:     return 16;
+            case INTEGER:   return 32;
+            case FLOAT:     return 32;
+            default:        return array instanceof WithIntCoding ? 32 : 64;
+        }
+    }
+
+    /**
+     * Returns true if the values at the two indexes of the array are the same
+     * @param array the array reference
+     * @param i     the first index
+     * @param j     the second index
+     * @return      true if the values are the same, including when both are null
+     */
+    private static boolean isSame(Array<?> array, int i, int j) {
+        switch (array.typeCode()) {
+            case BOOLEAN:   return array.getBoolean(i) == array.getBoolean(j);
+            case BYTE:      return array.getInt(i) == array.getInt(j);
+            case SHORT:     return array.getInt(i) == array.getInt(j);
+            case INTEGER:   return array.getInt(i) == array.getInt(j) && array.isNull(i) == array.isNull(j);
+            case LONG:      return array.getLong(i) == array.getLong(j) && array.isNull(i) == array.isNull(j);
+            case FLOAT:     return Double.compare(array.getDouble(i), array.getDouble(j)) == 0;
+            case DOUBLE:    return Double.compare(array.getDouble(i), array.getDouble(j)) == 0;
+            default:
+                if (array instanceof WithIntCoding) {
+                    return array.getInt(i) == array.getInt(j);
+                } else if (array instanceof WithLongCoding) {
+                    return array.getLong(i) == array.getLong(j);
+                } else {
+                    return Objects.equals(array.getValue(i), array.getValue(j));
+                }
+        }
+    }
+
+    /**
+     * Returns the number of runs in this array
+     * @return  the number of runs
+     */
+    int runCount() {
+        return ends.length;
+    }
+
+    /**
+     * Returns the approximate size of this encoding in bits, including the run end indexes
+     * @return  the size of this encoding in bits
+     */
+    long sizeInBits() {
+        return (long)ends.length * (32 + bitCount(values));
+    }
+
+    /**
+     * Returns the index of the run that contains the array index specified
+     * @param index the array index
+     * @return      the run index
+     */
+    private int run(int index) {
+        if (index < 0 || index >= length) {
+            throw new ArrayIndexOutOfBoundsException("Array index out of bounds: " + index + ", length " + length);
+        } else {
+            var hint = run;
+            if (index < ends[hint] && (hint == 0 || index >= ends[hint-1])) {
+                return hint;
+            } else if (hint + 1 < ends.length && index >= ends[hint] && index < ends[hint+1]) {
+                this.run = hint + 1;
+                return hint + 1;
+            } else {
+                var match = Arrays.binarySearch(ends, index);
+                var result = match >= 0 ? match + 1 : -(match + 1);
+                this.run = result;
+                return result;
+            }
+        }
+    }
+
+    /**
+     * Returns the run indexes for the array indexes specified
+     * @param indexes   the array indexes
+     * @return          the corresponding run indexes
+     */
+    private int[] runs(int[] indexes) {
+        var runs = new int[indexes.length];
+        for (int i=0; i<indexes.length; ++i) {
+            runs[i] = run(indexes[i]);
+        }
+        return runs;
+    }
+
+    @Override
+    public final int length() {
+        return length;
+    }
+
+    @Override
+    public float loadFactor() {
+        return 1F;
+    }
+
+    @Override
+    public final T defaultValue() {
+        return defaultValue;
+    }
+
+    @Override
+    public final boolean isReadOnly() {
+        return true;
+    }
+
+    @Override
+    public final Array<T> readOnly() {
+        return this;
+    }
+
+    @Override
+    public final Array<T> encode() {
+        return this;
+    }
+
+    @Override
+    public final Array<T> parallel() {
+        return isParallel() ? this : new ArrayOfRuns<>(this, true);
+    }
+
+    @Override
+    public final Array<T> sequential() {
+        return isParallel() ? new ArrayOfRuns<>(this, false) : this;
+    }
+
+    @Override
+    public final Array<T> copy() {
+        var indexes = new int[length];
+        for (int i=0; i<length; ++i) {
+            indexes[i] = i;
+        }
+        return values.copy(runs(indexes)).readOnly();
+    }
+
+    @Override
+    public final Array<T> copy(int[] indexes) {
+        return values.copy(runs(indexes)).readOnly();
+    }
+
+    @Override
+    public Array<T> copy(Array<Integer> indexes) {
+        var runs = new int[indexes.length()];
+        for (int i=0; i<runs.length; ++i) {
+            runs[i] = run(indexes.getInt(i));
+        }
+        return values.copy(runs).readOnly();
+    }
+
+    @Override
+    public final Array<T> copy(int start, int end) {
+        var indexes = new int[end - start];
+        for (int i=0; i<indexes.length; ++i) {
+            indexes[i] = start + i;
+        }
+        return values.copy(runs(indexes)).readOnly();
+    }
+
+    @Override
+    public final Array<T> fill(T value) {
+        throw new ArrayException("This is a read only encoded Morpheus Array");
+    }
+
+    @Override
+    public final Array<T> fill(T value, int start, int end) {
+        throw new ArrayException("This is a read only encoded Morpheus Array");
+    }
+
+    @Override
+    public final Array<T> shuffle(int count) {
+        throw new ArrayException("This is a read only encoded Morpheus Array");
+    }
+
+    @Override
+    public final int compare(int i, int j) {
+        return values.compare(run(i), run(j));
+    }
+
+    @Override
+    public final Array<T> swap(int i, int j) {
+        throw new ArrayException("This is a read only encoded Morpheus Array");
+    }
+
+    @Override
+    public final Array<T> sort(boolean ascending) {
+        throw new ArrayException("This is a read only encoded Morpheus Array");
+    }
+
+    @Override
+    public final Array<T> sort(int start, int end, boolean ascending) {
+        throw new ArrayException("This is a read only encoded Morpheus Array");
+    }
+
+    @Override
+    public final Array<T> sort(int start, int end, Comparator<ArrayValue<T>> comparator) {
+        throw new ArrayException("This is a read only encoded Morpheus Array");
+    }
+
+    @Override
+    public final Array<T> filter(Predicate<ArrayValue<T>> predicate) {
+        var cursor = cursor();
+        var builder = ArrayBuilder.of(length, type());
+        for (int i=0; i<length; ++i) {
+            cursor.moveTo(i);
+            if (predicate.test(cursor)) {
+                builder.append(cursor.getValue());
+            }
+        }
+        return builder.toArray();
+    }
+
+    @Override
+    public final Array<T> expand(int newLength) {
+        throw new ArrayException("This is a read only encoded Morpheus Array");
+    }
+
+    @Override
+    public final Array<T> update(Array<T> from, int[] fromIndexes, int[] toIndexes) {
+        throw new ArrayException("This is a read only encoded Morpheus Array");
+    }
+
+    @Override
+    public final Array<T> update(int toIndex, Array<T> from, int fromIndex, int length) {
+        throw new ArrayException("This is a read only encoded Morpheus Array");
+    }
+
+    @Override
+    public final boolean isNull(int index) {
+        return values.isNull(run(index));
+    }
+
+    @Override
+    public final boolean isEqualTo(int index, T value) {
+        return values.isEqualTo(run(index), value);
+    }
+
+    @Override
+    public final boolean getBoolean(int index) {
+        return values.getBoolean(run(index));
+    }
+
+    @Override
+    public final int getInt(int index) {
+        return values.getInt(run(index));
+    }
+
+    @Override
+    public final long getLong(int index) {
+        return values.getLong(run(index));
+    }
+
+    @Override
+    public final double getDouble(int index) {
+        return values.getDouble(run(index));
+    }
+
+    @Override
+    public final T getValue(int index) {
+        return values.getValue(run(index));
+    }
+
+    @Override
+    public final boolean setBoolean(int index, boolean value) {
+        throw new ArrayException("This is a read only encoded Morpheus Array");
+    }
+
+    @Override
+    public final int setInt(int index, int value) {
+        throw new ArrayException("This is a read only encoded Morpheus Array");
+    }
+
+    @Override
+    public final long setLong(int index, long value) {
+        throw new ArrayException("This is a read only encoded Morpheus Array");
+    }
+
+    @Override
+    public final double setDouble(int index, double value) {
+        throw new ArrayException("This is a read only encoded Morpheus Array");
+    }
+
+    @Override
+    public final T setValue(int index, T value) {
+        throw new ArrayException("This is a read only encoded Morpheus Array");
+    }
+
+    @Override
+    public final void read(ObjectInputStream is, int count) throws IOException {
+        throw new ArrayException("This is a read only encoded Morpheus Array");
+    }
+
+    @Override
+    public final void write(ObjectOutputStream os, int[] indexes) throws IOException {
+        this.values.write(os, runs(indexes));
+    }
+}
@@ -19,6 +19,7 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.util.Comparator;
+import java.util.function.IntConsumer;
 import java.util.function.Predicate;
 
 /**
@@ -80,6 +81,17 @@ class ArrayReadOnly<T> extends ArrayBase<T> {
         return this;
     }
 
+    @Override
+    public final Array<T> forEachNonDefault(IntConsumer consumer) {
+        this.source.forEachNonDefault(consumer);
+        return this;
+    }
+
+    @Override
+    public final Array<T> encode() {
+        return source.encode();
+    }
+
     @Override
     public final Array<T> copy() {
         return source.copy().readOnly();
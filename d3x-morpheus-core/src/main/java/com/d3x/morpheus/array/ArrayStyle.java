@@ -76,7 +76,10 @@ public enum ArrayStyle {
                     ArrayType.LOCAL_DATE,
                     ArrayType.LOCAL_TIME,
                     ArrayType.LOCAL_DATETIME,
-                    ArrayType.ZONED_DATETIME
+                    ArrayType.ZONED_DATETIME,
+                    ArrayType.FLOAT,
+                    ArrayType.SHORT,
+                    ArrayType.BYTE
             };
             default:
                 throw new IllegalArgumentException("Unsupported style: " + this);
@@ -53,9 +53,15 @@ public enum ArrayType {
     LOCAL_DATE,
     LOCAL_TIME,
     LOCAL_DATETIME,
-    ZONED_DATETIME;
+    ZONED_DATETIME,
+    FLOAT,
+    SHORT,
+    BYTE;
 
     private static final Integer DEFAULT_INT = 0;
+    private static final Float DEFAULT_FLOAT = Float.NaN;
+    private static final Short DEFAULT_SHORT = 0;
+    private static final Byte DEFAULT_BYTE = 0;
     private static final Long DEFAULT_LONG = 0L;
     private static final Double DEFAULT_DOUBLE = Double.NaN;
     private static final Map<Class<?>,ArrayType> typeMap = new HashMap<>();
@@ -69,10 +75,16 @@ public enum ArrayType {
             typeMap.put(int.class, INTEGER);
             typeMap.put(long.class, LONG);
             typeMap.put(double.class, DOUBLE);
+            typeMap.put(float.class, FLOAT);
+            typeMap.put(short.class, SHORT);
+            typeMap.put(byte.class, BYTE);
             typeMap.put(Boolean.class, BOOLEAN);
             typeMap.put(Integer.class, INTEGER);
             typeMap.put(Long.class, LONG);
             typeMap.put(Double.class, DOUBLE);
+            typeMap.put(Float.class, FLOAT);
+            typeMap.put(Short.class, SHORT);
+            typeMap.put(Byte.class, BYTE);
             typeMap.put(Date.class, DATE);
             typeMap.put(Instant.class, INSTANT);
             typeMap.put(String.class, STRING);
@@ -104,6 +116,9 @@ public enum ArrayType {
             case INTEGER:           return (T)DEFAULT_INT;
             case LONG:              return (T)DEFAULT_LONG;
             case DOUBLE:            return (T)DEFAULT_DOUBLE;
+            case FLOAT:             return (T)DEFAULT_FLOAT;
+            case SHORT:             return (T)DEFAULT_SHORT;
+            case BYTE:              return (T)DEFAULT_BYTE;
             default:                return null;
         }
     }
@@ -126,10 +141,21 @@ public enum ArrayType {
             case INTEGER:   return true;
             case LONG:      return true;
             case DOUBLE:    return true;
+            case FLOAT:     return true;
+            case SHORT:     return true;
+            case BYTE:      return true;
             default:        return false;
         }
     }
 
+    /**
+     * Returns true if this is a reduced precision type, which is stored in fewer bytes than its widened equivalent
+     * @return  true if FLOAT, SHORT or BYTE
+     */
+    public boolean isCompact() {
+        return this == FLOAT || this == SHORT || this == BYTE;
+    }
+
     /**
      * Retruns true if this is a BOOLEAN
      * @return  true if BOOLEAN
@@ -162,6 +188,30 @@ public enum ArrayType {
         return this == DOUBLE;
     }
 
+    /**
+     * Returns true if this is a FLOAT
+     * @return  true if FLOAT
+     */
+    public boolean isFloat() {
+        return this == FLOAT;
+    }
+
+    /**
+     * Returns true if this is a SHORT
+     * @return  true if SHORT
+     */
+    public boolean isShort() {
+        return this == SHORT;
+    }
+
+    /**
+     * Returns true if this is a BYTE
+     * @return  true if BYTE
+     */
+    public boolean isByte() {
+        return this == BYTE;
+    }
+
     /**
      * Returns true if this is a STRING
      * @return  true if STRING
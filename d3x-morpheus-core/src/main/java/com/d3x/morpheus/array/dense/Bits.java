@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.array.dense;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * A utility class that operates on bits packed 64 to a long word, used for boolean values and null bitmaps.
+ *
+ * <p>Neighbouring bits share a word, so single bits are written with an atomic bitwise update to ensure that parallel
+ * writers to different indexes cannot overwrite each other. Range operations are not atomic, consistent with the
+ * other bulk operations on arrays. Bits beyond the logical length are expected to be clear.</p>
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+final class Bits {
+
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    /**
+     * Private constructor
+     */
+    private Bits() {
+        super();
+    }
+
+
+    /**
+     * Returns the number of words required to hold the number of bits specified
+     * @param length    the number of bits
+     * @return          the number of 64-bit words
+     */
+    static int wordCount(int length) {
+        return (length + 63) >>> 6;
+    }
+
+
+    /**
+     * Returns the value of the bit at the index specified
+     * @param words     the packed words
+     * @param index     the bit index
+     * @return          true if the bit is set
+     */
+    static boolean get(long[] words, int index) {
+        return (words[index >>> 6] & (1L << index)) != 0L;
+    }
+
+
+    /**
+     * Atomically sets or clears the bit at the index specified
+     * @param words     the packed words
+     * @param index     the bit index
+     * @param value     true to set the bit, false to clear it
+     * @return          the prior value of the bit
+     */
+    static boolean set(long[] words, int index, boolean value) {
+        final long mask = 1L << index;
+        if (value) {
+            final long oldWord = (long)WORDS.getAndBitwiseOr(words, index >>> 6, mask);
+            return (oldWord & mask) != 0L;
+        } else {
+            final long oldWord = (long)WORDS.getAndBitwiseAnd(words, index >>> 6, ~mask);
+            return (oldWord & mask) != 0L;
+        }
+    }
+
+
+    /**
+     * Sets or clears all bits in the range specified
+     * @param words     the packed words
+     * @param start     the start bit, inclusive
+     * @param end       the end bit, exclusive
+     * @param value     true to set bits, false to clear them
+     */
+    static void fill(long[] words, int start, int end, boolean value) {
+        if (start < end) {
+            final int first = start >>> 6;
+            final int last = (end - 1) >>> 6;
+            for (int i = first; i <= last; ++i) {
+                long mask = -1L;
+                if (i == first) mask &= -1L << start;
+                if (i == last) mask &= -1L >>> -end;
+                words[i] = value ? words[i] | mask : words[i] & ~mask;
+            }
+        }
+    }
+
+
+    /**
+     * Returns the number of set bits in the range specified
+     * @param words     the packed words
+     * @param start     the start bit, inclusive
+     * @param end       the end bit, exclusive
+     * @return          the number of set bits
+     */
+    static int count(long[] words, int start, int end) {
+        int count = 0;
+        if (start < end) {
+            final int first = start >>> 6;
+            final int last = (end - 1) >>> 6;
+            for (int i = first; i <= last; ++i) {
+                long word = words[i];
+                if (i == first) word &= -1L << start;
+                if (i == last) word &= -1L >>> -end;
+                count += Long.bitCount(word);
+            }
+        }
+        return count;
+    }
+
+
+    /**
+     * Returns a copy of the bits in the range specified, shifted to start at bit zero
+     * @param words     the packed words
+     * @param start     the start bit, inclusive
+     * @param end       the end bit, exclusive
+     * @return          the newly created words
+     */
+    static long[] copy(long[] words, int start, int end) {
+        final int length = end - start;
+        final long[] result = new long[wordCount(length)];
+        final int offset = start >>> 6;
+        final int shift = start & 63;
+        for (int i = 0; i < result.length; ++i) {
+            final long low = words[offset + i] >>> shift;
+            final long high = shift > 0 && offset + i + 1 < words.length ? words[offset + i + 1] << (64 - shift) : 0L;
+            result[i] = low | high;
+        }
+        if (length > 0) {
+            result[result.length - 1] &= -1L >>> -length;
+        }
+        return result;
+    }
+
+
+    /**
+     * Returns a copy of the bits at the indexes specified
+     * @param words     the packed words
+     * @param indexes   the bit indexes to copy, in order
+     * @return          the newly created words
+     */
+    static long[] copy(long[] words, int[] indexes) {
+        final long[] result = new long[wordCount(indexes.length)];
+        for (int i = 0; i < indexes.length; ++i) {
+            if (get(words, indexes[i])) {
+                result[i >>> 6] |= 1L << i;
+            }
+        }
+        return result;
+    }
+
+
+    /**
+     * Returns a copy of the words resized to hold the number of bits specified, clearing any bits beyond the length
+     * @param words     the packed words
+     * @param length    the new number of bits
+     * @return          the newly created words
+     */
+    static long[] resize(long[] words, int length) {
+        final long[] result = Arrays.copyOf(words, wordCount(length));
+        if ((length & 63) != 0 && result.length > 0) {
+            result[result.length - 1] &= -1L >>> -length;
+        }
+        return result;
+    }
+}
@@ -86,6 +86,9 @@ public class DenseArrayConstructor implements ArrayFactory.Constructor {
                 case INTEGER:           return (Array<T>)new DenseArrayOfInts(length, (Integer)defaultValue);
                 case LONG:              return (Array<T>)new DenseArrayOfLongs(length, (Long)defaultValue);
                 case DOUBLE:            return (Array<T>)new DenseArrayOfDoubles(length, (Double)defaultValue);
+                case FLOAT:             return (Array<T>)new DenseArrayOfFloats(length, (Float)defaultValue);
+                case SHORT:             return (Array<T>)new DenseArrayOfShorts(length, (Short)defaultValue);
+                case BYTE:              return (Array<T>)new DenseArrayOfBytes(length, (Byte)defaultValue);
                 case CURRENCY:          return (Array<T>)new DenseArrayWithIntCoding<>(length, (Currency)defaultValue, currencyCoding);
                 case YEAR:              return (Array<T>)new DenseArrayWithIntCoding<>(length, (Year)defaultValue, yearCoding);
                 case ZONE_ID:           return (Array<T>)new DenseArrayWithIntCoding<>(length, (ZoneId)defaultValue, zoneIdCoding);
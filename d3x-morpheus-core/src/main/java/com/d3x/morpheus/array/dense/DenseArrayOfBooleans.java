@@ -18,7 +18,6 @@ package com.d3x.morpheus.array.dense;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
-import java.util.Arrays;
 import java.util.function.Predicate;
 
 import com.d3x.morpheus.array.ArrayBuilder;
@@ -28,20 +27,24 @@ import com.d3x.morpheus.array.Array;
 import com.d3x.morpheus.array.ArrayBase;
 import com.d3x.morpheus.array.ArrayStyle;
 import com.d3x.morpheus.array.ArrayValue;
-import org.eclipse.collections.impl.factory.primitive.ShortSets;
 
 /**
  * An Array implementation designed to hold a dense array of boolean values
  *
+ * <p>Values are packed 64 to a long word rather than one per byte in a boolean[], which makes large masks 8 times
+ * smaller, and allows logical operations and counts to be performed a word at a time. Single values are written with an
+ * atomic bitwise update, so parallel writers to neighbouring indexes remain safe.</p>
+ *
  * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
  *
  * @author  Xavier Witdouck
  */
 class DenseArrayOfBooleans extends ArrayBase<Boolean> {
 
-    private static final long serialVersionUID = 1L;
+    private static final long serialVersionUID = 2L;
 
-    private boolean[] values;
+    private long[] words;
+    private int length;
     private boolean defaultValue;
 
     /**
@@ -51,9 +54,25 @@ class DenseArrayOfBooleans extends ArrayBase<Boolean> {
      */
     DenseArrayOfBooleans(int length, Boolean defaultValue) {
         super(Boolean.class, ArrayStyle.DENSE, false);
-        this.values = new boolean[length];
+        this.words = new long[Bits.wordCount(length)];
+        this.length = length;
         this.defaultValue = defaultValue != null ? defaultValue : false;
-        Arrays.fill(values, this.defaultValue);
+        if (this.defaultValue) {
+            Bits.fill(words, 0, length, true);
+        }
+    }
+
+    /**
+     * Constructor
+     * @param words         the packed words for this array
+     * @param length        the length for this array
+     * @param defaultValue  the default value for array
+     */
+    private DenseArrayOfBooleans(long[] words, int length, boolean defaultValue) {
+        super(Boolean.class, ArrayStyle.DENSE, false);
+        this.words = words;
+        this.length = length;
+        this.defaultValue = defaultValue;
     }
 
     /**
@@ -63,14 +82,15 @@ class DenseArrayOfBooleans extends ArrayBase<Boolean> {
      */
     private DenseArrayOfBooleans(DenseArrayOfBooleans source, boolean parallel) {
         super(source.type(), ArrayStyle.DENSE, parallel);
-        this.values = source.values;
+        this.words = source.words;
+        this.length = source.length;
         this.defaultValue = source.defaultValue;
     }
 
 
     @Override
     public final int length() {
-        return values.length;
+        return length;
     }
 
 
@@ -103,7 +123,8 @@ class DenseArrayOfBooleans extends ArrayBase<Boolean> {
         try {
             final DenseArrayOfBooleans copy = (DenseArrayOfBooleans)super.clone();
             copy.defaultValue = this.defaultValue;
-            copy.values = this.values.clone();
+            copy.length = this.length;
+            copy.words = this.words.clone();
             return copy;
         } catch (Exception ex) {
             throw new ArrayException("Failed to copy Array: " + this, ex);
@@ -113,51 +134,62 @@ class DenseArrayOfBooleans extends ArrayBase<Boolean> {
 
     @Override()
     public final Array<Boolean> copy(int[] indexes) {
-        var clone = new DenseArrayOfBooleans(indexes.length, defaultValue);
-        for (int i = 0; i < indexes.length; ++i) {
-            clone.values[i] = this.values[indexes[i]];
+        for (int index : indexes) {
+            this.checkIndex(index);
         }
-        return clone;
+        return new DenseArrayOfBooleans(Bits.copy(words, indexes), indexes.length, defaultValue);
     }
 
 
     @Override
     public Array<Boolean> copy(Array<Integer> indexes) {
-        var clone = new DenseArrayOfBooleans(indexes.length(), defaultValue);
+        final long[] result = new long[Bits.wordCount(indexes.length())];
         for (int i = 0; i < indexes.length(); ++i) {
-            clone.values[i] = this.values[indexes.getInt(i)];
+            if (getBoolean(indexes.getInt(i))) {
+                result[i >>> 6] |= 1L << i;
+            }
         }
-        return clone;
+        return new DenseArrayOfBooleans(result, indexes.length(), defaultValue);
     }
 
 
     @Override()
     public final Array<Boolean> copy(int start, int end) {
-        var length = end - start;
-        final DenseArrayOfBooleans clone = new DenseArrayOfBooleans(length, defaultValue);
-        System.arraycopy(values, start, clone.values, 0, length);
-        return clone;
+        final int length = end - start;
+        if (start < 0 || end > this.length || length < 0) {
+            throw new ArrayIndexOutOfBoundsException("Array range out of bounds: " + start + " to " + end + ", length: " + this.length);
+        } else {
+            return new DenseArrayOfBooleans(Bits.copy(words, start, end), length, defaultValue);
+        }
     }
 
 
     @Override
     protected final Array<Boolean> sort(int start, int end, int multiplier) {
-        return doSort(start, end, (i, j) -> multiplier * Boolean.compare(values[i], values[j]));
+        final int trueCount = Bits.count(words, start, end);
+        if (multiplier > 0) {
+            Bits.fill(words, start, end - trueCount, false);
+            Bits.fill(words, end - trueCount, end, true);
+        } else {
+            Bits.fill(words, start, start + trueCount, true);
+            Bits.fill(words, start + trueCount, end, false);
+        }
+        return this;
     }
 
 
     @Override
     public final int compare(int i, int j) {
-        return Boolean.compare(values[i], values[j]);
+        return Boolean.compare(getBoolean(i), getBoolean(j));
     }
 
 
     @Override
     public final Array<Boolean> swap(int i, int j) {
-        final boolean v1 = values[i];
-        final boolean v2 = values[j];
-        this.values[i] = v2;
-        this.values[j] = v1;
+        final boolean v1 = getBoolean(i);
+        final boolean v2 = getBoolean(j);
+        this.setBoolean(i, v2);
+        this.setBoolean(j, v1);
         return this;
     }
 
@@ -166,7 +198,7 @@ class DenseArrayOfBooleans extends ArrayBase<Boolean> {
     public final Array<Boolean> filter(Predicate<ArrayValue<Boolean>> predicate) {
         final ArrayCursor<Boolean> cursor = cursor();
         final ArrayBuilder<Boolean> builder = ArrayBuilder.of(length(), type());
-        for (int i=0; i<values.length; ++i) {
+        for (int i=0; i<length; ++i) {
             cursor.moveTo(i);
             final boolean match = predicate.test(cursor);
             if (match) {
@@ -205,11 +237,12 @@ class DenseArrayOfBooleans extends ArrayBase<Boolean> {
 
     @Override
     public final Array<Boolean> expand(int newLength) {
-        if (newLength > values.length) {
-            final boolean[] newValues = new boolean[newLength];
-            System.arraycopy(values, 0, newValues, 0, values.length);
-            Arrays.fill(newValues, values.length, newValues.length, defaultValue);
-            this.values = newValues;
+        if (newLength > length) {
+            this.words = Bits.resize(words, newLength);
+            if (defaultValue) {
+                Bits.fill(words, length, newLength, true);
+            }
+            this.length = newLength;
         }
         return this;
     }
@@ -217,7 +250,7 @@ class DenseArrayOfBooleans extends ArrayBase<Boolean> {
 
     @Override
     public Array<Boolean> fill(Boolean value, int start, int end) {
-        Arrays.fill(values, start, end, value == null ? defaultValue : value);
+        Bits.fill(words, start, end, value == null ? defaultValue : value);
         return this;
     }
 
@@ -230,40 +263,31 @@ class DenseArrayOfBooleans extends ArrayBase<Boolean> {
 
     @Override
     public final boolean isEqualTo(int index, Boolean value) {
-        return value != null && values[index] == value;
+        return value != null && getBoolean(index) == value;
     }
 
 
     @Override
     public final boolean getBoolean(int index) {
-        return values[index];
+        return Bits.get(words, checkIndex(index));
     }
 
 
     @Override
     public final Boolean getValue(int index) {
-        return values[index] ? Boolean.TRUE : Boolean.FALSE;
+        return getBoolean(index) ? Boolean.TRUE : Boolean.FALSE;
     }
 
 
     @Override
     public final boolean setBoolean(int index, boolean value) {
-        final boolean oldValue = values[index];
-        this.values[index] = value;
-        return oldValue;
+        return Bits.set(words, checkIndex(index), value);
     }
 
 
     @Override
     public final Boolean setValue(int index, Boolean value) {
-        final boolean oldValue = values[index];
-        if (value == null) {
-            this.values[index] = defaultValue;
-            return oldValue;
-        } else {
-            this.values[index] = value;
-            return oldValue;
-        }
+        return setBoolean(index, value == null ? defaultValue : value);
     }
 
 
@@ -289,40 +313,104 @@ class DenseArrayOfBooleans extends ArrayBase<Boolean> {
 
     @Override
     public Array<Boolean> distinct(int limit) {
-        var set = ShortSets.mutable.withInitialCapacity(limit);
-        var builder = ArrayBuilder.of(2, Boolean.class);
-        for (int i=0; i<length(); ++i) {
-            final boolean value = getBoolean(i);
-            if (set.add(value ? (short)1 : (short)0)) {
-                builder.appendBoolean(value);
-                if (set.size() >= limit) {
-                    break;
-                }
+        final ArrayBuilder<Boolean> builder = ArrayBuilder.of(2, Boolean.class);
+        if (length > 0 && limit > 0) {
+            final int trueCount = Bits.count(words, 0, length);
+            final boolean first = getBoolean(0);
+            builder.appendBoolean(first);
+            if (limit > 1 && trueCount > 0 && trueCount < length) {
+                builder.appendBoolean(!first);
             }
         }
         return builder.toArray();
     }
 
 
+    @Override()
+    public final Array<Boolean> and(Array<Boolean> other) {
+        if (other instanceof DenseArrayOfBooleans) {
+            this.checkLogical(other);
+            final long[] result = words.clone();
+            final long[] operand = ((DenseArrayOfBooleans)other).words;
+            for (int i = 0; i < result.length; ++i) {
+                result[i] &= operand[i];
+            }
+            return new DenseArrayOfBooleans(result, length, defaultValue);
+        } else {
+            return super.and(other);
+        }
+    }
+
+
+    @Override()
+    public final Array<Boolean> or(Array<Boolean> other) {
+        if (other instanceof DenseArrayOfBooleans) {
+            this.checkLogical(other);
+            final long[] result = words.clone();
+            final long[] operand = ((DenseArrayOfBooleans)other).words;
+            for (int i = 0; i < result.length; ++i) {
+                result[i] |= operand[i];
+            }
+            return new DenseArrayOfBooleans(result, length, defaultValue);
+        } else {
+            return super.or(other);
+        }
+    }
+
+
+    @Override()
+    public final Array<Boolean> not() {
+        final long[] result = new long[words.length];
+        for (int i = 0; i < result.length; ++i) {
+            result[i] = ~words[i];
+        }
+        if (length > 0) {
+            result[result.length - 1] &= -1L >>> -length;
+        }
+        return new DenseArrayOfBooleans(result, length, defaultValue);
+    }
+
+
+    @Override()
+    public final int countTrue() {
+        return Bits.count(words, 0, length);
+    }
+
+
+    /**
+     * Checks that the index is within the bounds of this array, as the backing words may have spare capacity
+     * @param index     the index to check
+     * @return          the same index
+     */
+    private int checkIndex(int index) {
+        if (index < 0 || index >= length) {
+            throw new ArrayIndexOutOfBoundsException("Array index out of range: " + index + ", length: " + length);
+        } else {
+            return index;
+        }
+    }
+
+
     @Override
     public final void read(ObjectInputStream is, int count) throws IOException {
         for (int i=0; i<count; ++i) {
-            this.values[i] = is.readBoolean();
+            this.setBoolean(i, is.readBoolean());
         }
     }
 
     @Override
     public final void write(ObjectOutputStream os, int[] indexes) throws IOException {
         for (int index : indexes) {
-            os.writeBoolean(values[index]);
+            os.writeBoolean(getBoolean(index));
         }
     }
 
     /** Custom serialization */
     private void writeObject(ObjectOutputStream os) throws IOException {
-        os.writeInt(values.length);
-        for (boolean value : values) {
-            os.writeBoolean(value);
+        os.writeInt(length);
+        os.writeBoolean(defaultValue);
+        for (long word : words) {
+            os.writeLong(word);
         }
     }
 
@@ -330,10 +418,11 @@ class DenseArrayOfBooleans extends ArrayBase<Boolean> {
     @SuppressWarnings("unchecked")
     /** Custom serialization */
     private void readObject(ObjectInputStream is) throws IOException, ClassNotFoundException {
-        var length = is.readInt();
-        this.values = new boolean[length];
-        for (int i=0; i<length; ++i) {
-            values[i] = is.readBoolean();
+        this.length = is.readInt();
+        this.defaultValue = is.readBoolean();
+        this.words = new long[Bits.wordCount(length)];
+        for (int i=0; i<words.length; ++i) {
+            words[i] = is.readLong();
         }
     }
 
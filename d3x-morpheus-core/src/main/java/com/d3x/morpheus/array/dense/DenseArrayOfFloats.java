@@ -0,0 +1,353 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.array.dense;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+import com.d3x.morpheus.array.ArrayBuilder;
+import com.d3x.morpheus.array.ArrayException;
+import com.d3x.morpheus.array.Array;
+import com.d3x.morpheus.array.ArrayBase;
+import com.d3x.morpheus.array.ArrayStyle;
+import com.d3x.morpheus.array.ArrayValue;
+import org.eclipse.collections.impl.factory.primitive.FloatSets;
+
+/**
+ * An Array implementation designed to hold a dense array of float values
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+class DenseArrayOfFloats extends ArrayBase<Float> {
+
+    private static final long serialVersionUID = 1L;
+
+    private float[] values;
+    private final float defaultValue;
+
+    /**
+     * Constructor
+     * @param length        the length for this array
+     * @param defaultValue  the default value for array
+     */
+    DenseArrayOfFloats(int length, Float defaultValue) {
+        super(Float.class, ArrayStyle.DENSE, false);
+        this.values = new float[length];
+        this.defaultValue = defaultValue != null ? defaultValue : Float.NaN;
+        Arrays.fill(values, this.defaultValue);
+    }
+
+    /**
+     * Constructor
+     * @param source    the source array to shallow copy
+     * @param parallel  true for parallel version
+     */
+    private DenseArrayOfFloats(DenseArrayOfFloats source, boolean parallel) {
+        super(source.type(), ArrayStyle.DENSE, parallel);
+        this.values = source.values;
+        this.defaultValue = source.defaultValue;
+    }
+
+
+    @Override
+    public final int length() {
+        return values.length;
+    }
+
+
+    @Override
+    public float loadFactor() {
+        return 1F;
+    }
+
+
+    @Override
+    public final Float defaultValue() {
+        return defaultValue;
+    }
+
+
+    @Override
+    public final Array<Float> parallel() {
+        return isParallel() ? this : new DenseArrayOfFloats(this, true);
+    }
+
+
+    @Override
+    public final Array<Float> sequential() {
+        return isParallel() ? new DenseArrayOfFloats(this, false) : this;
+    }
+
+
+    @Override()
+    public final Array<Float> copy() {
+        try {
+            final DenseArrayOfFloats copy = (DenseArrayOfFloats)super.clone();
+            copy.values = this.values.clone();
+            return copy;
+        } catch (Exception ex) {
+            throw new ArrayException("Failed to copy Array: " + this, ex);
+        }
+    }
+
+
+    @Override()
+    public final Array<Float> copy(int[] indexes) {
+        var clone = new DenseArrayOfFloats(indexes.length, defaultValue);
+        for (int i = 0; i < indexes.length; ++i) {
+            clone.values[i] = this.values[indexes[i]];
+        }
+        return clone;
+    }
+
+
+    @Override
+    public Array<Float> copy(Array<Integer> indexes) {
+        var clone = new DenseArrayOfFloats(indexes.length(), defaultValue);
+        for (int i = 0; i < indexes.length(); ++i) {
+            clone.values[i] = this.values[indexes.getInt(i)];
+        }
+        return clone;
+    }
+
+
+    @Override()
+    public final Array<Float> copy(int start, int end) {
+        var length = end - start;
+        final DenseArrayOfFloats clone = new DenseArrayOfFloats(length, defaultValue);
+        System.arraycopy(values, start, clone.values, 0, length);
+        return clone;
+    }
+
+
+    @Override
+    protected final Array<Float> sort(int start, int end, int multiplier) {
+        return doSort(start, end, (i, j) -> multiplier * Float.compare(values[i], values[j]));
+    }
+
+
+    @Override
+    public final int compare(int i, int j) {
+        return Float.compare(values[i], values[j]);
+    }
+
+
+    @Override
+    public final Array<Float> swap(int i, int j) {
+        var v1 = values[i];
+        var v2 = values[j];
+        this.values[i] = v2;
+        this.values[j] = v1;
+        return this;
+    }
+
+
+    @Override
+    public final Array<Float> filter(Predicate<ArrayValue<Float>> predicate) {
+        var cursor = cursor();
+        var builder = ArrayBuilder.of(length(), type());
+        for (int i=0; i<values.length; ++i) {
+            cursor.moveTo(i);
+            var match = predicate.test(cursor);
+            if (match) {
+                builder.append(values[i]);
+            }
+        }
+        return builder.toArray();
+    }
+
+
+    @Override
+    public final Array<Float> update(Array<Float> from, int[] fromIndexes, int[] toIndexes) {
+        if (fromIndexes.length != toIndexes.length) {
+            throw new ArrayException("The from index array must have the same length as the to index array");
+        } else {
+            for (int i=0; i<fromIndexes.length; ++i) {
+                final int toIndex = toIndexes[i];
+                final int fromIndex = fromIndexes[i];
+                var update = from.getDouble(fromIndex);
+                this.setDouble(toIndex, update);
+            }
+        }
+        return this;
+    }
+
+
+    @Override
+    public final Array<Float> update(int toIndex, Array<Float> from, int fromIndex, int length) {
+        for (int i=0; i<length; ++i) {
+            var update = from.getDouble(fromIndex + i);
+            this.setDouble(toIndex + i, update);
+        }
+        return this;
+    }
+
+
+    @Override
+    public final Array<Float> expand(int newLength) {
+        if (newLength > values.length) {
+            var newValues = new float[newLength];
+            System.arraycopy(values, 0, newValues, 0, values.length);
+            Arrays.fill(newValues, values.length, newValues.length, defaultValue);
+            this.values = newValues;
+        }
+        return this;
+    }
+
+
+    @Override
+    public final Array<Float> fill(Float value, int start, int end) {
+        Arrays.fill(values, start, end, value == null ? defaultValue : value);
+        return this;
+    }
+
+
+    @Override
+    public final boolean isNull(int index) {
+        return Float.isNaN(values[index]);
+    }
+
+
+    @Override
+    public final boolean isEqualTo(int index, Float value) {
+        return value == null || Float.isNaN(value) ? Float.isNaN(values[index]) : values[index] == value;
+    }
+
+
+    @Override
+    public int getInt(int index) {
+        return (int)values[index];
+    }
+
+
+    @Override
+    public long getLong(int index) {
+        return (long)values[index];
+    }
+
+
+    @Override
+    public final double getDouble(int index) {
+        return values[index];
+    }
+
+
+    @Override
+    public final Float getValue(int index) {
+        return values[index];
+    }
+
+
+    @Override
+    public final double setDouble(int index, double value) {
+        var oldValue = values[index];
+        this.values[index] = (float)value;
+        return oldValue;
+    }
+
+
+    @Override
+    public final Float setValue(int index, Float value) {
+        var oldValue = getValue(index);
+        this.values[index] = value != null ? value : Float.NaN;
+        return oldValue;
+    }
+
+
+    @Override
+    public final int binarySearch(int start, int end, Float value) {
+        return Arrays.binarySearch(values, start, end, value);
+    }
+
+
+    @Override
+    public final Array<Float> distinct(int limit) {
+        var capacity = limit < Integer.MAX_VALUE ? limit : 100;
+        var set = FloatSets.mutable.withInitialCapacity(capacity);
+        var builder = ArrayBuilder.of(capacity, Float.class);
+        for (int i=0; i<length(); ++i) {
+            var value = values[i];
+            if (set.add(value)) {
+                builder.append(value);
+                if (set.size() >= limit) {
+                    break;
+                }
+            }
+        }
+        return builder.toArray();
+    }
+
+
+    @Override
+    public final Array<Float> cumSum() {
+        var length = length();
+        final Array<Float> result = Array.of(Float.class, length);
+        result.setDouble(0, values[0]);
+        for (int i=1; i<length; ++i) {
+            var prior = result.getDouble(i-1);
+            var current = values[i];
+            if (Double.isNaN(prior)) {
+                result.setDouble(i, current);
+            } else if (Float.isNaN(current)) {
+                result.setDouble(i, prior);
+            } else {
+                result.setDouble(i, prior + current);
+            }
+        }
+        return result;
+    }
+
+
+    @Override
+    public final void read(ObjectInputStream is, int count) throws IOException {
+        for (int i=0; i<count; ++i) {
+            this.values[i] = is.readFloat();
+        }
+    }
+
+
+    @Override
+    public final void write(ObjectOutputStream os, int[] indexes) throws IOException {
+        for (int index : indexes) {
+            os.writeFloat(values[index]);
+        }
+    }
+
+    /** Custom serialization */
+    private void writeObject(ObjectOutputStream os) throws IOException {
+        os.writeInt(values.length);
+        for (float value : values) {
+            os.writeFloat(value);
+        }
+    }
+
+
+    @SuppressWarnings("unchecked")
+    /** Custom serialization */
+    private void readObject(ObjectInputStream is) throws IOException, ClassNotFoundException {
+        var length = is.readInt();
+        this.values = new float[length];
+        for (int i=0; i<length; ++i) {
+            values[i] = is.readFloat();
+        }
+    }
+
+}
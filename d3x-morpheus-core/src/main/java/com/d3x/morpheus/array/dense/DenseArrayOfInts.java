@@ -33,16 +33,21 @@ import org.eclipse.collections.impl.factory.primitive.IntSets;
 /**
  * An Array implementation designed to hold a dense array of int values
  *
+ * <p>Missing values are recorded in a validity bitmap with one bit per entry, so that a column with gaps can remain
+ * a primitive column rather than falling back to an array of boxed objects. The bitmap is only allocated once a null
+ * is assigned, and a null entry holds the default value for the purpose of primitive access.</p>
+ *
  * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
  *
  * @author  Xavier Witdouck
  */
 class DenseArrayOfInts extends ArrayBase<Integer> {
 
-    private static final long serialVersionUID = 1L;
+    private static final long serialVersionUID = 2L;
 
     private int[] values;
     private int defaultValue;
+    private long[] nulls;
 
     /**
      * Constructor
@@ -65,6 +70,7 @@ class DenseArrayOfInts extends ArrayBase<Integer> {
         super(source.type(), ArrayStyle.DENSE, parallel);
         this.values = source.values;
         this.defaultValue = source.defaultValue;
+        this.nulls = source.nulls;
     }
 
 
@@ -104,6 +110,7 @@ class DenseArrayOfInts extends ArrayBase<Integer> {
             final DenseArrayOfInts copy = (DenseArrayOfInts)super.clone();
             copy.defaultValue = this.defaultValue;
             copy.values = this.values.clone();
+            copy.nulls = this.nulls != null ? this.nulls.clone() : null;
             return copy;
         } catch (Exception ex) {
             throw new ArrayException("Failed to copy Array: " + this, ex);
@@ -117,6 +124,9 @@ class DenseArrayOfInts extends ArrayBase<Integer> {
         for (int i = 0; i < indexes.length; ++i) {
             clone.values[i] = this.values[indexes[i]];
         }
+        if (nulls != null) {
+            clone.nulls = Bits.copy(nulls, indexes);
+        }
         return clone;
     }
 
@@ -125,7 +135,11 @@ class DenseArrayOfInts extends ArrayBase<Integer> {
     public Array<Integer> copy(Array<Integer> indexes) {
         var clone = new DenseArrayOfInts(indexes.length(), defaultValue);
         for (int i = 0; i < indexes.length(); ++i) {
-            clone.values[i] = this.values[indexes.getInt(i)];
+            final int index = indexes.getInt(i);
+            clone.values[i] = this.values[index];
+            if (isNull(index)) {
+                clone.setNull(i, true);
+            }
         }
         return clone;
     }
@@ -136,6 +150,9 @@ class DenseArrayOfInts extends ArrayBase<Integer> {
         var length = end - start;
         final DenseArrayOfInts clone = new DenseArrayOfInts(length, defaultValue);
         System.arraycopy(values, start, clone.values, 0, length);
+        if (nulls != null) {
+            clone.nulls = Bits.copy(nulls, start, end);
+        }
         return clone;
     }
 
@@ -158,6 +175,14 @@ class DenseArrayOfInts extends ArrayBase<Integer> {
         final int v2 = values[j];
         this.values[i] = v2;
         this.values[j] = v1;
+        if (nulls != null) {
+            final boolean n1 = Bits.get(nulls, i);
+            final boolean n2 = Bits.get(nulls, j);
+            if (n1 != n2) {
+                Bits.set(nulls, i, n2);
+                Bits.set(nulls, j, n1);
+            }
+        }
         return this;
     }
 
@@ -169,7 +194,9 @@ class DenseArrayOfInts extends ArrayBase<Integer> {
         for (int i=0; i<values.length; ++i) {
             cursor.moveTo(i);
             final boolean match = predicate.test(cursor);
-            if (match) {
+            if (match && cursor.isNull()) {
+                builder.append(null);
+            } else if (match) {
                 builder.appendInt(cursor.getInt());
             }
         }
@@ -185,8 +212,11 @@ class DenseArrayOfInts extends ArrayBase<Integer> {
             for (int i=0; i<fromIndexes.length; ++i) {
                 final int toIndex = toIndexes[i];
                 final int fromIndex = fromIndexes[i];
-                final int update = from.getInt(fromIndex);
-                this.setInt(toIndex, update);
+                if (from.isNull(fromIndex)) {
+                    this.setValue(toIndex, null);
+                } else {
+                    this.setInt(toIndex, from.getInt(fromIndex));
+                }
             }
         }
         return this;
@@ -196,8 +226,11 @@ class DenseArrayOfInts extends ArrayBase<Integer> {
     @Override
     public final Array<Integer> update(int toIndex, Array<Integer> from, int fromIndex, int length) {
         for (int i=0; i<length; ++i) {
-            final int update = from.getInt(fromIndex + i);
-            this.setInt(toIndex + i, update);
+            if (from.isNull(fromIndex + i)) {
+                this.setValue(toIndex + i, null);
+            } else {
+                this.setInt(toIndex + i, from.getInt(fromIndex + i));
+            }
         }
         return this;
     }
@@ -210,6 +243,9 @@ class DenseArrayOfInts extends ArrayBase<Integer> {
             System.arraycopy(values, 0, newValues, 0, values.length);
             Arrays.fill(newValues, values.length, newValues.length, defaultValue);
             this.values = newValues;
+            if (nulls != null) {
+                this.nulls = Bits.resize(nulls, newLength);
+            }
         }
         return this;
     }
@@ -218,18 +254,23 @@ class DenseArrayOfInts extends ArrayBase<Integer> {
     @Override
     public Array<Integer> fill(Integer value, int start, int end) {
         Arrays.fill(values, start, end, value == null ? defaultValue : value);
+        if (value == null) {
+            Bits.fill(nulls(), start, end, true);
+        } else if (nulls != null) {
+            Bits.fill(nulls, start, end, false);
+        }
         return this;
     }
 
     @Override
     public boolean isNull(int index) {
-        return false;
+        return nulls != null && Bits.get(nulls, index);
     }
 
 
     @Override
     public final boolean isEqualTo(int index, Integer value) {
-        return value != null && value == values[index];
+        return value == null ? isNull(index) : value == values[index] && !isNull(index);
     }
 
 
@@ -247,7 +288,8 @@ class DenseArrayOfInts extends ArrayBase<Integer> {
 
     @Override
     public final Integer getValue(int index) {
-        return values[index];
+        final int value = values[index];
+        return isNull(index) ? null : value;
     }
 
 
@@ -255,23 +297,56 @@ class DenseArrayOfInts extends ArrayBase<Integer> {
     public final int setInt(int index, int value) {
         final int oldValue = getInt(index);
         this.values[index] = value;
+        this.setNull(index, false);
         return oldValue;
     }
 
 
     @Override
     public final Integer setValue(int index, Integer value) {
-        var oldValue = getValue(index);
+        final Integer oldValue = getValue(index);
         if (value == null) {
             this.values[index] = defaultValue;
+            this.setNull(index, true);
             return oldValue;
         } else {
             this.values[index] = value;
+            this.setNull(index, false);
             return oldValue;
         }
     }
 
 
+    /**
+     * Returns the validity bitmap for this array, creating it on first call
+     * @return  the bitmap of null entries
+     */
+    private long[] nulls() {
+        if (nulls == null) {
+            synchronized (this) {
+                if (nulls == null) {
+                    this.nulls = new long[Bits.wordCount(values.length)];
+                }
+            }
+        }
+        return nulls;
+    }
+
+
+    /**
+     * Records whether the entry at the index is null, only allocating the bitmap when a null is first assigned
+     * @param index     the array index
+     * @param isNull    true if the entry is null
+     */
+    private void setNull(int index, boolean isNull) {
+        if (isNull) {
+            Bits.set(nulls(), index, true);
+        } else if (nulls != null && Bits.get(nulls, index)) {
+            Bits.set(nulls, index, false);
+        }
+    }
+
+
     @Override
     public final int binarySearch(int start, int end, Integer value) {
         return Arrays.binarySearch(values, start, end, value);
@@ -331,6 +406,12 @@ class DenseArrayOfInts extends ArrayBase<Integer> {
         for (int value : values) {
             os.writeInt(value);
         }
+        os.writeBoolean(nulls != null);
+        if (nulls != null) {
+            for (long word : nulls) {
+                os.writeLong(word);
+            }
+        }
     }
 
 
@@ -342,6 +423,12 @@ class DenseArrayOfInts extends ArrayBase<Integer> {
         for (int i=0; i<length; ++i) {
             values[i] = is.readInt();
         }
+        if (is.readBoolean()) {
+            this.nulls = new long[Bits.wordCount(length)];
+            for (int i=0; i<nulls.length; ++i) {
+                nulls[i] = is.readLong();
+            }
+        }
     }
 
 }
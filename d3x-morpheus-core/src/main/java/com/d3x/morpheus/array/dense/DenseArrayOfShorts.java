@@ -0,0 +1,360 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.array.dense;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+import com.d3x.morpheus.array.Array;
+import com.d3x.morpheus.array.ArrayBase;
+import com.d3x.morpheus.array.ArrayBuilder;
+import com.d3x.morpheus.array.ArrayCursor;
+import com.d3x.morpheus.array.ArrayException;
+import com.d3x.morpheus.array.ArrayStyle;
+import com.d3x.morpheus.array.ArrayValue;
+import org.eclipse.collections.impl.factory.primitive.ShortSets;
+
+/**
+ * An Array implementation designed to hold a dense array of short values
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+class DenseArrayOfShorts extends ArrayBase<Short> {
+
+    private static final long serialVersionUID = 1L;
+
+    private short[] values;
+    private short defaultValue;
+
+    /**
+     * Constructor
+     * @param length        the length for this array
+     * @param defaultValue  the default value for array
+     */
+    DenseArrayOfShorts(int length, Short defaultValue) {
+        super(Short.class, ArrayStyle.DENSE, false);
+        this.values = new short[length];
+        this.defaultValue = defaultValue != null ? defaultValue : (short)0;
+        Arrays.fill(values, this.defaultValue);
+    }
+
+    /**
+     * Constructor
+     * @param source    the source array to shallow copy
+     * @param parallel  true for parallel version
+     */
+    private DenseArrayOfShorts(DenseArrayOfShorts source, boolean parallel) {
+        super(source.type(), ArrayStyle.DENSE, parallel);
+        this.values = source.values;
+        this.defaultValue = source.defaultValue;
+    }
+
+
+    @Override
+    public final int length() {
+        return values.length;
+    }
+
+
+    @Override
+    public float loadFactor() {
+        return 1F;
+    }
+
+
+    @Override
+    public final Short defaultValue() {
+        return defaultValue;
+    }
+
+
+    @Override
+    public final Array<Short> parallel() {
+        return isParallel() ? this : new DenseArrayOfShorts(this, true);
+    }
+
+
+    @Override
+    public final Array<Short> sequential() {
+        return isParallel() ? new DenseArrayOfShorts(this, false) : this;
+    }
+
+
+    @Override()
+    public final Array<Short> copy() {
+        try {
+            final DenseArrayOfShorts copy = (DenseArrayOfShorts)super.clone();
+            copy.defaultValue = this.defaultValue;
+            copy.values = this.values.clone();
+            return copy;
+        } catch (Exception ex) {
+            throw new ArrayException("Failed to copy Array: " + this, ex);
+        }
+    }
+
+
+    @Override()
+    public final Array<Short> copy(int[] indexes) {
+        var clone = new DenseArrayOfShorts(indexes.length, defaultValue);
+        for (int i = 0; i < indexes.length; ++i) {
+            clone.values[i] = this.values[indexes[i]];
+        }
+        return clone;
+    }
+
+
+    @Override
+    public Array<Short> copy(Array<Integer> indexes) {
+        var clone = new DenseArrayOfShorts(indexes.length(), defaultValue);
+        for (int i = 0; i < indexes.length(); ++i) {
+            clone.values[i] = this.values[indexes.getInt(i)];
+        }
+        return clone;
+    }
+
+
+    @Override()
+    public final Array<Short> copy(int start, int end) {
+        var length = end - start;
+        final DenseArrayOfShorts clone = new DenseArrayOfShorts(length, defaultValue);
+        System.arraycopy(values, start, clone.values, 0, length);
+        return clone;
+    }
+
+
+    @Override
+    protected final Array<Short> sort(int start, int end, int multiplier) {
+        return doSort(start, end, (i, j) -> multiplier * Short.compare(values[i], values[j]));
+    }
+
+
+    @Override
+    public final int compare(int i, int j) {
+        return Short.compare(values[i], values[j]);
+    }
+
+
+    @Override
+    public final Array<Short> swap(int i, int j) {
+        var v1 = values[i];
+        var v2 = values[j];
+        this.values[i] = v2;
+        this.values[j] = v1;
+        return this;
+    }
+
+
+    @Override
+    public final Array<Short> filter(Predicate<ArrayValue<Short>> predicate) {
+        final ArrayCursor<Short> cursor = cursor();
+        final ArrayBuilder<Short> builder = ArrayBuilder.of(length(), type());
+        for (int i=0; i<values.length; ++i) {
+            cursor.moveTo(i);
+            final boolean match = predicate.test(cursor);
+            if (match) {
+                builder.append(values[i]);
+            }
+        }
+        return builder.toArray();
+    }
+
+
+    @Override
+    public final Array<Short> update(Array<Short> from, int[] fromIndexes, int[] toIndexes) {
+        if (fromIndexes.length != toIndexes.length) {
+            throw new ArrayException("The from index array must have the same length as the to index array");
+        } else {
+            for (int i=0; i<fromIndexes.length; ++i) {
+                final int toIndex = toIndexes[i];
+                final int fromIndex = fromIndexes[i];
+                final int update = from.getInt(fromIndex);
+                this.setInt(toIndex, update);
+            }
+        }
+        return this;
+    }
+
+
+    @Override
+    public final Array<Short> update(int toIndex, Array<Short> from, int fromIndex, int length) {
+        for (int i=0; i<length; ++i) {
+            final int update = from.getInt(fromIndex + i);
+            this.setInt(toIndex + i, update);
+        }
+        return this;
+    }
+
+
+    @Override
+    public final Array<Short> expand(int newLength) {
+        if (newLength > values.length) {
+            var newValues = new short[newLength];
+            System.arraycopy(values, 0, newValues, 0, values.length);
+            Arrays.fill(newValues, values.length, newValues.length, defaultValue);
+            this.values = newValues;
+        }
+        return this;
+    }
+
+
+    @Override
+    public Array<Short> fill(Short value, int start, int end) {
+        Arrays.fill(values, start, end, value == null ? defaultValue : value);
+        return this;
+    }
+
+    @Override
+    public boolean isNull(int index) {
+        return false;
+    }
+
+
+    @Override
+    public final boolean isEqualTo(int index, Short value) {
+        return value != null && value == values[index];
+    }
+
+
+    @Override
+    public final int getInt(int index) {
+        return values[index];
+    }
+
+
+    @Override
+    public final long getLong(int index) {
+        return values[index];
+    }
+
+
+    @Override
+    public final double getDouble(int index) {
+        return values[index];
+    }
+
+
+    @Override
+    public final Short getValue(int index) {
+        return values[index];
+    }
+
+
+    @Override
+    public final int setInt(int index, int value) {
+        final int oldValue = getInt(index);
+        this.values[index] = toShort(value);
+        return oldValue;
+    }
+
+
+    @Override
+    public final Short setValue(int index, Short value) {
+        var oldValue = getValue(index);
+        if (value == null) {
+            this.values[index] = defaultValue;
+            return oldValue;
+        } else {
+            this.values[index] = value;
+            return oldValue;
+        }
+    }
+
+
+    @Override
+    public final int binarySearch(int start, int end, Short value) {
+        return Arrays.binarySearch(values, start, end, value);
+    }
+
+
+    @Override
+    public final Array<Short> distinct(int limit) {
+        var capacity = limit < Integer.MAX_VALUE ? limit : 100;
+        var set = ShortSets.mutable.withInitialCapacity(capacity);
+        var builder = ArrayBuilder.of(capacity, Short.class);
+        for (int i=0; i<length(); ++i) {
+            final short value = values[i];
+            if (set.add(value)) {
+                builder.append(value);
+                if (set.size() >= limit) {
+                    break;
+                }
+            }
+        }
+        return builder.toArray();
+    }
+
+
+    /**
+     * Returns the int value narrowed to a short, checking that it is in range
+     * @param value     the int value to narrow
+     * @return          the short value
+     * @throws ArrayException   if the value is outside the range of a short
+     */
+    private static short toShort(int value) {
+        if (value < Short.MIN_VALUE || value > Short.MAX_VALUE) {
+            throw new ArrayException("Value is out of range for a short array: " + value);
+        } else {
+            return (short)value;
+        }
+    }
+
+
+    @Override
+    public final Array<Short> cumSum() {
+        return cumSum(Short.MIN_VALUE, Short.MAX_VALUE);
+    }
+
+
+    @Override
+    public final void read(ObjectInputStream is, int count) throws IOException {
+        for (int i=0; i<count; ++i) {
+            this.values[i] = is.readShort();
+        }
+    }
+
+
+    @Override
+    public final void write(ObjectOutputStream os, int[] indexes) throws IOException {
+        for (int index : indexes) {
+            os.writeShort(values[index]);
+        }
+    }
+
+    /** Custom serialization */
+    private void writeObject(ObjectOutputStream os) throws IOException {
+        os.writeInt(values.length);
+        for (int value : values) {
+            os.writeShort(value);
+        }
+    }
+
+
+    @SuppressWarnings("unchecked")
+    /** Custom serialization */
+    private void readObject(ObjectInputStream is) throws IOException, ClassNotFoundException {
+        var length = is.readInt();
+        this.values = new short[length];
+        for (int i=0; i<length; ++i) {
+            values[i] = is.readShort();
+        }
+    }
+
+}
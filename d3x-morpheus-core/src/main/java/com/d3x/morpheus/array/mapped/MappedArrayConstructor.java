@@ -16,6 +16,7 @@
 package com.d3x.morpheus.array.mapped;
 
 import java.io.File;
+import java.nio.ByteOrder;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -89,6 +90,9 @@ public class MappedArrayConstructor implements ArrayFactory.Constructor {
                 case INTEGER:           return (Array<T>)new MappedArrayOfInts(length, (Integer)defaultValue, file);
                 case LONG:              return (Array<T>)new MappedArrayOfLongs(length, (Long)defaultValue, file);
                 case DOUBLE:            return (Array<T>)new MappedArrayOfDoubles(length, (Double)defaultValue, file);
+                case FLOAT:             return (Array<T>)new MappedArrayOfFloats(length, (Float)defaultValue, file);
+                case SHORT:             return (Array<T>)new MappedArrayOfShorts(length, (Short)defaultValue, file);
+                case BYTE:              return (Array<T>)new MappedArrayOfBytes(length, (Byte)defaultValue, file);
                 case CURRENCY:          return (Array<T>)new MappedArrayWithIntCoding<>(length, (Currency)defaultValue, currencyCoding, file);
                 case YEAR:              return (Array<T>)new MappedArrayWithIntCoding<>(length, (Year)defaultValue, yearCoding, file);
                 case ZONE_ID:           return (Array<T>)new MappedArrayWithIntCoding<>(length, (ZoneId)defaultValue, zoneIdCoding, file);
@@ -104,6 +108,37 @@ public class MappedArrayConstructor implements ArrayFactory.Constructor {
         }
     }
 
+    /**
+     * Returns a memory mapped array that wraps a region of an existing file, such as a column buffer of an Arrow file.
+     * The region is mapped read-only, and the values are copied to a temporary file of the array's own on the first
+     * update or expansion, so updates to the array are never written to the original file. Only fixed width types with
+     * a long coding are supported, in addition to numeric values.
+     * @param type      the array element type
+     * @param file      the file containing the values or codes
+     * @param offset    the byte offset of the first value in the file
+     * @param length    the number of values in the region
+     * @param order     the byte order of values in the file
+     * @param <T>       the array element type
+     * @return          the memory mapped array
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Array<T> map(Class<T> type, File file, long offset, int length, ByteOrder order) {
+        switch (ArrayType.of(type)) {
+            case INTEGER:           return (Array<T>)new MappedArrayOfInts(length, null, file, offset, order);
+            case LONG:              return (Array<T>)new MappedArrayOfLongs(length, null, file, offset, order);
+            case DOUBLE:            return (Array<T>)new MappedArrayOfDoubles(length, null, file, offset, order);
+            case FLOAT:             return (Array<T>)new MappedArrayOfFloats(length, null, file, offset, order);
+            case SHORT:             return (Array<T>)new MappedArrayOfShorts(length, null, file, offset, order);
+            case BYTE:              return (Array<T>)new MappedArrayOfBytes(length, null, file, offset);
+            case DATE:              return (Array<T>)new MappedArrayWithLongCoding<>(length, dateCoding, file, offset, order);
+            case INSTANT:           return (Array<T>)new MappedArrayWithLongCoding<>(length, instantCoding, file, offset, order);
+            case LOCAL_DATE:        return (Array<T>)new MappedArrayWithLongCoding<>(length, localDateCoding, file, offset, order);
+            case LOCAL_TIME:        return (Array<T>)new MappedArrayWithLongCoding<>(length, localTimeCoding, file, offset, order);
+            case LOCAL_DATETIME:    return (Array<T>)new MappedArrayWithLongCoding<>(length, localDateTimeCoding, file, offset, order);
+            default:                throw new UnsupportedOperationException("Data type not supported for mapping a file region: " + type);
+        }
+    }
+
     /**
      * Returns a newly created random file to store an array
      * @return      newly created random file
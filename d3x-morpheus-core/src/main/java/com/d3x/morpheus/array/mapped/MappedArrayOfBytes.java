@@ -0,0 +1,518 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.array.mapped;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.function.Predicate;
+
+import com.d3x.morpheus.array.Array;
+import com.d3x.morpheus.array.ArrayBase;
+import com.d3x.morpheus.array.ArrayBuilder;
+import com.d3x.morpheus.array.ArrayCursor;
+import com.d3x.morpheus.array.ArrayException;
+import com.d3x.morpheus.array.ArrayStyle;
+import com.d3x.morpheus.array.ArrayValue;
+import org.eclipse.collections.impl.factory.primitive.ByteSets;
+
+/**
+ * An Array implementation designed to represent a dense array of byte values in a memory-mapped file.
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+class MappedArrayOfBytes extends ArrayBase<Byte> {
+
+    private static final long BYTE_COUNT = 1L;
+
+    private File file;
+    private int length;
+    private byte defaultValue;
+    private FileChannel channel;
+    private boolean region;
+    private ByteBuffer buffer;
+
+    /**
+     * Constructor
+     * @param length        the length of the array
+     * @param defaultValue  the default value for array
+     * @param file          the memory mapped file reference
+     */
+    MappedArrayOfBytes(int length, Byte defaultValue, File file) {
+        super(Byte.class, ArrayStyle.MAPPED, false);
+        try {
+            this.file = file;
+            this.length = length;
+            this.defaultValue = defaultValue == null ? (byte)0 : defaultValue;
+            this.channel = new RandomAccessFile(file, "rw").getChannel();
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, BYTE_COUNT * length);
+            this.fill(defaultValue);
+        } catch (Exception ex) {
+            throw new ArrayException("Failed to initialise memory mapped array on file: " + file.getAbsolutePath(), ex);
+        }
+    }
+
+    /**
+     * Constructor to map a region of an existing file read-only without copying, where the values are copied
+     * to a file of their own on the first update, so that updates are never written to the original file
+     * @param length        the length of the array
+     * @param defaultValue  the default value for array
+     * @param file          the file containing the values
+     * @param offset        the byte offset of the first value in the file
+     */
+    MappedArrayOfBytes(int length, Byte defaultValue, File file, long offset) {
+        super(Byte.class, ArrayStyle.MAPPED, false);
+        try {
+            this.file = file;
+            this.region = true;
+            this.length = length;
+            this.defaultValue = defaultValue == null ? (byte)0 : defaultValue;
+            this.channel = new RandomAccessFile(file, "r").getChannel();
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, BYTE_COUNT * length);
+        } catch (Exception ex) {
+            throw new ArrayException("Failed to map array onto region of file: " + file.getAbsolutePath(), ex);
+        }
+    }
+
+    /**
+     * Constructor
+     * @param source    the source array to shallow copy
+     * @param parallel  true for parallel version
+     */
+    private MappedArrayOfBytes(MappedArrayOfBytes source, boolean parallel) {
+        super(source.type(), ArrayStyle.MAPPED, parallel);
+        this.file = source.file;
+        this.length = source.length;
+        this.defaultValue = source.defaultValue;
+        this.channel = source.channel;
+        this.region = source.region;
+        this.buffer = source.buffer;
+    }
+
+    /**
+     * Returns the file handle for this memory mapped array
+     * @return      the file handle for memory mapped array
+     */
+    File getFile() {
+        return file;
+    }
+
+
+    @Override
+    public final int length() {
+        return length;
+    }
+
+
+    @Override
+    public float loadFactor() {
+        return 1F;
+    }
+
+
+    @Override
+    public final Byte defaultValue() {
+        return defaultValue;
+    }
+
+
+    @Override
+    public final Array<Byte> parallel() {
+        return isParallel() ? this : new MappedArrayOfBytes(this, true);
+    }
+
+
+    @Override
+    public final Array<Byte> sequential() {
+        return isParallel() ? new MappedArrayOfBytes(this, false) : this;
+    }
+
+
+    @Override()
+    public final Array<Byte> copy() {
+        try {
+            final File newFile = MappedArrayConstructor.randomFile(true);
+            final MappedArrayOfBytes copy = new MappedArrayOfBytes(length, defaultValue, newFile);
+            for (int i=0; i<length; ++i) {
+                var v = buffer.get(i);
+                copy.buffer.put(i, v);
+            }
+            return copy;
+        } catch (Exception ex) {
+            throw new ArrayException("Failed to copy Array: " + this, ex);
+        }
+    }
+
+
+    @Override()
+    public final Array<Byte> copy(int[] indexes) {
+        try {
+            var newFile = MappedArrayConstructor.randomFile(true);
+            var copy = new MappedArrayOfBytes(indexes.length, defaultValue, newFile);
+            for (int i=0; i<indexes.length; ++i) {
+                var value = (byte)getInt(indexes[i]);
+                if (value != defaultValue) {
+                    copy.buffer.put(i, value);
+                }
+            }
+            return copy;
+        } catch (Exception ex) {
+            throw new ArrayException("Failed top copy subset of Array", ex);
+        }
+    }
+
+
+    @Override
+    public Array<Byte> copy(Array<Integer> indexes) {
+        try {
+            var newFile = MappedArrayConstructor.randomFile(true);
+            var copy = new MappedArrayOfBytes(indexes.length(), defaultValue, newFile);
+            for (int i=0; i<indexes.length(); ++i) {
+                var value = (byte)getInt(indexes.getInt(i));
+                if (value != defaultValue) {
+                    copy.buffer.put(i, value);
+                }
+            }
+            return copy;
+        } catch (Exception ex) {
+            throw new ArrayException("Failed top copy subset of Array", ex);
+        }
+    }
+
+
+    @Override()
+    public final Array<Byte> copy(int start, int end) {
+        try {
+            var newLength = end - start;
+            final File newFile = MappedArrayConstructor.randomFile(true);
+            final MappedArrayOfBytes copy = new MappedArrayOfBytes(newLength, defaultValue, newFile);
+            for (int i=0; i<newLength; ++i) {
+                var value = buffer.get(start + i);
+                if (Byte.compare(value, defaultValue) != 0) {
+                    copy.buffer.put(i, value);
+                }
+            }
+            return copy;
+        } catch (Exception ex) {
+            throw new ArrayException("Failed top copy subset of Array", ex);
+        }
+    }
+
+
+    @Override
+    protected final Array<Byte> sort(int start, int end, int multiplier) {
+        return doSort(start, end, (i, j) -> {
+            var v1 = getInt(i);
+            var v2 = getInt(j);
+            return multiplier * Byte.compare(v1, v2);
+        });
+    }
+
+
+    @Override
+    public final int compare(int i, int j) {
+        var v1 = getInt(i);
+        var v2 = getInt(j);
+        return Byte.compare(v1, v2);
+    }
+
+
+    @Override
+    public final Array<Byte> swap(int i, int j) {
+        var v1 = getInt(i);
+        var v2 = getInt(j);
+        this.setInt(i, v2);
+        this.setInt(j, v1);
+        return this;
+    }
+
+
+    @Override
+    public final Array<Byte> filter(Predicate<ArrayValue<Byte>> predicate) {
+        final ArrayCursor<Byte> cursor = cursor();
+        final ArrayBuilder<Byte> builder = ArrayBuilder.of(length(), type());
+        for (int i=0; i<length(); ++i) {
+            cursor.moveTo(i);
+            final boolean match = predicate.test(cursor);
+            if (match) {
+                builder.append(cursor.getValue());
+            }
+        }
+        return builder.toArray();
+    }
+
+
+    @Override
+    public final Array<Byte> update(Array<Byte> from, int[] fromIndexes, int[] toIndexes) {
+        if (fromIndexes.length != toIndexes.length) {
+            throw new ArrayException("The from index array must have the same length as the to index array");
+        } else {
+            for (int i=0; i<fromIndexes.length; ++i) {
+                var toIndex = toIndexes[i];
+                var fromIndex = fromIndexes[i];
+                var update = from.getInt(fromIndex);
+                this.setInt(toIndex, update);
+            }
+        }
+        return this;
+    }
+
+
+    @Override
+    public final Array<Byte> update(int toIndex, Array<Byte> from, int fromIndex, int length) {
+        for (int i=0; i<length; ++i) {
+            var update = from.getInt(fromIndex + i);
+            this.setInt(toIndex + i, update);
+        }
+        return this;
+    }
+
+
+    @Override
+    public final Array<Byte> expand(int newLength) {
+        try {
+            if (newLength > length) {
+                if (region) {
+                    this.detach(newLength);
+                } else {
+                    this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, BYTE_COUNT * newLength);
+                }
+                this.fill(defaultValue, length, newLength);
+                this.length = newLength;
+            }
+            return this;
+        } catch (Exception ex) {
+            throw new ArrayException("Failed to expand size of memory mapped array at " + file.getAbsolutePath(), ex);
+        }
+    }
+
+
+    /**
+     * Moves the values of an array that wraps a region of another file into a newly created file of its own
+     * @param newLength     the length for the new file
+     * @throws IOException  if the new file cannot be mapped
+     */
+    private void detach(int newLength) throws IOException {
+        final File newFile = MappedArrayConstructor.randomFile(true);
+        final FileChannel newChannel = new RandomAccessFile(newFile, "rw").getChannel();
+        final ByteBuffer newBuffer = newChannel.map(FileChannel.MapMode.READ_WRITE, 0, BYTE_COUNT * newLength);
+        for (int i=0; i<length; ++i) {
+            newBuffer.put(i, buffer.get(i));
+        }
+        this.channel.close();
+        this.file = newFile;
+        this.channel = newChannel;
+        this.buffer = newBuffer;
+        this.region = false;
+    }
+
+
+    /**
+     * Returns the buffer to write to, first copying the values of a read-only region into a file of their own
+     * @return  the writable buffer for this array
+     */
+    private ByteBuffer writable() {
+        if (region) {
+            try {
+                this.detach(length);
+            } catch (IOException ex) {
+                throw new ArrayException("Failed to copy memory mapped region of file: " + file.getAbsolutePath(), ex);
+            }
+        }
+        return buffer;
+    }
+
+
+    @Override
+    public final Array<Byte> fill(Byte value, int start, int end) {
+        var fillValue = value == null ? defaultValue : value;
+        for (int i=start; i<end; ++i) {
+            this.writable().put(i, fillValue);
+        }
+        return this;
+    }
+
+
+    @Override
+    public final boolean isNull(int index) {
+        return false;
+    }
+
+
+    @Override
+    public final boolean isEqualTo(int index, Byte value) {
+        return value != null && value == buffer.get(index);
+    }
+
+
+    @Override
+    public final int getInt(int index) {
+        this.checkBounds(index, length);
+        return buffer.get(index);
+    }
+
+
+    @Override
+    public final long getLong(int index) {
+        this.checkBounds(index, length);
+        return buffer.get(index);
+    }
+
+
+    @Override
+    public final double getDouble(int index) {
+        this.checkBounds(index, length);
+        return buffer.get(index);
+    }
+
+
+    @Override
+    public final Byte getValue(int index) {
+        this.checkBounds(index, length);
+        return buffer.get(index);
+    }
+
+
+    @Override
+    public final int setInt(int index, int value) {
+        this.checkBounds(index, length);
+        var oldValue = buffer.get(index);
+        this.writable().put(index, toByte(value));
+        return oldValue;
+    }
+
+
+    @Override
+    public final Byte setValue(int index, Byte value) {
+        var oldValue = getValue(index);
+        this.writable().put(index, value != null ? value : defaultValue);
+        return oldValue;
+    }
+
+
+    @Override
+    public final int binarySearch(int start, int end, Byte value) {
+        try {
+            int low = start;
+            int high = end - 1;
+            while (low <= high) {
+                var midIndex = (low + high) >>> 1;
+                var midValue = buffer.get(midIndex);
+                var result = Byte.compare(midValue, value);
+                if (result < 0) {
+                    low = midIndex + 1;
+                } else if (result > 0) {
+                    high = midIndex - 1;
+                } else {
+                    return midIndex;
+                }
+            }
+            return -(low + 1);
+        } catch (Exception ex) {
+            throw new ArrayException("Binary search of array failed", ex);
+        }
+    }
+
+
+    @Override
+    public final Array<Byte> distinct(int limit) {
+        var capacity = limit < Integer.MAX_VALUE ? limit : 100;
+        var set = ByteSets.mutable.withInitialCapacity(capacity);
+        var builder = ArrayBuilder.of(capacity, Byte.class);
+        for (int i=0; i<length(); ++i) {
+            var value = buffer.get(i);
+            if (set.add(value)) {
+                builder.append(value);
+                if (set.size() >= limit) {
+                    break;
+                }
+            }
+        }
+        return builder.toArray();
+    }
+
+
+    /**
+     * Returns the int value narrowed to a byte, checking that it is in range
+     * @param value     the int value to narrow
+     * @return          the byte value
+     * @throws ArrayException   if the value is outside the range of a byte
+     */
+    private static byte toByte(int value) {
+        if (value < Byte.MIN_VALUE || value > Byte.MAX_VALUE) {
+            throw new ArrayException("Value is out of range for a byte array: " + value);
+        } else {
+            return (byte)value;
+        }
+    }
+
+
+    @Override
+    public final Array<Byte> cumSum() {
+        return cumSum(Byte.MIN_VALUE, Byte.MAX_VALUE);
+    }
+
+
+    @Override
+    public final void read(ObjectInputStream is, int count) throws IOException {
+        for (int i=0; i<count; ++i) {
+            var value = is.readByte();
+            this.setInt(i, value);
+        }
+    }
+
+
+    @Override
+    public final void write(ObjectOutputStream os, int[] indexes) throws IOException {
+        for (int index : indexes) {
+            var value = getInt(index);
+            os.writeByte(value);
+        }
+    }
+
+    /** Custom serialization */
+    private void writeObject(ObjectOutputStream os) throws IOException {
+        os.writeInt(length);
+        os.writeByte(defaultValue);
+        for (int i=0; i<length; ++i) {
+            var value = getInt(i);
+            os.writeByte(value);
+        }
+    }
+
+
+    @SuppressWarnings("unchecked")
+    /** Custom serialization */
+    private void readObject(ObjectInputStream is) throws IOException, ClassNotFoundException {
+        this.length = is.readInt();
+        this.defaultValue = is.readByte();
+        this.file = MappedArrayConstructor.randomFile(true);
+        this.channel = new RandomAccessFile(file, "rw").getChannel();
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, BYTE_COUNT * length);
+        for (int i=0; i<length; ++i) {
+            var value = is.readByte();
+            this.setInt(i, value);
+        }
+    }
+
+
+}
@@ -0,0 +1,528 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.array.mapped;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.util.function.Predicate;
+
+import com.d3x.morpheus.array.Array;
+import com.d3x.morpheus.array.ArrayBase;
+import com.d3x.morpheus.array.ArrayBuilder;
+import com.d3x.morpheus.array.ArrayCursor;
+import com.d3x.morpheus.array.ArrayException;
+import com.d3x.morpheus.array.ArrayStyle;
+import com.d3x.morpheus.array.ArrayValue;
+import org.eclipse.collections.impl.factory.primitive.FloatSets;
+
+/**
+ * An Array implementation designed to represent a dense array of float values in a memory-mapped file.
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+class MappedArrayOfFloats extends ArrayBase<Float> {
+
+    private static final long BYTE_COUNT = 4L;
+
+    private File file;
+    private int length;
+    private float defaultValue;
+    private FileChannel channel;
+    private boolean region;
+    private FloatBuffer buffer;
+
+    /**
+     * Constructor
+     * @param length        the length of the array
+     * @param defaultValue  the default value for array
+     * @param file          the memory mapped file reference
+     */
+    MappedArrayOfFloats(int length, Float defaultValue, File file) {
+        super(Float.class, ArrayStyle.MAPPED, false);
+        try {
+            this.file = file;
+            this.length = length;
+            this.defaultValue = defaultValue == null ? Float.NaN : defaultValue;
+            this.channel = new RandomAccessFile(file, "rw").getChannel();
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, BYTE_COUNT * length).asFloatBuffer();
+            this.fill(defaultValue);
+        } catch (Exception ex) {
+            throw new ArrayException("Failed to initialise memory mapped array on file: " + file.getAbsolutePath(), ex);
+        }
+    }
+
+    /**
+     * Constructor to map a region of an existing file read-only without copying, where the values are copied
+     * to a file of their own on the first update, so that updates are never written to the original file
+     * @param length        the length of the array
+     * @param defaultValue  the default value for array
+     * @param file          the file containing the values
+     * @param offset        the byte offset of the first value in the file
+     * @param order         the byte order of values in the file
+     */
+    MappedArrayOfFloats(int length, Float defaultValue, File file, long offset, ByteOrder order) {
+        super(Float.class, ArrayStyle.MAPPED, false);
+        try {
+            this.file = file;
+            this.region = true;
+            this.length = length;
+            this.defaultValue = defaultValue == null ? Float.NaN : defaultValue;
+            this.channel = new RandomAccessFile(file, "r").getChannel();
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, BYTE_COUNT * length).order(order).asFloatBuffer();
+        } catch (Exception ex) {
+            throw new ArrayException("Failed to map array onto region of file: " + file.getAbsolutePath(), ex);
+        }
+    }
+
+    /**
+     * Constructor
+     * @param source    the source array to shallow copy
+     * @param parallel  true for parallel version
+     */
+    private MappedArrayOfFloats(MappedArrayOfFloats source, boolean parallel) {
+        super(source.type(), ArrayStyle.MAPPED, parallel);
+        this.file = source.file;
+        this.length = source.length;
+        this.defaultValue = source.defaultValue;
+        this.channel = source.channel;
+        this.region = source.region;
+        this.buffer = source.buffer;
+    }
+
+
+    /**
+     * Returns the file handle for this memory mapped array
+     * @return      the file handle for memory mapped array
+     */
+    File getFile() {
+        return file;
+    }
+
+
+    @Override
+    public final int length() {
+        return length;
+    }
+
+
+    @Override
+    public float loadFactor() {
+        return 1F;
+    }
+
+
+    @Override
+    public final Float defaultValue() {
+        return defaultValue;
+    }
+
+
+    @Override
+    public final Array<Float> parallel() {
+        return isParallel() ? this : new MappedArrayOfFloats(this, true);
+    }
+
+
+    @Override
+    public final Array<Float> sequential() {
+        return isParallel() ? new MappedArrayOfFloats(this, false) : this;
+    }
+
+
+    @Override()
+    public final Array<Float> copy() {
+        try {
+            final File newFile = MappedArrayConstructor.randomFile(true);
+            final MappedArrayOfFloats copy = new MappedArrayOfFloats(length, defaultValue, newFile);
+            for (int i=0; i<length; ++i) {
+                final float v = buffer.get(i);
+                copy.buffer.put(i, v);
+            }
+            return copy;
+        } catch (Exception ex) {
+            throw new ArrayException("Failed to copy Array: " + this, ex);
+        }
+    }
+
+
+    @Override()
+    public final Array<Float> copy(int[] indexes) {
+        try {
+            var newFile = MappedArrayConstructor.randomFile(true);
+            var copy = new MappedArrayOfFloats(indexes.length, defaultValue, newFile);
+            for (int i=0; i<indexes.length; ++i) {
+                var value = getFloat(indexes[i]);
+                if (Float.compare(value, defaultValue) != 0) {
+                    copy.buffer.put(i, value);
+                }
+            }
+            return copy;
+        } catch (Exception ex) {
+            throw new ArrayException("Failed to copy subset of Array", ex);
+        }
+    }
+
+
+    @Override
+    public Array<Float> copy(Array<Integer> indexes) {
+        try {
+            var newFile = MappedArrayConstructor.randomFile(true);
+            var copy = new MappedArrayOfFloats(indexes.length(), defaultValue, newFile);
+            for (int i=0; i<indexes.length(); ++i) {
+                var value = getFloat(indexes.getInt(i));
+                if (Float.compare(value, defaultValue) != 0) {
+                    copy.buffer.put(i, value);
+                }
+            }
+            return copy;
+        } catch (Exception ex) {
+            throw new ArrayException("Failed to copy subset of Array", ex);
+        }
+    }
+
+
+    @Override()
+    public final Array<Float> copy(int start, int end) {
+        try {
+            final int newLength = end - start;
+            final File newFile = MappedArrayConstructor.randomFile(true);
+            final MappedArrayOfFloats copy = new MappedArrayOfFloats(newLength, defaultValue, newFile);
+            for (int i=0; i<newLength; ++i) {
+                final float value = buffer.get(start + i);
+                if (Float.compare(value, defaultValue) != 0) {
+                    copy.buffer.put(i, value);
+                }
+            }
+            return copy;
+        } catch (Exception ex) {
+            throw new ArrayException("Failed top copy subset of Array", ex);
+        }
+    }
+
+
+    @Override
+    protected final Array<Float> sort(int start, int end, int multiplier) {
+        return doSort(start, end, (i, j) -> {
+            final float v1 = getFloat(i);
+            final float v2 = getFloat(j);
+            return multiplier * Float.compare(v1, v2);
+        });
+    }
+
+
+    @Override
+    public final int compare(int i, int j) {
+        final float v1 = getFloat(i);
+        final float v2 = getFloat(j);
+        return Float.compare(v1, v2);
+    }
+
+
+    @Override
+    public final Array<Float> swap(int i, int j) {
+        final float v1 = getFloat(i);
+        final float v2 = getFloat(j);
+        this.setFloat(i, v2);
+        this.setFloat(j, v1);
+        return this;
+    }
+
+
+    @Override
+    public final Array<Float> filter(Predicate<ArrayValue<Float>> predicate) {
+        final ArrayCursor<Float> cursor = cursor();
+        final ArrayBuilder<Float> builder = ArrayBuilder.of(length(), type());
+        for (int i=0; i<length(); ++i) {
+            cursor.moveTo(i);
+            final boolean match = predicate.test(cursor);
+            if (match) {
+                builder.append(cursor.getValue());
+            }
+        }
+        return builder.toArray();
+    }
+
+
+    @Override
+    public final Array<Float> update(Array<Float> from, int[] fromIndexes, int[] toIndexes) {
+        if (fromIndexes.length != toIndexes.length) {
+            throw new ArrayException("The from index array must have the same length as the to index array");
+        } else {
+            for (int i=0; i<fromIndexes.length; ++i) {
+                final int toIndex = toIndexes[i];
+                final int fromIndex = fromIndexes[i];
+                final double update = from.getDouble(fromIndex);
+                this.setDouble(toIndex, update);
+            }
+        }
+        return this;
+    }
+
+
+    @Override
+    public final Array<Float> update(int toIndex, Array<Float> from, int fromIndex, int length) {
+        for (int i=0; i<length; ++i) {
+            final double update = from.getDouble(fromIndex + i);
+            this.setDouble(toIndex + i, update);
+        }
+        return this;
+    }
+
+
+    @Override
+    public final Array<Float> expand(int newLength) {
+        try {
+            if (newLength > length) {
+                if (region) {
+                    this.detach(newLength);
+                } else {
+                    this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, BYTE_COUNT * newLength).asFloatBuffer();
+                }
+                this.fill(defaultValue, length, newLength);
+                this.length = newLength;
+            }
+            return this;
+        } catch (Exception ex) {
+            throw new ArrayException("Failed to expand size of memory mapped array at " + file.getAbsolutePath(), ex);
+        }
+    }
+
+
+    /**
+     * Moves the values of an array that wraps a region of another file into a newly created file of its own
+     * @param newLength     the length for the new file
+     * @throws IOException  if the new file cannot be mapped
+     */
+    private void detach(int newLength) throws IOException {
+        final File newFile = MappedArrayConstructor.randomFile(true);
+        final FileChannel newChannel = new RandomAccessFile(newFile, "rw").getChannel();
+        final FloatBuffer newBuffer = newChannel.map(FileChannel.MapMode.READ_WRITE, 0, BYTE_COUNT * newLength).asFloatBuffer();
+        for (int i=0; i<length; ++i) {
+            newBuffer.put(i, buffer.get(i));
+        }
+        this.channel.close();
+        this.file = newFile;
+        this.channel = newChannel;
+        this.buffer = newBuffer;
+        this.region = false;
+    }
+
+
+    /**
+     * Returns the buffer to write to, first copying the values of a read-only region into a file of their own
+     * @return  the writable buffer for this array
+     */
+    private FloatBuffer writable() {
+        if (region) {
+            try {
+                this.detach(length);
+            } catch (IOException ex) {
+                throw new ArrayException("Failed to copy memory mapped region of file: " + file.getAbsolutePath(), ex);
+            }
+        }
+        return buffer;
+    }
+
+
+    @Override
+    public final Array<Float> fill(Float value, int start, int end) {
+        final float fillValue = value == null ? defaultValue : value;
+        for (int i=start; i<end; ++i) {
+            this.writable().put(i, fillValue);
+        }
+        return this;
+    }
+
+
+    @Override
+    public final boolean isNull(int index) {
+        return Float.isNaN(getFloat(index));
+    }
+
+
+    @Override
+    public final boolean isEqualTo(int index, Float value) {
+        return value == null || Float.isNaN(value) ? Float.isNaN(getFloat(index)) : getFloat(index) == value;
+    }
+
+
+    @Override
+    public final double getDouble(int index) {
+        return getFloat(index);
+    }
+
+
+    /**
+     * Returns the float value at the index specified
+     * @param index     the array index
+     * @return          the float value at index
+     */
+    private float getFloat(int index) {
+        this.checkBounds(index, length);
+        return buffer.get(index);
+    }
+
+
+    @Override
+    public final Float getValue(int index) {
+        this.checkBounds(index, length);
+        return buffer.get(index);
+    }
+
+
+    @Override
+    public final double setDouble(int index, double value) {
+        return setFloat(index, (float)value);
+    }
+
+
+    /**
+     * Sets the float value at the index specified
+     * @param index     the array index
+     * @param value     the value to set
+     * @return          the previous value at index
+     */
+    private float setFloat(int index, float value) {
+        this.checkBounds(index, length);
+        final float oldValue = buffer.get(index);
+        this.writable().put(index, value);
+        return oldValue;
+    }
+
+
+    @Override
+    public final Float setValue(int index, Float value) {
+        this.checkBounds(index, length);
+        final Float oldValue = getValue(index);
+        this.writable().put(index, value != null ? value : defaultValue);
+        return oldValue;
+    }
+
+
+    @Override
+    public final int binarySearch(int start, int end, Float value) {
+        try {
+            int low = start;
+            int high = end - 1;
+            while (low <= high) {
+                final int midIndex = (low + high) >>> 1;
+                final float midValue = buffer.get(midIndex);
+                final int result = Float.compare(midValue, value);
+                if (result < 0) {
+                    low = midIndex + 1;
+                } else if (result > 0) {
+                    high = midIndex - 1;
+                } else {
+                    return midIndex;
+                }
+            }
+            return -(low + 1);
+        } catch (Exception ex) {
+            throw new ArrayException("Binary search of array failed", ex);
+        }
+    }
+
+
+    @Override
+    public final Array<Float> distinct(int limit) {
+        var capacity = limit < Integer.MAX_VALUE ? limit : 100;
+        var set = FloatSets.mutable.withInitialCapacity(capacity);
+        var builder = ArrayBuilder.of(capacity, Float.class);
+        for (int i=0; i<length(); ++i) {
+            final float value = getFloat(i);
+            if (set.add(value)) {
+                builder.append(value);
+                if (set.size() >= limit) {
+                    break;
+                }
+            }
+        }
+        return builder.toArray();
+    }
+
+
+    @Override
+    public final Array<Float> cumSum() {
+        var length = length();
+        final Array<Float> result = Array.of(Float.class, length);
+        result.setDouble(0, getFloat(0));
+        for (int i=1; i<length; ++i) {
+            final double prior = result.getDouble(i-1);
+            final float current = buffer.get(i);
+            if (Double.isNaN(prior)) {
+                result.setDouble(i, current);
+            } else if (Float.isNaN(current)) {
+                result.setDouble(i, prior);
+            } else {
+                result.setDouble(i, prior + current);
+            }
+        }
+        return result;
+    }
+
+
+    @Override
+    public final void read(ObjectInputStream is, int count) throws IOException {
+        for (int i=0; i<count; ++i) {
+            final float value = is.readFloat();
+            this.setFloat(i, value);
+        }
+    }
+
+
+    @Override
+    public final void write(ObjectOutputStream os, int[] indexes) throws IOException {
+        for (int index : indexes) {
+            final float value = getFloat(index);
+            os.writeFloat(value);
+        }
+    }
+
+    /** Custom serialization */
+    private void writeObject(ObjectOutputStream os) throws IOException {
+        os.writeInt(length);
+        os.writeFloat(defaultValue);
+        for (int i=0; i<length; ++i) {
+            final float value = getFloat(i);
+            os.writeFloat(value);
+        }
+    }
+
+
+    @SuppressWarnings("unchecked")
+    /** Custom serialization */
+    private void readObject(ObjectInputStream is) throws IOException, ClassNotFoundException {
+        this.file = MappedArrayConstructor.randomFile(true);
+        this.length = is.readInt();
+        this.defaultValue = is.readFloat();
+        this.channel = new RandomAccessFile(file, "rw").getChannel();
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, BYTE_COUNT * length).asFloatBuffer();
+        for (int i=0; i<length; ++i) {
+            final float value = is.readFloat();
+            this.setFloat(i, value);
+        }
+    }
+
+
+}
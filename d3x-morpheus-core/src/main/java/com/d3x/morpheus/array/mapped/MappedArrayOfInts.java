@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
 import java.nio.IntBuffer;
 import java.nio.channels.FileChannel;
 import java.util.function.Predicate;
@@ -48,6 +49,7 @@ class MappedArrayOfInts extends ArrayBase<Integer> {
     private int length;
     private int defaultValue;
     private FileChannel channel;
+    private boolean region;
     private IntBuffer buffer;
 
     /**
@@ -70,6 +72,29 @@ class MappedArrayOfInts extends ArrayBase<Integer> {
         }
     }
 
+    /**
+     * Constructor to map a region of an existing file read-only without copying, where the values are copied
+     * to a file of their own on the first update, so that updates are never written to the original file
+     * @param length        the length of the array
+     * @param defaultValue  the default value for array
+     * @param file          the file containing the values
+     * @param offset        the byte offset of the first value in the file
+     * @param order         the byte order of values in the file
+     */
+    MappedArrayOfInts(int length, Integer defaultValue, File file, long offset, ByteOrder order) {
+        super(Integer.class, ArrayStyle.MAPPED, false);
+        try {
+            this.file = file;
+            this.region = true;
+            this.length = length;
+            this.defaultValue = defaultValue == null ? 0 : defaultValue;
+            this.channel = new RandomAccessFile(file, "r").getChannel();
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, BYTE_COUNT * length).order(order).asIntBuffer();
+        } catch (Exception ex) {
+            throw new ArrayException("Failed to map array onto region of file: " + file.getAbsolutePath(), ex);
+        }
+    }
+
     /**
      * Constructor
      * @param source    the source array to shallow copy
@@ -81,6 +106,7 @@ class MappedArrayOfInts extends ArrayBase<Integer> {
         this.length = source.length;
         this.defaultValue = source.defaultValue;
         this.channel = source.channel;
+        this.region = source.region;
         this.buffer = source.buffer;
     }
 
@@ -267,7 +293,11 @@ class MappedArrayOfInts extends ArrayBase<Integer> {
     public final Array<Integer> expand(int newLength) {
         try {
             if (newLength > length) {
-                this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, BYTE_COUNT * newLength).asIntBuffer();
+                if (region) {
+                    this.detach(newLength);
+                } else {
+                    this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, BYTE_COUNT * newLength).asIntBuffer();
+                }
                 this.fill(defaultValue, length, newLength);
                 this.length = newLength;
             }
@@ -278,11 +308,47 @@ class MappedArrayOfInts extends ArrayBase<Integer> {
     }
 
 
+    /**
+     * Moves the values of an array that wraps a region of another file into a newly created file of its own
+     * @param newLength     the length for the new file
+     * @throws IOException  if the new file cannot be mapped
+     */
+    private void detach(int newLength) throws IOException {
+        final File newFile = MappedArrayConstructor.randomFile(true);
+        final FileChannel newChannel = new RandomAccessFile(newFile, "rw").getChannel();
+        final IntBuffer newBuffer = newChannel.map(FileChannel.MapMode.READ_WRITE, 0, BYTE_COUNT * newLength).asIntBuffer();
+        for (int i=0; i<length; ++i) {
+            newBuffer.put(i, buffer.get(i));
+        }
+        this.channel.close();
+        this.file = newFile;
+        this.channel = newChannel;
+        this.buffer = newBuffer;
+        this.region = false;
+    }
+
+
+    /**
+     * Returns the buffer to write to, first copying the values of a read-only region into a file of their own
+     * @return  the writable buffer for this array
+     */
+    private IntBuffer writable() {
+        if (region) {
+            try {
+                this.detach(length);
+            } catch (IOException ex) {
+                throw new ArrayException("Failed to copy memory mapped region of file: " + file.getAbsolutePath(), ex);
+            }
+        }
+        return buffer;
+    }
+
+
     @Override
     public final Array<Integer> fill(Integer value, int start, int end) {
         var fillValue = value == null ? defaultValue : value;
         for (int i=start; i<end; ++i) {
-            this.buffer.put(i, fillValue);
+            this.writable().put(i, fillValue);
         }
         return this;
     }
@@ -332,7 +398,7 @@ class MappedArrayOfInts extends ArrayBase<Integer> {
     public final int setInt(int index, int value) {
         this.checkBounds(index, length);
         var oldValue = buffer.get(index);
-        this.buffer.put(index, value);
+        this.writable().put(index, value);
         return oldValue;
     }
 
@@ -340,7 +406,7 @@ class MappedArrayOfInts extends ArrayBase<Integer> {
     @Override
     public final Integer setValue(int index, Integer value) {
         var oldValue = getValue(index);
-        this.buffer.put(index, value != null ? value : defaultValue);
+        this.writable().put(index, value != null ? value : defaultValue);
         return oldValue;
     }
 
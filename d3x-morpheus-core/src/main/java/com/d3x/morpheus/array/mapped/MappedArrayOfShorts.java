@@ -0,0 +1,520 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.array.mapped;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.util.function.Predicate;
+
+import com.d3x.morpheus.array.Array;
+import com.d3x.morpheus.array.ArrayBase;
+import com.d3x.morpheus.array.ArrayBuilder;
+import com.d3x.morpheus.array.ArrayCursor;
+import com.d3x.morpheus.array.ArrayException;
+import com.d3x.morpheus.array.ArrayStyle;
+import com.d3x.morpheus.array.ArrayValue;
+import org.eclipse.collections.impl.factory.primitive.ShortSets;
+
+/**
+ * An Array implementation designed to represent a dense array of short values in a memory-mapped file.
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+class MappedArrayOfShorts extends ArrayBase<Short> {
+
+    private static final long BYTE_COUNT = 2L;
+
+    private File file;
+    private int length;
+    private short defaultValue;
+    private FileChannel channel;
+    private boolean region;
+    private ShortBuffer buffer;
+
+    /**
+     * Constructor
+     * @param length        the length of the array
+     * @param defaultValue  the default value for array
+     * @param file          the memory mapped file reference
+     */
+    MappedArrayOfShorts(int length, Short defaultValue, File file) {
+        super(Short.class, ArrayStyle.MAPPED, false);
+        try {
+            this.file = file;
+            this.length = length;
+            this.defaultValue = defaultValue == null ? (short)0 : defaultValue;
+            this.channel = new RandomAccessFile(file, "rw").getChannel();
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, BYTE_COUNT * length).asShortBuffer();
+            this.fill(defaultValue);
+        } catch (Exception ex) {
+            throw new ArrayException("Failed to initialise memory mapped array on file: " + file.getAbsolutePath(), ex);
+        }
+    }
+
+    /**
+     * Constructor to map a region of an existing file read-only without copying, where the values are copied
+     * to a file of their own on the first update, so that updates are never written to the original file
+     * @param length        the length of the array
+     * @param defaultValue  the default value for array
+     * @param file          the file containing the values
+     * @param offset        the byte offset of the first value in the file
+     * @param order         the byte order of values in the file
+     */
+    MappedArrayOfShorts(int length, Short defaultValue, File file, long offset, ByteOrder order) {
+        super(Short.class, ArrayStyle.MAPPED, false);
+        try {
+            this.file = file;
+            this.region = true;
+            this.length = length;
+            this.defaultValue = defaultValue == null ? (short)0 : defaultValue;
+            this.channel = new RandomAccessFile(file, "r").getChannel();
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, BYTE_COUNT * length).order(order).asShortBuffer();
+        } catch (Exception ex) {
+            throw new ArrayException("Failed to map array onto region of file: " + file.getAbsolutePath(), ex);
+        }
+    }
+
+    /**
+     * Constructor
+     * @param source    the source array to shallow copy
+     * @param parallel  true for parallel version
+     */
+    private MappedArrayOfShorts(MappedArrayOfShorts source, boolean parallel) {
+        super(source.type(), ArrayStyle.MAPPED, parallel);
+        this.file = source.file;
+        this.length = source.length;
+        this.defaultValue = source.defaultValue;
+        this.channel = source.channel;
+        this.region = source.region;
+        this.buffer = source.buffer;
+    }
+
+    /**
+     * Returns the file handle for this memory mapped array
+     * @return      the file handle for memory mapped array
+     */
+    File getFile() {
+        return file;
+    }
+
+
+    @Override
+    public final int length() {
+        return length;
+    }
+
+
+    @Override
+    public float loadFactor() {
+        return 1F;
+    }
+
+
+    @Override
+    public final Short defaultValue() {
+        return defaultValue;
+    }
+
+
+    @Override
+    public final Array<Short> parallel() {
+        return isParallel() ? this : new MappedArrayOfShorts(this, true);
+    }
+
+
+    @Override
+    public final Array<Short> sequential() {
+        return isParallel() ? new MappedArrayOfShorts(this, false) : this;
+    }
+
+
+    @Override()
+    public final Array<Short> copy() {
+        try {
+            final File newFile = MappedArrayConstructor.randomFile(true);
+            final MappedArrayOfShorts copy = new MappedArrayOfShorts(length, defaultValue, newFile);
+            for (int i=0; i<length; ++i) {
+                var v = buffer.get(i);
+                copy.buffer.put(i, v);
+            }
+            return copy;
+        } catch (Exception ex) {
+            throw new ArrayException("Failed to copy Array: " + this, ex);
+        }
+    }
+
+
+    @Override()
+    public final Array<Short> copy(int[] indexes) {
+        try {
+            var newFile = MappedArrayConstructor.randomFile(true);
+            var copy = new MappedArrayOfShorts(indexes.length, defaultValue, newFile);
+            for (int i=0; i<indexes.length; ++i) {
+                var value = (short)getInt(indexes[i]);
+                if (value != defaultValue) {
+                    copy.buffer.put(i, value);
+                }
+            }
+            return copy;
+        } catch (Exception ex) {
+            throw new ArrayException("Failed top copy subset of Array", ex);
+        }
+    }
+
+
+    @Override
+    public Array<Short> copy(Array<Integer> indexes) {
+        try {
+            var newFile = MappedArrayConstructor.randomFile(true);
+            var copy = new MappedArrayOfShorts(indexes.length(), defaultValue, newFile);
+            for (int i=0; i<indexes.length(); ++i) {
+                var value = (short)getInt(indexes.getInt(i));
+                if (value != defaultValue) {
+                    copy.buffer.put(i, value);
+                }
+            }
+            return copy;
+        } catch (Exception ex) {
+            throw new ArrayException("Failed top copy subset of Array", ex);
+        }
+    }
+
+
+    @Override()
+    public final Array<Short> copy(int start, int end) {
+        try {
+            var newLength = end - start;
+            final File newFile = MappedArrayConstructor.randomFile(true);
+            final MappedArrayOfShorts copy = new MappedArrayOfShorts(newLength, defaultValue, newFile);
+            for (int i=0; i<newLength; ++i) {
+                var value = buffer.get(start + i);
+                if (Short.compare(value, defaultValue) != 0) {
+                    copy.buffer.put(i, value);
+                }
+            }
+            return copy;
+        } catch (Exception ex) {
+            throw new ArrayException("Failed top copy subset of Array", ex);
+        }
+    }
+
+
+    @Override
+    protected final Array<Short> sort(int start, int end, int multiplier) {
+        return doSort(start, end, (i, j) -> {
+            var v1 = getInt(i);
+            var v2 = getInt(j);
+            return multiplier * Short.compare(v1, v2);
+        });
+    }
+
+
+    @Override
+    public final int compare(int i, int j) {
+        var v1 = getInt(i);
+        var v2 = getInt(j);
+        return Short.compare(v1, v2);
+    }
+
+
+    @Override
+    public final Array<Short> swap(int i, int j) {
+        var v1 = getInt(i);
+        var v2 = getInt(j);
+        this.setInt(i, v2);
+        this.setInt(j, v1);
+        return this;
+    }
+
+
+    @Override
+    public final Array<Short> filter(Predicate<ArrayValue<Short>> predicate) {
+        final ArrayCursor<Short> cursor = cursor();
+        final ArrayBuilder<Short> builder = ArrayBuilder.of(length(), type());
+        for (int i=0; i<length(); ++i) {
+            cursor.moveTo(i);
+            final boolean match = predicate.test(cursor);
+            if (match) {
+                builder.append(cursor.getValue());
+            }
+        }
+        return builder.toArray();
+    }
+
+
+    @Override
+    public final Array<Short> update(Array<Short> from, int[] fromIndexes, int[] toIndexes) {
+        if (fromIndexes.length != toIndexes.length) {
+            throw new ArrayException("The from index array must have the same length as the to index array");
+        } else {
+            for (int i=0; i<fromIndexes.length; ++i) {
+                var toIndex = toIndexes[i];
+                var fromIndex = fromIndexes[i];
+                var update = from.getInt(fromIndex);
+                this.setInt(toIndex, update);
+            }
+        }
+        return this;
+    }
+
+
+    @Override
+    public final Array<Short> update(int toIndex, Array<Short> from, int fromIndex, int length) {
+        for (int i=0; i<length; ++i) {
+            var update = from.getInt(fromIndex + i);
+            this.setInt(toIndex + i, update);
+        }
+        return this;
+    }
+
+
+    @Override
+    public final Array<Short> expand(int newLength) {
+        try {
+            if (newLength > length) {
+                if (region) {
+                    this.detach(newLength);
+                } else {
+                    this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, BYTE_COUNT * newLength).asShortBuffer();
+                }
+                this.fill(defaultValue, length, newLength);
+                this.length = newLength;
+            }
+            return this;
+        } catch (Exception ex) {
+            throw new ArrayException("Failed to expand size of memory mapped array at " + file.getAbsolutePath(), ex);
+        }
+    }
+
+
+    /**
+     * Moves the values of an array that wraps a region of another file into a newly created file of its own
+     * @param newLength     the length for the new file
+     * @throws IOException  if the new file cannot be mapped
+     */
+    private void detach(int newLength) throws IOException {
+        final File newFile = MappedArrayConstructor.randomFile(true);
+        final FileChannel newChannel = new RandomAccessFile(newFile, "rw").getChannel();
+        final ShortBuffer newBuffer = newChannel.map(FileChannel.MapMode.READ_WRITE, 0, BYTE_COUNT * newLength).asShortBuffer();
+        for (int i=0; i<length; ++i) {
+            newBuffer.put(i, buffer.get(i));
+        }
+        this.channel.close();
+        this.file = newFile;
+        this.channel = newChannel;
+        this.buffer = newBuffer;
+        this.region = false;
+    }
+
+
+    /**
+     * Returns the buffer to write to, first copying the values of a read-only region into a file of their own
+     * @return  the writable buffer for this array
+     */
+    private ShortBuffer writable() {
+        if (region) {
+            try {
+                this.detach(length);
+            } catch (IOException ex) {
+                throw new ArrayException("Failed to copy memory mapped region of file: " + file.getAbsolutePath(), ex);
+            }
+        }
+        return buffer;
+    }
+
+
+    @Override
+    public final Array<Short> fill(Short value, int start, int end) {
+        var fillValue = value == null ? defaultValue : value;
+        for (int i=start; i<end; ++i) {
+            this.writable().put(i, fillValue);
+        }
+        return this;
+    }
+
+
+    @Override
+    public final boolean isNull(int index) {
+        return false;
+    }
+
+
+    @Override
+    public final boolean isEqualTo(int index, Short value) {
+        return value != null && value == buffer.get(index);
+    }
+
+
+    @Override
+    public final int getInt(int index) {
+        this.checkBounds(index, length);
+        return buffer.get(index);
+    }
+
+
+    @Override
+    public final long getLong(int index) {
+        this.checkBounds(index, length);
+        return buffer.get(index);
+    }
+
+
+    @Override
+    public final double getDouble(int index) {
+        this.checkBounds(index, length);
+        return buffer.get(index);
+    }
+
+
+    @Override
+    public final Short getValue(int index) {
+        this.checkBounds(index, length);
+        return buffer.get(index);
+    }
+
+
+    @Override
+    public final int setInt(int index, int value) {
+        this.checkBounds(index, length);
+        var oldValue = buffer.get(index);
+        this.writable().put(index, toShort(value));
+        return oldValue;
+    }
+
+
+    @Override
+    public final Short setValue(int index, Short value) {
+        var oldValue = getValue(index);
+        this.writable().put(index, value != null ? value : defaultValue);
+        return oldValue;
+    }
+
+
+    @Override
+    public final int binarySearch(int start, int end, Short value) {
+        try {
+            int low = start;
+            int high = end - 1;
+            while (low <= high) {
+                var midIndex = (low + high) >>> 1;
+                var midValue = buffer.get(midIndex);
+                var result = Short.compare(midValue, value);
+                if (result < 0) {
+                    low = midIndex + 1;
+                } else if (result > 0) {
+                    high = midIndex - 1;
+                } else {
+                    return midIndex;
+                }
+            }
+            return -(low + 1);
+        } catch (Exception ex) {
+            throw new ArrayException("Binary search of array failed", ex);
+        }
+    }
+
+
+    @Override
+    public final Array<Short> distinct(int limit) {
+        var capacity = limit < Integer.MAX_VALUE ? limit : 100;
+        var set = ShortSets.mutable.withInitialCapacity(capacity);
+        var builder = ArrayBuilder.of(capacity, Short.class);
+        for (int i=0; i<length(); ++i) {
+            var value = buffer.get(i);
+            if (set.add(value)) {
+                builder.append(value);
+                if (set.size() >= limit) {
+                    break;
+                }
+            }
+        }
+        return builder.toArray();
+    }
+
+
+    /**
+     * Returns the int value narrowed to a short, checking that it is in range
+     * @param value     the int value to narrow
+     * @return          the short value
+     * @throws ArrayException   if the value is outside the range of a short
+     */
+    private static short toShort(int value) {
+        if (value < Short.MIN_VALUE || value > Short.MAX_VALUE) {
+            throw new ArrayException("Value is out of range for a short array: " + value);
+        } else {
+            return (short)value;
+        }
+    }
+
+
+    @Override
+    public final Array<Short> cumSum() {
+        return cumSum(Short.MIN_VALUE, Short.MAX_VALUE);
+    }
+
+
+    @Override
+    public final void read(ObjectInputStream is, int count) throws IOException {
+        for (int i=0; i<count; ++i) {
+            var value = is.readShort();
+            this.setInt(i, value);
+        }
+    }
+
+
+    @Override
+    public final void write(ObjectOutputStream os, int[] indexes) throws IOException {
+        for (int index : indexes) {
+            var value = getInt(index);
+            os.writeShort(value);
+        }
+    }
+
+    /** Custom serialization */
+    private void writeObject(ObjectOutputStream os) throws IOException {
+        os.writeInt(length);
+        os.writeShort(defaultValue);
+        for (int i=0; i<length; ++i) {
+            var value = getInt(i);
+            os.writeShort(value);
+        }
+    }
+
+
+    @SuppressWarnings("unchecked")
+    /** Custom serialization */
+    private void readObject(ObjectInputStream is) throws IOException, ClassNotFoundException {
+        this.length = is.readInt();
+        this.defaultValue = is.readShort();
+        this.file = MappedArrayConstructor.randomFile(true);
+        this.channel = new RandomAccessFile(file, "rw").getChannel();
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, BYTE_COUNT * length).asShortBuffer();
+        for (int i=0; i<length; ++i) {
+            var value = is.readShort();
+            this.setInt(i, value);
+        }
+    }
+
+
+}
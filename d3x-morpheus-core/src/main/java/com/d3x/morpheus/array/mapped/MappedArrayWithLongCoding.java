@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
 import java.nio.LongBuffer;
 import java.nio.channels.FileChannel;
 import java.util.function.Predicate;
@@ -53,6 +54,7 @@ class MappedArrayWithLongCoding<T> extends ArrayBase<T> {
     private long defaultCode;
     private LongCoding<T> coding;
     private FileChannel channel;
+    private boolean region;
     private LongBuffer buffer;
 
 
@@ -79,6 +81,31 @@ class MappedArrayWithLongCoding<T> extends ArrayBase<T> {
         }
     }
 
+    /**
+     * Constructor to map a region of an existing file read-only without copying, where the values are copied
+     * to a file of their own on the first update, so that updates are never written to the original file
+     * @param length        the length for this array
+     * @param coding        the coding for this array
+     * @param file          the file containing the codes
+     * @param offset        the byte offset of the first code in the file
+     * @param order         the byte order of codes in the file
+     */
+    MappedArrayWithLongCoding(int length, LongCoding<T> coding, File file, long offset, ByteOrder order) {
+        super(coding.getType(), ArrayStyle.MAPPED, false);
+        try {
+            this.file = file;
+            this.region = true;
+            this.length = length;
+            this.coding = coding;
+            this.defaultValue = null;
+            this.defaultCode = coding.getCode(null);
+            this.channel = new RandomAccessFile(file, "r").getChannel();
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, BYTE_COUNT * length).order(order).asLongBuffer();
+        } catch (Exception ex) {
+            throw new ArrayException("Failed to map array onto region of file: " + file.getAbsolutePath(), ex);
+        }
+    }
+
     /**
      * Constructor
      * @param source    the source array to shallow copy
@@ -92,6 +119,7 @@ class MappedArrayWithLongCoding<T> extends ArrayBase<T> {
         this.defaultValue = source.defaultValue;
         this.defaultCode = source.defaultCode;
         this.channel = source.channel;
+        this.region = source.region;
         this.buffer = source.buffer;
     }
 
@@ -210,8 +238,8 @@ class MappedArrayWithLongCoding<T> extends ArrayBase<T> {
     public final Array<T> swap(int i, int j) {
         final long v1 = buffer.get(i);
         final long v2 = buffer.get(j);
-        this.buffer.put(i, v2);
-        this.buffer.put(j, v1);
+        this.writable().put(i, v2);
+        this.writable().put(j, v1);
         return this;
     }
 
@@ -252,7 +280,7 @@ class MappedArrayWithLongCoding<T> extends ArrayBase<T> {
         if (from instanceof MappedArrayWithLongCoding) {
             final MappedArrayWithLongCoding other = (MappedArrayWithLongCoding) from;
             for (int i = 0; i < length; ++i) {
-                this.buffer.put(toIndex + i, other.buffer.get(fromIndex + i));
+                this.writable().put(toIndex + i, other.buffer.get(fromIndex + i));
             }
         } else {
             for (int i=0; i<length; ++i) {
@@ -268,7 +296,11 @@ class MappedArrayWithLongCoding<T> extends ArrayBase<T> {
     public final Array<T> expand(int newLength) {
         try {
             if (newLength > length) {
-                this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, BYTE_COUNT * newLength).asLongBuffer();
+                if (region) {
+                    this.detach(newLength);
+                } else {
+                    this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, BYTE_COUNT * newLength).asLongBuffer();
+                }
                 this.fill(defaultValue, length, newLength);
                 this.length = newLength;
             }
@@ -279,11 +311,47 @@ class MappedArrayWithLongCoding<T> extends ArrayBase<T> {
     }
 
 
+    /**
+     * Moves the values of an array that wraps a region of another file into a newly created file of its own
+     * @param newLength     the length for the new file
+     * @throws IOException  if the new file cannot be mapped
+     */
+    private void detach(int newLength) throws IOException {
+        final File newFile = MappedArrayConstructor.randomFile(true);
+        final FileChannel newChannel = new RandomAccessFile(newFile, "rw").getChannel();
+        final LongBuffer newBuffer = newChannel.map(FileChannel.MapMode.READ_WRITE, 0, BYTE_COUNT * newLength).asLongBuffer();
+        for (int i=0; i<length; ++i) {
+            newBuffer.put(i, buffer.get(i));
+        }
+        this.channel.close();
+        this.file = newFile;
+        this.channel = newChannel;
+        this.buffer = newBuffer;
+        this.region = false;
+    }
+
+
+    /**
+     * Returns the buffer to write to, first copying the values of a read-only region into a file of their own
+     * @return  the writable buffer for this array
+     */
+    private LongBuffer writable() {
+        if (region) {
+            try {
+                this.detach(length);
+            } catch (IOException ex) {
+                throw new ArrayException("Failed to copy memory mapped region of file: " + file.getAbsolutePath(), ex);
+            }
+        }
+        return buffer;
+    }
+
+
     @Override
     public Array<T> fill(T value, int start, int end) {
         final long code = coding.getCode(value);
         for (int i=start; i<end; ++i) {
-            this.buffer.put(i, code);
+            this.writable().put(i, code);
         }
         return this;
     }
@@ -325,7 +393,7 @@ class MappedArrayWithLongCoding<T> extends ArrayBase<T> {
     public final long setLong(int index, long value) {
         this.checkBounds(index, length);
         final long oldCode = buffer.get(index);
-        this.buffer.put(index, value);
+        this.writable().put(index, value);
         return oldCode;
     }
 
@@ -335,7 +403,7 @@ class MappedArrayWithLongCoding<T> extends ArrayBase<T> {
         this.checkBounds(index, length);
         final T oldValue = getValue(index);
         final long code = coding.getCode(value);
-        this.buffer.put(index, code);
+        this.writable().put(index, code);
         return oldValue;
     }
 
@@ -363,7 +431,7 @@ class MappedArrayWithLongCoding<T> extends ArrayBase<T> {
     public final void read(ObjectInputStream is, int count) throws IOException {
         for (int i=0; i<count; ++i) {
             final long value = is.readLong();
-            this.buffer.put(i, value);
+            this.writable().put(i, value);
         }
     }
 
@@ -402,7 +470,7 @@ class MappedArrayWithLongCoding<T> extends ArrayBase<T> {
         this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, BYTE_COUNT * length).asLongBuffer();
         for (int i=0; i<length; ++i) {
             final long value = is.readLong();
-            this.buffer.put(i, value);
+            this.writable().put(i, value);
         }
     }
 
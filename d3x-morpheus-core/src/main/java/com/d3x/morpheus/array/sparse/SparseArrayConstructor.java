@@ -85,6 +85,9 @@ public class SparseArrayConstructor implements ArrayFactory.Constructor {
                 case INTEGER:           return (Array<T>)new SparseArrayOfInts(length, fillPct, (Integer)defaultValue);
                 case LONG:              return (Array<T>)new SparseArrayOfLongs(length, fillPct, (Long)defaultValue);
                 case DOUBLE:            return (Array<T>)new SparseArrayOfDoubles(length, fillPct, (Double)defaultValue);
+                case FLOAT:             return (Array<T>)new SparseArrayOfFloats(length, fillPct, (Float)defaultValue);
+                case SHORT:             return (Array<T>)new SparseArrayOfShorts(length, fillPct, (Short)defaultValue);
+                case BYTE:              return (Array<T>)new SparseArrayOfBytes(length, fillPct, (Byte)defaultValue);
                 case OBJECT:            return (Array<T>)new SparseArrayOfObjects(type, length, fillPct, defaultValue);
                 case STRING:            return (Array<T>)new SparseArrayOfObjects(type, length, fillPct, defaultValue);
                 case LOCAL_DATE:        return (Array<T>)new SparseArrayWithLongCoding<>(length, fillPct, (LocalDate)defaultValue, localDateCoding);
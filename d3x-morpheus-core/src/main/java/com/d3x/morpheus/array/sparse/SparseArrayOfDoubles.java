@@ -18,6 +18,7 @@ package com.d3x.morpheus.array.sparse;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.util.function.IntConsumer;
 import java.util.function.Predicate;
 
 import com.d3x.morpheus.array.Array;
@@ -102,6 +103,17 @@ class SparseArrayOfDoubles extends ArrayBase<Double> {
     }
 
 
+    @Override
+    public final Array<Double> forEachNonDefault(IntConsumer consumer) {
+        for (int index : values.keySet().toSortedArray()) {
+            if (Double.compare(values.get(index), defaultValue) != 0) {
+                consumer.accept(index);
+            }
+        }
+        return this;
+    }
+
+
     @Override()
     public final Array<Double> copy() {
         try {
@@ -275,7 +287,7 @@ class SparseArrayOfDoubles extends ArrayBase<Double> {
     public final double setDouble(int index, double value) {
         this.checkBounds(index, length);
         final double oldValue = getDouble(index);
-        if (value == defaultValue) {
+        if (value == defaultValue || (Double.isNaN(value) && Double.isNaN(defaultValue))) {
             this.values.remove(index);
             return oldValue;
         } else {
@@ -0,0 +1,410 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.array.sparse;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.function.Predicate;
+
+import com.d3x.morpheus.array.Array;
+import com.d3x.morpheus.array.ArrayBase;
+import com.d3x.morpheus.array.ArrayBuilder;
+import com.d3x.morpheus.array.ArrayCursor;
+import com.d3x.morpheus.array.ArrayException;
+import com.d3x.morpheus.array.ArrayStyle;
+import com.d3x.morpheus.array.ArrayValue;
+import org.eclipse.collections.api.map.primitive.MutableIntFloatMap;
+import org.eclipse.collections.impl.factory.primitive.FloatSets;
+import org.eclipse.collections.impl.factory.primitive.IntFloatMaps;
+
+/**
+ * An Array implementation designed to hold a sparse array of float values
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+class SparseArrayOfFloats extends ArrayBase<Float> {
+
+    private static final long serialVersionUID = 1L;
+
+    private int length;
+    private MutableIntFloatMap values;
+    private float defaultValue;
+
+    /**
+     * Constructor
+     * @param length    the length for this array
+     * @param fillPct   the fill percent for array (0.2 implies 20% filled)
+     * @param defaultValue  the default value for array
+     */
+    SparseArrayOfFloats(int length, float fillPct, Float defaultValue) {
+        super(Float.class, ArrayStyle.SPARSE, false);
+        this.length = length;
+        this.defaultValue = defaultValue != null ? defaultValue : Float.NaN;
+        this.values = IntFloatMaps.mutable.withInitialCapacity((int)Math.max(length * fillPct, 5d));
+    }
+
+    /**
+     * Constructor
+     * @param source    the source array to shallow copy
+     * @param parallel  true for the parallel version
+     */
+    private SparseArrayOfFloats(SparseArrayOfFloats source, boolean parallel) {
+        super(source.type(), ArrayStyle.SPARSE, parallel);
+        this.length = source.length;
+        this.defaultValue = source.defaultValue;
+        this.values = source.values;
+    }
+
+
+    @Override
+    public final int length() {
+        return length;
+    }
+
+
+    @Override()
+    public final float loadFactor() {
+        return (float)values.size() / (float)length();
+    }
+
+
+    @Override
+    public final Float defaultValue() {
+        return defaultValue;
+    }
+
+
+    @Override
+    public final Array<Float> parallel() {
+        return isParallel() ? this : new SparseArrayOfFloats(this, true);
+    }
+
+
+    @Override
+    public final Array<Float> sequential() {
+        return isParallel() ? new SparseArrayOfFloats(this, false) : this;
+    }
+
+
+    @Override()
+    public final Array<Float> copy() {
+        try {
+            final SparseArrayOfFloats copy = (SparseArrayOfFloats)super.clone();
+            copy.values = IntFloatMaps.mutable.withAll(values);
+            copy.defaultValue = this.defaultValue;
+            return copy;
+        } catch (Exception ex) {
+            throw new ArrayException("Failed to copy Array: " + this, ex);
+        }
+    }
+
+
+    @Override()
+    public final Array<Float> copy(int[] indexes) {
+        var fillPct = (float)values.size() / length();
+        var clone = new SparseArrayOfFloats(indexes.length, fillPct, defaultValue);
+        for (int i = 0; i < indexes.length; ++i) {
+            var value = getFloat(indexes[i]);
+            clone.setFloat(i, value);
+        }
+        return clone;
+    }
+
+
+    @Override
+    public Array<Float> copy(Array<Integer> indexes) {
+        var fillPct = (float)values.size() / length();
+        var clone = new SparseArrayOfFloats(indexes.length(), fillPct, defaultValue);
+        for (int i = 0; i < indexes.length(); ++i) {
+            var value = getFloat(indexes.getInt(i));
+            clone.setFloat(i, value);
+        }
+        return clone;
+    }
+
+
+    @Override()
+    public final Array<Float> copy(int start, int end) {
+        var length = end - start;
+        var fillPct = (float)values.size() / length();
+        var clone = new SparseArrayOfFloats(length, fillPct, defaultValue);
+        for (int i=0; i<length; ++i) {
+            var value = getFloat(start+i);
+            if (Float.compare(value, defaultValue) != 0) {
+                clone.setValue(i, value);
+            }
+        }
+        return clone;
+    }
+
+
+    @Override
+    protected final Array<Float> sort(int start, int end, int multiplier) {
+        return doSort(start, end, (i, j) -> {
+            final float v1 = values.getIfAbsent(i, defaultValue);
+            final float v2 = values.getIfAbsent(j, defaultValue);
+            return multiplier * Float.compare(v1, v2);
+        });
+    }
+
+
+    @Override
+    public final int compare(int i, int j) {
+        return Float.compare(
+            values.getIfAbsent(i, defaultValue),
+            values.getIfAbsent(j, defaultValue)
+        );
+    }
+
+
+    @Override
+    public final Array<Float> swap(int i, int j) {
+        final float v1 = getFloat(i);
+        final float v2 = getFloat(j);
+        this.setFloat(i, v2);
+        this.setFloat(j, v1);
+        return this;
+    }
+
+
+    @Override
+    public final Array<Float> filter(Predicate<ArrayValue<Float>> predicate) {
+        int count = 0;
+        var length = this.length();
+        final ArrayCursor<Float> cursor = cursor();
+        final Array<Float> matches = Array.of(type(), length, loadFactor());  //todo: fix the length of this filter
+        for (int i=0; i<length; ++i) {
+            cursor.moveTo(i);
+            final boolean match = predicate.test(cursor);
+            if (match) matches.setValue(count++, cursor.getValue());
+        }
+        return count == length ? matches : matches.copy(0, count);
+    }
+
+
+    @Override
+    public final Array<Float> update(Array<Float> from, int[] fromIndexes, int[] toIndexes) {
+        if (fromIndexes.length != toIndexes.length) {
+            throw new ArrayException("The from index array must have the same length as the to index array");
+        } else {
+            for (int i=0; i<fromIndexes.length; ++i) {
+                final int toIndex = toIndexes[i];
+                final int fromIndex = fromIndexes[i];
+                final double update = from.getDouble(fromIndex);
+                this.setDouble(toIndex, update);
+            }
+        }
+        return this;
+    }
+
+
+    @Override
+    public final Array<Float> update(int toIndex, Array<Float> from, int fromIndex, int length) {
+        for (int i=0; i<length; ++i) {
+            final double update = from.getDouble(fromIndex + i);
+            this.setDouble(toIndex + i, update);
+        }
+        return this;
+    }
+
+
+    @Override
+    public final Array<Float> expand(int newLength) {
+        this.length = newLength > length ? newLength : length;
+        return this;
+    }
+
+
+    @Override
+    public Array<Float> fill(Float value, int start, int end) {
+        final float fillValue = value == null ? defaultValue : value;
+        if (fillValue == defaultValue) {
+            this.values.clear();
+        } else {
+            for (int i=start; i<end; ++i) {
+                this.values.put(i, fillValue);
+            }
+        }
+        return this;
+    }
+
+
+    @Override
+    public final boolean isNull(int index) {
+        return Float.isNaN(values.getIfAbsent(index, defaultValue));
+    }
+
+
+    @Override
+    public final boolean isEqualTo(int index, Float value) {
+        return value == null || Float.isNaN(value) ? isNull(index) : value == values.getIfAbsent(index, defaultValue);
+    }
+
+
+    @Override
+    public final double getDouble(int index) {
+        return getFloat(index);
+    }
+
+
+    /**
+     * Returns the float value at the index specified
+     * @param index     the array index
+     * @return          the float value at index
+     */
+    private float getFloat(int index) {
+        this.checkBounds(index, length);
+        return values.getIfAbsent(index, defaultValue);
+    }
+
+
+    @Override
+    public final Float getValue(int index) {
+        this.checkBounds(index, length);
+        return values.getIfAbsent(index, defaultValue);
+    }
+
+
+    @Override
+    public final double setDouble(int index, double value) {
+        return setFloat(index, (float)value);
+    }
+
+
+    /**
+     * Sets the float value at the index specified
+     * @param index     the array index
+     * @param value     the value to set
+     * @return          the previous value at index
+     */
+    private float setFloat(int index, float value) {
+        this.checkBounds(index, length);
+        final float oldValue = getFloat(index);
+        if (value == defaultValue || (Float.isNaN(value) && Float.isNaN(defaultValue))) {
+            this.values.remove(index);
+            return oldValue;
+        } else {
+            this.values.put(index, value);
+            return oldValue;
+        }
+    }
+
+
+    @Override
+    public final Float setValue(int index, Float value) {
+        this.checkBounds(index, length);
+        final Float oldValue = getValue(index);
+        if (value == null || Float.compare(value, defaultValue) == 0) {
+            this.values.remove(index);
+            return oldValue;
+        } else {
+            this.values.put(index, value);
+            return oldValue;
+        }
+    }
+
+
+    @Override
+    public final int binarySearch(int start, int end, Float value) {
+        int low = start;
+        int high = end - 1;
+        while (low <= high) {
+            final int midIndex = (low + high) >>> 1;
+            final float midValue = getFloat(midIndex);
+            final int result = Float.compare(midValue, value);
+            if (result < 0) {
+                low = midIndex + 1;
+            } else if (result > 0) {
+                high = midIndex - 1;
+            } else {
+                return midIndex;
+            }
+        }
+        return -(low + 1);
+    }
+
+
+    @Override
+    public final Array<Float> distinct(int limit) {
+        var capacity = limit < Integer.MAX_VALUE ? limit : 100;
+        var set = FloatSets.mutable.withInitialCapacity(capacity);
+        var builder = ArrayBuilder.of(capacity, Float.class);
+        for (int i=0; i<length(); ++i) {
+            final float value = getFloat(i);
+            if (set.add(value)) {
+                builder.append(value);
+                if (set.size() >= limit) {
+                    break;
+                }
+            }
+        }
+        return builder.toArray();
+    }
+
+
+    @Override
+    public final Array<Float> cumSum() {
+        var length = length();
+        final Array<Float> result = Array.of(Float.class, length);
+        result.setDouble(0, getFloat(0));
+        for (int i=1; i<length; ++i) {
+            final double prior = result.getDouble(i-1);
+            final float current = values.getIfAbsent(i, defaultValue);
+            if (Double.isNaN(prior)) {
+                result.setDouble(i, current);
+            } else if (Float.isNaN(current)) {
+                result.setDouble(i, prior);
+            } else {
+                result.setDouble(i, prior + current);
+            }
+        }
+        return result;
+    }
+
+
+    @Override()
+    public String toString() {
+        return "Array type=" + typeCode().name()
+            + ", sparse=true"
+            + ", length=" + length()
+            + ", fillPercent=" + ((double)values.size() / length()) * 100d
+            + ", defaultValue=" + defaultValue()
+            + ", start=" + first(v -> true).map(Object::toString).orElse("N/A")
+            + ", end=" + last(v -> true).map(Object::toString).orElse("N/A");
+    }
+
+
+    @Override
+    public final void read(ObjectInputStream is, int count) throws IOException {
+        for (int i=0; i<count; ++i) {
+            final float value = is.readFloat();
+            this.setFloat(i, value);
+        }
+    }
+
+
+    @Override
+    public final void write(ObjectOutputStream os, int[] indexes) throws IOException {
+        for (int index : indexes) {
+            final float value = getFloat(index);
+            os.writeFloat(value);
+        }
+    }
+
+}
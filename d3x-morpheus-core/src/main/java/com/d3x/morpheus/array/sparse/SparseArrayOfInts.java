@@ -18,6 +18,7 @@ package com.d3x.morpheus.array.sparse;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.util.function.IntConsumer;
 import java.util.function.Predicate;
 
 import com.d3x.morpheus.array.ArrayBuilder;
@@ -102,6 +103,17 @@ class SparseArrayOfInts extends ArrayBase<Integer> {
     }
 
 
+    @Override
+    public final Array<Integer> forEachNonDefault(IntConsumer consumer) {
+        for (int index : values.keySet().toSortedArray()) {
+            if (values.get(index) != defaultValue) {
+                consumer.accept(index);
+            }
+        }
+        return this;
+    }
+
+
     @Override()
     public final Array<Integer> copy() {
         try {
@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2014-2021 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.collect;
+
+import java.util.Collection;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import lombok.NonNull;
+
+/**
+ * Defines the operations common to all in-memory caches, so that callers
+ * may switch between cache implementations without other changes.
+ *
+ * @param <K> the runtime key type.
+ * @param <V> the runtime value type.
+ *
+ * @author Scott Shaffer
+ */
+public interface Cache<K, V> {
+    /**
+     * Identifies keys contained in this cache.
+     *
+     * @param key the key of interest.
+     *
+     * @return {@code true} iff this cache contains the given key.
+     */
+    boolean containsKey(@NonNull K key);
+
+    /**
+     * Retrieves a value from this cache.
+     *
+     * @param key the key associated with the value.
+     *
+     * @return the value associated with the specified key, or
+     * {@code null} if there is no match.
+     */
+    V get(@NonNull K key);
+
+    /**
+     * Retrieves an existing value from this cache or assigns a value.
+     *
+     * @param targetKey the key associated with the value.
+     * @param supplier  supplies the value to assign and return if there
+     *                  is no match for the key.
+     *
+     * @return the value associated with the specified key, or the value
+     * returned by the supplier if there is no match.
+     */
+    V getOrAssign(@NonNull K targetKey, @NonNull Supplier<V> supplier);
+
+    /**
+     * Retrieves an existing value from this cache or assigns a default.
+     *
+     * @param targetKey    the key associated with the value.
+     * @param defaultValue the default value to assign and return if
+     *                     there is no match for the key.
+     *
+     * @return the value associated with the specified key, or the
+     * default value if there is no match.
+     */
+    default V getOrAssign(@NonNull K targetKey, @NonNull V defaultValue) {
+        return getOrAssign(targetKey, () -> defaultValue);
+    }
+
+    /**
+     * Retrieves an existing value from this cache or computes and
+     * assigns a value.
+     *
+     * @param target  the key associated with the value.
+     * @param compute the function to compute missing values.
+     *
+     * @return the value associated with the specified keys, or the
+     * computed value if there is no match.
+     */
+    default V getOrCompute(@NonNull K target, @NonNull Function<K, V> compute) {
+        return getOrAssign(target, () -> compute.apply(target));
+    }
+
+    /**
+     * Retrieves a value from this cache or throws an exception.
+     *
+     * @param key the key associated with the value.
+     *
+     * @return the value associated with the specified key.
+     *
+     * @throws NoSuchElementException unless a value has been
+     * associated with the specified key.
+     */
+    default V getOrThrow(@NonNull K key) {
+        return getOrThrow(key, "No value for key [%s].");
+    }
+
+    /**
+     * Retrieves a value from this cache or throws an exception.
+     *
+     * @param key the key associated with the value.
+     * @param msg the formatted exception message, which must contain
+     *            exactly one format specifier for the missing key.
+     *
+     * @return the value associated with the specified key.
+     *
+     * @throws NoSuchElementException unless a value has been
+     * associated with the specified key.
+     */
+    default V getOrThrow(@NonNull K key, @NonNull String msg) {
+        V result = get(key);
+
+        if (result != null)
+            return result;
+        else
+            throw new NoSuchElementException(String.format(msg, key));
+    }
+
+    /**
+     * Identifies empty caches.
+     * @return {@code true} iff this cache contains no items.
+     */
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Returns a read-only set of the keys in this cache.
+     * @return a read-only set of the keys in this cache.
+     */
+    Set<K> keys();
+
+    /**
+     * Assigns a key/value pair.
+     *
+     * @param key   the key to associate with the value.
+     * @param value the value to associate with the key.
+     */
+    void put(@NonNull K key, @NonNull V value);
+
+    /**
+     * Returns the number of items in this cache.
+     * @return the number of items in this cache.
+     */
+    int size();
+
+    /**
+     * Returns a read-only collection of the items in this cache.
+     * @return a read-only collection of the items in this cache.
+     */
+    Collection<V> values();
+}
@@ -17,7 +17,7 @@ import lombok.NonNull;
  *
  * @author Scott Shaffer
  */
-public abstract class CacheBase<K, V> extends ConcurrentObject {
+public abstract class CacheBase<K, V> extends ConcurrentObject implements Cache<K, V> {
     /**
      * The underlying map storage.
      */
@@ -38,6 +38,7 @@ public abstract class CacheBase<K, V> extends ConcurrentObject {
      *
      * @return {@code true} iff this cache contains the given key.
      */
+    @Override
     public boolean containsKey(@NonNull K key) {
         return read(map::containsKey, key);
     }
@@ -50,6 +51,7 @@ public abstract class CacheBase<K, V> extends ConcurrentObject {
      * @return the value associated with the specified key, or
      * {@code null} if there is no match.
      */
+    @Override
     public V get(@NonNull K key) {
         return read(map::get, key);
     }
@@ -64,6 +66,7 @@ public abstract class CacheBase<K, V> extends ConcurrentObject {
      * @return the value associated with the specified key, or the value
      * returned by the supplier if there is no match.
      */
+    @Override
     public V getOrAssign(@NonNull K targetKey, @NonNull Supplier<V> supplier) {
         V result = get(targetKey);
 
@@ -98,6 +101,7 @@ public abstract class CacheBase<K, V> extends ConcurrentObject {
      * @return the value associated with the specified key, or the
      * default value if there is no match.
      */
+    @Override
     public V getOrAssign(@NonNull K targetKey, @NonNull V defaultValue) {
         return getOrAssign(targetKey, () -> defaultValue);
     }
@@ -112,6 +116,7 @@ public abstract class CacheBase<K, V> extends ConcurrentObject {
      * @return the value associated with the specified keys, or the
      * computed value if there is no match.
      */
+    @Override
     public V getOrCompute(@NonNull K target, @NonNull Function<K, V> compute) {
         return getOrAssign(target, () -> compute.apply(target));
     }
@@ -126,6 +131,7 @@ public abstract class CacheBase<K, V> extends ConcurrentObject {
      * @throws NoSuchElementException unless a value has been
      * associated with the specified key.
      */
+    @Override
     public V getOrThrow(@NonNull K key) {
         return getOrThrow(key, "No value for key [%s].");
     }
@@ -142,6 +148,7 @@ public abstract class CacheBase<K, V> extends ConcurrentObject {
      * @throws NoSuchElementException unless a value has been
      * associated with the specified key.
      */
+    @Override
     public V getOrThrow(@NonNull K key, @NonNull String msg) {
         V result = get(key);
 
@@ -155,6 +162,7 @@ public abstract class CacheBase<K, V> extends ConcurrentObject {
      * Identifies empty caches.
      * @return {@code true} iff this cache contains no items.
      */
+    @Override
     public boolean isEmpty() {
         return read(map::isEmpty);
     }
@@ -163,6 +171,7 @@ public abstract class CacheBase<K, V> extends ConcurrentObject {
      * Returns a read-only set view of the keys in this cache.
      * @return a read-only set view of the keys in this cache.
      */
+    @Override
     public Set<K> keys() {
         return Collections.unmodifiableSet(read(map::keySet));
     }
@@ -173,6 +182,7 @@ public abstract class CacheBase<K, V> extends ConcurrentObject {
      * @param key   the key to associate with the value.
      * @param value the value to associate with the key.
      */
+    @Override
     public void put(@NonNull K key, @NonNull V value) {
         write(map::put, key, value);
     }
@@ -181,6 +191,7 @@ public abstract class CacheBase<K, V> extends ConcurrentObject {
      * Returns the number of items in this cache.
      * @return the number of items in this cache.
      */
+    @Override
     public int size() {
         return read(map::size);
     }
@@ -189,6 +200,7 @@ public abstract class CacheBase<K, V> extends ConcurrentObject {
      * Returns a read-only view of the items in this cache.
      * @return a read-only view of the items in this cache.
      */
+    @Override
     public Collection<V> values() {
         return Collections.unmodifiableCollection(read(map::values));
     }
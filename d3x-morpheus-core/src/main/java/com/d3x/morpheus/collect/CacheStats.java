@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2014-2021 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.collect;
+
+import lombok.Value;
+
+/**
+ * An immutable snapshot of the activity counters for a cache.
+ *
+ * @author Scott Shaffer
+ */
+@Value
+public class CacheStats {
+    /**
+     * The number of lookups that found a value in the cache.
+     */
+    long hitCount;
+
+    /**
+     * The number of lookups that did not find a value in the cache.
+     */
+    long missCount;
+
+    /**
+     * The number of values that were loaded successfully.
+     */
+    long loadSuccessCount;
+
+    /**
+     * The number of loads that threw an exception.
+     */
+    long loadFailureCount;
+
+    /**
+     * The number of entries removed to satisfy the capacity limit.
+     */
+    long evictionCount;
+
+    /**
+     * The number of entries removed because they had expired.
+     */
+    long expirationCount;
+
+    /**
+     * Returns the total number of lookups.
+     * @return the total number of lookups.
+     */
+    public long getRequestCount() {
+        return hitCount + missCount;
+    }
+
+    /**
+     * Returns the fraction of lookups that found a value in the cache.
+     *
+     * @return the fraction of lookups that found a value in the cache,
+     * or {@code 1.0} if there have been no lookups.
+     */
+    public double getHitRate() {
+        var requestCount = getRequestCount();
+        return requestCount == 0 ? 1.0 : (double) hitCount / (double) requestCount;
+    }
+}
@@ -0,0 +1,680 @@
+/*
+ * Copyright (C) 2014-2021 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.collect;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.function.ToLongBiFunction;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * A concurrent in-memory cache with a weight-based capacity, frequency-aware
+ * eviction, single-flight loading, optional expiry, and activity counters.
+ *
+ * <p><b>Concurrency.</b> Entries are stored in a {@code ConcurrentHashMap},
+ * so lookups never acquire a lock.  A lookup records its access by updating
+ * the access time and a small saturating frequency counter of the entry; it
+ * does not reorder any shared structure.  Only a write that pushes the total
+ * weight above the capacity acquires the eviction lock.</p>
+ *
+ * <p><b>Eviction.</b> Entries are queued in insertion order.  When the total
+ * weight exceeds the capacity, the entry at the head of the queue is evicted
+ * if it has not been read since it was last examined; otherwise its frequency
+ * counter is decremented and it is moved to the tail of the queue.  Entries
+ * that are read repeatedly therefore survive several passes of the eviction
+ * queue, while entries that are written once and never read (such as those
+ * loaded by a single scan) are evicted first.</p>
+ *
+ * <p><b>Single-flight loading.</b> When several threads request the same
+ * missing key from {@code getOrAssign()} or {@code getOrCompute()}, exactly
+ * one of them runs the loader; the others wait for its result.  A loader
+ * that throws an exception leaves no entry in the cache, and the exception
+ * is rethrown to every waiting thread.  Loaders for different keys run
+ * concurrently, and the loader runs outside of any lock, so it may safely
+ * access this cache for other keys.</p>
+ *
+ * <p><b>Weights.</b> The capacity is expressed as a maximum total weight.  By
+ * default every entry has unit weight, so the capacity is the maximum number
+ * of entries; a custom weigher may assign weights such as the estimated bytes
+ * of memory occupied by a cached data frame.  Weights are computed once, when
+ * an entry is assigned.</p>
+ *
+ * <p>The capacity is enforced after each write, so the total weight may
+ * briefly exceed the capacity while concurrent writes are in progress.</p>
+ *
+ * <p>Entries that are replaced, invalidated or expired are not removed from
+ * the eviction queue immediately (which would require a linear scan); they
+ * are purged in bulk once they outnumber the live entries, so the queue is
+ * never more than about twice the size of the cache.</p>
+ *
+ * <p><b>Eviction listener.</b> An optional listener is notified of every
+ * entry evicted to enforce the capacity (but not of entries that expire or
+ * are invalidated explicitly), so that evicted values may be written to a
+ * secondary store.  The listener runs on the writing thread after the entry
+ * has been removed and the eviction lock has been released.</p>
+ *
+ * @param <K> the runtime key type.
+ * @param <V> the runtime value type.
+ *
+ * @author Scott Shaffer
+ */
+public final class ConcurrentCache<K, V> implements Cache<K, V> {
+    /**
+     * The maximum total weight of the entries in this cache.
+     */
+    @Getter
+    private final long maximumWeight;
+
+    private final ToLongBiFunction<? super K, ? super V> weigher;
+    private final long expireAfterWriteNanos;
+    private final long expireAfterAccessNanos;
+    private final LongSupplier ticker;
+    private final BiConsumer<? super K, ? super V> evictionListener;
+
+    private final ConcurrentHashMap<K, Node<K, V>> map = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Node<K, V>> queue = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final AtomicLong totalWeight = new AtomicLong();
+    private final AtomicInteger retiredCount = new AtomicInteger();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder loadSuccessCount = new LongAdder();
+    private final LongAdder loadFailureCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder expirationCount = new LongAdder();
+
+    // The frequency counter saturates at this value, so that an entry which
+    // was popular long ago survives at most this many eviction passes...
+    private static final int MAX_FREQUENCY = 3;
+
+    // Retired nodes are purged from the queue only once there are at least
+    // this many of them, so that small caches are not purged on every write...
+    private static final int PURGE_THRESHOLD = 64;
+
+    // A zero duration means that entries never expire...
+    private static final long NEVER = 0L;
+
+    private ConcurrentCache(Builder<K, V> builder) {
+        this.maximumWeight = builder.maximumWeight;
+        this.weigher = builder.weigher;
+        this.expireAfterWriteNanos = builder.expireAfterWriteNanos;
+        this.expireAfterAccessNanos = builder.expireAfterAccessNanos;
+        this.ticker = builder.ticker;
+        this.evictionListener = builder.evictionListener;
+    }
+
+    /**
+     * Creates an empty cache with a maximum number of entries and no expiry.
+     *
+     * @param <K>         the runtime key type.
+     * @param <V>         the runtime value type.
+     * @param maximumSize the maximum number of entries to be held in the cache.
+     *
+     * @return a new empty cache with the specified capacity.
+     *
+     * @throws RuntimeException unless the capacity is positive.
+     */
+    public static <K, V> ConcurrentCache<K, V> create(long maximumSize) {
+        return ConcurrentCache.<K, V>builder().maximumSize(maximumSize).build();
+    }
+
+    /**
+     * Returns a builder for a new cache.
+     *
+     * @param <K> the runtime key type.
+     * @param <V> the runtime value type.
+     *
+     * @return a builder for a new cache, with unlimited capacity and no expiry
+     * until specified otherwise.
+     */
+    public static <K, V> Builder<K, V> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Returns the total weight of the entries in this cache.
+     * @return the total weight of the entries in this cache.
+     */
+    public long getWeight() {
+        return totalWeight.get();
+    }
+
+    /**
+     * Returns a snapshot of the activity counters for this cache.
+     * @return a snapshot of the activity counters for this cache.
+     */
+    public CacheStats stats() {
+        return new CacheStats(
+                hitCount.sum(),
+                missCount.sum(),
+                loadSuccessCount.sum(),
+                loadFailureCount.sum(),
+                evictionCount.sum(),
+                expirationCount.sum());
+    }
+
+    @Override
+    public boolean containsKey(@NonNull K key) {
+        var node = map.get(key);
+        return node != null && node.isLoaded() && !isExpired(node, ticker.getAsLong());
+    }
+
+    @Override
+    public V get(@NonNull K key) {
+        var node = map.get(key);
+
+        if (node != null) {
+            var value = awaitQuietly(node);
+
+            if (value != null && !expireIfNeeded(node)) {
+                recordHit(node);
+                return value;
+            }
+        }
+
+        missCount.increment();
+        return null;
+    }
+
+    /**
+     * Returns the value associated with a key without recording a hit or a
+     * miss, updating the access time, or waiting for a value being loaded.
+     *
+     * @param key the key of the entry to examine.
+     *
+     * @return the loaded, unexpired value associated with the key, or
+     * {@code null} if there is none.
+     */
+    public V peek(@NonNull K key) {
+        var node = map.get(key);
+
+        if (node != null && node.isLoaded() && !isExpired(node, ticker.getAsLong()))
+            return node.future.getNow(null);
+        else
+            return null;
+    }
+
+    @Override
+    public V getOrAssign(@NonNull K targetKey, @NonNull Supplier<V> supplier) {
+        return getOrCompute(targetKey, key -> supplier.get());
+    }
+
+    @Override
+    public V getOrCompute(@NonNull K target, @NonNull Function<K, V> compute) {
+        while (true) {
+            var node = map.get(target);
+
+            if (node != null) {
+                if (!node.isLoaded()) {
+                    // Another thread is loading the value: wait for it...
+                    var value = await(node);
+                    hitCount.increment();
+                    return value;
+                }
+                else if (!expireIfNeeded(node)) {
+                    recordHit(node);
+                    return node.future.getNow(null);
+                }
+            }
+
+            var loading = new Node<K, V>(target);
+
+            if (map.putIfAbsent(target, loading) == null)
+                return load(loading, compute);
+        }
+    }
+
+    private V load(Node<K, V> node, Function<K, V> compute) {
+        missCount.increment();
+        V value;
+
+        try {
+            value = compute.apply(node.key);
+
+            if (value == null)
+                throw new NullPointerException(String.format("Null value computed for key [%s].", node.key));
+        }
+        catch (RuntimeException | Error ex) {
+            map.remove(node.key, node);
+            node.future.completeExceptionally(ex);
+            loadFailureCount.increment();
+            throw ex;
+        }
+
+        loadSuccessCount.increment();
+        node.touch(ticker.getAsLong());
+        node.future.complete(value);
+        activate(node, value);
+        return value;
+    }
+
+    @Override
+    public Set<K> keys() {
+        var keys = new HashSet<K>();
+        var now = ticker.getAsLong();
+
+        for (var node : map.values())
+            if (node.isLoaded() && !isExpired(node, now))
+                keys.add(node.key);
+
+        return Collections.unmodifiableSet(keys);
+    }
+
+    @Override
+    public void put(@NonNull K key, @NonNull V value) {
+        var node = new Node<K, V>(key);
+        node.touch(ticker.getAsLong());
+        node.future.complete(value);
+
+        var prior = map.put(key, node);
+
+        if (prior != null)
+            retire(prior);
+
+        activate(node, value);
+    }
+
+    /**
+     * Removes an entry from this cache.
+     *
+     * @param key the key of the entry to remove.
+     *
+     * @return the value that was associated with the key, or {@code null}
+     * if there was no loaded value.
+     */
+    public V invalidate(@NonNull K key) {
+        var node = map.remove(key);
+
+        if (node == null)
+            return null;
+
+        retire(node);
+        return node.future.getNow(null);
+    }
+
+    /**
+     * Removes all entries from this cache.
+     */
+    public void clear() {
+        for (var key : map.keySet())
+            invalidate(key);
+    }
+
+    /**
+     * Removes all expired entries from this cache; expired entries are also
+     * removed when they are next accessed or examined for eviction.
+     */
+    public void cleanUp() {
+        for (var node : map.values())
+            expireIfNeeded(node);
+    }
+
+    @Override
+    public int size() {
+        var size = 0;
+        var now = ticker.getAsLong();
+
+        for (var node : map.values())
+            if (node.isLoaded() && !isExpired(node, now))
+                ++size;
+
+        return size;
+    }
+
+    @Override
+    public Collection<V> values() {
+        var values = new ArrayList<V>();
+        var now = ticker.getAsLong();
+
+        for (var node : map.values())
+            if (node.isLoaded() && !isExpired(node, now))
+                values.add(node.future.getNow(null));
+
+        return Collections.unmodifiableList(values);
+    }
+
+    private V await(Node<K, V> node) {
+        try {
+            return node.future.join();
+        }
+        catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException)
+                throw (RuntimeException) ex.getCause();
+            else if (ex.getCause() instanceof Error)
+                throw (Error) ex.getCause();
+            else
+                throw ex;
+        }
+    }
+
+    private V awaitQuietly(Node<K, V> node) {
+        try {
+            return await(node);
+        }
+        catch (RuntimeException ex) {
+            return null;
+        }
+    }
+
+    private void recordHit(Node<K, V> node) {
+        hitCount.increment();
+        node.accessTime = ticker.getAsLong();
+
+        // Lost updates from concurrent readers are harmless: the counter
+        // only needs to distinguish entries that are read repeatedly...
+        if (node.frequency < MAX_FREQUENCY)
+            node.frequency++;
+    }
+
+    private void activate(Node<K, V> node, V value) {
+        var weight = weigher.applyAsLong(node.key, value);
+
+        if (weight < 0) {
+            map.remove(node.key, node);
+            retire(node);
+            throw new IllegalStateException(String.format("Negative weight for key [%s].", node.key));
+        }
+
+        if (node.activate(weight)) {
+            totalWeight.addAndGet(weight);
+            queue.add(node);
+            evictIfNeeded();
+        }
+    }
+
+    private void retire(Node<K, V> node) {
+        var weight = node.retire();
+
+        if (weight < 0)
+            return;
+
+        totalWeight.addAndGet(-weight);
+
+        // The node remains in the queue until it is polled or purged...
+        if (retiredCount.incrementAndGet() > Math.max(PURGE_THRESHOLD, map.size()))
+            purgeRetired();
+    }
+
+    private void purgeRetired() {
+        // A purge already in progress, or an eviction pass, will clean up...
+        if (evictionLock.isHeldByCurrentThread() || !evictionLock.tryLock())
+            return;
+
+        try {
+            retiredCount.set(0);
+            queue.removeIf(Node::isRetired);
+        }
+        finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of nodes in the eviction queue, including retired
+     * nodes that have not yet been purged (for testing).
+     */
+    int queueSize() {
+        return queue.size();
+    }
+
+    private boolean isExpired(Node<K, V> node, long now) {
+        if (expireAfterWriteNanos != NEVER && now - node.writeTime >= expireAfterWriteNanos)
+            return true;
+        else
+            return expireAfterAccessNanos != NEVER && now - node.accessTime >= expireAfterAccessNanos;
+    }
+
+    private boolean expireIfNeeded(Node<K, V> node) {
+        if (!node.isLoaded() || !isExpired(node, ticker.getAsLong()))
+            return false;
+
+        if (map.remove(node.key, node)) {
+            retire(node);
+            expirationCount.increment();
+        }
+
+        return true;
+    }
+
+    private void evictIfNeeded() {
+        if (totalWeight.get() <= maximumWeight)
+            return;
+
+        var evicted = new ArrayList<Node<K, V>>();
+        evictionLock.lock();
+
+        try {
+            while (totalWeight.get() > maximumWeight) {
+                var node = queue.poll();
+
+                if (node == null)
+                    break;
+
+                if (node.isRetired() || expireIfNeeded(node)) {
+                    // The retired node has now left the queue...
+                    retiredCount.decrementAndGet();
+                    continue;
+                }
+
+                if (node.frequency > 0) {
+                    // Second chance for entries that have been read...
+                    node.frequency--;
+                    queue.add(node);
+                }
+                else if (map.remove(node.key, node)) {
+                    retire(node);
+                    retiredCount.decrementAndGet();
+                    evictionCount.increment();
+                    evicted.add(node);
+                }
+            }
+        }
+        finally {
+            evictionLock.unlock();
+        }
+
+        if (evictionListener != null)
+            for (var node : evicted)
+                evictionListener.accept(node.key, node.future.getNow(null));
+    }
+
+    private static final class Node<K, V> {
+        private final K key;
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+
+        private volatile long writeTime;
+        private volatile long accessTime;
+        private volatile int frequency;
+
+        // Guarded by the node monitor...
+        private long weight;
+        private boolean active;
+        private boolean retired;
+
+        private Node(K key) {
+            this.key = key;
+        }
+
+        private void touch(long now) {
+            this.writeTime = now;
+            this.accessTime = now;
+        }
+
+        private boolean isLoaded() {
+            return future.isDone() && !future.isCompletedExceptionally();
+        }
+
+        private synchronized boolean isRetired() {
+            return retired;
+        }
+
+        private synchronized boolean activate(long weight) {
+            if (retired)
+                return false;
+
+            this.weight = weight;
+            this.active = true;
+            return true;
+        }
+
+        // Returns the weight of an active node that was retired by this call,
+        // or -1 if the node was already retired or was never activated...
+        private synchronized long retire() {
+            if (retired)
+                return -1L;
+
+            retired = true;
+            return active ? weight : -1L;
+        }
+    }
+
+    /**
+     * Builds concurrent caches.
+     *
+     * @param <K> the runtime key type.
+     * @param <V> the runtime value type.
+     */
+    public static final class Builder<K, V> {
+        private long maximumWeight = Long.MAX_VALUE;
+        private ToLongBiFunction<? super K, ? super V> weigher = (key, value) -> 1L;
+        private long expireAfterWriteNanos = NEVER;
+        private long expireAfterAccessNanos = NEVER;
+        private LongSupplier ticker = System::nanoTime;
+        private BiConsumer<? super K, ? super V> evictionListener = null;
+
+        private Builder() {
+        }
+
+        /**
+         * Limits the number of entries in the cache; every entry has unit weight.
+         *
+         * @param maximumSize the maximum number of entries.
+         *
+         * @return this builder, updated.
+         *
+         * @throws RuntimeException unless the maximum size is positive.
+         */
+        public Builder<K, V> maximumSize(long maximumSize) {
+            return maximumWeight(maximumSize, (key, value) -> 1L);
+        }
+
+        /**
+         * Limits the total weight of the entries in the cache.
+         *
+         * @param maximumWeight the maximum total weight.
+         * @param weigher       computes the (non-negative) weight of each entry.
+         *
+         * @return this builder, updated.
+         *
+         * @throws RuntimeException unless the maximum weight is positive.
+         */
+        public Builder<K, V> maximumWeight(long maximumWeight, @NonNull ToLongBiFunction<? super K, ? super V> weigher) {
+            if (maximumWeight < 1)
+                throw new IllegalArgumentException("Capacity must be positive.");
+
+            this.maximumWeight = maximumWeight;
+            this.weigher = weigher;
+            return this;
+        }
+
+        /**
+         * Expires entries after a fixed duration from their assignment.
+         *
+         * @param duration the lifetime of each entry.
+         *
+         * @return this builder, updated.
+         *
+         * @throws RuntimeException unless the duration is positive.
+         */
+        public Builder<K, V> expireAfterWrite(@NonNull Duration duration) {
+            this.expireAfterWriteNanos = toNanos(duration);
+            return this;
+        }
+
+        /**
+         * Expires entries after a fixed duration from their most recent access.
+         *
+         * @param duration the idle lifetime of each entry.
+         *
+         * @return this builder, updated.
+         *
+         * @throws RuntimeException unless the duration is positive.
+         */
+        public Builder<K, V> expireAfterAccess(@NonNull Duration duration) {
+            this.expireAfterAccessNanos = toNanos(duration);
+            return this;
+        }
+
+        /**
+         * Assigns a listener to be notified of entries evicted to enforce the
+         * capacity of the cache.
+         *
+         * @param listener accepts the key and value of each evicted entry.
+         *
+         * @return this builder, updated.
+         */
+        public Builder<K, V> evictionListener(@NonNull BiConsumer<? super K, ? super V> listener) {
+            this.evictionListener = listener;
+            return this;
+        }
+
+        /**
+         * Assigns the source of time for expiry (for testing).
+         *
+         * @param ticker returns the current time in nanoseconds.
+         *
+         * @return this builder, updated.
+         */
+        Builder<K, V> ticker(@NonNull LongSupplier ticker) {
+            this.ticker = ticker;
+            return this;
+        }
+
+        private static long toNanos(Duration duration) {
+            if (duration.isNegative() || duration.isZero())
+                throw new IllegalArgumentException("Expiry duration must be positive.");
+
+            return duration.toNanos();
+        }
+
+        /**
+         * Creates a new empty cache with the configuration of this builder.
+         * @return a new empty cache.
+         */
+        public ConcurrentCache<K, V> build() {
+            return new ConcurrentCache<>(this);
+        }
+    }
+}
@@ -15,7 +15,12 @@
  */
 package com.d3x.morpheus.collect;
 
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import lombok.NonNull;
 
@@ -25,7 +30,14 @@ import lombok.NonNull;
  * may be assigned at most once.  A second attempt to assign a value
  * to the same key will trigger a runtime exception.
  *
- * <p>This implementation is synchronized and thread-safe.</p>
+ * <p>This implementation is thread-safe and its reads are lock-free:
+ * values are stored in a {@code ConcurrentHashMap}, and because a value
+ * can never be replaced or removed once assigned, no read requires the
+ * read-write lock of the base class.  Missing values are assigned with
+ * {@code computeIfAbsent} semantics, so concurrent callers of
+ * {@code getOrAssign()} and {@code getOrCompute()} for the same key
+ * invoke the supplier or function at most once and all receive the same
+ * value.  The supplier or function must not modify this cache.</p>
  *
  * @param <K> the runtime key type.
  * @param <V> the runtime value type.
@@ -37,7 +49,7 @@ public class WormCache<K, V> extends CacheBase<K, V> {
      * Creates an empty cache.
      */
     public WormCache() {
-        super(new HashMap<>());
+        super(new ConcurrentHashMap<>());
     }
 
     /**
@@ -46,12 +58,53 @@ public class WormCache<K, V> extends CacheBase<K, V> {
      * @param <K> the runtime key type.
      * @param <V> the runtime value type.
      *
-     * @return a new empty cache using a HashMap for the underlying storage.
+     * @return a new empty cache using a ConcurrentHashMap for the underlying storage.
      */
     public static <K, V> WormCache<K, V> create() {
         return new WormCache<>();
     }
 
+    @Override
+    public boolean containsKey(@NonNull K key) {
+        return map.containsKey(key);
+    }
+
+    @Override
+    public V get(@NonNull K key) {
+        return map.get(key);
+    }
+
+    @Override
+    public V getOrAssign(@NonNull K targetKey, @NonNull Supplier<V> supplier) {
+        // Avoid the locking in computeIfAbsent() when the key is present...
+        V result = map.get(targetKey);
+
+        if (result != null)
+            return result;
+        else
+            return map.computeIfAbsent(targetKey, key -> supplier.get());
+    }
+
+    @Override
+    public V getOrCompute(@NonNull K target, @NonNull Function<K, V> compute) {
+        V result = map.get(target);
+
+        if (result != null)
+            return result;
+        else
+            return map.computeIfAbsent(target, compute);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    @Override
+    public Set<K> keys() {
+        return Collections.unmodifiableSet(map.keySet());
+    }
+
     /**
      * Permanently assigns a key/value pair.
      *
@@ -65,13 +118,17 @@ public class WormCache<K, V> extends CacheBase<K, V> {
      */
     @Override
     public void put(@NonNull K key, @NonNull V value) {
-        write(this::putUnique, key, value);
+        if (map.putIfAbsent(key, value) != null)
+            throw new IllegalStateException(String.format("Key [%s] has already been assigned.", key));
     }
 
-    private void putUnique(@NonNull K key, @NonNull V value) {
-        if (map.containsKey(key))
-            throw new IllegalStateException(String.format("Key [%s] has already been assigned.", key));
-        else
-            map.put(key, value);
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public Collection<V> values() {
+        return Collections.unmodifiableCollection(map.values());
     }
 }
@@ -0,0 +1,283 @@
+/*
+ * Copyright (C) 2014-2022 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.conreg;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import com.d3x.morpheus.frame.DataFrame;
+import com.d3x.morpheus.linalg.SVDSolver;
+import com.d3x.morpheus.matrix.D3xMatrix;
+import com.d3x.morpheus.util.MorpheusException;
+import com.d3x.morpheus.vector.D3xVector;
+
+/**
+ * Estimates many constrained regression models that share the same linear
+ * equality constraints, such as the daily cross-sectional regressions in an
+ * asset risk model with sector and country category constraints.
+ *
+ * <p><b>Constraint caching.</b> The constraint coefficient matrix (including
+ * its rank validation) is built once for each distinct list of regressor keys
+ * and shared by every model in the batch with those regressors.</p>
+ *
+ * <p><b>Regressor caching.</b> Models with identical regressors (the same
+ * regressor frame instance, regressor keys, observation keys, and observation
+ * weights) have identical augmented matrices.  The augmented matrix for such
+ * a group is decomposed once, and the effective pseudo-inverse is applied to
+ * the regressand observations of every model in the group, which replaces a
+ * singular value decomposition per model with a matrix-vector product.</p>
+ *
+ * <p><b>Parallel execution.</b> Independent models are solved in parallel by
+ * default; call {@code withParallel(false)} to solve them sequentially.  The
+ * wall-clock time spent on each model in the most recent batch is available
+ * from {@code getSolveTimes()}; the time spent decomposing a shared augmented
+ * matrix is attributed to the first model in its group.</p>
+ *
+ * @param <K> the runtime type of the batch keys (typically dates).
+ * @param <R> the runtime type of the observation keys.
+ * @param <C> the runtime type of the regressor and regressand keys.
+ *
+ * <p>This is open source software released under the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></p>
+ *
+ * @author  Scott Shaffer
+ */
+@lombok.extern.slf4j.Slf4j()
+public final class ConstrainedRegressionBatch<K,R,C> {
+    /** The constraints shared by every model in the batch. */
+    @Getter @NonNull
+    private final RegressionConstraintSet<C> constraintSet;
+
+    /** Whether independent models are solved in parallel. */
+    @Getter
+    private boolean parallel = true;
+
+    // Singular values below this threshold will be treated as if they are exactly
+    // zero; a NaN value will call for the default threshold of the SVD solver...
+    private double singularValueThreshold = Double.NaN;
+
+    // Constraint matrices keyed by the list of regressor keys used to build them...
+    private final Map<List<C>, D3xMatrix> constraintMatrices = new ConcurrentHashMap<>();
+
+    // Wall-clock solve times for each model in the most recent batch...
+    private Map<K, Duration> solveTimes = Collections.emptyMap();
+
+    private ConstrainedRegressionBatch(RegressionConstraintSet<C> constraintSet) {
+        this.constraintSet = constraintSet;
+    }
+
+    /**
+     * Creates a new batch solver for models that share a fixed set of constraints.
+     *
+     * @param constraints the linear equality constraints to apply to every model.
+     *
+     * @return a new batch solver for the specified constraints.
+     *
+     * @throws MorpheusException unless the constraints form a valid constraint set.
+     */
+    public static <K,R,C> ConstrainedRegressionBatch<K,R,C> create(Iterable<RegressionConstraint<C>> constraints) {
+        return new ConstrainedRegressionBatch<>(RegressionConstraintSet.create(constraints));
+    }
+
+    /**
+     * Specifies whether independent models are solved in parallel.
+     *
+     * @param parallel {@code true} to solve models in parallel.
+     *
+     * @return this batch solver, updated.
+     */
+    public ConstrainedRegressionBatch<K,R,C> withParallel(boolean parallel) {
+        this.parallel = parallel;
+        return this;
+    }
+
+    /**
+     * Specifies a singular value threshold for the SVD solution of the constrained
+     * normal equations.
+     *
+     * @param threshold the threshold for singular values.
+     *
+     * @return this batch solver, updated.
+     *
+     * @throws RuntimeException if the threshold is less than the machine tolerance.
+     */
+    public ConstrainedRegressionBatch<K,R,C> withSingularValueThreshold(double threshold) {
+        SVDSolver.validateThreshold(threshold);
+        this.singularValueThreshold = threshold;
+        return this;
+    }
+
+    /**
+     * Returns the wall-clock time spent solving each model in the most recent batch.
+     *
+     * @return the solve time for each model in the most recent batch, in batch order.
+     */
+    public Map<K, Duration> getSolveTimes() {
+        return Collections.unmodifiableMap(solveTimes);
+    }
+
+    /**
+     * Estimates the parameters of every model in a batch.
+     *
+     * @param models the unconstrained regression models to estimate, keyed by date
+     *               or another batch key; the constraints of this batch solver are
+     *               applied to every model.
+     *
+     * @return the regression results, keyed and ordered like the input models.
+     *
+     * @throws MorpheusException if any model defines its own constraints.
+     */
+    public Map<K, ConstrainedRegressionResult<R,C>> solve(@NonNull Map<K, ConstrainedRegressionModel<R,C>> models) {
+        models.forEach(this::validateModel);
+
+        Map<RegressorKey, List<K>> groups = new LinkedHashMap<>();
+
+        for (Map.Entry<K, ConstrainedRegressionModel<R,C>> entry : models.entrySet())
+            groups.computeIfAbsent(new RegressorKey(entry.getValue()), key -> new ArrayList<>()).add(entry.getKey());
+
+        log.info("Solving {} constrained regressions with {} distinct regressor sets...", models.size(), groups.size());
+
+        List<List<K>> groupList = new ArrayList<>(groups.values());
+        Map<K, ConstrainedRegressionResult<R,C>> results = new ConcurrentHashMap<>();
+        Map<K, Duration> elapsed = new ConcurrentHashMap<>();
+
+        IntStream indexes = IntStream.range(0, groupList.size());
+        (parallel ? indexes.parallel() : indexes).forEach(index -> solveGroup(models, groupList.get(index), results, elapsed));
+
+        Map<K, ConstrainedRegressionResult<R,C>> ordered = new LinkedHashMap<>(models.size());
+        Map<K, Duration> times = new LinkedHashMap<>(models.size());
+
+        for (K key : models.keySet()) {
+            ordered.put(key, results.get(key));
+            times.put(key, elapsed.get(key));
+        }
+
+        solveTimes = times;
+        return ordered;
+    }
+
+    private void validateModel(K key, ConstrainedRegressionModel<R,C> model) {
+        if (model.countConstraints() > 0)
+            throw new MorpheusException("Model [%s] defines its own constraints; batch constraints are applied to every model.", key);
+    }
+
+    private void solveGroup(Map<K, ConstrainedRegressionModel<R,C>> models,
+                            List<K> keys,
+                            Map<K, ConstrainedRegressionResult<R,C>> results,
+                            Map<K, Duration> elapsed) {
+        long start = System.nanoTime();
+        K firstKey = keys.get(0);
+        ConstrainedRegressionModel<R,C> firstModel = models.get(firstKey);
+        ConstrainedRegressionSystem<R,C> system = buildSystem(firstModel);
+        SVDSolver solver = buildSolver(system);
+
+        if (keys.size() == 1) {
+            D3xVector solution = solver.solve(system.getAugmentedVector());
+            results.put(firstKey, createResult(system, firstModel, system.getRegressandVector(), solution));
+            elapsed.put(firstKey, Duration.ofNanos(System.nanoTime() - start));
+            return;
+        }
+
+        // The pseudo-inverse maps the stacked observations and constraint
+        // values directly onto the stacked coefficients and dual values...
+        D3xMatrix pseudoInverse = ConstrainedRegressionSolver.computePseudoInverse(solver, system, constraintSet.countConstraints());
+        D3xVector constraintValues = constraintSet.getConstraintValues();
+        long shared = System.nanoTime() - start;
+
+        IntStream indexes = IntStream.range(0, keys.size());
+        (parallel ? indexes.parallel() : indexes).forEach(index -> {
+            long t1 = System.nanoTime();
+            K key = keys.get(index);
+            ConstrainedRegressionModel<R,C> model = models.get(key);
+            D3xVector observations = model.getRegressandSeries().getRequired(model.getObservationKeys());
+            D3xVector solution = pseudoInverse.times(D3xVector.concat(observations, constraintValues));
+            results.put(key, createResult(system, model, observations, solution));
+            long nanos = System.nanoTime() - t1;
+            elapsed.put(key, Duration.ofNanos(index == 0 ? nanos + shared : nanos));
+        });
+    }
+
+    private ConstrainedRegressionSystem<R,C> buildSystem(ConstrainedRegressionModel<R,C> model) {
+        List<C> regressorKeys = model.getRegressorKeys();
+        D3xMatrix constraintMatrix = constraintMatrices.computeIfAbsent(regressorKeys, constraintSet::getConstraintMatrix);
+        return ConstrainedRegressionSystem.build(model, constraintSet, constraintMatrix);
+    }
+
+    private SVDSolver buildSolver(ConstrainedRegressionSystem<R,C> system) {
+        SVDSolver solver = SVDSolver.apache(system.getAugmentedMatrix());
+
+        if (!Double.isNaN(singularValueThreshold))
+            solver.withThreshold(singularValueThreshold);
+
+        return solver;
+    }
+
+    private ConstrainedRegressionResult<R,C> createResult(ConstrainedRegressionSystem<R,C> system,
+                                                          ConstrainedRegressionModel<R,C> model,
+                                                          D3xVector observations,
+                                                          D3xVector solution) {
+        List<String> constraintKeys = constraintSet.getConstraintNames();
+        return ConstrainedRegressionSolver.createResult(model, system.getDesignMatrix(), observations, constraintKeys, solution);
+    }
+
+    /**
+     * Identifies models with identical augmented matrices: the same regressor
+     * frame instance, regressor keys, observation keys, and observation weights.
+     */
+    private static final class RegressorKey {
+        private final DataFrame<?,?> regressorFrame;
+        private final List<?> regressorKeys;
+        private final List<?> observationKeys;
+        private final double[] weights;
+        private final int hashCode;
+
+        private <R,C> RegressorKey(ConstrainedRegressionModel<R,C> model) {
+            this.regressorFrame = model.getRegressorFrame();
+            this.regressorKeys = model.getRegressorKeys();
+            this.observationKeys = model.getObservationKeys();
+            this.weights = D3xVector.copyOf(model.getObservationWeights(), model.getObservationKeys(), 0.0).toArray();
+            this.hashCode = 31 * (31 * System.identityHashCode(regressorFrame) + regressorKeys.hashCode()) + observationKeys.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof RegressorKey))
+                return false;
+
+            var that = (RegressorKey) other;
+
+            return this.regressorFrame == that.regressorFrame
+                && this.regressorKeys.equals(that.regressorKeys)
+                && this.observationKeys.equals(that.observationKeys)
+                && Arrays.equals(this.weights, that.weights);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -15,6 +15,8 @@
  */
 package com.d3x.morpheus.conreg;
 
+import java.util.List;
+
 import lombok.Getter;
 import lombok.NonNull;
 
@@ -131,17 +133,37 @@ public final class ConstrainedRegressionSolver<R,C> {
      * model given the observation set.
      */
     public ConstrainedRegressionResult<R,C> solve() {
-        int N = regressionModel.countRegressors();
-        int P = regressionModel.countConstraints();
-
         D3xVector solution = solver.get().solve(system.get().getAugmentedVector());
+        D3xMatrix designMatrix = system.get().getDesignMatrix();
+        D3xVector observations = system.get().getRegressandVector();
+        return createResult(regressionModel, designMatrix, observations, regressionModel.getConstraintKeys(), solution);
+    }
+
+    /**
+     * Assembles the result of a constrained regression from the solution of the
+     * augmented linear system.
+     *
+     * @param regressionModel the regression model that was estimated.
+     * @param designMatrix    the design matrix of the regression model.
+     * @param observations    the vector of regressand observations.
+     * @param constraintKeys  the names of the constraints in the system.
+     * @param solution        the {@code (N + P) x 1} solution vector, containing the
+     *                        regression coefficients stacked over the dual values.
+     *
+     * @return the regression result for the specified solution.
+     */
+    static <R,C> ConstrainedRegressionResult<R,C> createResult(ConstrainedRegressionModel<R,C> regressionModel,
+                                                               D3xMatrix designMatrix,
+                                                               D3xVector observations,
+                                                               List<String> constraintKeys,
+                                                               D3xVector solution) {
+        int N = regressionModel.countRegressors();
+        int P = constraintKeys.size();
         assert solution.length() == (N + P);
 
         D3xVector betaVector = solution.getSubVector(0, N);
         D3xVector dualVector = solution.getSubVector(N, P);
 
-        D3xMatrix designMatrix = system.get().getDesignMatrix();
-        D3xVector observations = system.get().getRegressandVector();
         D3xVector fittedVector = designMatrix.times(betaVector);
         D3xVector residualVector = observations.minus(fittedVector);
 
@@ -149,7 +171,7 @@ public final class ConstrainedRegressionSolver<R,C> {
         Class<C> colClass = regressionModel.getRegressorClass();
 
         DoubleSeries<C> betaSeries = DoubleSeries.build(colClass, regressionModel.getRegressorKeys(), betaVector);
-        DoubleSeries<String> dualSeries = DoubleSeries.build(String.class, regressionModel.getConstraintKeys(), dualVector);
+        DoubleSeries<String> dualSeries = DoubleSeries.build(String.class, constraintKeys, dualVector);
 
         DoubleSeries<R> fittedSeries = DoubleSeries.build(rowClass, regressionModel.getObservationKeys(), fittedVector);
         DoubleSeries<R> residualSeries = DoubleSeries.build(rowClass, regressionModel.getObservationKeys(), residualVector);
@@ -177,19 +199,32 @@ public final class ConstrainedRegressionSolver<R,C> {
      * system.
      */
     public D3xMatrix computePseudoInverse() {
-        D3xMatrix augInv = solver.get().invert();
-        D3xMatrix blockR = buildPseudoInverseRightBlock();
+        return computePseudoInverse(solver.get(), system.get(), regressionModel.countConstraints());
+    }
+
+    /**
+     * Computes the effective pseudo-inverse for an augmented linear system that
+     * has already been decomposed.
+     *
+     * @param solver the SVD solver for the augmented matrix of the system.
+     * @param system the augmented linear system.
+     * @param P      the number of constraints in the system.
+     *
+     * @return the effective pseudo-inverse for the constrained regression system.
+     */
+    static <R,C> D3xMatrix computePseudoInverse(SVDSolver solver, ConstrainedRegressionSystem<R,C> system, int P) {
+        D3xMatrix augInv = solver.invert();
+        D3xMatrix blockR = buildPseudoInverseRightBlock(system, P);
 
         return augInv.times(blockR);
     }
 
-    private D3xMatrix buildPseudoInverseRightBlock() {
-        int M = regressionModel.countObservations();
-        int N = regressionModel.countRegressors();
-        int P = regressionModel.countConstraints();
+    private static <R,C> D3xMatrix buildPseudoInverseRightBlock(ConstrainedRegressionSystem<R,C> system, int P) {
+        int M = system.getRegressionModel().countObservations();
+        int N = system.getRegressionModel().countRegressors();
 
         D3xMatrix blockR = D3xMatrix.dense(N + P, M + P);
-        blockR.setSubMatrix(0, 0, system.get().getTwoATW());
+        blockR.setSubMatrix(0, 0, system.getTwoATW());
 
         if (P > 0)
             blockR.setSubMatrix(N, M, D3xMatrix.identity(P));
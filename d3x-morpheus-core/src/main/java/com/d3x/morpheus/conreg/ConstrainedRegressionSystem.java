@@ -126,8 +126,23 @@ public final class ConstrainedRegressionSystem<R,C> {
     @Getter(AccessLevel.PACKAGE) @NonNull
     private final D3xMatrix twoATW;
 
+    // The constraint set and its coefficient matrix for the regressor keys,
+    // which may be shared by many systems with the same constraint structure...
+    private final RegressionConstraintSet<C> constraintSet;
+    private final D3xMatrix constraintMatrix;
+
     private ConstrainedRegressionSystem(ConstrainedRegressionModel<R,C> regressionModel) {
+        this(regressionModel,
+             regressionModel.getConstraintSet(),
+             regressionModel.getConstraintSet().getConstraintMatrix(regressionModel.getRegressorKeys()));
+    }
+
+    private ConstrainedRegressionSystem(ConstrainedRegressionModel<R,C> regressionModel,
+                                        RegressionConstraintSet<C> constraintSet,
+                                        D3xMatrix constraintMatrix) {
         this.regressionModel = regressionModel;
+        this.constraintSet = constraintSet;
+        this.constraintMatrix = constraintMatrix;
 
         this.regressorKeys = regressionModel.getRegressorKeys();
         this.observationKeys = regressionModel.getObservationKeys();
@@ -189,7 +204,7 @@ public final class ConstrainedRegressionSystem<R,C> {
         //    +-            -+
         //
         D3xMatrix A = designMatrix;
-        D3xMatrix C = regressionModel.getConstraintSet().getConstraintMatrix(regressorKeys);
+        D3xMatrix C = constraintMatrix;
 
         if (C.isEmpty())
             return twoATW.times(A);
@@ -220,7 +235,7 @@ public final class ConstrainedRegressionSystem<R,C> {
         //
         D3xMatrix A = designMatrix;
         D3xVector b = regressandVector;
-        D3xVector d = regressionModel.getConstraintSet().getConstraintValues();
+        D3xVector d = constraintSet.getConstraintValues();
         D3xVector twoATWb = twoATW.times(b);
 
         if (d.isEmpty())
@@ -246,4 +261,22 @@ public final class ConstrainedRegressionSystem<R,C> {
     public static <R,C> ConstrainedRegressionSystem<R,C> build(ConstrainedRegressionModel<R,C> regressionModel) {
         return new ConstrainedRegressionSystem<>(regressionModel);
     }
+
+    /**
+     * Creates a new augmented linear system for a regression model using a shared
+     * constraint set and a constraint matrix that has already been built for the
+     * regressor keys of the model, so that the rank validation of the constraint
+     * matrix is not repeated for every model with the same constraint structure.
+     *
+     * @param regressionModel  the regression model to estimate.
+     * @param constraintSet    the constraints to apply to the model.
+     * @param constraintMatrix the constraint matrix for the regressor keys of the model.
+     *
+     * @return a new augmented linear system for the specified model and constraints.
+     */
+    static <R,C> ConstrainedRegressionSystem<R,C> build(ConstrainedRegressionModel<R,C> regressionModel,
+                                                        RegressionConstraintSet<C> constraintSet,
+                                                        D3xMatrix constraintMatrix) {
+        return new ConstrainedRegressionSystem<>(regressionModel, constraintSet, constraintMatrix);
+    }
 }
@@ -24,6 +24,7 @@ import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
+import com.d3x.morpheus.array.ArrayType;
 import com.d3x.morpheus.frame.DataFrame;
 import com.d3x.morpheus.util.Predicates;
 import com.d3x.morpheus.util.functions.ObjectIntBiFunction;
@@ -165,19 +166,54 @@ public interface CsvSource {
 
         /**
          * Applies the column type for the name specified
+         * <p>A compact type of Float, Short or Byte stores the column in reduced precision, where values are parsed
+         * as doubles or ints respectively, and narrowed as they are added to the column array.</p>
          * @param colNameRegex  the column name, which can be a regular expression
          * @param type          the column data type
          */
         public void setColumnType(String colNameRegex, Class<?> type) {
             this.colTypeMap.put(colNameRegex, type);
             if (formats != null && formats.getParser(colNameRegex) == null) {
-                var parser = formats.getParser(type);
+                var parser = formats.getParser(parseType(type));
                 if (parser != null) {
                     this.formats.setParser(colNameRegex, parser);
                 }
             }
         }
 
+        /**
+         * Returns the column type for the name specified, if one was applied
+         * @param colName   the column name
+         * @return          the optional column type
+         */
+        Optional<Class<?>> getColumnType(String colName) {
+            var type = colTypeMap.get(colName);
+            if (type != null) {
+                return Optional.of(type);
+            } else {
+                for (var entry : colTypeMap.entrySet()) {
+                    if (colName.matches(entry.getKey())) {
+                        return Optional.of(entry.getValue());
+                    }
+                }
+                return Optional.empty();
+            }
+        }
+
+        /**
+         * Returns the type to parse values as for the column type specified, which is wider for compact types
+         * @param type  the column data type
+         * @return      the type to parse values as
+         */
+        private static Class<?> parseType(Class<?> type) {
+            switch (ArrayType.of(type)) {
+                case FLOAT:     return Double.class;
+                case SHORT:     return Integer.class;
+                case BYTE:      return Integer.class;
+                default:        return type;
+            }
+        }
+
         /**
          * Returns the parser for the column name
          * @param colName   the column name
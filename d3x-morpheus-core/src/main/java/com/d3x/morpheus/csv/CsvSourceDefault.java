@@ -191,7 +191,8 @@ public class CsvSourceDefault implements CsvSource {
                     } else if (parser == null) {
                         parser = options.getParser(colName).orElse(null);
                     }
-                    var column = new CsvColumn(colName, colIndex, capacity, buffer, formats, parser);
+                    var storage = options.getColumnType(colName).filter(t -> ArrayType.of(t).isCompact()).orElse(null);
+                    var column = new CsvColumn(colName, colIndex, capacity, buffer, formats, parser, storage);
                     this.columns.add(column);
                 }
             }
@@ -304,16 +305,21 @@ public class CsvSourceDefault implements CsvSource {
          * @param capacity      the initial capacity
          * @param bufferSize    the buffer size
          * @param parser        the optional parser for column, otherwise auto resolve from contents
+         * @param storage       the optional compact type to store parsed values as, null to use the parser type
          */
         @SuppressWarnings("unchecked")
-        CsvColumn(String name, int index, int capacity, int bufferSize, Formats formats, Parser<?> parser) {
+        CsvColumn(String name, int index, int capacity, int bufferSize, Formats formats, Parser<?> parser, Class<?> storage) {
             this.index = index;
             this.name = name;
             this.bufferSize = bufferSize;
             this.formats = formats;
             this.parser = parser;
             this.buffer = new ArrayList<>(bufferSize);
-            this.array = parser == null ? ArrayBuilder.of(capacity) : (ArrayBuilder<Object>)ArrayBuilder.of(capacity, parser.getType());
+            if (parser == null) {
+                this.array = ArrayBuilder.of(capacity);
+            } else {
+                this.array = (ArrayBuilder<Object>)ArrayBuilder.of(capacity, storage != null ? storage : parser.getType());
+            }
         }
 
 
@@ -358,8 +364,8 @@ public class CsvSourceDefault implements CsvSource {
                 var dataType = ArrayType.of(parser.getType());
                 switch (dataType) {
                     case BOOLEAN:   buffer.forEach(v -> array.appendBoolean(parser.applyAsBoolean(v)));    break;
-                    case INTEGER:   buffer.forEach(v -> array.appendInt(parser.applyAsInt(v)));            break;
-                    case LONG:      buffer.forEach(v -> array.appendLong(parser.applyAsLong(v)));          break;
+                    case INTEGER:   buffer.forEach(v -> { if (isNull(v)) array.append(null); else array.appendInt(parser.applyAsInt(v)); });    break;
+                    case LONG:      buffer.forEach(v -> { if (isNull(v)) array.append(null); else array.appendLong(parser.applyAsLong(v)); });  break;
                     case DOUBLE:    buffer.forEach(v -> array.appendDouble(parser.applyAsDouble(v)));      break;
                     default:        buffer.forEach(v -> array.append(parser.apply(v)));                    break;
                 }
@@ -368,6 +374,15 @@ public class CsvSourceDefault implements CsvSource {
             }
         }
 
+        /**
+         * Returns true if the raw value represents a missing value according to the column parser
+         * @param value     the raw value from the CSV stream
+         * @return          true if the value is null
+         */
+        private boolean isNull(String value) {
+            return parser.getNullChecker().applyAsBoolean(value);
+        }
+
         @Override
         public String toString() {
             return String.format("Column: %s @ %s", name, index);
@@ -137,6 +137,28 @@ public class KernelDensityDistribution extends AbstractRealDistribution {
         return D3xVectorView.of(sample);
     }
 
+    /**
+     * Returns a binned approximation of this density estimate with constant-time
+     * evaluation of the PDF and CDF and the default grid resolution.
+     *
+     * @return a binned approximation of this density estimate.
+     */
+    public BinnedKernelDensityDistribution binned() {
+        return BinnedKernelDensityDistribution.create(this);
+    }
+
+    /**
+     * Returns a binned approximation of this density estimate with constant-time
+     * evaluation of the PDF and CDF.
+     *
+     * @param pointsPerBandwidth the number of grid points within one kernel bandwidth.
+     *
+     * @return a binned approximation of this density estimate.
+     */
+    public BinnedKernelDensityDistribution binned(int pointsPerBandwidth) {
+        return BinnedKernelDensityDistribution.create(this, pointsPerBandwidth);
+    }
+
     @Override
     public double cdf(double x) {
         return invN * sum(x, kernelFunc::cdf);
@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2014-2021 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.filter;
+
+import com.d3x.morpheus.util.MorpheusException;
+
+import lombok.Getter;
+
+/**
+ * Implements double-exponential (Holt linear trend) smoothing as a recursive
+ * filter with {@code O(1)} updates.
+ *
+ * <p>The filter maintains a smoothed level {@code L} and trend {@code T}.
+ * The first observation initializes the level, the second initializes the
+ * trend as the first difference, and each subsequent observation {@code x}
+ * updates the state as follows:
+ * <pre>
+ *     L' = alpha * x + (1 - alpha) * (L + T)
+ *     T' = beta * (L' - L) + (1 - beta) * T
+ * </pre>
+ * The filtered value is the smoothed level.  A missing observation advances
+ * the level along the current trend without changing the trend.</p>
+ *
+ * @author Scott Shaffer
+ */
+public final class DoubleExponentialFilter implements RecursiveFilter {
+    /**
+     * The smoothing factor for the level.
+     */
+    @Getter
+    private final double alpha;
+
+    /**
+     * The smoothing factor for the trend.
+     */
+    @Getter
+    private final double beta;
+
+    @Getter
+    private int count = 0;
+
+    private double level = Double.NaN;
+    private double trend = 0.0;
+
+    /**
+     * The filter name for string encoding.
+     */
+    public static final String NAME = "holt";
+
+    /**
+     * Creates a double-exponential smoothing filter.
+     *
+     * @param alpha the smoothing factor for the level.
+     * @param beta  the smoothing factor for the trend.
+     *
+     * @throws RuntimeException unless both smoothing factors are in the
+     * range {@code (0, 1]}.
+     */
+    public DoubleExponentialFilter(double alpha, double beta) {
+        validateFactor(alpha);
+        validateFactor(beta);
+        this.alpha = alpha;
+        this.beta = beta;
+    }
+
+    private static void validateFactor(double factor) {
+        if (!(factor > 0.0 && factor <= 1.0))
+            throw new MorpheusException("Smoothing factors must be in the range (0, 1].");
+    }
+
+    /**
+     * Returns the smoothed trend (the expected change per time step).
+     *
+     * @return the smoothed trend ({@code NaN} until the filter has received
+     * at least two observations).
+     */
+    public double getTrend() {
+        return count > 1 ? trend : Double.NaN;
+    }
+
+    /**
+     * Forecasts the value of the time series a given number of steps ahead.
+     *
+     * @param steps the number of time steps in the forecast horizon.
+     *
+     * @return the forecast {@code L + steps * T}.
+     */
+    public double forecast(int steps) {
+        if (count > 1)
+            return level + steps * trend;
+        else
+            return level;
+    }
+
+    @Override
+    public double update(double value) {
+        if (Double.isNaN(value)) {
+            if (count > 1)
+                level += trend;
+        }
+        else if (count == 0) {
+            level = value;
+            ++count;
+        }
+        else if (count == 1) {
+            trend = value - level;
+            level = value;
+            ++count;
+        }
+        else {
+            var prevLevel = level;
+            level = alpha * value + (1.0 - alpha) * (level + trend);
+            trend = beta * (level - prevLevel) + (1.0 - beta) * trend;
+            ++count;
+        }
+
+        return getValue();
+    }
+
+    @Override
+    public double getValue() {
+        return level;
+    }
+
+    @Override
+    public void reset() {
+        count = 0;
+        level = Double.NaN;
+        trend = 0.0;
+    }
+
+    @Override
+    public DoubleExponentialFilter copy() {
+        return new DoubleExponentialFilter(alpha, beta);
+    }
+
+    @Override
+    public String encode() {
+        return String.format("%s(%s%c %s)", NAME, alpha, FilterParser.ARG_DELIM, beta);
+    }
+
+    @Override
+    public String toString() {
+        return encode();
+    }
+}
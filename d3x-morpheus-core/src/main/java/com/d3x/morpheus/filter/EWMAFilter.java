@@ -83,6 +83,21 @@ public class EWMAFilter extends CustomFilter {
         return Math.exp(lagIndex * LOG_ONE_HALF / halfLife);
     }
 
+    /**
+     * Computes the factor by which observation weights decay with each
+     * additional time lag.
+     *
+     * @param halfLife the half-life of the moving average.
+     *
+     * @return the decay factor {@code 0.5^(1 / halfLife)}.
+     *
+     * @throws RuntimeException unless the half-life is positive.
+     */
+    public static double computeDecay(double halfLife) {
+        validateHalfLife(halfLife);
+        return computeWeight(halfLife, 1);
+    }
+
     /**
      * Ensures that a half-life is positive.
      *
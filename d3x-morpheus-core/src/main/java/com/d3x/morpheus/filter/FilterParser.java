@@ -23,7 +23,7 @@ import com.d3x.morpheus.vector.D3xVectorView;
 import lombok.Getter;
 
 /**
- * Parses strings that encode time-series filters.
+ * Parses strings that encode time-series filters or recursive filters.
  *
  * @author Scott Shaffer
  */
@@ -63,6 +63,16 @@ public final class FilterParser {
         return build();
     }
 
+    /**
+     * Parses the encoded string as a recursive filter.
+     *
+     * @return the recursive filter encoded by the string.
+     */
+    public RecursiveFilter parseRecursive() {
+        match();
+        return buildRecursive();
+    }
+
     private void match() {
         var matcher = FILTER_PATTERN.matcher(encoded.strip());
 
@@ -87,6 +97,16 @@ public final class FilterParser {
         };
     }
 
+    private RecursiveFilter buildRecursive() {
+        return switch (filterName) {
+            case DoubleExponentialFilter.NAME -> parseDoubleExponential();
+            case RecursiveEWMAFilter.NAME -> RecursiveFilter.EWMA(parseHalfLife());
+            case RecursiveVarianceFilter.VARIANCE_NAME -> RecursiveFilter.variance(parseHalfLife());
+            case RecursiveVarianceFilter.VOLATILITY_NAME -> RecursiveFilter.volatility(parseHalfLife());
+            default -> throw new MorpheusException("Unknown recursive filter name: [%s].", filterName);
+        };
+    }
+
     private RuntimeException invalidException() {
         return new MorpheusException("Invalid time-series filter: [%s].", encoded);
     }
@@ -136,6 +156,22 @@ public final class FilterParser {
         return new MovingAverageFilter(window);
     }
 
+    private double parseHalfLife() {
+        if (filterArgs.length != 1)
+            throw invalidException();
+
+        return parseDouble(filterArgs[0]);
+    }
+
+    private RecursiveFilter parseDoubleExponential() {
+        if (filterArgs.length != 2)
+            throw invalidException();
+
+        var alpha = parseDouble(filterArgs[0]);
+        var beta = parseDouble(filterArgs[1]);
+        return RecursiveFilter.doubleExponential(alpha, beta);
+    }
+
     private double parseDouble(String str) {
         str = str.strip();
 
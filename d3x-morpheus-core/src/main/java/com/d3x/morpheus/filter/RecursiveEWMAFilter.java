@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2014-2021 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.filter;
+
+import lombok.Getter;
+
+/**
+ * Implements an exponentially-weighted moving average as a recursive
+ * filter with {@code O(1)} updates.
+ *
+ * <p>The filtered value is the normalized, exponentially-weighted average
+ * of every observation received by the filter, which is the limit of the
+ * convolution filter {@link EWMAFilter} as its window length increases
+ * without bound.  The filter maintains the decayed sums of the weighted
+ * observations and of the weights themselves, so the average is properly
+ * normalized from the first observation onward.</p>
+ *
+ * @author Scott Shaffer
+ */
+public final class RecursiveEWMAFilter implements RecursiveFilter {
+    /**
+     * The half-life for the exponential decay of the observation weights.
+     */
+    @Getter
+    private final double halfLife;
+
+    /**
+     * The factor by which the observation weights decay with each time step.
+     */
+    @Getter
+    private final double decay;
+
+    @Getter
+    private int count = 0;
+
+    private double weightSum = 0.0;
+    private double valueSum = 0.0;
+
+    /**
+     * The filter name for string encoding.
+     */
+    public static final String NAME = "recursive_ewma";
+
+    /**
+     * Creates a recursive exponentially-weighted moving average filter.
+     *
+     * @param halfLife the half-life for the exponential decay of the
+     *                 observation weights.
+     *
+     * @throws RuntimeException unless the half-life is positive.
+     */
+    public RecursiveEWMAFilter(double halfLife) {
+        this.halfLife = halfLife;
+        this.decay = EWMAFilter.computeDecay(halfLife);
+    }
+
+    @Override
+    public double update(double value) {
+        weightSum *= decay;
+        valueSum *= decay;
+
+        if (!Double.isNaN(value)) {
+            weightSum += 1.0;
+            valueSum += value;
+            ++count;
+        }
+
+        return getValue();
+    }
+
+    @Override
+    public double getValue() {
+        if (count > 0)
+            return valueSum / weightSum;
+        else
+            return Double.NaN;
+    }
+
+    @Override
+    public void reset() {
+        count = 0;
+        weightSum = 0.0;
+        valueSum = 0.0;
+    }
+
+    @Override
+    public RecursiveEWMAFilter copy() {
+        return new RecursiveEWMAFilter(halfLife);
+    }
+
+    @Override
+    public String encode() {
+        return String.format("%s(%s)", NAME, halfLife);
+    }
+
+    @Override
+    public String toString() {
+        return encode();
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright (C) 2014-2022 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.filter;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import com.d3x.morpheus.frame.DataFrame;
+import com.d3x.morpheus.vector.D3xVector;
+import com.d3x.morpheus.vector.D3xVectorView;
+
+import lombok.NonNull;
+
+/**
+ * Defines one-sided, backward-looking recursive (infinite impulse response)
+ * filters for univariate time series.
+ *
+ * <p><b>Recursive updates.</b> Unlike the convolution filters defined by
+ * the {@link TimeSeriesFilter} interface, which require {@code O(W)} work
+ * for each observation in a window of length {@code W}, recursive filters
+ * summarize the entire history of the time series in a fixed number of
+ * state variables and update that state in {@code O(1)} operations for
+ * each new observation.</p>
+ *
+ * <p><b>Streaming state.</b> Recursive filters are stateful: each call to
+ * {@code update()} or {@code apply()} continues from the state left by the
+ * previous call, so live observations may be appended to a filtered series
+ * without reprocessing its history.  Call {@code reset()} to discard the
+ * state or {@code copy()} to create a filter with the same parameters and
+ * an empty state.  Recursive filters are not thread-safe; each time series
+ * requires its own filter instance.</p>
+ *
+ * <p><b>Missing values.</b> Missing ({@code NaN}) observations do not
+ * contribute to the filter state, but time continues to elapse, so the
+ * weights of earlier observations continue to decay.</p>
+ *
+ * @author Scott Shaffer
+ */
+public interface RecursiveFilter {
+    /**
+     * Updates the filter state with the next observation in the time series.
+     *
+     * @param value the next observation ({@code NaN} for a missing value).
+     *
+     * @return the filtered value after the update.
+     */
+    double update(double value);
+
+    /**
+     * Returns the current filtered value.
+     *
+     * @return the current filtered value ({@code NaN} until the filter
+     * has received enough observations to define its output).
+     */
+    double getValue();
+
+    /**
+     * Returns the number of (non-missing) observations in the filter state.
+     * @return the number of (non-missing) observations in the filter state.
+     */
+    int getCount();
+
+    /**
+     * Discards the state of this filter.
+     */
+    void reset();
+
+    /**
+     * Creates a new filter with the same parameters as this filter and an
+     * empty state.
+     *
+     * @return a new filter with the same parameters and an empty state.
+     */
+    RecursiveFilter copy();
+
+    /**
+     * Encodes this filter in a string that may be parsed by the
+     * {@link #parse(String)} method.
+     *
+     * @return a string encoding of this filter.
+     */
+    String encode();
+
+    /**
+     * Applies this filter to a univariate time series and returns the result
+     * in a new vector; the original series is unchanged and the filter state
+     * is updated with every observation in the series.
+     *
+     * @param original the next observations in the time series (unchanged).
+     *
+     * @return the filtered time series in a new vector object.
+     */
+    default D3xVector apply(@NonNull D3xVectorView original) {
+        var filtered = D3xVector.dense(original.length());
+        applyInPlace(this, original, filtered);
+        return filtered;
+    }
+
+    /**
+     * Applies a fresh copy of this filter to each column of a data frame and
+     * returns the result in a new data frame of the same shape; the original
+     * data frame and the state of this filter are unchanged.  The columns are
+     * filtered in parallel if the original data frame is parallel.
+     *
+     * @param original a data frame containing a multivariate time series
+     *                 organized by column, with rows ordered by time (unchanged).
+     *
+     * @return the filtered time series in a new data frame.
+     */
+    default <R,C> DataFrame<R,C> bycol(@NonNull DataFrame<R,C> original) {
+        return bycol(original, new HashMap<>());
+    }
+
+    /**
+     * Applies this filter to each column of a data frame, continuing from
+     * the filter state for each column, and returns the result in a new data
+     * frame of the same shape.  The columns are filtered in parallel if the
+     * original data frame is parallel.
+     *
+     * <p>Filters for columns that are not present in the state map are copied
+     * from this filter (with an empty state) and added to the map, so the same
+     * map may be passed with each new block of rows to stream a multivariate
+     * time series through the filter.</p>
+     *
+     * @param original a data frame containing the next observations in a
+     *                 multivariate time series organized by column, with
+     *                 rows ordered by time (unchanged).
+     * @param state    the filter for each column, updated in place.
+     *
+     * @return the filtered time series in a new data frame.
+     */
+    default <R,C> DataFrame<R,C> bycol(@NonNull DataFrame<R,C> original, @NonNull Map<C, RecursiveFilter> state) {
+        var colKeys = original.listColumnKeys();
+        var filtered = DataFrame.ofDoubles(original.listRowKeys(), colKeys);
+
+        // Populate the state map before the (possibly parallel) updates...
+        var filters = new RecursiveFilter[colKeys.size()];
+
+        for (int colIndex = 0; colIndex < filters.length; ++colIndex)
+            filters[colIndex] = state.computeIfAbsent(colKeys.get(colIndex), key -> copy());
+
+        var colIndexes = IntStream.range(0, filters.length);
+
+        (original.isParallel() ? colIndexes.parallel() : colIndexes).forEach(colIndex -> {
+            var originalCol = D3xVector.wrap(original.colAt(colIndex));
+            var filteredCol = D3xVector.wrap(filtered.colAt(colIndex));
+            applyInPlace(filters[colIndex], originalCol, filteredCol);
+        });
+
+        return filtered;
+    }
+
+    private static void applyInPlace(RecursiveFilter filter, D3xVectorView original, D3xVector filtered) {
+        for (int index = 0; index < original.length(); ++index)
+            filtered.set(index, filter.update(original.get(index)));
+    }
+
+    /**
+     * Returns a recursive exponentially-weighted moving-average filter.
+     *
+     * @param halfLife the half-life for the exponential weight decay.
+     *
+     * @return a recursive EWMA filter with the specified half-life.
+     *
+     * @throws RuntimeException unless the half-life is positive.
+     */
+    static RecursiveFilter EWMA(double halfLife) {
+        return new RecursiveEWMAFilter(halfLife);
+    }
+
+    /**
+     * Returns a recursive exponentially-weighted variance filter.
+     *
+     * @param halfLife the half-life for the exponential weight decay.
+     *
+     * @return a recursive exponentially-weighted variance filter with the
+     * specified half-life.
+     *
+     * @throws RuntimeException unless the half-life is positive.
+     */
+    static RecursiveFilter variance(double halfLife) {
+        return new RecursiveVarianceFilter(halfLife, false);
+    }
+
+    /**
+     * Returns a recursive exponentially-weighted volatility (standard deviation)
+     * filter.
+     *
+     * @param halfLife the half-life for the exponential weight decay.
+     *
+     * @return a recursive exponentially-weighted volatility filter with the
+     * specified half-life.
+     *
+     * @throws RuntimeException unless the half-life is positive.
+     */
+    static RecursiveFilter volatility(double halfLife) {
+        return new RecursiveVarianceFilter(halfLife, true);
+    }
+
+    /**
+     * Returns a double-exponential (Holt linear trend) smoothing filter.
+     *
+     * @param alpha the smoothing factor for the level, in the range {@code (0, 1]}.
+     * @param beta  the smoothing factor for the trend, in the range {@code (0, 1]}.
+     *
+     * @return a double-exponential smoothing filter with the specified factors.
+     *
+     * @throws RuntimeException unless the smoothing factors are valid.
+     */
+    static RecursiveFilter doubleExponential(double alpha, double beta) {
+        return new DoubleExponentialFilter(alpha, beta);
+    }
+
+    /**
+     * Parses a string containing an encoded recursive filter.
+     *
+     * @param encoded the encoded string.
+     *
+     * @return the recursive filter encoded in the given string.
+     *
+     * @throws RuntimeException unless the string contains a properly
+     * formatted recursive filter.
+     */
+    static RecursiveFilter parse(@NonNull String encoded) {
+        var parser = new FilterParser(encoded);
+        return parser.parseRecursive();
+    }
+}
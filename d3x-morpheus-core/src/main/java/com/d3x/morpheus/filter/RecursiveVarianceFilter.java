@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2014-2021 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.filter;
+
+import lombok.Getter;
+
+/**
+ * Implements an exponentially-weighted variance or volatility (standard
+ * deviation) estimator as a recursive filter with {@code O(1)} updates.
+ *
+ * <p>The filter applies the weighted incremental algorithm of West (1979)
+ * with exponentially decaying weights: the weighted mean and the weighted
+ * sum of squared deviations from the mean are updated together, which
+ * avoids the catastrophic cancellation of the naive difference between the
+ * average squared value and the squared average value.  The filtered value
+ * is the weighted population variance (or its square root) of every
+ * observation received by the filter; it is {@code NaN} until the filter
+ * has received at least two observations.</p>
+ *
+ * @author Scott Shaffer
+ */
+public final class RecursiveVarianceFilter implements RecursiveFilter {
+    /**
+     * The half-life for the exponential decay of the observation weights.
+     */
+    @Getter
+    private final double halfLife;
+
+    /**
+     * The factor by which the observation weights decay with each time step.
+     */
+    @Getter
+    private final double decay;
+
+    /**
+     * Whether the filtered value is the volatility (standard deviation)
+     * rather than the variance.
+     */
+    @Getter
+    private final boolean volatility;
+
+    @Getter
+    private int count = 0;
+
+    private double weightSum = 0.0;
+    private double mean = 0.0;
+    private double sumSquares = 0.0;
+
+    /**
+     * The filter name for string encoding of variance filters.
+     */
+    public static final String VARIANCE_NAME = "recursive_variance";
+
+    /**
+     * The filter name for string encoding of volatility filters.
+     */
+    public static final String VOLATILITY_NAME = "recursive_volatility";
+
+    /**
+     * Creates a recursive exponentially-weighted variance filter.
+     *
+     * @param halfLife   the half-life for the exponential decay of the
+     *                   observation weights.
+     * @param volatility {@code true} to compute the volatility (standard
+     *                   deviation), {@code false} for the variance.
+     *
+     * @throws RuntimeException unless the half-life is positive.
+     */
+    public RecursiveVarianceFilter(double halfLife, boolean volatility) {
+        this.halfLife = halfLife;
+        this.volatility = volatility;
+        this.decay = EWMAFilter.computeDecay(halfLife);
+    }
+
+    /**
+     * Returns the exponentially-weighted mean of the observations.
+     *
+     * @return the exponentially-weighted mean of the observations
+     * ({@code NaN} if the filter has not received any observations).
+     */
+    public double getMean() {
+        return count > 0 ? mean : Double.NaN;
+    }
+
+    @Override
+    public double update(double value) {
+        weightSum *= decay;
+        sumSquares *= decay;
+
+        if (!Double.isNaN(value)) {
+            weightSum += 1.0;
+            var delta = value - mean;
+            mean += delta / weightSum;
+            sumSquares += delta * (value - mean);
+            ++count;
+        }
+
+        return getValue();
+    }
+
+    @Override
+    public double getValue() {
+        if (count < 2)
+            return Double.NaN;
+
+        var variance = Math.max(0.0, sumSquares / weightSum);
+        return volatility ? Math.sqrt(variance) : variance;
+    }
+
+    @Override
+    public void reset() {
+        count = 0;
+        weightSum = 0.0;
+        mean = 0.0;
+        sumSquares = 0.0;
+    }
+
+    @Override
+    public RecursiveVarianceFilter copy() {
+        return new RecursiveVarianceFilter(halfLife, volatility);
+    }
+
+    @Override
+    public String encode() {
+        return String.format("%s(%s)", volatility ? VOLATILITY_NAME : VARIANCE_NAME, halfLife);
+    }
+
+    @Override
+    public String toString() {
+        return encode();
+    }
+}
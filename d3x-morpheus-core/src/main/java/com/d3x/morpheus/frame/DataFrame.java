@@ -78,6 +78,20 @@ public interface DataFrame<R,C> extends DataFrameAccess<R,C>, DataFrameOperation
      */
     DataFrame<R,C> copy();
 
+    /**
+     * Converts the storage of columns in this <code>DataFrame</code> between dense and sparse based on their load factor
+     * <p>Dense columns whose proportion of non-default values is below the sparse threshold are converted to sparse
+     * storage, and sparse columns whose load factor exceeds the dense threshold are converted to dense storage, with
+     * columns processed in parallel for parallel frames. The thresholds are configured via DataFrameOptions.</p>
+     * <p>Bulk writes through the apply and update methods already convert sparse columns that exceed the dense
+     * threshold, while conversion of mostly default dense columns to sparse only happens in this method. Cursors look
+     * up the column array whenever they move, so they remain attached to the frame after conversion, but this
+     * should not be called while other threads write to the frame.</p>
+     * @return  this <code>DataFrame</code>, with column storage converted in place
+     * @see DataFrameOptions#setStorageThresholds(float, float)
+     */
+    DataFrame<R,C> compact();
+
     /**
      * Returns a reference to the output interface for this <code>DataFrame</code>
      * @return  the output interface for this <code>DataFrame</code>
@@ -313,6 +313,16 @@ public interface DataFrameAxis<X,Y,R,C,V extends DataFrameVector,T extends DataF
      */
     DataFrame<R,C> select(int start, int length);
 
+    /**
+     * Returns a DataFrame view containing records with keys between the bounds specified, inclusive
+     * If the keys along this axis are sorted, the bounds are located by binary search and the view shares the
+     * keys of this axis, otherwise all keys are scanned and the matches are included in their current order.
+     * @param from  the lower bound key, which need not exist along this axis
+     * @param to    the upper bound key, which need not exist along this axis
+     * @return      the <code>DataFrame</code> view
+     */
+    DataFrame<R,C> between(X from, X to);
+
     /**
      * Sorts the DataFrame along this axis based on the keys in ascending/descending order
      * @param ascending     true for ascending order, false for descending
@@ -336,6 +346,46 @@ public interface DataFrameAxis<X,Y,R,C,V extends DataFrameVector,T extends DataF
      */
     DataFrame<R,C> sort(boolean ascending, List<Y> keys);
 
+    /**
+     * Returns a DataFrame view of the entries along this axis with the largest values in the row or column specified
+     * This selects entries without sorting this axis, and the source frame ordering is not modified
+     * Entries with a null or NaN value in any of the ranking keys are never selected
+     * @param count     the max number of entries to select
+     * @param key       the row or column key to rank by
+     * @return          the <code>DataFrame</code> view, with entries in descending order
+     */
+    DataFrame<R,C> top(int count, Y key);
+
+    /**
+     * Returns a DataFrame view of the entries along this axis with the largest values in the rows or columns specified
+     * This selects entries without sorting this axis, and the source frame ordering is not modified
+     * Entries with a null or NaN value in any of the ranking keys are never selected
+     * @param count     the max number of entries to select
+     * @param keys      the list of row or column keys to rank by, in order of precedence
+     * @return          the <code>DataFrame</code> view, with entries in descending order
+     */
+    DataFrame<R,C> top(int count, List<Y> keys);
+
+    /**
+     * Returns a DataFrame view of the entries along this axis with the smallest values in the row or column specified
+     * This selects entries without sorting this axis, and the source frame ordering is not modified
+     * Entries with a null or NaN value in any of the ranking keys are never selected
+     * @param count     the max number of entries to select
+     * @param key       the row or column key to rank by
+     * @return          the <code>DataFrame</code> view, with entries in ascending order
+     */
+    DataFrame<R,C> bottom(int count, Y key);
+
+    /**
+     * Returns a DataFrame view of the entries along this axis with the smallest values in the rows or columns specified
+     * This selects entries without sorting this axis, and the source frame ordering is not modified
+     * Entries with a null or NaN value in any of the ranking keys are never selected
+     * @param count     the max number of entries to select
+     * @param keys      the list of row or column keys to rank by, in order of precedence
+     * @return          the <code>DataFrame</code> view, with entries in ascending order
+     */
+    DataFrame<R,C> bottom(int count, List<Y> keys);
+
     /**
      * Sorts the DataFrame along this axis according to the comparator provided
      * @param comparator    the comparator to sort rows, null to remove sorting
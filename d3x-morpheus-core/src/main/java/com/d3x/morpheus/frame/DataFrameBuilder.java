@@ -660,6 +660,9 @@ public class DataFrameBuilder<R,C> {
                 case INTEGER:   column.forEach(v -> putInt(v.rowKey(), v.colKey(), v.getInt()));            break;
                 case LONG:      column.forEach(v -> putLong(v.rowKey(), v.colKey(), v.getLong()));          break;
                 case DOUBLE:    column.forEach(v -> putDouble(v.rowKey(), v.colKey(), v.getDouble()));      break;
+                case FLOAT:     column.forEach(v -> putDouble(v.rowKey(), v.colKey(), v.getDouble()));      break;
+                case SHORT:     column.forEach(v -> putInt(v.rowKey(), v.colKey(), v.getInt()));            break;
+                case BYTE:      column.forEach(v -> putInt(v.rowKey(), v.colKey(), v.getInt()));            break;
                 default:        column.forEach(v -> putValue(v.rowKey(), v.colKey(), v.getValue()));        break;
             }
         });
@@ -0,0 +1,486 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.frame;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import com.d3x.morpheus.array.ArrayType;
+import com.d3x.morpheus.collect.CacheStats;
+import com.d3x.morpheus.collect.ConcurrentCache;
+import com.d3x.morpheus.util.MemoryEstimator;
+
+/**
+ * A cache of DataFrame results keyed by source request, which holds recently used frames on the heap up to a memory
+ * budget, spills frames evicted from the heap to a local directory, and transparently reloads them on the next request.
+ *
+ * <p>Each entry is weighed in bytes by a <code>MemoryEstimator</code>, falling back to an estimate based on the frame
+ * dimensions and column types where the estimator cannot measure the frame. When the total weight exceeds the heap
+ * budget, the least valuable entries are evicted, and those that have not expired are written to the spill directory
+ * using the binary serialization format of the frame. Entries expire after a time to live declared by each request,
+ * whether on the heap or on disk.</p>
+ *
+ * <p>Spill files are created with unpredictable names and owner-only permissions, are written to a temporary file
+ * and moved into place once complete, and are read back through a deserialization filter that only admits Morpheus
+ * and JDK classes. Frames whose keys or values are of other types are therefore reloaded from their source rather
+ * than from disk. The default cache spills to a private temporary directory created for the current process.</p>
+ *
+ * <p>Sources declare whether their results may be cached by implementing <code>DataFrameSource.getCacheKey()</code>
+ * and <code>DataFrameSource.getCacheTTL()</code>, while arbitrary loads such as CSV reads over a URL may be cached
+ * with an explicit key. Concurrent requests for the same key load the frame only once, and every request returns
+ * a copy of the cached frame, so callers may modify the result freely.</p>
+ *
+ * <p>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></p>
+ *
+ * @author  Xavier Witdouck
+ */
+@lombok.extern.slf4j.Slf4j()
+public class DataFrameCache {
+
+    private static DataFrameCache defaultCache;
+
+    /** The classes that may be deserialized from a spill file, arrays of primitives are always admitted */
+    private static final ObjectInputFilter SPILL_FILTER = ObjectInputFilter.Config.createFilter("com.d3x.morpheus.**;java.**;!*");
+
+    private final File spillDir;
+    private final long maxHeapBytes;
+    private final MemoryEstimator estimator;
+    private final ConcurrentCache<String,Entry> heap;
+    private final Map<String,SpillFile> spilled = new ConcurrentHashMap<>();
+
+
+    /**
+     * Constructor
+     * @param maxHeapBytes  the maximum estimated bytes of frames to hold on the heap
+     * @param spillDir      the directory to spill evicted frames to, null to discard evicted frames
+     */
+    public DataFrameCache(long maxHeapBytes, File spillDir) {
+        this(maxHeapBytes, spillDir, new MemoryEstimator.DefaultMemoryEstimator());
+    }
+
+
+    /**
+     * Constructor
+     * @param maxHeapBytes  the maximum estimated bytes of frames to hold on the heap
+     * @param spillDir      the directory to spill evicted frames to, null to discard evicted frames
+     * @param estimator     the estimator used to weigh frames in bytes
+     */
+    public DataFrameCache(long maxHeapBytes, File spillDir, MemoryEstimator estimator) {
+        Objects.requireNonNull(estimator, "The memory estimator cannot be null");
+        if (maxHeapBytes < 1) {
+            throw new IllegalArgumentException("The heap budget must be positive: " + maxHeapBytes);
+        } else {
+            this.spillDir = spillDir != null ? createDirectory(spillDir) : null;
+            this.estimator = estimator;
+            this.maxHeapBytes = maxHeapBytes;
+            this.heap = ConcurrentCache.<String,Entry>builder()
+                .maximumWeight(maxHeapBytes, (key, entry) -> entry.bytes)
+                .evictionListener(this::spill)
+                .build();
+        }
+    }
+
+
+    /**
+     * Returns the default cache, with a heap budget of one quarter of the maximum heap and a temporary spill directory
+     * @return  the default DataFrame cache
+     */
+    public static synchronized DataFrameCache getDefault() {
+        if (defaultCache == null) {
+            try {
+                final long maxHeapBytes = Runtime.getRuntime().maxMemory() / 4L;
+                final File spillDir = Files.createTempDirectory("morpheus-cache").toFile();
+                spillDir.deleteOnExit();
+                defaultCache = new DataFrameCache(maxHeapBytes, spillDir);
+            } catch (IOException ex) {
+                throw new DataFrameException("Unable to create DataFrame cache directory", ex);
+            }
+        }
+        return defaultCache;
+    }
+
+
+    /**
+     * Returns the spill directory, creating it with owner-only permissions if it does not exist
+     * @param dir   the spill directory
+     * @return      the spill directory
+     * @throws DataFrameException   if the directory cannot be created
+     */
+    private static File createDirectory(File dir) {
+        try {
+            if (!dir.isDirectory()) {
+                Files.createDirectories(dir.toPath(), ownerOnly("rwx------"));
+            }
+            return dir;
+        } catch (IOException ex) {
+            throw new DataFrameException("Unable to create DataFrame cache directory: " + dir.getAbsolutePath(), ex);
+        }
+    }
+
+
+    /**
+     * Returns the file attributes to apply owner-only permissions where the file system supports them
+     * @param permissions   the POSIX permissions string
+     * @return              the file attributes, empty if POSIX permissions are not supported
+     */
+    private static FileAttribute<?>[] ownerOnly(String permissions) {
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            return new FileAttribute<?>[] { PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString(permissions)) };
+        } else {
+            return new FileAttribute<?>[0];
+        }
+    }
+
+
+    /**
+     * Returns the maximum estimated bytes of frames held on the heap
+     * @return  the heap budget in bytes
+     */
+    public long getMaxHeapBytes() {
+        return maxHeapBytes;
+    }
+
+
+    /**
+     * Returns the estimated bytes of the frames currently held on the heap
+     * @return  the estimated bytes of frames on the heap
+     */
+    public long getHeapBytes() {
+        return heap.getWeight();
+    }
+
+
+    /**
+     * Returns the number of frames currently spilled to disk
+     * @return  the number of frames spilled to disk
+     */
+    public int getSpillCount() {
+        return spilled.size();
+    }
+
+
+    /**
+     * Returns the activity counters for frames held on the heap
+     * @return  the activity counters for the heap
+     */
+    public CacheStats getStats() {
+        return heap.stats();
+    }
+
+
+    /**
+     * Returns true if this cache holds an unexpired frame for the key, either on the heap or on disk
+     * @param key   the cache key
+     * @return      true if a frame is cached for the key
+     */
+    public boolean contains(String key) {
+        final Entry entry = heap.peek(key);
+        if (entry != null && !entry.isExpired()) {
+            return true;
+        } else {
+            final SpillFile spill = spilled.get(key);
+            return spill != null && !spill.isExpired();
+        }
+    }
+
+
+    /**
+     * Returns a DataFrame read from a source, which is cached if the source declares a cache key for the options
+     * @param source        the source to read from
+     * @param configurator  the options consumer to configure load options
+     * @return              a copy of the cached frame, or the frame read from the source
+     * @throws DataFrameException  if the read fails
+     */
+    public <R,C,O> DataFrame<R,C> read(DataFrameSource<R,C,O> source, Consumer<O> configurator) throws DataFrameException {
+        final String key = source.getCacheKey(configurator).orElse(null);
+        if (key == null) {
+            return source.read(configurator);
+        } else {
+            final String sourceKey = source.getClass().getName() + ":" + key;
+            return get(sourceKey, source.getCacheTTL(configurator), () -> source.read(configurator));
+        }
+    }
+
+
+    /**
+     * Returns a copy of the cached frame for the key, invoking the loader if the frame is missing or expired
+     * @param key       the key that identifies the request, such as a URL
+     * @param ttl       the time to live for a newly loaded frame
+     * @param loader    the loader to read the frame if it is not cached
+     * @return          a copy of the cached frame
+     * @throws DataFrameException  if the loader fails
+     */
+    @SuppressWarnings("unchecked")
+    public <R,C> DataFrame<R,C> get(String key, Duration ttl, Supplier<DataFrame<R,C>> loader) throws DataFrameException {
+        Objects.requireNonNull(key, "The cache key cannot be null");
+        Objects.requireNonNull(loader, "The loader cannot be null");
+        if (ttl == null || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("The cache time to live must be positive: " + ttl);
+        } else {
+            Entry entry = heap.getOrCompute(key, k -> load(k, ttl, loader));
+            if (entry.isExpired()) {
+                heap.invalidate(key);
+                entry = heap.getOrCompute(key, k -> load(k, ttl, loader));
+            }
+            return (DataFrame<R,C>)entry.frame.copy();
+        }
+    }
+
+
+    /**
+     * Removes any frame cached for the key, from the heap and from disk
+     * @param key   the cache key
+     */
+    public void invalidate(String key) {
+        heap.invalidate(key);
+        final SpillFile spill = spilled.remove(key);
+        if (spill != null) {
+            spill.delete();
+        }
+    }
+
+
+    /**
+     * Removes all frames from this cache, from the heap and from disk
+     */
+    public void clear() {
+        heap.clear();
+        spilled.keySet().forEach(this::invalidate);
+    }
+
+
+    /**
+     * Removes expired frames from the heap and deletes expired frames from disk
+     */
+    public void cleanUp() {
+        heap.cleanUp();
+        spilled.forEach((key, spill) -> {
+            if (spill.isExpired() && spilled.remove(key, spill)) {
+                spill.delete();
+            }
+        });
+    }
+
+
+    /**
+     * Returns a new entry for the key, reloaded from disk if spilled, or otherwise from the loader
+     * @param key       the cache key
+     * @param ttl       the time to live for a newly loaded frame
+     * @param loader    the loader to read the frame
+     * @return          the newly created entry
+     */
+    private Entry load(String key, Duration ttl, Supplier<? extends DataFrame<?,?>> loader) {
+        final SpillFile spill = spilled.remove(key);
+        if (spill != null) {
+            try {
+                if (!spill.isExpired()) {
+                    final DataFrame<?,?> frame = spill.read();
+                    return new Entry(frame, weigh(frame), spill.expiresAt);
+                }
+            } catch (Exception ex) {
+                log.warn("Failed to reload cached DataFrame for " + key + " from " + spill.file, ex);
+            } finally {
+                spill.delete();
+            }
+        }
+        final DataFrame<?,?> frame = loader.get();
+        if (frame == null) {
+            throw new DataFrameException("The loader returned a null DataFrame for cache key: " + key);
+        } else {
+            final long expiresAt = System.currentTimeMillis() + ttl.toMillis();
+            return new Entry(frame, weigh(frame), expiresAt);
+        }
+    }
+
+
+    /**
+     * Writes a frame evicted from the heap to the spill directory, unless expired
+     * @param key   the cache key
+     * @param entry the evicted entry
+     */
+    private void spill(String key, Entry entry) {
+        if (spillDir != null && !entry.isExpired()) {
+            SpillFile spill = null;
+            try {
+                spill = SpillFile.write(spillDir, entry.frame, entry.expiresAt);
+                final SpillFile prior = spilled.put(key, spill);
+                if (prior != null) {
+                    prior.delete();
+                }
+            } catch (Exception ex) {
+                log.warn("Failed to spill cached DataFrame for " + key + " to " + spillDir, ex);
+                if (spill != null) {
+                    spill.delete();
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Returns the estimated bytes consumed by a frame
+     * @param frame the frame to weigh
+     * @return      the estimated bytes
+     */
+    private long weigh(DataFrame<?,?> frame) {
+        final long bytes = estimator.getObjectSize(frame);
+        return bytes > 0 ? bytes : estimateSize(frame);
+    }
+
+
+    /**
+     * Returns an estimate of the bytes consumed by a frame based on its dimensions and column types
+     * @param frame the frame to estimate
+     * @return      the estimated bytes
+     */
+    static <R,C> long estimateSize(DataFrame<R,C> frame) {
+        final long rowCount = frame.rowCount();
+        final long keyBytes = 48L * (rowCount + frame.colCount());
+        return frame.cols().keys().mapToLong(colKey -> {
+            final ArrayType type = ArrayType.of(frame.cols().type(colKey));
+            if (type.isBoolean()) {
+                return rowCount;
+            } else if (type.isInteger()) {
+                return 4L * rowCount;
+            } else if (type.isLong() || type.isDouble()) {
+                return 8L * rowCount;
+            } else {
+                return 32L * rowCount;
+            }
+        }).sum() + keyBytes;
+    }
+
+
+    /**
+     * A cached frame with its estimated size and expiry time
+     */
+    private static class Entry {
+
+        private final DataFrame<?,?> frame;
+        private final long bytes;
+        private final long expiresAt;
+
+        /**
+         * Constructor
+         * @param frame     the cached frame
+         * @param bytes     the estimated bytes consumed by the frame
+         * @param expiresAt the expiry time in epoch millis
+         */
+        Entry(DataFrame<?,?> frame, long bytes, long expiresAt) {
+            this.frame = frame;
+            this.bytes = bytes;
+            this.expiresAt = expiresAt;
+        }
+
+        /**
+         * Returns true if this entry has expired
+         * @return  true if expired
+         */
+        boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+
+
+    /**
+     * A frame spilled to a file in the spill directory
+     */
+    private static class SpillFile {
+
+        private final File file;
+        private final long expiresAt;
+
+        /**
+         * Constructor
+         * @param file      the spill file
+         * @param expiresAt the expiry time in epoch millis
+         */
+        SpillFile(File file, long expiresAt) {
+            this.file = file;
+            this.expiresAt = expiresAt;
+        }
+
+        /**
+         * Returns true if the spilled frame has expired
+         * @return  true if expired
+         */
+        boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+
+        /**
+         * Writes a frame to a temporary file with a unique name, then moves it into place as a new spill file
+         * @param dir       the spill directory
+         * @param frame     the frame to write
+         * @param expiresAt the expiry time in epoch millis
+         * @return          the newly written spill file
+         * @throws IOException  if the write fails
+         */
+        static SpillFile write(File dir, DataFrame<?,?> frame, long expiresAt) throws IOException {
+            final Path temp = Files.createTempFile(dir.toPath(), "frame-", ".tmp", ownerOnly("rw-------"));
+            try {
+                try (ObjectOutputStream os = new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                    os.writeObject(frame);
+                }
+                final String name = temp.getFileName().toString().replace(".tmp", ".dfc");
+                final Path target = Files.move(temp, temp.resolveSibling(name), StandardCopyOption.ATOMIC_MOVE);
+                return new SpillFile(target.toFile(), expiresAt);
+            } catch (IOException ex) {
+                Files.deleteIfExists(temp);
+                throw ex;
+            }
+        }
+
+        /**
+         * Reads the frame from this file, admitting only Morpheus and JDK classes
+         * @return  the frame read from this file
+         * @throws IOException  if the read fails, or the file contains a class that is not admitted
+         * @throws ClassNotFoundException   if a class in the frame cannot be resolved
+         */
+        DataFrame<?,?> read() throws IOException, ClassNotFoundException {
+            try (ObjectInputStream is = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+                is.setObjectInputFilter(SPILL_FILTER);
+                return (DataFrame<?,?>)is.readObject();
+            }
+        }
+
+        /**
+         * Deletes this file if it exists
+         */
+        void delete() {
+            if (file.exists() && !file.delete()) {
+                file.deleteOnExit();
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.frame;
+
+import java.util.List;
+
+/**
+ * An interface to a multiple response Ordinary Least Squares model, where several regressands are regressed on the same regressors.
+ *
+ * <p>The design matrix is factored once and all regressands are solved together in a single matrix solve. Rows with a
+ * missing regressor value are excluded from the model, and regressands with missing values in the remaining rows are
+ * fitted individually on their complete observations.</p>
+ *
+ * @param <R>   the row key type
+ * @param <C>   the column key type
+ *
+ * <p>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></p>
+ *
+ * @author  Xavier Witdouck
+ */
+public interface DataFrameMultiLeastSquares<R,C> {
+
+    enum Solver { QR, SVD }
+
+    /**
+     * Triggers this model to (re)compute parameters
+     * @throws DataFrameException   if there is an error running regression
+     */
+    void fit();
+
+    /**
+     * Returns the list of regressands for this model
+     * @return  the list of regressands for this model
+     */
+    List<C> getRegressands();
+
+    /**
+     * Returns the list of regressors for this model
+     * @return  the list of regressors for this model
+     */
+    List<C> getRegressors();
+
+    /**
+     * Returns true if this model includes an intercept term
+     * @return  true if this model includes an intercept term
+     */
+    boolean hasIntercept();
+
+    /**
+     * Returns the frame of slope coefficients, with regressands in the row dimension and regressors in the column dimension
+     * @return  the frame of slope coefficients
+     */
+    DataFrame<C,C> getBetas();
+
+    /**
+     * Returns the frame of intercept coefficients, with regressands in the row dimension and a single column
+     * @return  the frame of intercept coefficients
+     * @throws DataFrameException   if this model does not include an intercept
+     */
+    DataFrame<C,String> getIntercept();
+
+    /**
+     * Returns the frame of residuals, with observations in the row dimension and regressands in the column dimension
+     * @return  the frame of residuals, which is NaN for excluded observations
+     */
+    DataFrame<R,C> getResiduals();
+
+    /**
+     * Returns the R-squared statistic for the regressand specified
+     * @param regressand    the regressand key
+     * @return              the R-squared statistic for regressand
+     */
+    double getRSquared(C regressand);
+
+    /**
+     * Sets the solver used to factor the design matrix
+     * @param solver    the solver type
+     * @return          this model
+     */
+    DataFrameMultiLeastSquares<R,C> withSolver(Solver solver);
+
+    /**
+     * Sets the threshold used to detect a rank deficient design matrix
+     * For QR this is the minimum diagonal element of R, for SVD the minimum singular value retained
+     * @param threshold the threshold value
+     * @return          this model
+     */
+    DataFrameMultiLeastSquares<R,C> withThreshold(double threshold);
+
+}
@@ -65,6 +65,8 @@ public enum DataFrameOptions {
     private static final ThreadLocal<DataFrameOptions> tieStrategy = new ThreadLocal<>();
     private static final ThreadLocal<ToIntFunction<DataFrame<?,?>>> rowSplitThreshold = new ThreadLocal<>();
     private static final ThreadLocal<ToIntFunction<DataFrame<?,?>>> colSplitThreshold = new ThreadLocal<>();
+    private static final ThreadLocal<Float> sparseThreshold = new ThreadLocal<>();
+    private static final ThreadLocal<Float> denseThreshold = new ThreadLocal<>();
 
     private static final ThreadLocal<Boolean> ignoreDuplicates = new ThreadLocal<Boolean>() {
         @Override
@@ -126,6 +128,39 @@ public enum DataFrameOptions {
         return function != null ? function.applyAsInt(frame) : defaultColSplitThreshold.applyAsInt(frame);
     }
 
+    /**
+     * Returns the load factor below which dense columns are converted to sparse storage when a DataFrame is compacted
+     * @return      the sparse load factor threshold for the current thread
+     */
+    public static float getSparseThreshold() {
+        final Float result = sparseThreshold.get();
+        return result != null ? result : 0.1f;
+    }
+
+    /**
+     * Returns the load factor above which sparse columns are converted to dense storage after bulk writes or compaction
+     * @return      the dense load factor threshold for the current thread
+     */
+    public static float getDenseThreshold() {
+        final Float result = denseThreshold.get();
+        return result != null ? result : 0.5f;
+    }
+
+    /**
+     * Sets the load factor thresholds that drive conversion of DataFrame columns between dense and sparse storage
+     * @param sparse    the load factor below which dense columns are converted to sparse, 0 to disable
+     * @param dense     the load factor above which sparse columns are converted to dense, 1 to disable
+     * @throws DataFrameException  if the thresholds are not in the range 0..1, or sparse is above dense
+     */
+    public static void setStorageThresholds(float sparse, float dense) throws DataFrameException {
+        if (sparse < 0f || dense > 1f || sparse > dense) {
+            throw new DataFrameException("Invalid storage thresholds, must satisfy 0 <= sparse <= dense <= 1, not " + sparse + ", " + dense);
+        } else {
+            sparseThreshold.set(sparse);
+            denseThreshold.set(dense);
+        }
+    }
+
     /**
      * Sets the NaN strategy to use for the current thread ranking algorithm
      * @param strategy  the NaN strategy (MINIMUM | MAXIMUM)
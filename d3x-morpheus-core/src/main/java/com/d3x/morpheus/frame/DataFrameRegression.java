@@ -15,8 +15,13 @@
  */
 package com.d3x.morpheus.frame;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Function;
+import java.util.stream.IntStream;
 
 import com.d3x.morpheus.array.Array;
 
@@ -98,4 +103,59 @@ public interface DataFrameRegression<R,C> {
      */
     <T> Optional<T> gls(C regressand, Iterable<C> regressors, DataFrame<?,?> omega, boolean intercept, Function<DataFrameLeastSquares<R,C>,Optional<T>> handler);
 
+    /**
+     * Executes rolling window linear regressions of each regressand on a common set of regressors using Ordinary Least Squares (OLS)
+     * The window is advanced by rank-one updates of the normal equations, and regressands are evaluated in parallel if this frame is parallel
+     * @param regressands   the column(s) that define the regressands or Y variables
+     * @param regressors    the column(s) that define the regressors or X variables
+     * @param windowSize    the number of observations in each regression window
+     * @param intercept     true to include an intercept / constant term in the model
+     * @param handler       the rolling regression result handler
+     * @param <T>           the type of return object
+     * @return              the optional user created return object
+     */
+    <T> Optional<T> rolling(Iterable<C> regressands, Iterable<C> regressors, int windowSize, boolean intercept, Function<DataFrameRollingRegression<R,C>,Optional<T>> handler);
+
+    /**
+     * Executes a multiple response linear regression of each regressand on a common set of regressors using Ordinary Least Squares (OLS)
+     * The design matrix is factored once and all regressands are solved in a single matrix solve
+     * @param regressands   the column(s) that define the regressands or Y variables
+     * @param regressors    the column(s) that define the regressors or X variables
+     * @param intercept     true to include an intercept / constant term in the model
+     * @param handler       the regression result handler
+     * @param <T>           the type of return object
+     * @return              the optional user created return object
+     */
+    <T> Optional<T> multi(Iterable<C> regressands, Iterable<C> regressors, boolean intercept, Function<DataFrameMultiLeastSquares<R,C>,Optional<T>> handler);
+
+    /**
+     * Executes a multiple response regression for each cross-section in a panel, such as one frame of returns and exposures per date
+     * @param panel         the map of cross-sectional frames keyed by date or other panel key
+     * @param regressands   the column(s) that define the regressands or Y variables
+     * @param regressors    the column(s) that define the regressors or X variables
+     * @param intercept     true to include an intercept / constant term in the model
+     * @param parallel      true to fit cross-sections in parallel
+     * @param <K>           the panel key type
+     * @param <R>           the row key type
+     * @param <C>           the column key type
+     * @return              the map of fitted models, in the same key order as the panel
+     */
+    static <K,R,C> Map<K,DataFrameMultiLeastSquares<R,C>> multi(Map<K,DataFrame<R,C>> panel, Iterable<C> regressands, Iterable<C> regressors, boolean intercept, boolean parallel) {
+        final List<K> keys = new ArrayList<>(panel.keySet());
+        final List<DataFrameMultiLeastSquares<R,C>> models = new ArrayList<>(keys.size());
+        keys.forEach(key -> models.add(null));
+        final IntStream indexes = parallel ? IntStream.range(0, keys.size()).parallel() : IntStream.range(0, keys.size());
+        indexes.forEach(i -> {
+            final DataFrame<R,C> frame = panel.get(keys.get(i));
+            final DataFrameMultiLeastSquares<R,C> model = frame.regress().multi(regressands, regressors, intercept, Optional::of).orElseThrow();
+            model.fit();
+            models.set(i, model);
+        });
+        final Map<K,DataFrameMultiLeastSquares<R,C>> result = new LinkedHashMap<>(keys.size());
+        for (int i = 0; i < keys.size(); ++i) {
+            result.put(keys.get(i), models.get(i));
+        }
+        return result;
+    }
+
 }
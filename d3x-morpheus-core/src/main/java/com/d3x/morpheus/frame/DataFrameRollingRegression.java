@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.frame;
+
+import java.util.List;
+
+/**
+ * An interface to a rolling window Ordinary Least Squares model of one or more regressands against a common set of regressors.
+ *
+ * <p>Each result frame is keyed by the row keys of the source frame, where a row represents the window ending at
+ * that row, and by the regressand keys in the column dimension. Rows that precede the first complete window, or
+ * windows that contain missing values, are populated with NaN.</p>
+ *
+ * @param <R>   the row key type
+ * @param <C>   the column key type
+ *
+ * <p>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></p>
+ *
+ * @author  Xavier Witdouck
+ */
+public interface DataFrameRollingRegression<R,C> {
+
+    /**
+     * Triggers this model to (re)compute parameters for all windows
+     * @throws DataFrameException   if there is an error running regression
+     */
+    void fit();
+
+    /**
+     * Returns the number of observations in each regression window
+     * @return  the window size for this model
+     */
+    int getWindowSize();
+
+    /**
+     * Returns the list of regressands for this model
+     * @return  the list of regressands for this model
+     */
+    List<C> getRegressands();
+
+    /**
+     * Returns the list of regressors for this model
+     * @return  the list of regressors for this model
+     */
+    List<C> getRegressors();
+
+    /**
+     * Returns true if this model includes an intercept term
+     * @return  true if this model includes an intercept term
+     */
+    boolean hasIntercept();
+
+    /**
+     * Returns a frame of a rolling beta field for the regressor specified
+     * @param regressor the regressor key
+     * @param field     the field, which must be one of PARAMETER, STD_ERROR or T_STAT
+     * @return          the frame of values by window end and regressand
+     */
+    DataFrame<R,C> getBetas(C regressor, DataFrameLeastSquares.Field field);
+
+    /**
+     * Returns a frame of a rolling intercept field
+     * @param field     the field, which must be one of PARAMETER, STD_ERROR or T_STAT
+     * @return          the frame of values by window end and regressand
+     * @throws DataFrameException   if this model does not include an intercept
+     */
+    DataFrame<R,C> getIntercept(DataFrameLeastSquares.Field field);
+
+    /**
+     * Returns a frame of the rolling R-squared statistic, defined by R<sup>2</sup> = 1 - RSS / TSS
+     * @return  the frame of R-squared by window end and regressand
+     */
+    DataFrame<R,C> getRSquared();
+
+    /**
+     * Returns a frame of the rolling standard error of the regression, which is the square root of the error variance
+     * @return  the frame of standard errors by window end and regressand
+     */
+    DataFrame<R,C> getStdError();
+
+}
@@ -15,6 +15,8 @@
  */
 package com.d3x.morpheus.frame;
 
+import java.time.Duration;
+import java.util.Optional;
 import java.util.function.Consumer;
 
 /**
@@ -38,6 +40,28 @@ public interface DataFrameSource<R,C,O> {
     DataFrame<R,C> read(Consumer<O> configurator) throws DataFrameException;
 
 
+    /**
+     * Returns the key that identifies the result of a read with the options specified, if the result may be cached
+     * @param configurator  the options consumer to configure load options
+     * @return              the cache key, empty if the result of the read should not be cached
+     * @see DataFrameCache
+     */
+    default Optional<String> getCacheKey(Consumer<O> configurator) {
+        return Optional.empty();
+    }
+
+
+    /**
+     * Returns the duration for which a cached result of a read with the options specified remains valid
+     * @param configurator  the options consumer to configure load options
+     * @return              the time to live for a cached result
+     * @see DataFrameCache
+     */
+    default Duration getCacheTTL(Consumer<O> configurator) {
+        return Duration.ofHours(1);
+    }
+
+
     /**
      * Applies the options to the configurator and then validates
      * @param options       the empty options instance
@@ -187,6 +187,36 @@ public interface Index<K> extends Iterable<K>, Cloneable, Serializable {
      */
     Optional<K> nextKey(K key);
 
+    /**
+     * Returns true if the keys of this index are in strictly ascending order
+     * Sorted indexes support floor, ceiling and range lookups in O(log n) time
+     * @return  true if keys are in strictly ascending order
+     */
+    boolean isSorted();
+
+    /**
+     * Returns the ordinal of the greatest key less than or equal to the given key
+     * @param key   the key to search for, which need not exist in this index
+     * @return      the ordinal of the floor key, -1 if no such key exists
+     */
+    int floorOrdinal(K key);
+
+    /**
+     * Returns the ordinal of the least key greater than or equal to the given key
+     * @param key   the key to search for, which need not exist in this index
+     * @return      the ordinal of the ceiling key, -1 if no such key exists
+     */
+    int ceilingOrdinal(K key);
+
+    /**
+     * Returns a filter over this index including only keys between the bounds specified, inclusive
+     * If this index is sorted, the result is a view of a contiguous range of ordinals that shares the keys of this index
+     * @param from  the lower bound, inclusive
+     * @param to    the upper bound, inclusive
+     * @return      the filtered index
+     */
+    Index<K> range(K from, K to);
+
     /**
      * Resets the order of this index to insertion order
      * @return  this index
@@ -288,6 +318,13 @@ public interface Index<K> extends Iterable<K>, Cloneable, Serializable {
      */
     void sort(boolean parallel, IntComparator comparator);
 
+    /**
+     * Reorders the keys in this index according to a permutation of the current ordinals, in a single pass
+     * @param ordinals  the permutation, where element i is the current ordinal of the key to move to ordinal i
+     * @throws IndexException   if the permutation length does not match the size of this index
+     */
+    void reorder(int[] ordinals);
+
     /**
      * Returns a filter over this index including only the keys specified
      * @param keys  the iterable set of keys to include in the filter
@@ -303,6 +340,15 @@ public interface Index<K> extends Iterable<K>, Cloneable, Serializable {
      */
     Index<K> filter(Predicate<K> predicate);
 
+    /**
+     * Returns a filter over this index including only the keys at the ordinals specified
+     * <p>The coordinates of the selected keys are copied directly rather than resolved by key lookups on the parent.</p>
+     * @param ordinals  the ordinals of the keys to include, in the order they should appear in the filter
+     * @return          the filtered index
+     * @throws IndexException   if one of the ordinals is out of bounds, or the same ordinal appears more than once
+     */
+    Index<K> filterOrdinals(int[] ordinals);
+
     /**
      * Returns a newly created index based on the array provided
      * @param keys      the keys for index
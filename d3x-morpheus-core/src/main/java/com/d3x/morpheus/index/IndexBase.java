@@ -19,6 +19,7 @@ import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.IntUnaryOperator;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -26,7 +27,10 @@ import java.util.stream.StreamSupport;
 import com.d3x.morpheus.array.Array;
 import com.d3x.morpheus.array.ArrayBuilder;
 import com.d3x.morpheus.array.ArrayValue;
+import com.d3x.morpheus.array.coding.WithIntCoding;
+import com.d3x.morpheus.array.coding.WithLongCoding;
 import com.d3x.morpheus.range.Range;
+import com.d3x.morpheus.util.Comparators;
 import com.d3x.morpheus.util.IntComparator;
 import com.d3x.morpheus.util.SortAlgorithm;
 import com.d3x.morpheus.util.Swapper;
@@ -48,6 +52,8 @@ abstract class IndexBase<K> implements Index<K>, Swapper {
     private Index<K> parent;
     private int[] indexes;
     private int[] ordinals;
+    private boolean sorted = true;
+    private int sortedCount;
 
     /**
      *
@@ -66,14 +72,36 @@ abstract class IndexBase<K> implements Index<K>, Swapper {
         this.keys = createArray(iterable);
         this.parent = parent;
         if (parent != null) {
-            this.indexes = new int[keys.length()];
+            final int length = keys.length();
+            final IntStream range = IntStream.range(0, length);
+            this.indexes = new int[length];
             this.ordinals = new int[parent.size()];
-            for (int ordinal = 0; ordinal < keys.length(); ++ordinal) {
+            (length < IndexMap.PARALLEL_THRESHOLD ? range : range.parallel()).forEach(ordinal -> {
                 final K key = keys.getValue(ordinal);
                 final int index = parent.getCoordinate(key);
-                this.indexes[ordinal] = index;
-                this.ordinals[index] = ordinal;
-            }
+                if (index < 0) {
+                    throw new IndexException("No match for key: " + key);
+                } else {
+                    this.indexes[ordinal] = index;
+                    this.ordinals[index] = ordinal;
+                }
+            });
+        }
+    }
+
+    /**
+     * Constructor for a filter whose keys have already been resolved to coordinates in the parent
+     * @param keys          the keys for this filter
+     * @param coordinates   the coordinate in the parent of the key at each ordinal
+     * @param parent        the parent index
+     */
+    IndexBase(Array<K> keys, int[] coordinates, Index<K> parent) {
+        this.keys = keys;
+        this.parent = parent;
+        this.indexes = coordinates;
+        this.ordinals = new int[parent.size()];
+        for (int ordinal = 0; ordinal < coordinates.length; ++ordinal) {
+            this.ordinals[coordinates[ordinal]] = ordinal;
         }
     }
 
@@ -107,6 +135,30 @@ abstract class IndexBase<K> implements Index<K>, Swapper {
         return parent;
     }
 
+    /**
+     * Returns the coordinate in the parent of the key at the ordinal of this filter, without bounds checks
+     * This allows subclasses to initialize a filter from coordinates resolved in the constructor without re-hashing
+     * @param ordinal   the ordinal of the key in this filter
+     * @return          the coordinate of the key in the parent
+     */
+    final int parentCoordinate(int ordinal) {
+        return indexes[ordinal];
+    }
+
+    /**
+     * Returns the coordinates of the keys at the ordinals specified, which are coordinates in the parent for a filter
+     * @param ordinals  the ordinals of keys in this index
+     * @return          the coordinate of the key at each ordinal
+     * @throws IndexException   if one of the ordinals is out of bounds
+     */
+    final int[] coordinates(int[] ordinals) {
+        final int[] coordinates = new int[ordinals.length];
+        for (int i = 0; i < ordinals.length; ++i) {
+            coordinates[i] = getCoordinateAt(ordinals[i]);
+        }
+        return coordinates;
+    }
+
     /**
      * Internal method to allow subclasses direct access to the internal key array
      * @return the key array for index
@@ -200,6 +252,126 @@ abstract class IndexBase<K> implements Index<K>, Swapper {
         return keys.next(key).map(ArrayValue::getValue);
     }
 
+    @Override
+    public final boolean isSorted() {
+        var size = size();
+        if (sorted && sortedCount < size) {
+            for (int i = Math.max(1, sortedCount); i < size; ++i) {
+                if (keys.compare(i - 1, i) >= 0) {
+                    this.sorted = false;
+                    break;
+                }
+            }
+            this.sortedCount = size;
+        }
+        return sorted;
+    }
+
+    @Override
+    public final int floorOrdinal(K key) {
+        var probe = probe(key);
+        if (isSorted()) {
+            var result = binarySearch(probe);
+            return result >= 0 ? result : -result - 2;
+        } else {
+            var result = -1;
+            for (int i = 0; i < size(); ++i) {
+                if (probe.applyAsInt(i) <= 0 && (result < 0 || keys.compare(i, result) > 0)) {
+                    result = i;
+                }
+            }
+            return result;
+        }
+    }
+
+    @Override
+    public final int ceilingOrdinal(K key) {
+        var probe = probe(key);
+        if (isSorted()) {
+            var result = binarySearch(probe);
+            var ordinal = result >= 0 ? result : -result - 1;
+            return ordinal < size() ? ordinal : -1;
+        } else {
+            var result = -1;
+            for (int i = 0; i < size(); ++i) {
+                if (probe.applyAsInt(i) >= 0 && (result < 0 || keys.compare(i, result) < 0)) {
+                    result = i;
+                }
+            }
+            return result;
+        }
+    }
+
+    @Override
+    public final Index<K> range(K from, K to) {
+        if (isSorted()) {
+            var start = ceilingOrdinal(from);
+            var end = floorOrdinal(to);
+            var length = start < 0 || end < start ? 0 : end - start + 1;
+            return new IndexSlice<>(this, Math.max(start, 0), length);
+        } else {
+            var comparator = Comparators.getDefaultComparator(type());
+            return filter(key -> comparator.compare(key, from) >= 0 && comparator.compare(key, to) <= 0);
+        }
+    }
+
+    /**
+     * Returns a function that compares the key at an ordinal with the key specified, using primitive codes where possible
+     * @param key   the key to compare against
+     * @return      the function that yields a negative, zero or positive value for an ordinal
+     */
+    @SuppressWarnings("unchecked")
+    private IntUnaryOperator probe(K key) {
+        if (key == null) {
+            throw new IndexException("The key to search for cannot be null");
+        } else if (this instanceof WithLongCoding) {
+            var code = ((WithLongCoding<K>)this).getCoding().getCode(key);
+            return i -> Long.compare(keys.getLong(i), code);
+        } else if (this instanceof WithIntCoding) {
+            var code = ((WithIntCoding<K>)this).getCoding().getCode(key);
+            return i -> Integer.compare(keys.getInt(i), code);
+        } else {
+            switch (keys.typeCode()) {
+                case INTEGER:   var intValue = (Integer)key;    return i -> Integer.compare(keys.getInt(i), intValue);
+                case LONG:      var longValue = (Long)key;      return i -> Long.compare(keys.getLong(i), longValue);
+                case DOUBLE:    var doubleValue = (Double)key;  return i -> Double.compare(keys.getDouble(i), doubleValue);
+                default:
+                    var comparator = Comparators.getDefaultComparator(type());
+                    return i -> comparator.compare(keys.getValue(i), key);
+            }
+        }
+    }
+
+    /**
+     * Performs a binary search over the keys of this index, which must be sorted
+     * @param probe the function that compares the key at an ordinal with the search key
+     * @return      the ordinal of the match, otherwise (-(insertion point) - 1)
+     */
+    private int binarySearch(IntUnaryOperator probe) {
+        var low = 0;
+        var high = size() - 1;
+        while (low <= high) {
+            var mid = (low + high) >>> 1;
+            var result = probe.applyAsInt(mid);
+            if (result < 0) {
+                low = mid + 1;
+            } else if (result > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * Discards the cached sort state of this index, which must be called whenever keys change position or value
+     */
+    final void resetSorted() {
+        this.sorted = true;
+        this.sortedCount = 0;
+    }
+
     @Override
     public final K getKey(int ordinal) {
         return keys.getValue(ordinal);
@@ -270,6 +442,7 @@ abstract class IndexBase<K> implements Index<K>, Swapper {
             this.indexes = indexes != null ? indexes : IntStream.range(0, size()).toArray();
             IntComparator comparator = (i, j) -> multiplier * keys.compare(i, j);
             SortAlgorithm.getDefault(parallel).sort(0, size(), comparator, this);
+            this.resetSorted();
         } catch (Exception ex) {
             throw new IndexException("Failed to sort Index", ex);
         }
@@ -292,12 +465,47 @@ abstract class IndexBase<K> implements Index<K>, Swapper {
                     this.ordinals[index] = i;
                 }
             }
+            this.resetSorted();
         } catch (Exception ex) {
             throw new IndexException("Failed to sort Index", ex);
         }
     }
 
 
+    @Override
+    public void reorder(int[] ordinals) {
+        var size = size();
+        if (ordinals.length != size) {
+            throw new IndexException("The permutation length does not match the index size: " + ordinals.length + " != " + size);
+        } else {
+            try {
+                var newIndexes = new int[size];
+                for (int i = 0; i < size; ++i) {
+                    var ordinal = ordinals[i];
+                    newIndexes[i] = indexes != null ? indexes[ordinal] : ordinal;
+                }
+                this.keys.update(0, keys.copy(ordinals), 0, size);
+                this.indexes = newIndexes;
+                this.ordinals = this.ordinals != null ? this.ordinals : new int[size];
+                for (int i = 0; i < size; ++i) {
+                    var index = newIndexes[i];
+                    this.ordinals[index] = i;
+                }
+                this.resetSorted();
+            } catch (Exception ex) {
+                throw new IndexException("Failed to reorder Index", ex);
+            }
+        }
+    }
+
+
+    @Override
+    public Index<K> filterOrdinals(int[] ordinals) {
+        this.coordinates(ordinals);
+        return filter(keys.copy(ordinals));
+    }
+
+
     @Override
     public final void swap(int i, int j) {
         this.keys.swap(i, j);
@@ -328,6 +536,7 @@ abstract class IndexBase<K> implements Index<K>, Swapper {
         if (!isFilter()) {
             this.ordinals = null;
             this.indexes = null;
+            this.resetSorted();
         }
         return this;
     }
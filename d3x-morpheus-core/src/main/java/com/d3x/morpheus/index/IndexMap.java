@@ -0,0 +1,590 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.index;
+
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+import com.d3x.morpheus.array.Array;
+import org.eclipse.collections.api.block.procedure.primitive.IntIntProcedure;
+import org.eclipse.collections.api.block.procedure.primitive.LongIntProcedure;
+import org.eclipse.collections.api.block.procedure.primitive.ObjectIntProcedure;
+import org.eclipse.collections.api.map.primitive.MutableIntIntMap;
+import org.eclipse.collections.api.map.primitive.MutableLongIntMap;
+import org.eclipse.collections.api.map.primitive.MutableObjectIntMap;
+import org.eclipse.collections.impl.factory.primitive.IntIntMaps;
+import org.eclipse.collections.impl.factory.primitive.LongIntMaps;
+import org.eclipse.collections.impl.factory.primitive.ObjectIntMaps;
+
+/**
+ * A map of index keys to coordinates that is divided into partitions by key hash so that it can be built in parallel.
+ *
+ * <p>Maps that are created empty, or loaded in bulk with fewer keys than a threshold, have a single partition and
+ * behave exactly like the underlying Eclipse Collections map. Larger bulk loads first assign every key to a partition
+ * in parallel while counting the keys per partition in each chunk of the input, then scatter the key positions into
+ * one bucket per partition using the prefix sums of those counts, so the input is only scanned a fixed number of
+ * times regardless of the partition count. The partitions are then populated concurrently from their buckets, each
+ * one pre-sized to exactly the number of keys it will hold so that no partition is ever rehashed. Duplicate keys are detected in the same pass, and lookups select the
+ * partition from the high bits of a spread hash of the key, which is independent of the slot chosen within it.</p>
+ *
+ * <p>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></p>
+ *
+ * @author  Xavier Witdouck
+ */
+abstract class IndexMap implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** The number of keys from which bulk operations are executed in parallel */
+    static final int PARALLEL_THRESHOLD = 1 << 17;
+
+    private static final int MIN_PARTITION_SIZE = 1 << 15;
+    private static final int MAX_PARTITIONS = 64;
+
+    private int bits;
+    private int size;
+
+    /**
+     * Constructor
+     * @param bits  the number of partition bits, where zero implies a single partition
+     */
+    IndexMap(int bits) {
+        this.bits = bits;
+    }
+
+    /**
+     * Returns the number of partition bits to use when loading the number of keys specified
+     * @param length    the number of keys to load
+     * @return          the number of partition bits
+     */
+    static int bits(int length) {
+        if (length < PARALLEL_THRESHOLD) {
+            return 0;
+        } else {
+            final int target = Math.min(MAX_PARTITIONS, Runtime.getRuntime().availableProcessors() * 2);
+            final int partitions = Math.min(Integer.highestOneBit(Math.max(2, target)), Integer.highestOneBit(length / MIN_PARTITION_SIZE));
+            return Integer.numberOfTrailingZeros(partitions);
+        }
+    }
+
+    /**
+     * Returns the number of entries in this map
+     * @return  the number of entries
+     */
+    final int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of partitions in this map
+     * @return  the partition count
+     */
+    final int partitions() {
+        return 1 << bits;
+    }
+
+    /**
+     * Returns the partition for the hash code specified
+     * @param hash  the hash code of a key
+     * @return      the partition that holds the key
+     */
+    final int partition(int hash) {
+        return bits == 0 ? 0 : (hash * 0x9E3779B9) >>> (32 - bits);
+    }
+
+    /**
+     * Adjusts the entry count of this map after a partition has been modified
+     * @param delta the change in the number of entries
+     */
+    final void resize(int delta) {
+        this.size += delta;
+    }
+
+    /**
+     * Creates the partition specified with the capacity to hold the number of keys specified
+     * @param partition the partition to create
+     * @param capacity  the number of keys the partition will hold
+     */
+    abstract void init(int partition, int capacity);
+
+    /**
+     * Populates all partitions of this map from a bulk set of keys, in parallel if there is more than one partition
+     * @param length    the number of keys to load
+     * @param hash      the function that returns the hash code for the key at a position
+     * @param loader    the function that loads the key at a position into a partition
+     * @return          the position of the first duplicate key found, -1 if all keys are unique
+     */
+    final int load(int length, IntUnaryOperator hash, Loader loader) {
+        final int partitions = partitions();
+        if (partitions == 1) {
+            this.init(0, length);
+            for (int i = 0; i < length; ++i) {
+                if (!loader.load(0, i)) {
+                    return i;
+                }
+            }
+            this.size = length;
+            return -1;
+        } else {
+            final byte[] ids = new byte[length];
+            final int chunks = partitions;
+            final int chunkSize = (length + chunks - 1) / chunks;
+            final int[][] offsets = new int[chunks][partitions];
+            IntStream.range(0, chunks).parallel().forEach(c -> {
+                final int[] counts = offsets[c];
+                final int end = Math.min(length, (c + 1) * chunkSize);
+                for (int i = c * chunkSize; i < end; ++i) {
+                    final int p = partition(hash.applyAsInt(i));
+                    ids[i] = (byte)p;
+                    counts[p]++;
+                }
+            });
+            int offset = 0;
+            final int[] starts = new int[partitions + 1];
+            for (int p = 0; p < partitions; ++p) {
+                starts[p] = offset;
+                for (int c = 0; c < chunks; ++c) {
+                    final int count = offsets[c][p];
+                    offsets[c][p] = offset;
+                    offset += count;
+                }
+            }
+            starts[partitions] = length;
+            final int[] positions = new int[length];
+            IntStream.range(0, chunks).parallel().forEach(c -> {
+                final int[] next = offsets[c];
+                final int end = Math.min(length, (c + 1) * chunkSize);
+                for (int i = c * chunkSize; i < end; ++i) {
+                    positions[next[ids[i]]++] = i;
+                }
+            });
+            final int duplicate = IntStream.range(0, partitions).parallel().map(p -> {
+                this.init(p, starts[p + 1] - starts[p]);
+                for (int k = starts[p]; k < starts[p + 1]; ++k) {
+                    if (!loader.load(p, positions[k])) {
+                        return positions[k];
+                    }
+                }
+                return -1;
+            }).filter(i -> i >= 0).min().orElse(-1);
+            this.size = duplicate < 0 ? length : 0;
+            return duplicate;
+        }
+    }
+
+
+    /**
+     * A function that loads the key at a position into a partition
+     */
+    @FunctionalInterface
+    interface Loader {
+
+        /**
+         * Loads the key at the position specified into the partition
+         * @param partition the partition to load into
+         * @param position  the position of the key in the source
+         * @return          true if loaded, false if the key already exists in the partition
+         */
+        boolean load(int partition, int position);
+    }
+
+
+    /**
+     * An IndexMap for int keys
+     */
+    static class OfInts extends IndexMap {
+
+        private static final long serialVersionUID = 1L;
+
+        private MutableIntIntMap[] maps;
+
+        /**
+         * Constructor
+         * @param bits  the number of partition bits
+         */
+        private OfInts(int bits) {
+            super(bits);
+            this.maps = new MutableIntIntMap[partitions()];
+        }
+
+        /**
+         * Returns a newly created empty map with a single partition
+         * @param capacity  the initial capacity
+         * @return          the newly created map
+         */
+        static OfInts of(int capacity) {
+            final OfInts map = new OfInts(0);
+            map.init(0, capacity);
+            return map;
+        }
+
+        /**
+         * Returns a newly created map loaded with the keys specified
+         * @param keys      the keys to load, where the key at position i is the i-th key
+         * @param length    the number of keys to load
+         * @param values    the function that returns the value for the key at a position
+         * @return          the newly created map
+         * @throws IndexException   if the keys contain duplicates
+         */
+        static OfInts of(Array<Integer> keys, int length, IntUnaryOperator values) {
+            final OfInts map = new OfInts(bits(length));
+            final int duplicate = map.load(length, keys::getInt, (p, i) -> {
+                final MutableIntIntMap target = map.maps[p];
+                final int size = target.size();
+                target.put(keys.getInt(i), values.applyAsInt(i));
+                return target.size() > size;
+            });
+            if (duplicate < 0) {
+                return map;
+            } else {
+                throw new IndexException("Cannot have duplicate keys in index: " + keys.getValue(duplicate));
+            }
+        }
+
+        @Override
+        final void init(int partition, int capacity) {
+            this.maps[partition] = IntIntMaps.mutable.withInitialCapacity(capacity);
+        }
+
+        /**
+         * Returns the value for the key, or the default if the key does not exist
+         * @param key       the key to lookup
+         * @param ifAbsent  the value to return if the key does not exist
+         * @return          the value for key
+         */
+        final int getIfAbsent(int key, int ifAbsent) {
+            return maps[partition(key)].getIfAbsent(key, ifAbsent);
+        }
+
+        /**
+         * Returns true if this map contains the key specified
+         * @param key   the key to check
+         * @return      true if key exists
+         */
+        final boolean containsKey(int key) {
+            return maps[partition(key)].containsKey(key);
+        }
+
+        /**
+         * Puts an entry into this map, replacing any existing value for the key
+         * @param key   the key for entry
+         * @param value the value for entry
+         */
+        final void put(int key, int value) {
+            final MutableIntIntMap target = maps[partition(key)];
+            final int size = target.size();
+            target.put(key, value);
+            this.resize(target.size() - size);
+        }
+
+        /**
+         * Removes the key from this map and returns the value, or the default if the key does not exist
+         * @param key       the key to remove
+         * @param ifAbsent  the value to return if the key does not exist
+         * @return          the value that was removed
+         */
+        final int removeKeyIfAbsent(int key, int ifAbsent) {
+            final MutableIntIntMap target = maps[partition(key)];
+            final int size = target.size();
+            final int value = target.removeKeyIfAbsent(key, ifAbsent);
+            this.resize(target.size() - size);
+            return value;
+        }
+
+        /**
+         * Calls the procedure with each key and value in this map
+         * @param procedure the procedure to call
+         */
+        final void forEachKeyValue(IntIntProcedure procedure) {
+            for (MutableIntIntMap map : maps) {
+                map.forEachKeyValue(procedure);
+            }
+        }
+
+        /**
+         * Returns a deep copy of this map
+         * @return  the deep copy
+         */
+        final OfInts copy() {
+            final OfInts copy = new OfInts(Integer.numberOfTrailingZeros(partitions()));
+            for (int i = 0; i < maps.length; ++i) {
+                copy.maps[i] = IntIntMaps.mutable.withAll(maps[i]);
+            }
+            copy.resize(size());
+            return copy;
+        }
+    }
+
+
+    /**
+     * An IndexMap for long keys
+     */
+    static class OfLongs extends IndexMap {
+
+        private static final long serialVersionUID = 1L;
+
+        private MutableLongIntMap[] maps;
+
+        /**
+         * Constructor
+         * @param bits  the number of partition bits
+         */
+        private OfLongs(int bits) {
+            super(bits);
+            this.maps = new MutableLongIntMap[partitions()];
+        }
+
+        /**
+         * Returns a newly created empty map with a single partition
+         * @param capacity  the initial capacity
+         * @return          the newly created map
+         */
+        static OfLongs of(int capacity) {
+            final OfLongs map = new OfLongs(0);
+            map.init(0, capacity);
+            return map;
+        }
+
+        /**
+         * Returns a newly created map loaded with the keys specified
+         * @param keys      the keys to load, where the key at position i is the i-th key
+         * @param length    the number of keys to load
+         * @param values    the function that returns the value for the key at a position
+         * @return          the newly created map
+         * @throws IndexException   if the keys contain duplicates
+         */
+        static OfLongs of(Array<?> keys, int length, IntUnaryOperator values) {
+            final OfLongs map = new OfLongs(bits(length));
+            final int duplicate = map.load(length, i -> Long.hashCode(keys.getLong(i)), (p, i) -> {
+                final MutableLongIntMap target = map.maps[p];
+                final int size = target.size();
+                target.put(keys.getLong(i), values.applyAsInt(i));
+                return target.size() > size;
+            });
+            if (duplicate < 0) {
+                return map;
+            } else {
+                throw new IndexException("Cannot have duplicate keys in index: " + keys.getValue(duplicate));
+            }
+        }
+
+        @Override
+        final void init(int partition, int capacity) {
+            this.maps[partition] = LongIntMaps.mutable.withInitialCapacity(capacity);
+        }
+
+        /**
+         * Returns the value for the key, or the default if the key does not exist
+         * @param key       the key to lookup
+         * @param ifAbsent  the value to return if the key does not exist
+         * @return          the value for key
+         */
+        final int getIfAbsent(long key, int ifAbsent) {
+            return maps[partition(Long.hashCode(key))].getIfAbsent(key, ifAbsent);
+        }
+
+        /**
+         * Returns true if this map contains the key specified
+         * @param key   the key to check
+         * @return      true if key exists
+         */
+        final boolean containsKey(long key) {
+            return maps[partition(Long.hashCode(key))].containsKey(key);
+        }
+
+        /**
+         * Puts an entry into this map, replacing any existing value for the key
+         * @param key   the key for entry
+         * @param value the value for entry
+         */
+        final void put(long key, int value) {
+            final MutableLongIntMap target = maps[partition(Long.hashCode(key))];
+            final int size = target.size();
+            target.put(key, value);
+            this.resize(target.size() - size);
+        }
+
+        /**
+         * Removes the key from this map and returns the value, or the default if the key does not exist
+         * @param key       the key to remove
+         * @param ifAbsent  the value to return if the key does not exist
+         * @return          the value that was removed
+         */
+        final int removeKeyIfAbsent(long key, int ifAbsent) {
+            final MutableLongIntMap target = maps[partition(Long.hashCode(key))];
+            final int size = target.size();
+            final int value = target.removeKeyIfAbsent(key, ifAbsent);
+            this.resize(target.size() - size);
+            return value;
+        }
+
+        /**
+         * Calls the procedure with each key and value in this map
+         * @param procedure the procedure to call
+         */
+        final void forEachKeyValue(LongIntProcedure procedure) {
+            for (MutableLongIntMap map : maps) {
+                map.forEachKeyValue(procedure);
+            }
+        }
+
+        /**
+         * Returns a deep copy of this map
+         * @return  the deep copy
+         */
+        final OfLongs copy() {
+            final OfLongs copy = new OfLongs(Integer.numberOfTrailingZeros(partitions()));
+            for (int i = 0; i < maps.length; ++i) {
+                copy.maps[i] = LongIntMaps.mutable.withAll(maps[i]);
+            }
+            copy.resize(size());
+            return copy;
+        }
+    }
+
+
+    /**
+     * An IndexMap for object keys
+     * @param <K>   the key type
+     */
+    static class OfObjects<K> extends IndexMap {
+
+        private static final long serialVersionUID = 1L;
+
+        private MutableObjectIntMap<K>[] maps;
+
+        /**
+         * Constructor
+         * @param bits  the number of partition bits
+         */
+        @SuppressWarnings("unchecked")
+        private OfObjects(int bits) {
+            super(bits);
+            this.maps = (MutableObjectIntMap<K>[])new MutableObjectIntMap[partitions()];
+        }
+
+        /**
+         * Returns a newly created empty map with a single partition
+         * @param capacity  the initial capacity
+         * @param <K>       the key type
+         * @return          the newly created map
+         */
+        static <K> OfObjects<K> of(int capacity) {
+            final OfObjects<K> map = new OfObjects<>(0);
+            map.init(0, capacity);
+            return map;
+        }
+
+        /**
+         * Returns a newly created map loaded with the keys specified
+         * @param keys      the keys to load, where the key at position i is the i-th key
+         * @param length    the number of keys to load
+         * @param values    the function that returns the value for the key at a position
+         * @param <K>       the key type
+         * @return          the newly created map
+         * @throws IndexException   if the keys contain duplicates
+         */
+        static <K> OfObjects<K> of(Array<K> keys, int length, IntUnaryOperator values) {
+            final OfObjects<K> map = new OfObjects<>(bits(length));
+            final int duplicate = map.load(length, i -> Objects.hashCode(keys.getValue(i)), (p, i) -> {
+                final MutableObjectIntMap<K> target = map.maps[p];
+                final int size = target.size();
+                target.put(keys.getValue(i), values.applyAsInt(i));
+                return target.size() > size;
+            });
+            if (duplicate < 0) {
+                return map;
+            } else {
+                throw new IndexException("Cannot have duplicate keys in index: " + keys.getValue(duplicate));
+            }
+        }
+
+        @Override
+        final void init(int partition, int capacity) {
+            this.maps[partition] = ObjectIntMaps.mutable.withInitialCapacity(capacity);
+        }
+
+        /**
+         * Returns the value for the key, or the default if the key does not exist
+         * @param key       the key to lookup
+         * @param ifAbsent  the value to return if the key does not exist
+         * @return          the value for key
+         */
+        final int getIfAbsent(K key, int ifAbsent) {
+            return maps[partition(Objects.hashCode(key))].getIfAbsent(key, ifAbsent);
+        }
+
+        /**
+         * Returns true if this map contains the key specified
+         * @param key   the key to check
+         * @return      true if key exists
+         */
+        final boolean containsKey(K key) {
+            return maps[partition(Objects.hashCode(key))].containsKey(key);
+        }
+
+        /**
+         * Puts an entry into this map, replacing any existing value for the key
+         * @param key   the key for entry
+         * @param value the value for entry
+         */
+        final void put(K key, int value) {
+            final MutableObjectIntMap<K> target = maps[partition(Objects.hashCode(key))];
+            final int size = target.size();
+            target.put(key, value);
+            this.resize(target.size() - size);
+        }
+
+        /**
+         * Removes the key from this map and returns the value, or the default if the key does not exist
+         * @param key       the key to remove
+         * @param ifAbsent  the value to return if the key does not exist
+         * @return          the value that was removed
+         */
+        final int removeKeyIfAbsent(K key, int ifAbsent) {
+            final MutableObjectIntMap<K> target = maps[partition(Objects.hashCode(key))];
+            final int size = target.size();
+            final int value = target.removeKeyIfAbsent(key, ifAbsent);
+            this.resize(target.size() - size);
+            return value;
+        }
+
+        /**
+         * Calls the procedure with each key and value in this map
+         * @param procedure the procedure to call
+         */
+        final void forEachKeyValue(ObjectIntProcedure<? super K> procedure) {
+            for (MutableObjectIntMap<K> map : maps) {
+                map.forEachKeyValue(procedure);
+            }
+        }
+
+        /**
+         * Returns a deep copy of this map
+         * @return  the deep copy
+         */
+        final OfObjects<K> copy() {
+            final OfObjects<K> copy = new OfObjects<>(Integer.numberOfTrailingZeros(partitions()));
+            for (int i = 0; i < maps.length; ++i) {
+                copy.maps[i] = ObjectIntMaps.mutable.withAll(maps[i]);
+            }
+            copy.resize(size());
+            return copy;
+        }
+    }
+}
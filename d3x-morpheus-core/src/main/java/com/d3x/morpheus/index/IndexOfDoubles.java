@@ -180,6 +180,7 @@ class IndexOfDoubles extends IndexBase<Double> {
                 final int ordinal = getOrdinalAt(index);
                 this.indexMap.put(replacement, index);
                 this.keyArray().setValue(ordinal, replacement);
+                this.resetSorted();
                 return index;
             }
         }
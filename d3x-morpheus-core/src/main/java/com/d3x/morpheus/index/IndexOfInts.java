@@ -18,14 +18,16 @@ package com.d3x.morpheus.index;
 import java.util.function.Predicate;
 
 import com.d3x.morpheus.array.Array;
-import com.d3x.morpheus.array.ArrayBuilder;
 import com.d3x.morpheus.util.IntComparator;
-import org.eclipse.collections.api.map.primitive.MutableIntIntMap;
-import org.eclipse.collections.impl.factory.primitive.IntIntMaps;
+import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
 
 /**
  * An Index implementation designed to efficiently store integer values
  *
+ * <p>While the keys in insertion order form an arithmetic sequence, such as the 0..n-1 row keys of a frame loaded
+ * from a CSV file or database, the coordinate of a key is computed directly from the first key and the step, and no
+ * hash map is created. The map is only materialized if a key is added out of sequence or an existing key is replaced.</p>
+ *
  * <p>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></p>
  *
  * @author  Xavier Witdouck
@@ -34,7 +36,10 @@ class IndexOfInts extends IndexBase<Integer> {
 
     private static final long serialVersionUID = 1L;
 
-    private MutableIntIntMap indexMap;
+    private IndexMap.OfInts indexMap;
+    private int first;
+    private int step = 1;
+    private int count;
 
     /**
      * Constructor
@@ -43,7 +48,6 @@ class IndexOfInts extends IndexBase<Integer> {
      */
     IndexOfInts(int initialSize) {
         super(Array.of(Integer.class, initialSize));
-        this.indexMap = IntIntMaps.mutable.withInitialCapacity(initialSize);
     }
 
     /**
@@ -53,16 +57,9 @@ class IndexOfInts extends IndexBase<Integer> {
      */
     IndexOfInts(Iterable<Integer> iterable) {
         super(iterable);
-        this.indexMap = IntIntMaps.mutable.withInitialCapacity(keyArray().length());
-        this.keyArray().sequential().forEachValue(v -> {
-            final int index = v.index();
-            final int key = v.getInt();
-            final int size = indexMap.size();
-            indexMap.put(key, index);
-            if (indexMap.size() <= size) {
-                throw new IndexException("Cannot have duplicate keys in index: " + v.getValue());
-            }
-        });
+        if (!initSequence(keyArray())) {
+            this.indexMap = IndexMap.OfInts.of(keyArray(), keyArray().length(), i -> i);
+        }
     }
 
     /**
@@ -73,17 +70,115 @@ class IndexOfInts extends IndexBase<Integer> {
      */
     private IndexOfInts(Iterable<Integer> iterable, IndexOfInts parent) {
         super(iterable, parent);
-        this.indexMap = IntIntMaps.mutable.withInitialCapacity(keyArray().length());
-        this.keyArray().sequential().forEachValue(v -> {
-            final int key = v.getInt();
-            final int index = parent.indexMap.getIfAbsent(key, -1);
-            if (index < 0) throw new IndexException("No match for key: " + v.getValue());
-            final int size = indexMap.size();
-            indexMap.put(key, index);
-            if (indexMap.size() <= size) {
-                throw new IndexException("Cannot have duplicate keys in index: " + v.getValue());
+        this.indexMap = IndexMap.OfInts.of(keyArray(), keyArray().length(), this::parentCoordinate);
+    }
+
+    /**
+     * Constructor
+     * @param keys          the keys for index
+     * @param coordinates   the coordinate in the parent of the key at each ordinal
+     * @param parent        the parent index to initialize from
+     */
+    private IndexOfInts(Array<Integer> keys, int[] coordinates, IndexOfInts parent) {
+        super(keys, coordinates, parent);
+        this.indexMap = IndexMap.OfInts.of(keyArray(), keyArray().length(), this::parentCoordinate);
+    }
+
+    /**
+     * Initializes this index as an arithmetic sequence if the keys are evenly spaced
+     * @param keys  the keys in coordinate order
+     * @return      true if the keys form an arithmetic sequence, false if a map is required
+     */
+    private boolean initSequence(Array<Integer> keys) {
+        final int length = keys.length();
+        final int first = length > 0 ? keys.getInt(0) : 0;
+        final long step = length > 1 ? (long)keys.getInt(1) - first : 1L;
+        if (step == 0L || step != (int)step) {
+            return false;
+        } else {
+            for (int i = 2; i < length; ++i) {
+                if (keys.getInt(i) != first + i * step) {
+                    return false;
+                }
+            }
+            this.first = first;
+            this.step = (int)step;
+            this.count = length;
+            return true;
+        }
+    }
+
+    /**
+     * Extends the arithmetic sequence of this index with the key if it is the next term
+     * @param key   the key to append
+     * @return      true if the sequence was extended, false if the key is out of sequence
+     */
+    private boolean extendSequence(int key) {
+        if (count == 0) {
+            this.first = key;
+            this.step = 1;
+            this.count = 1;
+            return true;
+        } else if (count == 1) {
+            final long step = (long)key - first;
+            if (step == 0L || step != (int)step) {
+                return false;
+            } else {
+                this.step = (int)step;
+                this.count = 2;
+                return true;
+            }
+        } else if (first + (long)count * step == key) {
+            this.count++;
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the map of keys to coordinates, materializing it from the arithmetic sequence if required
+     * @return  the map of keys to coordinates
+     */
+    private IndexMap.OfInts indexMap() {
+        if (indexMap == null) {
+            final IndexMap.OfInts map = IndexMap.OfInts.of(keyArray().length());
+            for (int i = 0; i < count; ++i) {
+                map.put((int)(first + (long)i * step), i);
+            }
+            this.indexMap = map;
+        }
+        return indexMap;
+    }
+
+    /**
+     * Appends a key that does not already exist in this index
+     * @param key   the key to append
+     */
+    private void append(int key) {
+        final int index = size();
+        if (indexMap == null && !extendSequence(key)) {
+            this.indexMap();
+        }
+        this.ensureCapacity(index + 1);
+        this.keyArray().setInt(index, key);
+        if (indexMap != null) {
+            this.indexMap.put(key, index);
+        }
+    }
+
+    /**
+     * Restores the keys to coordinate order
+     */
+    private void restoreKeys() {
+        final Array<Integer> keys = keyArray();
+        if (indexMap != null) {
+            this.indexMap.forEachKeyValue((key, index) -> keys.setInt(index, key));
+        } else {
+            for (int i = 0; i < count; ++i) {
+                keys.setInt(i, (int)(first + (long)i * step));
             }
-        });
+        }
     }
 
     @Override()
@@ -94,15 +189,20 @@ class IndexOfInts extends IndexBase<Integer> {
     @Override
     public Index<Integer> filter(Predicate<Integer> predicate) {
         final int count = size();
-        final ArrayBuilder<Integer> builder = ArrayBuilder.of(count / 2, Integer.class);
+        final IntArrayList ordinals = new IntArrayList(count / 2);
         for (int i = 0; i < count; ++i) {
-            final int value = keyArray().getInt(i);
-            if (predicate.test(value)) {
-                builder.appendInt(value);
+            if (predicate.test(keyArray().getInt(i))) {
+                ordinals.add(i);
             }
         }
-        final Array<Integer> filter = builder.toArray();
-        return new IndexOfInts(filter, isFilter() ? (IndexOfInts) parent() : this);
+        return filterOrdinals(ordinals.toArray());
+    }
+
+    @Override
+    public final Index<Integer> filterOrdinals(int[] ordinals) {
+        final int[] coordinates = coordinates(ordinals);
+        final Array<Integer> keys = keyArray().copy(ordinals);
+        return new IndexOfInts(keys, coordinates, isFilter() ? (IndexOfInts) parent() : this);
     }
 
     @Override
@@ -110,13 +210,10 @@ class IndexOfInts extends IndexBase<Integer> {
         if (isFilter()) {
             throw new IndexException("Cannot add keys to an filter on another index");
         } else {
-            if (indexMap.containsKey(key)) {
+            if (contains(key)) {
                 return false;
             } else {
-                final int index = indexMap.size();
-                this.ensureCapacity(index + 1);
-                this.keyArray().setValue(index, key);
-                this.indexMap.put(key, index);
+                this.append(key);
                 return true;
             }
         }
@@ -130,15 +227,8 @@ class IndexOfInts extends IndexBase<Integer> {
             var count = new int[1];
             keys.forEach(key -> {
                 final int keyAsInt = key;
-                if (!indexMap.containsKey(keyAsInt)) {
-                    final int index = indexMap.size();
-                    this.ensureCapacity(index + 1);
-                    this.keyArray().setValue(index, keyAsInt);
-                    final int size = indexMap.size();
-                    indexMap.put(keyAsInt, index);
-                    if (!ignoreDuplicates && indexMap.size() <= size) {
-                        throw new IndexException("Attempt to add duplicate key to index: " + key);
-                    }
+                if (!contains(keyAsInt)) {
+                    this.append(keyAsInt);
                     count[0]++;
                 }
             });
@@ -150,7 +240,7 @@ class IndexOfInts extends IndexBase<Integer> {
     public final Index<Integer> copy(boolean deep) {
         try {
             var clone = (IndexOfInts)super.copy(deep);
-            if (deep) clone.indexMap = IntIntMaps.mutable.withAll(indexMap);
+            if (deep && indexMap != null) clone.indexMap = indexMap.copy();
             return clone;
         } catch (Exception ex) {
             throw new IndexException("Failed to clone index", ex);
@@ -159,22 +249,28 @@ class IndexOfInts extends IndexBase<Integer> {
 
     @Override
     public final int size() {
-        return indexMap.size();
+        return indexMap != null ? indexMap.size() : count;
     }
 
     @Override
     public final int getCoordinate(Integer key) {
-        return indexMap.getIfAbsent(key, -1);
+        if (indexMap != null) {
+            return indexMap.getIfAbsent(key, -1);
+        } else {
+            final long offset = (long)key - first;
+            final long coordinate = offset / step;
+            return offset % step == 0 && coordinate >= 0 && coordinate < count ? (int)coordinate : -1;
+        }
     }
 
     @Override
     public final boolean contains(Integer key) {
-        return indexMap.containsKey(key);
+        return indexMap != null ? indexMap.containsKey(key) : getCoordinate(key) >= 0;
     }
 
     @Override
     public final int replace(Integer existing, Integer replacement) {
-        final int index = indexMap.removeKeyIfAbsent(existing, -1);
+        final int index = indexMap().removeKeyIfAbsent(existing, -1);
         if (index == -1) {
             throw new IndexException("No match key for " + existing);
         } else {
@@ -184,6 +280,7 @@ class IndexOfInts extends IndexBase<Integer> {
                 final int ordinal = getOrdinalAt(index);
                 this.indexMap.put(replacement, index);
                 this.keyArray().setValue(ordinal, replacement);
+                this.resetSorted();
                 return index;
             }
         }
@@ -194,7 +291,7 @@ class IndexOfInts extends IndexBase<Integer> {
         final int size = size();
         for (int i = 0; i < size; ++i) {
             var key = keyArray().getValue(i);
-            final int index = indexMap.getIfAbsent(key, -1);
+            final int index = getCoordinate(key);
             consumer.accept(key, index);
         }
     }
@@ -202,10 +299,7 @@ class IndexOfInts extends IndexBase<Integer> {
 
     @Override
     public final Index<Integer> resetOrder() {
-        final Array<Integer> keys = keyArray();
-        this.indexMap.forEachKeyValue((key, index) -> {
-            keys.setInt(index, key);
-        });
+        this.restoreKeys();
         return this;
     }
 
@@ -214,10 +308,7 @@ class IndexOfInts extends IndexBase<Integer> {
     public final void sort(boolean parallel, IntComparator comparator) {
         super.sort(parallel, comparator);
         if (comparator == null) {
-            final Array<Integer> keys = keyArray();
-            this.indexMap.forEachKeyValue((key, index) -> {
-                keys.setInt(index, key);
-            });
+            this.restoreKeys();
         }
    }
 }
@@ -18,13 +18,15 @@ package com.d3x.morpheus.index;
 import java.util.function.Predicate;
 
 import com.d3x.morpheus.array.Array;
-import com.d3x.morpheus.array.ArrayBuilder;
-import org.eclipse.collections.api.map.primitive.MutableLongIntMap;
-import org.eclipse.collections.impl.factory.primitive.LongIntMaps;
+import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
 
 /**
  * An Index implementation designed to efficiently store long values
  *
+ * <p>While the keys in insertion order form an arithmetic sequence, the coordinate of a key is computed directly
+ * from the first key and the step, and no hash map is created. The map is only materialized if a key is added out
+ * of sequence or an existing key is replaced.</p>
+ *
  * <p>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></p>
  *
  * @author  Xavier Witdouck
@@ -33,7 +35,10 @@ class IndexOfLongs extends IndexBase<Long> {
 
     private static final long serialVersionUID = 1L;
 
-    private MutableLongIntMap indexMap;
+    private IndexMap.OfLongs indexMap;
+    private long first;
+    private long step = 1L;
+    private int count;
 
     /**
      * Constructor
@@ -41,7 +46,6 @@ class IndexOfLongs extends IndexBase<Long> {
      */
     IndexOfLongs(int initialSize) {
         super(Array.of(Long.class, initialSize));
-        this.indexMap = LongIntMaps.mutable.withInitialCapacity(initialSize);
     }
 
     /**
@@ -50,16 +54,9 @@ class IndexOfLongs extends IndexBase<Long> {
      */
     IndexOfLongs(Iterable<Long> iterable) {
         super(iterable);
-        this.indexMap = LongIntMaps.mutable.withInitialCapacity(keyArray().length());
-        this.keyArray().sequential().forEachValue(v -> {
-            final int index = v.index();
-            final long key = v.getLong();
-            final int size = indexMap.size();
-            indexMap.put(key, index);
-            if (indexMap.size() <= size) {
-                throw new IndexException("Cannot have duplicate keys in index: " + v.getValue());
-            }
-        });
+        if (!initSequence(keyArray())) {
+            this.indexMap = IndexMap.OfLongs.of(keyArray(), keyArray().length(), i -> i);
+        }
     }
 
     /**
@@ -69,17 +66,110 @@ class IndexOfLongs extends IndexBase<Long> {
      */
     private IndexOfLongs(Iterable<Long> iterable, IndexOfLongs parent) {
         super(iterable, parent);
-        this.indexMap = LongIntMaps.mutable.withInitialCapacity(keyArray().length());
-        this.keyArray().sequential().forEachValue(v -> {
-            final long key = v.getLong();
-            final int index = parent.indexMap.getIfAbsent(key, -1);
-            if (index < 0) throw new IndexException("No match for key: " + v.getValue());
-            final int size = indexMap.size();
-            indexMap.put(key, index);
-            if (indexMap.size() <= size) {
-                throw new IndexException("Cannot have duplicate keys in index: " + v.getValue());
+        this.indexMap = IndexMap.OfLongs.of(keyArray(), keyArray().length(), this::parentCoordinate);
+    }
+
+    /**
+     * Constructor
+     * @param keys          the keys for index
+     * @param coordinates   the coordinate in the parent of the key at each ordinal
+     * @param parent        the parent index to initialize from
+     */
+    private IndexOfLongs(Array<Long> keys, int[] coordinates, IndexOfLongs parent) {
+        super(keys, coordinates, parent);
+        this.indexMap = IndexMap.OfLongs.of(keyArray(), keyArray().length(), this::parentCoordinate);
+    }
+
+    /**
+     * Initializes this index as an arithmetic sequence if the keys are evenly spaced
+     * @param keys  the keys in coordinate order
+     * @return      true if the keys form an arithmetic sequence, false if a map is required
+     */
+    private boolean initSequence(Array<Long> keys) {
+        try {
+            final int length = keys.length();
+            final long first = length > 0 ? keys.getLong(0) : 0L;
+            final long step = length > 1 ? Math.subtractExact(keys.getLong(1), first) : 1L;
+            if (step == 0L) {
+                return false;
+            } else {
+                Math.addExact(first, Math.multiplyExact(step, Math.max(0L, length - 1L)));
+                for (int i=2; i<length; ++i) {
+                    if (keys.getLong(i) != first + i * step) {
+                        return false;
+                    }
+                }
+                this.first = first;
+                this.step = step;
+                this.count = length;
+                return true;
             }
-        });
+        } catch (ArithmeticException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Extends the arithmetic sequence of this index with the key if it is the next term
+     * @param key   the key to append
+     * @return      true if the sequence was extended, false if the key is out of sequence
+     */
+    private boolean extendSequence(long key) {
+        try {
+            if (count == 0) {
+                this.first = key;
+                this.step = 1L;
+                this.count = 1;
+                return true;
+            } else if (count == 1) {
+                final long step = Math.subtractExact(key, first);
+                if (step == 0L) {
+                    return false;
+                } else {
+                    this.step = step;
+                    this.count = 2;
+                    return true;
+                }
+            } else if (Math.addExact(first, Math.multiplyExact(step, (long)count)) == key) {
+                this.count++;
+                return true;
+            } else {
+                return false;
+            }
+        } catch (ArithmeticException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the map of keys to coordinates, materializing it from the arithmetic sequence if required
+     * @return  the map of keys to coordinates
+     */
+    private IndexMap.OfLongs indexMap() {
+        if (indexMap == null) {
+            final IndexMap.OfLongs map = IndexMap.OfLongs.of(keyArray().length());
+            for (int i=0; i<count; ++i) {
+                map.put(first + i * step, i);
+            }
+            this.indexMap = map;
+        }
+        return indexMap;
+    }
+
+    /**
+     * Appends a key that does not already exist in this index
+     * @param key   the key to append
+     */
+    private void append(long key) {
+        final int index = size();
+        if (indexMap == null && !extendSequence(key)) {
+            this.indexMap();
+        }
+        this.ensureCapacity(index + 1);
+        this.keyArray().setLong(index, key);
+        if (indexMap != null) {
+            this.indexMap.put(key, index);
+        }
     }
 
     @Override()
@@ -90,15 +180,20 @@ class IndexOfLongs extends IndexBase<Long> {
     @Override
     public final Index<Long> filter(Predicate<Long> predicate) {
         final int count = size();
-        final ArrayBuilder<Long> builder = ArrayBuilder.of(count / 2, Long.class);
-        for (int i=0; i<count; ++i) {
-            final long value = keyArray().getLong(i);
-            if (predicate.test(value)) {
-                builder.appendLong(value);
+        final IntArrayList ordinals = new IntArrayList(count / 2);
+        for (int i = 0; i < count; ++i) {
+            if (predicate.test(keyArray().getLong(i))) {
+                ordinals.add(i);
             }
         }
-        final Array<Long> filter = builder.toArray();
-        return new IndexOfLongs(filter, isFilter() ? (IndexOfLongs)parent() : this);
+        return filterOrdinals(ordinals.toArray());
+    }
+
+    @Override
+    public final Index<Long> filterOrdinals(int[] ordinals) {
+        final int[] coordinates = coordinates(ordinals);
+        final Array<Long> keys = keyArray().copy(ordinals);
+        return new IndexOfLongs(keys, coordinates, isFilter() ? (IndexOfLongs)parent() : this);
     }
 
     @Override
@@ -106,13 +201,10 @@ class IndexOfLongs extends IndexBase<Long> {
         if (isFilter()) {
             throw new IndexException("Cannot add keys to an filter on another index");
         } else {
-            if (indexMap.containsKey(key)) {
+            if (contains(key)) {
                 return false;
             } else {
-                final int index = indexMap.size();
-                this.ensureCapacity(index + 1);
-                this.keyArray().setValue(index, key);
-                this.indexMap.put(key, index);
+                this.append(key);
                 return true;
             }
         }
@@ -126,15 +218,8 @@ class IndexOfLongs extends IndexBase<Long> {
             var count = new int[1];
             keys.forEach(key -> {
                 final long keyAsLong = key;
-                if (!indexMap.containsKey(keyAsLong)) {
-                    final int index = indexMap.size();
-                    this.ensureCapacity(index + 1);
-                    this.keyArray().setValue(index, keyAsLong);
-                    final int size = indexMap.size();
-                    indexMap.put(keyAsLong, index);
-                    if (!ignoreDuplicates && indexMap.size() < size) {
-                        throw new IndexException("Attempt to add duplicate key to index: " + key);
-                    }
+                if (!contains(keyAsLong)) {
+                    this.append(keyAsLong);
                     count[0]++;
                 }
             });
@@ -146,7 +231,7 @@ class IndexOfLongs extends IndexBase<Long> {
     public final Index<Long> copy(boolean deep) {
         try {
             final IndexOfLongs clone = (IndexOfLongs)super.copy(deep);
-            if (deep) clone.indexMap = LongIntMaps.mutable.withAll(indexMap);
+            if (deep && indexMap != null) clone.indexMap = indexMap.copy();
             return clone;
         } catch (Exception ex) {
             throw new IndexException("Failed to clone index", ex);
@@ -155,22 +240,35 @@ class IndexOfLongs extends IndexBase<Long> {
 
     @Override
     public int size() {
-        return indexMap.size();
+        return indexMap != null ? indexMap.size() : count;
     }
 
     @Override
     public int getCoordinate(Long key) {
-        return indexMap.getIfAbsent(key, -1);
+        if (indexMap != null) {
+            return indexMap.getIfAbsent(key, -1);
+        } else if (count == 0) {
+            return -1;
+        } else {
+            final long value = key;
+            final long last = first + (count - 1) * step;
+            if (step > 0 ? value < first || value > last : value > first || value < last) {
+                return -1;
+            } else {
+                final long offset = value - first;
+                return offset % step == 0 ? (int)(offset / step) : -1;
+            }
+        }
     }
 
     @Override
     public boolean contains(Long key) {
-        return indexMap.containsKey(key);
+        return indexMap != null ? indexMap.containsKey(key) : getCoordinate(key) >= 0;
     }
 
     @Override
     public final int replace(Long existing, Long replacement) {
-        final int index = indexMap.removeKeyIfAbsent(existing, -1);
+        final int index = indexMap().removeKeyIfAbsent(existing, -1);
         if (index == -1) {
             throw new IndexException("No match for key: " + existing);
         } else {
@@ -180,6 +278,7 @@ class IndexOfLongs extends IndexBase<Long> {
                 final int ordinal = getOrdinalAt(index);
                 this.indexMap.put(replacement, index);
                 this.keyArray().setValue(ordinal, replacement);
+                this.resetSorted();
                 return index;
             }
         }
@@ -190,7 +289,7 @@ class IndexOfLongs extends IndexBase<Long> {
         final int size = size();
         for (int i=0; i<size; ++i) {
             final Long key = keyArray().getValue(i);
-            final int index = indexMap.getIfAbsent(key, -1);
+            final int index = getCoordinate(key);
             consumer.accept(key, index);
         }
     }
@@ -18,9 +18,7 @@ package com.d3x.morpheus.index;
 import java.util.function.Predicate;
 
 import com.d3x.morpheus.array.Array;
-import com.d3x.morpheus.array.ArrayBuilder;
-import org.eclipse.collections.api.map.primitive.MutableObjectIntMap;
-import org.eclipse.collections.impl.factory.primitive.ObjectIntMaps;
+import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
 
 /**
  * An Index implementation designed to store any object type.
@@ -33,7 +31,7 @@ class IndexOfObjects<K> extends IndexBase<K> {
 
     private static final long serialVersionUID = 1L;
 
-    private MutableObjectIntMap<K> indexMap;
+    private IndexMap.OfObjects<K> indexMap;
 
     /**
      * Constructor
@@ -42,7 +40,7 @@ class IndexOfObjects<K> extends IndexBase<K> {
      */
     IndexOfObjects(Class<K> type, int initialSize) {
         super(Array.of(type, initialSize));
-        this.indexMap = ObjectIntMaps.mutable.withInitialCapacity(initialSize);
+        this.indexMap = IndexMap.OfObjects.of(initialSize);
     }
 
     /**
@@ -51,16 +49,7 @@ class IndexOfObjects<K> extends IndexBase<K> {
      */
     IndexOfObjects(Iterable<K> iterable) {
         super(iterable);
-        this.indexMap = ObjectIntMaps.mutable.withInitialCapacity(keyArray().length());
-        this.keyArray().sequential().forEachValue(v -> {
-            final int index = v.index();
-            final K key = v.getValue();
-            final int size = indexMap.size();
-            indexMap.put(key, index);
-            if (indexMap.size() <= size) {
-                throw new IndexException("Cannot have duplicate keys in index: " + v.getValue());
-            }
-        });
+        this.indexMap = IndexMap.OfObjects.of(keyArray(), keyArray().length(), i -> i);
     }
 
     /**
@@ -70,17 +59,18 @@ class IndexOfObjects<K> extends IndexBase<K> {
      */
     private IndexOfObjects(Iterable<K> iterable, IndexOfObjects<K> parent) {
         super(iterable, parent);
-        this.indexMap = ObjectIntMaps.mutable.withInitialCapacity(keyArray().length());
-        this.keyArray().sequential().forEachValue(v -> {
-            final K key = v.getValue();
-            final int index = parent.indexMap.getIfAbsent(key, -1);
-            if (index < 0) throw new IndexException("No match for key: " + v.getValue());
-            final int size = indexMap.size();
-            indexMap.put(key, index);
-            if (indexMap.size() <= size) {
-                throw new IndexException("Cannot have duplicate keys in index: " + v.getValue());
-            }
-        });
+        this.indexMap = IndexMap.OfObjects.of(keyArray(), keyArray().length(), this::parentCoordinate);
+    }
+
+    /**
+     * Constructor
+     * @param keys          the keys for index
+     * @param coordinates   the coordinate in the parent of the key at each ordinal
+     * @param parent        the parent index to initialize from
+     */
+    private IndexOfObjects(Array<K> keys, int[] coordinates, IndexOfObjects<K> parent) {
+        super(keys, coordinates, parent);
+        this.indexMap = IndexMap.OfObjects.of(keyArray(), keyArray().length(), this::parentCoordinate);
     }
 
     @Override()
@@ -91,16 +81,20 @@ class IndexOfObjects<K> extends IndexBase<K> {
     @Override
     public Index<K> filter(Predicate<K> predicate) {
         final int count = size();
-        final Class<K> type = type();
-        final ArrayBuilder<K> builder = ArrayBuilder.of(count / 2, type);
-        for (int i=0; i<count; ++i) {
-            final K value = keyArray().getValue(i);
-            if (predicate.test(value)) {
-                builder.append(value);
+        final IntArrayList ordinals = new IntArrayList(count / 2);
+        for (int i = 0; i < count; ++i) {
+            if (predicate.test(keyArray().getValue(i))) {
+                ordinals.add(i);
             }
         }
-        final Array<K> filter = builder.toArray();
-        return new IndexOfObjects<>(filter, isFilter() ? (IndexOfObjects<K>)parent() : this);
+        return filterOrdinals(ordinals.toArray());
+    }
+
+    @Override
+    public final Index<K> filterOrdinals(int[] ordinals) {
+        final int[] coordinates = coordinates(ordinals);
+        final Array<K> keys = keyArray().copy(ordinals);
+        return new IndexOfObjects<>(keys, coordinates, isFilter() ? (IndexOfObjects<K>)parent() : this);
     }
 
     @Override
@@ -148,7 +142,7 @@ class IndexOfObjects<K> extends IndexBase<K> {
     public final Index<K> copy(boolean deep) {
         try {
             final IndexOfObjects<K> clone = (IndexOfObjects<K>)super.copy(deep);
-            if (deep) clone.indexMap = ObjectIntMaps.mutable.withAll(indexMap);
+            if (deep) clone.indexMap = indexMap.copy();
             return clone;
         } catch (Exception ex) {
             throw new IndexException("Failed to clone index", ex);
@@ -182,6 +176,7 @@ class IndexOfObjects<K> extends IndexBase<K> {
                 final int ordinal = getOrdinalAt(index);
                 this.indexMap.put(replacement, index);
                 this.keyArray().setValue(ordinal, replacement);
+                this.resetSorted();
                 return index;
             }
         }
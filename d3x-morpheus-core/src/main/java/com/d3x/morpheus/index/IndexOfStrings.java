@@ -19,8 +19,6 @@ import java.util.function.Predicate;
 
 import com.d3x.morpheus.array.Array;
 import com.d3x.morpheus.array.ArrayBuilder;
-import org.eclipse.collections.api.map.primitive.MutableObjectIntMap;
-import org.eclipse.collections.impl.factory.primitive.ObjectIntMaps;
 
 /**
  * An Index implementation designed to efficiently store String values
@@ -33,7 +31,7 @@ class IndexOfStrings extends IndexBase<String> {
 
     private static final long serialVersionUID = 1L;
 
-    private MutableObjectIntMap<String> indexMap;
+    private IndexMap.OfObjects<String> indexMap;
 
     /**
      * Constructor
@@ -41,7 +39,7 @@ class IndexOfStrings extends IndexBase<String> {
      */
     IndexOfStrings(int initialSize) {
         super(Array.of(String.class, initialSize));
-        this.indexMap = ObjectIntMaps.mutable.withInitialCapacity(initialSize);
+        this.indexMap = IndexMap.OfObjects.of(initialSize);
     }
 
     /**
@@ -50,16 +48,7 @@ class IndexOfStrings extends IndexBase<String> {
      */
     IndexOfStrings(Iterable<String> iterable) {
         super(iterable);
-        this.indexMap = ObjectIntMaps.mutable.withInitialCapacity(keyArray().length());
-        this.keyArray().sequential().forEachValue(v -> {
-            final int index = v.index();
-            final String key = v.getValue();
-            final int size = indexMap.size();
-            indexMap.put(key, index);
-            if (indexMap.size() <= size) {
-                throw new IndexException("Cannot have duplicate keys in index: " + v.getValue());
-            }
-        });
+        this.indexMap = IndexMap.OfObjects.of(keyArray(), keyArray().length(), i -> i);
     }
 
     /**
@@ -69,17 +58,7 @@ class IndexOfStrings extends IndexBase<String> {
      */
     private IndexOfStrings(Iterable<String> iterable, IndexOfStrings parent) {
         super(iterable, parent);
-        this.indexMap = ObjectIntMaps.mutable.withInitialCapacity(keyArray().length());
-        this.keyArray().sequential().forEachValue(v -> {
-            final String key = v.getValue();
-            final int index = parent.indexMap.getIfAbsent(key, -1);
-            if (index < 0) throw new IndexException("No match for key: " + v.getValue());
-            final int size = indexMap.size();
-            indexMap.put(key, index);
-            if (indexMap.size() <= size) {
-                throw new IndexException("Cannot have duplicate keys in index: " + v.getValue());
-            }
-        });
+        this.indexMap = IndexMap.OfObjects.of(keyArray(), keyArray().length(), this::parentCoordinate);
     }
 
     @Override()
@@ -145,7 +124,7 @@ class IndexOfStrings extends IndexBase<String> {
     public final Index<String> copy(boolean deep) {
         try {
             final IndexOfStrings clone = (IndexOfStrings)super.copy(deep);
-            if (deep) clone.indexMap = ObjectIntMaps.mutable.withAll(indexMap);
+            if (deep) clone.indexMap = indexMap.copy();
             return clone;
         } catch (Exception ex) {
             throw new IndexException("Failed to clone index", ex);
@@ -179,6 +158,7 @@ class IndexOfStrings extends IndexBase<String> {
                 final int ordinal = getOrdinalAt(index);
                 this.indexMap.put(replacement, index);
                 this.keyArray().setValue(ordinal, replacement);
+                this.resetSorted();
                 return index;
             }
         }
@@ -153,6 +153,26 @@ class IndexReadOnly<K> implements Index<K> {
         return underlying.nextKey(key);
     }
 
+    @Override
+    public final boolean isSorted() {
+        return underlying.isSorted();
+    }
+
+    @Override
+    public final int floorOrdinal(K key) {
+        return underlying.floorOrdinal(key);
+    }
+
+    @Override
+    public final int ceilingOrdinal(K key) {
+        return underlying.ceilingOrdinal(key);
+    }
+
+    @Override
+    public final Index<K> range(K from, K to) {
+        return underlying.range(from, to);
+    }
+
     @Override
     public final Index<K> resetOrder() {
         return underlying.resetOrder();
@@ -223,6 +243,11 @@ class IndexReadOnly<K> implements Index<K> {
         this.underlying.sort(parallel, comparator);
     }
 
+    @Override
+    public final void reorder(int[] ordinals) {
+        this.underlying.reorder(ordinals);
+    }
+
     @Override
     public final Index<K> filter(Iterable<K> keys) {
         return underlying.filter(keys);
@@ -233,6 +258,11 @@ class IndexReadOnly<K> implements Index<K> {
         return underlying.filter(predicate);
     }
 
+    @Override
+    public final Index<K> filterOrdinals(int[] ordinals) {
+        return underlying.filterOrdinals(ordinals);
+    }
+
     @Override
     public final Iterator<K> iterator() {
         return underlying.iterator();
@@ -0,0 +1,407 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.index;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.d3x.morpheus.array.Array;
+import com.d3x.morpheus.array.ArrayBuilder;
+import com.d3x.morpheus.util.IntComparator;
+
+/**
+ * A filter over a contiguous range of ordinals in a sorted Index that shares the keys of the parent rather than copying them.
+ *
+ * <p>A slice is created in constant time once the bounds have been located, and all lookups are delegated to the
+ * parent with an ordinal offset. The first time a slice is sorted or reordered, it is converted into a conventional
+ * filter of the parent, since the order of a slice is by definition the order of the parent.</p>
+ *
+ * @param <K>   the index element type
+ *
+ * <p>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></p>
+ *
+ * @author  Xavier Witdouck
+ */
+class IndexSlice<K> implements Index<K> {
+
+    private static final long serialVersionUID = 1L;
+
+    private Index<K> parent;
+    private int start;
+    private int length;
+    private Index<K> filter;
+
+    /**
+     * Constructor
+     * @param parent    the parent index, which should be sorted
+     * @param start     the ordinal in the parent of the first key in this slice
+     * @param length    the number of keys in this slice
+     */
+    IndexSlice(Index<K> parent, int start, int length) {
+        if (start < 0 || length < 0 || start + length > parent.size()) {
+            throw new IndexException("Slice bounds out of range: start=" + start + ", length=" + length + ", size=" + parent.size());
+        } else {
+            this.parent = parent;
+            this.start = start;
+            this.length = length;
+        }
+    }
+
+    /**
+     * Returns a conventional filter with the keys of this slice, creating it on first call
+     * @return  the filter that replaces this slice once the order of keys has to diverge from the parent
+     */
+    private Index<K> filter() {
+        if (filter == null) {
+            this.filter = parent.filterOrdinals(IntStream.range(start, start + length).toArray());
+        }
+        return filter;
+    }
+
+    @Override
+    public final int size() {
+        return filter != null ? filter.size() : length;
+    }
+
+    @Override
+    public final int capacity() {
+        return filter != null ? filter.capacity() : length;
+    }
+
+    @Override
+    public final boolean add(K key) {
+        throw new IndexException("Cannot add keys to a filter on another index");
+    }
+
+    @Override
+    public final int addAll(Iterable<K> keys, boolean ignoreDuplicates) {
+        throw new IndexException("Cannot add keys to a filter on another index");
+    }
+
+    @Override
+    public final Class<K> type() {
+        return parent.type();
+    }
+
+    @Override
+    public final boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public final boolean isFilter() {
+        return true;
+    }
+
+    @Override
+    public final boolean isReadOnly() {
+        return true;
+    }
+
+    @Override
+    public final Index<K> copy(boolean deep) {
+        return filter != null ? filter.copy(deep) : parent.filter(toArray());
+    }
+
+    @Override
+    public final Index<K> readOnly() {
+        return this;
+    }
+
+    @Override
+    public final Stream<K> keys() {
+        return IntStream.range(0, size()).mapToObj(this::getKey);
+    }
+
+    @Override
+    public final List<K> toList() {
+        return keys().collect(Collectors.toList());
+    }
+
+    @Override
+    public final Array<K> toArray() {
+        return filter != null ? filter.toArray() : parent.toArray(start, start + length);
+    }
+
+    @Override
+    public final Array<K> toArray(int from, int to) {
+        return filter != null ? filter.toArray(from, to) : parent.toArray(start + from, start + to);
+    }
+
+    @Override
+    public final IntStream indexes() {
+        return filter != null ? filter.indexes() : IntStream.range(start, start + length).map(parent::getCoordinateAt);
+    }
+
+    @Override
+    public final IntStream indexes(Iterable<K> keys) {
+        return filter != null ? filter.indexes(keys) : StreamSupport.stream(keys.spliterator(), false).mapToInt(this::getCoordinate);
+    }
+
+    @Override
+    public final IntStream ordinals(Iterable<K> keys) {
+        return filter != null ? filter.ordinals(keys) : StreamSupport.stream(keys.spliterator(), false).mapToInt(this::getOrdinal);
+    }
+
+    @Override
+    public final Optional<K> first() {
+        return isEmpty() ? Optional.empty() : Optional.of(getKey(0));
+    }
+
+    @Override
+    public final Optional<K> last() {
+        return isEmpty() ? Optional.empty() : Optional.of(getKey(size() - 1));
+    }
+
+    @Override
+    public final Optional<K> previousKey(K key) {
+        return filter != null ? filter.previousKey(key) : parent.previousKey(key).filter(this::contains);
+    }
+
+    @Override
+    public final Optional<K> nextKey(K key) {
+        return filter != null ? filter.nextKey(key) : parent.nextKey(key).filter(this::contains);
+    }
+
+    @Override
+    public final boolean isSorted() {
+        return filter != null ? filter.isSorted() : parent.isSorted();
+    }
+
+    @Override
+    public final int floorOrdinal(K key) {
+        if (filter != null || !parent.isSorted()) {
+            return filter().floorOrdinal(key);
+        } else {
+            var ordinal = parent.floorOrdinal(key);
+            if (ordinal < start) {
+                return -1;
+            } else {
+                return Math.min(ordinal, start + length - 1) - start;
+            }
+        }
+    }
+
+    @Override
+    public final int ceilingOrdinal(K key) {
+        if (filter != null || !parent.isSorted()) {
+            return filter().ceilingOrdinal(key);
+        } else {
+            var ordinal = parent.ceilingOrdinal(key);
+            if (ordinal < 0 || ordinal >= start + length) {
+                return -1;
+            } else {
+                return Math.max(ordinal, start) - start;
+            }
+        }
+    }
+
+    @Override
+    public final Index<K> range(K from, K to) {
+        if (filter != null || !parent.isSorted()) {
+            return filter().range(from, to);
+        } else {
+            var first = ceilingOrdinal(from);
+            var last = floorOrdinal(to);
+            var count = first < 0 || last < first ? 0 : last - first + 1;
+            return new IndexSlice<>(parent, start + Math.max(first, 0), count);
+        }
+    }
+
+    @Override
+    public final Index<K> resetOrder() {
+        return this;
+    }
+
+    @Override
+    public final K getKey(int ordinal) {
+        return filter != null ? filter.getKey(ordinal) : parent.getKey(start + checkOrdinal(ordinal));
+    }
+
+    @Override
+    public final int getOrdinal(K key) {
+        if (filter != null) {
+            return filter.getOrdinal(key);
+        } else {
+            var ordinal = parent.getOrdinal(key);
+            return ordinal >= start && ordinal < start + length ? ordinal - start : -1;
+        }
+    }
+
+    @Override
+    public final int getOrdinalAt(int coordinate) {
+        if (filter != null) {
+            return filter.getOrdinalAt(coordinate);
+        } else {
+            var ordinal = parent.getOrdinalAt(coordinate);
+            return ordinal >= start && ordinal < start + length ? ordinal - start : -1;
+        }
+    }
+
+    @Override
+    public final int getCoordinate(K key) {
+        if (filter != null) {
+            return filter.getCoordinate(key);
+        } else {
+            return getOrdinal(key) < 0 ? -1 : parent.getCoordinate(key);
+        }
+    }
+
+    @Override
+    public final int getCoordinateAt(int ordinal) {
+        return filter != null ? filter.getCoordinateAt(ordinal) : parent.getCoordinateAt(start + checkOrdinal(ordinal));
+    }
+
+    @Override
+    public final boolean contains(K key) {
+        return filter != null ? filter.contains(key) : getOrdinal(key) >= 0;
+    }
+
+    @Override
+    public final boolean containsAll(Iterable<K> keys) {
+        for (K key : keys) {
+            if (!contains(key)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public final <V> Index<V> map(IndexMapper<K,V> mapper) {
+        throw new IndexException("Cannot map a filtered Index, call copy() first");
+    }
+
+    @Override
+    public final Array<K> intersect(Iterable<K> keys) {
+        final ArrayBuilder<K> builder = ArrayBuilder.of(Math.max(100, (int)(size() * 0.2)), type());
+        keys.forEach(key -> {
+            if (key != null && contains(key)) builder.append(key);
+        });
+        return builder.toArray();
+    }
+
+    @Override
+    public final int replace(K existing, K replacement) {
+        throw new IndexException("Cannot replace keys in a filter on another index");
+    }
+
+    @Override
+    public final void forEachEntry(IndexConsumer<K> consumer) {
+        if (filter != null) {
+            this.filter.forEachEntry(consumer);
+        } else {
+            for (int i = 0; i < length; ++i) {
+                final int ordinal = start + i;
+                consumer.accept(parent.getKey(ordinal), parent.getCoordinateAt(ordinal));
+            }
+        }
+    }
+
+    @Override
+    public final void sort(boolean parallel, boolean ascending) {
+        this.filter().sort(parallel, ascending);
+    }
+
+    @Override
+    public final void sort(boolean parallel, IntComparator comparator) {
+        this.filter().sort(parallel, comparator);
+    }
+
+    @Override
+    public final void reorder(int[] ordinals) {
+        this.filter().reorder(ordinals);
+    }
+
+    @Override
+    public final Index<K> filter(Iterable<K> keys) {
+        return filter != null ? filter.filter(keys) : parent.filter(keys);
+    }
+
+    @Override
+    public final Index<K> filterOrdinals(int[] ordinals) {
+        if (filter != null) {
+            return filter.filterOrdinals(ordinals);
+        } else {
+            final int[] shifted = new int[ordinals.length];
+            for (int i = 0; i < ordinals.length; ++i) {
+                if (ordinals[i] < 0 || ordinals[i] >= length) {
+                    throw new IndexException("Ordinal out of bounds: " + ordinals[i] + ", size " + length);
+                } else {
+                    shifted[i] = start + ordinals[i];
+                }
+            }
+            return parent.filterOrdinals(shifted);
+        }
+    }
+
+    @Override
+    public final Index<K> filter(Predicate<K> predicate) {
+        if (filter != null) {
+            return filter.filter(predicate);
+        } else {
+            final ArrayBuilder<K> builder = ArrayBuilder.of(Math.max(10, length / 2), type());
+            for (int i = 0; i < length; ++i) {
+                final K key = parent.getKey(start + i);
+                if (predicate.test(key)) {
+                    builder.append(key);
+                }
+            }
+            return parent.filter(builder.toArray());
+        }
+    }
+
+    @Override
+    public final Iterator<K> iterator() {
+        return new Iterator<>() {
+            private int ordinal = -1;
+            @Override
+            public boolean hasNext() {
+                return ++ordinal < size();
+            }
+            @Override
+            public K next() {
+                return getKey(ordinal);
+            }
+        };
+    }
+
+    /**
+     * Checks that an ordinal is within the bounds of this slice
+     * @param ordinal   the ordinal to check
+     * @return          the same ordinal
+     */
+    private int checkOrdinal(int ordinal) {
+        if (ordinal < 0) {
+            throw new IndexException("Ordinal must be >= 0");
+        } else if (ordinal >= length) {
+            throw new IndexException("Ordinal out of bounds: " + ordinal + " >= " + length);
+        } else {
+            return ordinal;
+        }
+    }
+
+    @Override()
+    public String toString() {
+        return "Index slice start=" + start + ", size=" + size() + ", type=" + type().getSimpleName();
+    }
+}
@@ -204,6 +204,7 @@ class IndexWithIntCoding<T> extends IndexBase<T> implements WithIntCoding<T> {
                 final int ordinal = getOrdinalAt(index);
                 this.indexMap.put(replacementCode, index);
                 this.keyArray().setValue(ordinal, replacement);
+                this.resetSorted();
                 return index;
             }
         }
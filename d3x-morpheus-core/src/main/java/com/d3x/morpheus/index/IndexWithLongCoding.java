@@ -203,6 +203,7 @@ class IndexWithLongCoding<T> extends IndexBase<T> implements WithLongCoding<T> {
                 final int ordinal = getOrdinalAt(index);
                 this.indexMap.put(replacementCode, index);
                 this.keyArray().setValue(ordinal, replacement);
+                this.resetSorted();
                 return index;
             }
         }
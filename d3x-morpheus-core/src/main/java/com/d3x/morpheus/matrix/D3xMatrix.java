@@ -410,8 +410,8 @@ public interface D3xMatrix extends D3xMatrixView {
     }
 
     /**
-     * Creates a new matrix with sparse physical storage and all elements
-     * initialized to zero.
+     * Creates a new matrix with sparse physical storage in compressed
+     * sparse row format and all elements initialized to zero.
      *
      * @param nrow the number of matrix rows.
      * @param ncol the number of matrix columns.
@@ -421,7 +421,7 @@ public interface D3xMatrix extends D3xMatrixView {
      * @throws RuntimeException if either dimension is negative.
      */
     static D3xMatrix sparse(int nrow, int ncol) {
-        return ApacheMatrix.sparse(nrow, ncol);
+        return SparseMatrix.create(nrow, ncol);
     }
 
     /**
@@ -494,12 +494,12 @@ public interface D3xMatrix extends D3xMatrixView {
      * @param nrow the number of matrix rows.
      * @param ncol the number of matrix columns.
      *
-     * @return a new spares matrix of zeros.
+     * @return a new sparse matrix of zeros.
      *
      * @throws RuntimeException if either dimension is negative.
      */
     static D3xMatrix zeros(int nrow, int ncol) {
-        return ApacheMatrix.sparse(nrow, ncol);
+        return SparseMatrix.create(nrow, ncol);
     }
 
 
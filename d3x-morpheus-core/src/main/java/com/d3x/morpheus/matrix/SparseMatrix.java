@@ -0,0 +1,639 @@
+/*
+ * Copyright (C) 2014-2021 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.matrix;
+
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.IntStream;
+
+import com.d3x.morpheus.util.MorpheusException;
+import com.d3x.morpheus.vector.D3xVector;
+
+/**
+ * A sparse matrix in compressed sparse row (CSR) format.
+ *
+ * <p>Each row stores the column indexes of its non-zero elements in
+ * ascending order, together with the corresponding values, so that
+ * iteration over the non-zero elements proceeds in row-major order
+ * over contiguous memory. Each row owns its index and value arrays
+ * (with spare capacity for insertions), so that assigning a single
+ * element only shifts the elements in that row. Assigning zero to an
+ * element removes it from storage.</p>
+ *
+ * <p>Matrix-vector products, matrix products with dense or sparse
+ * operands, and row and column sums are executed in parallel over
+ * blocks of rows once the matrix holds enough non-zero elements to
+ * amortize the cost of the fork-join framework. The transpose is the
+ * compressed sparse column (CSC) form of this matrix.</p>
+ *
+ * @author Scott Shaffer
+ */
+public final class SparseMatrix implements D3xMatrix {
+    private final int nrow;
+    private final int ncol;
+    private final int[] counts;
+    private final int[][] cols;
+    private final double[][] vals;
+
+    // The number of rows processed by a single task in parallel kernels...
+    private static final int ROW_BLOCK_SIZE = 256;
+
+    // Kernels run in parallel for matrices with at least this many non-zero elements...
+    private static final int PARALLEL_THRESHOLD = 100000;
+
+    private static final int[] EMPTY_COLS = new int[0];
+    private static final double[] EMPTY_VALS = new double[0];
+
+    private SparseMatrix(int nrow, int ncol) {
+        D3xMatrix.validateShape(nrow, ncol);
+        this.nrow = nrow;
+        this.ncol = ncol;
+        this.counts = new int[nrow];
+        this.cols = new int[nrow][];
+        this.vals = new double[nrow][];
+
+        Arrays.fill(cols, EMPTY_COLS);
+        Arrays.fill(vals, EMPTY_VALS);
+    }
+
+    /**
+     * A functional interface that receives the non-zero elements of a
+     * sparse matrix.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        /**
+         * Receives a non-zero element of a sparse matrix.
+         *
+         * @param row   the row index of the element.
+         * @param col   the column index of the element.
+         * @param value the value of the element.
+         */
+        void accept(int row, int col, double value);
+    }
+
+    /**
+     * Creates a new sparse matrix with all elements initialized to zero.
+     *
+     * @param nrow the number of matrix rows.
+     * @param ncol the number of matrix columns.
+     *
+     * @return a new sparse matrix of zeros.
+     *
+     * @throws RuntimeException if either dimension is negative.
+     */
+    public static SparseMatrix create(int nrow, int ncol) {
+        return new SparseMatrix(nrow, ncol);
+    }
+
+    /**
+     * Creates a new sparse matrix containing the non-zero elements of
+     * another matrix.
+     *
+     * @param view the matrix to copy.
+     *
+     * @return a new sparse matrix with the same shape and elements as
+     * the input matrix.
+     */
+    public static SparseMatrix copyOf(D3xMatrixView view) {
+        if (view instanceof SparseMatrix)
+            return ((SparseMatrix) view).copy();
+
+        SparseMatrix result = new SparseMatrix(view.nrow(), view.ncol());
+
+        for (int i = 0; i < view.nrow(); ++i)
+            for (int j = 0; j < view.ncol(); ++j)
+                result.set(i, j, view.get(i, j));
+
+        return result;
+    }
+
+    /**
+     * Returns the number of non-zero elements stored in this matrix.
+     * @return the number of non-zero elements stored in this matrix.
+     */
+    public int nnz() {
+        int nnz = 0;
+
+        for (int count : counts)
+            nnz += count;
+
+        return nnz;
+    }
+
+    /**
+     * Returns the number of non-zero elements stored in a row.
+     *
+     * @param row the index of the row.
+     *
+     * @return the number of non-zero elements in the specified row.
+     *
+     * @throws RuntimeException unless the row index is valid.
+     */
+    public int nnz(int row) {
+        validateRowIndex(row);
+        return counts[row];
+    }
+
+    /**
+     * Passes each non-zero element of this matrix to a consumer in
+     * row-major order (ascending row index, then ascending column index).
+     *
+     * @param consumer the consumer of the non-zero elements.
+     */
+    public void forEachNonZero(EntryConsumer consumer) {
+        for (int i = 0; i < nrow; ++i) {
+            int[] rowCols = cols[i];
+            double[] rowVals = vals[i];
+
+            for (int k = 0; k < counts[i]; ++k)
+                consumer.accept(i, rowCols[k], rowVals[k]);
+        }
+    }
+
+    /**
+     * Passes each non-zero element in a row of this matrix to a consumer
+     * in ascending column order.
+     *
+     * @param row      the index of the row.
+     * @param consumer the consumer of the non-zero elements.
+     *
+     * @throws RuntimeException unless the row index is valid.
+     */
+    public void forEachNonZero(int row, EntryConsumer consumer) {
+        validateRowIndex(row);
+        int[] rowCols = cols[row];
+        double[] rowVals = vals[row];
+
+        for (int k = 0; k < counts[row]; ++k)
+            consumer.accept(row, rowCols[k], rowVals[k]);
+    }
+
+    /**
+     * Computes the sum of the elements in each row of this matrix.
+     * @return a new vector containing the row sums.
+     */
+    public D3xVector rowSums() {
+        double[] sums = new double[nrow];
+
+        rowStream().forEach(i -> {
+            double sum = 0.0;
+            double[] rowVals = vals[i];
+
+            for (int k = 0; k < counts[i]; ++k)
+                sum += rowVals[k];
+
+            sums[i] = sum;
+        });
+
+        return D3xVector.wrap(sums);
+    }
+
+    /**
+     * Computes the sum of the elements in each column of this matrix.
+     * @return a new vector containing the column sums.
+     */
+    public D3xVector colSums() {
+        // Each worker thread accumulates into its own partial sums, which
+        // are reused across all the blocks processed by that thread...
+        Queue<double[]> partials = new ConcurrentLinkedQueue<>();
+        ThreadLocal<double[]> workspace = ThreadLocal.withInitial(() -> {
+            double[] partial = new double[ncol];
+            partials.add(partial);
+            return partial;
+        });
+
+        blockStream().forEach(block -> {
+            double[] partial = workspace.get();
+
+            for (int i = blockStart(block); i < blockEnd(block); ++i) {
+                int[] rowCols = cols[i];
+                double[] rowVals = vals[i];
+
+                for (int k = 0; k < counts[i]; ++k)
+                    partial[rowCols[k]] += rowVals[k];
+            }
+        });
+
+        double[] sums = new double[ncol];
+
+        for (double[] partial : partials)
+            addTo(sums, partial);
+
+        return D3xVector.wrap(sums);
+    }
+
+    @Override
+    public void add(int row, int col, double addend) {
+        set(row, col, get(row, col) + addend);
+    }
+
+    @Override
+    public SparseMatrix copy() {
+        SparseMatrix copy = new SparseMatrix(nrow, ncol);
+
+        for (int i = 0; i < nrow; ++i) {
+            if (counts[i] > 0) {
+                copy.counts[i] = counts[i];
+                copy.cols[i] = Arrays.copyOf(cols[i], counts[i]);
+                copy.vals[i] = Arrays.copyOf(vals[i], counts[i]);
+            }
+        }
+
+        return copy;
+    }
+
+    @Override
+    public double get(int row, int col) {
+        validateRowIndex(row);
+        validateColumnIndex(col);
+        int k = Arrays.binarySearch(cols[row], 0, counts[row], col);
+        return k >= 0 ? vals[row][k] : 0.0;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public SparseMatrix like(int nrow, int ncol) {
+        return new SparseMatrix(nrow, ncol);
+    }
+
+    @Override
+    public D3xMatrix multiplyInPlace(double scalar) {
+        for (int i = 0; i < nrow; ++i) {
+            double[] rowVals = vals[i];
+
+            for (int k = 0; k < counts[i]; ++k)
+                rowVals[k] *= scalar;
+
+            if (scalar == 0.0)
+                counts[i] = 0;
+        }
+
+        return this;
+    }
+
+    @Override
+    public void multiply(int row, int col, double factor) {
+        set(row, col, get(row, col) * factor);
+    }
+
+    @Override
+    public int nrow() {
+        return nrow;
+    }
+
+    @Override
+    public int ncol() {
+        return ncol;
+    }
+
+    @Override
+    public D3xMatrix minus(double subtrahend) {
+        return plus(-subtrahend);
+    }
+
+    @Override
+    public D3xMatrix minus(D3xMatrix B) {
+        validateCongruent(B);
+
+        if (B instanceof SparseMatrix)
+            return combine((SparseMatrix) B, -1.0);
+        else
+            return ApacheMatrix.wrap(toArray()).minus(B);
+    }
+
+    @Override
+    public D3xMatrix plus(double addend) {
+        return ApacheMatrix.wrap(toArray()).plus(addend);
+    }
+
+    @Override
+    public D3xMatrix plus(D3xMatrix B) {
+        validateCongruent(B);
+
+        if (B instanceof SparseMatrix)
+            return combine((SparseMatrix) B, 1.0);
+        else
+            return ApacheMatrix.wrap(toArray()).plus(B);
+    }
+
+    @Override
+    public void set(int row, int col, double value) {
+        validateRowIndex(row);
+        validateColumnIndex(col);
+        int k = Arrays.binarySearch(cols[row], 0, counts[row], col);
+
+        if (k >= 0) {
+            if (value == 0.0)
+                remove(row, k);
+            else
+                vals[row][k] = value;
+        }
+        else if (value != 0.0) {
+            insert(row, -(k + 1), col, value);
+        }
+    }
+
+    @Override
+    public D3xVector times(D3xVector x) {
+        if (x.length() != ncol)
+            throw new MorpheusException("Vector length [%d] does not match the column dimension [%d].", x.length(), ncol);
+
+        double[] xvals = x.toArray();
+        double[] result = new double[nrow];
+
+        rowStream().forEach(i -> {
+            double sum = 0.0;
+            int[] rowCols = cols[i];
+            double[] rowVals = vals[i];
+
+            for (int k = 0; k < counts[i]; ++k)
+                sum += rowVals[k] * xvals[rowCols[k]];
+
+            result[i] = sum;
+        });
+
+        return D3xVector.wrap(result);
+    }
+
+    @Override
+    public D3xMatrix times(D3xMatrix B) {
+        if (B.nrow() != ncol)
+            throw new MorpheusException("Matrix dimension mismatch: [(%d, %d) x (%d, %d)].", nrow, ncol, B.nrow(), B.ncol());
+
+        if (B instanceof SparseMatrix)
+            return timesSparse((SparseMatrix) B);
+        else
+            return timesDense(B);
+    }
+
+    @Override
+    public double[][] toArray() {
+        double[][] array = new double[nrow][ncol];
+
+        for (int i = 0; i < nrow; ++i)
+            for (int k = 0; k < counts[i]; ++k)
+                array[i][cols[i][k]] = vals[i][k];
+
+        return array;
+    }
+
+    @Override
+    public SparseMatrix transpose() {
+        SparseMatrix result = new SparseMatrix(ncol, nrow);
+
+        for (int i = 0; i < nrow; ++i)
+            for (int k = 0; k < counts[i]; ++k)
+                result.counts[cols[i][k]]++;
+
+        for (int j = 0; j < ncol; ++j) {
+            if (result.counts[j] > 0) {
+                result.cols[j] = new int[result.counts[j]];
+                result.vals[j] = new double[result.counts[j]];
+                result.counts[j] = 0;
+            }
+        }
+
+        // Rows are visited in ascending order, so each transposed row is filled in sorted order...
+        for (int i = 0; i < nrow; ++i) {
+            for (int k = 0; k < counts[i]; ++k) {
+                int j = cols[i][k];
+                int n = result.counts[j]++;
+                result.cols[j][n] = i;
+                result.vals[j][n] = vals[i][k];
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SparseMatrix(%d x %d, nnz = %d)", nrow, ncol, nnz());
+    }
+
+    private void insert(int row, int pos, int col, double value) {
+        int count = counts[row];
+
+        if (count == cols[row].length) {
+            int capacity = Math.max(4, count + (count >> 1));
+            cols[row] = Arrays.copyOf(cols[row], capacity);
+            vals[row] = Arrays.copyOf(vals[row], capacity);
+        }
+
+        System.arraycopy(cols[row], pos, cols[row], pos + 1, count - pos);
+        System.arraycopy(vals[row], pos, vals[row], pos + 1, count - pos);
+
+        cols[row][pos] = col;
+        vals[row][pos] = value;
+        counts[row] = count + 1;
+    }
+
+    private void remove(int row, int pos) {
+        int count = counts[row];
+
+        System.arraycopy(cols[row], pos + 1, cols[row], pos, count - pos - 1);
+        System.arraycopy(vals[row], pos + 1, vals[row], pos, count - pos - 1);
+
+        counts[row] = count - 1;
+    }
+
+    private SparseMatrix combine(SparseMatrix B, double sign) {
+        SparseMatrix result = new SparseMatrix(nrow, ncol);
+
+        rowStream().forEach(i -> {
+            int na = this.counts[i];
+            int nb = B.counts[i];
+            int[] aCols = this.cols[i];
+            int[] bCols = B.cols[i];
+            double[] aVals = this.vals[i];
+            double[] bVals = B.vals[i];
+            int[] rowCols = new int[na + nb];
+            double[] rowVals = new double[na + nb];
+
+            int ka = 0;
+            int kb = 0;
+            int n = 0;
+
+            while (ka < na || kb < nb) {
+                int col;
+                double value;
+
+                if (kb == nb || (ka < na && aCols[ka] < bCols[kb])) {
+                    col = aCols[ka];
+                    value = aVals[ka++];
+                }
+                else if (ka == na || bCols[kb] < aCols[ka]) {
+                    col = bCols[kb];
+                    value = sign * bVals[kb++];
+                }
+                else {
+                    col = aCols[ka];
+                    value = aVals[ka++] + sign * bVals[kb++];
+                }
+
+                if (value != 0.0) {
+                    rowCols[n] = col;
+                    rowVals[n] = value;
+                    ++n;
+                }
+            }
+
+            result.assignRow(i, rowCols, rowVals, n);
+        });
+
+        return result;
+    }
+
+    private D3xMatrix timesDense(D3xMatrix B) {
+        int ncolB = B.ncol();
+        double[][] arrayB = B.toArray();
+        double[][] result = new double[nrow][ncolB];
+
+        rowStream().forEach(i -> {
+            int[] rowCols = cols[i];
+            double[] rowVals = vals[i];
+            double[] resultRow = result[i];
+
+            for (int k = 0; k < counts[i]; ++k) {
+                double value = rowVals[k];
+                double[] rowB = arrayB[rowCols[k]];
+
+                for (int j = 0; j < ncolB; ++j)
+                    resultRow[j] += value * rowB[j];
+            }
+        });
+
+        return ApacheMatrix.wrap(result);
+    }
+
+    private SparseMatrix timesSparse(SparseMatrix B) {
+        SparseMatrix result = new SparseMatrix(nrow, B.ncol);
+
+        // Gustavson's algorithm: each row of the product accumulates the
+        // scaled rows of B selected by the non-zero elements in the same
+        // row of this matrix, using a dense accumulator per worker thread
+        // that is reused across blocks (the marker holds the row index, so
+        // it never needs to be cleared)...
+        ThreadLocal<Accumulator> workspace = ThreadLocal.withInitial(() -> new Accumulator(B.ncol));
+
+        blockStream().forEach(block -> {
+            Accumulator accumulator = workspace.get();
+            double[] accum = accumulator.accum;
+            int[] marker = accumulator.marker;
+            int[] touched = accumulator.touched;
+
+            for (int i = blockStart(block); i < blockEnd(block); ++i) {
+                int n = 0;
+
+                for (int k = 0; k < counts[i]; ++k) {
+                    int row = cols[i][k];
+                    double value = vals[i][k];
+                    int[] colsB = B.cols[row];
+                    double[] valsB = B.vals[row];
+
+                    for (int kb = 0; kb < B.counts[row]; ++kb) {
+                        int col = colsB[kb];
+
+                        if (marker[col] != i) {
+                            marker[col] = i;
+                            accum[col] = 0.0;
+                            touched[n++] = col;
+                        }
+
+                        accum[col] += value * valsB[kb];
+                    }
+                }
+
+                Arrays.sort(touched, 0, n);
+
+                int[] rowCols = new int[n];
+                double[] rowVals = new double[n];
+                int nnz = 0;
+
+                for (int t = 0; t < n; ++t) {
+                    int col = touched[t];
+
+                    if (accum[col] != 0.0) {
+                        rowCols[nnz] = col;
+                        rowVals[nnz] = accum[col];
+                        ++nnz;
+                    }
+                }
+
+                result.assignRow(i, rowCols, rowVals, nnz);
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * The dense workspace of a single thread in Gustavson's algorithm.
+     */
+    private static final class Accumulator {
+        private final double[] accum;
+        private final int[] marker;
+        private final int[] touched;
+
+        private Accumulator(int ncol) {
+            this.accum = new double[ncol];
+            this.marker = new int[ncol];
+            this.touched = new int[ncol];
+            Arrays.fill(marker, -1);
+        }
+    }
+
+    private void assignRow(int row, int[] rowCols, double[] rowVals, int count) {
+        counts[row] = count;
+        cols[row] = count > 0 ? rowCols : EMPTY_COLS;
+        vals[row] = count > 0 ? rowVals : EMPTY_VALS;
+    }
+
+    private boolean isParallel() {
+        return nnz() >= PARALLEL_THRESHOLD;
+    }
+
+    private IntStream rowStream() {
+        IntStream stream = IntStream.range(0, nrow);
+        return isParallel() ? stream.parallel() : stream;
+    }
+
+    private IntStream blockStream() {
+        IntStream stream = IntStream.range(0, (nrow + ROW_BLOCK_SIZE - 1) / ROW_BLOCK_SIZE);
+        return isParallel() ? stream.parallel() : stream;
+    }
+
+    private int blockStart(int block) {
+        return block * ROW_BLOCK_SIZE;
+    }
+
+    private int blockEnd(int block) {
+        return Math.min(nrow, (block + 1) * ROW_BLOCK_SIZE);
+    }
+
+    private static double[] addTo(double[] sums, double[] partial) {
+        for (int j = 0; j < sums.length; ++j)
+            sums[j] += partial[j];
+
+        return sums;
+    }
+}
@@ -40,7 +40,6 @@ import java.util.stream.StreamSupport;
 import com.d3x.morpheus.array.Array;
 import com.d3x.morpheus.array.ArrayBuilder;
 import com.d3x.morpheus.array.ArrayType;
-import com.d3x.morpheus.array.ArrayUtils;
 import com.d3x.morpheus.frame.*;
 import com.d3x.morpheus.index.IndexMapper;
 import com.d3x.morpheus.reference.algebra.XDataFrameAlgebra;
@@ -389,6 +388,7 @@ class XDataFrame<R,C> implements DataFrame<R,C>, Serializable, Cloneable {
             var action = new ApplyBooleans(0, toIndex, threshold, mapper);
             action.compute();
         }
+        this.content().compact(parallel, false);
         return this;
     }
 
@@ -406,6 +406,7 @@ class XDataFrame<R,C> implements DataFrame<R,C>, Serializable, Cloneable {
             var action = new ApplyInts(0, toIndex, threshold, mapper);
             action.compute();
         }
+        this.content().compact(parallel, false);
         return this;
     }
 
@@ -423,6 +424,7 @@ class XDataFrame<R,C> implements DataFrame<R,C>, Serializable, Cloneable {
             var action = new ApplyLongs(0, toIndex, threshold, mapper);
             action.compute();
         }
+        this.content().compact(parallel, false);
         return this;
     }
 
@@ -440,6 +442,7 @@ class XDataFrame<R,C> implements DataFrame<R,C>, Serializable, Cloneable {
             var action = new ApplyDoubles(0, toIndex, threshold, mapper);
             action.compute();
         }
+        this.content().compact(parallel, false);
         return this;
     }
 
@@ -457,6 +460,7 @@ class XDataFrame<R,C> implements DataFrame<R,C>, Serializable, Cloneable {
             var action = new ApplyValues(0, toIndex, threshold, mapper);
             action.compute();
         }
+        this.content().compact(parallel, false);
         return this;
     }
 
@@ -494,6 +498,13 @@ class XDataFrame<R,C> implements DataFrame<R,C>, Serializable, Cloneable {
     }
 
 
+    @Override()
+    public final DataFrame<R,C> compact() {
+        this.content().compact(parallel, true);
+        return this;
+    }
+
+
     @Override()
     public final DataFrame<R,C> update(DataFrame<R,C> update, boolean addRows, boolean addColumns) throws DataFrameException {
         try {
@@ -518,6 +529,7 @@ class XDataFrame<R,C> implements DataFrame<R,C>, Serializable, Cloneable {
                     targetCursor.setValue(value);
                 }
             }
+            this.content().compact(parallel, false);
             return this;
         } catch (Throwable t) {
             throw new DataFrameException("DataFrame data bulk update failed: " + t.getMessage(), t);
@@ -775,9 +787,8 @@ class XDataFrame<R,C> implements DataFrame<R,C>, Serializable, Cloneable {
 
     @Override()
     public final DataFrame<R, C> head(int count) {
-        var indexes = IntStream.range(0, Math.min(count, rowCount()));
-        var keys = indexes.mapToObj(i -> rows().key(i)).collect(ArrayUtils.toArray());
-        var newRowAxis = rowKeys().filter(keys);
+        var ordinals = IntStream.range(0, Math.min(count, rowCount())).toArray();
+        var newRowAxis = rowKeys().filterOrdinals(ordinals);
         var newColAxis = colKeys();
         var newContents = data.filter(newRowAxis, newColAxis);
         return new XDataFrame<>(newContents, parallel);
@@ -786,9 +797,8 @@ class XDataFrame<R,C> implements DataFrame<R,C>, Serializable, Cloneable {
 
     @Override()
     public final DataFrame<R, C> tail(int count) {
-        var indexes = IntStream.range(Math.max(0, rowCount() - count), rowCount());
-        var keys = indexes.mapToObj(i -> rows().key(i)).collect(ArrayUtils.toArray());
-        var newRowAxis = rowKeys().filter(keys);
+        var ordinals = IntStream.range(Math.max(0, rowCount() - count), rowCount()).toArray();
+        var newRowAxis = rowKeys().filterOrdinals(ordinals);
         var newColAxis = colKeys();
         var newContents = data.filter(newRowAxis, newColAxis);
         return new XDataFrame<>(newContents, parallel);
@@ -797,8 +807,8 @@ class XDataFrame<R,C> implements DataFrame<R,C>, Serializable, Cloneable {
 
     @Override()
     public final DataFrame<R,C> left(int count) {
-        var colKeys = colKeys().toArray(0, Math.min(colCount(), count));
-        var newColAxis = colKeys().filter(colKeys);
+        var ordinals = IntStream.range(0, Math.min(colCount(), count)).toArray();
+        var newColAxis = colKeys().filterOrdinals(ordinals);
         var newContents = data.filter(rowKeys(), newColAxis);
         return new XDataFrame<>(newContents, parallel);
     }
@@ -806,8 +816,8 @@ class XDataFrame<R,C> implements DataFrame<R,C>, Serializable, Cloneable {
 
     @Override()
     public final DataFrame<R,C> right(int count) {
-        var colKeys = colKeys().toArray(Math.max(0, colCount() - count), colCount());
-        var newColAxis = colKeys().filter(colKeys);
+        var ordinals = IntStream.range(Math.max(0, colCount() - count), colCount()).toArray();
+        var newColAxis = colKeys().filterOrdinals(ordinals);
         var newContents = data.filter(rowKeys(), newColAxis);
         return new XDataFrame<>(newContents, parallel);
     }
@@ -432,6 +432,21 @@ abstract class XDataFrameAxisBase<X,Y,R,C,V extends DataFrameVector<?,?,R,C,?>,T
     }
 
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public final DataFrame<R,C> between(X from, X to) {
+        if (axisType.isRow()) {
+            var newRowKeys = (Index<R>)axis.range(from, to);
+            var newColKeys = frame.colKeys().copy(true);
+            return frame.filter(newRowKeys, newColKeys);
+        } else {
+            var newRowKeys = frame.rowKeys().copy(true);
+            var newColKeys = (Index<C>)axis.range(from, to);
+            return frame.filter(newRowKeys, newColKeys);
+        }
+    }
+
+
     @Override
     public final Optional<V> first(Predicate<V> predicate) {
         var count = count();
@@ -15,6 +15,7 @@
  */
 package com.d3x.morpheus.reference;
 
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -251,6 +252,30 @@ class XDataFrameColumns<R,C> extends XDataFrameAxisBase<C,R,R,C,DataFrameColumn<
     }
 
 
+    @Override @Parallel
+    public final DataFrame<R,C> top(int count, R key) {
+        return XDataFrameSorter.topCols(frame(), Collections.singletonList(key), count, true, isParallel());
+    }
+
+
+    @Override @Parallel
+    public final DataFrame<R,C> top(int count, List<R> keys) {
+        return XDataFrameSorter.topCols(frame(), keys, count, true, isParallel());
+    }
+
+
+    @Override @Parallel
+    public final DataFrame<R,C> bottom(int count, R key) {
+        return XDataFrameSorter.topCols(frame(), Collections.singletonList(key), count, false, isParallel());
+    }
+
+
+    @Override @Parallel
+    public final DataFrame<R,C> bottom(int count, List<R> keys) {
+        return XDataFrameSorter.topCols(frame(), keys, count, false, isParallel());
+    }
+
+
     @Override @Parallel
     public final DataFrame<R,C> sort(Comparator<DataFrameColumn<R,C>> comparator) {
         return XDataFrameSorter.sortCols(frame(), isParallel(), comparator);
@@ -25,6 +25,7 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.function.Function;
+import java.util.function.IntPredicate;
 import java.util.function.ToDoubleFunction;
 import java.util.function.ToIntFunction;
 import java.util.function.ToLongFunction;
@@ -48,6 +49,7 @@ import com.d3x.morpheus.index.IndexException;
 import com.d3x.morpheus.index.IndexMapper;
 import com.d3x.morpheus.range.Range;
 import com.d3x.morpheus.util.Mapper;
+import com.d3x.morpheus.util.RadixSort;
 import com.d3x.morpheus.util.functions.ToBooleanFunction;
 
 /**
@@ -501,6 +503,22 @@ class XDataFrameContent<R,C> implements Serializable, Cloneable {
     }
 
 
+    /**
+     * Converts the storage of arrays in this content between dense and sparse based on their load factor
+     * Cursors look up their array on every move, so they observe the replaced arrays once re-positioned
+     * @param parallel  true to process the arrays in parallel
+     * @param sparsify  true to also convert mostly default dense arrays to sparse, false to only densify sparse arrays
+     */
+    final void compact(boolean parallel, boolean sparsify) {
+        var sparseThreshold = sparsify ? DataFrameOptions.getSparseThreshold() : 0f;
+        var denseThreshold = DataFrameOptions.getDenseThreshold();
+        final List<Array<?>> compacted = Mapper.apply(data, parallel, (index, array) -> array.compact(sparseThreshold, denseThreshold));
+        for (int i=0; i<compacted.size(); ++i) {
+            this.data.set(i, compacted.get(i));
+        }
+    }
+
+
     /**
      * Maps the specified column to booleans using the mapper function provided
      * @param frame     the frame reference
@@ -699,6 +717,115 @@ class XDataFrameContent<R,C> implements Serializable, Cloneable {
     }
 
 
+    /**
+     * Returns a predicate that tests whether a row, addressed by ordinal, has a null value in any of the columns specified
+     * @param colKeys   the column keys to check
+     * @return          the predicate of row ordinals
+     */
+    final IntPredicate createRowNullTest(List<C> colKeys) {
+        var arrays = colKeys.stream().map(this::getColArray).collect(Collectors.toList());
+        return ordinal -> {
+            var rowIndex = rowKeys.getCoordinateAt(ordinal);
+            for (Array<?> array : arrays) {
+                if (array.isNull(rowIndex)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+
+    /**
+     * Returns primitive sort keys extracted from the columns specified, with one element per row in ordinal order
+     * @param colKeys       the column keys to sort rows by, in order of precedence
+     * @param ascending     true for ascending, false for descending, which inverts the keys
+     * @param parallel      true to extract keys in parallel
+     * @return              the sort keys for each column, or null if a column does not have a primitive representation
+     * @see RadixSort
+     */
+    final long[][] createRowSortKeys(List<C> colKeys, boolean ascending, boolean parallel) {
+        for (C colKey : colKeys) {
+            if (!isSortable(colType(colKey))) {
+                return null;
+            }
+        }
+        var arrays = colKeys.stream().map(this::getColArray).collect(Collectors.toList());
+        return createSortKeys(arrays, rowKeys, ascending, parallel);
+    }
+
+
+    /**
+     * Returns primitive sort keys extracted from the rows specified, with one element per column in ordinal order
+     * @param rowKeys       the row keys to sort columns by, in order of precedence
+     * @param ascending     true for ascending, false for descending, which inverts the keys
+     * @param parallel      true to extract keys in parallel
+     * @return              the sort keys for each row, or null if a row does not have a primitive representation
+     * @see RadixSort
+     */
+    final long[][] createColSortKeys(List<R> rowKeys, boolean ascending, boolean parallel) {
+        for (R rowKey : rowKeys) {
+            if (!isSortable(rowType(rowKey))) {
+                return null;
+            }
+        }
+        var arrays = rowKeys.stream().map(this::getRowArray).collect(Collectors.toList());
+        return createSortKeys(arrays, colKeys, ascending, parallel);
+    }
+
+
+    /**
+     * Returns true if values of the type specified have an order preserving primitive representation
+     * @param type  the data type
+     * @return      true if the type can be sorted by primitive keys
+     */
+    private static boolean isSortable(Class<?> type) {
+        switch (ArrayType.of(type)) {
+            case BOOLEAN:
+            case INTEGER:
+            case LONG:
+            case DOUBLE:
+            case DATE:
+            case INSTANT:
+            case LOCAL_DATE:
+            case LOCAL_TIME:
+            case LOCAL_DATETIME:
+            case ZONED_DATETIME:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+
+    /**
+     * Returns primitive sort keys extracted from the arrays specified, with one element per ordinal of the index
+     * @param arrays        the arrays of data, addressed by index coordinates
+     * @param index         the index that defines the ordinal order of the keys
+     * @param ascending     true for ascending, false for descending, which inverts the keys
+     * @param parallel      true to extract keys in parallel
+     * @return              the sort keys for each array
+     */
+    private static long[][] createSortKeys(List<Array<?>> arrays, Index<?> index, boolean ascending, boolean parallel) {
+        var size = index.size();
+        var mask = ascending ? 0L : -1L;
+        var keys = new long[arrays.size()][];
+        for (int j=0; j<arrays.size(); ++j) {
+            var array = arrays.get(j);
+            var values = new long[size];
+            var ordinals = parallel ? IntStream.range(0, size).parallel() : IntStream.range(0, size);
+            switch (array.typeCode()) {
+                case BOOLEAN:   ordinals.forEach(i -> values[i] = mask ^ (array.getBoolean(index.getCoordinateAt(i)) ? 1L : 0L));         break;
+                case INTEGER:   ordinals.forEach(i -> values[i] = mask ^ array.getInt(index.getCoordinateAt(i)));                        break;
+                case DOUBLE:    ordinals.forEach(i -> values[i] = mask ^ RadixSort.toSortable(array.getDouble(index.getCoordinateAt(i))));  break;
+                default:        ordinals.forEach(i -> values[i] = mask ^ array.getLong(index.getCoordinateAt(i)));                       break;
+            }
+            keys[j] = values;
+        }
+        return keys;
+    }
+
+
     /**
      * Returns a newly created comparator to sort this content in the column dimension
      * @param rowKeys       the row keys to sort columns by, in order of precedence
@@ -716,6 +843,25 @@ class XDataFrameContent<R,C> implements Serializable, Cloneable {
     }
 
 
+    /**
+     * Returns a predicate that tests whether a column, addressed by ordinal, has a null value in any of the rows specified
+     * @param rowKeys   the row keys to check
+     * @return          the predicate of column ordinals
+     */
+    final IntPredicate createColNullTest(List<R> rowKeys) {
+        var arrays = rowKeys.stream().map(this::getRowArray).collect(Collectors.toList());
+        return ordinal -> {
+            var colIndex = colKeys.getCoordinateAt(ordinal);
+            for (Array<?> array : arrays) {
+                if (array.isNull(colIndex)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+
     /**
      * Returns row data as an array for internal use only
      * @param rowKey    the row key
@@ -750,7 +896,7 @@ class XDataFrameContent<R,C> implements Serializable, Cloneable {
      * @param colKey    the column key
      * @return          the array of column data
      */
-    private Array<?> getColArray(C colKey) {
+    final Array<?> getColArray(C colKey) {
         var colIndex = colKeys.getCoordinate(colKey);
         if (isColumnStore()) {
             return data.get(colIndex);
@@ -1219,7 +1365,7 @@ class XDataFrameContent<R,C> implements Serializable, Cloneable {
 
         @Override
         public final boolean isNumeric() {
-            return isInteger() || isLong() || isDouble();
+            return array.typeCode().isNumeric();
         }
 
         @Override
@@ -1430,8 +1576,8 @@ class XDataFrameContent<R,C> implements Serializable, Cloneable {
         public final DataFrameCursor<R,C> rowAt(int row) {
             try {
                 this.rowCoord = rowKeys.getCoordinateAt(row);
-                this.array = columnStore ? array : data.get(rowCoord);
                 this.rowOrdinal = row;
+                this.array = lookup();
                 return this;
             } catch (Throwable t) {
                 throw new DataFrameException("Failed to move cursor to row ordinal " + row, t);
@@ -1442,8 +1588,8 @@ class XDataFrameContent<R,C> implements Serializable, Cloneable {
         public final DataFrameCursor<R,C> colAt(int column) {
             try {
                 this.colCoord = colKeys.getCoordinateAt(column);
-                this.array = columnStore ? data.get(colCoord) : array;
                 this.colOrdinal = column;
+                this.array = lookup();
                 return this;
             } catch (Throwable t) {
                 throw new DataFrameException("Failed to move cursor to column ordinal " + column, t);
@@ -1455,6 +1601,16 @@ class XDataFrameContent<R,C> implements Serializable, Cloneable {
             return new Cursor().init(frame, rowOrdinal, colOrdinal);
         }
 
+        /**
+         * Returns the array for the current location, which is looked up on every move rather than retained across
+         * moves, so that a cursor observes arrays that are replaced when the content is compacted
+         * @return  the array for the current location, null if the content is empty
+         */
+        private Array<?> lookup() {
+            final int coord = columnStore ? colCoord : rowCoord;
+            return coord < data.size() ? data.get(coord) : null;
+        }
+
 
         @Override
         public final DataFrameCursor<R,C> addRow(R rowKey) {
@@ -15,6 +15,7 @@
  */
 package com.d3x.morpheus.reference;
 
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.function.Consumer;
@@ -182,6 +183,26 @@ class XDataFrameRows<R,C> extends XDataFrameAxisBase<R,C,R,C,DataFrameRow<R,C>,D
         return XDataFrameSorter.sortRows(frame(), keys, ascending, isParallel());
     }
 
+    @Override @Parallel
+    public final DataFrame<R,C> top(int count, C key) {
+        return XDataFrameSorter.topRows(frame(), Collections.singletonList(key), count, true, isParallel());
+    }
+
+    @Override @Parallel
+    public final DataFrame<R,C> top(int count, List<C> keys) {
+        return XDataFrameSorter.topRows(frame(), keys, count, true, isParallel());
+    }
+
+    @Override @Parallel
+    public final DataFrame<R,C> bottom(int count, C key) {
+        return XDataFrameSorter.topRows(frame(), Collections.singletonList(key), count, false, isParallel());
+    }
+
+    @Override @Parallel
+    public final DataFrame<R,C> bottom(int count, List<C> keys) {
+        return XDataFrameSorter.topRows(frame(), keys, count, false, isParallel());
+    }
+
     @Override @Parallel
     public final DataFrame<R,C> sort(Comparator<DataFrameRow<R,C>> comparator) {
         return XDataFrameSorter.sortRows(frame(), isParallel(), comparator);
@@ -15,12 +15,20 @@
  */
 package com.d3x.morpheus.reference;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.function.IntPredicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import com.d3x.morpheus.frame.DataFrameColumn;
+import com.d3x.morpheus.frame.DataFrameException;
 import com.d3x.morpheus.frame.DataFrameRow;
+import com.d3x.morpheus.util.IntComparator;
+import com.d3x.morpheus.util.RadixSort;
+import com.d3x.morpheus.util.SortAlgorithm;
 
 /**
  * A class that is designed to sort a DataFrame in either the row or column dimension
@@ -88,6 +96,11 @@ class XDataFrameSorter {
 
     /**
      * Sorts the rows of a DataFrame according to data in the specified columns
+     *
+     * When all the sort columns have a primitive representation, the keys are extracted once and sorted with a
+     * stable radix sort, and the resulting permutation is applied to the row index in a single pass. Otherwise
+     * the rows are sorted with a comparator over the column values.
+     *
      * @param frame         the frame to sort
      * @param colKeys       the column keys to sort by, in order of precedence
      * @param ascending     true for ascending, false for descending
@@ -95,11 +108,18 @@ class XDataFrameSorter {
      * @return              the sorted DataFrame
      */
     static <R,C> XDataFrame<R,C> sortRows(XDataFrame<R,C> frame, List<C> colKeys, boolean ascending, boolean parallel) {
-        var multiplier = ascending ? 1 : -1;
         var result = frame.withRowKeys(frame.rowKeys().copy(false));
-        var comparator = result.content().createRowComparator(colKeys, multiplier);
-        result.rowKeys().sort(parallel, comparator);
-        return result;
+        var sortKeys = result.content().createRowSortKeys(colKeys, ascending, parallel);
+        if (sortKeys != null) {
+            var ordinals = RadixSort.sort(sortKeys, parallel);
+            result.rowKeys().reorder(ordinals);
+            return result;
+        } else {
+            var multiplier = ascending ? 1 : -1;
+            var comparator = result.content().createRowComparator(colKeys, multiplier);
+            result.rowKeys().sort(parallel, comparator);
+            return result;
+        }
     }
 
 
@@ -158,4 +178,179 @@ class XDataFrameSorter {
             return result;
         }
     }
+
+
+    /**
+     * Returns a filter of the frame with the rows that rank first according to data in the specified columns
+     * @param frame         the frame to select from, which is not modified
+     * @param colKeys       the column keys to rank rows by, in order of precedence
+     * @param count         the max number of rows to select
+     * @param largest       true to select rows with the largest values, false for the smallest
+     * @param parallel      true to rank partitions of rows in parallel
+     * @return              the filtered DataFrame, with rows in rank order, excluding rows with nulls in the ranking columns
+     */
+    static <R,C> XDataFrame<R,C> topRows(XDataFrame<R,C> frame, List<C> colKeys, int count, boolean largest, boolean parallel) {
+        var sortKeys = frame.content().createRowSortKeys(colKeys, !largest, parallel);
+        var comparator = sortKeys != null ? createComparator(sortKeys) : frame.content().createRowComparator(colKeys, largest ? -1 : 1);
+        var nulls = frame.content().createRowNullTest(colKeys);
+        var ordinals = select(frame.rowCount(), count, comparator, nulls, parallel);
+        var rowKeys = Arrays.stream(ordinals).mapToObj(frame.rowKeys()::getKey).collect(Collectors.toList());
+        var newRowKeys = frame.rowKeys().filter(rowKeys);
+        var newColKeys = frame.colKeys().copy(true);
+        return frame.filter(newRowKeys, newColKeys);
+    }
+
+
+    /**
+     * Returns a filter of the frame with the columns that rank first according to data in the specified rows
+     * @param frame         the frame to select from, which is not modified
+     * @param rowKeys       the row keys to rank columns by, in order of precedence
+     * @param count         the max number of columns to select
+     * @param largest       true to select columns with the largest values, false for the smallest
+     * @param parallel      true to rank partitions of columns in parallel
+     * @return              the filtered DataFrame, with columns in rank order, excluding columns with nulls in the ranking rows
+     */
+    static <R,C> XDataFrame<R,C> topCols(XDataFrame<R,C> frame, List<R> rowKeys, int count, boolean largest, boolean parallel) {
+        var sortKeys = frame.content().createColSortKeys(rowKeys, !largest, parallel);
+        var comparator = sortKeys != null ? createComparator(sortKeys) : frame.content().createColComparator(rowKeys, largest ? -1 : 1);
+        var nulls = frame.content().createColNullTest(rowKeys);
+        var ordinals = select(frame.colCount(), count, comparator, nulls, parallel);
+        var colKeys = Arrays.stream(ordinals).mapToObj(frame.colKeys()::getKey).collect(Collectors.toList());
+        var newRowKeys = frame.rowKeys().copy(true);
+        var newColKeys = frame.colKeys().filter(colKeys);
+        return frame.filter(newRowKeys, newColKeys);
+    }
+
+
+    /**
+     * Returns a comparator of ordinals that compares the primitive sort keys specified in order of precedence
+     * @param sortKeys  the sort keys, with one element per ordinal
+     * @return          the comparator of ordinals
+     */
+    private static IntComparator createComparator(long[][] sortKeys) {
+        return (ordinal1, ordinal2) -> {
+            for (long[] keys : sortKeys) {
+                var result = Long.compare(keys[ordinal1], keys[ordinal2]);
+                if (result != 0) {
+                    return result;
+                }
+            }
+            return 0;
+        };
+    }
+
+
+    /**
+     * Returns the ordinals of the elements that rank first according to the comparator, in rank order
+     *
+     * Each partition of ordinals retains its best candidates in a bounded heap, which requires O(n log k) time and
+     * O(k) space, and the candidates of all partitions are then merged. Ties are broken by ordinal, so the result
+     * is identical to the first elements of a stable sort. Ordinals with null values are excluded, as NaN and null
+     * have no meaningful rank, and would otherwise be selected first as the largest values.
+     *
+     * @param size          the number of ordinals to select from
+     * @param count         the max number of ordinals to select
+     * @param comparator    the comparator of ordinals, where lower ranks first
+     * @param nulls         the predicate that tests whether an ordinal has a null value to rank by
+     * @param parallel      true to process partitions in parallel
+     * @return              the selected ordinals in rank order
+     */
+    private static int[] select(int size, int count, IntComparator comparator, IntPredicate nulls, boolean parallel) {
+        if (count < 0) {
+            throw new DataFrameException("The count for a top selection must be >= 0: " + count);
+        } else {
+            var limit = Math.min(count, size);
+            var partitions = parallel ? Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), size / 10000)) : 1;
+            var ordinals = IntStream.range(0, partitions).parallel().mapToObj(p -> {
+                var heap = new SelectionHeap(limit, stable(comparator.copy()));
+                var end = (int)((long)size * (p + 1) / partitions);
+                for (int i=(int)((long)size * p / partitions); i<end; ++i) {
+                    if (!nulls.test(i)) {
+                        heap.offer(i);
+                    }
+                }
+                return heap.toArray();
+            }).flatMapToInt(IntStream::of).toArray();
+            var stable = stable(comparator);
+            var heap = new SelectionHeap(limit, stable);
+            IntStream.of(ordinals).forEach(heap::offer);
+            var result = heap.toArray();
+            SortAlgorithm.getDefault(false).sort(0, result.length, (i, j) -> stable.compare(result[i], result[j]), (i, j) -> {
+                var temp = result[i];
+                result[i] = result[j];
+                result[j] = temp;
+            });
+            return result;
+        }
+    }
+
+
+    /**
+     * Returns a comparator that breaks ties of the comparator specified by ordinal
+     * @param comparator    the comparator of ordinals
+     * @return              the comparator that imposes a total order
+     */
+    private static IntComparator stable(IntComparator comparator) {
+        return (ordinal1, ordinal2) -> {
+            var result = comparator.compare(ordinal1, ordinal2);
+            return result != 0 ? result : Integer.compare(ordinal1, ordinal2);
+        };
+    }
+
+
+    /**
+     * A bounded binary heap of ordinals that retains the elements that rank first according to a comparator
+     */
+    private static class SelectionHeap {
+
+        private int size;
+        private int[] heap;
+        private IntComparator comparator;
+
+        /**
+         * Constructor
+         * @param capacity      the max number of ordinals to retain
+         * @param comparator    the comparator of ordinals, where lower ranks first
+         */
+        SelectionHeap(int capacity, IntComparator comparator) {
+            this.heap = new int[capacity];
+            this.comparator = comparator;
+        }
+
+        /**
+         * Offers an ordinal to this heap, which is retained if it ranks ahead of the worst retained ordinal
+         * @param ordinal   the ordinal to offer
+         */
+        void offer(int ordinal) {
+            if (size < heap.length) {
+                var index = size++;
+                while (index > 0) {
+                    var parent = (index - 1) / 2;
+                    if (comparator.compare(heap[parent], ordinal) >= 0) break;
+                    this.heap[index] = heap[parent];
+                    index = parent;
+                }
+                this.heap[index] = ordinal;
+            } else if (size > 0 && comparator.compare(ordinal, heap[0]) < 0) {
+                var index = 0;
+                while (true) {
+                    var child = 2 * index + 1;
+                    if (child >= size) break;
+                    if (child + 1 < size && comparator.compare(heap[child + 1], heap[child]) > 0) child++;
+                    if (comparator.compare(heap[child], ordinal) <= 0) break;
+                    this.heap[index] = heap[child];
+                    index = child;
+                }
+                this.heap[index] = ordinal;
+            }
+        }
+
+        /**
+         * Returns the ordinals retained by this heap, in no particular order
+         * @return  the retained ordinals
+         */
+        int[] toArray() {
+            return Arrays.copyOf(heap, size);
+        }
+    }
 }
@@ -0,0 +1,336 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.reference.regress;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.QRDecomposition;
+
+import com.d3x.morpheus.frame.DataFrame;
+import com.d3x.morpheus.frame.DataFrameException;
+import com.d3x.morpheus.frame.DataFrameMultiLeastSquares;
+import com.d3x.morpheus.linalg.SVDSolver;
+import com.d3x.morpheus.matrix.D3xMatrix;
+
+/**
+ * The reference implementation of the DataFrameMultiLeastSquares interface
+ *
+ * <p>The design matrix is built and factored once, and the factorization is applied to a matrix holding all
+ * regressands with complete observations, so the cost of the decomposition is shared across every regressand.</p>
+ *
+ * @param <R>   the row key type
+ * @param <C>   the column key type
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+class XDataFrameMultiLeastSquares<R,C> implements DataFrameMultiLeastSquares<R,C> {
+
+    private int p;
+    private Solver solver;
+    private double threshold;
+    private boolean intercept;
+    private DataFrame<R,C> frame;
+    private List<C> regressands;
+    private List<C> regressors;
+    private double[][] coefficients;
+    private double[][] residuals;
+    private double[] rSquared;
+
+
+    /**
+     * Constructor
+     * @param frame         the frame to operate on
+     * @param regressands   the regressand keys that define the dependent variables
+     * @param regressors    the regressor keys that define the independent variables
+     * @param intercept     true to include an intercept / constant term in the model
+     */
+    XDataFrameMultiLeastSquares(DataFrame<R,C> frame, List<C> regressands, List<C> regressors, boolean intercept) {
+        if (regressors.size() == 0) {
+            throw new DataFrameException("At least one regressor must be specified");
+        } else if (regressands.size() == 0) {
+            throw new DataFrameException("At least one regressand must be specified");
+        } else {
+            this.frame = frame;
+            this.solver = Solver.QR;
+            this.threshold = Double.NaN;
+            this.intercept = intercept;
+            this.p = regressors.size() + (intercept ? 1 : 0);
+            this.regressands = new ArrayList<>(regressands);
+            this.regressors = new ArrayList<>(regressors);
+        }
+    }
+
+
+    @Override
+    public void fit() {
+        try {
+            final int m = regressands.size();
+            final int[] rows = completeRows();
+            final double[][] x = createX(rows);
+            final double[][] y = createY(rows);
+            final List<Integer> batch = new ArrayList<>(m);
+            final List<Integer> incomplete = new ArrayList<>();
+            for (int k = 0; k < m; ++k) {
+                final int col = k;
+                final boolean complete = Arrays.stream(y).noneMatch(v -> Double.isNaN(v[col]));
+                (complete ? batch : incomplete).add(k);
+            }
+            this.coefficients = new double[m][];
+            this.residuals = new double[m][];
+            this.rSquared = new double[m];
+            if (batch.size() > 0) {
+                this.solve(rows, x, y, batch);
+            }
+            for (int k : incomplete) {
+                final int col = k;
+                final int[] subset = IntStream.range(0, rows.length).filter(i -> !Double.isNaN(y[i][col])).toArray();
+                final double[][] xSub = Arrays.stream(subset).mapToObj(i -> x[i]).toArray(double[][]::new);
+                final double[][] ySub = Arrays.stream(subset).mapToObj(i -> y[i]).toArray(double[][]::new);
+                final int[] rowsSub = Arrays.stream(subset).map(i -> rows[i]).toArray();
+                this.solve(rowsSub, xSub, ySub, Collections.singletonList(k));
+            }
+        } catch (DataFrameException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            final String regressors = Arrays.toString(this.regressors.toArray());
+            throw new DataFrameException("Failed while running multiple response regression on " + regressors, ex);
+        }
+    }
+
+
+    /**
+     * Computes the model if necessary
+     */
+    private void computeIf() {
+        if (coefficients == null) {
+            fit();
+        }
+    }
+
+
+    /**
+     * Returns the ordinals of rows for which all regressor values are present
+     * @return  the ordinals of rows with no missing regressor values
+     */
+    private int[] completeRows() {
+        final int[] colIndexes = regressors.stream().mapToInt(k -> frame.cols().ordinal(k)).toArray();
+        return IntStream.range(0, frame.rowCount()).filter(i -> {
+            for (int colIndex : colIndexes) {
+                if (Double.isNaN(frame.getDoubleAt(i, colIndex))) {
+                    return false;
+                }
+            }
+            return true;
+        }).toArray();
+    }
+
+
+    /**
+     * Creates the X design matrix for the rows specified
+     * @param rows  the row ordinals to include
+     * @return      the X design matrix
+     */
+    private double[][] createX(int[] rows) {
+        final int offset = intercept ? 1 : 0;
+        final int[] colIndexes = regressors.stream().mapToInt(k -> frame.cols().ordinal(k)).toArray();
+        final double[][] x = new double[rows.length][p];
+        for (int i = 0; i < rows.length; ++i) {
+            x[i][0] = 1d;
+            for (int j = offset; j < p; ++j) {
+                x[i][j] = frame.getDoubleAt(rows[i], colIndexes[j - offset]);
+            }
+        }
+        return x;
+    }
+
+
+    /**
+     * Creates the Y response matrix for the rows specified, with one column per regressand
+     * @param rows  the row ordinals to include
+     * @return      the Y response matrix
+     */
+    private double[][] createY(int[] rows) {
+        final int[] colIndexes = regressands.stream().mapToInt(k -> frame.cols().ordinal(k)).toArray();
+        final double[][] y = new double[rows.length][colIndexes.length];
+        for (int i = 0; i < rows.length; ++i) {
+            for (int k = 0; k < colIndexes.length; ++k) {
+                y[i][k] = frame.getDoubleAt(rows[i], colIndexes[k]);
+            }
+        }
+        return y;
+    }
+
+
+    /**
+     * Factors the design matrix once and solves for all the regressands specified
+     * @param rows      the row ordinals of the observations
+     * @param x         the design matrix
+     * @param y         the response matrix with one column per regressand
+     * @param targets   the indexes of regressands to solve for
+     */
+    private void solve(int[] rows, double[][] x, double[][] y, List<Integer> targets) {
+        final int n = rows.length;
+        final int q = targets.size();
+        if (n < p) {
+            throw new DataFrameException("Insufficient observations for regression, " + n + " rows for " + p + " parameters");
+        }
+        final double[][] b = new double[n][q];
+        for (int i = 0; i < n; ++i) {
+            for (int j = 0; j < q; ++j) {
+                b[i][j] = y[i][targets.get(j)];
+            }
+        }
+        final double[][] beta = solve(x, b);
+        final double[] mean = new double[q];
+        for (int i = 0; i < n; ++i) {
+            for (int j = 0; j < q; ++j) {
+                mean[j] += b[i][j] / n;
+            }
+        }
+        final double[] rss = new double[q];
+        final double[] tss = new double[q];
+        final double[][] errors = new double[q][frame.rowCount()];
+        Arrays.stream(errors).forEach(v -> Arrays.fill(v, Double.NaN));
+        for (int i = 0; i < n; ++i) {
+            for (int j = 0; j < q; ++j) {
+                double fitted = 0d;
+                for (int c = 0; c < p; ++c) {
+                    fitted += x[i][c] * beta[c][j];
+                }
+                final double error = b[i][j] - fitted;
+                final double centered = intercept ? b[i][j] - mean[j] : b[i][j];
+                errors[j][rows[i]] = error;
+                rss[j] += error * error;
+                tss[j] += centered * centered;
+            }
+        }
+        for (int j = 0; j < q; ++j) {
+            final int k = targets.get(j);
+            final double[] coefficients = new double[p];
+            for (int c = 0; c < p; ++c) {
+                coefficients[c] = beta[c][j];
+            }
+            this.coefficients[k] = coefficients;
+            this.residuals[k] = errors[j];
+            this.rSquared[k] = 1d - rss[j] / tss[j];
+        }
+    }
+
+
+    /**
+     * Solves the least squares system X * B = Y for all columns of Y using a single factorization of X
+     * @param x     the design matrix
+     * @param y     the response matrix
+     * @return      the p x q matrix of coefficients
+     */
+    private double[][] solve(double[][] x, double[][] y) {
+        switch (solver) {
+            case QR:
+                final double qrThreshold = Double.isNaN(threshold) ? 0d : threshold;
+                final QRDecomposition qr = new QRDecomposition(new Array2DRowRealMatrix(x, false), qrThreshold);
+                return qr.getSolver().solve(new Array2DRowRealMatrix(y, false)).getData();
+            case SVD:
+                final SVDSolver svd = SVDSolver.apache(D3xMatrix.wrap(x));
+                final SVDSolver svdSolver = Double.isNaN(threshold) ? svd : svd.withThreshold(threshold);
+                return svdSolver.solve(D3xMatrix.wrap(y)).toArray();
+            default:
+                throw new DataFrameException("Unsupported solver for multiple response regression: " + solver);
+        }
+    }
+
+
+    @Override
+    public List<C> getRegressands() {
+        return Collections.unmodifiableList(regressands);
+    }
+
+
+    @Override
+    public List<C> getRegressors() {
+        return Collections.unmodifiableList(regressors);
+    }
+
+
+    @Override
+    public boolean hasIntercept() {
+        return intercept;
+    }
+
+
+    @Override
+    public DataFrame<C,C> getBetas() {
+        this.computeIf();
+        final int offset = intercept ? 1 : 0;
+        return DataFrame.ofDoubles(regressands, regressors, v -> coefficients[v.rowOrdinal()][v.colOrdinal() + offset]);
+    }
+
+
+    @Override
+    public DataFrame<C,String> getIntercept() {
+        if (!intercept) {
+            throw new DataFrameException("The multiple response regression model does not include an intercept");
+        } else {
+            this.computeIf();
+            return DataFrame.ofDoubles(regressands, Collections.singletonList("Intercept"), v -> coefficients[v.rowOrdinal()][0]);
+        }
+    }
+
+
+    @Override
+    public DataFrame<R,C> getResiduals() {
+        this.computeIf();
+        return DataFrame.ofDoubles(frame.rows().keyArray(), regressands, v -> residuals[v.colOrdinal()][v.rowOrdinal()]);
+    }
+
+
+    @Override
+    public double getRSquared(C regressand) {
+        final int index = regressands.indexOf(regressand);
+        if (index < 0) {
+            throw new DataFrameException("No regressand exists in multiple response model for key: " + regressand);
+        } else {
+            this.computeIf();
+            return rSquared[index];
+        }
+    }
+
+
+    @Override
+    public DataFrameMultiLeastSquares<R,C> withSolver(Solver solver) {
+        if (solver != this.solver) {
+            this.solver = solver;
+            this.coefficients = null;
+        }
+        return this;
+    }
+
+
+    @Override
+    public DataFrameMultiLeastSquares<R,C> withThreshold(double threshold) {
+        if (threshold != this.threshold) {
+            this.threshold = threshold;
+            this.coefficients = null;
+        }
+        return this;
+    }
+}
@@ -21,7 +21,9 @@ import java.util.function.Function;
 import com.d3x.morpheus.array.Array;
 import com.d3x.morpheus.frame.DataFrame;
 import com.d3x.morpheus.frame.DataFrameLeastSquares;
+import com.d3x.morpheus.frame.DataFrameMultiLeastSquares;
 import com.d3x.morpheus.frame.DataFrameRegression;
+import com.d3x.morpheus.frame.DataFrameRollingRegression;
 import com.d3x.morpheus.util.Collect;
 
 /**
@@ -75,4 +77,14 @@ public class XDataFrameRegression<R,C> implements DataFrameRegression<R,C> {
     public <T> Optional<T> gls(C regressand, Iterable<C> regressors, DataFrame<?, ?> omega, boolean intercept, Function<DataFrameLeastSquares<R, C>, Optional<T>> handler) {
         return handler.apply(new XDataFrame_GLS<>(frame, regressand, Collect.asList(regressors), intercept, omega));
     }
+
+    @Override
+    public <T> Optional<T> rolling(Iterable<C> regressands, Iterable<C> regressors, int windowSize, boolean intercept, Function<DataFrameRollingRegression<R,C>,Optional<T>> handler) {
+        return handler.apply(new XDataFrameRollingOLS<>(frame, Collect.asList(regressands), Collect.asList(regressors), windowSize, intercept));
+    }
+
+    @Override
+    public <T> Optional<T> multi(Iterable<C> regressands, Iterable<C> regressors, boolean intercept, Function<DataFrameMultiLeastSquares<R,C>,Optional<T>> handler) {
+        return handler.apply(new XDataFrameMultiLeastSquares<>(frame, Collect.asList(regressands), Collect.asList(regressors), intercept));
+    }
 }
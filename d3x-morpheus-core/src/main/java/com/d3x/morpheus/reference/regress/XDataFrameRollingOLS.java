@@ -0,0 +1,469 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.reference.regress;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.DecompositionSolver;
+import org.apache.commons.math3.linear.LUDecomposition;
+
+import com.d3x.morpheus.frame.DataFrame;
+import com.d3x.morpheus.frame.DataFrameException;
+import com.d3x.morpheus.frame.DataFrameLeastSquares.Field;
+import com.d3x.morpheus.frame.DataFrameRollingRegression;
+
+/**
+ * The reference implementation of the DataFrameRollingRegression interface based on Ordinary Least Squares.
+ *
+ * <p>Since all regressands share the same regressors, the inverse of the X'X matrix for each window is computed once
+ * and shared across all regressands. The inverse is advanced from one window to the next using a Sherman-Morrison
+ * rank-one update for the observation entering the window, and a rank-one downdate for the observation leaving it.
+ * To bound the accumulation of rounding errors, the inverse and all running sums are recomputed from scratch once
+ * every window length, which keeps the amortized cost per observation independent of the window size.</p>
+ *
+ * @param <R>   the row key type
+ * @param <C>   the column key type
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+class XDataFrameRollingOLS<R,C> implements DataFrameRollingRegression<R,C> {
+
+    private static final double MIN_DENOMINATOR = 1e-10;
+
+    private int n;
+    private int p;
+    private int windowSize;
+    private boolean intercept;
+    private DataFrame<R,C> frame;
+    private List<C> regressands;
+    private List<C> regressors;
+    private double[][] betas;
+    private double[][] stdErrors;
+    private double[][] rSquared;
+    private double[][] sigma;
+    private long runtimeMillis;
+
+
+    /**
+     * Constructor
+     * @param frame         the frame to operate on
+     * @param regressands   the regressand keys that define the dependent variables
+     * @param regressors    the regressor keys that define the independent variables
+     * @param windowSize    the number of observations in each window
+     * @param intercept     true to include an intercept / constant term in the model
+     */
+    XDataFrameRollingOLS(DataFrame<R,C> frame, List<C> regressands, List<C> regressors, int windowSize, boolean intercept) {
+        if (regressors.size() == 0) {
+            throw new DataFrameException("At least one regressor must be specified");
+        } else if (regressands.size() == 0) {
+            throw new DataFrameException("At least one regressand must be specified");
+        } else if (windowSize <= regressors.size() + (intercept ? 1 : 0)) {
+            throw new DataFrameException("The window size must exceed the number of model parameters, window size: " + windowSize);
+        } else {
+            this.frame = frame;
+            this.intercept = intercept;
+            this.windowSize = windowSize;
+            this.n = frame.rowCount();
+            this.p = regressors.size() + (intercept ? 1 : 0);
+            this.regressands = new ArrayList<>(regressands);
+            this.regressors = new ArrayList<>(regressors);
+        }
+    }
+
+
+    @Override
+    public void fit() {
+        try {
+            final long t1 = System.nanoTime();
+            final double[][] x = createX();
+            final double[][][] inverses = computeInverses(x);
+            final int m = regressands.size();
+            this.betas = new double[m * p][];
+            this.stdErrors = new double[m * p][];
+            this.rSquared = new double[m][];
+            this.sigma = new double[m][];
+            final IntStream indexes = frame.isParallel() ? IntStream.range(0, m).parallel() : IntStream.range(0, m);
+            indexes.forEach(k -> compute(k, x, inverses));
+            final long t2 = System.nanoTime();
+            this.runtimeMillis = (t2 - t1) / 1000000;
+        } catch (DataFrameException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            final String regressors = Arrays.toString(this.regressors.toArray());
+            throw new DataFrameException("Failed while running rolling regression on " + regressors, ex);
+        }
+    }
+
+
+    /**
+     * Computes the model if necessary
+     */
+    private void computeIf() {
+        if (betas == null) {
+            fit();
+        }
+    }
+
+
+    /**
+     * Returns the design matrix as rows of observations, with null for rows that contain missing values
+     * @return  the design matrix rows
+     */
+    private double[][] createX() {
+        final int offset = intercept ? 1 : 0;
+        final int[] colIndexes = regressors.stream().mapToInt(k -> frame.cols().ordinal(k)).toArray();
+        final double[][] x = new double[n][];
+        for (int i = 0; i < n; ++i) {
+            final double[] row = new double[p];
+            row[0] = 1d;
+            for (int j = offset; j < p; ++j) {
+                row[j] = frame.getDoubleAt(i, colIndexes[j - offset]);
+            }
+            x[i] = Arrays.stream(row).anyMatch(Double::isNaN) ? null : row;
+        }
+        return x;
+    }
+
+
+    /**
+     * Computes the inverse of X'X for every complete window, which is shared across all regressands
+     * @param x     the design matrix rows
+     * @return      the inverse by window end row, null for rows with no viable window
+     */
+    private double[][][] computeInverses(double[][] x) {
+        int invalid = 0;
+        int sinceRefresh = 0;
+        double[][] inverse = null;
+        final double[] px = new double[p];
+        final double[][] xtx = new double[p][p];
+        final double[][][] inverses = new double[n][][];
+        for (int i = 0; i < n; ++i) {
+            final double[] entering = x[i];
+            final double[] leaving = i >= windowSize ? x[i - windowSize] : null;
+            invalid += entering == null ? 1 : 0;
+            invalid -= i >= windowSize && leaving == null ? 1 : 0;
+            accumulate(xtx, entering, 1d);
+            accumulate(xtx, leaving, -1d);
+            if (i >= windowSize - 1) {
+                if (invalid > 0) {
+                    inverse = null;
+                } else if (inverse == null || ++sinceRefresh >= windowSize) {
+                    sinceRefresh = 0;
+                    refresh(xtx, x, i);
+                    inverse = invert(xtx);
+                } else {
+                    inverse = copy(inverse);
+                    final boolean updated = shermanMorrison(inverse, entering, px, 1d);
+                    final boolean downdated = updated && shermanMorrison(inverse, leaving, px, -1d);
+                    if (!downdated) {
+                        refresh(xtx, x, i);
+                        inverse = invert(xtx);
+                    }
+                }
+                inverses[i] = inverse;
+            }
+        }
+        return inverses;
+    }
+
+
+    /**
+     * Computes the regression statistics for all windows of the regressand specified
+     * @param k         the regressand index
+     * @param x         the design matrix rows
+     * @param inverses  the inverse of X'X by window end row
+     */
+    private void compute(int k, double[][] x, double[][][] inverses) {
+        final int colIndex = frame.cols().ordinal(regressands.get(k));
+        final double[] y = new double[n];
+        for (int i = 0; i < n; ++i) {
+            y[i] = frame.getDoubleAt(i, colIndex);
+        }
+        final double[][] beta = new double[p][n];
+        final double[][] stdError = new double[p][n];
+        final double[] r2 = new double[n];
+        final double[] sigma = new double[n];
+        Arrays.stream(beta).forEach(v -> Arrays.fill(v, Double.NaN));
+        Arrays.stream(stdError).forEach(v -> Arrays.fill(v, Double.NaN));
+        Arrays.fill(r2, Double.NaN);
+        Arrays.fill(sigma, Double.NaN);
+        int invalid = 0;
+        int sinceRefresh = 0;
+        final double[] sums = new double[2];
+        final double[] xty = new double[p];
+        final double[] b = new double[p];
+        for (int i = 0; i < n; ++i) {
+            invalid += Double.isNaN(y[i]) ? 1 : 0;
+            invalid -= i >= windowSize && Double.isNaN(y[i - windowSize]) ? 1 : 0;
+            accumulate(xty, sums, x[i], y[i], 1d);
+            if (i >= windowSize) {
+                accumulate(xty, sums, x[i - windowSize], y[i - windowSize], -1d);
+            }
+            if (i >= windowSize - 1 && ++sinceRefresh >= windowSize) {
+                sinceRefresh = 0;
+                refresh(xty, sums, x, y, i);
+            }
+            final double[][] inverse = inverses[i];
+            if (inverse != null && invalid == 0) {
+                double bXty = 0d;
+                for (int r = 0; r < p; ++r) {
+                    double value = 0d;
+                    for (int c = 0; c < p; ++c) {
+                        value += inverse[r][c] * xty[c];
+                    }
+                    b[r] = value;
+                    bXty += value * xty[r];
+                }
+                final double yty = sums[1];
+                final double rss = Math.max(0d, yty - bXty);
+                final double tss = intercept ? yty - sums[0] * sums[0] / windowSize : yty;
+                final double errorVariance = rss / (windowSize - p);
+                for (int r = 0; r < p; ++r) {
+                    beta[r][i] = b[r];
+                    stdError[r][i] = Math.sqrt(errorVariance * inverse[r][r]);
+                }
+                r2[i] = 1d - rss / tss;
+                sigma[i] = Math.sqrt(errorVariance);
+            }
+        }
+        for (int r = 0; r < p; ++r) {
+            this.betas[k * p + r] = beta[r];
+            this.stdErrors[k * p + r] = stdError[r];
+        }
+        this.rSquared[k] = r2;
+        this.sigma[k] = sigma;
+    }
+
+
+    /**
+     * Adds or removes the outer product of an observation to the X'X matrix
+     * @param xtx   the X'X matrix to update
+     * @param row   the observation row, ignored if null
+     * @param sign  1 to add, -1 to remove
+     */
+    private void accumulate(double[][] xtx, double[] row, double sign) {
+        if (row != null) {
+            for (int r = 0; r < p; ++r) {
+                for (int c = 0; c < p; ++c) {
+                    xtx[r][c] += sign * row[r] * row[c];
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Adds or removes an observation to the X'y vector and the sums of y and y squared
+     * @param xty   the X'y vector to update
+     * @param sums  the sum of y and sum of y squared
+     * @param row   the observation row, ignored if null
+     * @param y     the observation, ignored if NaN
+     * @param sign  1 to add, -1 to remove
+     */
+    private void accumulate(double[] xty, double[] sums, double[] row, double y, double sign) {
+        if (row != null && !Double.isNaN(y)) {
+            for (int r = 0; r < p; ++r) {
+                xty[r] += sign * row[r] * y;
+            }
+            sums[0] += sign * y;
+            sums[1] += sign * y * y;
+        }
+    }
+
+
+    /**
+     * Recomputes the X'X matrix from scratch for the window ending at the row specified
+     * @param xtx   the X'X matrix to reset
+     * @param x     the design matrix rows
+     * @param end   the window end row
+     */
+    private void refresh(double[][] xtx, double[][] x, int end) {
+        Arrays.stream(xtx).forEach(v -> Arrays.fill(v, 0d));
+        for (int i = end - windowSize + 1; i <= end; ++i) {
+            accumulate(xtx, x[i], 1d);
+        }
+    }
+
+
+    /**
+     * Recomputes the X'y vector and sums from scratch for the window ending at the row specified
+     * @param xty   the X'y vector to reset
+     * @param sums  the sum of y and sum of y squared
+     * @param x     the design matrix rows
+     * @param y     the regressand values
+     * @param end   the window end row
+     */
+    private void refresh(double[] xty, double[] sums, double[][] x, double[] y, int end) {
+        Arrays.fill(xty, 0d);
+        Arrays.fill(sums, 0d);
+        for (int i = end - windowSize + 1; i <= end; ++i) {
+            accumulate(xty, sums, x[i], y[i], 1d);
+        }
+    }
+
+
+    /**
+     * Applies a Sherman-Morrison rank-one update or downdate to an inverse matrix in place
+     * @param inverse   the inverse of X'X to update
+     * @param row       the observation row to add or remove
+     * @param px        workspace for the product of the inverse and the row
+     * @param sign      1 to add the observation, -1 to remove it
+     * @return          true if applied, false if the update was numerically unstable
+     */
+    private boolean shermanMorrison(double[][] inverse, double[] row, double[] px, double sign) {
+        double xpx = 0d;
+        for (int r = 0; r < p; ++r) {
+            double value = 0d;
+            for (int c = 0; c < p; ++c) {
+                value += inverse[r][c] * row[c];
+            }
+            px[r] = value;
+            xpx += row[r] * value;
+        }
+        final double denominator = 1d + sign * xpx;
+        if (Math.abs(denominator) < MIN_DENOMINATOR) {
+            return false;
+        } else {
+            for (int r = 0; r < p; ++r) {
+                for (int c = 0; c < p; ++c) {
+                    inverse[r][c] -= sign * px[r] * px[c] / denominator;
+                }
+            }
+            return true;
+        }
+    }
+
+
+    /**
+     * Returns the inverse of the X'X matrix, or null if it is singular
+     * @param xtx   the X'X matrix
+     * @return      the inverse, null if singular
+     */
+    private double[][] invert(double[][] xtx) {
+        final DecompositionSolver solver = new LUDecomposition(new Array2DRowRealMatrix(xtx)).getSolver();
+        return solver.isNonSingular() ? solver.getInverse().getData() : null;
+    }
+
+
+    /**
+     * Returns a deep copy of the matrix specified
+     * @param matrix    the matrix to copy
+     * @return          the copy of matrix
+     */
+    private double[][] copy(double[][] matrix) {
+        final double[][] result = new double[matrix.length][];
+        for (int i = 0; i < matrix.length; ++i) {
+            result[i] = matrix[i].clone();
+        }
+        return result;
+    }
+
+
+    /**
+     * Returns a frame of values by window end and regressand for the parameter index specified
+     * @param index     the parameter index, 0 for the intercept if included
+     * @param field     the field to return
+     * @return          the frame of values
+     */
+    private DataFrame<R,C> createFrame(int index, Field field) {
+        this.computeIf();
+        final DataFrame<R,C> result = DataFrame.ofDoubles(frame.rows().keyArray(), regressands);
+        switch (field) {
+            case PARAMETER: return result.applyDoubles(v -> betas[v.colOrdinal() * p + index][v.rowOrdinal()]);
+            case STD_ERROR: return result.applyDoubles(v -> stdErrors[v.colOrdinal() * p + index][v.rowOrdinal()]);
+            case T_STAT:    return result.applyDoubles(v -> {
+                final int k = v.colOrdinal() * p + index;
+                return betas[k][v.rowOrdinal()] / stdErrors[k][v.rowOrdinal()];
+            });
+            default:    throw new DataFrameException("Unsupported field for rolling regression: " + field);
+        }
+    }
+
+
+    @Override
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+
+    @Override
+    public List<C> getRegressands() {
+        return Collections.unmodifiableList(regressands);
+    }
+
+
+    @Override
+    public List<C> getRegressors() {
+        return Collections.unmodifiableList(regressors);
+    }
+
+
+    @Override
+    public boolean hasIntercept() {
+        return intercept;
+    }
+
+
+    @Override
+    public DataFrame<R,C> getBetas(C regressor, Field field) {
+        final int index = regressors.indexOf(regressor);
+        if (index < 0) {
+            throw new DataFrameException("No regressor exists in rolling model for key: " + regressor);
+        } else {
+            return createFrame(index + (intercept ? 1 : 0), field);
+        }
+    }
+
+
+    @Override
+    public DataFrame<R,C> getIntercept(Field field) {
+        if (!intercept) {
+            throw new DataFrameException("The rolling regression model does not include an intercept");
+        } else {
+            return createFrame(0, field);
+        }
+    }
+
+
+    @Override
+    public DataFrame<R,C> getRSquared() {
+        this.computeIf();
+        final DataFrame<R,C> result = DataFrame.ofDoubles(frame.rows().keyArray(), regressands);
+        return result.applyDoubles(v -> rSquared[v.colOrdinal()][v.rowOrdinal()]);
+    }
+
+
+    @Override
+    public DataFrame<R,C> getStdError() {
+        this.computeIf();
+        final DataFrame<R,C> result = DataFrame.ofDoubles(frame.rows().keyArray(), regressands);
+        return result.applyDoubles(v -> sigma[v.colOrdinal()][v.rowOrdinal()]);
+    }
+
+
+    @Override
+    public String toString() {
+        final String regressors = Arrays.toString(this.regressors.toArray());
+        return "Rolling OLS of " + regressands.size() + " regressand(s) on " + regressors + ", window: " + windowSize + ", runtime: " + runtimeMillis + " millis";
+    }
+}
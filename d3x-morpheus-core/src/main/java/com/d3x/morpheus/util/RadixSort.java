@@ -0,0 +1,221 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.util;
+
+import java.util.stream.IntStream;
+
+/**
+ * A stable least significant digit radix sort over primitive long keys that produces a permutation rather than sorting in place.
+ *
+ * <p>Keys are sorted as signed longs one byte at a time, and any byte position where all keys are equal is skipped,
+ * so keys with a narrow range such as ints, booleans or dates only pay for the bytes in which they actually differ.
+ * Doubles can be sorted by first converting them with {@link #toSortable(double)}, which preserves the ordering of
+ * {@link Double#compare(double, double)}, and descending order is achieved by inverting all bits of the keys.
+ * Sorting by several keys is done by sorting on each key from least to most significant precedence, which yields
+ * a lexicographic order because every pass is stable.</p>
+ *
+ * <p>The parallel version divides the keys into contiguous chunks, computes a digit histogram for each chunk
+ * concurrently, and then scatters each chunk concurrently into the offsets implied by the histograms, which keeps
+ * every pass stable.</p>
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+public class RadixSort {
+
+    private static final int RADIX = 256;
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+    private static final int MIN_CHUNK_SIZE = 1 << 14;
+
+
+    /**
+     * Returns a long whose signed ordering matches the ordering of doubles by Double.compare()
+     * @param value     the double value, where NaN sorts last and -0.0 sorts before 0.0
+     * @return          the order preserving long representation
+     */
+    public static long toSortable(double value) {
+        final long bits = Double.doubleToLongBits(value);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+
+    /**
+     * Returns the permutation that stably sorts the keys in ascending order
+     * @param keys      the keys to sort, which are not modified
+     * @param parallel  true to sort in parallel
+     * @return          the permutation, where element i is the index of the key at sorted position i
+     */
+    public static int[] sort(long[] keys, boolean parallel) {
+        return sort(new long[][] { keys }, parallel);
+    }
+
+
+    /**
+     * Returns the permutation that stably sorts rows of keys in ascending lexicographic order
+     * @param keys      the keys to sort in order of precedence, each array having the same length, which are not modified
+     * @param parallel  true to sort in parallel
+     * @return          the permutation, where element i is the index of the row at sorted position i
+     */
+    public static int[] sort(long[][] keys, boolean parallel) {
+        final int length = keys.length == 0 ? 0 : keys[0].length;
+        final boolean concurrent = parallel && length >= PARALLEL_THRESHOLD;
+        final int[] order = IntStream.range(0, length).toArray();
+        if (length > 1) {
+            final long[] keyBuffer1 = new long[length];
+            final long[] keyBuffer2 = new long[length];
+            final int[] orderBuffer = new int[length];
+            for (int k=keys.length-1; k>=0; --k) {
+                final long[] values = keys[k];
+                if (values.length != length) {
+                    throw new IllegalArgumentException("All key arrays must have the same length: " + values.length + " != " + length);
+                }
+                for (int i=0; i<length; ++i) {
+                    keyBuffer1[i] = values[order[i]];
+                }
+                final int[] sorted = sort(keyBuffer1, keyBuffer2, order, orderBuffer, concurrent);
+                if (sorted != order) {
+                    System.arraycopy(sorted, 0, order, 0, length);
+                }
+            }
+        }
+        return order;
+    }
+
+
+    /**
+     * Stably sorts the keys along with the ordinals, using the buffers provided for alternate passes
+     * @param keys          the keys to sort
+     * @param keyBuffer     the buffer for keys of alternate passes
+     * @param order         the ordinals to permute along with keys
+     * @param orderBuffer   the buffer for ordinals of alternate passes
+     * @param parallel      true to execute each pass in parallel
+     * @return              the array holding the sorted ordinals, which is either order or orderBuffer
+     */
+    private static int[] sort(long[] keys, long[] keyBuffer, int[] order, int[] orderBuffer, boolean parallel) {
+        final long first = keys[0];
+        final long diff = parallel ? IntStream.range(0, keys.length).parallel().mapToLong(i -> keys[i] ^ first).reduce(0L, (a, b) -> a | b) : diff(keys);
+        long[] srcKeys = keys, dstKeys = keyBuffer;
+        int[] srcOrder = order, dstOrder = orderBuffer;
+        for (int shift=0; shift<64; shift+=8) {
+            if (((diff >>> shift) & 0xFF) != 0) {
+                if (parallel) {
+                    passParallel(srcKeys, dstKeys, srcOrder, dstOrder, shift);
+                } else {
+                    pass(srcKeys, dstKeys, srcOrder, dstOrder, shift);
+                }
+                final long[] tempKeys = srcKeys; srcKeys = dstKeys; dstKeys = tempKeys;
+                final int[] tempOrder = srcOrder; srcOrder = dstOrder; dstOrder = tempOrder;
+            }
+        }
+        return srcOrder;
+    }
+
+
+    /**
+     * Returns the bitwise OR of the difference of each key with the first key, which marks the bits that vary
+     * @param keys  the keys to inspect
+     * @return      the bits that are not the same for all keys
+     */
+    private static long diff(long[] keys) {
+        long diff = 0L;
+        final long first = keys[0];
+        for (long key : keys) {
+            diff |= key ^ first;
+        }
+        return diff;
+    }
+
+
+    /**
+     * Returns the digit of a key at the shift specified, treating the key as signed
+     * @param key   the key value
+     * @param shift the bit shift of the digit
+     * @return      the digit in the range 0-255
+     */
+    private static int digit(long key, int shift) {
+        return (int)(((key ^ Long.MIN_VALUE) >>> shift) & 0xFF);
+    }
+
+
+    /**
+     * Performs a single counting sort pass on the digit specified
+     * @param srcKeys   the source keys
+     * @param dstKeys   the destination keys
+     * @param srcOrder  the source ordinals
+     * @param dstOrder  the destination ordinals
+     * @param shift     the bit shift of the digit
+     */
+    private static void pass(long[] srcKeys, long[] dstKeys, int[] srcOrder, int[] dstOrder, int shift) {
+        final int[] offsets = new int[RADIX];
+        for (long key : srcKeys) {
+            offsets[digit(key, shift)]++;
+        }
+        int offset = 0;
+        for (int d=0; d<RADIX; ++d) {
+            final int count = offsets[d];
+            offsets[d] = offset;
+            offset += count;
+        }
+        for (int i=0; i<srcKeys.length; ++i) {
+            final long key = srcKeys[i];
+            final int index = offsets[digit(key, shift)]++;
+            dstKeys[index] = key;
+            dstOrder[index] = srcOrder[i];
+        }
+    }
+
+
+    /**
+     * Performs a single counting sort pass on the digit specified, processing contiguous chunks in parallel
+     * @param srcKeys   the source keys
+     * @param dstKeys   the destination keys
+     * @param srcOrder  the source ordinals
+     * @param dstOrder  the destination ordinals
+     * @param shift     the bit shift of the digit
+     */
+    private static void passParallel(long[] srcKeys, long[] dstKeys, int[] srcOrder, int[] dstOrder, int shift) {
+        final int length = srcKeys.length;
+        final int maxChunks = Runtime.getRuntime().availableProcessors() * 4;
+        final int chunkCount = Math.max(1, Math.min(maxChunks, length / MIN_CHUNK_SIZE));
+        final int[][] offsets = new int[chunkCount][RADIX];
+        IntStream.range(0, chunkCount).parallel().forEach(c -> {
+            final int[] counts = offsets[c];
+            final int end = (int)((long)length * (c + 1) / chunkCount);
+            for (int i=(int)((long)length * c / chunkCount); i<end; ++i) {
+                counts[digit(srcKeys[i], shift)]++;
+            }
+        });
+        int offset = 0;
+        for (int d=0; d<RADIX; ++d) {
+            for (int c=0; c<chunkCount; ++c) {
+                final int count = offsets[c][d];
+                offsets[c][d] = offset;
+                offset += count;
+            }
+        }
+        IntStream.range(0, chunkCount).parallel().forEach(c -> {
+            final int[] chunkOffsets = offsets[c];
+            final int end = (int)((long)length * (c + 1) / chunkCount);
+            for (int i=(int)((long)length * c / chunkCount); i<end; ++i) {
+                final long key = srcKeys[i];
+                final int index = chunkOffsets[digit(key, shift)]++;
+                dstKeys[index] = key;
+                dstOrder[index] = srcOrder[i];
+            }
+        });
+    }
+}
@@ -0,0 +1,449 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.util.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import com.d3x.morpheus.util.IO;
+import com.d3x.morpheus.util.Initialiser;
+
+/**
+ * An HttpClient implementation based on the JDK <code>java.net.http</code> api, which reuses pooled connections,
+ * limits the number of requests in flight, retries throttled and failed requests with exponential backoff, and
+ * decodes gzip compressed responses.
+ *
+ * <p>Requests submitted beyond the concurrency limit are queued and dispatched as earlier requests complete, so
+ * that bulk loads may submit hundreds of requests at once via <code>doGetAsync()</code> without overwhelming the
+ * remote server. Requests that fail with an I/O error, or that receive a 429 (Too Many Requests) or 5xx response,
+ * are retried up to the retry count of the request (or the client default if the request does not specify one),
+ * waiting for the period given by any Retry-After header, or otherwise an exponentially increasing random delay.
+ * Any other response with a status code of 400 or above fails with an <code>HttpException</code>.</p>
+ *
+ * @author Xavier Witdouck
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ */
+public class AsyncHttpClient extends HttpClient {
+
+    private static final Set<String> RESTRICTED_HEADERS = Set.of("connection", "content-length", "expect", "host", "upgrade");
+
+    private final Options options;
+    private final Semaphore permits;
+    private final java.net.http.HttpClient client;
+    private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+
+
+    /**
+     * Constructor
+     */
+    public AsyncHttpClient() {
+        this(options -> {});
+    }
+
+
+    /**
+     * Constructor
+     * @param configurator  the configurator for client options
+     */
+    public AsyncHttpClient(Consumer<Options> configurator) {
+        this(Initialiser.apply(new Options(), configurator));
+    }
+
+
+    /**
+     * Constructor
+     * @param options   the options for this client
+     */
+    private AsyncHttpClient(Options options) {
+        super(options.executor);
+        this.options = options;
+        this.permits = new Semaphore(options.maxConcurrency);
+        this.client = java.net.http.HttpClient.newBuilder()
+            .followRedirects(java.net.http.HttpClient.Redirect.NORMAL)
+            .connectTimeout(options.connectTimeout)
+            .build();
+    }
+
+
+    /**
+     * Returns the maximum number of requests this client executes concurrently
+     * @return  the maximum number of concurrent requests
+     */
+    public int getMaxConcurrency() {
+        return options.maxConcurrency;
+    }
+
+
+    @Override
+    public <T> Optional<T> doGet(Consumer<HttpRequest<T>> configurator) {
+        return join(doGetAsync(configurator));
+    }
+
+
+    @Override
+    public <T> Optional<T> doPost(Consumer<HttpPost<T>> configurator) {
+        return join(doPostAsync(configurator));
+    }
+
+
+    @Override
+    public <T> CompletableFuture<Optional<T>> doGetAsync(Consumer<HttpRequest<T>> configurator) {
+        return execute(Initialiser.apply(new HttpRequest<>(HttpMethod.GET), configurator));
+    }
+
+
+    @Override
+    public <T> CompletableFuture<Optional<T>> doPostAsync(Consumer<HttpPost<T>> configurator) {
+        return execute(Initialiser.apply(new HttpPost<>(), configurator));
+    }
+
+
+    /**
+     * Returns the result of a future, unwrapping any exception raised by the request
+     * @param future    the future result
+     * @param <T>       the result type
+     * @return          the result
+     */
+    private <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException)ex.getCause();
+            } else {
+                throw ex;
+            }
+        }
+    }
+
+
+    /**
+     * Queues a request for execution once a permit is available
+     * @param request   the request descriptor
+     * @param <T>       the type produced by the response handler
+     * @return          the future result produced by the response handler
+     */
+    private <T> CompletableFuture<Optional<T>> execute(HttpRequest<T> request) {
+        final CompletableFuture<Optional<T>> result = new CompletableFuture<>();
+        submit(() -> attempt(request, 0, result));
+        return result;
+    }
+
+
+    /**
+     * Adds a task to the pending queue and dispatches as many pending tasks as permits allow
+     * @param task  the task to submit, which must release its permit when complete
+     */
+    private void submit(Runnable task) {
+        pending.add(task);
+        dispatch();
+    }
+
+
+    /**
+     * Dispatches pending tasks while permits are available
+     */
+    private void dispatch() {
+        while (!pending.isEmpty() && permits.tryAcquire()) {
+            final Runnable task = pending.poll();
+            if (task == null) {
+                permits.release();
+            } else {
+                task.run();
+            }
+        }
+    }
+
+
+    /**
+     * Releases a permit and dispatches the next pending task, if any
+     */
+    private void release() {
+        permits.release();
+        dispatch();
+    }
+
+
+    /**
+     * Sends a request asynchronously, while holding a permit, and completes the result or schedules a retry
+     * @param request   the request descriptor
+     * @param attempt   the zero based attempt number
+     * @param result    the future result to complete
+     * @param <T>       the type produced by the response handler
+     */
+    private <T> void attempt(HttpRequest<T> request, int attempt, CompletableFuture<Optional<T>> result) {
+        try {
+            final java.net.http.HttpRequest httpRequest = createRequest(request);
+            client.sendAsync(httpRequest, BodyHandlers.ofInputStream()).handleAsync((response, error) -> {
+                try {
+                    final int retryCount = request.hasRetryCount() ? request.getRetryCount() : options.retryCount;
+                    if (error != null) {
+                        if (attempt < retryCount) {
+                            retry(request, attempt, result, getBackoff(attempt, null));
+                        } else {
+                            final Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                            result.completeExceptionally(new HttpException(request, cause.getMessage(), cause));
+                        }
+                    } else if (isRetryable(response.statusCode()) && attempt < retryCount) {
+                        IO.close(response.body());
+                        retry(request, attempt, result, getBackoff(attempt, response));
+                    } else if (response.statusCode() >= 400) {
+                        IO.close(response.body());
+                        final String message = "Request failed with HTTP status " + response.statusCode();
+                        result.completeExceptionally(new HttpException(request, message, null));
+                    } else {
+                        result.complete(handle(request, response));
+                    }
+                } catch (HttpException ex) {
+                    result.completeExceptionally(ex);
+                } catch (Throwable t) {
+                    result.completeExceptionally(new HttpException(request, t.getMessage(), t));
+                } finally {
+                    release();
+                }
+                return null;
+            }, getExecutor());
+        } catch (Exception ex) {
+            result.completeExceptionally(new HttpException(request, ex.getMessage(), ex));
+            release();
+        }
+    }
+
+
+    /**
+     * Schedules another attempt at a request after a delay
+     * @param request   the request descriptor
+     * @param attempt   the zero based number of the failed attempt
+     * @param result    the future result to complete
+     * @param delay     the delay in millis before the next attempt
+     * @param <T>       the type produced by the response handler
+     */
+    private <T> void retry(HttpRequest<T> request, int attempt, CompletableFuture<Optional<T>> result, long delay) {
+        final Executor delayed = CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS, getExecutor());
+        delayed.execute(() -> submit(() -> attempt(request, attempt + 1, result)));
+    }
+
+
+    /**
+     * Invokes the response handler of the request and closes the response
+     * @param request   the request descriptor
+     * @param response  the JDK http response
+     * @param <T>       the type produced by the response handler
+     * @return          the optional result produced by the response handler
+     * @throws Exception    if the handler fails
+     */
+    private <T> Optional<T> handle(HttpRequest<T> request, java.net.http.HttpResponse<InputStream> response) throws Exception {
+        try (AsyncResponse asyncResponse = new AsyncResponse(response)) {
+            return request.getResponseHandler().flatMap(handler -> handler.onResponse(asyncResponse));
+        }
+    }
+
+
+    /**
+     * Returns true if a request that received the status code should be retried
+     * @param statusCode    the HTTP status code
+     * @return              true for 429 (Too Many Requests) and 5xx status codes
+     */
+    private boolean isRetryable(int statusCode) {
+        return statusCode == 429 || statusCode >= 500;
+    }
+
+
+    /**
+     * Returns the delay before the next attempt, based on any Retry-After header or otherwise exponential backoff
+     * @param attempt   the zero based number of the failed attempt
+     * @param response  the response to the failed attempt, null if no response was received
+     * @return          the delay in millis
+     */
+    private long getBackoff(int attempt, java.net.http.HttpResponse<?> response) {
+        final long maxMillis = options.maxBackoff.toMillis();
+        final Optional<String> retryAfter = response != null ? response.headers().firstValue("Retry-After") : Optional.empty();
+        if (retryAfter.isPresent() && retryAfter.get().trim().matches("\\d+")) {
+            return Math.min(maxMillis, Long.parseLong(retryAfter.get().trim()) * 1000L);
+        } else {
+            final long baseMillis = options.initialBackoff.toMillis() << Math.min(attempt, 20);
+            final long cappedMillis = Math.min(maxMillis, baseMillis);
+            return cappedMillis / 2 + ThreadLocalRandom.current().nextLong(cappedMillis / 2 + 1);
+        }
+    }
+
+
+    /**
+     * Returns a newly created JDK http request for the request descriptor
+     * @param request   the request descriptor
+     * @return          the JDK http request
+     * @throws Exception    if the request URL is malformed
+     */
+    private java.net.http.HttpRequest createRequest(HttpRequest<?> request) throws Exception {
+        final java.net.http.HttpRequest.Builder builder = java.net.http.HttpRequest.newBuilder(request.getUrl().toURI());
+        if (request.getReadTimeout() > 0) {
+            builder.timeout(Duration.ofMillis(request.getReadTimeout()));
+        }
+        request.getHeaders().forEach((key, value) -> {
+            if (!RESTRICTED_HEADERS.contains(key.toLowerCase())) {
+                builder.header(key, value);
+            }
+        });
+        if (!request.getCookies().isEmpty()) {
+            builder.header("Cookie", request.getCookies().entrySet().stream()
+                .map(entry -> String.format("%s=%s", entry.getKey(), entry.getValue()))
+                .collect(Collectors.joining("; ")));
+        }
+        if (request.getHeaders().keySet().stream().noneMatch("Accept-Encoding"::equalsIgnoreCase)) {
+            builder.header("Accept-Encoding", "gzip");
+        }
+        final Optional<byte[]> content = request.getContent();
+        if (content.isPresent()) {
+            return builder.method(request.getMethod().name(), java.net.http.HttpRequest.BodyPublishers.ofByteArray(content.get())).build();
+        } else {
+            return builder.method(request.getMethod().name(), java.net.http.HttpRequest.BodyPublishers.noBody()).build();
+        }
+    }
+
+
+
+    /**
+     * The options for an AsyncHttpClient
+     */
+    public static class Options {
+
+        private int maxConcurrency = 16;
+        private int retryCount = 3;
+        private Duration initialBackoff = Duration.ofMillis(250);
+        private Duration maxBackoff = Duration.ofSeconds(30);
+        private Duration connectTimeout = Duration.ofSeconds(30);
+        private Executor executor;
+
+        /**
+         * Sets the maximum number of requests executed concurrently
+         * @param maxConcurrency    the maximum number of concurrent requests
+         */
+        public void setMaxConcurrency(int maxConcurrency) {
+            if (maxConcurrency < 1) {
+                throw new IllegalArgumentException("The max concurrency must be positive: " + maxConcurrency);
+            } else {
+                this.maxConcurrency = maxConcurrency;
+            }
+        }
+
+        /**
+         * Sets the default retry count for requests that do not specify one
+         * @param retryCount    the default retry count
+         */
+        public void setRetryCount(int retryCount) {
+            this.retryCount = Math.max(0, retryCount);
+        }
+
+        /**
+         * Sets the delay before the first retry, which doubles with each subsequent retry
+         * @param initialBackoff    the initial backoff delay
+         */
+        public void setInitialBackoff(Duration initialBackoff) {
+            this.initialBackoff = initialBackoff;
+        }
+
+        /**
+         * Sets the maximum delay between retries
+         * @param maxBackoff    the maximum backoff delay
+         */
+        public void setMaxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+        }
+
+        /**
+         * Sets the timeout for establishing a connection
+         * @param connectTimeout    the connect timeout
+         */
+        public void setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        /**
+         * Sets the executor used to run response handlers, the shared HttpClient default executor if not specified
+         * @param executor  the executor for response handlers
+         */
+        public void setExecutor(Executor executor) {
+            this.executor = executor;
+        }
+    }
+
+
+    /**
+     * The HttpResponse object for the AsyncHttpClient.
+     */
+    private static class AsyncResponse implements HttpResponse {
+
+        private HttpStatus status;
+        private InputStream stream;
+        private List<HttpHeader> headers;
+
+        /**
+         * Constructor
+         * @param response  the JDK http response
+         * @throws IOException  if the gzip header cannot be read
+         */
+        AsyncResponse(java.net.http.HttpResponse<InputStream> response) throws IOException {
+            this.status = new HttpStatus(response.statusCode(), "");
+            this.headers = new ArrayList<>();
+            response.headers().map().forEach((key, values) -> {
+                values.forEach(value -> headers.add(new HttpHeader(key, value)));
+            });
+            final String encoding = response.headers().firstValue("Content-Encoding").orElse("");
+            final InputStream body = response.body();
+            this.stream = encoding.equalsIgnoreCase("gzip") ? new GZIPInputStream(body) : body;
+        }
+
+        @Override
+        public HttpStatus getStatus() {
+            return status;
+        }
+
+        @Override
+        public InputStream getStream() {
+            return stream;
+        }
+
+        @Override
+        public List<HttpHeader> getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public void close() throws Exception {
+            if (stream != null) {
+                stream.close();
+            }
+        }
+    }
+}
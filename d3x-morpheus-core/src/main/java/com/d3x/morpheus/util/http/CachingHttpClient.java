@@ -0,0 +1,376 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.util.http;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import com.d3x.morpheus.util.Initialiser;
+
+/**
+ * An HttpClient decorator that stores GET response bodies in an on-disk <code>HttpCache</code>, serves fresh entries
+ * without touching the network, and revalidates stale entries with conditional requests.
+ *
+ * <p>Entries are keyed by URL and the values of selected request headers (Accept by default). A fresh entry, as
+ * determined by the Cache-Control max-age or Expires headers of the response that produced it, is served directly
+ * from a memory-mapped view of the cached body. A stale entry with an ETag or Last-Modified validator is revalidated
+ * with an If-None-Match or If-Modified-Since request, and a 304 (Not Modified) response refreshes the entry and serves
+ * the cached body. Responses marked Cache-Control: no-store are passed straight to the response handler. POST
+ * requests are never cached.</p>
+ *
+ * <p>To cache all CSV reads over HTTP, as well as the World Bank and other sources that use the default client, the
+ * caching client may be installed as the default with <code>HttpClient.setDefault()</code>.</p>
+ *
+ * @author Xavier Witdouck
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ */
+public class CachingHttpClient extends HttpClient {
+
+    /** The default freshness lifetime for responses without Cache-Control max-age or Expires headers */
+    public static final Duration DEFAULT_TTL = Duration.ofHours(1);
+
+    private final HttpCache cache;
+    private final HttpClient delegate;
+    private final List<String> keyHeaders;
+
+
+    /**
+     * Constructor
+     * @param delegate  the client used to execute requests that cannot be served from the cache
+     * @param cache     the on-disk cache of response bodies
+     */
+    public CachingHttpClient(HttpClient delegate, HttpCache cache) {
+        this(delegate, cache, List.of("Accept"));
+    }
+
+
+    /**
+     * Constructor
+     * @param delegate      the client used to execute requests that cannot be served from the cache
+     * @param cache         the on-disk cache of response bodies
+     * @param keyHeaders    the request headers whose values are included in the cache key
+     */
+    public CachingHttpClient(HttpClient delegate, HttpCache cache, List<String> keyHeaders) {
+        Objects.requireNonNull(delegate, "The delegate client cannot be null");
+        Objects.requireNonNull(cache, "The http cache cannot be null");
+        Objects.requireNonNull(keyHeaders, "The key headers cannot be null");
+        this.cache = cache;
+        this.delegate = delegate;
+        this.keyHeaders = List.copyOf(keyHeaders);
+    }
+
+
+    /**
+     * Returns a caching client over the current default client with a cache in the directory specified,
+     * which treats responses without freshness headers as fresh for <code>DEFAULT_TTL</code>
+     * @param dir       the cache directory
+     * @param maxBytes  the maximum total bytes of cached response bodies
+     * @return          the newly created caching client
+     */
+    public static CachingHttpClient create(File dir, long maxBytes) {
+        return create(dir, maxBytes, DEFAULT_TTL);
+    }
+
+
+    /**
+     * Returns a caching client over the current default client with a cache in the directory specified
+     * @param dir           the cache directory
+     * @param maxBytes      the maximum total bytes of cached response bodies
+     * @param defaultTTL    the freshness lifetime for responses without Cache-Control max-age or Expires headers
+     * @return              the newly created caching client
+     */
+    public static CachingHttpClient create(File dir, long maxBytes, Duration defaultTTL) {
+        return new CachingHttpClient(HttpClient.getDefault(), new HttpCache(dir, maxBytes, defaultTTL));
+    }
+
+
+    /**
+     * Returns the on-disk cache used by this client
+     * @return  the http cache
+     */
+    public HttpCache getCache() {
+        return cache;
+    }
+
+
+    @Override
+    public <T> Optional<T> doGet(Consumer<HttpRequest<T>> configurator) {
+        final HttpRequest<T> request = Initialiser.apply(new HttpRequest<>(HttpMethod.GET), configurator);
+        final String key = createKey(request);
+        final HttpCache.Entry entry = cache.get(key).orElse(null);
+        if (entry != null && entry.isFresh()) {
+            final Optional<Optional<T>> result = serve(request, key, entry);
+            if (result.isPresent()) {
+                return result.get();
+            }
+        }
+        final HttpCache.Entry validator = entry != null && entry.hasValidator() ? entry : null;
+        final Optional<Fetch<T>> fetch = delegate.doGet(createFetch(request, key, validator));
+        return complete(request, key, fetch);
+    }
+
+
+    @Override
+    public <T> CompletableFuture<Optional<T>> doGetAsync(Consumer<HttpRequest<T>> configurator) {
+        final HttpRequest<T> request = Initialiser.apply(new HttpRequest<>(HttpMethod.GET), configurator);
+        final String key = createKey(request);
+        final HttpCache.Entry entry = cache.get(key).orElse(null);
+        if (entry != null && entry.isFresh()) {
+            final Optional<Optional<T>> result = serve(request, key, entry);
+            if (result.isPresent()) {
+                return CompletableFuture.completedFuture(result.get());
+            }
+        }
+        final HttpCache.Entry validator = entry != null && entry.hasValidator() ? entry : null;
+        return delegate.doGetAsync(createFetch(request, key, validator)).thenApply(fetch -> complete(request, key, fetch));
+    }
+
+
+    @Override
+    public <T> Optional<T> doPost(Consumer<HttpPost<T>> configurator) {
+        return delegate.doPost(configurator);
+    }
+
+
+    @Override
+    public <T> CompletableFuture<Optional<T>> doPostAsync(Consumer<HttpPost<T>> configurator) {
+        return delegate.doPostAsync(configurator);
+    }
+
+
+    /**
+     * Returns the cache key for a request, composed of the URL and the values of the key headers
+     * @param request   the request descriptor
+     * @return          the cache key
+     */
+    private String createKey(HttpRequest<?> request) {
+        final StringBuilder key = new StringBuilder(request.getUrl().toString());
+        for (String header : keyHeaders) {
+            request.getHeaders().forEach((name, value) -> {
+                if (name.equalsIgnoreCase(header)) {
+                    key.append('|').append(header.toLowerCase()).append('=').append(value);
+                }
+            });
+        }
+        return key.toString();
+    }
+
+
+    /**
+     * Returns a configurator for the delegate request, which stores the response in the cache
+     * @param request   the original request descriptor
+     * @param key       the cache key
+     * @param validator the stale entry to revalidate, null for an unconditional request
+     * @param <T>       the type produced by the original response handler
+     * @return          the configurator for the delegate request
+     */
+    private <T> Consumer<HttpRequest<Fetch<T>>> createFetch(HttpRequest<T> request, String key, HttpCache.Entry validator) {
+        return target -> {
+            target.setUrl(request.getUrl());
+            if (request.hasRetryCount()) {
+                target.setRetryCount(request.getRetryCount());
+            }
+            target.setReadTimeout(request.getReadTimeout());
+            target.setConnectTimeout(request.getConnectTimeout());
+            target.getHeaders().putAll(request.getHeaders());
+            target.getCookies().putAll(request.getCookies());
+            if (validator != null) {
+                validator.getETag().ifPresent(etag -> target.getHeaders().put("If-None-Match", etag));
+                validator.getLastModified().ifPresent(date -> target.getHeaders().put("If-Modified-Since", date));
+            }
+            target.setResponseHandler(response -> {
+                try {
+                    final int code = response.getStatus().getCode();
+                    final List<HttpHeader> headers = response.getHeaders();
+                    if (code == 304 && validator != null) {
+                        cache.refresh(validator, headers);
+                        return Optional.of(new Fetch<>(validator, null));
+                    } else if (code == 200 && HttpCache.isStorable(headers)) {
+                        final String url = request.getUrl().toString();
+                        final HttpCache.Entry stored = cache.put(key, url, response.getStream(), headers);
+                        return Optional.of(new Fetch<>(stored, null));
+                    } else {
+                        return Optional.of(new Fetch<>(null, request.getResponseHandler().flatMap(h -> h.onResponse(response))));
+                    }
+                } catch (IOException ex) {
+                    throw new HttpException(request, "Failed to write response to http cache: " + ex.getMessage(), ex);
+                }
+            });
+        };
+    }
+
+
+    /**
+     * Completes a request after the delegate request has been executed
+     * @param request   the original request descriptor
+     * @param key       the cache key
+     * @param fetch     the outcome of the delegate request
+     * @param <T>       the type produced by the original response handler
+     * @return          the result produced by the original response handler
+     */
+    private <T> Optional<T> complete(HttpRequest<T> request, String key, Optional<Fetch<T>> fetch) {
+        if (fetch.isEmpty()) {
+            return Optional.empty();
+        } else if (fetch.get().entry == null) {
+            return fetch.get().result;
+        } else {
+            return serve(request, key, fetch.get().entry).orElseThrow(() -> {
+                return new HttpException(request, "Failed to read cached response for " + request.getUrl(), null);
+            });
+        }
+    }
+
+
+    /**
+     * Invokes the response handler of the request with a response served from a cache entry
+     * @param request   the request descriptor
+     * @param key       the cache key
+     * @param entry     the cache entry
+     * @param <T>       the type produced by the response handler
+     * @return          the result of the response handler, empty if the cached body could not be read
+     */
+    private <T> Optional<Optional<T>> serve(HttpRequest<T> request, String key, HttpCache.Entry entry) {
+        final ByteBuffer buffer;
+        try {
+            buffer = entry.map();
+        } catch (IOException ex) {
+            cache.remove(key);
+            return Optional.empty();
+        }
+        try (CachedResponse response = new CachedResponse(entry.getHeaders(), buffer)) {
+            return Optional.of(request.getResponseHandler().flatMap(handler -> handler.onResponse(response)));
+        }
+    }
+
+
+    /**
+     * The outcome of a delegate request, which is either a cache entry or the result of the original handler
+     * @param <T>   the type produced by the original response handler
+     */
+    private static class Fetch<T> {
+
+        private final HttpCache.Entry entry;
+        private final Optional<T> result;
+
+        /**
+         * Constructor
+         * @param entry     the cache entry to serve, null if the response was not cached
+         * @param result    the result of the original handler if the response was not cached
+         */
+        Fetch(HttpCache.Entry entry, Optional<T> result) {
+            this.entry = entry;
+            this.result = result;
+        }
+    }
+
+
+    /**
+     * The HttpResponse object for a response served from the cache
+     */
+    private static class CachedResponse implements HttpResponse {
+
+        private HttpStatus status;
+        private InputStream stream;
+        private List<HttpHeader> headers;
+
+        /**
+         * Constructor
+         * @param headers   the cached response headers
+         * @param buffer    the memory-mapped response body
+         */
+        CachedResponse(List<HttpHeader> headers, ByteBuffer buffer) {
+            this.status = new HttpStatus(200, "OK");
+            this.headers = headers;
+            this.stream = new BufferInputStream(buffer);
+        }
+
+        @Override
+        public HttpStatus getStatus() {
+            return status;
+        }
+
+        @Override
+        public InputStream getStream() {
+            return stream;
+        }
+
+        @Override
+        public List<HttpHeader> getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public void close() {
+            this.stream = null;
+        }
+    }
+
+
+    /**
+     * An InputStream that reads from a ByteBuffer
+     */
+    private static class BufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        /**
+         * Constructor
+         * @param buffer    the buffer to read
+         */
+        BufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            } else if (!buffer.hasRemaining()) {
+                return -1;
+            } else {
+                final int count = Math.min(length, buffer.remaining());
+                buffer.get(bytes, offset, count);
+                return count;
+            }
+        }
+
+        @Override
+        public long skip(long n) {
+            final int count = (int)Math.max(0L, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
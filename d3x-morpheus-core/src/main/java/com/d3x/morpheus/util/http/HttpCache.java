@@ -0,0 +1,487 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.util.http;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * A size-capped on-disk store of HTTP response bodies and their validators, used by the <code>CachingHttpClient</code>
+ * to avoid repeated downloads of resources that have not changed.
+ *
+ * <p>Each entry consists of a body file holding the decoded response content and a properties file holding the
+ * request URL, the ETag and Last-Modified validators, and the freshness lifetime derived from the Cache-Control and
+ * Expires headers. Bodies are read through a memory-mapped buffer, so serving a cached response involves no copy
+ * into the Java heap. When the total size of the bodies exceeds the size cap, the least recently used entries are
+ * deleted. The index of entries is rebuilt from the cache directory on construction, so a cache directory may be
+ * reused across processes (but not shared by concurrently running processes).</p>
+ *
+ * <p>Recency of use is tracked in memory, so a cache hit involves no file system write. The modified time of a body
+ * file, which orders the entries when the index is rebuilt, is only updated when a hit finds it more than
+ * <code>TOUCH_INTERVAL</code> old, which bounds the writes for a frequently used entry to one per interval.</p>
+ *
+ * @author Xavier Witdouck
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ */
+public class HttpCache {
+
+    private static final String BODY_SUFFIX = ".body";
+    private static final String META_SUFFIX = ".meta";
+
+    /** The minimum age of the recorded access time of an entry before a hit updates the modified time of its body file */
+    public static final Duration TOUCH_INTERVAL = Duration.ofMinutes(5);
+
+    private final File dir;
+    private final long maxBytes;
+    private final Duration defaultTTL;
+    private long totalBytes;
+    private final Map<String,Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+
+    /**
+     * Constructor
+     * @param dir           the cache directory
+     * @param maxBytes      the maximum total bytes of cached response bodies
+     * @param defaultTTL    the freshness lifetime for responses without Cache-Control or Expires headers
+     */
+    public HttpCache(File dir, long maxBytes, Duration defaultTTL) {
+        Objects.requireNonNull(dir, "The cache directory cannot be null");
+        Objects.requireNonNull(defaultTTL, "The default TTL cannot be null");
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("The cache size cap must be positive: " + maxBytes);
+        } else if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IllegalStateException("Unable to create http cache directory: " + dir.getAbsolutePath());
+        } else {
+            this.dir = dir;
+            this.maxBytes = maxBytes;
+            this.defaultTTL = defaultTTL;
+            this.load();
+        }
+    }
+
+
+    /**
+     * Returns the cache directory
+     * @return  the cache directory
+     */
+    public File getDir() {
+        return dir;
+    }
+
+
+    /**
+     * Returns the maximum total bytes of cached response bodies
+     * @return  the size cap in bytes
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+
+    /**
+     * Returns the total bytes of cached response bodies
+     * @return  the total bytes of cached bodies
+     */
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+
+    /**
+     * Returns the number of entries in this cache
+     * @return  the number of entries
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+
+    /**
+     * Returns the entry for the key, marking it as most recently used
+     * @param key   the cache key
+     * @return      the cache entry, empty if no entry exists
+     */
+    public synchronized Optional<Entry> get(String key) {
+        final Entry entry = entries.get(toFileName(key));
+        if (entry != null) {
+            entry.touch(System.currentTimeMillis());
+        }
+        return Optional.ofNullable(entry);
+    }
+
+
+    /**
+     * Stores a response body and its headers under the key, replacing any existing entry
+     * @param key       the cache key
+     * @param url       the request URL
+     * @param body      the decoded response body, which is fully consumed
+     * @param headers   the response headers
+     * @return          the new cache entry
+     * @throws IOException  if the entry cannot be written
+     */
+    public Entry put(String key, String url, InputStream body, List<HttpHeader> headers) throws IOException {
+        final String name = toFileName(key);
+        final File tempFile = File.createTempFile(name, ".tmp", dir);
+        try {
+            try (OutputStream os = Files.newOutputStream(tempFile.toPath())) {
+                body.transferTo(os);
+            }
+            final Properties meta = new Properties();
+            meta.setProperty("url", url);
+            meta.setProperty("storedAt", String.valueOf(System.currentTimeMillis()));
+            header(headers, "ETag").ifPresent(v -> meta.setProperty("etag", v));
+            header(headers, "Last-Modified").ifPresent(v -> meta.setProperty("lastModified", v));
+            header(headers, "Content-Type").ifPresent(v -> meta.setProperty("contentType", v));
+            meta.setProperty("expiresAt", String.valueOf(getExpiresAt(headers)));
+            synchronized (this) {
+                final File bodyFile = new File(dir, name + BODY_SUFFIX);
+                Files.move(tempFile.toPath(), bodyFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                final Entry entry = new Entry(name, bodyFile, meta);
+                entry.writeMeta();
+                final Entry prior = entries.put(name, entry);
+                this.totalBytes += entry.getLength() - (prior != null ? prior.getLength() : 0L);
+                this.evict(name);
+                return entry;
+            }
+        } finally {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+    }
+
+
+    /**
+     * Refreshes the freshness lifetime and validators of an entry after a 304 (Not Modified) response
+     * @param entry     the entry to refresh
+     * @param headers   the headers of the 304 response
+     * @throws IOException  if the entry meta-data cannot be written
+     */
+    public synchronized void refresh(Entry entry, List<HttpHeader> headers) throws IOException {
+        header(headers, "ETag").ifPresent(v -> entry.meta.setProperty("etag", v));
+        header(headers, "Last-Modified").ifPresent(v -> entry.meta.setProperty("lastModified", v));
+        entry.meta.setProperty("expiresAt", String.valueOf(getExpiresAt(headers)));
+        entry.writeMeta();
+    }
+
+
+    /**
+     * Removes the entry for the key, if any
+     * @param key   the cache key
+     */
+    public synchronized void remove(String key) {
+        final Entry entry = entries.remove(toFileName(key));
+        if (entry != null) {
+            this.totalBytes -= entry.getLength();
+            entry.delete();
+        }
+    }
+
+
+    /**
+     * Removes all entries from this cache
+     */
+    public synchronized void clear() {
+        entries.values().forEach(Entry::delete);
+        entries.clear();
+        this.totalBytes = 0L;
+    }
+
+
+    /**
+     * Returns true if the response headers permit the response to be stored
+     * @param headers   the response headers
+     * @return          false if the response specifies Cache-Control: no-store
+     */
+    public static boolean isStorable(List<HttpHeader> headers) {
+        return header(headers, "Cache-Control").map(v -> !v.toLowerCase().contains("no-store")).orElse(true);
+    }
+
+
+    /**
+     * Returns the time at which a response becomes stale, based on its Cache-Control and Expires headers
+     * @param headers   the response headers
+     * @return          the expiry time in epoch millis
+     */
+    private long getExpiresAt(List<HttpHeader> headers) {
+        final long now = System.currentTimeMillis();
+        final Optional<String> cacheControl = header(headers, "Cache-Control").map(String::toLowerCase);
+        if (cacheControl.isPresent()) {
+            for (String directive : cacheControl.get().split(",")) {
+                final String value = directive.trim();
+                if (value.equals("no-cache")) {
+                    return now;
+                } else if (value.startsWith("max-age=")) {
+                    try {
+                        return now + Long.parseLong(value.substring(8).trim()) * 1000L;
+                    } catch (NumberFormatException ex) {
+                        return now;
+                    }
+                }
+            }
+        }
+        final Optional<String> expires = header(headers, "Expires");
+        if (expires.isPresent()) {
+            try {
+                return ZonedDateTime.parse(expires.get(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            } catch (Exception ex) {
+                return now;
+            }
+        }
+        return now + defaultTTL.toMillis();
+    }
+
+
+    /**
+     * Deletes the least recently used entries until the total size is within the size cap
+     * @param retain    the name of the entry just written, which is retained even if it exceeds the cap alone
+     */
+    private void evict(String retain) {
+        final var iterator = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            final Entry entry = iterator.next().getValue();
+            if (!entry.name.equals(retain)) {
+                iterator.remove();
+                this.totalBytes -= entry.getLength();
+                entry.delete();
+            }
+        }
+    }
+
+
+    /**
+     * Loads the index of entries from the cache directory, ordered by last access
+     */
+    private synchronized void load() {
+        final File[] metaFiles = dir.listFiles((d, name) -> name.endsWith(META_SUFFIX));
+        final List<Entry> loaded = new ArrayList<>();
+        for (File metaFile : metaFiles != null ? metaFiles : new File[0]) {
+            final String name = metaFile.getName().substring(0, metaFile.getName().length() - META_SUFFIX.length());
+            final File bodyFile = new File(dir, name + BODY_SUFFIX);
+            if (bodyFile.isFile()) {
+                try (Reader reader = Files.newBufferedReader(metaFile.toPath(), StandardCharsets.UTF_8)) {
+                    final Properties meta = new Properties();
+                    meta.load(reader);
+                    loaded.add(new Entry(name, bodyFile, meta));
+                } catch (IOException ex) {
+                    metaFile.delete();
+                }
+            } else {
+                metaFile.delete();
+            }
+        }
+        loaded.sort(Comparator.comparingLong(entry -> entry.bodyFile.lastModified()));
+        loaded.forEach(entry -> {
+            entries.put(entry.name, entry);
+            totalBytes += entry.getLength();
+        });
+        this.evict(null);
+    }
+
+
+    /**
+     * Returns the first value for a header, ignoring case
+     * @param headers   the headers
+     * @param key       the header key
+     * @return          the first header value, if any
+     */
+    static Optional<String> header(List<HttpHeader> headers, String key) {
+        for (HttpHeader header : headers) {
+            if (header.getKey() != null && header.getKey().equalsIgnoreCase(key)) {
+                return Optional.ofNullable(header.getValue());
+            }
+        }
+        return Optional.empty();
+    }
+
+
+    /**
+     * Returns a file name for a cache key, which is the hex encoded SHA-256 digest of the key
+     * @param key   the cache key
+     * @return      the file name for key
+     */
+    private static String toFileName(String key) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            final StringBuilder result = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                result.append(String.format("%02x", b));
+            }
+            return result.toString();
+        } catch (Exception ex) {
+            throw new IllegalStateException("Failed to compute digest for cache key: " + key, ex);
+        }
+    }
+
+
+
+    /**
+     * An entry in the HttpCache
+     */
+    public static class Entry {
+
+        private final String name;
+        private final File bodyFile;
+        private final Properties meta;
+        private final long length;
+        private long touchedAt;
+
+        /**
+         * Constructor
+         * @param name      the file name for entry
+         * @param bodyFile  the body file
+         * @param meta      the entry meta-data
+         */
+        Entry(String name, File bodyFile, Properties meta) {
+            this.name = name;
+            this.bodyFile = bodyFile;
+            this.meta = meta;
+            this.length = bodyFile.length();
+            this.touchedAt = bodyFile.lastModified();
+        }
+
+        /**
+         * Returns the URL of the request that produced this entry
+         * @return  the request URL
+         */
+        public String getUrl() {
+            return meta.getProperty("url");
+        }
+
+        /**
+         * Returns the ETag validator for this entry
+         * @return  the optional ETag
+         */
+        public Optional<String> getETag() {
+            return Optional.ofNullable(meta.getProperty("etag"));
+        }
+
+        /**
+         * Returns the Last-Modified validator for this entry
+         * @return  the optional Last-Modified value
+         */
+        public Optional<String> getLastModified() {
+            return Optional.ofNullable(meta.getProperty("lastModified"));
+        }
+
+        /**
+         * Returns the content type of the cached response
+         * @return  the optional content type
+         */
+        public Optional<String> getContentType() {
+            return Optional.ofNullable(meta.getProperty("contentType"));
+        }
+
+        /**
+         * Returns the length of the cached body in bytes
+         * @return  the body length
+         */
+        public long getLength() {
+            return length;
+        }
+
+        /**
+         * Returns true if this entry may be served without revalidation
+         * @return  true if this entry is fresh
+         */
+        public boolean isFresh() {
+            return System.currentTimeMillis() < Long.parseLong(meta.getProperty("expiresAt", "0"));
+        }
+
+        /**
+         * Returns true if this entry has a validator for a conditional request
+         * @return  true if an ETag or Last-Modified value is available
+         */
+        public boolean hasValidator() {
+            return getETag().isPresent() || getLastModified().isPresent();
+        }
+
+        /**
+         * Returns the headers to be reported for a response served from this entry
+         * @return  the response headers
+         */
+        public List<HttpHeader> getHeaders() {
+            final List<HttpHeader> headers = new ArrayList<>();
+            getETag().ifPresent(v -> headers.add(new HttpHeader("ETag", v)));
+            getLastModified().ifPresent(v -> headers.add(new HttpHeader("Last-Modified", v)));
+            getContentType().ifPresent(v -> headers.add(new HttpHeader("Content-Type", v)));
+            headers.add(new HttpHeader("Content-Length", String.valueOf(getLength())));
+            return headers;
+        }
+
+        /**
+         * Returns a memory-mapped read only buffer of the cached body
+         * @return  the buffer for cached body
+         * @throws IOException  if the body cannot be mapped
+         */
+        public ByteBuffer map() throws IOException {
+            try (FileChannel channel = FileChannel.open(bodyFile.toPath(), StandardOpenOption.READ)) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+        }
+
+        /**
+         * Records an access to this entry, updating the modified time of the body file if the last recorded access is stale
+         * @param now   the access time in epoch millis
+         */
+        private void touch(long now) {
+            if (now - touchedAt > TOUCH_INTERVAL.toMillis()) {
+                this.touchedAt = now;
+                bodyFile.setLastModified(now);
+            }
+        }
+
+        /**
+         * Writes the meta-data for this entry
+         * @throws IOException  if the write fails
+         */
+        private void writeMeta() throws IOException {
+            final File metaFile = new File(bodyFile.getParentFile(), name + META_SUFFIX);
+            try (Writer writer = Files.newBufferedWriter(metaFile.toPath(), StandardCharsets.UTF_8)) {
+                meta.store(writer, null);
+            }
+        }
+
+        /**
+         * Deletes the files for this entry
+         */
+        private void delete() {
+            bodyFile.delete();
+            new File(bodyFile.getParentFile(), name + META_SUFFIX).delete();
+        }
+    }
+}
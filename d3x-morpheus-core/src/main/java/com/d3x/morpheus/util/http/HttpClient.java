@@ -24,6 +24,12 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.zip.GZIPInputStream;
 
@@ -40,12 +46,53 @@ import com.d3x.morpheus.util.Initialiser;
 public abstract class HttpClient {
 
     private static HttpClient defaultClient = new DefaultClient();
+    private static Executor defaultExecutor;
+
+    private Executor executor;
 
     /**
      * Constructor
      */
     public HttpClient() {
-        super();
+        this(null);
+    }
+
+    /**
+     * Constructor
+     * @param executor  the executor for asynchronous requests, null to use the default executor
+     */
+    public HttpClient(Executor executor) {
+        this.executor = executor;
+    }
+
+
+    /**
+     * Returns the executor used to run asynchronous requests when a client is not given its own.
+     * This is a bounded pool of daemon threads dedicated to http calls, so that requests blocking on
+     * network I/O never occupy the common fork join pool used by parallel streams and array operations.
+     * @return  the default executor for asynchronous requests
+     */
+    public static synchronized Executor getDefaultExecutor() {
+        if (defaultExecutor == null) {
+            final AtomicInteger counter = new AtomicInteger();
+            final int threadCount = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+            final ThreadPoolExecutor executor = new ThreadPoolExecutor(threadCount, threadCount, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                final Thread thread = new Thread(runnable, "morpheus-http-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.allowCoreThreadTimeOut(true);
+            defaultExecutor = executor;
+        }
+        return defaultExecutor;
+    }
+
+    /**
+     * Sets the executor used to run asynchronous requests when a client is not given its own
+     * @param defaultExecutor   the default executor for asynchronous requests
+     */
+    public static synchronized void setDefaultExecutor(Executor defaultExecutor) {
+        HttpClient.defaultExecutor = defaultExecutor;
     }
 
     /**
@@ -64,6 +111,14 @@ public abstract class HttpClient {
         HttpClient.defaultClient = defaultClient;
     }
 
+    /**
+     * Returns the executor used by this client to run asynchronous requests and their response handlers
+     * @return  the executor for this client, or the default executor if none was specified
+     */
+    public Executor getExecutor() {
+        return executor != null ? executor : getDefaultExecutor();
+    }
+
 
     /**
      * Executes an HTTP GET request using the configurator to setup the request descriptor
@@ -83,6 +138,30 @@ public abstract class HttpClient {
     public abstract <T> Optional<T> doPost(Consumer<HttpPost<T>> configurator);
 
 
+    /**
+     * Executes an HTTP GET request asynchronously using the configurator to setup the request descriptor.
+     * The default implementation executes the synchronous request on the executor for this client.
+     * @param configurator  the HTTP request configurator
+     * @param <T>           the type produced by the response handler bound to the request
+     * @return              the future result produced by the response handler
+     */
+    public <T> CompletableFuture<Optional<T>> doGetAsync(Consumer<HttpRequest<T>> configurator) {
+        return CompletableFuture.supplyAsync(() -> doGet(configurator), getExecutor());
+    }
+
+
+    /**
+     * Executes an HTTP POST request asynchronously using the configurator to setup the request descriptor.
+     * The default implementation executes the synchronous request on the executor for this client.
+     * @param configurator  the HTTP request configurator
+     * @param <T>           the type produced by the response handler bound to the request
+     * @return              the future result produced by the response handler
+     */
+    public <T> CompletableFuture<Optional<T>> doPostAsync(Consumer<HttpPost<T>> configurator) {
+        return CompletableFuture.supplyAsync(() -> doPost(configurator), getExecutor());
+    }
+
+
 
     /**
      * A callback interface to handle the response to an HttpRequest
@@ -37,6 +37,7 @@ public class HttpRequest<T> implements java.io.Serializable, Cloneable {
     private URL url;
     private HttpMethod method;
     private int retryCount;
+    private boolean retryCountSet;
     private int readTimeout;
     private int connectTimeout;
     private Map<String,String> headers;
@@ -62,6 +63,7 @@ public class HttpRequest<T> implements java.io.Serializable, Cloneable {
         this.url = request.url;
         this.method = request.method;
         this.retryCount = request.retryCount;
+        this.retryCountSet = request.retryCountSet;
         this.readTimeout = request.readTimeout;
         this.connectTimeout = request.connectTimeout;
         this.headers.putAll(request.headers);
@@ -96,6 +98,7 @@ public class HttpRequest<T> implements java.io.Serializable, Cloneable {
      */
     public void setRetryCount(int retryCount) {
         this.retryCount = retryCount;
+        this.retryCountSet = true;
     }
 
     /**
@@ -182,6 +185,14 @@ public class HttpRequest<T> implements java.io.Serializable, Cloneable {
         return retryCount;
     }
 
+    /**
+     * Returns true if the retry count was set explicitly for this request, in which case zero disables retries
+     * @return  true if the retry count was set explicitly
+     */
+    public boolean hasRetryCount() {
+        return retryCountSet;
+    }
+
     /**
      * Returns the read time out for this request
      * @return  the read timeout
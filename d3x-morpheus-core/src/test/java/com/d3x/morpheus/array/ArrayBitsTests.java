@@ -0,0 +1,182 @@
+/**
+ * Copyright (C) 2014-2017 Xavier Witdouck
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.array;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Random;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for bit packed boolean arrays and the null bitmap on int and long arrays
+ *
+ * @author Xavier Witdouck
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ */
+public class ArrayBitsTests {
+
+
+    @DataProvider(name="lengths")
+    public Object[][] lengths() {
+        return new Object[][] { {0}, {1}, {63}, {64}, {65}, {1000} };
+    }
+
+
+    @Test(dataProvider="lengths")
+    public void testLogicalOperations(int length) {
+        final Random random = new Random(length);
+        final boolean[] v1 = new boolean[length];
+        final boolean[] v2 = new boolean[length];
+        for (int i=0; i<length; ++i) {
+            v1[i] = random.nextBoolean();
+            v2[i] = random.nextBoolean();
+        }
+        final Array<Boolean> a1 = Array.of(v1);
+        final Array<Boolean> a2 = Array.of(v2);
+        final Array<Boolean> and = a1.and(a2);
+        final Array<Boolean> or = a1.or(a2);
+        final Array<Boolean> not = a1.not();
+        int count = 0;
+        for (int i=0; i<length; ++i) {
+            Assert.assertEquals(and.getBoolean(i), v1[i] && v2[i], "AND at " + i);
+            Assert.assertEquals(or.getBoolean(i), v1[i] || v2[i], "OR at " + i);
+            Assert.assertEquals(not.getBoolean(i), !v1[i], "NOT at " + i);
+            count += v1[i] ? 1 : 0;
+        }
+        Assert.assertEquals(a1.countTrue(), count);
+        Assert.assertEquals(not.countTrue(), length - count);
+        Assert.assertEquals(a1.and(a2.readOnly()).toList(), and.toList());
+        Assert.assertEquals(a1.readOnly().not().toList(), not.toList());
+    }
+
+
+    @Test(expectedExceptions={ArrayException.class})
+    public void testLogicalLengthMismatch() {
+        Array.of(Boolean.class, 10).and(Array.of(Boolean.class, 11));
+    }
+
+
+    @Test(expectedExceptions={ArrayException.class})
+    public void testLogicalOnNonBoolean() {
+        Array.of(1, 2, 3).countTrue();
+    }
+
+
+    @Test()
+    public void testBooleanCopyAndExpand() {
+        final Random random = new Random(1);
+        final Array<Boolean> array = Array.of(Boolean.class, 300).applyBooleans(v -> random.nextBoolean());
+        for (int start : new int[] {0, 1, 63, 64, 100}) {
+            final Array<Boolean> copy = array.copy(start, start + 150);
+            Assert.assertEquals(copy.length(), 150);
+            for (int i=0; i<150; ++i) {
+                Assert.assertEquals(copy.getBoolean(i), array.getBoolean(start + i));
+            }
+            Assert.assertEquals(copy.countTrue(), array.copy(start, start + 150).toList().stream().filter(v -> v).count());
+        }
+        final Array<Boolean> expanded = Array.of(Boolean.class, 10, true).expand(100);
+        Assert.assertEquals(expanded.countTrue(), 100);
+        expanded.fill(false, 5, 95);
+        Assert.assertEquals(expanded.countTrue(), 10);
+        expanded.sort(true);
+        Assert.assertEquals(expanded.first(v -> v.getBoolean()).map(ArrayValue::index).orElse(-1).intValue(), 90);
+    }
+
+
+    @Test(expectedExceptions={ArrayIndexOutOfBoundsException.class})
+    public void testBooleanBounds() {
+        Array.of(Boolean.class, 10).expand(20).setBoolean(20, true);
+    }
+
+
+    @Test()
+    public void testBooleanParallelWrites() {
+        final Array<Boolean> array = Array.of(Boolean.class, 100000).parallel();
+        array.applyBooleans(v -> v.index() % 3 == 0);
+        Assert.assertEquals(array.countTrue(), 33334);
+    }
+
+
+    @Test()
+    public void testIntNulls() {
+        final Array<Integer> array = Array.of(Integer.class, 100, 7);
+        Assert.assertFalse(array.isNull(10));
+        array.setValue(10, null);
+        array.setValue(70, null);
+        Assert.assertTrue(array.isNull(10));
+        Assert.assertNull(array.getValue(10));
+        Assert.assertEquals(array.getInt(10), 7);
+        Assert.assertTrue(array.isEqualTo(10, null));
+        Assert.assertTrue(array.copy(5, 15).isNull(5));
+        Assert.assertTrue(array.copy(new int[] {70, 1}).isNull(0));
+        Assert.assertFalse(array.copy(new int[] {70, 1}).isNull(1));
+        Assert.assertEquals(array.filter(v -> v.index() >= 10).getValue(0), null);
+        array.swap(10, 11);
+        Assert.assertFalse(array.isNull(10));
+        Assert.assertTrue(array.isNull(11));
+        array.setInt(11, 3);
+        Assert.assertFalse(array.isNull(11));
+        Assert.assertEquals(array.count(ArrayValue::isNull), 1);
+    }
+
+
+    @Test()
+    public void testLongNulls() throws Exception {
+        final Array<Long> array = Array.of(Long.class, 200);
+        array.fill(null, 50, 150);
+        Assert.assertEquals(array.count(ArrayValue::isNull), 100);
+        array.expand(300);
+        Assert.assertFalse(array.isNull(250));
+        final Array<Long> target = Array.of(Long.class, 300);
+        target.update(0, array, 0, 300);
+        Assert.assertEquals(target.count(ArrayValue::isNull), 100);
+        Assert.assertNotEquals(target, Array.of(Long.class, 300));
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream os = new ObjectOutputStream(bytes)) {
+            os.writeObject(target);
+        }
+        try (ObjectInputStream is = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            final Array<?> result = (Array<?>)is.readObject();
+            Assert.assertTrue(result.isNull(50));
+            Assert.assertFalse(result.isNull(49));
+        }
+    }
+
+
+    @Test()
+    public void testBuilderKeepsIntColumnWithNulls() {
+        final ArrayBuilder<Integer> builder = ArrayBuilder.of(10);
+        builder.append(null);
+        builder.append(null);
+        builder.appendInt(5);
+        builder.append(null);
+        builder.appendInt(6);
+        final Array<Integer> array = builder.toArray();
+        Assert.assertEquals(array.typeCode(), ArrayType.INTEGER);
+        Assert.assertEquals(array.length(), 5);
+        Assert.assertTrue(array.isNull(0));
+        Assert.assertTrue(array.isNull(1));
+        Assert.assertEquals(array.getValue(2), Integer.valueOf(5));
+        Assert.assertTrue(array.isNull(3));
+        Assert.assertEquals(array.getInt(4), 6);
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.array;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.time.LocalDate;
+
+import com.d3x.morpheus.frame.DataFrame;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for the compact float, short and byte array types
+ *
+ * @author Xavier Witdouck
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ */
+public class ArrayCompactTypesTests {
+
+
+    @DataProvider(name="styles")
+    public Object[][] styles() {
+        return new Object[][] {
+            { ArrayStyle.DENSE },
+            { ArrayStyle.SPARSE },
+            { ArrayStyle.MAPPED },
+        };
+    }
+
+
+    @Test(dataProvider="styles")
+    public void testFloats(ArrayStyle style) {
+        final Array<Float> array = Array.of(Float.class, 1000, null, style);
+        final Array<Double> expected = Array.of(Double.class, 1000);
+        Assert.assertEquals(array.typeCode(), ArrayType.FLOAT);
+        Assert.assertEquals(array.style(), style);
+        Assert.assertTrue(array.isNull(0));
+        for (int i=0; i<array.length(); ++i) {
+            final double value = i % 10 == 0 ? Double.NaN : i * 0.25d;
+            array.setDouble(i, value);
+            expected.setDouble(i, value);
+        }
+        for (int i=0; i<array.length(); ++i) {
+            Assert.assertEquals(array.getDouble(i), expected.getDouble(i), 0d, "Value at " + i);
+            Assert.assertEquals(array.isNull(i), expected.isNull(i), "Null at " + i);
+        }
+        Assert.assertEquals(array.stats().count().intValue(), expected.stats().count().intValue());
+        Assert.assertEquals(array.stats().mean().doubleValue(), expected.stats().mean().doubleValue(), 0.0001d);
+        Assert.assertEquals(array.stats().stdDev().doubleValue(), expected.stats().stdDev().doubleValue(), 0.0001d);
+        Assert.assertEquals(array.copy(), array);
+        Assert.assertEquals(array.copy(10, 20).getDouble(5), 3.75d, 0d);
+    }
+
+
+    @Test(dataProvider="styles")
+    public void testShorts(ArrayStyle style) {
+        final Array<Short> array = Array.of(Short.class, 1000, null, style);
+        Assert.assertEquals(array.typeCode(), ArrayType.SHORT);
+        Assert.assertEquals(array.getInt(0), 0);
+        for (int i=0; i<array.length(); ++i) {
+            array.setInt(i, i * 30 - 15000);
+        }
+        for (int i=0; i<array.length(); ++i) {
+            Assert.assertEquals(array.getInt(i), i * 30 - 15000);
+            Assert.assertEquals(array.getLong(i), i * 30L - 15000L);
+            Assert.assertEquals(array.getDouble(i), i * 30d - 15000d, 0d);
+            Assert.assertEquals(array.getValue(i).shortValue(), (short)(i * 30 - 15000));
+        }
+        final Array<Integer> ints = Array.of(Integer.class, 1000).applyInts(v -> v.index() * 30 - 15000);
+        Assert.assertEquals(array.stats().sum().doubleValue(), ints.stats().sum().doubleValue(), 0d);
+        Assert.assertEquals(array.max().orElse(null), Short.valueOf((short)14970));
+        Assert.assertEquals(array.copy().sort(false).getInt(0), 14970);
+    }
+
+
+    @Test(dataProvider="styles")
+    public void testBytes(ArrayStyle style) {
+        final Array<Byte> array = Array.of(Byte.class, 256, null, style);
+        Assert.assertEquals(array.typeCode(), ArrayType.BYTE);
+        for (int i=0; i<array.length(); ++i) {
+            array.setInt(i, i - 128);
+        }
+        for (int i=0; i<array.length(); ++i) {
+            Assert.assertEquals(array.getInt(i), i - 128);
+            Assert.assertEquals(array.getDouble(i), i - 128d, 0d);
+        }
+        Assert.assertEquals(array.stats().min().doubleValue(), -128d, 0d);
+        Assert.assertEquals(array.stats().max().doubleValue(), 127d, 0d);
+        Assert.assertEquals(array.distinct().length(), 256);
+    }
+
+
+    @Test(dataProvider="styles", expectedExceptions={ArrayException.class})
+    public void testShortOutOfRange(ArrayStyle style) {
+        Array.of(Short.class, 10, null, style).setInt(5, Short.MAX_VALUE + 1);
+    }
+
+
+    @Test(dataProvider="styles", expectedExceptions={ArrayException.class})
+    public void testByteOutOfRange(ArrayStyle style) {
+        Array.of(Byte.class, 10, null, style).setInt(5, Byte.MIN_VALUE - 1);
+    }
+
+
+    @Test(dataProvider="styles")
+    public void testCumSum(ArrayStyle style) {
+        final Array<Short> shorts = Array.of(Short.class, 100, null, style);
+        final Array<Byte> bytes = Array.of(Byte.class, 10, null, style);
+        shorts.applyInts(v -> v.index() % 2 == 0 ? 600 : -500);
+        bytes.applyInts(v -> v.index() - 3);
+        final Array<Short> shortSum = shorts.cumSum();
+        final Array<Byte> byteSum = bytes.cumSum();
+        Assert.assertEquals(shortSum.typeCode(), ArrayType.SHORT);
+        Assert.assertEquals(byteSum.typeCode(), ArrayType.BYTE);
+        Assert.assertEquals(shortSum.getInt(98), 5500);
+        Assert.assertEquals(shortSum.getInt(99), 5000);
+        Assert.assertEquals(byteSum.getInt(2), -6);
+        Assert.assertEquals(byteSum.getInt(9), 15);
+        Assert.assertEquals(Array.of(Short.class, 0).cumSum().length(), 0);
+        final Array<Integer> widened = Array.of(Short.class, 100, null, style).applyInts(v -> 1000).mapToInts(v -> v.getInt()).cumSum();
+        Assert.assertEquals(widened.getInt(99), 100000);
+    }
+
+
+    @Test(dataProvider="styles", expectedExceptions={ArrayException.class}, expectedExceptionsMessageRegExp=".*index 32.*")
+    public void testCumSumOutOfRange(ArrayStyle style) {
+        Array.of(Short.class, 100, null, style).applyInts(v -> 1000).cumSum();
+    }
+
+
+    @Test()
+    @SuppressWarnings("unchecked")
+    public void testSerialization() throws Exception {
+        final Array<Float> floats = Array.of(Float.class, 100).applyDoubles(v -> v.index() * 0.5d);
+        final Array<Short> shorts = Array.of(Short.class, 100).applyInts(v -> v.index() * 100);
+        final Array<Byte> bytes = Array.of(Byte.class, 100).applyInts(v -> v.index() - 50);
+        for (Array<?> array : new Array<?>[] { floats, shorts, bytes }) {
+            final ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+            final ObjectOutputStream os = new ObjectOutputStream(bytesOut);
+            os.writeObject(array);
+            os.close();
+            final ObjectInputStream is = new ObjectInputStream(new ByteArrayInputStream(bytesOut.toByteArray()));
+            final Array<Object> result = (Array<Object>)is.readObject();
+            Assert.assertEquals(result.typeCode(), array.typeCode());
+            for (int i=0; i<array.length(); ++i) {
+                Assert.assertEquals(result.getDouble(i), array.getDouble(i), 0d);
+            }
+        }
+    }
+
+
+    @Test()
+    public void testBuilderNarrowing() {
+        final ArrayBuilder<Float> floats = ArrayBuilder.of(10, Float.class);
+        floats.appendDouble(1.5d);
+        floats.append(2.5f);
+        floats.setValue(2, 3.5f);
+        final ArrayBuilder<Short> shorts = ArrayBuilder.of(10, Short.class);
+        shorts.appendInt(1000);
+        shorts.append((short)2000);
+        final Array<Float> floatArray = floats.toArray();
+        final Array<Short> shortArray = shorts.toArray();
+        Assert.assertEquals(floatArray.typeCode(), ArrayType.FLOAT);
+        Assert.assertEquals(floatArray.length(), 3);
+        Assert.assertEquals(floatArray.getDouble(0), 1.5d, 0d);
+        Assert.assertEquals(floatArray.getDouble(2), 3.5d, 0d);
+        Assert.assertEquals(shortArray.typeCode(), ArrayType.SHORT);
+        Assert.assertEquals(shortArray.getInt(1), 2000);
+    }
+
+
+    @Test()
+    public void testFrameBuilder() {
+        final DataFrame<Integer,String> frame = DataFrame.builder(Integer.class, String.class)
+            .addColumn("A", Float.class)
+            .addColumn("B", Short.class)
+            .putDouble(0, "A", 1.25d)
+            .putDouble(1, "A", 2.75d)
+            .putInt(0, "B", 300)
+            .putInt(1, "B", 500)
+            .build();
+        Assert.assertEquals(frame.cols().type("A"), Float.class);
+        Assert.assertEquals(frame.cols().type("B"), Short.class);
+        Assert.assertEquals(frame.getDouble(1, "A"), 2.75d, 0d);
+        Assert.assertEquals(frame.getInt(1, "B"), 500);
+        Assert.assertEquals(frame.col("A").stats().mean(), 2d, 0d);
+        Assert.assertEquals(frame.col("B").stats().sum(), 800d, 0d);
+    }
+
+
+    @Test()
+    public void testCsvColumnType() {
+        final DataFrame<LocalDate,String> expected = DataFrame.read("/quotes/quote.csv").csv(LocalDate.class, options -> {
+            options.setRowKeyColumnName("Date");
+        });
+        final DataFrame<LocalDate,String> frame = DataFrame.read("/quotes/quote.csv").csv(LocalDate.class, options -> {
+            options.setRowKeyColumnName("Date");
+            options.setColumnType("Open|Close", Float.class);
+        });
+        Assert.assertEquals(frame.cols().type("Open"), Float.class);
+        Assert.assertEquals(frame.cols().type("Close"), Float.class);
+        Assert.assertEquals(frame.cols().type("High"), Double.class);
+        Assert.assertEquals(frame.rowCount(), expected.rowCount());
+        Assert.assertEquals(frame.col("Close").stats().mean(), expected.col("Close").stats().mean(), 0.001d);
+        expected.rows().keys().forEach(rowKey -> {
+            final double value = expected.getDouble(rowKey, "Open");
+            Assert.assertEquals(frame.getDouble(rowKey, "Open"), (float)value, 0d);
+        });
+    }
+}
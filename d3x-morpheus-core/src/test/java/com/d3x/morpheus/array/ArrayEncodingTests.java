@@ -0,0 +1,257 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.array;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for the run length, delta and sorted coordinate encoded read-only arrays
+ *
+ * @author Xavier Witdouck
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ */
+public class ArrayEncodingTests {
+
+
+    @Test()
+    public void testRunsOfStrings() {
+        final Array<String> source = Array.of(String.class, 10000);
+        for (int i=0; i<source.length(); ++i) {
+            source.setValue(i, i % 1000 < 100 ? null : "Value-" + (i / 500));
+        }
+        final Array<String> encoded = source.encode();
+        Assert.assertTrue(encoded instanceof ArrayOfRuns);
+        Assert.assertTrue(encoded.isReadOnly());
+        Assert.assertEquals(encoded.length(), source.length());
+        Assert.assertEquals(encoded, source);
+        for (int i=source.length()-1; i>=0; i-=7) {
+            Assert.assertEquals(encoded.getValue(i), source.getValue(i), "Value at " + i);
+            Assert.assertEquals(encoded.isNull(i), source.isNull(i), "Null at " + i);
+        }
+    }
+
+
+    @Test()
+    public void testRunsOfInts() {
+        final Array<Integer> source = Array.of(Integer.class, 5000).applyInts(v -> (v.index() / 100) % 2 == 0 ? 7 : -7);
+        final ArrayOfRuns<Integer> encoded = ArrayOfRuns.of(source);
+        Assert.assertNotNull(encoded);
+        Assert.assertEquals(encoded.runCount(), 50);
+        Assert.assertEquals(encoded, source);
+        Assert.assertEquals(encoded.getInt(4999), -7);
+        Assert.assertEquals(encoded.getDouble(150), -7d, 0d);
+        Assert.assertEquals(encoded.stats().sum().doubleValue(), source.stats().sum().doubleValue(), 0d);
+    }
+
+
+    @Test()
+    public void testRunsOfDoubles() {
+        final Array<Double> source = Array.of(Double.class, 2000);
+        for (int i=0; i<source.length(); ++i) {
+            source.setDouble(i, i < 500 ? Double.NaN : Math.floor(i / 250d) * 0.5d);
+        }
+        final Array<Double> encoded = source.encode();
+        Assert.assertTrue(encoded instanceof ArrayOfRuns);
+        Assert.assertEquals(encoded, source);
+        Assert.assertTrue(encoded.isNull(499));
+        Assert.assertFalse(encoded.isNull(500));
+        Assert.assertEquals(encoded.stats().mean().doubleValue(), source.stats().mean().doubleValue(), 0.000001d);
+        Assert.assertEquals(encoded.first(v -> v.getDouble() > 3d).map(ArrayValue::index).orElse(-1), Integer.valueOf(1750));
+    }
+
+
+    @Test()
+    public void testDeltasOfLocalDates() {
+        final Array<LocalDate> source = Array.of(LocalDate.class, 10000);
+        final LocalDate start = LocalDate.of(1990, 1, 1);
+        for (int i=0; i<source.length(); ++i) {
+            source.setValue(i, i % 997 == 0 ? null : start.plusDays(i + (i % 5 == 0 ? 2 : 0)));
+        }
+        final Array<LocalDate> encoded = source.encode();
+        Assert.assertTrue(encoded instanceof ArrayOfDeltas);
+        Assert.assertEquals(encoded, source);
+        for (int i=0; i<source.length(); ++i) {
+            Assert.assertEquals(encoded.getValue(i), source.getValue(i), "Value at " + i);
+            Assert.assertEquals(encoded.isNull(i), source.isNull(i), "Null at " + i);
+            Assert.assertEquals(encoded.getLong(i), source.getLong(i), "Code at " + i);
+        }
+        Assert.assertEquals(encoded.min().orElse(null), source.min().orElse(null));
+        Assert.assertEquals(encoded.max().orElse(null), source.max().orElse(null));
+        Assert.assertEquals(encoded.compare(10, 20), source.compare(10, 20));
+    }
+
+
+    @Test()
+    public void testDeltasOfTimestamps() {
+        final Random random = new Random(42);
+        final long start = 1_500_000_000_000L;
+        final Array<Long> source = Array.of(Long.class, 100000);
+        for (int i=0; i<source.length(); ++i) {
+            source.setLong(i, start + i * 1000L + random.nextInt(50));
+        }
+        final ArrayOfDeltas<Long> encoded = ArrayOfDeltas.of(source);
+        Assert.assertNotNull(encoded);
+        Assert.assertTrue(encoded.sizeInBits() * 4L < source.length() * 64L);
+        Assert.assertEquals(encoded, source);
+        for (int i=0; i<source.length(); i+=13) {
+            Assert.assertEquals(encoded.getLong(i), source.getLong(i), "Value at " + i);
+        }
+        Assert.assertEquals(encoded.getValue(99999), source.getValue(99999));
+        Assert.assertEquals(encoded.getDouble(5), source.getDouble(5), 0d);
+    }
+
+
+    @Test()
+    public void testDeltasOfInts() {
+        final Array<Integer> source = Array.of(Integer.class, 1000).applyInts(v -> v.index() * 3 - 1500);
+        source.setValue(500, null);
+        final Array<Integer> encoded = source.encode();
+        Assert.assertTrue(encoded instanceof ArrayOfDeltas);
+        Assert.assertEquals(encoded, source);
+        Assert.assertTrue(encoded.isNull(500));
+        Assert.assertNull(encoded.getValue(500));
+        Assert.assertEquals(encoded.getInt(999), 1497);
+        Assert.assertEquals(encoded.getValue(0), Integer.valueOf(-1500));
+    }
+
+
+    @Test()
+    public void testCoordinatesOfDoubles() {
+        final Random random = new Random(11);
+        final Array<Double> source = Array.of(Double.class, 50000, 0d, 0.01f);
+        for (int i=0; i<400; ++i) {
+            source.setDouble(random.nextInt(source.length()), random.nextDouble());
+        }
+        final Array<Double> encoded = source.encode();
+        Assert.assertTrue(encoded instanceof ArrayOfCoordinates);
+        Assert.assertTrue(encoded.isReadOnly());
+        Assert.assertEquals(encoded.style(), ArrayStyle.SPARSE);
+        Assert.assertEquals(encoded, source);
+        Assert.assertEquals(encoded.stats().sum().doubleValue(), source.stats().sum().doubleValue(), 0.000001d);
+        for (int i=source.length()-1; i>=0; i-=3) {
+            Assert.assertEquals(encoded.getDouble(i), source.getDouble(i), 0d, "Value at " + i);
+        }
+        final IntArrayList expected = new IntArrayList();
+        final IntArrayList actual = new IntArrayList();
+        final IntArrayList sparse = new IntArrayList();
+        for (int i=0; i<source.length(); ++i) {
+            if (source.getDouble(i) != 0d) {
+                expected.add(i);
+            }
+        }
+        encoded.forEachNonDefault(actual::add);
+        source.forEachNonDefault(sparse::add);
+        Assert.assertEquals(actual, expected);
+        Assert.assertEquals(sparse, expected);
+        Assert.assertEquals(((ArrayOfCoordinates<Double>)encoded).count(), expected.size());
+    }
+
+
+    @Test()
+    public void testCoordinatesOfInts() {
+        final Array<Integer> source = Array.of(Integer.class, 10000);
+        for (int i=0; i<source.length(); i+=100) {
+            source.setInt(i + 1, i);
+        }
+        source.setValue(5000, null);
+        final Array<Integer> encoded = source.encode();
+        Assert.assertTrue(encoded instanceof ArrayOfCoordinates);
+        Assert.assertEquals(encoded, source);
+        Assert.assertTrue(encoded.isNull(5000));
+        Assert.assertNull(encoded.getValue(5000));
+        Assert.assertEquals(encoded.getInt(9901), 9900);
+        Assert.assertEquals(encoded.getInt(9900), 0);
+        Assert.assertEquals(encoded.copy(1, 202).getInt(200), 200);
+        Assert.assertEquals(encoded.copy(new int[] {9801, 0, 5000}).getValue(2), null);
+        final IntArrayList indexes = new IntArrayList();
+        encoded.forEachNonDefault(indexes::add);
+        Assert.assertEquals(indexes.size(), 100);
+        Assert.assertEquals(indexes.get(0), 101);
+        Assert.assertTrue(indexes.contains(5000));
+    }
+
+
+    @Test(expectedExceptions={ArrayException.class})
+    public void testCoordinatesAreReadOnly() {
+        final Array<Long> source = Array.of(Long.class, 1000);
+        source.setLong(10, 7L);
+        source.encode().setLong(5, 1L);
+    }
+
+
+    @Test()
+    public void testRandomValuesNotEncoded() {
+        final Random random = new Random(7);
+        final Array<Double> doubles = Array.of(Double.class, 1000).applyDoubles(v -> random.nextDouble());
+        final Array<Long> longs = Array.of(Long.class, 1000).applyLongs(v -> random.nextLong());
+        final Array<Double> encodedDoubles = doubles.encode();
+        final Array<Long> encodedLongs = longs.encode();
+        Assert.assertTrue(encodedDoubles instanceof ArrayReadOnly);
+        Assert.assertTrue(encodedLongs instanceof ArrayReadOnly);
+        Assert.assertEquals(encodedDoubles, doubles);
+        Assert.assertEquals(encodedLongs, longs);
+        Assert.assertNull(ArrayOfRuns.of(doubles));
+        Assert.assertNull(ArrayOfDeltas.of(longs));
+    }
+
+
+    @Test()
+    public void testCopyDecodes() {
+        final Array<Integer> source = Array.of(Integer.class, 1000).applyInts(v -> v.index() / 100);
+        final Array<Integer> encoded = source.encode();
+        final Array<Integer> copy = encoded.copy();
+        final Array<Integer> slice = encoded.copy(150, 350);
+        final Array<Integer> subset = encoded.copy(new int[] {999, 0, 500});
+        Assert.assertTrue(copy.isReadOnly());
+        Assert.assertEquals(copy, source);
+        Assert.assertEquals(slice.length(), 200);
+        Assert.assertEquals(slice.getInt(0), 1);
+        Assert.assertEquals(slice.getInt(199), 3);
+        Assert.assertEquals(subset.getInt(0), 9);
+        Assert.assertEquals(subset.getInt(1), 0);
+        Assert.assertEquals(subset.getInt(2), 5);
+        Assert.assertEquals(encoded.filter(v -> v.getInt() == 4).length(), 100);
+        Assert.assertEquals(encoded.readOnly(), encoded);
+        Assert.assertSame(encoded.encode(), encoded);
+    }
+
+
+    @Test(expectedExceptions={ArrayException.class})
+    public void testRunsAreReadOnly() {
+        final Array<String> source = Array.of(String.class, 1000).applyValues(v -> "X");
+        source.encode().setValue(5, "Y");
+    }
+
+
+    @Test(expectedExceptions={ArrayException.class})
+    public void testDeltasAreReadOnly() {
+        final Array<Long> source = Array.of(Long.class, 1000).applyLongs(v -> v.index() * 10L);
+        source.encode().setLong(5, 1L);
+    }
+
+
+    @Test(expectedExceptions={ArrayIndexOutOfBoundsException.class})
+    public void testDeltasBounds() {
+        final Array<Long> source = Array.of(Long.class, 1000).applyLongs(v -> v.index() * 10L);
+        source.encode().getLong(1000);
+    }
+}
@@ -16,7 +16,13 @@
 package com.d3x.morpheus.array;
 
 
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.Random;
@@ -100,4 +106,58 @@ public class ArrayMappedTests {
             System.out.println(v1);
         }
     }
+
+
+    @Test()
+    public void testMapFileRegion() throws Exception {
+        final int offset = 64;
+        final int length = 1000;
+        final File file = File.createTempFile("morpheus-region", ".dat");
+        file.deleteOnExit();
+        final ByteBuffer bytes = ByteBuffer.allocate(offset + length * 8).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i=0; i<length; ++i) {
+            bytes.putDouble(offset + i * 8, i * 1.5d);
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.write(bytes.array());
+        }
+        final Array<Double> mapped = Array.map(Double.class, file, offset, length, ByteOrder.LITTLE_ENDIAN);
+        Assert.assertEquals(mapped.length(), length);
+        Assert.assertEquals(mapped.style(), ArrayStyle.MAPPED);
+        for (int i=0; i<length; ++i) {
+            Assert.assertEquals(mapped.getDouble(i), i * 1.5d, "Values match at index " + i);
+        }
+        mapped.setDouble(0, -1d);
+        Assert.assertEquals(mapped.getDouble(0), -1d);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            raf.seek(offset);
+            Assert.assertEquals(Double.longBitsToDouble(Long.reverseBytes(raf.readLong())), 0d, "File is not modified");
+        }
+        mapped.expand(length * 2);
+        Assert.assertEquals(mapped.length(), length * 2);
+        Assert.assertEquals(mapped.getDouble(0), -1d);
+        Assert.assertEquals(mapped.getDouble(length - 1), (length - 1) * 1.5d);
+        Assert.assertTrue(Double.isNaN(mapped.getDouble(length)));
+    }
+
+
+    @Test()
+    public void testMapFileRegionWithCoding() throws Exception {
+        final int length = 100;
+        final LocalDateTime start = LocalDateTime.of(2000, 1, 1, 0, 0);
+        final File file = File.createTempFile("morpheus-region", ".dat");
+        file.deleteOnExit();
+        final ByteBuffer bytes = ByteBuffer.allocate(8 + length * 8).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i=0; i<length; ++i) {
+            bytes.putLong(8 + i * 8, start.plusHours(i).toInstant(ZoneOffset.UTC).toEpochMilli());
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.write(bytes.array());
+        }
+        final Array<LocalDateTime> mapped = Array.map(LocalDateTime.class, file, 8, length, ByteOrder.LITTLE_ENDIAN);
+        Assert.assertEquals(mapped.type(), LocalDateTime.class);
+        for (int i=0; i<length; ++i) {
+            Assert.assertEquals(mapped.getValue(i), start.plusHours(i));
+        }
+    }
 }
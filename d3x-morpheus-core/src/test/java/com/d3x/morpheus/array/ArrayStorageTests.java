@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.array;
+
+import java.time.LocalDate;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for converting arrays between dense and sparse storage
+ *
+ * @author Xavier Witdouck
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ */
+public class ArrayStorageTests {
+
+
+    @Test()
+    public void testDenseToSparse() {
+        final Array<Double> dense = Array.of(Double.class, 10000);
+        for (int i=0; i<dense.length(); i+=50) {
+            dense.setDouble(i, i * 0.5d);
+        }
+        final Array<Double> result = dense.compact(0.1f, 0.5f);
+        Assert.assertEquals(result.style(), ArrayStyle.SPARSE);
+        Assert.assertEquals(result.length(), dense.length());
+        Assert.assertEquals(result.loadFactor(), 0.02f, 0.0001f);
+        for (int i=0; i<dense.length(); ++i) {
+            Assert.assertEquals(result.getDouble(i), dense.getDouble(i), 0d, "Value at " + i);
+            Assert.assertEquals(result.isNull(i), dense.isNull(i), "Null at " + i);
+        }
+    }
+
+
+    @Test()
+    public void testSparseToDense() {
+        final Array<Integer> sparse = Array.of(Integer.class, 1000, 0.1f);
+        for (int i=0; i<sparse.length(); ++i) {
+            sparse.setInt(i, i % 4 == 0 ? 0 : i);
+        }
+        Assert.assertEquals(sparse.style(), ArrayStyle.SPARSE);
+        final Array<Integer> result = sparse.compact(0.1f, 0.5f);
+        Assert.assertEquals(result.style(), ArrayStyle.DENSE);
+        Assert.assertEquals(result, sparse);
+    }
+
+
+    @Test()
+    public void testUnchanged() {
+        final Array<String> dense = Array.of(String.class, 100).applyValues(v -> "X" + v.index());
+        final Array<LocalDate> sparse = Array.of(LocalDate.class, 100, 0.5f);
+        sparse.setValue(10, LocalDate.of(2020, 1, 1));
+        Assert.assertSame(dense.compact(0.1f, 0.5f), dense);
+        Assert.assertSame(sparse.compact(0.1f, 0.5f), sparse);
+        Assert.assertSame(dense.readOnly().compact(0.9f, 0.95f).style(), ArrayStyle.DENSE);
+        Assert.assertSame(Array.of(Boolean.class, 100).compact(0.1f, 0.5f).style(), ArrayStyle.DENSE);
+    }
+
+
+    @Test()
+    public void testDenseWithNullsUnchanged() {
+        final Array<Integer> ints = Array.of(Integer.class, 1000);
+        final Array<Long> longs = Array.of(Long.class, 1000);
+        ints.setInt(10, 5);
+        ints.setValue(20, null);
+        longs.setValue(30, null);
+        Assert.assertTrue(ints.isNull(20));
+        Assert.assertSame(ints.compact(0.1f, 0.5f), ints);
+        Assert.assertSame(longs.compact(0.1f, 0.5f), longs);
+        ints.setInt(20, 0);
+        final Array<Integer> result = ints.compact(0.1f, 0.5f);
+        Assert.assertEquals(result.style(), ArrayStyle.SPARSE);
+        Assert.assertEquals(result.getInt(10), 5);
+        Assert.assertFalse(result.isNull(20));
+    }
+
+
+    @Test()
+    public void testSparseThresholdBoundary() {
+        final Array<Integer> below = Array.of(Integer.class, 100).applyInts(v -> v.index() < 9 ? 1 : 0);
+        final Array<Integer> at = Array.of(Integer.class, 100).applyInts(v -> v.index() < 10 ? 1 : 0);
+        Assert.assertEquals(below.compact(0.1f, 0.5f).style(), ArrayStyle.SPARSE);
+        Assert.assertSame(at.compact(0.1f, 0.5f), at);
+        Assert.assertEquals(Array.of(Integer.class, 100).applyInts(v -> v.index() == 0 ? 1 : 0).compact(0.015f, 0.5f).style(), ArrayStyle.SPARSE);
+    }
+
+
+    @Test()
+    public void testNaNDefaultNotStored() {
+        final Array<Double> sparse = Array.of(Double.class, 100, Double.NaN, 0.5f);
+        sparse.setDouble(5, 1d);
+        sparse.setDouble(6, Double.NaN);
+        Assert.assertEquals(sparse.loadFactor(), 0.01f, 0.0001f);
+        Assert.assertTrue(sparse.isNull(6));
+    }
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright (C) 2014-2021 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.collect;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * @author Scott Shaffer
+ */
+public class ConcurrentCacheTest {
+    @Test
+    public void testBasic() {
+        Cache<String, Integer> cache = ConcurrentCache.create(10);
+        Assert.assertTrue(cache.isEmpty());
+        Assert.assertNull(cache.get("A"));
+
+        cache.put("A", 1);
+        cache.put("B", 2);
+        Assert.assertEquals(cache.size(), 2);
+        Assert.assertTrue(cache.containsKey("A"));
+        Assert.assertFalse(cache.containsKey("C"));
+        Assert.assertEquals(cache.keys(), Set.of("A", "B"));
+        Assert.assertEquals(Set.copyOf(cache.values()), Set.of(1, 2));
+        Assert.assertEquals(cache.getOrAssign("A", 10), Integer.valueOf(1));
+        Assert.assertEquals(cache.getOrAssign("C", 3), Integer.valueOf(3));
+        Assert.assertEquals(cache.getOrThrow("C"), Integer.valueOf(3));
+
+        cache.put("A", 4);
+        Assert.assertEquals(cache.get("A"), Integer.valueOf(4));
+    }
+
+    @Test(expectedExceptions = java.util.NoSuchElementException.class)
+    public void testGetOrThrow() {
+        ConcurrentCache.<String, Integer>create(10).getOrThrow("A");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidCapacity() {
+        ConcurrentCache.create(0);
+    }
+
+    @Test
+    public void testFrequencyEviction() {
+        var cache = ConcurrentCache.<String, Integer>create(3);
+        cache.put("A", 1);
+        cache.put("B", 2);
+        cache.put("C", 3);
+
+        // Entries that have been read survive entries that have not...
+        cache.get("A");
+        cache.get("A");
+        cache.get("C");
+
+        cache.put("D", 4);
+        Assert.assertEquals(cache.keys(), Set.of("A", "C", "D"));
+
+        cache.put("E", 5);
+        Assert.assertEquals(cache.keys(), Set.of("A", "C", "E"));
+        Assert.assertEquals(cache.stats().getEvictionCount(), 2);
+        Assert.assertEquals(cache.getWeight(), 3);
+    }
+
+    @Test
+    public void testWeights() {
+        var cache = ConcurrentCache.<String, String>builder()
+                .maximumWeight(10, (key, value) -> value.length())
+                .build();
+
+        cache.put("A", "aaaa");
+        cache.put("B", "bbbb");
+        Assert.assertEquals(cache.getWeight(), 8);
+
+        cache.put("C", "cccc");
+        Assert.assertEquals(cache.keys(), Set.of("B", "C"));
+        Assert.assertEquals(cache.getWeight(), 8);
+
+        cache.put("B", "b");
+        Assert.assertEquals(cache.getWeight(), 5);
+
+        cache.invalidate("C");
+        Assert.assertEquals(cache.getWeight(), 1);
+
+        cache.clear();
+        Assert.assertTrue(cache.isEmpty());
+        Assert.assertEquals(cache.getWeight(), 0);
+    }
+
+    @Test
+    public void testEvictionListener() {
+        var evicted = new ArrayList<String>();
+        var cache = ConcurrentCache.<String, Integer>builder()
+                .maximumSize(2)
+                .evictionListener((key, value) -> evicted.add(key + value))
+                .build();
+
+        cache.put("A", 1);
+        cache.put("B", 2);
+        cache.put("C", 3);
+        Assert.assertEquals(evicted, List.of("A1"));
+
+        // Explicit invalidation is not reported to the listener...
+        cache.invalidate("B");
+        cache.clear();
+        Assert.assertEquals(evicted, List.of("A1"));
+    }
+
+    @Test
+    public void testExpiry() {
+        var time = new AtomicLong();
+        var cache = ConcurrentCache.<String, Integer>builder()
+                .expireAfterWrite(Duration.ofNanos(100))
+                .ticker(time::get)
+                .build();
+
+        cache.put("A", 1);
+        time.set(50);
+        cache.put("B", 2);
+        Assert.assertEquals(cache.get("A"), Integer.valueOf(1));
+
+        time.set(120);
+        Assert.assertNull(cache.get("A"));
+        Assert.assertEquals(cache.get("B"), Integer.valueOf(2));
+        Assert.assertEquals(cache.getOrCompute("A", key -> 3), Integer.valueOf(3));
+
+        time.set(200);
+        cache.cleanUp();
+        Assert.assertEquals(cache.keys(), Set.of("A"));
+        Assert.assertEquals(cache.stats().getExpirationCount(), 2);
+    }
+
+    @Test
+    public void testExpireAfterAccess() {
+        var time = new AtomicLong();
+        var cache = ConcurrentCache.<String, Integer>builder()
+                .expireAfterAccess(Duration.ofNanos(100))
+                .ticker(time::get)
+                .build();
+
+        cache.put("A", 1);
+        time.set(90);
+        Assert.assertEquals(cache.get("A"), Integer.valueOf(1));
+        time.set(180);
+        Assert.assertEquals(cache.get("A"), Integer.valueOf(1));
+        time.set(300);
+        Assert.assertNull(cache.get("A"));
+    }
+
+    @Test
+    public void testSingleFlight() throws Exception {
+        var cache = ConcurrentCache.<String, Integer>create(10);
+        var loads = new AtomicInteger();
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+
+        var loader = new Thread(() -> cache.getOrCompute("A", key -> {
+            loads.incrementAndGet();
+            started.countDown();
+            await(release);
+            return 1;
+        }));
+
+        loader.start();
+        started.await();
+
+        var waiters = IntStream.range(0, 4).mapToObj(index -> new Thread(() -> {
+            Assert.assertEquals(cache.getOrCompute("A", key -> {
+                loads.incrementAndGet();
+                return 2;
+            }), Integer.valueOf(1));
+        })).toList();
+
+        waiters.forEach(Thread::start);
+        release.countDown();
+        loader.join();
+
+        for (var waiter : waiters)
+            waiter.join();
+
+        Assert.assertEquals(loads.get(), 1);
+        Assert.assertEquals(cache.get("A"), Integer.valueOf(1));
+        Assert.assertEquals(cache.stats().getLoadSuccessCount(), 1);
+    }
+
+    @Test
+    public void testLoadFailure() {
+        var cache = ConcurrentCache.<String, Integer>create(10);
+
+        try {
+            cache.getOrCompute("A", key -> {
+                throw new IllegalStateException("failed");
+            });
+            Assert.fail("Expected an exception.");
+        }
+        catch (IllegalStateException ex) {
+            Assert.assertEquals(ex.getMessage(), "failed");
+        }
+
+        Assert.assertFalse(cache.containsKey("A"));
+        Assert.assertEquals(cache.getOrCompute("A", key -> 1), Integer.valueOf(1));
+        Assert.assertEquals(cache.stats().getLoadFailureCount(), 1);
+        Assert.assertEquals(cache.stats().getLoadSuccessCount(), 1);
+    }
+
+    @Test
+    public void testConcurrentCapacity() {
+        var cache = ConcurrentCache.<Integer, Integer>create(100);
+
+        IntStream.range(0, 10000).parallel().forEach(index -> {
+            cache.getOrCompute(index % 500, key -> key);
+            cache.get(index % 50);
+        });
+
+        Assert.assertTrue(cache.size() <= 100);
+        Assert.assertEquals(cache.getWeight(), cache.size());
+
+        var stats = cache.stats();
+        Assert.assertEquals(stats.getRequestCount(), 20000);
+        Assert.assertTrue(stats.getHitRate() > 0.0);
+    }
+
+    @Test
+    public void testReplacedEntriesArePurged() {
+        var unbounded = ConcurrentCache.<String, Integer>builder().build();
+        var bounded = ConcurrentCache.<String, Integer>create(10);
+
+        for (int index = 0; index < 100000; ++index) {
+            unbounded.put("A", index);
+            bounded.put("K" + (index % 5), index);
+        }
+
+        Assert.assertEquals(unbounded.size(), 1);
+        Assert.assertEquals(bounded.size(), 5);
+        Assert.assertEquals((int) unbounded.get("A"), 99999);
+        Assert.assertTrue(unbounded.queueSize() <= 100);
+        Assert.assertTrue(bounded.queueSize() <= 100);
+
+        for (int index = 0; index < 100000; ++index) {
+            unbounded.put("B", index);
+            unbounded.invalidate("B");
+        }
+
+        Assert.assertEquals(unbounded.size(), 1);
+        Assert.assertTrue(unbounded.queueSize() <= 100);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        }
+        catch (InterruptedException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
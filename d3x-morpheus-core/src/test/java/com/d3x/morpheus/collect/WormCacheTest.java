@@ -21,6 +21,7 @@ import org.testng.annotations.Test;
 
 import java.util.ArrayList;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
 /**
@@ -108,6 +109,20 @@ public class WormCacheTest {
         parallelStream(1, 100).forEach(x -> Assert.assertEquals(cache.getOrCompute(x, this::compute), "V1"));
     }
 
+    @Test
+    public void testGetOrComputeOnce() {
+        WormCache<Integer, String> cache = WormCache.create();
+        var counter = new AtomicInteger();
+
+        parallelStream(1, 100).forEach(x -> Assert.assertEquals(cache.getOrCompute(x, key -> {
+            counter.incrementAndGet();
+            return compute(key);
+        }), "V1"));
+
+        // Concurrent misses must not recompute the value...
+        Assert.assertEquals(counter.get(), 1);
+    }
+
     @Test
     public void testGetOrThrowPresent() {
         Assert.assertEquals(fixed.getOrThrow(1), "V1");
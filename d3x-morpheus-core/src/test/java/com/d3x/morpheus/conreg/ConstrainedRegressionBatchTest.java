@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2014-2022 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.conreg;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.d3x.morpheus.frame.DataFrame;
+import com.d3x.morpheus.series.DoubleSeries;
+import com.d3x.morpheus.util.DoubleComparator;
+import com.d3x.morpheus.util.MorpheusException;
+import com.d3x.morpheus.vector.D3xVector;
+
+import org.testng.annotations.Test;
+import static org.testng.Assert.*;
+
+public class ConstrainedRegressionBatchTest extends ConstrainedRegressionTestBase {
+    private static final LocalDate start = LocalDate.of(2022, 1, 3);
+    private static final List<RegressionConstraint<String>> constraints = List.of(descriptorConstraint, categoryConstraint);
+
+    private static ConstrainedRegressionModel<String, String> buildModel(DataFrame<String, String> frame, double scale) {
+        D3xVector regressand = DoubleSeries.from(frame, ConstrainedRegressionTestBase.regressand).getRequired(observationRows).times(scale);
+        DoubleSeries<String> series = DoubleSeries.build(String.class, observationRows, regressand);
+
+        return ConstrainedRegressionModel.create(frame, series)
+                .withRegressors(getRegressors())
+                .withWeights(weight);
+    }
+
+    private static ConstrainedRegressionResult<String, String> solveSingle(ConstrainedRegressionModel<String, String> model) {
+        return ConstrainedRegressionSolver.build(model.withConstraints(constraints)).solve();
+    }
+
+    private static Map<LocalDate, ConstrainedRegressionModel<String, String>> buildModels(DataFrame<String, String> shared) {
+        Map<LocalDate, ConstrainedRegressionModel<String, String>> models = new LinkedHashMap<>();
+
+        for (int day = 0; day < 10; ++day)
+            models.put(start.plusDays(day), buildModel(shared, 1.0 + 0.1 * day));
+
+        // A date with its own regressor frame must not share the cached pseudo-inverse...
+        models.put(start.plusDays(10), buildModel(buildObservationFrame(), 0.5));
+        return models;
+    }
+
+    private static void runTest(boolean parallel) {
+        DataFrame<String, String> shared = buildObservationFrame();
+        ConstrainedRegressionBatch<LocalDate, String, String> batch =
+                ConstrainedRegressionBatch.<LocalDate, String, String>create(constraints).withParallel(parallel);
+
+        Map<LocalDate, ConstrainedRegressionModel<String, String>> models = buildModels(shared);
+        Map<LocalDate, ConstrainedRegressionResult<String, String>> results = batch.solve(models);
+        DoubleComparator comparator = DoubleComparator.fixed(1.0E-08);
+
+        assertEquals(List.copyOf(results.keySet()), List.copyOf(models.keySet()));
+        assertEquals(List.copyOf(batch.getSolveTimes().keySet()), List.copyOf(models.keySet()));
+
+        for (Duration duration : batch.getSolveTimes().values())
+            assertFalse(duration.isNegative());
+
+        for (LocalDate date : models.keySet()) {
+            ConstrainedRegressionResult<String, String> actual = results.get(date);
+            ConstrainedRegressionResult<String, String> expected = solveSingle(buildModels(shared).get(date));
+
+            assertTrue(comparator.equals(actual.getBetaCoefficients().toDoubles().toArray(), expected.getBetaCoefficients().toDoubles().toArray()));
+            assertTrue(comparator.equals(actual.getDualValues().toDoubles().toArray(), expected.getDualValues().toDoubles().toArray()));
+            assertTrue(comparator.equals(actual.getResiduals().toDoubles().toArray(), expected.getResiduals().toDoubles().toArray()));
+        }
+    }
+
+    @Test
+    public void testSequential() {
+        runTest(false);
+    }
+
+    @Test
+    public void testParallel() {
+        runTest(true);
+    }
+
+    @Test(expectedExceptions = MorpheusException.class)
+    public void testModelConstraints() {
+        Map<LocalDate, ConstrainedRegressionModel<String, String>> models = Map.of(start, buildConstrainedModel());
+        ConstrainedRegressionBatch.<LocalDate, String, String>create(constraints).solve(models);
+    }
+}
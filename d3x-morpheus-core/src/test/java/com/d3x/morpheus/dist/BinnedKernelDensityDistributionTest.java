@@ -0,0 +1,89 @@
+/*
+ * Copyright 2018-2023, Talos Trading - All Rights Reserved
+ *
+ * Licensed under a proprietary end-user agreement issued by D3X Systems.
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.d3xsystems.com/static/eula/quanthub-eula.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.dist;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * @author Scott Shaffer
+ */
+public class BinnedKernelDensityDistributionTest extends RealDistributionTestBase {
+    private static final int SOURCE_SAMPLE_SIZE = 1000;
+
+    private final double[] sourceSample1 = sample(NormalDistribution.STANDARD, SampleMethod.DEFAULT, SOURCE_SAMPLE_SIZE);
+    private final double[] sourceSample2 = sample(new ExponentialDistribution(0.5), SampleMethod.DEFAULT, SOURCE_SAMPLE_SIZE);
+
+    private final KernelDensityDistribution exactDist1 = new KernelDensityDistribution(sourceSample1, KernelType.EPANECHNIKOV);
+    private final KernelDensityDistribution exactDist2 = new KernelDensityDistribution(sourceSample1, KernelType.GAUSSIAN);
+    private final KernelDensityDistribution exactDist3 = new KernelDensityDistribution(sourceSample2, KernelType.BIWEIGHT);
+    private final KernelDensityDistribution exactDist4 = new KernelDensityDistribution(sourceSample2, KernelType.UNIFORM);
+
+    private final BinnedKernelDensityDistribution binnedDist1 = exactDist1.binned();
+    private final BinnedKernelDensityDistribution binnedDist2 = exactDist2.binned();
+    private final BinnedKernelDensityDistribution binnedDist3 = exactDist3.binned();
+    private final BinnedKernelDensityDistribution binnedDist4 = exactDist4.binned();
+
+    @Test
+    public void testAccuracy() {
+        // The density error is bounded relative to the peak density...
+        Assert.assertTrue(binnedDist1.maxPdfError(1001) < 0.002 * binnedDist1.pdf(binnedDist1.mode()));
+        Assert.assertTrue(binnedDist2.maxPdfError(1001) < 0.002 * binnedDist2.pdf(binnedDist2.mode()));
+        Assert.assertTrue(binnedDist3.maxPdfError(1001) < 0.002 * binnedDist3.pdf(binnedDist3.mode()));
+
+        Assert.assertTrue(binnedDist1.maxCdfError(1001) < 0.0005);
+        Assert.assertTrue(binnedDist2.maxCdfError(1001) < 0.0005);
+        Assert.assertTrue(binnedDist3.maxCdfError(1001) < 0.0005);
+        Assert.assertTrue(binnedDist4.maxCdfError(1001) < 0.001);
+    }
+
+    @Test
+    public void testDistributions() {
+        runDistributionTest(binnedDist1, 0.00001);
+        runDistributionTest(binnedDist2, 0.00001);
+        runDistributionTest(binnedDist3, 0.00001);
+        runDistributionTest(binnedDist4, 0.00001);
+    }
+
+    @Test
+    public void testQuantiles() {
+        runQuantileTest(binnedDist1, 1.0E-08);
+        runQuantileTest(binnedDist2, 1.0E-08);
+        runQuantileTest(binnedDist3, 1.0E-08);
+        runQuantileTest(binnedDist4, 1.0E-08);
+
+        for (double F = 0.05; F < 0.96; F += 0.05) {
+            Assert.assertEquals(binnedDist1.quantile(F), exactDist1.quantile(F), 0.005);
+            Assert.assertEquals(binnedDist3.quantile(F), exactDist3.quantile(F), 0.005);
+        }
+    }
+
+    @Test
+    public void testGrid() {
+        var coarse = exactDist1.binned(8);
+        var fine = exactDist1.binned(64);
+
+        Assert.assertTrue(coarse.getGridSize() < fine.getGridSize());
+        Assert.assertTrue(fine.maxPdfError(1001) < coarse.maxPdfError(1001));
+        Assert.assertEquals(fine.cdf(fine.support().getUpper()), 1.0, 1.0E-12);
+        Assert.assertEquals(fine.cdf(fine.support().getLower()), 0.0, 1.0E-12);
+    }
+
+    @Test(expectedExceptions = RuntimeException.class)
+    public void testInvalidGrid() {
+        exactDist1.binned(0);
+    }
+}
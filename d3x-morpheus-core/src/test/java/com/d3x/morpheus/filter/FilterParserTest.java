@@ -36,4 +36,30 @@ public class FilterParserTest {
         runParserTest(TimeSeriesFilter.LWMA(4), "lwma(4)");
         runParserTest(TimeSeriesFilter.movingAverage(5), "ma(5)");
     }
+
+    private void runRecursiveTest(RecursiveFilter filter, String encoding) {
+        Assert.assertEquals(filter.encode(), encoding);
+
+        var parsed = RecursiveFilter.parse(filter.encode());
+        Assert.assertEquals(parsed.getClass(), filter.getClass());
+        Assert.assertEquals(parsed.encode(), encoding);
+    }
+
+    @Test
+    public void testRecursiveRoundTrip() {
+        runRecursiveTest(RecursiveFilter.EWMA(2.5), "recursive_ewma(2.5)");
+        runRecursiveTest(RecursiveFilter.variance(10.0), "recursive_variance(10.0)");
+        runRecursiveTest(RecursiveFilter.volatility(0.75), "recursive_volatility(0.75)");
+        runRecursiveTest(RecursiveFilter.doubleExponential(0.5, 0.1), "holt(0.5, 0.1)");
+    }
+
+    @Test(expectedExceptions = RuntimeException.class)
+    public void testRecursiveNameRejected() {
+        TimeSeriesFilter.parse(RecursiveFilter.EWMA(2.5).encode());
+    }
+
+    @Test(expectedExceptions = RuntimeException.class)
+    public void testRecursiveArgCount() {
+        RecursiveFilter.parse("holt(0.5)");
+    }
 }
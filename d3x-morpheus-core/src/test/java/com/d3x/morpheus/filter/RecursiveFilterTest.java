@@ -0,0 +1,154 @@
+/*
+ * Copyright 2018-2021, D3X Systems LLC - All Rights Reserved
+ *
+ * Licensed under a proprietary end-user agreement issued by D3X Systems.
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.d3xsystems.com/static/eula/quanthub-eula.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.filter;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import com.d3x.morpheus.frame.DataFrame;
+import com.d3x.morpheus.util.DoubleComparator;
+import com.d3x.morpheus.vector.D3xVector;
+import com.d3x.morpheus.vector.D3xVectorView;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * @author Scott Shaffer
+ */
+public final class RecursiveFilterTest {
+    private static final double TOLERANCE = 1.0E-10;
+    private static final DoubleComparator comparator = DoubleComparator.fixed(TOLERANCE);
+
+    private static D3xVector randomSeries(long seed, int length) {
+        var random = new Random(seed);
+        var series = D3xVector.dense(length);
+
+        for (int index = 0; index < length; ++index)
+            series.set(index, 0.01 * index + random.nextGaussian());
+
+        return series;
+    }
+
+    @Test
+    public void testEWMA() {
+        var series = randomSeries(20220101, 50);
+        series.set(10, Double.NaN);
+
+        var filtered = RecursiveFilter.EWMA(5.0).apply(series);
+
+        // The recursive filter matches the renormalized convolution filter
+        // with a window that spans the entire history...
+        for (int index = 0; index < series.length(); ++index) {
+            var convolution = new EWMAFilter(5.0, index + 1);
+            Assert.assertEquals(filtered.get(index), convolution.apply(series, index), TOLERANCE);
+        }
+    }
+
+    @Test
+    public void testVariance() {
+        var series = randomSeries(20220102, 50);
+        var variance = RecursiveFilter.variance(4.0).apply(series);
+        var volatility = RecursiveFilter.volatility(4.0).apply(series);
+
+        Assert.assertTrue(Double.isNaN(variance.get(0)));
+
+        for (int index = 1; index < series.length(); ++index) {
+            var weights = EWMAFilter.computeWeights(4.0, index + 1);
+            var mean = 0.0;
+
+            for (int lag = 0; lag <= index; ++lag)
+                mean += weights.get(lag) * series.get(index - lag);
+
+            var expected = 0.0;
+
+            for (int lag = 0; lag <= index; ++lag)
+                expected += weights.get(lag) * Math.pow(series.get(index - lag) - mean, 2);
+
+            Assert.assertEquals(variance.get(index), expected, TOLERANCE);
+            Assert.assertEquals(volatility.get(index), Math.sqrt(expected), TOLERANCE);
+        }
+    }
+
+    @Test
+    public void testDoubleExponential() {
+        var filter = new DoubleExponentialFilter(0.5, 0.3);
+        var filtered = filter.apply(D3xVectorView.of(1.0, 3.0, 4.0, 8.0));
+
+        // L = 1; then L = 3, T = 2; then L = 0.5 * 4 + 0.5 * 5 = 4.5, T = 0.3 * 1.5 + 0.7 * 2 = 1.85;
+        // then L = 0.5 * 8 + 0.5 * 6.35 = 7.175, T = 0.3 * 2.675 + 0.7 * 1.85 = 2.0975...
+        Assert.assertTrue(filtered.equalsVector(D3xVector.copyOf(1.0, 3.0, 4.5, 7.175), comparator));
+        Assert.assertEquals(filter.getTrend(), 2.0975, TOLERANCE);
+        Assert.assertEquals(filter.forecast(2), 7.175 + 2.0 * 2.0975, TOLERANCE);
+
+        // A linear series is tracked exactly...
+        var linear = RecursiveFilter.doubleExponential(0.2, 0.2).apply(D3xVectorView.of(1.0, 2.0, 3.0, 4.0, 5.0));
+        Assert.assertTrue(linear.equalsVector(D3xVector.copyOf(1.0, 2.0, 3.0, 4.0, 5.0), comparator));
+    }
+
+    @Test
+    public void testStreaming() {
+        var series = randomSeries(20220103, 40);
+        var prototype = RecursiveFilter.volatility(10.0);
+        var expected = prototype.copy().apply(series);
+
+        var streamed = prototype.copy();
+        var head = streamed.apply(series.subVectorView(0, 25));
+
+        for (int index = 0; index < 25; ++index)
+            Assert.assertEquals(head.get(index), expected.get(index), TOLERANCE);
+
+        for (int index = 25; index < series.length(); ++index)
+            Assert.assertEquals(streamed.update(series.get(index)), expected.get(index), TOLERANCE);
+
+        Assert.assertEquals(streamed.getCount(), series.length());
+        streamed.reset();
+        Assert.assertEquals(streamed.getCount(), 0);
+        Assert.assertTrue(Double.isNaN(streamed.getValue()));
+    }
+
+    @Test
+    public void testByColumn() {
+        var colKeys = List.of("A", "B", "C");
+        var rowKeys = List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+        var random = new Random(20220104);
+        var frame = DataFrame.ofDoubles(rowKeys, colKeys, v -> random.nextGaussian());
+        var prototype = RecursiveFilter.EWMA(3.0);
+
+        for (var parallel : List.of(false, true)) {
+            var original = parallel ? frame.parallel() : frame.sequential();
+            var filtered = prototype.bycol(original);
+
+            for (int colIndex = 0; colIndex < colKeys.size(); ++colIndex) {
+                var expected = prototype.copy().apply(D3xVector.wrap(frame.colAt(colIndex)));
+                var actual = D3xVector.wrap(filtered.colAt(colIndex));
+                Assert.assertTrue(actual.equalsVector(expected, comparator));
+            }
+
+            // Streaming the frame in two blocks gives the same result...
+            Map<String, RecursiveFilter> state = new HashMap<>();
+            var head = prototype.bycol(original.rows().select(0, 6), state);
+            var tail = prototype.bycol(original.rows().select(6, 4), state);
+
+            Assert.assertEquals(state.keySet(), Set.copyOf(colKeys));
+            Assert.assertEquals(head.getDouble(5, "B"), filtered.getDouble(5, "B"), TOLERANCE);
+            Assert.assertEquals(tail.getDouble(9, "C"), filtered.getDouble(9, "C"), TOLERANCE);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.frame;
+
+import java.io.File;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import com.d3x.morpheus.range.Range;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for the DataFrameCache
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+public class DataFrameCacheTest {
+
+    private static final Duration TTL = Duration.ofHours(1);
+
+
+    private static DataFrame<Integer,String> createFrame(long seed) {
+        final Random random = new Random(seed);
+        final DataFrame<Integer,String> frame = DataFrame.ofDoubles(Range.of(0, 100), List.of("A", "B", "C"));
+        frame.applyDoubles(v -> random.nextDouble());
+        return frame;
+    }
+
+
+    private static File createSpillDir() throws Exception {
+        final File dir = Files.createTempDirectory("morpheus-cache-test").toFile();
+        dir.deleteOnExit();
+        return dir;
+    }
+
+
+    @Test()
+    public void testLoadOnce() {
+        final AtomicInteger loads = new AtomicInteger();
+        final DataFrameCache cache = new DataFrameCache(1000, null, frame -> 100L);
+        final DataFrame<Integer,String> expected = createFrame(1);
+        final DataFrame<Integer,String> first = cache.get("X", TTL, () -> { loads.incrementAndGet(); return expected; });
+        final DataFrame<Integer,String> second = cache.get("X", TTL, () -> { loads.incrementAndGet(); return expected; });
+        Assert.assertEquals(loads.get(), 1);
+        Assert.assertNotSame(first, second);
+        DataFrameAsserts.assertEqualsByIndex(first, expected);
+        DataFrameAsserts.assertEqualsByIndex(second, expected);
+        Assert.assertTrue(cache.contains("X"));
+        Assert.assertEquals(cache.getHeapBytes(), 100L);
+        first.setDouble(0, "A", -1d);
+        DataFrameAsserts.assertEqualsByIndex(cache.get("X", TTL, () -> null), expected);
+    }
+
+
+    @Test()
+    public void testSpillAndReload() throws Exception {
+        final AtomicInteger loads = new AtomicInteger();
+        final DataFrameCache cache = new DataFrameCache(250, createSpillDir(), frame -> 100L);
+        for (int i = 0; i < 3; ++i) {
+            final int seed = i;
+            cache.get("F" + i, TTL, () -> { loads.incrementAndGet(); return createFrame(seed); });
+        }
+        Assert.assertEquals(loads.get(), 3);
+        Assert.assertEquals(cache.getSpillCount(), 1);
+        Assert.assertEquals(cache.getHeapBytes(), 200L);
+        Assert.assertTrue(cache.contains("F0"));
+        final DataFrame<Integer,String> reloaded = cache.get("F0", TTL, () -> { loads.incrementAndGet(); return createFrame(99); });
+        Assert.assertEquals(loads.get(), 3);
+        DataFrameAsserts.assertEqualsByIndex(reloaded, createFrame(0));
+        cache.clear();
+        Assert.assertEquals(cache.getSpillCount(), 0);
+        Assert.assertEquals(cache.getHeapBytes(), 0L);
+        Assert.assertFalse(cache.contains("F0"));
+    }
+
+
+    @Test()
+    public void testContainsHasNoSideEffects() {
+        final DataFrameCache cache = new DataFrameCache(1000, null, frame -> 100L);
+        cache.get("X", TTL, () -> createFrame(1));
+        final long hits = cache.getStats().getHitCount();
+        final long misses = cache.getStats().getMissCount();
+        Assert.assertTrue(cache.contains("X"));
+        Assert.assertFalse(cache.contains("Y"));
+        Assert.assertEquals(cache.getStats().getHitCount(), hits);
+        Assert.assertEquals(cache.getStats().getMissCount(), misses);
+    }
+
+
+    @Test()
+    public void testSpillFilesArePrivate() throws Exception {
+        final File spillDir = new File(createSpillDir(), "spill");
+        final DataFrameCache cache = new DataFrameCache(150, spillDir, frame -> 100L);
+        cache.get("F0", TTL, () -> createFrame(0));
+        cache.get("F1", TTL, () -> createFrame(1));
+        Assert.assertEquals(cache.getSpillCount(), 1);
+        final File[] files = spillDir.listFiles();
+        Assert.assertNotNull(files);
+        Assert.assertEquals(files.length, 1);
+        Assert.assertTrue(files[0].getName().endsWith(".dfc"));
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            Assert.assertEquals(PosixFilePermissions.toString(Files.getPosixFilePermissions(spillDir.toPath())), "rwx------");
+            Assert.assertEquals(PosixFilePermissions.toString(Files.getPosixFilePermissions(files[0].toPath())), "rw-------");
+        }
+        DataFrameAsserts.assertEqualsByIndex(cache.get("F0", TTL, () -> createFrame(99)), createFrame(0));
+        cache.clear();
+    }
+
+
+    @Test()
+    public void testExpiry() throws Exception {
+        final AtomicInteger loads = new AtomicInteger();
+        final DataFrameCache cache = new DataFrameCache(1000, null, frame -> 100L);
+        cache.get("X", Duration.ofMillis(1), () -> { loads.incrementAndGet(); return createFrame(1); });
+        Thread.sleep(10);
+        Assert.assertFalse(cache.contains("X"));
+        cache.get("X", TTL, () -> { loads.incrementAndGet(); return createFrame(1); });
+        Assert.assertEquals(loads.get(), 2);
+    }
+
+
+    @Test()
+    public void testEstimateSize() {
+        final DataFrameCache cache = new DataFrameCache(1000000, null, frame -> -1L);
+        final DataFrame<Integer,String> frame = createFrame(1);
+        cache.get("X", TTL, () -> frame);
+        Assert.assertEquals(cache.getHeapBytes(), DataFrameCache.estimateSize(frame));
+        Assert.assertEquals(DataFrameCache.estimateSize(frame), 3 * 100 * 8 + 48 * 103);
+    }
+
+
+    @Test()
+    public void testSource() {
+        final AtomicInteger loads = new AtomicInteger();
+        final DataFrameCache cache = new DataFrameCache(1000, null, frame -> 100L);
+        final DataFrameSource<Integer,String,long[]> source = new DataFrameSource<>() {
+            @Override
+            public DataFrame<Integer,String> read(Consumer<long[]> configurator) {
+                final long[] seed = initOptions(new long[1], configurator);
+                loads.incrementAndGet();
+                return createFrame(seed[0]);
+            }
+            @Override
+            public Optional<String> getCacheKey(Consumer<long[]> configurator) {
+                return Optional.of(String.valueOf(initOptions(new long[1], configurator)[0]));
+            }
+        };
+        cache.read(source, seed -> seed[0] = 1);
+        cache.read(source, seed -> seed[0] = 1);
+        DataFrameAsserts.assertEqualsByIndex(cache.read(source, seed -> seed[0] = 2), createFrame(2));
+        Assert.assertEquals(loads.get(), 2);
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.index;
+
+import java.util.Random;
+
+import com.d3x.morpheus.array.Array;
+import com.d3x.morpheus.range.Range;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for indexes large enough to be loaded into partitioned maps in parallel
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+public class IndexBulkTests {
+
+    private static final int SIZE = IndexMap.PARALLEL_THRESHOLD * 2 + 17;
+
+
+    @Test()
+    public void testIntKeys() {
+        final Array<Integer> keys = Range.of(0, SIZE).map(i -> i * 31 + (i % 7)).toArray().shuffle(1);
+        final Index<Integer> index = Index.of(keys);
+        Assert.assertEquals(index.size(), SIZE);
+        for (int i=0; i<SIZE; ++i) {
+            Assert.assertEquals(index.getCoordinate(keys.getInt(i)), i);
+        }
+        Assert.assertFalse(index.contains(-1));
+        Assert.assertTrue(index.add(-1));
+        Assert.assertEquals(index.getCoordinate(-1), SIZE);
+    }
+
+
+    @Test()
+    public void testLongKeys() {
+        final Random random = new Random(42);
+        final Array<Long> keys = Range.of(0, SIZE).map(i -> ((long)i << 32) | random.nextInt(1000)).toArray();
+        final Index<Long> index = Index.of(keys);
+        Assert.assertEquals(index.size(), SIZE);
+        for (int i=0; i<SIZE; ++i) {
+            Assert.assertEquals(index.getCoordinate(keys.getLong(i)), i);
+        }
+        Assert.assertFalse(index.contains(-1L));
+        Assert.assertEquals(index.copy(true).getCoordinate(keys.getLong(SIZE - 1)), SIZE - 1);
+    }
+
+
+    @Test()
+    public void testStringKeys() {
+        final Array<String> keys = Range.of(0, SIZE).map(i -> "K" + i).toArray();
+        final Index<String> index = Index.of(keys);
+        Assert.assertEquals(index.size(), SIZE);
+        for (int i=0; i<SIZE; ++i) {
+            Assert.assertEquals(index.getCoordinate(keys.getValue(i)), i);
+        }
+        index.replace("K0", "X");
+        Assert.assertEquals(index.getCoordinate("X"), 0);
+        Assert.assertFalse(index.contains("K0"));
+    }
+
+
+    @Test()
+    public void testFilter() {
+        final Index<String> index = Index.of(Range.of(0, SIZE).map(i -> "K" + i).toArray());
+        final Index<String> filter = index.filter(Range.of(SIZE - 1, -1, 2).map(i -> "K" + i).toArray());
+        Assert.assertEquals(filter.size(), SIZE / 2 + 1);
+        for (int i=0; i<filter.size(); ++i) {
+            final String key = filter.getKey(i);
+            Assert.assertEquals(filter.getOrdinal(key), i);
+            Assert.assertEquals(filter.getCoordinate(key), index.getCoordinate(key));
+            Assert.assertEquals(filter.getCoordinateAt(i), index.getCoordinate(key));
+        }
+        Assert.assertFalse(filter.contains("K0"));
+    }
+
+
+    @Test(expectedExceptions={IndexException.class})
+    public void testDuplicateKeys() {
+        Index.of(Range.of(0, SIZE).map(i -> i == SIZE - 3 ? 5L : (long)i * 3).toArray());
+    }
+
+
+    @Test(expectedExceptions={IndexException.class})
+    public void testMissingFilterKey() {
+        final Index<Integer> index = Index.of(Range.of(0, SIZE).map(i -> i * 2).toArray());
+        index.filter(Range.of(0, SIZE).toArray());
+    }
+}
@@ -17,6 +17,7 @@ package com.d3x.morpheus.index;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.util.List;
 
 import org.testng.Assert;
 import org.testng.annotations.Test;
@@ -40,4 +41,47 @@ public class IndexFilterTests {
             Assert.assertEquals(mondays.getCoordinate(date), mondays.getCoordinateAt(i));
         }
     }
+
+
+    @Test()
+    public void testFilterOrdinals() {
+        final Index<Integer> ints = Index.of(Integer.class, 7, 3, 11, 5, 9, 1);
+        final Index<Long> longs = Index.of(Long.class, 70L, 30L, 110L, 50L, 90L, 10L);
+        final Index<Object> objects = Index.ofObjects("G", "C", "K", "E", "I", "A");
+        ints.sort(false, true);
+        longs.sort(false, true);
+        objects.sort(false, true);
+        final int[] ordinals = new int[] {4, 0, 2};
+        final Index<Integer> intFilter = ints.filterOrdinals(ordinals);
+        final Index<Long> longFilter = longs.filterOrdinals(ordinals);
+        final Index<Object> objectFilter = objects.filterOrdinals(ordinals);
+        Assert.assertTrue(intFilter.isFilter());
+        Assert.assertEquals(intFilter.toArray().toList(), List.of(9, 1, 5));
+        Assert.assertEquals(longFilter.toArray().toList(), List.of(90L, 10L, 50L));
+        Assert.assertEquals(objectFilter.toArray().toList(), List.of("I", "A", "E"));
+        for (int i=0; i<ordinals.length; ++i) {
+            Assert.assertEquals(intFilter.getCoordinateAt(i), ints.getCoordinateAt(ordinals[i]));
+            Assert.assertEquals(intFilter.getCoordinate(intFilter.getKey(i)), ints.getCoordinate(intFilter.getKey(i)));
+            Assert.assertEquals(longFilter.getCoordinate(longFilter.getKey(i)), longs.getCoordinate(longFilter.getKey(i)));
+            Assert.assertEquals(objectFilter.getCoordinate(objectFilter.getKey(i)), objects.getCoordinate(objectFilter.getKey(i)));
+            Assert.assertEquals(intFilter.getOrdinal(intFilter.getKey(i)), i);
+        }
+        final Index<Integer> nested = intFilter.filterOrdinals(new int[] {2, 1});
+        Assert.assertEquals(nested.toArray().toList(), List.of(5, 1));
+        Assert.assertEquals(nested.getCoordinate(5), ints.getCoordinate(5));
+        Assert.assertEquals(ints.filter(v -> v > 6).toArray().toList(), List.of(7, 9, 11));
+        Assert.assertEquals(ints.filter(v -> v > 6).getCoordinate(11), ints.getCoordinate(11));
+    }
+
+
+    @Test(expectedExceptions={IndexException.class})
+    public void testFilterOrdinalsOutOfBounds() {
+        Index.of(Integer.class, 7, 3, 11).filterOrdinals(new int[] {0, 3});
+    }
+
+
+    @Test(expectedExceptions={IndexException.class})
+    public void testFilterOrdinalsDuplicates() {
+        Index.of(Long.class, 70L, 30L, 110L).filterOrdinals(new int[] {1, 1});
+    }
 }
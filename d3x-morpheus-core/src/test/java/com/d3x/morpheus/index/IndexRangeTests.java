@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.index;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import com.d3x.morpheus.array.Array;
+import com.d3x.morpheus.frame.DataFrame;
+import com.d3x.morpheus.range.Range;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for floor, ceiling and range lookups on sorted and unsorted indexes
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+public class IndexRangeTests {
+
+
+    @DataProvider(name="indexes")
+    public Object[][] indexes() {
+        final LocalDate date = LocalDate.of(2000, 1, 3);
+        final LocalDateTime dateTime = date.atTime(9, 30);
+        final ZonedDateTime zoned = dateTime.atZone(ZoneId.of("America/New_York"));
+        return new Object[][] {
+            { Index.of(Range.of(0, 1000, 3)), 400, 500 },
+            { Index.of(Range.of(0L, 1000L, 3L)), 400L, 500L },
+            { Index.of(Range.of(date, date.plusDays(1000), Period.ofWeeks(1))), date.plusDays(400), date.plusDays(500) },
+            { Index.of(Range.of(0, 300).map(dateTime::plusHours)), dateTime.plusMinutes(1000), dateTime.plusMinutes(5000) },
+            { Index.of(Range.of(0, 300).map(zoned::plusHours)), zoned.plusMinutes(1000), zoned.plusMinutes(5000) },
+            { Index.of(Range.of(0, 300).map(i -> String.format("K%04d", i * 2))), "K0101", "K0200" },
+        };
+    }
+
+
+    @Test(dataProvider="indexes")
+    public <K extends Comparable<K>> void testFloorAndCeiling(Index<K> index, K from, K to) {
+        Assert.assertTrue(index.isSorted());
+        for (K key : List.of(from, to, index.getKey(0), index.getKey(index.size() - 1))) {
+            Assert.assertEquals(index.floorOrdinal(key), floor(index, key), "Floor of " + key);
+            Assert.assertEquals(index.ceilingOrdinal(key), ceiling(index, key), "Ceiling of " + key);
+        }
+    }
+
+
+    @Test(dataProvider="indexes")
+    public <K extends Comparable<K>> void testRange(Index<K> index, K from, K to) {
+        final Index<K> range = index.range(from, to);
+        Assert.assertTrue(range.isFilter());
+        Assert.assertTrue(range.size() > 0);
+        final List<K> expected = index.keys().filter(k -> k.compareTo(from) >= 0 && k.compareTo(to) <= 0).toList();
+        Assert.assertEquals(range.toList(), expected);
+        for (int i=0; i<range.size(); ++i) {
+            final K key = range.getKey(i);
+            Assert.assertEquals(range.getOrdinal(key), i);
+            Assert.assertEquals(range.getCoordinate(key), index.getCoordinate(key));
+            Assert.assertEquals(range.getCoordinateAt(i), index.getCoordinate(key));
+        }
+        Assert.assertFalse(range.contains(index.getKey(0)));
+        Assert.assertEquals(range.getOrdinal(index.getKey(0)), -1);
+        Assert.assertEquals(range.copy(true).toList(), expected);
+        Assert.assertEquals(range.range(expected.get(1), to).toList(), expected.subList(1, expected.size()));
+    }
+
+
+    @Test()
+    public void testEmptyRange() {
+        final Index<Integer> index = Index.of(Range.of(0, 100, 10));
+        Assert.assertEquals(index.range(11, 19).size(), 0);
+        Assert.assertEquals(index.range(200, 300).size(), 0);
+        Assert.assertEquals(index.range(-20, -10).size(), 0);
+        Assert.assertEquals(index.range(50, 40).size(), 0);
+        Assert.assertEquals(index.floorOrdinal(-1), -1);
+        Assert.assertEquals(index.ceilingOrdinal(91), -1);
+    }
+
+
+    @Test()
+    public void testUnsortedIndex() {
+        final Index<Integer> index = Index.of(Array.of(5, 1, 9, 3, 7, 11, 2));
+        Assert.assertFalse(index.isSorted());
+        Assert.assertEquals(index.floorOrdinal(6), 0);
+        Assert.assertEquals(index.ceilingOrdinal(6), 4);
+        Assert.assertEquals(index.range(2, 7).toList(), List.of(5, 3, 7, 2));
+        index.sort(false, true);
+        Assert.assertTrue(index.isSorted());
+        Assert.assertEquals(index.range(2, 7).toList(), List.of(2, 3, 5, 7));
+        index.sort(false, false);
+        Assert.assertFalse(index.isSorted());
+    }
+
+
+    @Test()
+    public void testSortedStateTracksUpdates() {
+        final Index<Integer> index = Index.of(Range.of(0, 10));
+        Assert.assertTrue(index.isSorted());
+        index.add(20);
+        Assert.assertTrue(index.isSorted());
+        index.add(15);
+        Assert.assertFalse(index.isSorted());
+        index.replace(15, 25);
+        Assert.assertTrue(index.isSorted());
+    }
+
+
+    @Test()
+    public void testBetween() {
+        final LocalDate start = LocalDate.of(2010, 1, 1);
+        final DataFrame<LocalDate,String> frame = DataFrame.ofDoubles(Range.of(start, start.plusDays(1000)), Array.of("A", "B"), v -> v.rowOrdinal());
+        final DataFrame<LocalDate,String> slice = frame.rows().between(start.plusDays(100), start.plusDays(199));
+        Assert.assertEquals(slice.rowCount(), 100);
+        Assert.assertEquals(slice.colCount(), 2);
+        Assert.assertEquals(slice.rows().firstKey(), Optional.of(start.plusDays(100)));
+        Assert.assertEquals(slice.rows().lastKey(), Optional.of(start.plusDays(199)));
+        Assert.assertEquals(slice.getDoubleAt(0, 1), 100d);
+        slice.setDoubleAt(0, 1, -1d);
+        Assert.assertEquals(frame.getDouble(start.plusDays(100), "B"), -1d);
+        Assert.assertEquals(frame.cols().between("B", "Z").colCount(), 1);
+    }
+
+
+    private static <K extends Comparable<K>> int floor(Index<K> index, K key) {
+        int result = -1;
+        for (int i=0; i<index.size(); ++i) {
+            if (index.getKey(i).compareTo(key) <= 0) result = i;
+        }
+        return result;
+    }
+
+
+    private static <K extends Comparable<K>> int ceiling(Index<K> index, K key) {
+        for (int i=0; i<index.size(); ++i) {
+            if (index.getKey(i).compareTo(key) >= 0) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.index;
+
+import com.d3x.morpheus.array.Array;
+import com.d3x.morpheus.range.Range;
+import com.d3x.morpheus.util.IntComparator;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for integer and long indexes whose keys form an arithmetic sequence
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+public class IndexSequenceTests {
+
+
+    @DataProvider(name="ranges")
+    public Object[][] ranges() {
+        return new Object[][] {
+            { 0, 1000, 1 },
+            { 5, 1000, 7 },
+            { 1000, -1000, 3 },
+            { Integer.MAX_VALUE - 100, Integer.MAX_VALUE, 1 },
+        };
+    }
+
+
+    @Test(dataProvider="ranges")
+    public void testIntCoordinates(int start, int end, int step) {
+        final Array<Integer> keys = Range.of(start, end, step).toArray();
+        final Index<Integer> index = Index.of(Range.of(start, end, step));
+        Assert.assertEquals(index.size(), keys.length());
+        for (int i=0; i<keys.length(); ++i) {
+            final int key = keys.getInt(i);
+            Assert.assertTrue(index.contains(key));
+            Assert.assertEquals(index.getCoordinate(key), i);
+            Assert.assertEquals(index.getKey(i).intValue(), key);
+        }
+        Assert.assertFalse(index.contains(end));
+        Assert.assertEquals(index.getCoordinate(start - 1), -1);
+        if (step > 1) {
+            Assert.assertFalse(index.contains(start + 1));
+        }
+    }
+
+
+    @Test(dataProvider="ranges")
+    public void testLongCoordinates(int start, int end, int step) {
+        final Array<Long> keys = Range.of((long)start, (long)end, (long)step).toArray();
+        final Index<Long> index = Index.of(keys);
+        Assert.assertEquals(index.size(), keys.length());
+        for (int i=0; i<keys.length(); ++i) {
+            final long key = keys.getLong(i);
+            Assert.assertTrue(index.contains(key));
+            Assert.assertEquals(index.getCoordinate(key), i);
+        }
+        Assert.assertFalse(index.contains((long)end));
+        Assert.assertFalse(index.contains(Long.MIN_VALUE));
+        Assert.assertFalse(index.contains(Long.MAX_VALUE));
+    }
+
+
+    @Test()
+    public void testAddInAndOutOfSequence() {
+        final Index<Integer> index = Index.of(Integer.class, 10);
+        Assert.assertEquals(index.addAll(Range.of(0, 20, 2), false), 10);
+        Assert.assertFalse(index.add(4));
+        Assert.assertTrue(index.add(20));
+        Assert.assertTrue(index.add(3));
+        Assert.assertTrue(index.add(22));
+        Assert.assertEquals(index.size(), 13);
+        Assert.assertEquals(index.getCoordinate(3), 11);
+        Assert.assertEquals(index.getCoordinate(20), 10);
+        Assert.assertEquals(index.getCoordinate(22), 12);
+        Assert.assertEquals(index.getCoordinate(18), 9);
+        Assert.assertFalse(index.contains(5));
+    }
+
+
+    @Test()
+    public void testReplace() {
+        final Index<Long> index = Index.of(Range.of(0L, 10L));
+        index.replace(5L, 50L);
+        Assert.assertFalse(index.contains(5L));
+        Assert.assertEquals(index.getCoordinate(50L), 5);
+        Assert.assertEquals(index.getCoordinate(6L), 6);
+        Assert.assertEquals(index.size(), 10);
+    }
+
+
+    @Test()
+    public void testFilterAndSort() {
+        final Index<Integer> index = Index.of(Range.of(0, 100));
+        final Index<Integer> filter = index.filter(k -> k % 10 == 0);
+        Assert.assertEquals(filter.size(), 10);
+        Assert.assertEquals(filter.getCoordinate(30), 30);
+        Assert.assertFalse(filter.contains(31));
+        index.sort(false, false);
+        Assert.assertEquals(index.getKey(0).intValue(), 99);
+        Assert.assertEquals(index.getCoordinate(99), 99);
+        index.sort(false, (IntComparator)null);
+        Assert.assertEquals(index.toList(), Range.of(0, 100).toArray().toList());
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2014-2021 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.matrix;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.d3x.morpheus.util.MorpheusException;
+import com.d3x.morpheus.vector.D3xVector;
+
+import org.testng.annotations.Test;
+import static org.testng.Assert.*;
+
+public class SparseMatrixTest {
+    private static final double TOLERANCE = 1.0E-12;
+
+    private static SparseMatrix randomSparse(int nrow, int ncol, double density, Random random) {
+        SparseMatrix matrix = SparseMatrix.create(nrow, ncol);
+
+        for (int i = 0; i < nrow; ++i)
+            for (int j = 0; j < ncol; ++j)
+                if (random.nextDouble() < density)
+                    matrix.set(i, j, random.nextDouble() - 0.5);
+
+        return matrix;
+    }
+
+    @Test
+    public void testSetGet() {
+        SparseMatrix matrix = SparseMatrix.create(3, 4);
+        matrix.set(1, 3, 13.0);
+        matrix.set(1, 0, 10.0);
+        matrix.set(1, 2, 12.0);
+        matrix.set(2, 1, 21.0);
+
+        assertEquals(matrix.nnz(), 4);
+        assertEquals(matrix.nnz(1), 3);
+        assertEquals(matrix.get(1, 0), 10.0, TOLERANCE);
+        assertEquals(matrix.get(1, 1), 0.0, TOLERANCE);
+        assertEquals(matrix.get(1, 2), 12.0, TOLERANCE);
+        assertEquals(matrix.get(1, 3), 13.0, TOLERANCE);
+
+        matrix.add(1, 2, 1.0);
+        matrix.multiply(2, 1, 2.0);
+        assertEquals(matrix.get(1, 2), 13.0, TOLERANCE);
+        assertEquals(matrix.get(2, 1), 42.0, TOLERANCE);
+
+        matrix.set(1, 0, 0.0);
+        assertEquals(matrix.nnz(), 3);
+        assertEquals(matrix.get(1, 0), 0.0, TOLERANCE);
+    }
+
+    @Test
+    public void testOrderedIteration() {
+        SparseMatrix matrix = SparseMatrix.create(3, 5);
+        matrix.set(2, 4, 1.0);
+        matrix.set(0, 3, 2.0);
+        matrix.set(2, 0, 3.0);
+        matrix.set(0, 1, 4.0);
+
+        List<String> entries = new ArrayList<>();
+        matrix.forEachNonZero((row, col, value) -> entries.add(row + ":" + col));
+        assertEquals(entries, List.of("0:1", "0:3", "2:0", "2:4"));
+    }
+
+    @Test(expectedExceptions = MorpheusException.class)
+    public void testInvalidIndex() {
+        SparseMatrix.create(3, 4).set(3, 0, 1.0);
+    }
+
+    @Test
+    public void testTimesVector() {
+        Random random = new Random(20211001);
+        SparseMatrix sparse = randomSparse(50, 80, 0.05, random);
+        D3xMatrix dense = D3xMatrix.copyOf(sparse.toArray());
+        D3xVector x = D3xVector.random(80, random);
+
+        assertTrue(sparse.times(x).equalsVector(dense.times(x)));
+    }
+
+    @Test
+    public void testTimesMatrix() {
+        Random random = new Random(20211002);
+        SparseMatrix A = randomSparse(40, 60, 0.05, random);
+        SparseMatrix B = randomSparse(60, 30, 0.05, random);
+        D3xMatrix denseA = D3xMatrix.copyOf(A.toArray());
+        D3xMatrix denseB = D3xMatrix.copyOf(B.toArray());
+        D3xMatrix expected = denseA.times(denseB);
+
+        D3xMatrix sparseProduct = A.times(B);
+        D3xMatrix denseProduct = A.times(denseB);
+
+        assertTrue(sparseProduct instanceof SparseMatrix);
+        assertTrue(sparseProduct.equalsMatrix(expected));
+        assertTrue(denseProduct.equalsMatrix(expected));
+    }
+
+    @Test
+    public void testPlusMinus() {
+        Random random = new Random(20211003);
+        SparseMatrix A = randomSparse(20, 30, 0.1, random);
+        SparseMatrix B = randomSparse(20, 30, 0.1, random);
+        D3xMatrix denseA = D3xMatrix.copyOf(A.toArray());
+        D3xMatrix denseB = D3xMatrix.copyOf(B.toArray());
+
+        assertTrue(A.plus(B).equalsMatrix(denseA.plus(denseB)));
+        assertTrue(A.minus(B).equalsMatrix(denseA.minus(denseB)));
+        assertTrue(A.plus(denseB).equalsMatrix(denseA.plus(denseB)));
+        assertTrue(A.minus(denseB).equalsMatrix(denseA.minus(denseB)));
+        assertTrue(A.plus(2.0).equalsMatrix(denseA.plus(2.0)));
+        assertEquals(((SparseMatrix) A.minus(A)).nnz(), 0);
+    }
+
+    @Test
+    public void testTranspose() {
+        Random random = new Random(20211004);
+        SparseMatrix A = randomSparse(25, 35, 0.1, random);
+        SparseMatrix T = A.transpose();
+
+        assertEquals(T.nrow(), 35);
+        assertEquals(T.ncol(), 25);
+        assertEquals(T.nnz(), A.nnz());
+        assertTrue(T.equalsMatrix(D3xMatrix.copyOf(A.toArray()).transpose()));
+        assertTrue(T.transpose().equalsMatrix(A));
+    }
+
+    @Test
+    public void testSums() {
+        Random random = new Random(20211005);
+        SparseMatrix A = randomSparse(30, 40, 0.1, random);
+        D3xMatrix dense = D3xMatrix.copyOf(A.toArray());
+
+        assertTrue(A.rowSums().equalsVector(dense.times(D3xVector.ones(40))));
+        assertTrue(A.colSums().equalsVector(dense.transpose().times(D3xVector.ones(30))));
+    }
+
+    @Test
+    public void testParallelKernels() {
+        Random random = new Random(20211006);
+        SparseMatrix A = randomSparse(1000, 2000, 0.06, random);
+        SparseMatrix B = randomSparse(2000, 100, 0.01, random);
+        D3xMatrix denseA = D3xMatrix.copyOf(A.toArray());
+        D3xVector x = D3xVector.random(2000, random);
+
+        assertTrue(A.nnz() > 100000);
+        assertTrue(A.times(x).equalsVector(denseA.times(x)));
+        assertTrue(A.times(B).equalsMatrix(denseA.times(D3xMatrix.copyOf(B.toArray()))));
+        assertTrue(A.colSums().equalsVector(denseA.transpose().times(D3xVector.ones(1000))));
+    }
+
+    @Test
+    public void testCopy() {
+        SparseMatrix A = SparseMatrix.create(2, 2);
+        A.set(0, 1, 5.0);
+        SparseMatrix copy = A.copy();
+        copy.set(0, 1, 6.0);
+        copy.multiplyInPlace(2.0);
+
+        assertEquals(A.get(0, 1), 5.0, TOLERANCE);
+        assertEquals(copy.get(0, 1), 12.0, TOLERANCE);
+        assertTrue(SparseMatrix.copyOf(D3xMatrix.copyOf(A.toArray())).equalsMatrix(A));
+    }
+}
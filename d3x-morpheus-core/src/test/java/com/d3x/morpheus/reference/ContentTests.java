@@ -21,8 +21,11 @@ import org.testng.Assert;
 import org.testng.annotations.Test;
 
 import com.d3x.morpheus.array.Array;
+import com.d3x.morpheus.array.ArrayStyle;
 import com.d3x.morpheus.frame.DataFrame;
 import com.d3x.morpheus.frame.DataFrameCursor;
+import com.d3x.morpheus.frame.DataFrameException;
+import com.d3x.morpheus.frame.DataFrameOptions;
 import com.d3x.morpheus.index.Index;
 import com.d3x.morpheus.range.Range;
 
@@ -58,4 +61,40 @@ public class ContentTests {
         }
     }
 
+
+    @Test()
+    public void testStorageConversion() {
+        final Index<LocalDate> rowKeys = Range.ofLocalDates("2000-01-01", "2005-01-01").toIndex(LocalDate.class);
+        final Index<String> colKeys = Index.of(Array.ofObjects("C1", "C2", "C3"));
+        final XDataFrame<LocalDate,String> frame = (XDataFrame<LocalDate,String>)DataFrame.ofDoubles(rowKeys, colKeys);
+        frame.cols().add("S", Array.of(Double.class, frame.rowCount(), 0.1f));
+        Assert.assertEquals(frame.content().getColArray("S").style(), ArrayStyle.SPARSE);
+        final DataFrameCursor<LocalDate,String> cursor = frame.cursor().col("S");
+        frame.applyDoubles(v -> v.rowOrdinal() * 0.5d);
+        Assert.assertEquals(frame.content().getColArray("S").style(), ArrayStyle.DENSE);
+        cursor.rowAt(10).setDouble(-1d);
+        Assert.assertEquals(frame.cols().getDouble("S", 10), -1d, 0d);
+        Assert.assertEquals(frame.col("S").getDoubleAt(11), 5.5d, 0d);
+        frame.applyDoubles(v -> v.rowOrdinal() % 100 == 0 ? 1d : Double.NaN);
+        Assert.assertEquals(frame.content().getColArray("C1").style(), ArrayStyle.DENSE);
+        frame.compact();
+        frame.cols().keys().forEach(colKey -> {
+            Assert.assertEquals(frame.content().getColArray(colKey).style(), ArrayStyle.SPARSE, "Sparse column " + colKey);
+        });
+        for (int i=0; i<frame.rowCount(); ++i) {
+            for (int j=0; j<frame.colCount(); ++j) {
+                final double expected = i % 100 == 0 ? 1d : Double.NaN;
+                Assert.assertEquals(frame.getDoubleAt(i, j), expected, 0d, "Value at " + i + ", " + j);
+            }
+        }
+        cursor.rowAt(1).setDouble(2d);
+        Assert.assertEquals(frame.cols().getDouble("S", 1), 2d, 0d);
+    }
+
+
+    @Test(expectedExceptions={DataFrameException.class})
+    public void testStorageThresholdsInvalid() {
+        DataFrameOptions.setStorageThresholds(0.6f, 0.5f);
+    }
+
 }
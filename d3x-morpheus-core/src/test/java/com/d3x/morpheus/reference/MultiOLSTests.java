@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.reference;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import com.d3x.morpheus.frame.DataFrame;
+import com.d3x.morpheus.frame.DataFrameLeastSquares.Field;
+import com.d3x.morpheus.frame.DataFrameMultiLeastSquares;
+import com.d3x.morpheus.frame.DataFrameMultiLeastSquares.Solver;
+import com.d3x.morpheus.frame.DataFrameRegression;
+import com.d3x.morpheus.range.Range;
+import com.d3x.morpheus.util.Collect;
+
+import static com.d3x.morpheus.util.Asserts.assertEquals;
+
+/**
+ * Unit tests for multiple response Ordinary Least Squares Regression Analysis
+ *
+ * @author  Xavier Witdouck
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ */
+public class MultiOLSTests {
+
+    private static final List<String> regressors = Collect.asList("F1", "F2", "F3");
+    private static final List<String> regressands = Collect.asList("R1", "R2", "R3", "R4");
+
+
+    @DataProvider(name="solver")
+    public Object[][] solver() {
+        return new Object[][] { { Solver.QR }, { Solver.SVD } };
+    }
+
+
+    /**
+     * Returns a cross-section of factor exposures and asset returns
+     * @param seed  the random seed
+     * @return      the frame of exposures and returns
+     */
+    private static DataFrame<Integer,String> createFrame(long seed) {
+        final Random random = new Random(seed);
+        final List<String> columns = Collect.asList("F1", "F2", "F3", "R1", "R2", "R3", "R4");
+        final DataFrame<Integer,String> frame = DataFrame.ofDoubles(Range.of(0, 200), columns);
+        frame.rows().forEach(row -> {
+            final double f1 = random.nextGaussian();
+            final double f2 = random.nextGaussian();
+            final double f3 = random.nextGaussian();
+            row.setDouble("F1", f1);
+            row.setDouble("F2", f2);
+            row.setDouble("F3", f3);
+            row.setDouble("R1", 0.01 + 1.0 * f1 + 0.2 * f2 - 0.1 * f3 + 0.05 * random.nextGaussian());
+            row.setDouble("R2", -0.02 + 0.3 * f1 + 1.5 * f2 + 0.0 * f3 + 0.05 * random.nextGaussian());
+            row.setDouble("R3", 0.00 - 0.5 * f1 + 0.1 * f2 + 0.8 * f3 + 0.05 * random.nextGaussian());
+            row.setDouble("R4", random.nextGaussian());
+        });
+        return frame;
+    }
+
+
+    @Test(dataProvider = "solver")
+    public void testAgainstOLS(Solver solver) {
+        final DataFrame<Integer,String> frame = createFrame(20181002);
+        frame.regress().multi(regressands, regressors, true, model -> {
+            model.withSolver(solver);
+            final DataFrame<String,String> betas = model.getBetas();
+            final DataFrame<String,String> intercept = model.getIntercept();
+            final DataFrame<Integer,String> residuals = model.getResiduals();
+            Assert.assertEquals(betas.rows().keyArray().toList(), regressands);
+            Assert.assertEquals(betas.cols().keyArray().toList(), regressors);
+            Assert.assertEquals(residuals.rowCount(), frame.rowCount());
+            for (String regressand : regressands) {
+                frame.regress().ols(regressand, regressors, true, ols -> {
+                    assertEquals(intercept.getDouble(regressand, "Intercept"), ols.getInterceptValue(Field.PARAMETER), 1e-8);
+                    assertEquals(model.getRSquared(regressand), ols.getRSquared(), 1e-8);
+                    for (String regressor : regressors) {
+                        assertEquals(betas.getDouble(regressand, regressor), ols.getBetaValue(regressor, Field.PARAMETER), 1e-8);
+                    }
+                    final DataFrame<Integer,String> expected = ols.getResiduals();
+                    for (int i = 0; i < frame.rowCount(); ++i) {
+                        assertEquals(residuals.getDoubleAt(i, residuals.cols().ordinal(regressand)), expected.getDoubleAt(i, 0), 1e-8);
+                    }
+                    return Optional.empty();
+                });
+            }
+            return Optional.empty();
+        });
+    }
+
+
+    @Test()
+    public void testMissingValues() {
+        final DataFrame<Integer,String> frame = createFrame(20181003);
+        frame.setDouble(5, "F1", Double.NaN);
+        frame.setDouble(10, "R2", Double.NaN);
+        frame.regress().multi(regressands, regressors, true, model -> {
+            final DataFrame<Integer,String> residuals = model.getResiduals();
+            Assert.assertTrue(Double.isNaN(residuals.getDouble(5, "R1")));
+            Assert.assertTrue(Double.isNaN(residuals.getDouble(10, "R2")));
+            Assert.assertFalse(Double.isNaN(residuals.getDouble(10, "R1")));
+            final DataFrame<Integer,String> complete = frame.rows().select(row -> row.ordinal() != 5 && row.ordinal() != 10);
+            complete.regress().ols("R2", regressors, true, ols -> {
+                assertEquals(model.getBetas().getDouble("R2", "F2"), ols.getBetaValue("F2", Field.PARAMETER), 1e-8);
+                return Optional.empty();
+            });
+            return Optional.empty();
+        });
+    }
+
+
+    @Test()
+    public void testPanel() {
+        final Map<LocalDate,DataFrame<Integer,String>> panel = new LinkedHashMap<>();
+        final LocalDate start = LocalDate.of(2018, 1, 1);
+        for (int i = 0; i < 20; ++i) {
+            panel.put(start.plusDays(i), createFrame(i));
+        }
+        final Map<LocalDate,DataFrameMultiLeastSquares<Integer,String>> models = DataFrameRegression.multi(panel, regressands, regressors, true, true);
+        Assert.assertEquals(Collect.asList(models.keySet()), Collect.asList(panel.keySet()));
+        models.forEach((date, model) -> {
+            final DataFrame<Integer,String> frame = panel.get(date);
+            frame.regress().ols("R1", regressors, true, ols -> {
+                assertEquals(model.getBetas().getDouble("R1", "F1"), ols.getBetaValue("F1", Field.PARAMETER), 1e-8);
+                return Optional.empty();
+            });
+        });
+    }
+}
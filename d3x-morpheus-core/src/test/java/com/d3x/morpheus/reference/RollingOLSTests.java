@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.reference;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import com.d3x.morpheus.frame.DataFrame;
+import com.d3x.morpheus.frame.DataFrameLeastSquares.Field;
+import com.d3x.morpheus.range.Range;
+import com.d3x.morpheus.util.Collect;
+
+import static com.d3x.morpheus.util.Asserts.assertEquals;
+
+/**
+ * Unit tests for rolling window Ordinary Least Squares Regression Analysis
+ *
+ * @author  Xavier Witdouck
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ */
+public class RollingOLSTests {
+
+    @DataProvider(name="parallel")
+    public Object[][] parallel() {
+        return new Object[][] { {false}, {true} };
+    }
+
+
+    /**
+     * Returns a frame with two regressors and several regressands with known linear dependence
+     * @return  the frame of test data
+     */
+    private static DataFrame<Integer,String> createFrame() {
+        final Random random = new Random(20181001);
+        final List<String> columns = Collect.asList("X1", "X2", "Y1", "Y2", "Y3");
+        final DataFrame<Integer,String> frame = DataFrame.ofDoubles(Range.of(0, 500), columns);
+        frame.rows().forEach(row -> {
+            final double x1 = random.nextGaussian();
+            final double x2 = random.nextGaussian();
+            row.setDouble("X1", x1);
+            row.setDouble("X2", x2);
+            row.setDouble("Y1", 1d + 2d * x1 - 0.5d * x2 + 0.1d * random.nextGaussian());
+            row.setDouble("Y2", -3d + 0.5d * x1 + 4d * x2 + 0.5d * random.nextGaussian());
+            row.setDouble("Y3", 0.2d * x1 + random.nextGaussian());
+        });
+        return frame;
+    }
+
+
+    @Test(dataProvider = "parallel")
+    public void testAgainstOLS(boolean parallel) {
+        final int windowSize = 60;
+        final DataFrame<Integer,String> source = createFrame();
+        final DataFrame<Integer,String> frame = parallel ? source.parallel() : source.sequential();
+        final List<String> regressands = Collect.asList("Y1", "Y2", "Y3");
+        final List<String> regressors = Collect.asList("X1", "X2");
+        frame.regress().rolling(regressands, regressors, windowSize, true, model -> {
+            final DataFrame<Integer,String> intercept = model.getIntercept(Field.PARAMETER);
+            final DataFrame<Integer,String> beta1 = model.getBetas("X1", Field.PARAMETER);
+            final DataFrame<Integer,String> beta2 = model.getBetas("X2", Field.PARAMETER);
+            final DataFrame<Integer,String> stdErr1 = model.getBetas("X1", Field.STD_ERROR);
+            final DataFrame<Integer,String> rSquared = model.getRSquared();
+            final DataFrame<Integer,String> stdError = model.getStdError();
+            Assert.assertEquals(intercept.rowCount(), frame.rowCount());
+            Assert.assertEquals(intercept.colCount(), regressands.size());
+            for (int i = 0; i < windowSize - 1; ++i) {
+                Assert.assertTrue(Double.isNaN(beta1.getDoubleAt(i, 0)));
+            }
+            for (int end = windowSize - 1; end < frame.rowCount(); end += 7) {
+                final int rowIndex = end;
+                final DataFrame<Integer,String> window = frame.rows().select(end - windowSize + 1, windowSize);
+                for (String regressand : regressands) {
+                    window.regress().ols(regressand, regressors, true, ols -> {
+                        assertEquals(intercept.getDouble(rowIndex, regressand), ols.getInterceptValue(Field.PARAMETER), 1e-8);
+                        assertEquals(beta1.getDouble(rowIndex, regressand), ols.getBetaValue("X1", Field.PARAMETER), 1e-8);
+                        assertEquals(beta2.getDouble(rowIndex, regressand), ols.getBetaValue("X2", Field.PARAMETER), 1e-8);
+                        assertEquals(stdErr1.getDouble(rowIndex, regressand), ols.getBetaValue("X1", Field.STD_ERROR), 1e-8);
+                        assertEquals(rSquared.getDouble(rowIndex, regressand), ols.getRSquared(), 1e-8);
+                        assertEquals(stdError.getDouble(rowIndex, regressand), ols.getStdError(), 1e-8);
+                        return Optional.empty();
+                    });
+                }
+            }
+            return Optional.empty();
+        });
+    }
+
+
+    @Test()
+    public void testMissingValues() {
+        final int windowSize = 20;
+        final DataFrame<Integer,String> frame = createFrame();
+        frame.setDouble(100, "Y1", Double.NaN);
+        frame.regress().rolling(Collect.asList("Y1", "Y2"), Collect.asList("X1"), windowSize, false, model -> {
+            final DataFrame<Integer,String> betas = model.getBetas("X1", Field.PARAMETER);
+            for (int i = 100; i < 100 + windowSize; ++i) {
+                Assert.assertTrue(Double.isNaN(betas.getDouble(i, "Y1")), "Window contains NaN at " + i);
+                Assert.assertFalse(Double.isNaN(betas.getDouble(i, "Y2")), "Window is complete at " + i);
+            }
+            Assert.assertFalse(Double.isNaN(betas.getDouble(99, "Y1")));
+            Assert.assertFalse(Double.isNaN(betas.getDouble(100 + windowSize, "Y1")));
+            return Optional.empty();
+        });
+    }
+
+
+    @Test(expectedExceptions = { com.d3x.morpheus.frame.DataFrameException.class })
+    public void testWindowTooSmall() {
+        final DataFrame<Integer,String> frame = createFrame();
+        frame.regress().rolling(Collect.asList("Y1"), Collect.asList("X1", "X2"), 3, true, model -> Optional.of(model.getRSquared()));
+    }
+}
@@ -741,4 +741,93 @@ public class SortingTests {
 
 
 
+    @Test(dataProvider="order")
+    public void testSortRowsIsStable(boolean ascending, boolean parallel) {
+        var rows = Range.of(0, 200000);
+        var frame = DataFrame.of(rows, String.class, columns -> {
+            columns.add("Group", Integer.class, v -> v.rowOrdinal() % 7);
+            columns.add("Value", Double.class, v -> v.rowOrdinal() % 11 == 0 ? Double.NaN : (v.rowOrdinal() % 13) - 6d);
+            columns.add("Date", LocalDate.class, v -> LocalDate.of(2000, 1, 1).plusDays(v.rowOrdinal() % 5));
+        });
+        var source = parallel ? frame.rows().parallel() : frame.rows().sequential();
+        var sorted = source.sort(ascending, List.of("Group", "Value", "Date"));
+        var multiplier = ascending ? 1 : -1;
+        Assert.assertEquals(sorted.rowCount(), frame.rowCount());
+        for (int i=1; i<sorted.rowCount(); ++i) {
+            var group = multiplier * Integer.compare(sorted.getIntAt(i-1, 0), sorted.getIntAt(i, 0));
+            var value = multiplier * Double.compare(sorted.getDoubleAt(i-1, 1), sorted.getDoubleAt(i, 1));
+            var date = multiplier * sorted.<LocalDate>getValueAt(i-1, 2).compareTo(sorted.getValueAt(i, 2));
+            var key = Integer.compare(sorted.rows().key(i-1), sorted.rows().key(i));
+            Assert.assertTrue(group < 0 || (group == 0 && value < 0) || (group == 0 && value == 0 && date < 0) || (group == 0 && value == 0 && date == 0 && key < 0), "Rows in order at " + i);
+        }
+        for (int i=0; i<sorted.rowCount(); ++i) {
+            var rowKey = sorted.rows().key(i);
+            Assert.assertEquals(sorted.rows().ordinal(rowKey), i);
+            Assert.assertEquals(sorted.getDouble(rowKey, "Value"), frame.getDouble(rowKey, "Value"));
+        }
+    }
+
+
+    @Test(dataProvider="order")
+    public void testTopAndBottomRows(boolean largest, boolean parallel) {
+        var rows = Range.of(0, 100000);
+        var frame = DataFrame.of(rows, String.class, columns -> {
+            columns.add("Group", Integer.class, v -> v.rowOrdinal() % 7);
+            columns.add("Value", Double.class, v -> v.rowOrdinal() % 11 == 0 ? Double.NaN : (v.rowOrdinal() % 1013) - 500d);
+            columns.add("Label", String.class, v -> "L" + (v.rowOrdinal() % 997));
+        });
+        var before = frame.rows().keyArray();
+        var source = parallel ? frame.rows().parallel() : frame.rows().sequential();
+        var keys = List.of("Group", "Value");
+        var selected = largest ? source.top(100, keys) : source.bottom(100, keys);
+        var complete = frame.rows().select(row -> !Double.isNaN(row.getDouble("Value")));
+        var expected = complete.rows().sort(!largest, keys).rows().select(0, 100);
+        Assert.assertEquals(selected.rowCount(), 100);
+        Assert.assertEquals(selected.rows().keyArray(), expected.rows().keyArray());
+        Assert.assertEquals(frame.rows().keyArray(), before);
+        var labels = largest ? source.top(10, "Label") : source.bottom(10, "Label");
+        var sortedLabels = frame.rows().sort(!largest, "Label").rows().select(0, 10);
+        for (int i=0; i<10; ++i) {
+            Assert.assertEquals(labels.<String>getValueAt(i, 2), sortedLabels.<String>getValueAt(i, 2));
+        }
+        Assert.assertEquals(source.top(0, "Value").rowCount(), 0);
+        Assert.assertEquals(source.top(200000, "Value").rowCount(), complete.rowCount());
+        Assert.assertEquals(source.bottom(200000, "Value").rowCount(), complete.rowCount());
+    }
+
+
+    @Test(dataProvider="args1")
+    public void testTopAndBottomExcludeNaN(boolean parallel) {
+        var values = new double[] {3d, Double.NaN, 7d, -2d, Double.NaN, 5d};
+        var frame = DataFrame.ofDoubles(Range.of(0, values.length), List.of("Value", "Other"), v -> {
+            var ordinal = v.rowOrdinal();
+            return v.colOrdinal() == 0 ? values[ordinal] : ordinal == 2 ? Double.NaN : ordinal;
+        });
+        var source = parallel ? frame.rows().parallel() : frame.rows().sequential();
+        Assert.assertEquals(source.top(2, "Value").rows().keyArray().toList(), List.of(2, 5));
+        Assert.assertEquals(source.bottom(2, "Value").rows().keyArray().toList(), List.of(3, 0));
+        Assert.assertEquals(source.top(10, "Value").rows().keyArray().toList(), List.of(2, 5, 0, 3));
+        Assert.assertEquals(source.top(10, List.of("Value", "Other")).rows().keyArray().toList(), List.of(5, 0, 3));
+        var transposed = frame.transpose();
+        var cols = parallel ? transposed.cols().parallel() : transposed.cols().sequential();
+        Assert.assertEquals(cols.top(2, "Value").cols().keyArray().toList(), List.of(2, 5));
+        Assert.assertEquals(cols.bottom(10, "Value").cols().keyArray().toList(), List.of(3, 0, 5, 2));
+    }
+
+
+    @Test(dataProvider="args1")
+    public void testTopAndBottomColumns(boolean parallel) {
+        var rows = Range.of(0, 10).map(i -> "R" + i);
+        var cols = Range.of(0, 500).map(i -> "C" + i);
+        var frame = DataFrame.ofDoubles(rows, cols, v -> v.colOrdinal() % 3 == 0 ? -v.colOrdinal() : v.colOrdinal());
+        var source = parallel ? frame.cols().parallel() : frame.cols().sequential();
+        var top = source.top(3, "R0");
+        var bottom = source.bottom(3, "R0");
+        Assert.assertEquals(top.cols().keyArray().toList(), List.of("C499", "C497", "C496"));
+        Assert.assertEquals(bottom.cols().keyArray().toList(), List.of("C498", "C495", "C492"));
+        Assert.assertEquals(top.rowCount(), frame.rowCount());
+        Assert.assertEquals(frame.cols().key(0), "C0");
+    }
+
+
 }
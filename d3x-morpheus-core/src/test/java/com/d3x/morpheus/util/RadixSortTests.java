@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.util;
+
+import java.util.Random;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for the radix sort
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+public class RadixSortTests {
+
+
+    @DataProvider(name="args")
+    public Object[][] getArgs() {
+        return new Object[][] {
+            { 0, false },
+            { 1, false },
+            { 1000, false },
+            { 1000, true },
+            { 500000, false },
+            { 500000, true },
+        };
+    }
+
+
+    @Test(dataProvider="args")
+    public void testSortLongs(int size, boolean parallel) {
+        final long[] keys = new Random(1).longs(size).toArray();
+        final int[] order = RadixSort.sort(keys, parallel);
+        Assert.assertEquals(order.length, size);
+        for (int i=1; i<size; ++i) {
+            Assert.assertTrue(keys[order[i-1]] <= keys[order[i]], "Keys in ascending order at " + i);
+        }
+    }
+
+
+    @Test(dataProvider="args")
+    public void testSortIsStable(int size, boolean parallel) {
+        final Random random = new Random(2);
+        final long[] group = random.ints(size, -3, 3).asLongStream().toArray();
+        final long[] value = random.ints(size, 0, 5).asLongStream().toArray();
+        final int[] order = RadixSort.sort(new long[][] { group, value }, parallel);
+        for (int i=1; i<size; ++i) {
+            final int i1 = order[i-1];
+            final int i2 = order[i];
+            final int c1 = Long.compare(group[i1], group[i2]);
+            final int c2 = Long.compare(value[i1], value[i2]);
+            Assert.assertTrue(c1 < 0 || (c1 == 0 && c2 < 0) || (c1 == 0 && c2 == 0 && i1 < i2), "Keys in order at " + i);
+        }
+    }
+
+
+    @Test()
+    public void testSortableDoubles() {
+        final double[] values = { Double.NaN, 2d, -0d, Double.NEGATIVE_INFINITY, 0d, -1.5d, Double.POSITIVE_INFINITY, -Double.MIN_VALUE };
+        final long[] keys = new long[values.length];
+        for (int i=0; i<values.length; ++i) {
+            keys[i] = RadixSort.toSortable(values[i]);
+        }
+        final int[] order = RadixSort.sort(keys, false);
+        for (int i=1; i<values.length; ++i) {
+            Assert.assertEquals(Double.compare(values[order[i-1]], values[order[i]]), -1, "Doubles in order at " + i);
+        }
+    }
+}
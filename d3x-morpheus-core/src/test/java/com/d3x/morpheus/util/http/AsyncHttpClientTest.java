@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.util.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for the AsyncHttpClient against an in-process HTTP server
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+public class AsyncHttpClientTest {
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private final AtomicInteger flakyCount = new AtomicInteger();
+    private final AtomicInteger throttleCount = new AtomicInteger();
+    private final AtomicInteger unavailableCount = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger maxActive = new AtomicInteger();
+
+
+    @BeforeClass()
+    public void startServer() throws IOException {
+        this.serverExecutor = Executors.newFixedThreadPool(16);
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        this.server.setExecutor(serverExecutor);
+        this.server.createContext("/hello", exchange -> send(exchange, 200, "Hello World"));
+        this.server.createContext("/missing", exchange -> send(exchange, 404, "Not Found"));
+        this.server.createContext("/flaky", exchange -> {
+            final int count = flakyCount.incrementAndGet();
+            send(exchange, count <= 2 ? 503 : 200, "attempt-" + count);
+        });
+        this.server.createContext("/unavailable", exchange -> {
+            final int count = unavailableCount.incrementAndGet();
+            send(exchange, 503, "attempt-" + count);
+        });
+        this.server.createContext("/throttle", exchange -> {
+            final int count = throttleCount.incrementAndGet();
+            if (count == 1) exchange.getResponseHeaders().add("Retry-After", "0");
+            send(exchange, count == 1 ? 429 : 200, "attempt-" + count);
+        });
+        this.server.createContext("/slow", exchange -> {
+            final int count = active.incrementAndGet();
+            maxActive.accumulateAndGet(count, Math::max);
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } finally {
+                active.decrementAndGet();
+            }
+            send(exchange, 200, exchange.getRequestURI().getQuery());
+        });
+        this.server.start();
+    }
+
+
+    @AfterClass()
+    public void stopServer() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+
+    private void send(HttpExchange exchange, int status, String text) throws IOException {
+        final String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        final boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        if (gzip) {
+            final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            try (GZIPOutputStream os = new GZIPOutputStream(buffer)) {
+                os.write(bytes);
+            }
+            bytes = buffer.toByteArray();
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+        }
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+
+
+    private String url(String path) {
+        return "http://localhost:" + server.getAddress().getPort() + path;
+    }
+
+
+    private AsyncHttpClient createClient(int maxConcurrency) {
+        return new AsyncHttpClient(options -> {
+            options.setMaxConcurrency(maxConcurrency);
+            options.setInitialBackoff(Duration.ofMillis(10));
+        });
+    }
+
+
+    private Optional<String> readText(HttpResponse response) {
+        try {
+            return Optional.of(new String(response.getStream().readAllBytes(), StandardCharsets.UTF_8));
+        } catch (IOException ex) {
+            throw new RuntimeException("Failed to read response", ex);
+        }
+    }
+
+
+    @Test()
+    public void testGet() {
+        final AsyncHttpClient client = createClient(4);
+        final Optional<String> result = client.doGet(request -> {
+            request.setUrl(url("/hello"));
+            request.setResponseHandler(this::readText);
+        });
+        Assert.assertEquals(result, Optional.of("Hello World"));
+    }
+
+
+    @Test()
+    public void testRetryOnServerError() {
+        flakyCount.set(0);
+        final AsyncHttpClient client = createClient(4);
+        final Optional<String> result = client.<String>doGetAsync(request -> {
+            request.setUrl(url("/flaky"));
+            request.setResponseHandler(this::readText);
+        }).join();
+        Assert.assertEquals(result, Optional.of("attempt-3"));
+        Assert.assertEquals(flakyCount.get(), 3);
+    }
+
+
+    @Test()
+    public void testRetryOnThrottle() {
+        throttleCount.set(0);
+        final AsyncHttpClient client = createClient(4);
+        final Optional<String> result = client.doGet(request -> {
+            request.setUrl(url("/throttle"));
+            request.setResponseHandler(this::readText);
+        });
+        Assert.assertEquals(result, Optional.of("attempt-2"));
+    }
+
+
+    @Test()
+    public void testRetriesDisabled() {
+        try {
+            createClient(4).<String>doGet(request -> {
+                request.setUrl(url("/unavailable"));
+                request.setRetryCount(0);
+                request.setResponseHandler(this::readText);
+            });
+            Assert.fail("Expected the request to fail without retries");
+        } catch (HttpException ex) {
+            Assert.assertEquals(unavailableCount.get(), 1);
+        }
+    }
+
+
+    @Test(expectedExceptions = HttpException.class)
+    public void testClientError() {
+        createClient(4).<String>doGet(request -> {
+            request.setUrl(url("/missing"));
+            request.setResponseHandler(this::readText);
+        });
+    }
+
+
+    @Test()
+    public void testBoundedConcurrency() {
+        maxActive.set(0);
+        final AsyncHttpClient client = createClient(3);
+        final List<CompletableFuture<Optional<String>>> futures = IntStream.range(0, 12).mapToObj(i -> {
+            return client.<String>doGetAsync(request -> {
+                request.setUrl(url("/slow?id=" + i));
+                request.setResponseHandler(this::readText);
+            });
+        }).collect(Collectors.toList());
+        for (int i = 0; i < futures.size(); ++i) {
+            Assert.assertEquals(futures.get(i).join(), Optional.of("id=" + i));
+        }
+        Assert.assertTrue(maxActive.get() <= 3, "Max concurrent requests: " + maxActive.get());
+        Assert.assertTrue(maxActive.get() >= 2, "Max concurrent requests: " + maxActive.get());
+    }
+}
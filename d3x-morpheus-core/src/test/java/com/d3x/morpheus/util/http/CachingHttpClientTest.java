@@ -0,0 +1,249 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.util.http;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for the CachingHttpClient and HttpCache against an in-process HTTP server
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+public class CachingHttpClientTest {
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private final AtomicInteger etagCount = new AtomicInteger();
+    private final AtomicInteger notModifiedCount = new AtomicInteger();
+    private final AtomicInteger maxAgeCount = new AtomicInteger();
+    private final AtomicInteger noStoreCount = new AtomicInteger();
+    private final AtomicInteger plainCount = new AtomicInteger();
+
+
+    @BeforeClass()
+    public void startServer() throws IOException {
+        this.serverExecutor = Executors.newFixedThreadPool(4);
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        this.server.setExecutor(serverExecutor);
+        this.server.createContext("/etag", exchange -> {
+            etagCount.incrementAndGet();
+            exchange.getResponseHeaders().add("ETag", "\"v1\"");
+            exchange.getResponseHeaders().add("Cache-Control", "no-cache");
+            if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModifiedCount.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+            } else {
+                send(exchange, "etag-body");
+            }
+        });
+        this.server.createContext("/max-age", exchange -> {
+            final int count = maxAgeCount.incrementAndGet();
+            exchange.getResponseHeaders().add("Cache-Control", "max-age=60");
+            send(exchange, "max-age-" + count);
+        });
+        this.server.createContext("/no-store", exchange -> {
+            final int count = noStoreCount.incrementAndGet();
+            exchange.getResponseHeaders().add("Cache-Control", "no-store");
+            send(exchange, "no-store-" + count);
+        });
+        this.server.createContext("/plain", exchange -> {
+            final int count = plainCount.incrementAndGet();
+            send(exchange, "plain-" + count);
+        });
+        this.server.createContext("/item", exchange -> {
+            exchange.getResponseHeaders().add("Cache-Control", "max-age=60");
+            send(exchange, String.format("%-10s", exchange.getRequestURI().getQuery()));
+        });
+        this.server.start();
+    }
+
+
+    @AfterClass()
+    public void stopServer() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+
+    private void send(HttpExchange exchange, String text) throws IOException {
+        final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+
+
+    private String url(String path) {
+        return "http://localhost:" + server.getAddress().getPort() + path;
+    }
+
+
+    private File createCacheDir() throws IOException {
+        final File dir = Files.createTempDirectory("morpheus-http-cache-test").toFile();
+        dir.deleteOnExit();
+        return dir;
+    }
+
+
+    private Optional<String> readText(HttpResponse response) {
+        try {
+            return Optional.of(new String(response.getStream().readAllBytes(), StandardCharsets.UTF_8));
+        } catch (IOException ex) {
+            throw new RuntimeException("Failed to read response", ex);
+        }
+    }
+
+
+    private Optional<String> get(HttpClient client, String path) {
+        return client.doGet(request -> {
+            request.setUrl(url(path));
+            request.setResponseHandler(this::readText);
+        });
+    }
+
+
+    @Test()
+    public void testETagRevalidation() throws IOException {
+        etagCount.set(0);
+        notModifiedCount.set(0);
+        final CachingHttpClient client = new CachingHttpClient(HttpClient.getDefault(), new HttpCache(createCacheDir(), 1024, Duration.ZERO));
+        Assert.assertEquals(get(client, "/etag"), Optional.of("etag-body"));
+        Assert.assertEquals(get(client, "/etag"), Optional.of("etag-body"));
+        Assert.assertEquals(get(client, "/etag"), Optional.of("etag-body"));
+        Assert.assertEquals(etagCount.get(), 3);
+        Assert.assertEquals(notModifiedCount.get(), 2);
+        Assert.assertEquals(client.getCache().size(), 1);
+    }
+
+
+    @Test()
+    public void testMaxAge() throws IOException {
+        maxAgeCount.set(0);
+        final HttpCache cache = new HttpCache(createCacheDir(), 1024, Duration.ZERO);
+        final CachingHttpClient client = new CachingHttpClient(new AsyncHttpClient(), cache);
+        final Optional<String> first = client.<String>doGetAsync(request -> {
+            request.setUrl(url("/max-age"));
+            request.setResponseHandler(this::readText);
+        }).join();
+        final Optional<String> second = client.<String>doGetAsync(request -> {
+            request.setUrl(url("/max-age"));
+            request.setResponseHandler(this::readText);
+        }).join();
+        Assert.assertEquals(first, Optional.of("max-age-1"));
+        Assert.assertEquals(second, Optional.of("max-age-1"));
+        Assert.assertEquals(maxAgeCount.get(), 1);
+    }
+
+
+    @Test()
+    public void testDefaultTTL() throws IOException {
+        plainCount.set(0);
+        final CachingHttpClient client = CachingHttpClient.create(createCacheDir(), 1024);
+        Assert.assertEquals(get(client, "/plain"), Optional.of("plain-1"));
+        Assert.assertEquals(get(client, "/plain"), Optional.of("plain-1"));
+        Assert.assertEquals(plainCount.get(), 1);
+    }
+
+
+    @Test()
+    public void testNoStore() throws IOException {
+        noStoreCount.set(0);
+        final CachingHttpClient client = new CachingHttpClient(HttpClient.getDefault(), new HttpCache(createCacheDir(), 1024, Duration.ofHours(1)));
+        Assert.assertEquals(get(client, "/no-store"), Optional.of("no-store-1"));
+        Assert.assertEquals(get(client, "/no-store"), Optional.of("no-store-2"));
+        Assert.assertEquals(client.getCache().size(), 0);
+    }
+
+
+    @Test()
+    public void testSizeLimit() throws Exception {
+        final HttpCache cache = new HttpCache(createCacheDir(), 30, Duration.ZERO);
+        final CachingHttpClient client = new CachingHttpClient(HttpClient.getDefault(), cache);
+        get(client, "/item?a");
+        Thread.sleep(20);
+        get(client, "/item?b");
+        Thread.sleep(20);
+        get(client, "/item?c");
+        Thread.sleep(20);
+        get(client, "/item?a");
+        Thread.sleep(20);
+        get(client, "/item?d");
+        Assert.assertEquals(cache.size(), 3);
+        Assert.assertEquals(cache.getTotalBytes(), 30L);
+        Assert.assertTrue(cache.get(url("/item?a")).isPresent());
+        Assert.assertFalse(cache.get(url("/item?b")).isPresent());
+        Assert.assertTrue(cache.get(url("/item?d")).isPresent());
+    }
+
+
+    @Test()
+    public void testHitDoesNotTouchBodyFile() throws Exception {
+        final File dir = createCacheDir();
+        final HttpCache cache = new HttpCache(dir, 1024, Duration.ofHours(1));
+        final CachingHttpClient client = new CachingHttpClient(HttpClient.getDefault(), cache);
+        Assert.assertEquals(get(client, "/item?touch"), Optional.of("touch     "));
+        final File[] bodyFiles = dir.listFiles((d, name) -> name.endsWith(".body"));
+        Assert.assertNotNull(bodyFiles);
+        Assert.assertEquals(bodyFiles.length, 1);
+        final long modified = bodyFiles[0].lastModified();
+        Thread.sleep(20);
+        Assert.assertEquals(get(client, "/item?touch"), Optional.of("touch     "));
+        Assert.assertEquals(get(client, "/item?touch"), Optional.of("touch     "));
+        Assert.assertEquals(bodyFiles[0].lastModified(), modified);
+        final long stale = System.currentTimeMillis() - HttpCache.TOUCH_INTERVAL.toMillis() * 2;
+        Assert.assertTrue(bodyFiles[0].setLastModified(stale));
+        final HttpCache reloaded = new HttpCache(dir, 1024, Duration.ofHours(1));
+        Assert.assertTrue(reloaded.get(url("/item?touch")).isPresent());
+        Assert.assertTrue(bodyFiles[0].lastModified() > stale);
+    }
+
+
+    @Test()
+    public void testReload() throws Exception {
+        maxAgeCount.set(0);
+        final File dir = createCacheDir();
+        final CachingHttpClient client1 = new CachingHttpClient(HttpClient.getDefault(), new HttpCache(dir, 1024, Duration.ZERO));
+        Assert.assertEquals(get(client1, "/max-age"), Optional.of("max-age-1"));
+        final HttpCache cache = new HttpCache(dir, 1024, Duration.ZERO);
+        Assert.assertEquals(cache.size(), 1);
+        Assert.assertEquals(cache.getTotalBytes(), 9L);
+        final CachingHttpClient client2 = new CachingHttpClient(HttpClient.getDefault(), cache);
+        Assert.assertEquals(get(client2, "/max-age"), Optional.of("max-age-1"));
+        Assert.assertEquals(maxAgeCount.get(), 1);
+    }
+}
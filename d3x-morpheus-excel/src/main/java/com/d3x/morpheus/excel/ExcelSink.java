@@ -0,0 +1,387 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.excel;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import com.d3x.morpheus.array.ArrayType;
+import com.d3x.morpheus.frame.DataFrame;
+import com.d3x.morpheus.frame.DataFrameException;
+import com.d3x.morpheus.frame.DataFrameSink;
+import com.d3x.morpheus.util.IO;
+import com.d3x.morpheus.util.Resource;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DataFormat;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+/**
+ * A DataFrameSink that writes one or more DataFrames to the sheets of an XLSX workbook using the POI SXSSF API.
+ *
+ * <p>SXSSF keeps only a bounded window of rows in memory and flushes older rows to a temporary file, so the heap
+ * required to export a frame is independent of its row count. Cell styles are created once per data format and
+ * shared by all cells of that format, rather than being created per cell, which also keeps the workbook well within
+ * the Excel style limit. Primitive columns are written without boxing values.</p>
+ *
+ * @author Xavier Witdouck
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ */
+public class ExcelSink implements DataFrameSink<Object,Object,ExcelSink.Options> {
+
+
+    /**
+     * Writes DataFrames to an Excel workbook according to configured options
+     * @param configurator  the consumer to configure options
+     */
+    public static void save(Consumer<Options> configurator) {
+        new ExcelSink().write(configurator);
+    }
+
+
+    @Override
+    public void write(Consumer<Options> configurator) {
+        SXSSFWorkbook workbook = null;
+        OutputStream os = null;
+        try {
+            final Options options = new Options();
+            configurator.accept(options);
+            options.validate();
+            workbook = new SXSSFWorkbook(options.windowSize);
+            workbook.setCompressTempFiles(options.compressTempFiles);
+            final Styles styles = new Styles(workbook, options);
+            for (Map.Entry<String,DataFrame<?,?>> entry : options.sheets.entrySet()) {
+                final SXSSFSheet sheet = workbook.createSheet(entry.getKey());
+                this.writeSheet(sheet, entry.getValue(), styles, options);
+            }
+            os = options.resource.toOutputStream();
+            workbook.write(os);
+            os.flush();
+        } catch (DataFrameException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new DataFrameException("Failed to write DataFrames to Excel resource", ex);
+        } finally {
+            IO.close(os);
+            if (workbook != null) {
+                workbook.dispose();
+                IO.close(workbook);
+            }
+        }
+    }
+
+
+    /**
+     * Writes the contents of a frame to the sheet specified
+     * @param sheet     the sheet to write to
+     * @param frame     the frame to write
+     * @param styles    the cell style cache
+     * @param options   the sink options
+     * @param <R>       the row key type
+     * @param <C>       the column key type
+     */
+    private <R,C> void writeSheet(SXSSFSheet sheet, DataFrame<R,C> frame, Styles styles, Options options) {
+        final int rowCount = frame.rowCount();
+        final int colCount = frame.colCount();
+        final int rowOffset = options.includeColumnHeader ? 1 : 0;
+        final int colOffset = options.includeRowHeader ? 1 : 0;
+        final int maxRows = SpreadsheetVersion.EXCEL2007.getMaxRows();
+        final int maxCols = SpreadsheetVersion.EXCEL2007.getMaxColumns();
+        if (rowCount + rowOffset > maxRows) {
+            throw new DataFrameException("Too many rows for sheet " + sheet.getSheetName() + ": " + rowCount);
+        } else if (colCount + colOffset > maxCols) {
+            throw new DataFrameException("Too many columns for sheet " + sheet.getSheetName() + ": " + colCount);
+        } else {
+            final ArrayType[] types = new ArrayType[colCount];
+            final CellStyle[] colStyles = new CellStyle[colCount];
+            for (int j=0; j<colCount; ++j) {
+                final Class<?> type = frame.cols().type(frame.cols().key(j));
+                types[j] = ArrayType.of(type);
+                colStyles[j] = styles.get(type);
+            }
+            if (options.includeColumnHeader) {
+                final Row header = sheet.createRow(0);
+                if (options.includeRowHeader) {
+                    header.createCell(0).setCellValue(options.title);
+                }
+                for (int j=0; j<colCount; ++j) {
+                    final C key = frame.cols().key(j);
+                    header.createCell(j + colOffset).setCellValue(key != null ? key.toString() : null);
+                }
+            }
+            for (int i=0; i<rowCount; ++i) {
+                final Row row = sheet.createRow(i + rowOffset);
+                if (options.includeRowHeader) {
+                    this.setValue(row, 0, frame.rows().key(i), styles);
+                }
+                for (int j=0; j<colCount; ++j) {
+                    final int colIndex = j + colOffset;
+                    switch (types[j]) {
+                        case BOOLEAN:   setBoolean(row, colIndex, frame.getBooleanAt(i, j));                break;
+                        case INTEGER:   setDouble(row, colIndex, frame.getIntAt(i, j), colStyles[j]);       break;
+                        case DOUBLE:    setDouble(row, colIndex, frame.getDoubleAt(i, j), colStyles[j]);    break;
+                        default:        setValue(row, colIndex, frame.getValueAt(i, j), styles);            break;
+                    }
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Writes a boolean value to the cell at the index specified
+     * @param row       the row reference
+     * @param colIndex  the column index
+     * @param value     the value to write
+     */
+    private void setBoolean(Row row, int colIndex, boolean value) {
+        row.createCell(colIndex).setCellValue(value);
+    }
+
+
+    /**
+     * Writes a numeric value to the cell at the index specified, leaving the cell blank for NaN
+     * @param row       the row reference
+     * @param colIndex  the column index
+     * @param value     the value to write
+     * @param style     the cell style, null for default
+     */
+    private void setDouble(Row row, int colIndex, double value, CellStyle style) {
+        if (!Double.isNaN(value)) {
+            final Cell cell = row.createCell(colIndex);
+            cell.setCellValue(value);
+            if (style != null) {
+                cell.setCellStyle(style);
+            }
+        }
+    }
+
+
+    /**
+     * Writes a value of any type to the cell at the index specified, leaving the cell blank for null
+     * @param row       the row reference
+     * @param colIndex  the column index
+     * @param value     the value to write
+     * @param styles    the cell style cache
+     */
+    private void setValue(Row row, int colIndex, Object value, Styles styles) {
+        if (value instanceof Number) {
+            this.setDouble(row, colIndex, ((Number)value).doubleValue(), styles.get(value.getClass()));
+        } else if (value instanceof Boolean) {
+            this.setBoolean(row, colIndex, (Boolean)value);
+        } else if (value != null) {
+            final Cell cell = row.createCell(colIndex);
+            final CellStyle style = styles.get(value.getClass());
+            if (style != null) {
+                cell.setCellStyle(style);
+            }
+            if (value instanceof LocalDate) {
+                cell.setCellValue((LocalDate)value);
+            } else if (value instanceof LocalDateTime) {
+                cell.setCellValue((LocalDateTime)value);
+            } else if (value instanceof ZonedDateTime) {
+                cell.setCellValue(((ZonedDateTime)value).toLocalDateTime());
+            } else if (value instanceof Instant) {
+                cell.setCellValue(LocalDateTime.ofInstant((Instant)value, ZoneId.systemDefault()));
+            } else if (value instanceof Date) {
+                cell.setCellValue((Date)value);
+            } else {
+                cell.setCellValue(value.toString());
+            }
+        }
+    }
+
+
+    /**
+     * A cache of cell styles keyed by data format, so that all cells sharing a format share a single style
+     */
+    private static class Styles {
+
+        private final DataFormat dataFormat;
+        private final SXSSFWorkbook workbook;
+        private final Map<Class<?>,String> formats;
+        private final Map<String,CellStyle> styleMap = new HashMap<>();
+        private final Map<Class<?>,CellStyle> typeMap = new HashMap<>();
+
+        /**
+         * Constructor
+         * @param workbook  the workbook to create styles in
+         * @param options   the sink options
+         */
+        Styles(SXSSFWorkbook workbook, Options options) {
+            this.workbook = workbook;
+            this.formats = options.formats;
+            this.dataFormat = workbook.createDataFormat();
+        }
+
+        /**
+         * Returns the cell style for values of the type specified
+         * @param type  the value type
+         * @return      the cell style, null if the type uses the default style
+         */
+        CellStyle get(Class<?> type) {
+            if (typeMap.containsKey(type)) {
+                return typeMap.get(type);
+            } else {
+                final String format = getFormat(type);
+                final CellStyle style = format == null ? null : styleMap.computeIfAbsent(format, key -> {
+                    final CellStyle newStyle = workbook.createCellStyle();
+                    newStyle.setDataFormat(dataFormat.getFormat(key));
+                    return newStyle;
+                });
+                this.typeMap.put(type, style);
+                return style;
+            }
+        }
+
+        /**
+         * Returns the Excel data format for the type, matching on super types if there is no exact match
+         * @param type  the value type
+         * @return      the data format, null if none
+         */
+        private String getFormat(Class<?> type) {
+            final String format = formats.get(type);
+            if (format != null) {
+                return format;
+            } else {
+                for (Map.Entry<Class<?>,String> entry : formats.entrySet()) {
+                    if (entry.getKey().isAssignableFrom(type)) {
+                        return entry.getValue();
+                    }
+                }
+                return null;
+            }
+        }
+    }
+
+
+    /**
+     * The options for this sink
+     */
+    public static class Options {
+
+        /** The resource to write to */
+        @lombok.Getter
+        private Resource resource;
+        /** The frames to write keyed by sheet name, in sheet order */
+        @lombok.Getter
+        private Map<String,DataFrame<?,?>> sheets = new LinkedHashMap<>();
+        /** The Excel data formats keyed by value type */
+        @lombok.Getter
+        private Map<Class<?>,String> formats = new LinkedHashMap<>();
+        /** The text for the top left cell when both row and column headers are included */
+        @lombok.Getter @lombok.Setter
+        private String title = "DataFrame";
+        /** The number of rows held in memory per sheet before older rows are flushed to disk */
+        @lombok.Getter @lombok.Setter
+        private int windowSize = 100;
+        /** True to gzip the temporary files used to buffer flushed rows */
+        @lombok.Getter @lombok.Setter
+        private boolean compressTempFiles;
+        /** True to include a column with row keys */
+        @lombok.Getter @lombok.Setter
+        private boolean includeRowHeader = true;
+        /** True to include a row with column keys */
+        @lombok.Getter @lombok.Setter
+        private boolean includeColumnHeader = true;
+
+        /**
+         * Constructor
+         */
+        public Options() {
+            this.formats.put(Date.class, "yyyy-mm-dd hh:mm:ss");
+            this.formats.put(LocalDate.class, "yyyy-mm-dd");
+            this.formats.put(LocalDateTime.class, "yyyy-mm-dd hh:mm:ss");
+            this.formats.put(ZonedDateTime.class, "yyyy-mm-dd hh:mm:ss");
+            this.formats.put(Instant.class, "yyyy-mm-dd hh:mm:ss");
+        }
+
+        /**
+         * Validates that these options are complete
+         */
+        public void validate() {
+            Objects.requireNonNull(resource, "The resource cannot be null");
+            if (sheets.isEmpty()) {
+                throw new IllegalStateException("At least one DataFrame must be added to write to Excel");
+            } else if (windowSize < 1) {
+                throw new IllegalStateException("The row window size must be > 0: " + windowSize);
+            }
+        }
+
+        /**
+         * Adds a frame to be written to a sheet with the name specified
+         * @param sheetName the sheet name, which must be unique within the workbook
+         * @param frame     the frame to write
+         */
+        public void addSheet(String sheetName, DataFrame<?,?> frame) {
+            Objects.requireNonNull(sheetName, "The sheet name cannot be null");
+            Objects.requireNonNull(frame, "The frame cannot be null");
+            if (sheets.containsKey(sheetName)) {
+                throw new IllegalArgumentException("A sheet already exists with name: " + sheetName);
+            } else {
+                this.sheets.put(sheetName, frame);
+            }
+        }
+
+        /**
+         * Sets the Excel data format for values of the type specified, for example "#,##0.00"
+         * @param type      the value type
+         * @param format    the Excel data format, null for the default style
+         */
+        public void setFormat(Class<?> type, String format) {
+            this.formats.put(type, format);
+        }
+
+        /**
+         * Sets the file to write to
+         * @param file  the file reference
+         */
+        public void setFile(File file) {
+            this.resource = Resource.of(file);
+        }
+
+        /**
+         * Sets the output stream to write to
+         * @param os    the output stream
+         */
+        public void setOutputStream(OutputStream os) {
+            this.resource = Resource.of(os);
+        }
+
+        /**
+         * Sets the resource string to write to
+         * @param resource  the resource string
+         */
+        public void setResource(String resource) {
+            this.resource = Resource.of(resource);
+        }
+    }
+}
@@ -47,6 +47,10 @@ import org.apache.poi.ss.usermodel.WorkbookFactory;
 /**
  * A component used to initialize a DataFrame from the contents of an Excel sheet
  *
+ * <p>By default the workbook is loaded with the POI usermodel, which supports both XLS and XLSX content. For large
+ * XLSX workbooks, the streaming option parses the sheet with the POI event API so that memory use is proportional
+ * to the resulting frame rather than the workbook.</p>
+ *
  * @author Xavier Witdouck
  */
 public class ExcelSource implements DataFrameSource<Integer,String, ExcelSource.Options> {
@@ -67,6 +71,9 @@ public class ExcelSource implements DataFrameSource<Integer,String, ExcelSource.
             final Options options = new Options();
             consumer.accept(options);
             options.validate();
+            if (options.streaming) {
+                return new ExcelStreamReader(options).read();
+            }
             workbook = WorkbookFactory.create(options.resource.toInputStream());
             final Sheet sheet = options.getSheet(workbook);
             final int rowStart = options.getDataStartRowIndex();
@@ -180,6 +187,7 @@ public class ExcelSource implements DataFrameSource<Integer,String, ExcelSource.
     /**
      * Defines a zero-based row and column coordinate in an Excel sheet
      */
+    @lombok.Getter
     @lombok.AllArgsConstructor()
     public static class Coordinate {
         private final int rowIndex;
@@ -210,6 +218,9 @@ public class ExcelSource implements DataFrameSource<Integer,String, ExcelSource.
         /** The optional row predicate to includes rows */
         @lombok.Getter @lombok.Setter
         private Predicate<Row> rowPredicate;
+        /** True to parse XLSX content with the streaming event reader, which avoids loading the entire workbook */
+        @lombok.Getter @lombok.Setter
+        private boolean streaming;
 
 
         /**
@@ -217,6 +228,9 @@ public class ExcelSource implements DataFrameSource<Integer,String, ExcelSource.
          */
         public void validate() {
             Objects.requireNonNull(resource, "The resource cannot be null");
+            if (streaming && rowPredicate != null) {
+                throw new IllegalStateException("A row predicate is not supported when streaming Excel content");
+            }
         }
 
         /**
@@ -0,0 +1,522 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.excel;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import com.d3x.morpheus.array.Array;
+import com.d3x.morpheus.array.ArrayBuilder;
+import com.d3x.morpheus.frame.DataFrame;
+import com.d3x.morpheus.frame.DataFrameException;
+import com.d3x.morpheus.index.Index;
+import com.d3x.morpheus.util.IO;
+import com.d3x.morpheus.util.Resource;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * A streaming reader that initializes a DataFrame from an XLSX worksheet using the POI XSSF event API.
+ *
+ * <p>Unlike the usermodel path of <code>ExcelSource</code>, this reader never materializes the workbook. The sheet
+ * XML is parsed with SAX, shared strings are resolved through the read-only shared strings table, and cell values
+ * are written directly into per-column <code>ArrayBuilder</code>s which infer the column type as values arrive, so
+ * numeric columns are stored as primitive doubles. Memory is therefore proportional to the resulting frame rather
+ * than the workbook. Parsing stops as soon as the bottom right coordinate, if any, has been passed.</p>
+ *
+ * <p>Formula cells are read from the cached result stored in the file rather than being re-evaluated.</p>
+ *
+ * @author Xavier Witdouck
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ */
+class ExcelStreamReader {
+
+    private static final int DEFAULT_ROW_CAPACITY = 1000;
+    private static final int MAX_ROW_CAPACITY = 1000000;
+
+    private final ExcelSource.Options options;
+
+
+    /**
+     * Constructor
+     * @param options   the options for the read
+     */
+    ExcelStreamReader(ExcelSource.Options options) {
+        this.options = options;
+    }
+
+
+    /**
+     * Returns a DataFrame parsed from the worksheet defined by the options
+     * @return      the resulting DataFrame
+     */
+    DataFrame<Integer,String> read() {
+        OPCPackage pkg = null;
+        InputStream sheetStream = null;
+        try {
+            pkg = open(options.getResource());
+            final XSSFReader reader = new XSSFReader(pkg);
+            final ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            final StylesTable styles = reader.getStylesTable();
+            final boolean date1904 = isDate1904(reader);
+            final SheetHandler handler = new SheetHandler(strings, styles, date1904);
+            sheetStream = getSheet(reader);
+            final XMLReader parser = XMLHelper.newXMLReader();
+            parser.setContentHandler(handler);
+            try {
+                parser.parse(new InputSource(sheetStream));
+            } catch (StopException ex) {
+                // parsing stopped early after the last row of interest
+            }
+            return handler.toDataFrame();
+        } catch (DataFrameException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new DataFrameException("Failed to stream DataFrame from Excel resource", ex);
+        } finally {
+            IO.close(sheetStream);
+            if (pkg != null) {
+                pkg.revert();
+            }
+        }
+    }
+
+
+    /**
+     * Opens the OOXML package for the resource, reading files in place without buffering the whole archive
+     * @param resource  the workbook resource
+     * @return          the OOXML package
+     * @throws Exception    if the package cannot be opened
+     */
+    private OPCPackage open(Resource resource) throws Exception {
+        if (resource.isFile()) {
+            final File file = resource.asFile();
+            return OPCPackage.open(file, PackageAccess.READ);
+        } else {
+            return OPCPackage.open(resource.toInputStream());
+        }
+    }
+
+
+    /**
+     * Returns the stream for the worksheet selected by the options
+     * @param reader    the XSSF reader
+     * @return          the worksheet XML stream
+     * @throws Exception    if the worksheet cannot be found
+     */
+    private InputStream getSheet(XSSFReader reader) throws Exception {
+        final String sheetName = options.getSheetName();
+        final Iterator<InputStream> iterator = reader.getSheetsData();
+        final XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator)iterator;
+        while (sheets.hasNext()) {
+            final InputStream stream = sheets.next();
+            if (sheetName == null || sheetName.equals(sheets.getSheetName())) {
+                return stream;
+            } else {
+                IO.close(stream);
+            }
+        }
+        if (sheetName == null) {
+            throw new DataFrameException("No worksheets found in Excel resource");
+        } else {
+            throw new DataFrameException("No worksheet found with name: " + sheetName);
+        }
+    }
+
+
+    /**
+     * Returns true if the workbook uses the 1904 date system
+     * @param reader    the XSSF reader
+     * @return          true if dates are relative to 1904
+     * @throws Exception    if the workbook part cannot be parsed
+     */
+    private boolean isDate1904(XSSFReader reader) throws Exception {
+        final boolean[] date1904 = new boolean[1];
+        final XMLReader parser = XMLHelper.newXMLReader();
+        parser.setContentHandler(new DefaultHandler() {
+            @Override
+            public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+                if (localName.equals("workbookPr")) {
+                    final String value = attributes.getValue("date1904");
+                    date1904[0] = "1".equals(value) || "true".equalsIgnoreCase(value);
+                    throw new StopException();
+                } else if (localName.equals("sheets")) {
+                    throw new StopException();
+                }
+            }
+        });
+        try (InputStream stream = reader.getWorkbookData()) {
+            parser.parse(new InputSource(stream));
+        } catch (StopException ex) {
+            // workbook properties found
+        }
+        return date1904[0];
+    }
+
+
+    /**
+     * Returns the zero-based column index for a cell reference such as "AB12"
+     * @param ref   the cell reference
+     * @return      the zero-based column index
+     */
+    static int toColIndex(String ref) {
+        int colIndex = 0;
+        for (int i=0; i<ref.length(); ++i) {
+            final char c = ref.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                colIndex = colIndex * 26 + (c - 'A' + 1);
+            } else {
+                break;
+            }
+        }
+        return colIndex - 1;
+    }
+
+
+    /**
+     * Returns the zero-based row index for a cell range reference such as "A1:AC94", using the end of the range
+     * @param ref   the range reference
+     * @return      the zero-based index of the last row, -1 if none
+     */
+    static int toLastRowIndex(String ref) {
+        final String end = ref.substring(ref.indexOf(':') + 1);
+        int rowNum = 0;
+        for (int i=0; i<end.length(); ++i) {
+            final char c = end.charAt(i);
+            if (c >= '0' && c <= '9') {
+                rowNum = rowNum * 10 + (c - '0');
+            }
+        }
+        return rowNum - 1;
+    }
+
+
+    /**
+     * A SAX handler that writes cells of a worksheet into per-column array builders
+     */
+    private class SheetHandler extends DefaultHandler {
+
+        private final boolean date1904;
+        private final StylesTable styles;
+        private final ReadOnlySharedStringsTable strings;
+        private final Map<Integer,Boolean> dateStyles = new HashMap<>();
+        private final DataFormatter formatter = new DataFormatter();
+        private final StringBuilder text = new StringBuilder();
+        private final List<ArrayBuilder<Object>> columns = new ArrayList<>();
+        private final List<String> header = new ArrayList<>();
+        private final int colStart;
+        private final int headerRowIndex;
+        private final int dataStartRowIndex;
+        private final int dataEndRowIndex;
+
+        private int colEnd;
+        private int capacity = DEFAULT_ROW_CAPACITY;
+        private int rowIndex = -1;
+        private int rowCount;
+        private boolean firstRowDone;
+        private boolean headerRow;
+        private boolean dataRow;
+        private Index<Integer> rowKeys;
+
+        private int cellColIndex = -1;
+        private int cellStyle;
+        private String cellType;
+        private boolean collect;
+        private boolean inlineString;
+
+        /**
+         * Constructor
+         * @param strings   the shared strings table
+         * @param styles    the styles table
+         * @param date1904  true if the workbook uses the 1904 date system
+         */
+        SheetHandler(ReadOnlySharedStringsTable strings, StylesTable styles, boolean date1904) {
+            final ExcelSource.Coordinate topLeft = options.getTopLeft();
+            final ExcelSource.Coordinate bottomRight = options.getBottomRight();
+            this.strings = strings;
+            this.styles = styles;
+            this.date1904 = date1904;
+            this.colStart = topLeft != null ? topLeft.getColIndex() : 0;
+            this.colEnd = bottomRight != null ? bottomRight.getColIndex() : Integer.MAX_VALUE;
+            this.headerRowIndex = topLeft != null ? topLeft.getRowIndex() : 0;
+            this.dataStartRowIndex = options.isHeader() ? headerRowIndex + 1 : headerRowIndex;
+            this.dataEndRowIndex = bottomRight != null ? bottomRight.getRowIndex() : Integer.MAX_VALUE;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+            switch (localName) {
+                case "dimension":   onDimension(attributes.getValue("ref"));    break;
+                case "row":         onRowStart(attributes.getValue("r"));       break;
+                case "c":           onCellStart(attributes);                    break;
+                case "v":           onTextStart(false);                         break;
+                case "is":          inlineString = true;                        break;
+                case "t":           onTextStart(inlineString);                  break;
+                default:            break;
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            switch (localName) {
+                case "v":       collect = false;        break;
+                case "t":       collect = false;        break;
+                case "is":      inlineString = false;   break;
+                case "c":       onCellEnd();            break;
+                case "row":     onRowEnd();             break;
+                default:        break;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (collect) {
+                text.append(ch, start, length);
+            }
+        }
+
+        /**
+         * Sizes the initial builder capacity from the sheet dimension
+         * @param ref   the dimension range reference
+         */
+        private void onDimension(String ref) {
+            if (ref != null) {
+                final int lastRowIndex = Math.min(toLastRowIndex(ref), dataEndRowIndex);
+                final int rows = lastRowIndex - dataStartRowIndex + 1;
+                this.capacity = rows > 0 ? Math.min(rows, MAX_ROW_CAPACITY) : DEFAULT_ROW_CAPACITY;
+            }
+        }
+
+        /**
+         * Called at the start of a row element
+         * @param ref   the one-based row number, which may be null
+         * @throws StopException    if the row is beyond the last row of interest
+         */
+        private void onRowStart(String ref) throws StopException {
+            this.rowIndex = ref != null ? Integer.parseInt(ref) - 1 : rowIndex + 1;
+            this.cellColIndex = -1;
+            if (rowIndex > dataEndRowIndex) {
+                throw new StopException();
+            } else if (rowIndex < headerRowIndex) {
+                this.headerRow = false;
+                this.dataRow = false;
+            } else {
+                this.headerRow = options.isHeader() && rowIndex == headerRowIndex;
+                this.dataRow = rowIndex >= dataStartRowIndex;
+                if (dataRow && rowKeys == null) {
+                    this.rowKeys = Index.of(Integer.class, capacity);
+                }
+            }
+        }
+
+        /**
+         * Called at the start of a text element
+         * @param accept    true to collect the text content
+         */
+        private void onTextStart(boolean accept) {
+            if (accept || !inlineString) {
+                this.collect = true;
+            }
+        }
+
+        /**
+         * Called at the start of a cell element
+         * @param attributes    the cell attributes
+         */
+        private void onCellStart(Attributes attributes) {
+            final String ref = attributes.getValue("r");
+            final String style = attributes.getValue("s");
+            this.cellColIndex = ref != null ? toColIndex(ref) : cellColIndex + 1;
+            this.cellType = attributes.getValue("t");
+            this.cellStyle = style != null ? Integer.parseInt(style) : -1;
+            this.text.setLength(0);
+            this.collect = false;
+        }
+
+        /**
+         * Called at the end of a cell element to record the cell value
+         */
+        private void onCellEnd() {
+            if ((headerRow || dataRow) && cellColIndex >= colStart && cellColIndex <= colEnd && text.length() > 0) {
+                final int colOrdinal = cellColIndex - colStart;
+                if (headerRow) {
+                    while (header.size() <= colOrdinal) header.add(null);
+                    header.set(colOrdinal, getHeaderValue());
+                } else {
+                    while (columns.size() <= colOrdinal) columns.add(null);
+                    ArrayBuilder<Object> builder = columns.get(colOrdinal);
+                    if (builder == null) {
+                        builder = ArrayBuilder.of(capacity);
+                        columns.set(colOrdinal, builder);
+                    }
+                    setValue(builder, rowCount);
+                }
+            }
+            this.text.setLength(0);
+        }
+
+        /**
+         * Called at the end of a row element
+         */
+        private void onRowEnd() {
+            if (headerRow || dataRow) {
+                if (!firstRowDone) {
+                    this.firstRowDone = true;
+                    if (colEnd == Integer.MAX_VALUE) {
+                        this.colEnd = Math.max(cellColIndex, colStart - 1);
+                    }
+                }
+                if (dataRow) {
+                    this.rowKeys.add(rowIndex);
+                    this.rowCount++;
+                }
+            }
+            this.headerRow = false;
+            this.dataRow = false;
+        }
+
+        /**
+         * Writes the value of the current cell into the builder at the row ordinal specified
+         * @param builder   the column builder
+         * @param ordinal   the row ordinal
+         */
+        private void setValue(ArrayBuilder<Object> builder, int ordinal) {
+            final String value = text.toString();
+            if (cellType == null || cellType.equals("n")) {
+                final double number = Double.parseDouble(value);
+                if (isDateStyle(cellStyle)) {
+                    builder.setValue(ordinal, DateUtil.getJavaDate(number, date1904));
+                } else {
+                    builder.setDouble(ordinal, number);
+                }
+            } else if (cellType.equals("s")) {
+                builder.setValue(ordinal, strings.getItemAt(Integer.parseInt(value)).getString());
+            } else if (cellType.equals("inlineStr") || cellType.equals("str")) {
+                builder.setValue(ordinal, value);
+            } else if (cellType.equals("b")) {
+                builder.setBoolean(ordinal, value.equals("1"));
+            }
+        }
+
+        /**
+         * Returns the formatted value of the current cell for use as a column key
+         * @return  the formatted cell value
+         */
+        private String getHeaderValue() {
+            final String value = text.toString();
+            if (cellType == null || cellType.equals("n")) {
+                final XSSFCellStyle style = cellStyle >= 0 && styles != null ? styles.getStyleAt(cellStyle) : null;
+                if (style == null) {
+                    return formatter.formatRawCellContents(Double.parseDouble(value), -1, "General");
+                } else {
+                    final int formatIndex = style.getDataFormat();
+                    final String formatString = style.getDataFormatString();
+                    return formatter.formatRawCellContents(Double.parseDouble(value), formatIndex, formatString);
+                }
+            } else if (cellType.equals("s")) {
+                return strings.getItemAt(Integer.parseInt(value)).getString();
+            } else if (cellType.equals("b")) {
+                return value.equals("1") ? "TRUE" : "FALSE";
+            } else {
+                return value;
+            }
+        }
+
+        /**
+         * Returns true if the cell style index refers to a date format
+         * @param styleIndex    the cell style index, -1 for none
+         * @return              true if the style formats numbers as dates
+         */
+        private boolean isDateStyle(int styleIndex) {
+            if (styleIndex < 0 || styles == null) {
+                return false;
+            } else {
+                return dateStyles.computeIfAbsent(styleIndex, index -> {
+                    final XSSFCellStyle style = styles.getStyleAt(index);
+                    if (style == null) {
+                        return false;
+                    } else {
+                        final String formatString = style.getDataFormatString();
+                        return formatString != null && DateUtil.isADateFormat(style.getDataFormat(), formatString);
+                    }
+                });
+            }
+        }
+
+        /**
+         * Returns the DataFrame of the values captured by this handler
+         * @return  the resulting DataFrame
+         */
+        private DataFrame<Integer,String> toDataFrame() {
+            final int colCount = colEnd == Integer.MAX_VALUE ? 0 : colEnd - colStart + 1;
+            final Index<Integer> keys = rowKeys != null ? rowKeys : Index.of(Integer.class, 0);
+            return DataFrame.of(keys, String.class, frameColumns -> {
+                for (int j=0; j<colCount; ++j) {
+                    final String name = options.isHeader() && j < header.size() ? header.get(j) : null;
+                    final ArrayBuilder<Object> builder = j < columns.size() ? columns.get(j) : null;
+                    frameColumns.add(name != null ? name : "Column-" + j, toArray(builder, rowCount));
+                }
+            });
+        }
+
+        /**
+         * Returns the array for a column builder, padded with nulls to the row count
+         * @param builder   the column builder, null if the column has no values
+         * @param rowCount  the row count for the frame
+         * @return          the column array
+         */
+        private Array<Object> toArray(ArrayBuilder<Object> builder, int rowCount) {
+            if (builder == null || builder.length() == 0) {
+                return Array.ofObjects(rowCount);
+            } else {
+                final Array<Object> array = builder.toArray();
+                return array.length() < rowCount ? array.expand(rowCount) : array;
+            }
+        }
+    }
+
+
+    /**
+     * An exception used to abort SAX parsing once all rows of interest have been read
+     */
+    private static class StopException extends SAXException {
+
+        /**
+         * Constructor
+         */
+        StopException() {
+            super("Parsing stopped");
+        }
+    }
+}
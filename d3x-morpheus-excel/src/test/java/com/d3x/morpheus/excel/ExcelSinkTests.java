@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.excel;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+import com.d3x.morpheus.frame.DataFrame;
+import com.d3x.morpheus.range.Range;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * A unit test of the DataFrame Excel writer
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author  Xavier Witdouck
+ */
+public class ExcelSinkTests {
+
+
+    private static DataFrame<Integer,String> createFrame(int rowCount) {
+        final LocalDate start = LocalDate.of(2000, 1, 1);
+        return DataFrame.of(Range.of(0, rowCount), String.class, columns -> {
+            columns.add("Double", Double.class, v -> v.rowOrdinal() % 10 == 0 ? Double.NaN : v.rowOrdinal() * 1.5d);
+            columns.add("Integer", Integer.class, v -> v.rowOrdinal());
+            columns.add("Boolean", Boolean.class, v -> v.rowOrdinal() % 2 == 0);
+            columns.add("String", String.class, v -> "Row-" + v.rowOrdinal());
+            columns.add("Date", LocalDate.class, v -> start.plusDays(v.rowOrdinal()));
+        });
+    }
+
+
+    private static File createFile() throws Exception {
+        final File file = File.createTempFile("morpheus-excel-sink", ".xlsx");
+        file.deleteOnExit();
+        return file;
+    }
+
+
+    @Test()
+    public void testWriteAndRead() throws Exception {
+        final File file = createFile();
+        final DataFrame<Integer,String> expected = createFrame(1000);
+        ExcelSink.save(options -> {
+            options.setFile(file);
+            options.setWindowSize(50);
+            options.addSheet("Data", expected);
+        });
+        for (boolean streaming : List.of(false, true)) {
+            final DataFrame<Integer,String> actual = ExcelSource.load(options -> {
+                options.setFile(file);
+                options.setHeader(true);
+                options.setStreaming(streaming);
+            });
+            assertEquals(actual.rowCount(), expected.rowCount());
+            assertEquals(actual.colCount(), expected.colCount() + 1);
+            assertEquals(actual.cols().keyArray().getValue(0), "DataFrame");
+            assertEquals(actual.cols().type("Double"), Double.class);
+            assertEquals(actual.cols().type("Boolean"), Boolean.class);
+            assertEquals(actual.cols().type("String"), String.class);
+            assertEquals(actual.cols().type("Date"), Date.class);
+            for (int i=0; i<expected.rowCount(); ++i) {
+                final Date date = actual.rows().getValueAt(i, "Date");
+                final LocalDate localDate = LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault()).toLocalDate();
+                assertEquals(actual.rows().getDoubleAt(i, "DataFrame"), (double)i);
+                assertEquals(actual.rows().getDoubleAt(i, "Double"), expected.rows().getDoubleAt(i, "Double"));
+                assertEquals(actual.rows().getDoubleAt(i, "Integer"), (double)expected.rows().getIntAt(i, "Integer"));
+                assertEquals(actual.rows().getBooleanAt(i, "Boolean"), expected.rows().getBooleanAt(i, "Boolean"));
+                assertEquals(actual.rows().<String>getValueAt(i, "String"), expected.rows().<String>getValueAt(i, "String"));
+                assertEquals(localDate, expected.rows().<LocalDate>getValueAt(i, "Date"));
+            }
+        }
+    }
+
+
+    @Test()
+    public void testMultipleSheets() throws Exception {
+        final File file = createFile();
+        final DataFrame<Integer,String> first = createFrame(20);
+        final DataFrame<Integer,String> second = createFrame(30);
+        ExcelSink.save(options -> {
+            options.setFile(file);
+            options.setIncludeRowHeader(false);
+            options.addSheet("First", first);
+            options.addSheet("Second", second);
+        });
+        final DataFrame<Integer,String> result1 = ExcelSource.load(options -> {
+            options.setFile(file);
+            options.setHeader(true);
+            options.setSheetName("First");
+        });
+        final DataFrame<Integer,String> result2 = ExcelSource.load(options -> {
+            options.setFile(file);
+            options.setHeader(true);
+            options.setSheetName("Second");
+        });
+        assertEquals(result1.rowCount(), 20);
+        assertEquals(result2.rowCount(), 30);
+        assertEquals(result1.cols().keyArray(), first.cols().keyArray());
+        assertEquals(result2.cols().keyArray(), second.cols().keyArray());
+        assertEquals(result2.rows().getDoubleAt(29, "Double"), second.rows().getDoubleAt(29, "Double"));
+    }
+
+
+    @Test()
+    public void testSheetNamesMustBeUnique() {
+        final ExcelSink.Options options = new ExcelSink.Options();
+        options.addSheet("Data", createFrame(5));
+        try {
+            options.addSheet("Data", createFrame(5));
+            throw new AssertionError("Expected duplicate sheet name to be rejected");
+        } catch (IllegalArgumentException ex) {
+            assertTrue(ex.getMessage().contains("Data"));
+        }
+    }
+}
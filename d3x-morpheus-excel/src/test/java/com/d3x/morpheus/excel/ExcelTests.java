@@ -190,6 +190,65 @@ public class ExcelTests {
 
 
 
+    @DataProvider(name="streaming")
+    public Object[][] streaming() {
+        return new Object[][] {
+                {"/xls/cars93.xlsx", null, null, null, true},
+                {"/xls/cars93.xlsx", null, new ExcelSource.Coordinate(0, 1), null, false},
+                {"/xls/cars93.xlsx", null, new ExcelSource.Coordinate(0, 1), new ExcelSource.Coordinate(5, 11), true},
+                {"/xls/aapl.xlsx", null, null, null, true},
+                {"/xls/ApplesAndCars.xlsx", "Apple", null, null, true},
+                {"/xls/ApplesAndCars.xlsx", "Cars", null, null, true},
+        };
+    }
+
+
+    @Test(dataProvider = "streaming")
+    public void testStreamingMatchesWorkbook(String resource, String sheetName, ExcelSource.Coordinate topLeft, ExcelSource.Coordinate bottomRight, boolean header) {
+        final DataFrame<Integer,String> expected = ExcelSource.load(options -> {
+            options.setResource(resource);
+            options.setSheetName(sheetName);
+            options.setTopLeft(topLeft);
+            options.setBottomRight(bottomRight);
+            options.setHeader(header);
+        });
+        final DataFrame<Integer,String> actual = ExcelSource.load(options -> {
+            options.setResource(resource);
+            options.setSheetName(sheetName);
+            options.setTopLeft(topLeft);
+            options.setBottomRight(bottomRight);
+            options.setHeader(header);
+            options.setStreaming(true);
+        });
+        assertEquals(actual.rowCount(), expected.rowCount());
+        assertEquals(actual.colCount(), expected.colCount());
+        assertEquals(actual.rows().keyArray(), expected.rows().keyArray());
+        assertEquals(actual.cols().keyArray(), expected.cols().keyArray());
+        expected.cols().forEach(column -> {
+            final String key = column.key();
+            assertEquals(actual.cols().type(key), expected.cols().type(key), "Type matches for " + key);
+            for (int i=0; i<expected.rowCount(); ++i) {
+                assertEquals(actual.<Object>getValueAt(i, column.ordinal()), expected.<Object>getValueAt(i, column.ordinal()), "Value at " + i + ", " + key);
+            }
+        });
+    }
+
+
+    @Test()
+    public void testStreamingRejectsRowPredicate() {
+        try {
+            ExcelSource.load(options -> {
+                options.setResource("/xls/cars93.xlsx");
+                options.setStreaming(true);
+                options.setRowPredicate(row -> true);
+            });
+            throw new AssertionError("Expected streaming read with row predicate to fail");
+        } catch (Exception ex) {
+            assertTrue(ex.getCause() instanceof IllegalStateException, "Caused by illegal state");
+        }
+    }
+
+
     /**
      * Makes assertions about the structure and content of the Apple worksheet
      * @param frame     the DataFrame
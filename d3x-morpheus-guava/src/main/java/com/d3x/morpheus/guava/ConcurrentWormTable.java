@@ -0,0 +1,508 @@
+/*
+ * Copyright (C) 2014-2021 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.guava;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Table;
+import com.google.common.collect.Tables;
+
+import lombok.NonNull;
+
+/**
+ * A Guava Table that implements a write-once, read-many (WORM) protocol
+ * for assigning cell values with lock-free reads.  The value associated
+ * with a row/column key pair may be assigned at most once. A second attempt
+ * to assign the same cell will trigger a runtime exception.
+ *
+ * <p>Cells are stored in a concurrent map of concurrent row maps, with a
+ * second concurrent map of column maps as an index.  Because cells can never
+ * be replaced or removed, no read acquires a lock: {@code get()} and the
+ * {@code contains} methods are two concurrent map lookups, and {@code row()}
+ * and {@code column()} return read-only views of the underlying row and
+ * column maps rather than copies.  Concurrent callers of {@code getOrAssign()}
+ * and {@code getOrCompute()} for the same cell invoke the compute function at
+ * most once and all receive the same value.  (In a sorted table, computations
+ * for cells in the same row are serialized by a lock on the row.)</p>
+ *
+ * <p>Views returned by this table are weakly consistent: they reflect every
+ * cell assigned before the view was obtained and may reflect cells assigned
+ * afterwards.  A cell being assigned concurrently may appear in its row view
+ * momentarily before it appears in its column view.  Unlike {@link WormTable},
+ * this table cannot wrap an arbitrary delegate table.</p>
+ *
+ * @param <R> the runtime row type.
+ * @param <C> the runtime column type.
+ * @param <V> the runtime value type.
+ *
+ * @author Scott Shaffer
+ */
+public class ConcurrentWormTable<R, C, V> implements Table<R, C, V> {
+    private final boolean sorted;
+    private final ConcurrentMap<R, ConcurrentMap<C, V>> rows;
+    private final ConcurrentMap<C, ConcurrentMap<R, V>> columns;
+    private final AtomicInteger size = new AtomicInteger();
+
+    private ConcurrentWormTable(boolean sorted) {
+        this.sorted = sorted;
+        this.rows = newMap(sorted);
+        this.columns = newMap(sorted);
+    }
+
+    private static <K, T> ConcurrentMap<K, T> newMap(boolean sorted) {
+        if (sorted)
+            return new ConcurrentSkipListMap<>();
+        else
+            return new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Creates an empty WORM table using hash maps for the underlying storage.
+     *
+     * @param <R> the runtime row type.
+     * @param <C> the runtime column type.
+     * @param <V> the runtime value type.
+     *
+     * @return a new empty WORM table using hash maps for the underlying storage.
+     */
+    public static <R, C, V> ConcurrentWormTable<R, C, V> hash() {
+        return new ConcurrentWormTable<>(false);
+    }
+
+    /**
+     * Creates an empty WORM table using sorted maps for the underlying storage,
+     * so that rows and columns are ordered by their natural key ordering.
+     *
+     * @param <R> the runtime row type.
+     * @param <C> the runtime column type.
+     * @param <V> the runtime value type.
+     *
+     * @return a new empty WORM table using sorted maps for the underlying storage.
+     */
+    public static <R extends Comparable<?>, C extends Comparable<?>, V> ConcurrentWormTable<R, C, V> tree() {
+        return new ConcurrentWormTable<>(true);
+    }
+
+    /**
+     * Returns a read-only snapshot of the cells in this table.
+     * @return an unmodifiable set containing the cells in this table.
+     */
+    @Override
+    public Set<Cell<R, C, V>> cellSet() {
+        var cells = new LinkedHashSet<Cell<R, C, V>>();
+
+        for (var row : rows.entrySet())
+            for (var cell : row.getValue().entrySet())
+                cells.add(Tables.immutableCell(row.getKey(), cell.getKey(), cell.getValue()));
+
+        return Collections.unmodifiableSet(cells);
+    }
+
+    /**
+     * Guaranteed to throw an exception and leave the table unmodified.
+     * @throws UnsupportedOperationException always: cell removal is forbidden.
+     */
+    @Override
+    @Deprecated
+    public void clear() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Returns a read-only view of a column in this table.
+     *
+     * @param columnKey the key of the column to view.
+     *
+     * @return an unmodifiable mapping for the specified column.
+     */
+    @Override
+    public Map<R, V> column(@NonNull C columnKey) {
+        return readOnly(columns.get(columnKey));
+    }
+
+    /**
+     * Returns a read-only view of the column keys in this table.
+     * @return an unmodifiable set containing the column keys.
+     */
+    @Override
+    public Set<C> columnKeySet() {
+        return Collections.unmodifiableSet(columns.keySet());
+    }
+
+    /**
+     * Returns a column-oriented read-only view of the mappings in this table.
+     *
+     * @return an unmodifiable column-oriented map for this table.
+     */
+    @Override
+    public Map<C, Map<R, V>> columnMap() {
+        return Collections.unmodifiableMap(Maps.transformValues(columns, col -> Collections.<R, V>unmodifiableMap(col)));
+    }
+
+    /**
+     * Identifies cells contained in this table.
+     *
+     * @param rowKey the row key to search for.
+     * @param colKey the column key to search for.
+     *
+     * @return {@code true} iff the table contains a mapping with the
+     * specified row and column keys.
+     */
+    @Override
+    public boolean contains(Object rowKey, Object colKey) {
+        return get(rowKey, colKey) != null;
+    }
+
+    /**
+     * Identifies columns contained in this table.
+     *
+     * @param colKey the column key to search for.
+     *
+     * @return {@code true} iff the table contains a mapping with the
+     * specified column key.
+     */
+    @Override
+    public boolean containsColumn(Object colKey) {
+        return colKey != null && columns.containsKey(colKey);
+    }
+
+    /**
+     * Identifies rows contained in this table.
+     *
+     * @param rowKey the row key to search for.
+     *
+     * @return {@code true} iff the table contains a mapping with the
+     * specified row key.
+     */
+    @Override
+    public boolean containsRow(Object rowKey) {
+        return rowKey != null && rows.containsKey(rowKey);
+    }
+
+    /**
+     * Identifies values contained in this table.
+     *
+     * @param value the value to search for.
+     *
+     * @return {@code true} iff the table contains a mapping with the
+     * specified value.
+     */
+    @Override
+    public boolean containsValue(Object value) {
+        if (value == null)
+            return false;
+
+        for (var row : rows.values())
+            if (row.containsValue(value))
+                return true;
+
+        return false;
+    }
+
+    /**
+     * Compares the specified object with this table for equality.
+     *
+     * @param obj the object to compare with this table.
+     *
+     * @return {@code true} iff the input object is a Guava Table with
+     * identical contents.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof Table && cellSet().equals(((Table<?, ?, ?>) obj).cellSet());
+    }
+
+    /**
+     * Retrieves a value by its row and column keys.
+     *
+     * @param rowKey the target row key.
+     * @param colKey the target column key.
+     *
+     * @return the value corresponding to the given row and column keys,
+     * or {@code null} if no such mapping exists.
+     */
+    @Override
+    public V get(Object rowKey, Object colKey) {
+        if (rowKey == null || colKey == null)
+            return null;
+
+        var row = rows.get(rowKey);
+        return row != null ? row.get(colKey) : null;
+    }
+
+    /**
+     * Retrieves an existing value from this table or assigns a default.
+     *
+     * @param rowKey       the row key associated with the value.
+     * @param columnKey    the column key associated with the value.
+     * @param defaultValue the default value to assign and return if
+     *                     there is no match for the keys.
+     *
+     * @return the value associated with the specified keys, or the
+     * default value if there is no match.
+     */
+    public V getOrAssign(@NonNull R rowKey,
+                         @NonNull C columnKey,
+                         @NonNull V defaultValue) {
+        return getOrCompute(rowKey, columnKey, (row, col) -> defaultValue);
+    }
+
+    /**
+     * Retrieves an existing value from this table or computes and
+     * assigns a default.
+     *
+     * <p>The compute function is invoked at most once for each cell; it
+     * must not modify the same row of this table.</p>
+     *
+     * @param rowKey  the row key associated with the value.
+     * @param colKey  the column key associated with the value.
+     * @param compute the function to compute missing values.
+     *
+     * @return the value associated with the specified keys, or the
+     * computed value if there is no match.
+     */
+    public V getOrCompute(@NonNull R rowKey,
+                          @NonNull C colKey,
+                          @NonNull BiFunction<R, C, V> compute) {
+        var result = get(rowKey, colKey);
+
+        if (result != null)
+            return result;
+
+        var row = rows.computeIfAbsent(rowKey, key -> newMap(sorted));
+
+        if (!sorted) {
+            // The compute function runs atomically in a ConcurrentHashMap...
+            return row.computeIfAbsent(colKey, key -> {
+                var value = Objects.requireNonNull(compute.apply(rowKey, colKey));
+                index(rowKey, colKey, value);
+                return value;
+            });
+        }
+
+        // ConcurrentSkipListMap.computeIfAbsent() may invoke the compute
+        // function more than once, so computations must hold the row lock...
+        synchronized (row) {
+            result = row.get(colKey);
+
+            if (result != null)
+                return result;
+
+            var value = Objects.requireNonNull(compute.apply(rowKey, colKey));
+            result = row.putIfAbsent(colKey, value);
+
+            // A concurrent put() assigned the cell first...
+            if (result != null)
+                return result;
+
+            index(rowKey, colKey, value);
+            return value;
+        }
+    }
+
+    /**
+     * Retrieves a value from this table or throws an exception.
+     *
+     * @param rowKey the row key associated with the value.
+     * @param colKey the column key associated with the value.
+     *
+     * @return the value associated with the specified keys.
+     *
+     * @throws RuntimeException unless a value has been associated with
+     * the specified keys.
+     */
+    public V getOrThrow(@NonNull R rowKey, @NonNull C colKey) {
+        var result = get(rowKey, colKey);
+
+        if (result != null)
+            return result;
+        else
+            throw new NoSuchElementException(String.format("No value for row [%s] and column [%s].", rowKey, colKey));
+    }
+
+    /**
+     * Returns the hash code for this table.
+     * @return the hash code for this table.
+     */
+    @Override
+    public int hashCode() {
+        return cellSet().hashCode();
+    }
+
+    /**
+     * Identifies tables with no mappings.
+     * @return {@code true} iff the table contains no mappings.
+     */
+    @Override
+    public boolean isEmpty() {
+        return size.get() == 0;
+    }
+
+    /**
+     * Permanently assigns the contents of a cell.
+     *
+     * <p>This method may be called at most once with a given row/column
+     * key pair.  Calling it a second time with the same key pair will
+     * trigger an exception.</p>
+     *
+     * @param cell the cell to assign.
+     *
+     * @throws IllegalStateException if this table already contains a
+     * value associated with the row and column key pair of the cell.
+     */
+    public void put(@NonNull Cell<? extends R, ? extends C, ? extends V> cell) {
+        put(Objects.requireNonNull(cell.getRowKey()),
+            Objects.requireNonNull(cell.getColumnKey()),
+            Objects.requireNonNull(cell.getValue()));
+    }
+
+    /**
+     * Permanently associates the specified value with the specified keys.
+     *
+     * <p>This method may be called at most once with a given row/column
+     * key pair.  Calling it a second time with the same key pair will
+     * trigger an exception.</p>
+     *
+     * @param rowKey the row key to associate with the value.
+     * @param colKey the column key to associate with the value.
+     * @param value  the value to associate with the keys.
+     *
+     * @return {@code null}, because there cannot be a previous value
+     * stored in the cell.
+     *
+     * @throws IllegalStateException if this table already contains a
+     * value associated with the row and column key pair.
+     */
+    @Override
+    public V put(@NonNull R rowKey, @NonNull C colKey, @NonNull V value) {
+        var row = rows.computeIfAbsent(rowKey, key -> newMap(sorted));
+
+        if (row.putIfAbsent(colKey, value) != null)
+            throw new IllegalStateException(String.format("Cell [%s, %s] has already been assigned.", rowKey, colKey));
+
+        index(rowKey, colKey, value);
+        return null;
+    }
+
+    private void index(R rowKey, C colKey, V value) {
+        columns.computeIfAbsent(colKey, key -> newMap(sorted)).put(rowKey, value);
+        size.incrementAndGet();
+    }
+
+    /**
+     * Permanently assigns all mappings from the input table to this table.
+     *
+     * <p>Cells are assigned one at a time, so if this table already contains
+     * a mapping for any cell in the input table, the cells preceding it in the
+     * input table will have been assigned when the exception is thrown.</p>
+     *
+     * @param table the table to copy.
+     *
+     * @throws IllegalStateException if this table already contains mappings
+     * for any row/column key pairs in the input table.
+     */
+    @Override
+    public void putAll(@NonNull Table<? extends R, ? extends C, ? extends V> table) {
+        for (var cell : table.cellSet())
+            put(cell);
+    }
+
+    /**
+     * Guaranteed to throw an exception and leave the table unmodified.
+     * @throws RuntimeException always: cell removal is forbidden.
+     */
+    @Override
+    @Deprecated
+    public V remove(Object rowKey, Object colKey) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Returns a read-only view of a row in this table.
+     *
+     * @param rowKey the key of the row to view.
+     *
+     * @return an unmodifiable mapping for the specified row.
+     */
+    @Override
+    public Map<C, V> row(@NonNull R rowKey) {
+        return readOnly(rows.get(rowKey));
+    }
+
+    /**
+     * Returns a read-only view of the row keys in this table.
+     * @return an unmodifiable set containing the row keys.
+     */
+    @Override
+    public Set<R> rowKeySet() {
+        return Collections.unmodifiableSet(rows.keySet());
+    }
+
+    /**
+     * Returns a row-oriented read-only view of the mappings in this table.
+     *
+     * @return an unmodifiable row-oriented map for this table.
+     */
+    @Override
+    public Map<R, Map<C, V>> rowMap() {
+        return Collections.unmodifiableMap(Maps.transformValues(rows, row -> Collections.<C, V>unmodifiableMap(row)));
+    }
+
+    /**
+     * Returns the number of mappings in this table.
+     * @return the number of mappings in this table.
+     */
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Returns a read-only snapshot of the values in this table.
+     * @return an unmodifiable collection containing the values in this table.
+     */
+    @Override
+    public Collection<V> values() {
+        var values = new ArrayList<V>(size());
+
+        for (var row : rows.values())
+            values.addAll(row.values());
+
+        return Collections.unmodifiableList(values);
+    }
+
+    @Override
+    public String toString() {
+        return rowMap().toString();
+    }
+
+    private static <K, T> Map<K, T> readOnly(Map<K, T> map) {
+        return map != null ? Collections.unmodifiableMap(map) : Collections.emptyMap();
+    }
+}
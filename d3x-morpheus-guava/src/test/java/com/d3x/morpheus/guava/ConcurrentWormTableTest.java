@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2014-2021 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.guava;
+
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.Table;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * @author Scott Shaffer
+ */
+public class ConcurrentWormTableTest {
+    // An empty WORM table that remains empty for all tests...
+    private static final ConcurrentWormTable<Integer, String, String> empty = ConcurrentWormTable.hash();
+
+    // A WORM table whose contents are fixed for all tests...
+    private static final ConcurrentWormTable<Integer, String, String> fixed = ConcurrentWormTable.hash();
+
+    @BeforeClass
+    private void populateFixed() {
+        fixed.put(1, "two", "1-two");
+        fixed.put(3, "four", "3-four");
+        fixed.put(5, "six", "5-six");
+        fixed.put(5, "two", "5-two");
+    }
+
+    @Test(expectedExceptions = RuntimeException.class)
+    public void testClear() {
+        fixed.clear();
+    }
+
+    @Test(expectedExceptions = RuntimeException.class)
+    public void testColumn() {
+        fixed.column("two").put(1, "foo");
+    }
+
+    @Test(expectedExceptions = RuntimeException.class)
+    public void testRow() {
+        fixed.row(1).put("abc", "foo");
+    }
+
+    @Test(expectedExceptions = RuntimeException.class)
+    public void testRowMap() {
+        fixed.rowMap().get(1).put("abc", "foo");
+    }
+
+    @Test
+    public void testContents() {
+        Assert.assertTrue(fixed.contains(1, "two"));
+        Assert.assertFalse(fixed.contains(1, "four"));
+        Assert.assertFalse(fixed.contains(2, "two"));
+        Assert.assertTrue(fixed.containsRow(5));
+        Assert.assertFalse(fixed.containsRow(2));
+        Assert.assertTrue(fixed.containsColumn("six"));
+        Assert.assertFalse(fixed.containsColumn("foo"));
+        Assert.assertTrue(fixed.containsValue("3-four"));
+        Assert.assertFalse(fixed.containsValue("foo"));
+
+        Assert.assertEquals(fixed.get(5, "six"), "5-six");
+        Assert.assertNull(fixed.get(5, "four"));
+        Assert.assertEquals(fixed.row(5), Map.of("six", "5-six", "two", "5-two"));
+        Assert.assertEquals(fixed.column("two"), Map.of(1, "1-two", 5, "5-two"));
+        Assert.assertEquals(fixed.row(2), Map.of());
+        Assert.assertEquals(fixed.rowKeySet(), Set.of(1, 3, 5));
+        Assert.assertEquals(fixed.columnKeySet(), Set.of("two", "four", "six"));
+        Assert.assertEquals(Set.copyOf(fixed.values()), Set.of("1-two", "3-four", "5-six", "5-two"));
+        Assert.assertEquals(fixed.size(), 4);
+        Assert.assertEquals(empty.size(), 0);
+        Assert.assertTrue(empty.isEmpty());
+    }
+
+    @Test
+    public void testEquals() {
+        Table<Integer, String, String> table = HashBasedTable.create();
+        table.putAll(fixed);
+
+        Assert.assertEquals(fixed, table);
+        Assert.assertEquals(table, fixed);
+        Assert.assertEquals(fixed.hashCode(), table.hashCode());
+    }
+
+    @Test
+    public void testGetOrComputeConcurrent() {
+        assertComputedOnce(ConcurrentWormTable.hash());
+    }
+
+    @Test
+    public void testGetOrComputeConcurrentTree() {
+        for (int trial = 0; trial < 20; ++trial)
+            assertComputedOnce(ConcurrentWormTable.tree());
+    }
+
+    private static void assertComputedOnce(ConcurrentWormTable<Integer, String, String> table) {
+        var counter = new AtomicInteger();
+
+        IntStream.range(0, 1000).parallel().forEach(index -> {
+            var value = table.getOrCompute(index % 10, "A", (row, col) -> {
+                counter.incrementAndGet();
+                return row + "-" + col;
+            });
+
+            Assert.assertEquals(value, (index % 10) + "-A");
+        });
+
+        // Each cell is computed exactly once...
+        Assert.assertEquals(counter.get(), 10);
+        Assert.assertEquals(table.size(), 10);
+        Assert.assertEquals(table.column("A").size(), 10);
+    }
+
+    @Test
+    public void testGetOrAssign() {
+        var table = ConcurrentWormTable.<Integer, String, String>hash();
+        Assert.assertEquals(table.getOrAssign(1, "three", "foo"), "foo");
+        Assert.assertEquals(table.getOrAssign(1, "three", "bar"), "foo");
+        Assert.assertEquals(table.getOrThrow(1, "three"), "foo");
+    }
+
+    @Test(expectedExceptions = RuntimeException.class)
+    public void testGetOrThrowAbsent() {
+        fixed.getOrThrow(2, "four");
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testPutExisting() {
+        fixed.put(1, "two", "foo");
+    }
+
+    @Test(expectedExceptions = RuntimeException.class)
+    public void testRemove() {
+        fixed.remove(1, "two");
+    }
+
+    @Test
+    public void testTree() {
+        var table = ConcurrentWormTable.<Integer, String, String>tree();
+        table.put(3, "B", "3-B");
+        table.put(1, "C", "1-C");
+        table.put(2, "A", "2-A");
+
+        Assert.assertEquals(List.copyOf(table.rowKeySet()), List.of(1, 2, 3));
+        Assert.assertEquals(List.copyOf(table.columnKeySet()), List.of("A", "B", "C"));
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.json;
+
+import java.io.IOException;
+import java.util.BitSet;
+
+import com.d3x.morpheus.array.Array;
+import com.d3x.morpheus.array.ArrayBuilder;
+import com.d3x.morpheus.array.ArrayType;
+import com.d3x.morpheus.util.text.parser.Parser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * A column builder that reads untyped JSON values straight from a token stream into a primitive ArrayBuilder.
+ *
+ * <p>Numbers are read from their literal text so that integral columns are stored as ints, widening to longs when
+ * a value exceeds the int range, and to doubles when a fractional value or an integer beyond the long range is
+ * encountered. Null or missing values in a numeric column are recorded as nulls (NaN for doubles). Booleans and
+ * strings are stored as such, and a column with mixed value types falls back to an object array. A string value is
+ * passed through the parser for the column, if any, so that formatted dates and the like can be restored.</p>
+ *
+ * @author Xavier Witdouck
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ */
+class JsonColumnBuilder {
+
+    private int capacity;
+    private Parser<?> parser;
+    private final BitSet present = new BitSet();
+    private ArrayBuilder<Object> builder;
+
+
+    /**
+     * Constructor
+     * @param capacity  the initial capacity for the column
+     * @param parser    the optional parser for string values, null to retain strings
+     */
+    JsonColumnBuilder(int capacity, Parser<?> parser) {
+        this.capacity = capacity > 0 ? capacity : 10;
+        this.parser = parser;
+    }
+
+
+    /**
+     * Returns the array type currently inferred for this column
+     * @return  the inferred array type, null if no values have been read
+     */
+    ArrayType getDataType() {
+        return builder != null ? builder.getDataType() : null;
+    }
+
+
+    /**
+     * Reads the next value from the reader into this column at the index specified
+     * @param reader    the json reader positioned at a value
+     * @param index     the row index for value
+     * @throws IOException  if the value cannot be read
+     */
+    void read(JsonReader reader, int index) throws IOException {
+        final JsonToken token = reader.peek();
+        if (token == JsonToken.NULL) {
+            reader.nextNull();
+        } else if (token == JsonToken.BOOLEAN) {
+            final boolean value = reader.nextBoolean();
+            if (getDataType() == null || getDataType() == ArrayType.BOOLEAN) {
+                this.builder().setBoolean(index, value);
+            } else {
+                this.builder().setValue(index, value);
+            }
+            this.present.set(index);
+        } else if (token == JsonToken.NUMBER) {
+            this.readNumber(reader.nextString(), index);
+            this.present.set(index);
+        } else if (token == JsonToken.STRING) {
+            final String text = reader.nextString();
+            final Object value = parser != null ? parser.apply(text) : text;
+            this.builder().setValue(index, value);
+            this.present.set(index);
+        } else {
+            reader.skipValue();
+        }
+    }
+
+
+    /**
+     * Records a numeric value, widening the column type as required
+     * @param text      the numeric literal
+     * @param index     the row index for value
+     */
+    private void readNumber(String text, int index) {
+        final ArrayType type = getDataType();
+        final Long integral = parseLong(text);
+        if (integral == null || type == ArrayType.DOUBLE) {
+            final double value = Double.parseDouble(text);
+            if (type == ArrayType.INTEGER || type == ArrayType.LONG) {
+                this.promote(ArrayType.DOUBLE);
+            }
+            if (getDataType() == null || getDataType() == ArrayType.DOUBLE) {
+                this.builder().setDouble(index, value);
+            } else {
+                this.builder().setValue(index, value);
+            }
+        } else {
+            final long value = integral;
+            final boolean isInt = value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE;
+            if (type == ArrayType.INTEGER && !isInt) {
+                this.promote(ArrayType.LONG);
+            }
+            if (type == null) {
+                if (isInt) {
+                    this.builder().setInt(index, (int)value);
+                } else {
+                    this.builder().setLong(index, value);
+                }
+            } else if (getDataType() == ArrayType.INTEGER) {
+                this.builder.setInt(index, (int)value);
+            } else if (getDataType() == ArrayType.LONG) {
+                this.builder.setLong(index, value);
+            } else if (getDataType() == ArrayType.DOUBLE) {
+                this.builder.setDouble(index, (double)value);
+            } else {
+                this.builder.setValue(index, isInt ? Integer.valueOf((int)value) : Long.valueOf(value));
+            }
+        }
+    }
+
+
+    /**
+     * Returns the value of an integral literal, or null if the literal is fractional or beyond the long range
+     * @param text  the numeric literal
+     * @return      the long value, null if not representable as a long
+     */
+    private static Long parseLong(String text) {
+        if (text.indexOf('.') >= 0 || text.indexOf('e') >= 0 || text.indexOf('E') >= 0) {
+            return null;
+        } else {
+            try {
+                return Long.parseLong(text);
+            } catch (NumberFormatException ex) {
+                return null;
+            }
+        }
+    }
+
+
+    /**
+     * Returns the underlying builder, creating it on the first value
+     * @return  the underlying array builder
+     */
+    private ArrayBuilder<Object> builder() {
+        if (builder == null) {
+            this.builder = ArrayBuilder.of(capacity);
+        }
+        return builder;
+    }
+
+
+    /**
+     * Widens an integral column to the type specified, copying the values read so far
+     * @param type  the wider array type, either LONG or DOUBLE
+     */
+    private void promote(ArrayType type) {
+        final Array<Object> values = builder.toArray();
+        final ArrayType current = builder.getDataType();
+        final int length = builder.length();
+        this.capacity = Math.max(capacity, length);
+        this.builder = ArrayBuilder.of(capacity);
+        for (int i=0; i<length; ++i) {
+            final long value = current == ArrayType.INTEGER ? values.getInt(i) : values.getLong(i);
+            if (type == ArrayType.LONG) {
+                this.builder.setLong(i, value);
+            } else {
+                this.builder.setDouble(i, (double)value);
+            }
+        }
+    }
+
+
+    /**
+     * Returns the array for this column with the length specified
+     * @param length    the row count for the frame
+     * @return          the column array
+     */
+    Array<Object> toArray(int length) {
+        final Array<Object> array = toArray(builder, length);
+        final ArrayType type = getDataType();
+        if (type == ArrayType.INTEGER || type == ArrayType.LONG || type == ArrayType.DOUBLE) {
+            for (int i = present.nextClearBit(0); i < length; i = present.nextClearBit(i + 1)) {
+                array.setValue(i, null);
+            }
+        }
+        return array;
+    }
+
+
+    /**
+     * Returns the array of a builder padded with default values to the length specified
+     * @param builder   the array builder, which may be null if no values were read
+     * @param length    the required array length
+     * @param <T>       the element type
+     * @return          the array of the required length
+     */
+    static <T> Array<T> toArray(ArrayBuilder<T> builder, int length) {
+        if (builder == null) {
+            return Array.ofObjects(length);
+        } else {
+            final Array<T> array = builder.toArray();
+            return array.length() < length ? array.expand(length) : array;
+        }
+    }
+}
@@ -146,6 +146,7 @@ public interface JsonSink<R,C> {
                 case SPLIT:     new JsonSinkSplit<R,C>().write(frame, options);     break;
                 case COLUMNS:   new JsonSinkColumns<R,C>().write(frame, options);   break;
                 case DEFAULT:   new JsonSinkDefault<R,C>().write(frame, options);   break;
+                case INDEX:     new JsonSinkIndex<R,C>().write(frame, options);     break;
                 default:    throw new IllegalArgumentException("Unsupported JSON style: " + style);
             }
         }
@@ -62,6 +62,7 @@ public interface JsonSource<R,C> {
             case DEFAULT:   return new JsonSourceDefault<>();
             case COLUMNS:   return new JsonSourceColumns<>();
             case SPLIT:     return new JsonSourceSplit<>();
+            case INDEX:     return new JsonSourceIndex<>();
             default:        throw new IllegalArgumentException("Unsupported style specified: " + style);
         }
     }
@@ -178,7 +179,7 @@ public interface JsonSource<R,C> {
         private Parser<C> colKeyParser;
         /** The optional row predicate to filter rows */
         private Predicate<R> rowPredicate;
-        /** The optional column predicate to filter columns */
+        /** The optional column predicate to select columns, values of other columns are skipped while parsing */
         private Predicate<C> colPredicate;
 
 
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.json;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+import com.d3x.morpheus.frame.DataFrame;
+import com.d3x.morpheus.frame.DataFrameException;
+import com.d3x.morpheus.util.IO;
+import com.d3x.morpheus.util.text.parser.Parser;
+import com.google.gson.stream.JsonReader;
+
+/**
+ * A convenience base class for JsonSources that parse different json formats from a token stream
+ *
+ * @param <R>   the row key type
+ * @param <C>   the column key type
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author Xavier Witdouck
+ */
+public abstract class JsonSourceBase<R,C> implements JsonSource<R,C> {
+
+
+    @Override
+    public DataFrame<R,C> read(Options<R,C> options) throws DataFrameException {
+        JsonReader reader = null;
+        try {
+            var is = options.getResource().toInputStream();
+            reader = new JsonReader(new BufferedReader(new InputStreamReader(is, options.getCharset())));
+            return read(reader, options);
+        } finally {
+            IO.close(reader);
+        }
+    }
+
+
+    /**
+     * Returns a DataFrame loaded from the Json reader
+     * @param reader        the Json stream reader
+     * @param options       the options for parsing
+     * @return              the resulting DataFrame
+     * @throws DataFrameException   if fails to parse json into DataFrame
+     */
+    public abstract DataFrame<R,C> read(JsonReader reader, Options<R,C> options) throws DataFrameException;
+
+
+    /**
+     * Returns the parser for row keys, which defaults to retaining the raw string
+     * @param options   the source options
+     * @return          the row key parser
+     */
+    @SuppressWarnings("unchecked")
+    Parser<R> getRowKeyParser(Options<R,C> options) {
+        var defaultParser = (Parser<R>)Parser.forObject(String.class, v -> v);
+        return Optional.ofNullable(options.getRowKeyParser()).orElse(defaultParser);
+    }
+
+
+    /**
+     * Returns the parser for column keys, which defaults to retaining the raw string
+     * @param options   the source options
+     * @return          the column key parser
+     */
+    @SuppressWarnings("unchecked")
+    Parser<C> getColKeyParser(Options<R,C> options) {
+        var defaultParser = (Parser<C>)Parser.forObject(String.class, v -> v);
+        return Optional.ofNullable(options.getColKeyParser()).orElse(defaultParser);
+    }
+
+
+    /**
+     * Returns true if the row key is selected by the options
+     * @param options   the source options
+     * @param rowKey    the row key
+     * @return          true if the row should be included
+     */
+    boolean isIncluded(Options<R,C> options, R rowKey) {
+        final Predicate<R> predicate = options.getRowPredicate();
+        return predicate == null || predicate.test(rowKey);
+    }
+
+
+    /**
+     * Returns true if the column key is selected by the options
+     * @param options   the source options
+     * @param colKey    the column key
+     * @return          true if the column should be included
+     */
+    boolean isSelected(Options<R,C> options, C colKey) {
+        final Predicate<C> predicate = options.getColPredicate();
+        return predicate == null || predicate.test(colKey);
+    }
+
+
+    /**
+     * Returns a column builder for values of the column specified
+     * @param options   the source options
+     * @param colKey    the column key
+     * @param capacity  the initial capacity
+     * @return          the column builder
+     */
+    JsonColumnBuilder createColumn(Options<R,C> options, C colKey, int capacity) {
+        return new JsonColumnBuilder(capacity, options.getFormats().getParser(colKey));
+    }
+}
@@ -15,7 +15,8 @@
  */
 package com.d3x.morpheus.json;
 
-import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.HashMap;
 
 import com.d3x.morpheus.frame.DataFrame;
 import com.d3x.morpheus.frame.DataFrameException;
@@ -25,45 +26,72 @@ import com.google.gson.stream.JsonToken;
 /**
  * A JsonSource implementation that can load a DataFrame from Pandas compatible JSON with "columns" orientation
  *
+ * <p>Each column object is consumed token by token into a typed column builder, with row labels resolved to row
+ * ordinals as they are first encountered. Columns rejected by the column predicate are skipped without being
+ * parsed into values, as are entries for rows rejected by the row predicate.</p>
+ *
  * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
  *
  * @author Xavier Witdouck
  */
-class JsonSourceColumns<R,C> implements JsonSource<R,C> {
+class JsonSourceColumns<R,C> extends JsonSourceBase<R,C> {
 
-    private JsonReader reader;
 
     @Override
-    public synchronized DataFrame<R,C> read(Options<R,C> options) throws DataFrameException {
+    @SuppressWarnings("unchecked")
+    public synchronized DataFrame<R,C> read(JsonReader reader, Options<R,C> options) throws DataFrameException {
         try {
-            this.reader = new JsonReader(new InputStreamReader(options.getResource().toInputStream()));
-            this.reader.beginObject();
-            while (reader.hasNext()) {
-                final String name = reader.nextName();
-                final C colKey = options.getColKeyParser().apply(name);
-                this.reader.beginObject();
-                while (true) {
-                    final JsonToken token = reader.peek();
-                    if (token == JsonToken.END_OBJECT) {
-                        reader.endObject();
-                        break;
-                    } else if (token == JsonToken.NAME) {
-                        final String rowLabel = reader.nextName();
-                        final R rowKey = options.getRowKeyParser().apply(rowLabel);
-
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                return null;
+            } else {
+                var rowParser = getRowKeyParser(options);
+                var colParser = getColKeyParser(options);
+                var rowMap = new HashMap<String,Integer>();
+                var rowKeys = new ArrayList<R>();
+                var colKeys = new ArrayList<C>();
+                var builders = new ArrayList<JsonColumnBuilder>();
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    var colKey = colParser.apply(reader.nextName());
+                    if (!isSelected(options, colKey)) {
+                        reader.skipValue();
                     } else {
-                        switch (token) {
-                            case NAME:  break;
-                            case BOOLEAN:   break;
-                            case NUMBER:    break;
-                            case STRING:    break;
-                            case NULL:      break;
+                        var builder = createColumn(options, colKey, rowKeys.size());
+                        reader.beginObject();
+                        while (reader.hasNext()) {
+                            var rowLabel = reader.nextName();
+                            var rowOrdinal = rowMap.get(rowLabel);
+                            if (rowOrdinal == null) {
+                                var rowKey = rowParser.apply(rowLabel);
+                                rowOrdinal = isIncluded(options, rowKey) ? rowKeys.size() : -1;
+                                rowMap.put(rowLabel, rowOrdinal);
+                                if (rowOrdinal >= 0) {
+                                    rowKeys.add(rowKey);
+                                }
+                            }
+                            if (rowOrdinal < 0) {
+                                reader.skipValue();
+                            } else {
+                                builder.read(reader, rowOrdinal);
+                            }
                         }
+                        reader.endObject();
+                        colKeys.add(colKey);
+                        builders.add(builder);
                     }
                 }
+                reader.endObject();
+                var rowCount = rowKeys.size();
+                var colType = colKeys.isEmpty() ? (Class<C>)Object.class : (Class<C>)colKeys.get(0).getClass();
+                return DataFrame.of(rowKeys, colType, columns -> {
+                    for (int i=0; i<colKeys.size(); ++i) {
+                        columns.add(colKeys.get(i), builders.get(i).toArray(rowCount));
+                    }
+                });
             }
-            reader.endObject();
-            return null;
+        } catch (DataFrameException ex) {
+            throw ex;
         } catch (Exception ex) {
             throw new DataFrameException("Failed to load DataFrame from JSON: " + options, ex);
         }
@@ -15,16 +15,17 @@
  */
 package com.d3x.morpheus.json;
 
-import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
-import com.d3x.morpheus.array.Array;
+import com.d3x.morpheus.array.ArrayBuilder;
 import com.d3x.morpheus.array.ArrayType;
 import com.d3x.morpheus.frame.DataFrame;
 import com.d3x.morpheus.frame.DataFrameException;
@@ -32,32 +33,24 @@ import com.d3x.morpheus.index.Index;
 import com.d3x.morpheus.range.Range;
 import com.d3x.morpheus.util.IO;
 import com.d3x.morpheus.util.Resource;
-import com.google.gson.Gson;
-import com.google.gson.JsonArray;
+import com.d3x.morpheus.util.text.Formats;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonToken;
 
 /**
  * A JsonSource implementation that can parsed the DEFAULT
  *
+ * <p>Column definitions and data are consumed token by token, and values are appended directly into typed
+ * ArrayBuilders per column, so no intermediate json tree is allocated. Columns rejected by the column predicate
+ * and rows rejected by the row predicate are skipped in the token stream.</p>
+ *
  * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
  *
  * @author Xavier Witdouck
  */
-public class JsonSourceDefault<R,C> implements JsonSource<R,C> {
+public class JsonSourceDefault<R,C> extends JsonSourceBase<R,C> {
 
 
-    @Override
-    public DataFrame<R,C> read(Options<R,C> options) throws DataFrameException {
-        var is = options.getResource().toInputStream();
-        var reader = new JsonReader(new InputStreamReader(new BufferedInputStream(is)));
-        try {
-            return read(reader, options);
-        } finally {
-            IO.close(reader);
-        }
-    }
-
     /**
      * Returns a DataFrame loaded from the Json reader
      * @param reader        the Json stream reader
@@ -65,6 +58,7 @@ public class JsonSourceDefault<R,C> implements JsonSource<R,C> {
      * @return              the resulting DataFrame
      * @throws DataFrameException   if fails to parse json into DataFrame
      */
+    @Override
     @SuppressWarnings("unchecked")
     public DataFrame<R,C> read(JsonReader reader, Options<R,C> options) throws DataFrameException {
         try {
@@ -76,19 +70,15 @@ public class JsonSourceDefault<R,C> implements JsonSource<R,C> {
                 reader.beginObject();
                 token = reader.peek();
                 var rowCount = 10;
-                var colCount = 10;
-                DataFrame<R,C> result = null;
                 var rowType = (Class<R>)Object.class;
                 var colType = (Class<C>)Object.class;
-                var formats = options.getFormats();
+                Index<R> rowKeys = null;
+                List<Column<C>> columns = new ArrayList<>();
                 while (token != JsonToken.END_OBJECT) {
                     var name = reader.nextName();
                     if (name.equalsIgnoreCase("rowCount")) {
                         rowCount = reader.nextInt();
                         token = reader.peek();
-                    } else if (name.equalsIgnoreCase("colCount")) {
-                        colCount = reader.nextInt();
-                        token = reader.peek();
                     } else if (name.equalsIgnoreCase("rowType")) {
                         rowType = JsonSink.getDataType(reader.nextString());
                         token = reader.peek();
@@ -96,25 +86,26 @@ public class JsonSourceDefault<R,C> implements JsonSource<R,C> {
                         colType = JsonSink.getDataType(reader.nextString());
                         token = reader.peek();
                     } else if (name.equalsIgnoreCase("columns")) {
-                        var rows = Index.of(rowType, rowCount);
-                        var cols = Index.of(colType, colCount);
-                        result = DataFrame.ofObjects(rows, cols);
-                        var columns = (JsonArray)new Gson().fromJson(reader, JsonArray.class);
-                        for (int i=0; i<columns.size(); ++i) {
-                            var object = columns.get(i).getAsJsonObject();
-                            var key = formats.<C>parse(colType, object.get("key").getAsString());
-                            var dataType = JsonSink.getDataType(object.get("dataType").getAsString());
-                            var array = Array.of(dataType, rowCount);
-                            result.cols().add(key, array);
-                        }
+                        columns = readColumns(reader, colType, rowCount, options);
                         token = reader.peek();
                     } else if (name.equalsIgnoreCase("data")) {
-                        readData(result, reader, options);
+                        rowKeys = Index.of(rowType, rowCount);
+                        readData(reader, rowKeys, columns, options);
+                        token = reader.peek();
+                    } else {
+                        reader.skipValue();
                         token = reader.peek();
                     }
                 }
                 reader.endObject();
-                return result;
+                var rows = rowKeys != null ? rowKeys : Index.of(rowType, 0);
+                var selected = columns.stream().filter(Objects::nonNull).collect(Collectors.toList());
+                return DataFrame.of(rows, colType, frameColumns -> {
+                    for (Column<C> column : selected) {
+                        var array = JsonColumnBuilder.toArray(column.values, rows.size());
+                        frameColumns.add(column.key, array);
+                    }
+                });
             }
         } catch (IOException ex) {
             throw new DataFrameException("Failed to deserialzie DataFrame from json", ex);
@@ -123,72 +114,138 @@ public class JsonSourceDefault<R,C> implements JsonSource<R,C> {
 
 
     /**
-     * Reads data from the json stream into the data frame
-     * @param frame     the frame to populate with data
+     * Reads the column definitions from the json stream, with null entries for columns that are not selected
      * @param reader    the json stream reader
+     * @param colType   the column key type
+     * @param rowCount  the expected row count
      * @param options   the json source options
+     * @return          the list of column definitions in ordinal order
      */
-    private void readData(DataFrame<R,C> frame, JsonReader reader, Options options) throws IOException {
+    private List<Column<C>> readColumns(JsonReader reader, Class<C> colType, int rowCount, Options<R,C> options) throws IOException {
+        var formats = options.getFormats();
+        var columns = new ArrayList<Column<C>>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            C key = null;
+            Class<?> dataType = Object.class;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                var name = reader.nextName();
+                if (name.equals("key")) {
+                    key = formats.parse(colType, reader.nextString());
+                } else if (name.equals("dataType")) {
+                    dataType = JsonSink.getDataType(reader.nextString());
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            if (isSelected(options, key)) {
+                columns.add(new Column<>(key, dataType, rowCount));
+            } else {
+                columns.add(null);
+            }
+        }
+        reader.endArray();
+        return columns;
+    }
+
+
+    /**
+     * Reads data from the json stream into the column builders
+     * @param reader    the json stream reader
+     * @param rowKeys   the index to add row keys to
+     * @param columns   the column definitions, with null entries for columns to skip
+     * @param options   the json source options
+     */
+    private void readData(JsonReader reader, Index<R> rowKeys, List<Column<C>> columns, Options<R,C> options) throws IOException {
         var token = reader.peek();
         if (token == JsonToken.NULL) {
             reader.nextNull();
         } else {
             reader.beginObject();
-            token = reader.peek();
-            var cursor = frame.cursor();
+            var rowOrdinal = 0;
             var formats = options.getFormats();
-            var rowKeyType = frame.rows().keyClass();
-            var typeMap = frame.cols().keys().collect(Collectors.toMap(v -> v, v -> frame.cols().type(v)));
-            while (token != JsonToken.END_OBJECT) {
+            var rowKeyType = rowKeys.type();
+            while (reader.hasNext()) {
                 var rowLabel = reader.nextName();
                 var rowKey = formats.<R>parse(rowKeyType, rowLabel);
-                frame.rows().add(rowKey);
-                cursor.row(rowKey);
-                reader.beginObject();
-                token = reader.peek();
-                while (token != JsonToken.END_OBJECT) {
-                    var colLabel = reader.nextName();
-                    var colIndex = Integer.parseInt(colLabel.replace("#", ""));
-                    var colKey = frame.cols().key(colIndex);
-                    var dataType = typeMap.get(colKey);
-                    var typeCode = ArrayType.of(dataType);
-                    token = reader.peek();
-                    if (token == JsonToken.NULL) {
-                        reader.nextNull();
-                        cursor.colAt(colIndex).setValue(null);
-                        token = reader.peek();
-                    } else if (token == JsonToken.BOOLEAN) {
-                        var value = reader.nextBoolean();
-                        cursor.colAt(colIndex).setBoolean(value);
-                        token = reader.peek();
-                    } else if (token == JsonToken.STRING) {
-                        var text = reader.nextString();
-                        var parser = formats.getParserOrFail(colKey, dataType);
-                        var value = parser.apply(text);
-                        cursor.colAt(colIndex).setValue(value);
-                        token = reader.peek();
-                    } else if (typeCode == ArrayType.DOUBLE) {
-                        var value = reader.nextDouble();
-                        cursor.colAt(colIndex).setDouble(value);
-                        token = reader.peek();
-                    } else if (typeCode == ArrayType.LONG) {
-                        var value = reader.nextLong();
-                        cursor.colAt(colIndex).setLong(value);
-                        token = reader.peek();
-                    } else {
-                        var value = reader.nextInt();
-                        cursor.colAt(colIndex).setInt(value);
-                        token = reader.peek();
+                if (!isIncluded(options, rowKey)) {
+                    reader.skipValue();
+                } else {
+                    rowKeys.add(rowKey);
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        var colLabel = reader.nextName();
+                        var colIndex = Integer.parseInt(colLabel.replace("#", ""));
+                        var column = colIndex < columns.size() ? columns.get(colIndex) : null;
+                        if (column == null) {
+                            reader.skipValue();
+                        } else {
+                            column.read(reader, rowOrdinal, formats);
+                        }
                     }
+                    reader.endObject();
+                    rowOrdinal++;
                 }
-                reader.endObject();
-                token = reader.peek();
             }
             reader.endObject();
         }
     }
 
 
+    /**
+     * A column definition with a typed builder for its values
+     * @param <C>   the column key type
+     */
+    private static class Column<C> {
+
+        private C key;
+        private Class<?> dataType;
+        private ArrayType typeCode;
+        private ArrayBuilder<Object> values;
+
+        /**
+         * Constructor
+         * @param key       the column key
+         * @param dataType  the column data type
+         * @param rowCount  the expected row count
+         */
+        @SuppressWarnings("unchecked")
+        Column(C key, Class<?> dataType, int rowCount) {
+            this.key = key;
+            this.dataType = dataType;
+            this.typeCode = ArrayType.of(dataType);
+            this.values = ArrayBuilder.of(rowCount, (Class<Object>)dataType);
+        }
+
+        /**
+         * Reads the next value from the json stream into this column
+         * @param reader    the json stream reader
+         * @param index     the row index for value
+         * @param formats   the formats to parse string values
+         */
+        void read(JsonReader reader, int index, Formats formats) throws IOException {
+            var token = reader.peek();
+            if (token == JsonToken.NULL) {
+                reader.nextNull();
+            } else if (token == JsonToken.BOOLEAN) {
+                values.setBoolean(index, reader.nextBoolean());
+            } else if (token == JsonToken.STRING) {
+                var text = reader.nextString();
+                var parser = formats.getParserOrFail(key, dataType);
+                values.setValue(index, parser.apply(text));
+            } else if (typeCode == ArrayType.DOUBLE) {
+                values.setDouble(index, reader.nextDouble());
+            } else if (typeCode == ArrayType.LONG) {
+                values.setLong(index, reader.nextLong());
+            } else {
+                values.setInt(index, reader.nextInt());
+            }
+        }
+    }
+
+
     public static void main(String[] args) {
         var range = Range.of(LocalDate.parse("2019-05-01"), LocalDate.parse("2019-05-10"));
         var columns = IntStream.range(0, 10).mapToObj(i -> "Column-" + i).collect(Collectors.toList());
@@ -15,7 +15,88 @@
  */
 package com.d3x.morpheus.json;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 
-public class JsonSourceIndex {
+import com.d3x.morpheus.frame.DataFrame;
+import com.d3x.morpheus.frame.DataFrameException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
+/**
+ * A JsonSource implementation that can load a DataFrame from Pandas compatible JSON with "index" orientation
+ *
+ * <p>Each row object is consumed token by token, with column labels resolved to typed column builders as they are
+ * first encountered. Rows rejected by the row predicate are skipped without being parsed into values, as are
+ * entries for columns rejected by the column predicate.</p>
+ *
+ * @param <R>   the row key type
+ * @param <C>   the column key type
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ *
+ * @author Xavier Witdouck
+ */
+public class JsonSourceIndex<R,C> extends JsonSourceBase<R,C> {
+
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public synchronized DataFrame<R,C> read(JsonReader reader, Options<R,C> options) throws DataFrameException {
+        try {
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                return null;
+            } else {
+                var rowParser = getRowKeyParser(options);
+                var colParser = getColKeyParser(options);
+                var colMap = new HashMap<String,Integer>();
+                var rowKeys = new ArrayList<R>();
+                var colKeys = new ArrayList<C>();
+                var builders = new ArrayList<JsonColumnBuilder>();
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    var rowKey = rowParser.apply(reader.nextName());
+                    if (!isIncluded(options, rowKey)) {
+                        reader.skipValue();
+                    } else {
+                        var rowOrdinal = rowKeys.size();
+                        reader.beginObject();
+                        while (reader.hasNext()) {
+                            var colLabel = reader.nextName();
+                            var colOrdinal = colMap.get(colLabel);
+                            if (colOrdinal == null) {
+                                var colKey = colParser.apply(colLabel);
+                                colOrdinal = isSelected(options, colKey) ? colKeys.size() : -1;
+                                colMap.put(colLabel, colOrdinal);
+                                if (colOrdinal >= 0) {
+                                    colKeys.add(colKey);
+                                    builders.add(createColumn(options, colKey, rowOrdinal + 1));
+                                }
+                            }
+                            if (colOrdinal < 0) {
+                                reader.skipValue();
+                            } else {
+                                builders.get(colOrdinal).read(reader, rowOrdinal);
+                            }
+                        }
+                        reader.endObject();
+                        rowKeys.add(rowKey);
+                    }
+                }
+                reader.endObject();
+                var rowCount = rowKeys.size();
+                var colType = colKeys.isEmpty() ? (Class<C>)Object.class : (Class<C>)colKeys.get(0).getClass();
+                return DataFrame.of(rowKeys, colType, columns -> {
+                    for (int i=0; i<colKeys.size(); ++i) {
+                        columns.add(colKeys.get(i), builders.get(i).toArray(rowCount));
+                    }
+                });
+            }
+        } catch (DataFrameException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new DataFrameException("Failed to load DataFrame from JSON: " + options, ex);
+        }
+    }
 }
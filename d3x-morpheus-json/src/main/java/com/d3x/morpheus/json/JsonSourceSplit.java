@@ -15,44 +15,31 @@
  */
 package com.d3x.morpheus.json;
 
-import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
-import com.d3x.morpheus.array.ArrayBuilder;
 import com.d3x.morpheus.frame.DataFrame;
 import com.d3x.morpheus.frame.DataFrameException;
 import com.d3x.morpheus.util.IO;
 import com.d3x.morpheus.util.Resource;
-import com.d3x.morpheus.util.text.parser.Parser;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonToken;
 
 /**
  * A JsonSource implementation that can load a DataFrame from Pandas compatible JSON with "split" orientation
  *
+ * <p>Values are appended directly from the token stream into a typed column builder per column, which infers int,
+ * long, double, boolean or string storage. Columns rejected by the column predicate, and rows rejected by the row
+ * predicate, are skipped in the token stream, which requires the "columns" and "index" fields to precede "data".</p>
+ *
  * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
  *
  * @author Xavier Witdouck
  */
-public class JsonSourceSplit<R,C> implements JsonSource<R,C> {
+public class JsonSourceSplit<R,C> extends JsonSourceBase<R,C> {
 
-    @Override
-    public synchronized DataFrame<R,C> read(Options<R,C> options) throws DataFrameException {
-        var is = options.getResource().toInputStream();
-        var reader = new JsonReader(new InputStreamReader(new BufferedInputStream(is)));
-        try {
-            return read(reader, options);
-        } finally {
-            IO.close(reader);
-        }
-    }
 
     /**
      * Returns a DataFrame loaded from the Json reader
@@ -61,29 +48,26 @@ public class JsonSourceSplit<R,C> implements JsonSource<R,C> {
      * @return              the resulting DataFrame
      * @throws DataFrameException   if fails to parse json into DataFrame
      */
+    @Override
     public synchronized DataFrame<R,C> read(JsonReader reader, Options<R,C> options) throws DataFrameException {
         try {
             var token = reader.peek();
-            if (token == null) {
+            if (token == JsonToken.NULL) {
                 reader.nextNull();
                 return null;
             } else {
                 reader.beginObject();
-                token = reader.peek();
                 var rows = new ArrayList<R>();
                 var columns = new ArrayList<C>();
                 DataFrame<R,C> frame = null;
-                while (token != JsonToken.END_OBJECT) {
+                while (reader.hasNext()) {
                     var name = reader.nextName();
                     if (name.equalsIgnoreCase("columns")) {
                         columns.addAll(this.columns(reader, options));
-                        token = reader.peek();
                     } else if (name.equalsIgnoreCase("index")) {
                         rows.addAll(this.rows(reader, options));
-                        token = reader.peek();
                     } else if (name.equalsIgnoreCase("data")) {
-                        frame = data(reader, rows, columns);
-                        token = reader.peek();
+                        frame = data(reader, rows, columns, options);
                     } else {
                         throw new DataFrameException("Unexpected field name in DataFrame JSON: " + name);
                     }
@@ -91,6 +75,8 @@ public class JsonSourceSplit<R,C> implements JsonSource<R,C> {
                 reader.endObject();
                 return frame;
             }
+        } catch (DataFrameException ex) {
+            throw ex;
         } catch (Exception ex) {
             throw new DataFrameException("Failed to parse json into DataFrame", ex);
         }
@@ -103,29 +89,16 @@ public class JsonSourceSplit<R,C> implements JsonSource<R,C> {
      * @param options   the options
      * @return          the column keys
      */
-    @SuppressWarnings("unchecked")
     private List<C> columns(JsonReader reader, Options<R,C> options) throws IOException {
-        reader.beginArray();
-        var token = reader.peek();
-        var defaultParser = (Parser<C>)Parser.forObject(String.class, v -> v);
-        var parser = Optional.ofNullable(options.getColKeyParser()).orElse(defaultParser);
+        var parser = getColKeyParser(options);
         var columns = new ArrayList<C>();
-        while (token != JsonToken.END_ARRAY) {
-            token = reader.peek();
-            if (token == JsonToken.STRING) {
-                var value = reader.nextString();
-                columns.add(parser.apply(value));
-                token = reader.peek();
-            } else if (token == JsonToken.NUMBER) {
-                var value = String.valueOf(reader.nextDouble());
-                columns.add(parser.apply(value));
-                token = reader.peek();
-            } else if (token == JsonToken.BOOLEAN) {
-                var value = String.valueOf(reader.nextBoolean());
-                columns.add(parser.apply(value));
-                token = reader.peek();
-            } else if (token == JsonToken.NULL) {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            var token = reader.peek();
+            if (token == JsonToken.NULL) {
                 throw new DataFrameException("Cannot have null column headings in JSON");
+            } else {
+                columns.add(parser.apply(nextLabel(reader)));
             }
         }
         reader.endArray();
@@ -139,29 +112,16 @@ public class JsonSourceSplit<R,C> implements JsonSource<R,C> {
      * @param options   the options
      * @return          the row keys
      */
-    @SuppressWarnings("unchecked")
     private List<R> rows(JsonReader reader, Options<R,C> options) throws IOException {
-        reader.beginArray();
-        var token = reader.peek();
-        var defaultParser = (Parser<R>)Parser.forObject(String.class, v -> v);
-        var parser = Optional.ofNullable(options.getRowKeyParser()).orElse(defaultParser);
+        var parser = getRowKeyParser(options);
         var rows = new ArrayList<R>();
-        while (token != JsonToken.END_ARRAY) {
-            token = reader.peek();
-            if (token == JsonToken.STRING) {
-                var value = reader.nextString();
-                rows.add(parser.apply(value));
-                token = reader.peek();
-            } else if (token == JsonToken.NUMBER) {
-                var value = String.valueOf(reader.nextDouble());
-                rows.add(parser.apply(value));
-                token = reader.peek();
-            } else if (token == JsonToken.BOOLEAN) {
-                var value = String.valueOf(reader.nextBoolean());
-                rows.add(parser.apply(value));
-                token = reader.peek();
-            } else if (token == JsonToken.NULL) {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            var token = reader.peek();
+            if (token == JsonToken.NULL) {
                 throw new DataFrameException("Cannot have null row headings in JSON");
+            } else {
+                rows.add(parser.apply(nextLabel(reader)));
             }
         }
         reader.endArray();
@@ -169,52 +129,71 @@ public class JsonSourceSplit<R,C> implements JsonSource<R,C> {
     }
 
 
+    /**
+     * Returns the next scalar value from the reader as a label
+     * @param reader    the json reader
+     * @return          the label text
+     */
+    private String nextLabel(JsonReader reader) throws IOException {
+        var token = reader.peek();
+        if (token == JsonToken.BOOLEAN) {
+            return String.valueOf(reader.nextBoolean());
+        } else {
+            return reader.nextString();
+        }
+    }
+
+
     /**
      * Returns the data frame with all the data
      * @param reader        the json reader
      * @param rows          the row keys
      * @param columns       the column keys
+     * @param options       the options
      * @return              the resulting data frame
      * @throws IOException      if there is an IO error
      */
     @SuppressWarnings("unchecked")
-    private DataFrame<R,C> data(JsonReader reader, List<R> rows, List<C> columns) throws IOException {
-        reader.beginArray();
-        var token = reader.peek();
+    private DataFrame<R,C> data(JsonReader reader, List<R> rows, List<C> columns, Options<R,C> options) throws IOException {
         var rowCount = rows.size();
         var colCount = columns.size();
-        var colIndexes = IntStream.range(0, columns.size());
-        var arrays = colIndexes.mapToObj(i -> ArrayBuilder.of(rowCount)).collect(Collectors.toList());
-        while (token != JsonToken.END_ARRAY) {
-            reader.beginArray();
-            token = reader.peek();
-            for (int i=0; i<colCount; ++i) {
-                var array = arrays.get(i);
-                if (token == JsonToken.BOOLEAN) {
-                    array.appendBoolean(reader.nextBoolean());
-                    token = reader.peek();
-                } else if (token == JsonToken.NUMBER) {
-                    array.appendDouble(reader.nextDouble());
-                    token = reader.peek();
-                } else if (token == JsonToken.STRING) {
-                    array.append(reader.nextString());
-                    token = reader.peek();
-                } else if (token == JsonToken.NULL) {
-                    reader.nextNull();
-                    array.append(null);
-                    token = reader.peek();
+        var rowKeys = new ArrayList<R>(rowCount);
+        var builders = new ArrayList<JsonColumnBuilder>(colCount);
+        for (C column : columns) {
+            builders.add(isSelected(options, column) ? createColumn(options, column, rowCount) : null);
+        }
+        var rowIndex = 0;
+        var rowOrdinal = 0;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            var rowKey = rowIndex < rowCount ? rows.get(rowIndex) : (R)Integer.valueOf(rowIndex);
+            if (rowIndex < rowCount && !isIncluded(options, rowKey)) {
+                reader.skipValue();
+            } else {
+                reader.beginArray();
+                for (int i=0; reader.hasNext(); ++i) {
+                    var builder = i < colCount ? builders.get(i) : null;
+                    if (builder == null) {
+                        reader.skipValue();
+                    } else {
+                        builder.read(reader, rowOrdinal);
+                    }
                 }
+                reader.endArray();
+                rowKeys.add(rowKey);
+                rowOrdinal++;
             }
-            reader.endArray();
-            token = reader.peek();
+            rowIndex++;
         }
         reader.endArray();
-        var colType = (Class<C>)columns.get(0).getClass();
-        return DataFrame.of(rows, colType, cols -> {
-            for (int i=0; i<columns.size(); ++i) {
-                var column = columns.get(i);
-                var array = arrays.get(i).toArray();
-                cols.add(column, array);
+        var length = rowOrdinal;
+        var colType = colCount > 0 ? (Class<C>)columns.get(0).getClass() : (Class<C>)Object.class;
+        return DataFrame.of(rowKeys, colType, cols -> {
+            for (int i=0; i<colCount; ++i) {
+                var builder = builders.get(i);
+                if (builder != null) {
+                    cols.add(columns.get(i), builder.toArray(length));
+                }
             }
         });
     }
@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2014-2018 D3X Systems - All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.d3x.morpheus.json;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+import com.d3x.morpheus.frame.DataFrame;
+import com.d3x.morpheus.range.Range;
+import com.d3x.morpheus.util.Resource;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for the streaming json sources across all json styles
+ *
+ * @author Xavier Witdouck
+ *
+ * <p><strong>This is open source software released under the <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache 2.0 License</a></strong></p>
+ */
+public class JsonSourceTests {
+
+
+    @DataProvider(name="styles")
+    public Object[][] styles() {
+        return new Object[][] {
+            { JsonStyle.DEFAULT },
+            { JsonStyle.SPLIT },
+            { JsonStyle.COLUMNS },
+            { JsonStyle.INDEX }
+        };
+    }
+
+
+    private static DataFrame<String,String> createFrame() {
+        var rows = Range.of(0, 50).map(i -> "R" + i);
+        return DataFrame.of(rows, String.class, columns -> {
+            columns.add("Double", Double.class, v -> v.rowOrdinal() * 1.5d);
+            columns.add("Integer", Integer.class, v -> v.rowOrdinal() * 3);
+            columns.add("Long", Long.class, v -> 10000000000L + v.rowOrdinal());
+            columns.add("Boolean", Boolean.class, v -> v.rowOrdinal() % 2 == 0);
+            columns.add("String", String.class, v -> "Text-" + v.rowOrdinal());
+        });
+    }
+
+
+    private static byte[] write(DataFrame<String,String> frame, JsonStyle style) {
+        var os = new ByteArrayOutputStream();
+        JsonSink.<String,String>create().write(frame, options -> options.resource(Resource.of(os)).style(style));
+        return os.toByteArray();
+    }
+
+
+    private static DataFrame<String,String> read(byte[] json, JsonStyle style, Set<String> columns) {
+        return JsonSource.<String,String>create().read(options -> {
+            options.resource(Resource.of(new ByteArrayInputStream(json)));
+            options.style(style);
+            if (columns != null) {
+                options.colPredicate(columns::contains);
+            }
+        });
+    }
+
+
+    @Test(dataProvider="styles")
+    public void testRoundTrip(JsonStyle style) {
+        var expected = createFrame();
+        var actual = read(write(expected, style), style, null);
+        Assert.assertEquals(actual.rowCount(), expected.rowCount());
+        Assert.assertEquals(actual.colCount(), expected.colCount());
+        Assert.assertEquals(actual.cols().type("Double"), Double.class);
+        Assert.assertEquals(actual.cols().type("Integer"), Integer.class);
+        Assert.assertEquals(actual.cols().type("Long"), Long.class);
+        Assert.assertEquals(actual.cols().type("Boolean"), Boolean.class);
+        Assert.assertEquals(actual.cols().type("String"), String.class);
+        expected.rows().forEach(row -> {
+            var key = row.key();
+            Assert.assertTrue(actual.rows().contains(key), "Row exists: " + key);
+            Assert.assertEquals(actual.getDouble(key, "Double"), row.getDouble("Double"));
+            Assert.assertEquals(actual.getInt(key, "Integer"), row.getInt("Integer"));
+            Assert.assertEquals(actual.getLong(key, "Long"), row.getLong("Long"));
+            Assert.assertEquals(actual.getBoolean(key, "Boolean"), row.getBoolean("Boolean"));
+            Assert.assertEquals(actual.<String>getValue(key, "String"), row.<String>getValue("String"));
+        });
+    }
+
+
+    @Test(dataProvider="styles")
+    public void testSelectedColumns(JsonStyle style) {
+        var expected = createFrame();
+        var actual = read(write(expected, style), style, Set.of("Integer", "String"));
+        Assert.assertEquals(actual.rowCount(), expected.rowCount());
+        Assert.assertEquals(actual.colCount(), 2);
+        Assert.assertTrue(actual.cols().contains("Integer"));
+        Assert.assertTrue(actual.cols().contains("String"));
+        Assert.assertEquals(actual.getInt("R7", "Integer"), 21);
+        Assert.assertEquals(actual.<String>getValue("R7", "String"), "Text-7");
+    }
+
+
+    @Test(dataProvider="styles")
+    public void testRowPredicate(JsonStyle style) {
+        var json = write(createFrame(), style);
+        var actual = JsonSource.<String,String>create().read(options -> {
+            options.resource(Resource.of(new ByteArrayInputStream(json)));
+            options.style(style);
+            options.rowPredicate(key -> key.endsWith("0"));
+        });
+        Assert.assertEquals(actual.rowCount(), 5);
+        Assert.assertEquals(actual.rows().keyArray().getValue(1), "R10");
+        Assert.assertEquals(actual.getDouble("R10", "Double"), 15d);
+    }
+
+
+    @Test()
+    public void testNumericWidening() {
+        var json = "{\"columns\":[\"A\",\"B\",\"C\"],\"index\":[\"x\",\"y\",\"z\"],\"data\":[[1,1,true],[2.5,10000000000,\"text\"],[null,3,false]]}";
+        var bytes = json.getBytes(StandardCharsets.UTF_8);
+        var frame = read(bytes, JsonStyle.SPLIT, null);
+        Assert.assertEquals(frame.cols().type("A"), Double.class);
+        Assert.assertEquals(frame.cols().type("B"), Long.class);
+        Assert.assertEquals(frame.cols().type("C"), Object.class);
+        Assert.assertEquals(frame.getDouble("x", "A"), 1d);
+        Assert.assertEquals(frame.getDouble("y", "A"), 2.5d);
+        Assert.assertTrue(Double.isNaN(frame.getDouble("z", "A")));
+        Assert.assertEquals(frame.getLong("x", "B"), 1L);
+        Assert.assertEquals(frame.getLong("y", "B"), 10000000000L);
+        Assert.assertEquals(frame.<Object>getValue("y", "C"), "text");
+    }
+
+
+    @Test()
+    public void testMissingValuesAndLargeIntegers() {
+        var json = "{\"x\":{\"A\":1,\"B\":5},\"y\":{\"B\":6,\"C\":null},\"z\":{\"A\":3,\"B\":99999999999999999999,\"C\":7}}";
+        var bytes = json.getBytes(StandardCharsets.UTF_8);
+        var frame = read(bytes, JsonStyle.INDEX, null);
+        Assert.assertEquals(frame.cols().type("A"), Integer.class);
+        Assert.assertEquals(frame.cols().type("B"), Double.class);
+        Assert.assertEquals(frame.cols().type("C"), Integer.class);
+        Assert.assertEquals(frame.getInt("x", "A"), 1);
+        Assert.assertNull(frame.<Integer>getValue("y", "A"));
+        Assert.assertEquals(frame.getInt("z", "A"), 3);
+        Assert.assertEquals(frame.getDouble("x", "B"), 5d);
+        Assert.assertEquals(frame.getDouble("z", "B"), 1e20d);
+        Assert.assertNull(frame.<Integer>getValue("x", "C"));
+        Assert.assertNull(frame.<Integer>getValue("y", "C"));
+        Assert.assertEquals(frame.getInt("z", "C"), 7);
+    }
+}
@@ -26,6 +26,7 @@ import java.lang.reflect.Type;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLEncoder;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
@@ -35,18 +36,26 @@ import java.time.format.DateTimeFormatter;
 import java.time.temporal.Temporal;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.function.Consumer;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
 import com.d3x.morpheus.frame.DataFrame;
+import com.d3x.morpheus.frame.DataFrameCache;
 import com.d3x.morpheus.frame.DataFrameRow;
 import com.d3x.morpheus.util.IO;
+import com.d3x.morpheus.util.http.AsyncHttpClient;
+import com.d3x.morpheus.util.http.HttpClient;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonDeserializationContext;
@@ -90,6 +99,12 @@ public class QuandlSource {
     @lombok.Getter @lombok.Setter private String baseUrl;
     /** The http client to interact with Quandl */
     private CloseableHttpClient httpClient;
+    /** The optional cache for time series results, null to always query Quandl */
+    @lombok.Getter @lombok.Setter private DataFrameCache cache;
+    /** The time to live for cached time series results */
+    @lombok.Getter @lombok.Setter private Duration cacheTTL = Duration.ofHours(12);
+    /** The asynchronous http client used for bulk time series requests, created on first use if not set */
+    @lombok.Setter private volatile HttpClient asyncClient;
 
 
     /**
@@ -128,6 +143,22 @@ public class QuandlSource {
             .create();
     }
 
+
+    /**
+     * Returns the asynchronous http client used for bulk time series requests, creating it on first call
+     * @return  the asynchronous http client for this source
+     */
+    public HttpClient getAsyncClient() {
+        if (asyncClient == null) {
+            synchronized (this) {
+                if (asyncClient == null) {
+                    this.asyncClient = new AsyncHttpClient();
+                }
+            }
+        }
+        return asyncClient;
+    }
+
     /**
      * Returns the fully qualified Quandl URL string
      * @param path      the path to append to base url
@@ -319,6 +350,89 @@ public class QuandlSource {
      */
     public DataFrame<LocalDate,String> getTimeSeries(Consumer<TimeSeriesOptions> consumer) {
         var options = initOptions(TimeSeriesOptions.class, consumer);
+        if (cache == null) {
+            return loadTimeSeries(options);
+        } else {
+            return cache.get(getCacheKey(options), cacheTTL, () -> loadTimeSeries(options));
+        }
+    }
+
+
+    /**
+     * Returns DataFrame results for many Quandl time series queries, which are executed concurrently
+     * @link https://docs.quandl.com/docs/time-series
+     * @param datasets  the Quandl dataset codes to load, which override any dataset set by the consumer
+     * @param consumer  the consumer to initialize the options shared by all datasets
+     * @return          the resulting DataFrames keyed by dataset code, in the order of the dataset codes
+     */
+    public Map<String,DataFrame<LocalDate,String>> getTimeSeries(Collection<String> datasets, Consumer<TimeSeriesOptions> consumer) {
+        final Map<String,CompletableFuture<DataFrame<LocalDate,String>>> futures = new LinkedHashMap<>();
+        for (String dataset : datasets) {
+            final TimeSeriesOptions options = initOptions(TimeSeriesOptions.class, o -> {
+                consumer.accept(o);
+                o.setDataset(dataset);
+            });
+            futures.put(dataset, getTimeSeriesAsync(options));
+        }
+        final Map<String,DataFrame<LocalDate,String>> result = new LinkedHashMap<>();
+        futures.forEach((dataset, future) -> {
+            try {
+                result.put(dataset, future.join());
+            } catch (CompletionException ex) {
+                throw new QuandlException("Failed to load time-series from Quandl for dataset: " + dataset, ex.getCause());
+            }
+        });
+        return result;
+    }
+
+
+    /**
+     * Returns a future DataFrame result from a Quandl time series query, which is served from the cache if possible
+     * @param options   the time series options
+     * @return          the future DataFrame result
+     */
+    private CompletableFuture<DataFrame<LocalDate,String>> getTimeSeriesAsync(TimeSeriesOptions options) {
+        final String key = getCacheKey(options);
+        if (cache != null && cache.contains(key)) {
+            return CompletableFuture.completedFuture(cache.get(key, cacheTTL, () -> loadTimeSeries(options)));
+        } else {
+            final String database = options.getDatabase();
+            final String dataset = options.getDataset();
+            final URL url = createUrl("/api/v3/datasets/" + database + "/" + dataset + ".csv", options.toQueryString());
+            return getAsyncClient().<DataFrame<LocalDate,String>>doGetAsync(request -> {
+                request.setUrl(url);
+                request.setResponseHandler(response -> {
+                    return Optional.of(DataFrame.read(response.getStream()).csv(LocalDate.class, csvOptions -> {
+                        csvOptions.setColIndexPredicate(index -> index != 0);
+                        csvOptions.setRowKeyColumnIndex(0);
+                    }));
+                });
+            }).thenApply(frame -> {
+                final DataFrame<LocalDate,String> result = frame.orElseThrow(() -> {
+                    return new QuandlException("No time-series returned from Quandl: " + options);
+                });
+                return cache != null ? cache.get(key, cacheTTL, () -> result) : result;
+            });
+        }
+    }
+
+
+    /**
+     * Returns the key used to cache the result of a time series query
+     * @param options   the time series options
+     * @return          the cache key, which excludes the API key
+     */
+    private String getCacheKey(TimeSeriesOptions options) {
+        return QuandlSource.class.getName() + ":" + baseUrl + "/" + options.toCacheKey();
+    }
+
+
+    /**
+     * Returns a DataFrame loaded from Quandl for the time series options
+     * @param options   the time series options
+     * @return          the resulting DataFrame
+     */
+    private DataFrame<LocalDate,String> loadTimeSeries(TimeSeriesOptions options) {
         try {
             var database = options.getDatabase();
             var dataset = options.getDataset();
@@ -590,6 +704,15 @@ public class QuandlSource {
             }
             return query.toString();
         }
+
+        /**
+         * Returns a key that identifies the time series selected by these options, excluding the API key
+         * @return      the cache key for these options
+         */
+        String toCacheKey() {
+            final String range = String.format("start_date=%s&end_date=%s&ascending=%s&limit=%s", startDate, endDate, ascending, limit);
+            return getDatabase() + "/" + getDataset() + "?" + range;
+        }
     }
 
 
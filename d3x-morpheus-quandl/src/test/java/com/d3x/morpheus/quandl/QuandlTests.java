@@ -15,13 +15,20 @@
  */
 package com.d3x.morpheus.quandl;
 
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.ZonedDateTime;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
+import com.d3x.morpheus.frame.DataFrame;
 import com.d3x.morpheus.frame.DataFrameValue;
 import com.d3x.morpheus.util.IO;
+import com.sun.net.httpserver.HttpServer;
 import org.testng.Assert;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
@@ -312,4 +319,37 @@ public class QuandlTests {
             options.endDate("2016-01-01");
         });
     }
+
+
+    @Test()
+    public void testBulkTimeSeries() throws Exception {
+        final HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/v3/datasets/WIKI", exchange -> {
+            final String path = exchange.getRequestURI().getPath();
+            final String ticker = path.substring(path.lastIndexOf('/') + 1).replace(".csv", "");
+            final String csv = "Date,Close\n2018-01-02," + ticker.length() + ".5\n2018-01-03," + (ticker.length() + 1) + ".5";
+            final byte[] bytes = csv.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(bytes);
+            }
+        });
+        server.start();
+        try {
+            final var source = new QuandlSource("http://localhost:" + server.getAddress().getPort(), "test");
+            final var tickers = List.of("AAPL", "GE", "MSFT");
+            final Map<String,DataFrame<LocalDate,String>> frames = source.getTimeSeries(tickers, options -> {
+                options.setDatabase("WIKI");
+                options.startDate("2018-01-01");
+            });
+            Assert.assertEquals(List.copyOf(frames.keySet()), tickers);
+            frames.forEach((ticker, frame) -> {
+                Assert.assertEquals(frame.rowCount(), 2);
+                Assert.assertEquals(frame.getDouble(LocalDate.of(2018, 1, 2), "Close"), ticker.length() + 0.5);
+                Assert.assertEquals(frame.getDouble(LocalDate.of(2018, 1, 3), "Close"), ticker.length() + 1.5);
+            });
+        } finally {
+            server.stop(0);
+        }
+    }
 }
@@ -15,6 +15,7 @@
  */
 package com.d3x.morpheus.wb.source;
 
+import java.time.Duration;
 import java.time.Month;
 import java.util.List;
 import java.util.Optional;
@@ -121,6 +122,19 @@ public class WBClimateSource implements DataFrameSource<WBClimateKey,Month,WBCli
     }
 
 
+    @Override
+    public Optional<String> getCacheKey(Consumer<Options> configurator) {
+        final Options options = initOptions(new Options(), configurator);
+        return Optional.of(String.format("%s:%s:%s:%s", options.countryCode, options.gcm, options.sres, options.variable));
+    }
+
+
+    @Override
+    public Duration getCacheTTL(Consumer<Options> configurator) {
+        return Duration.ofDays(7);
+    }
+
+
     /**
      * Returns the World Bank Climate API REST URL for the options and year range
      * @param options   the user specified options
@@ -15,7 +15,9 @@
  */
 package com.d3x.morpheus.wb.source;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Optional;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -74,6 +76,19 @@ public class WBCountrySource implements DataFrameSource<String,WBCountry.Field,W
     }
 
 
+    @Override
+    public Optional<String> getCacheKey(Consumer<Options> configurator) {
+        final Options options = initOptions(new Options(), configurator);
+        return Optional.of(String.format("%s:%s", options.regex, options.useIsoCode));
+    }
+
+
+    @Override
+    public Duration getCacheTTL(Consumer<Options> configurator) {
+        return Duration.ofDays(1);
+    }
+
+
 
 
 
@@ -15,12 +15,14 @@
  */
 package com.d3x.morpheus.wb.source;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import com.google.gson.stream.JsonReader;
@@ -79,6 +81,33 @@ public class WBIndicatorSource implements DataFrameSource<LocalDate,String,WBInd
     }
 
 
+    /**
+     * Returns a cache key composed of the indicator, the sorted country codes and the requested date range.
+     * A request without an end date is keyed as open ended rather than by the current date, so that it
+     * remains the same key from one day to the next and is refreshed by the cache TTL instead.
+     */
+    @Override
+    public Optional<String> getCacheKey(Consumer<Options> handler) {
+        final Options options = Initialiser.apply(new Options(), handler);
+        final LocalDate start = Optional.ofNullable(options.startDate).orElse(LocalDate.of(1970, 1, 1));
+        final String end = options.endDate != null ? options.endDate.toString() : "latest";
+        final String countries = options.countries.isEmpty() ? "all" : options.countries.stream()
+            .map(country -> country.equalsIgnoreCase("all") ? "all" : country.toUpperCase())
+            .sorted()
+            .distinct()
+            .collect(Collectors.joining(","));
+        return Optional.ofNullable(options.indicator).map(indicator -> {
+            return String.format("%s:%s:%s:%s", indicator, start, end, countries);
+        });
+    }
+
+
+    @Override
+    public Duration getCacheTTL(Consumer<Options> handler) {
+        return Duration.ofDays(1);
+    }
+
+
     /**
      * Returns a DataFrame of indicator values given the ticker and date range specified
      * @param indicator     the World Bank indicator ticker
@@ -218,7 +247,6 @@ public class WBIndicatorSource implements DataFrameSource<LocalDate,String,WBInd
             this.batchSize = 10000;
             this.countries = new TreeSet<>();
             this.startDate = LocalDate.of(1970, 1, 1);
-            this.endDate = LocalDate.now();
         }
 
         /**
@@ -238,7 +266,7 @@ public class WBIndicatorSource implements DataFrameSource<LocalDate,String,WBInd
         }
 
         /**
-         * Sets the start date for these options
+         * Sets the end date for these options, which is the current date if not specified
          * @param endDate       sets the end date
          */
         public void setEndDate(LocalDate endDate) {
@@ -53,6 +53,31 @@ public class WBIndicatorTest {
     }
 
 
+    @Test()
+    public void testCacheKey() {
+        final String key1 = source.getCacheKey(options -> {
+            options.setIndicator("EN.ATM.CO2E.PC");
+            options.setStartDate(LocalDate.of(2000, 1, 1));
+            options.setEndDate(LocalDate.of(2013, 1, 1));
+            options.setCountries("US", "jp", "DE");
+        }).orElse(null);
+        final String key2 = source.getCacheKey(options -> {
+            options.setIndicator("EN.ATM.CO2E.PC");
+            options.setStartDate(LocalDate.of(2000, 1, 1));
+            options.setEndDate(LocalDate.of(2013, 1, 1));
+            options.setCountries(List.of("DE", "JP", "US"));
+        }).orElse(null);
+        final String openEnded = source.getCacheKey(options -> {
+            options.setIndicator("EN.ATM.CO2E.PC");
+            options.setStartDate(LocalDate.of(2000, 1, 1));
+        }).orElse(null);
+        Assert.assertEquals(key1, "EN.ATM.CO2E.PC:2000-01-01:2013-01-01:DE,JP,US");
+        Assert.assertEquals(key2, key1);
+        Assert.assertEquals(openEnded, "EN.ATM.CO2E.PC:2000-01-01:latest:all");
+        Assert.assertFalse(openEnded.contains(LocalDate.now().toString()));
+    }
+
+
     @Test(enabled = false)
     public void testC02() {
         var path = "/indicators/EN.ATM.CO2E.PC.csv";